@@ -2,12 +2,14 @@ package xyz.graygoo401.api.common.dto.mq;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 /**
  * 社区事件DTO
  */
 @Data
 @AllArgsConstructor
+@NoArgsConstructor
 public class CommunityEventDTO {
     private Long postId;
     private Long operatorId; // 操作人
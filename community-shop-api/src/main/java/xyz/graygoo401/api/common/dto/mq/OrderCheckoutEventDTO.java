@@ -0,0 +1,21 @@
+package xyz.graygoo401.api.common.dto.mq;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 购物车结算聚合事件DTO（一次结算只发送一条事件）
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderCheckoutEventDTO {
+    private String checkoutNo;
+    private Long buyerId;
+    private BigDecimal totalAmount;
+    private List<OrderEventDTO> orders; // 本次结算创建的全部订单
+}
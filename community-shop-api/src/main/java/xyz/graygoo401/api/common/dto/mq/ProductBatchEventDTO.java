@@ -0,0 +1,19 @@
+package xyz.graygoo401.api.common.dto.mq;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 商品批量事件DTO（商品批量导入时一批写入发送一条，代替逐个商品的创建事件）
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductBatchEventDTO {
+    private Long sellerId;
+    private List<Long> productIds; // 本批写入的商品ID
+    private String action;
+}
@@ -0,0 +1,18 @@
+package xyz.graygoo401.api.common.dto.mq;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 商品事件DTO
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductEventDTO {
+    private Long productId;
+    private Long sellerId;
+    private String title;
+    private String action;
+}
@@ -0,0 +1,21 @@
+package xyz.graygoo401.api.common.dto.mq;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 商品图片转存事件DTO
+ * 1. image.ingest：交易服务发送批量导入的外部图片URL，由基础服务异步下载并转存至MinIO；
+ * 2. image.stored：基础服务转存完成后回传MinIO相对路径，由交易服务补充商品首图
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductImageIngestEventDTO {
+    private Long productId;
+    private Long sellerId;
+    private List<String> imageUrls; // 图片URL或转存后的相对路径（按展示顺序）
+}
@@ -0,0 +1,15 @@
+package xyz.graygoo401.api.common.dto.mq;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 验证码发送事件DTO（只携带接收方，验证码本身不进入消息队列，发送时从缓存读取当前有效的验证码）
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class VerifyCodeEventDTO {
+    private String target; // 接收方邮箱或手机号
+}
@@ -0,0 +1,92 @@
+package xyz.graygoo401.api.common.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import xyz.graygoo401.api.common.dto.mq.CommunityEventDTO;
+import xyz.graygoo401.api.common.dto.mq.OrderCheckoutEventDTO;
+import xyz.graygoo401.api.common.dto.mq.OrderEventDTO;
+import xyz.graygoo401.api.common.dto.mq.VerifyCodeEventDTO;
+
+/**
+ * 消息事件目录（每种事件一个路由键，生产者与消费者共用）
+ * 路由键格式：{领域}.{事件}.v{版本}，版本对应消息体结构；消息体不兼容变更时新增v2事件并行发送，消费者迁移完成后下线v1
+ * 消费者按事件逐个绑定（@QueueBinding的key使用RoutingKeys常量），不使用通配符，只接收自己处理的事件
+ */
+@AllArgsConstructor
+@Getter
+public enum MqEventTypeEnum {
+
+    /** 订单创建（单个商品下单） */
+    ORDER_CREATED(Exchanges.ORDER, RoutingKeys.ORDER_CREATED, 1, OrderEventDTO.class, "订单创建"),
+
+    /** 购物车结算（一次结算一条消息，包含全部子订单） */
+    CHECKOUT_CREATED(Exchanges.ORDER, RoutingKeys.CHECKOUT_CREATED, 1, OrderCheckoutEventDTO.class, "购物车结算"),
+
+    /** 订单支付成功 */
+    ORDER_PAID(Exchanges.ORDER, RoutingKeys.ORDER_PAID, 1, OrderEventDTO.class, "订单支付"),
+
+    /** 订单取消（买家/管理员取消、超时关闭） */
+    ORDER_CANCELLED(Exchanges.ORDER, RoutingKeys.ORDER_CANCELLED, 1, OrderEventDTO.class, "订单取消"),
+
+    /** 订单发货 */
+    ORDER_SHIPPED(Exchanges.ORDER, RoutingKeys.ORDER_SHIPPED, 1, OrderEventDTO.class, "订单发货"),
+
+    /** 订单完成（确认收货） */
+    ORDER_COMPLETED(Exchanges.ORDER, RoutingKeys.ORDER_COMPLETED, 1, OrderEventDTO.class, "订单完成"),
+
+    /** 订单退货 */
+    ORDER_RETURNED(Exchanges.ORDER, RoutingKeys.ORDER_RETURNED, 1, OrderEventDTO.class, "订单退货"),
+
+    /** 帖子被点赞 */
+    POST_LIKED(Exchanges.COMMUNITY, RoutingKeys.POST_LIKED, 1, CommunityEventDTO.class, "帖子点赞"),
+
+    /** 邮箱验证码待发送（消息体只含邮箱，验证码由发送方从缓存读取） */
+    EMAIL_CODE_REQUESTED(Exchanges.INFRA, RoutingKeys.EMAIL_CODE_REQUESTED, 1, VerifyCodeEventDTO.class, "邮箱验证码发送"),
+
+    /** 短信验证码待发送（消息体只含手机号，验证码由发送方从缓存读取） */
+    SMS_CODE_REQUESTED(Exchanges.INFRA, RoutingKeys.SMS_CODE_REQUESTED, 1, VerifyCodeEventDTO.class, "短信验证码发送");
+
+    /** 交换机 */
+    private final String exchange;
+
+    /** 路由键 */
+    private final String routingKey;
+
+    /** 消息体版本（与路由键后缀一致） */
+    private final int version;
+
+    /** 消息体类型 */
+    private final Class<?> payloadType;
+
+    /** 事件名称（用于日志） */
+    private final String desc;
+
+    /**
+     * 交换机名称常量
+     */
+    public static final class Exchanges {
+        public static final String ORDER = "order.topic";
+        public static final String COMMUNITY = "community.topic";
+        public static final String INFRA = "infra.topic";
+
+        private Exchanges() {}
+    }
+
+    /**
+     * 路由键常量（注解属性需使用编译期常量，消费者绑定时引用）
+     */
+    public static final class RoutingKeys {
+        public static final String ORDER_CREATED = "order.created.v1";
+        public static final String CHECKOUT_CREATED = "checkout.created.v1";
+        public static final String ORDER_PAID = "order.paid.v1";
+        public static final String ORDER_CANCELLED = "order.cancelled.v1";
+        public static final String ORDER_SHIPPED = "order.shipped.v1";
+        public static final String ORDER_COMPLETED = "order.completed.v1";
+        public static final String ORDER_RETURNED = "order.returned.v1";
+        public static final String POST_LIKED = "community.post.liked.v1";
+        public static final String EMAIL_CODE_REQUESTED = "infra.code.email.v1";
+        public static final String SMS_CODE_REQUESTED = "infra.code.sms.v1";
+
+        private RoutingKeys() {}
+    }
+}
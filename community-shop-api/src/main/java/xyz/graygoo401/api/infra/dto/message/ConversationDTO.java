@@ -0,0 +1,61 @@
+package xyz.graygoo401.api.infra.dto.message;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 私信会话DTO，用于会话列表（聊天列表）展示
+ */
+@Data
+@Schema(description = "私信会话DTO，用于会话列表展示")
+public class ConversationDTO {
+
+    /** 会话ID */
+    @Schema(description = "会话唯一标识", example = "3001")
+    private Long conversationId;
+
+    /** 聊天对象信息 */
+    @Schema(description = "聊天对象信息（已脱敏）")
+    private PartnerDTO partner;
+
+    /** 最后一条消息ID */
+    @Schema(description = "最后一条消息ID", example = "10001")
+    private Long lastMessageId;
+
+    /** 最后一条消息发送者ID */
+    @Schema(description = "最后一条消息发送者ID", example = "1001")
+    private Long lastSenderId;
+
+    /** 最后一条消息摘要 */
+    @Schema(description = "最后一条消息内容摘要（已删除时为空）", example = "明天上午10点在社区超市门口取货可以吗？")
+    private String lastMessageSummary;
+
+    /** 当前用户在该会话中的未读数 */
+    @Schema(description = "当前用户在该会话中的未读消息数", example = "2")
+    private Integer unreadCount;
+
+    /** 最后活跃时间 */
+    @Schema(description = "会话最后活跃时间（最后一条消息的发送时间）", example = "2024-05-20T15:30:00")
+    private LocalDateTime updateTime;
+
+    /**
+     * 聊天对象信息内部类
+     */
+    @Data
+    @Schema(description = "私信会话聊天对象信息")
+    public static class PartnerDTO {
+        /** 用户ID */
+        @Schema(description = "聊天对象用户ID", example = "1002")
+        private Long userId;
+
+        /** 用户名 */
+        @Schema(description = "聊天对象用户名", example = "user456")
+        private String username;
+
+        /** 头像URL */
+        @Schema(description = "聊天对象头像URL", example = "https://example.com/avatar2.jpg")
+        private String avatarUrl;
+    }
+}
@@ -0,0 +1,33 @@
+package xyz.graygoo401.api.infra.dto.message;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import xyz.graygoo401.api.infra.enums.MessageTypeEnum;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 批量标记已读DTO（匹配MessageService.batchMarkAsRead方法）
+ * 三个条件可组合使用，至少指定一个；只处理当前用户收到的未读、未删除消息
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "批量标记已读DTO，按消息ID列表、消息类型、发送时间上限筛选当前用户的未读消息")
+public class MessageBatchReadDTO {
+
+    /** 消息ID列表（可选，最多500条） */
+    @Schema(description = "消息ID列表（可选，最多500条）", example = "[10001, 10002]")
+    private List<Long> msgIds;
+
+    /** 消息类型（可选，如全部订单消息） */
+    @Schema(description = "消息类型（可选）", example = "ORDER")
+    private MessageTypeEnum type;
+
+    /** 发送时间上限（可选，标记该时间之前的消息） */
+    @Schema(description = "发送时间上限（可选，不含该时间）", example = "2024-01-01T00:00:00")
+    private LocalDateTime before;
+}
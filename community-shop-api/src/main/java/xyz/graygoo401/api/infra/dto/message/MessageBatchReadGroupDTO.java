@@ -0,0 +1,33 @@
+package xyz.graygoo401.api.infra.dto.message;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import xyz.graygoo401.api.infra.enums.MessageTypeEnum;
+
+/**
+ * 批量已读分组统计DTO（单个接收人按消息类型、会话分组的未读数与最大消息ID）
+ */
+@Data
+@Schema(description = "批量已读分组统计")
+public class MessageBatchReadGroupDTO {
+
+    /** 消息类型 */
+    @Schema(description = "消息类型", example = "PRIVATE")
+    private MessageTypeEnum type;
+
+    /** 私信会话ID（非私信为null） */
+    @Schema(description = "私信会话ID", example = "3001")
+    private Long conversationId;
+
+    /** 发送者ID（私信会话内即聊天对象） */
+    @Schema(description = "发送者ID", example = "1")
+    private Long senderId;
+
+    /** 未读消息数 */
+    @Schema(description = "未读消息数", example = "3")
+    private Integer unreadCount;
+
+    /** 分组内最大消息ID */
+    @Schema(description = "分组内最大消息ID", example = "1005")
+    private Long maxMsgId;
+}
@@ -42,6 +42,10 @@ public class MessageListItemDTO {
     @Schema(description = "是否包含附件（用于显示附件图标）", example = "true")
     private Boolean hasAttachment;
 
+    /** 是否为全员公告（公告的messageId为公告ID，已读状态由用户的公告阅读游标决定） */
+    @Schema(description = "是否为全员公告（true时messageId为公告ID）", example = "false")
+    private Boolean isAnnouncement;
+
     /**
      * 发送者信息内部类（脱敏）
      */
@@ -0,0 +1,43 @@
+package xyz.graygoo401.api.infra.dto.message;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import xyz.graygoo401.api.infra.enums.MessageTypeEnum;
+
+import java.time.LocalDateTime;
+
+/**
+ * 消息推送DTO（经SSE推送给在线客户端，同时作为节点间Redis发布订阅的消息体）
+ */
+@Data
+@Schema(description = "消息推送事件，客户端收到后可直接展示或刷新未读角标")
+public class MessagePushDTO {
+
+    /** 接收人ID（为null表示推送给全部在线用户，如全员公告） */
+    @Schema(description = "接收人ID（全员公告为null）", example = "2")
+    private Long receiverId;
+
+    /** 消息ID（公告时为公告ID） */
+    @Schema(description = "消息ID（isAnnouncement为true时为公告ID）", example = "10001")
+    private Long messageId;
+
+    /** 消息类型 */
+    @Schema(description = "消息类型", example = "ORDER")
+    private MessageTypeEnum type;
+
+    /** 标题 */
+    @Schema(description = "消息标题", example = "订单已发货")
+    private String title;
+
+    /** 内容摘要（前30字） */
+    @Schema(description = "消息内容摘要（前30字）", example = "您的订单已发货，请注意查收...")
+    private String contentSummary;
+
+    /** 是否为全员公告 */
+    @Schema(description = "是否为全员公告", example = "false")
+    private Boolean isAnnouncement;
+
+    /** 发送时间 */
+    @Schema(description = "消息发送时间", example = "2024-05-20T15:30:00")
+    private LocalDateTime createTime;
+}
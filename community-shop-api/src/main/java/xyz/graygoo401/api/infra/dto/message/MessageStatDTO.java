@@ -33,6 +33,12 @@ public class MessageStatDTO {
     @Schema(description = "系统公告类型未读消息数", example = "1")
     private Integer systemUnread = 0;
 
+    /**
+     * 私信类未读消息数（MessageTypeEnum.PRIVATE）
+     */
+    @Schema(description = "私信类型未读消息数", example = "2")
+    private Integer privateUnread = 0;
+
     /**
      * 售后提醒类未读消息数（MessageTypeEnum.AFTER_SALE）
      */
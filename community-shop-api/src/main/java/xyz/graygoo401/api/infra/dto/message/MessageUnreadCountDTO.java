@@ -0,0 +1,25 @@
+package xyz.graygoo401.api.infra.dto.message;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import xyz.graygoo401.api.infra.enums.MessageTypeEnum;
+
+/**
+ * 未读消息分组计数DTO（单个接收人单个消息类型的未读数）
+ */
+@Data
+@Schema(description = "未读消息分组计数")
+public class MessageUnreadCountDTO {
+
+    /** 接收人ID */
+    @Schema(description = "接收人ID", example = "2")
+    private Long receiverId;
+
+    /** 消息类型 */
+    @Schema(description = "消息类型", example = "ORDER")
+    private MessageTypeEnum type;
+
+    /** 未读消息数 */
+    @Schema(description = "未读消息数", example = "3")
+    private Integer unreadCount;
+}
@@ -10,6 +10,9 @@ import xyz.graygoo401.api.infra.dto.verification.VerifyEmailDTO;
 import xyz.graygoo401.api.infra.dto.verification.VerifyPhoneDTO;
 import xyz.graygoo401.common.vo.ResultVO;
 
+import java.util.List;
+import java.util.Map;
+
 @FeignClient(name = "infra-service", contextId = "infraClient")
 public interface InfraClient {
 
@@ -31,6 +34,12 @@ public interface InfraClient {
     @PostMapping("/api/v1/infra/inner/messages/send")
     ResultVO<Long> sendMessage(@RequestParam("senderId") Long senderId, @RequestBody MessageSendDTO sendDTO);
 
+    /**
+     * 批量统计用户未读消息总数（列表页展示未读角标时调用）
+     */
+    @PostMapping("/api/v1/infra/inner/messages/unread/count/batch")
+    ResultVO<Map<Long, Integer>> batchCountUnreadMessages(@RequestBody List<Long> userIds);
+
     /**
      * 远程删除文件（如更换头像时清理旧图）
      */
@@ -0,0 +1,29 @@
+package xyz.graygoo401.api.trade.dto.cart;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 购物车商品添加/修改请求DTO
+ */
+@Schema(description = "购物车商品添加/修改请求DTO")
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class CartItemAddDTO {
+
+    /** 商品ID */
+    @Schema(description = "商品ID", example = "3001", requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotNull(message = "商品ID不能为空")
+    private Long productId;
+
+    /** 购买数量（添加时为增量，修改时为目标数量） */
+    @Schema(description = "购买数量（添加时为增量，修改时为目标数量）", example = "1", requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotNull(message = "数量不能为空")
+    @Positive(message = "数量必须大于0")
+    private Integer quantity;
+}
@@ -0,0 +1,47 @@
+package xyz.graygoo401.api.trade.dto.cart;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import xyz.graygoo401.api.trade.enums.ProductStatusEnum;
+
+import java.math.BigDecimal;
+
+/**
+ * 购物车商品项DTO（购物车列表展示）
+ */
+@Schema(description = "购物车商品项DTO，用于购物车列表展示")
+@Data
+public class CartItemDTO {
+
+    /** 商品ID */
+    @Schema(description = "商品ID", example = "3001")
+    private Long productId;
+
+    /** 卖家ID（结算时按卖家拆分子订单） */
+    @Schema(description = "卖家ID", example = "2001")
+    private Long sellerId;
+
+    /** 商品标题 */
+    @Schema(description = "商品标题", example = "九成新iPhone 13")
+    private String title;
+
+    /** 商品单价 */
+    @Schema(description = "商品单价", example = "3999.00")
+    private BigDecimal price;
+
+    /** 加购数量 */
+    @Schema(description = "加购数量", example = "1")
+    private Integer quantity;
+
+    /** 当前库存 */
+    @Schema(description = "当前库存", example = "5")
+    private Integer stock;
+
+    /** 商品状态 */
+    @Schema(description = "商品状态（枚举）", example = "ON_SALE")
+    private ProductStatusEnum status;
+
+    /** 是否可结算（在售且库存充足） */
+    @Schema(description = "是否可结算（在售且库存充足）", example = "true")
+    private Boolean available;
+}
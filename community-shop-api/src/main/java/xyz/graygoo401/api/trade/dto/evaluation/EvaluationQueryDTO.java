@@ -1,7 +1,6 @@
 package xyz.graygoo401.api.trade.dto.evaluation;
 
 import io.swagger.v3.oas.annotations.media.Schema;
-import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 import xyz.graygoo401.api.trade.enums.EvaluationSortFieldEnum;
 import xyz.graygoo401.common.dto.PageParam;
@@ -15,9 +14,8 @@ import xyz.graygoo401.common.enums.SortDirectionEnum;
 @Schema(description = "评价列表查询参数DTO，用于接收评价列表的筛选条件和分页参数")
 public class EvaluationQueryDTO extends PageParam {
 
-    /** 被评论者家ID（如查询某卖家的评价） */
-    @NotNull(message = "被评论者ID不能为空")
-    @Schema(description = "被评论者ID（如卖家ID）", example = "123456", requiredMode = Schema.RequiredMode.REQUIRED)
+    /** 被评论者家ID（如查询某卖家的评价，与商品ID至少指定一个） */
+    @Schema(description = "被评论者ID（如卖家ID），与商品ID至少指定一个", example = "123456")
     private Long evaluateeId;
 
     /** 商品ID（查询某商品的评价） */
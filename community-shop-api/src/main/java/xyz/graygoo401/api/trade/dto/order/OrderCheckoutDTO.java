@@ -0,0 +1,63 @@
+package xyz.graygoo401.api.trade.dto.order;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import org.hibernate.validator.constraints.Length;
+import xyz.graygoo401.api.trade.dto.cart.CartItemAddDTO;
+import xyz.graygoo401.api.trade.enums.PayTypeEnum;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 购物车结算请求DTO（多商品下单）
+ * 结算时按卖家拆分子订单，库存一次性批量预占
+ */
+@Schema(description = "购物车结算请求DTO，用于多商品合并下单")
+@Data
+public class OrderCheckoutDTO {
+
+    /** 结算商品列表 */
+    @Schema(description = "结算商品列表（商品ID + 数量）", requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotEmpty(message = "结算商品不能为空")
+    @Valid
+    private List<CartItemAddDTO> items;
+
+    /** 结算总价（用于金额一致性校验） */
+    @Schema(description = "结算总价", example = "199.98", requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotNull(message = "金额不能为空")
+    @Positive(message = "金额必须大于0")
+    private BigDecimal totalAmount;
+
+    /** 收货联系人 */
+    @Schema(description = "收货联系人", example = "张三", maxLength = 50)
+    @Length(max = 50, message = "收货联系人长度不能超过50字符")
+    private String receiverName;
+
+    /** 收货地址 */
+    @Schema(description = "买家收货地址", example = "北京市朝阳区XX街道XX小区1号楼1单元101",
+            maxLength = 500, requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotBlank(message = "收货地址不能为空")
+    @Length(max = 500, message = "收货地址长度不能超过500字符")
+    private String address;
+
+    /** 收货电话 */
+    @Schema(description = "收货电话号码", example = "13800138000", maxLength = 20)
+    @Length(max = 20, message = "收货电话长度不能超过20字符")
+    private String phoneNumber;
+
+    /** 买家留言 */
+    @Schema(description = "买家留言", example = "请在周末送货", maxLength = 200)
+    @Length(max = 200, message = "买家留言长度不能超过200字符")
+    private String buyerRemark;
+
+    /** 支付方式 */
+    @Schema(description = "支付方式（枚举）", example = "WECHAT", requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotNull(message = "支付方式不能为空")
+    private PayTypeEnum payType;
+}
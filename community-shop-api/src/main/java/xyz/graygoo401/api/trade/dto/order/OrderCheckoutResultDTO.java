@@ -0,0 +1,53 @@
+package xyz.graygoo401.api.trade.dto.order;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 购物车结算结果DTO
+ * 一次结算对应一个结算单号，按卖家拆分为多个子订单
+ */
+@Schema(description = "购物车结算结果DTO，包含结算单号与按卖家拆分的子订单")
+@Data
+public class OrderCheckoutResultDTO {
+
+    /** 结算单号（同一次结算的所有订单共享） */
+    @Schema(description = "结算单号", example = "CK2024052012345678")
+    private String checkoutNo;
+
+    /** 结算总金额 */
+    @Schema(description = "结算总金额", example = "199.98")
+    private BigDecimal totalAmount;
+
+    /** 按卖家拆分的子订单 */
+    @Schema(description = "按卖家拆分的子订单列表")
+    private List<SubOrderDTO> subOrders = new ArrayList<>();
+
+    /**
+     * 子订单（同一卖家的商品）
+     */
+    @Schema(description = "子订单DTO，同一卖家的商品归入同一子订单")
+    @Data
+    public static class SubOrderDTO {
+
+        /** 卖家ID */
+        @Schema(description = "卖家ID", example = "2001")
+        private Long sellerId;
+
+        /** 子订单小计 */
+        @Schema(description = "子订单小计", example = "99.99")
+        private BigDecimal subtotal;
+
+        /** 子订单包含的订单ID（每个商品一条订单记录） */
+        @Schema(description = "子订单包含的订单ID列表")
+        private List<Long> orderIds = new ArrayList<>();
+
+        /** 子订单包含的订单编号 */
+        @Schema(description = "子订单包含的订单编号列表")
+        private List<String> orderNos = new ArrayList<>();
+    }
+}
@@ -32,6 +32,10 @@ public class OrderListItemDTO {
     @Schema(description = "商品首图URL", example = "https://example.com/images/mate60.jpg")
     private String productImage;
 
+    /** 交易对方昵称（买家列表为卖家昵称，卖家列表为买家昵称） */
+    @Schema(description = "交易对方昵称", example = "graygoo401")
+    private String counterpartNickname;
+
     /** 订单总金额 */
     @Schema(description = "订单总金额", example = "6999.00")
     private Double totalAmount;
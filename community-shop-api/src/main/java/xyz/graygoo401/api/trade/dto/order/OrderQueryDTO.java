@@ -48,4 +48,8 @@ public class OrderQueryDTO extends PageParam {
     @Schema(description = "排序方向（枚举）", example = "DESC", requiredMode = Schema.RequiredMode.REQUIRED)
     @NotNull(message = "排序方向不能为空")
     private SortDirectionEnum sortDir = SortDirectionEnum.DESC;
+
+    /** 分页游标（上一页返回的nextCursor，为空表示第一页） */
+    @Schema(description = "分页游标（上一页返回的nextCursor，为空表示第一页）", example = "1716170400000_10001")
+    private String cursor;
 }
\ No newline at end of file
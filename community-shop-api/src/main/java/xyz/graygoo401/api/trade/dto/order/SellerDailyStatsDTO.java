@@ -0,0 +1,43 @@
+package xyz.graygoo401.api.trade.dto.order;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 卖家销售日统计DTO（读取seller_daily_stats预聚合表，无数据的日期各项为0）
+ */
+@Data
+@Schema(description = "卖家销售日统计")
+public class SellerDailyStatsDTO {
+
+    /** 统计日期 */
+    @Schema(description = "统计日期", example = "2024-01-07")
+    private LocalDate statDate;
+
+    /** 支付订单数（按支付时间归属日期） */
+    @Schema(description = "支付订单数", example = "12")
+    private Integer orderCount;
+
+    /** 成交额（当日支付订单金额之和） */
+    @Schema(description = "成交额", example = "35999.00")
+    private BigDecimal gmv;
+
+    /** 退款订单数（当日支付的订单中已退款/退货的数量） */
+    @Schema(description = "退款订单数", example = "1")
+    private Integer refundCount;
+
+    /** 退款金额 */
+    @Schema(description = "退款金额", example = "2999.00")
+    private BigDecimal refundAmount;
+
+    /** 当日新增有效评价数 */
+    @Schema(description = "评价数", example = "8")
+    private Integer ratingCount;
+
+    /** 当日评价平均分（保留1位小数，无评价时为0） */
+    @Schema(description = "平均评分", example = "4.6", type = "number", format = "double")
+    private Double averageRating;
+}
@@ -0,0 +1,51 @@
+package xyz.graygoo401.api.trade.dto.order;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 卖家销售汇总DTO（按日期范围累加日统计）
+ */
+@Data
+@Schema(description = "卖家销售汇总")
+public class SellerSalesSummaryDTO {
+
+    /** 卖家ID */
+    @Schema(description = "卖家ID", example = "2")
+    private Long sellerId;
+
+    /** 开始日期（包含） */
+    @Schema(description = "开始日期", example = "2024-01-01")
+    private LocalDate startDate;
+
+    /** 结束日期（包含） */
+    @Schema(description = "结束日期", example = "2024-01-31")
+    private LocalDate endDate;
+
+    /** 支付订单数 */
+    @Schema(description = "支付订单数", example = "320")
+    private Integer orderCount;
+
+    /** 成交额 */
+    @Schema(description = "成交额", example = "958000.00")
+    private BigDecimal gmv;
+
+    /** 退款订单数 */
+    @Schema(description = "退款订单数", example = "9")
+    private Integer refundCount;
+
+    /** 退款金额 */
+    @Schema(description = "退款金额", example = "26000.00")
+    private BigDecimal refundAmount;
+
+    /** 评价数 */
+    @Schema(description = "评价数", example = "210")
+    private Integer ratingCount;
+
+    /** 平均评分（按评分总和/评价数计算，保留1位小数，无评价时为0） */
+    @Schema(description = "平均评分", example = "4.7", type = "number", format = "double")
+    private Double averageRating;
+}
@@ -0,0 +1,58 @@
+package xyz.graygoo401.api.trade.dto.payment;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * 支付对账结果DTO（汇总计数，差异明细写入对账报告文件）
+ */
+@Data
+@Schema(description = "支付对账结果")
+public class PaymentReconcileResultDTO {
+
+    /** 账单日期 */
+    @Schema(description = "账单日期", example = "2024-01-07")
+    private LocalDate billDate;
+
+    /** 对账单数据行数（不含表头、注释行） */
+    @Schema(description = "对账单数据行数", example = "50000")
+    private Long billRows = 0L;
+
+    /** 参与对账的本地订单数 */
+    @Schema(description = "本地订单数", example = "50012")
+    private Long orderRows = 0L;
+
+    /** 两边一致的订单数 */
+    @Schema(description = "一致订单数", example = "49990")
+    private Long matchedCount = 0L;
+
+    /** 平台有、本地无的交易数 */
+    @Schema(description = "本地缺失数", example = "2")
+    private Long missingLocalCount = 0L;
+
+    /** 本地已支付、平台无的订单数 */
+    @Schema(description = "平台缺失数", example = "3")
+    private Long missingPlatformCount = 0L;
+
+    /** 金额不一致数 */
+    @Schema(description = "金额不一致数", example = "1")
+    private Long amountDiffCount = 0L;
+
+    /** 状态不一致数 */
+    @Schema(description = "状态不一致数", example = "4")
+    private Long statusDiffCount = 0L;
+
+    /** 对账单中重复出现的交易数 */
+    @Schema(description = "重复交易数", example = "0")
+    private Long duplicateCount = 0L;
+
+    /** 差异报告文件路径 */
+    @Schema(description = "差异报告文件路径", example = "/data/reconcile/alipay-reconcile-20240107.csv")
+    private String reportFile;
+
+    /** 耗时（毫秒，含外部排序） */
+    @Schema(description = "耗时（毫秒）", example = "5230")
+    private Long elapsedMillis = 0L;
+}
@@ -6,6 +6,7 @@ import xyz.graygoo401.api.trade.enums.ProductStatusEnum;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 商品详情响应DTO（匹配ProductService.selectProductById方法）
@@ -62,4 +63,8 @@ public class ProductDetailDTO {
     @Schema(description = "商品成色", example = "九成新")
     private String condition;
 
+    /** 相似商品（离线预计算，查询超时或异常时为空列表；不随商品详情缓存） */
+    @Schema(description = "相似商品列表（共同购买与同类别相近价格）")
+    private List<SimilarProductDTO> similarProducts;
+
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package xyz.graygoo401.api.trade.dto.product;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 商品搜索分面计数DTO（某一筛选维度下单个取值的命中商品数）
+ */
+@Data
+@Schema(description = "商品搜索分面计数")
+public class ProductFacetCountDTO {
+
+    /** 分面取值（类别名称、成色code或价格区间code，可直接作为筛选参数回传） */
+    @Schema(description = "分面取值", example = "二手手机")
+    private String value;
+
+    /** 展示名称 */
+    @Schema(description = "展示名称", example = "二手手机")
+    private String label;
+
+    /** 命中商品数（保留其他维度筛选条件、忽略本维度条件时的计数） */
+    @Schema(description = "命中商品数", example = "128")
+    private Long count;
+
+    /** 价格区间下限（仅价格分面，可直接作为minPrice回传） */
+    @Schema(description = "价格区间下限（元，仅价格分面）", example = "100.00")
+    private BigDecimal minPrice;
+
+    /** 价格区间上限（仅价格分面，可直接作为maxPrice回传，无上限时为空） */
+    @Schema(description = "价格区间上限（元，含，仅价格分面）", example = "499.99")
+    private BigDecimal maxPrice;
+}
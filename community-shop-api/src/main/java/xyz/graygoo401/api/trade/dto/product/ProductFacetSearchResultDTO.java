@@ -0,0 +1,31 @@
+package xyz.graygoo401.api.trade.dto.product;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import xyz.graygoo401.common.dto.PageResult;
+
+import java.util.List;
+
+/**
+ * 商品分面搜索结果DTO（当前页商品 + 类别/成色/价格区间分面计数）
+ */
+@Data
+@Schema(description = "商品分面搜索结果")
+public class ProductFacetSearchResultDTO {
+
+    /** 商品分页结果 */
+    @Schema(description = "商品分页结果")
+    private PageResult<ProductListItemDTO> page;
+
+    /** 类别分面（按命中数降序，仅含命中数大于0的类别） */
+    @Schema(description = "类别分面")
+    private List<ProductFacetCountDTO> categoryFacets;
+
+    /** 成色分面（按成色枚举顺序） */
+    @Schema(description = "成色分面")
+    private List<ProductFacetCountDTO> conditionFacets;
+
+    /** 价格区间分面（按价格升序） */
+    @Schema(description = "价格区间分面")
+    private List<ProductFacetCountDTO> priceRangeFacets;
+}
@@ -0,0 +1,24 @@
+package xyz.graygoo401.api.trade.dto.product;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 商品批量导入单行错误DTO
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "商品导入单行错误")
+public class ProductImportErrorDTO {
+
+    /** 数据行号（从1开始，不含CSV表头；JSON为数组下标+1） */
+    @Schema(description = "数据行号", example = "17")
+    private Long rowNumber;
+
+    /** 错误原因 */
+    @Schema(description = "错误原因", example = "商品价格参数错误")
+    private String message;
+}
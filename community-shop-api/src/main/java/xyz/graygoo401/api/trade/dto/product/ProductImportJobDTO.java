@@ -0,0 +1,70 @@
+package xyz.graygoo401.api.trade.dto.product;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import xyz.graygoo401.api.trade.enums.ProductImportFormatEnum;
+import xyz.graygoo401.api.trade.enums.ProductImportStatusEnum;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 商品批量导入任务DTO（提交时返回任务ID，之后按任务ID轮询进度与错误报告）
+ */
+@Data
+@Schema(description = "商品批量导入任务")
+public class ProductImportJobDTO {
+
+    /** 任务ID */
+    @Schema(description = "任务ID", example = "3f2b8c0e9a5d4e7f8b1c2d3e4f5a6b7c")
+    private String jobId;
+
+    /** 卖家ID（导入商品的归属卖家） */
+    @Schema(description = "卖家ID", example = "2")
+    private Long sellerId;
+
+    /** 文件格式 */
+    @Schema(description = "文件格式", example = "CSV")
+    private ProductImportFormatEnum format;
+
+    /** 任务状态 */
+    @Schema(description = "任务状态", example = "RUNNING")
+    private ProductImportStatusEnum status;
+
+    /** 已处理行数（成功 + 失败） */
+    @Schema(description = "已处理行数", example = "25000")
+    private Long processedRows = 0L;
+
+    /** 导入成功行数 */
+    @Schema(description = "导入成功行数", example = "24990")
+    private Long successRows = 0L;
+
+    /** 导入失败行数 */
+    @Schema(description = "导入失败行数", example = "10")
+    private Long failedRows = 0L;
+
+    /** 处理速度（行/秒，按已处理行数与已用时间计算） */
+    @Schema(description = "处理速度（行/秒）", example = "8500")
+    private Long rowsPerSecond = 0L;
+
+    /** 单行错误报告（最多保留前1000条，超出部分仅计入失败行数） */
+    @Schema(description = "单行错误报告（最多1000条）")
+    private List<ProductImportErrorDTO> errors = new ArrayList<>();
+
+    /** 任务中断原因（仅FAILED状态） */
+    @Schema(description = "任务中断原因", example = "第120行附近JSON格式错误")
+    private String failReason;
+
+    /** 提交时间 */
+    @Schema(description = "提交时间", example = "2024-01-07 10:00:00")
+    private LocalDateTime submitTime;
+
+    /** 开始执行时间 */
+    @Schema(description = "开始执行时间", example = "2024-01-07 10:00:01")
+    private LocalDateTime startTime;
+
+    /** 结束时间 */
+    @Schema(description = "结束时间", example = "2024-01-07 10:00:13")
+    private LocalDateTime finishTime;
+}
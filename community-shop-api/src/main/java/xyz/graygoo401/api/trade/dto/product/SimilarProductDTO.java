@@ -0,0 +1,35 @@
+package xyz.graygoo401.api.trade.dto.product;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import xyz.graygoo401.api.trade.enums.ProductConditionEnum;
+
+import java.math.BigDecimal;
+
+/**
+ * 相似商品DTO（商品详情页“看了又看/买了又买”模块）
+ */
+@Data
+@Schema(description = "相似商品数据")
+public class SimilarProductDTO {
+
+    /** 商品ID */
+    @Schema(description = "商品ID", example = "2002")
+    private Long productId;
+
+    /** 商品标题 */
+    @Schema(description = "商品标题", example = "九成新iPhone 13 Pro")
+    private String title;
+
+    /** 商品类别 */
+    @Schema(description = "商品类别", example = "二手手机")
+    private String category;
+
+    /** 商品单价 */
+    @Schema(description = "商品单价（元）", example = "5299.00")
+    private BigDecimal price;
+
+    /** 商品成色 */
+    @Schema(description = "商品成色", example = "NINETY_PERCENT_NEW")
+    private ProductConditionEnum condition;
+}
@@ -0,0 +1,41 @@
+package xyz.graygoo401.api.trade.enums;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 商品批量导入文件格式枚举
+ */
+@AllArgsConstructor
+@Getter
+public enum ProductImportFormatEnum {
+
+    /** CSV（首行为表头，列名与ProductPublishDTO字段名一致） */
+    CSV("CSV", "csv"),
+
+    /** JSON（顶层为ProductPublishDTO对象数组） */
+    JSON("JSON", "json");
+
+    @JsonValue
+    private final String code;
+
+    /** 文件扩展名（小写） */
+    private final String extension;
+
+    /**
+     * 辅助方法：根据文件名扩展名获取导入格式（不支持时返回null）
+     */
+    public static ProductImportFormatEnum getByFileName(String fileName) {
+        if (fileName == null || !fileName.contains(".")) {
+            return null;
+        }
+        String extension = fileName.substring(fileName.lastIndexOf('.') + 1).toLowerCase();
+        for (ProductImportFormatEnum format : values()) {
+            if (format.extension.equals(extension)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
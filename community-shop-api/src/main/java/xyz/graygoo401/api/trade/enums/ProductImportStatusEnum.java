@@ -0,0 +1,30 @@
+package xyz.graygoo401.api.trade.enums;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 商品批量导入任务状态枚举
+ */
+@AllArgsConstructor
+@Getter
+public enum ProductImportStatusEnum {
+
+    /** 已提交，等待导入线程执行 */
+    PENDING("PENDING", "等待中"),
+
+    /** 导入中 */
+    RUNNING("RUNNING", "导入中"),
+
+    /** 导入完成（单行失败不影响任务完成，见错误报告） */
+    COMPLETED("COMPLETED", "已完成"),
+
+    /** 导入中断（文件无法解析或数据库异常，已写入的批次不回滚） */
+    FAILED("FAILED", "已中断");
+
+    @JsonValue
+    private final String code;
+
+    private final String desc;
+}
@@ -0,0 +1,68 @@
+package xyz.graygoo401.api.trade.enums;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * 商品价格区间枚举（搜索分面的价格档位，区间为左闭右开，按价格升序排列）
+ */
+@Getter
+@AllArgsConstructor
+public enum ProductPriceRangeEnum {
+
+    /** 100元以下 */
+    UNDER_100("UNDER_100", "100元以下", BigDecimal.ZERO, new BigDecimal("100")),
+
+    /** 100-500元 */
+    FROM_100_TO_500("FROM_100_TO_500", "100-500元", new BigDecimal("100"), new BigDecimal("500")),
+
+    /** 500-1000元 */
+    FROM_500_TO_1000("FROM_500_TO_1000", "500-1000元", new BigDecimal("500"), new BigDecimal("1000")),
+
+    /** 1000-3000元 */
+    FROM_1000_TO_3000("FROM_1000_TO_3000", "1000-3000元", new BigDecimal("1000"), new BigDecimal("3000")),
+
+    /** 3000-5000元 */
+    FROM_3000_TO_5000("FROM_3000_TO_5000", "3000-5000元", new BigDecimal("3000"), new BigDecimal("5000")),
+
+    /** 5000元及以上 */
+    OVER_5000("OVER_5000", "5000元及以上", new BigDecimal("5000"), null);
+
+    @JsonValue
+    private final String code;
+
+    private final String desc;
+
+    /** 区间下限（含） */
+    private final BigDecimal lowerBound;
+
+    /** 区间上限（不含，null表示无上限） */
+    private final BigDecimal upperBound;
+
+    /**
+     * 辅助方法：根据价格获取所属区间
+     */
+    public static ProductPriceRangeEnum getByPrice(BigDecimal price) {
+        for (ProductPriceRangeEnum range : values()) {
+            if (range.upperBound == null || price.compareTo(range.upperBound) < 0) {
+                return range;
+            }
+        }
+        return OVER_5000;
+    }
+
+    /**
+     * 辅助方法：根据code获取枚举对象
+     */
+    public static ProductPriceRangeEnum getByCode(String code) {
+        for (ProductPriceRangeEnum range : values()) {
+            if (range.code.equals(code)) {
+                return range;
+            }
+        }
+        return null;
+    }
+}
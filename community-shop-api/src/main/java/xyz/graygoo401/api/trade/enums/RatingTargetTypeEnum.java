@@ -0,0 +1,38 @@
+package xyz.graygoo401.api.trade.enums;
+
+import com.baomidou.mybatisplus.annotation.EnumValue;
+import com.fasterxml.jackson.annotation.JsonValue;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 评分汇总对象类型枚举类
+ */
+@AllArgsConstructor
+@Getter
+public enum RatingTargetTypeEnum {
+
+    /** 卖家 */
+    SELLER("SELLER", "卖家"),
+
+    /** 商品 */
+    PRODUCT("PRODUCT", "商品");
+
+    @EnumValue
+    @JsonValue
+    private final String code;
+
+    private final String desc;
+
+    /**
+     * 辅助方法：根据数据库存储的code反向获取枚举对象
+     */
+    public static RatingTargetTypeEnum getByCode(String code) {
+        for (RatingTargetTypeEnum type : values()) {
+            if (type.code.equals(code)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,35 @@
+package xyz.graygoo401.common.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 接口幂等注解（标注在Controller写接口上）
+ * 客户端在请求头Idempotency-Key中携带本次操作的唯一键，超时重试时沿用同一个键：
+ * 同一用户、同一接口、同一个键只执行一次业务方法，并发的重复请求等待首个请求的结果，已完成的重复请求直接重放缓存的响应
+ * 未携带请求头时不做幂等处理
+ */
+@Target({ElementType.METHOD}) // 仅作用于方法
+@Retention(RetentionPolicy.RUNTIME) // 运行时生效
+@Documented
+public @interface Idempotent {
+
+    /**
+     * Redis Key 前缀（用于区分不同接口，为空时取类名+方法名）
+     */
+    String keyPrefix() default "";
+
+    /**
+     * 响应保留时间（单位：秒），期间重复请求直接重放响应
+     */
+    long expireSeconds() default 24 * 60 * 60;
+
+    /**
+     * 处理中锁的过期时间（单位：秒），防止实例宕机后键被永久占用，需大于接口最长处理时间
+     */
+    long lockSeconds() default 60;
+
+    /**
+     * 重复请求等待首个请求结果的最长时间（单位：毫秒），超时返回“请求处理中”
+     */
+    long waitMillis() default 10000;
+}
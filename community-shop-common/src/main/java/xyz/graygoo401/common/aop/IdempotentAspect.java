@@ -0,0 +1,198 @@
+package xyz.graygoo401.common.aop;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.multipart.MultipartFile;
+import xyz.graygoo401.common.annotation.Idempotent;
+import xyz.graygoo401.common.dto.IdempotentRecord;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.common.exception.error.SystemErrorCode;
+import xyz.graygoo401.common.util.RequestParseUtil;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 接口幂等切面
+ * Redis Key：idempotent:{接口}:{用户ID}:{Idempotency-Key}，值为IdempotentRecord：
+ * 1. 首个请求以SETNX写入“处理中”记录（即处理中锁，过期时间lockSeconds），执行业务方法后覆盖为“已完成”记录并保存响应（过期时间expireSeconds）；
+ * 2. 业务方法抛出异常时删除记录（事务已回滚，允许客户端用同一个键重试）；
+ * 3. 重复请求读到“已完成”记录直接重放响应，不进入Controller；读到“处理中”记录则轮询等待，首个请求失败删除记录后由等待者重新抢锁执行；
+ * 4. 同一个键携带不同请求参数时拒绝，避免客户端误用键导致返回不相关的响应。
+ */
+@Slf4j
+@Aspect
+@Component
+public class IdempotentAspect {
+
+    public static final String HEADER_IDEMPOTENCY_KEY = "Idempotency-Key"; // 幂等键请求头
+    private static final String KEY_PREFIX = "idempotent:"; // Redis Key前缀
+    private static final int MAX_KEY_LENGTH = 64; // 幂等键最大长度
+    private static final long POLL_INTERVAL_MILLIS = 50; // 等待首个请求结果的轮询间隔
+
+    // 请求参数指纹序列化器（仅用于计算摘要，不做类型保留）
+    private static final ObjectMapper FINGERPRINT_MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private RequestParseUtil requestParseUtil;
+
+    // 切入点：拦截所有标注@Idempotent的方法
+    @Pointcut("@annotation(xyz.graygoo401.common.annotation.Idempotent)")
+    public void idempotentPointcut() {}
+
+    /**
+     * 环绕通知：执行幂等逻辑
+     */
+    @Around("idempotentPointcut()")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        // 1. 未携带幂等键时按普通请求处理
+        String idempotencyKey = getIdempotencyKey();
+        if (StringUtils.isBlank(idempotencyKey)) {
+            return joinPoint.proceed();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException(SystemErrorCode.PARAM_ERROR, "Idempotency-Key长度不能超过" + MAX_KEY_LENGTH);
+        }
+
+        // 2. 构建Redis Key（按用户隔离，不同用户的相同键互不影响）与请求参数指纹
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Idempotent idempotent = method.getAnnotation(Idempotent.class);
+        String redisKey = buildRedisKey(idempotent, method, idempotencyKey);
+        String fingerprint = fingerprint(joinPoint.getArgs());
+
+        // 3. 抢占处理中锁；未抢到则等待首个请求的结果（首个请求失败时重新抢锁）
+        String owner = UUID.randomUUID().toString();
+        long deadline = System.currentTimeMillis() + idempotent.waitMillis();
+        while (true) {
+            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(redisKey,
+                    new IdempotentRecord(false, owner, fingerprint, null), idempotent.lockSeconds(), TimeUnit.SECONDS);
+            if (Boolean.TRUE.equals(acquired)) {
+                return proceedAndSave(joinPoint, idempotent, redisKey, owner, fingerprint);
+            }
+
+            IdempotentRecord record = (IdempotentRecord) redisTemplate.opsForValue().get(redisKey);
+            if (record != null) {
+                if (!Objects.equals(record.getFingerprint(), fingerprint)) {
+                    throw new BusinessException(SystemErrorCode.IDEMPOTENT_KEY_REUSED);
+                }
+                if (record.isCompleted()) {
+                    log.info("幂等请求重放响应，Key：{}", redisKey);
+                    return record.getResponse();
+                }
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                throw new BusinessException(SystemErrorCode.IDEMPOTENT_REQUEST_PROCESSING);
+            }
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        }
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 执行业务方法：成功则保存响应，失败则释放处理中锁
+     */
+    private Object proceedAndSave(ProceedingJoinPoint joinPoint, Idempotent idempotent, String redisKey,
+                                  String owner, String fingerprint) throws Throwable {
+        Object response;
+        try {
+            response = joinPoint.proceed();
+        } catch (Throwable e) {
+            release(redisKey, owner);
+            throw e;
+        }
+        try {
+            redisTemplate.opsForValue().set(redisKey, new IdempotentRecord(true, owner, fingerprint, response),
+                    idempotent.expireSeconds(), TimeUnit.SECONDS);
+        } catch (Exception e) {
+            // 业务已执行成功，保存失败不影响本次响应（处理中锁到期后重复请求将重新执行）
+            log.error("幂等响应保存失败，Key：{}", redisKey, e);
+        }
+        return response;
+    }
+
+    /**
+     * 释放处理中锁（仅删除本请求写入的记录，锁已过期并被其他请求抢占时不删除）
+     */
+    private void release(String redisKey, String owner) {
+        try {
+            IdempotentRecord record = (IdempotentRecord) redisTemplate.opsForValue().get(redisKey);
+            if (record != null && !record.isCompleted() && owner.equals(record.getOwner())) {
+                redisTemplate.delete(redisKey);
+            }
+        } catch (Exception e) {
+            log.error("幂等处理中锁释放失败，Key：{}", redisKey, e);
+        }
+    }
+
+    /**
+     * 构建Redis Key：前缀 + 接口 + 用户ID + 幂等键
+     */
+    private String buildRedisKey(Idempotent idempotent, Method method, String idempotencyKey) {
+        String api = StringUtils.isNotBlank(idempotent.keyPrefix())
+                ? idempotent.keyPrefix()
+                : method.getDeclaringClass().getSimpleName() + ":" + method.getName();
+        Long userId = requestParseUtil.parseUserIdFromRequest();
+        return KEY_PREFIX + api + ":" + userId + ":" + idempotencyKey;
+    }
+
+    /**
+     * 获取请求头中的幂等键
+     */
+    private String getIdempotencyKey() {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        String idempotencyKey = request.getHeader(HEADER_IDEMPOTENCY_KEY);
+        return idempotencyKey == null ? null : idempotencyKey.trim();
+    }
+
+    /**
+     * 计算请求参数指纹（忽略请求/响应对象、上传文件与校验结果）
+     */
+    private String fingerprint(Object[] args) {
+        List<Object> bodyArgs = new ArrayList<>();
+        for (Object arg : args) {
+            if (arg instanceof ServletRequest || arg instanceof ServletResponse
+                    || arg instanceof MultipartFile || arg instanceof BindingResult) {
+                continue;
+            }
+            bodyArgs.add(arg);
+        }
+        String content;
+        try {
+            content = FINGERPRINT_MAPPER.writeValueAsString(bodyArgs);
+        } catch (JsonProcessingException e) {
+            content = bodyArgs.toString();
+        }
+        return DigestUtils.md5DigestAsHex(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
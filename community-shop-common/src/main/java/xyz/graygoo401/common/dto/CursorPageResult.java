@@ -0,0 +1,35 @@
+package xyz.graygoo401.common.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 游标（Keyset）分页查询结果封装，适配深分页场景（如订单列表、私信列表）
+ * 与PageResult不同：不统计总数，客户端通过nextCursor拉取下一页
+ * @param <T> 泛型参数，存储分页数据列表
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Schema(description = "游标分页查询结果封装")
+public class CursorPageResult<T> {
+    /** 当前页数据列表 */
+    @Schema(description = "当前页数据列表")
+    private List<T> list;
+
+    /** 下一页游标（无更多数据时为null） */
+    @Schema(description = "下一页游标，无更多数据时为null", example = "1716170400000_10001")
+    private String nextCursor;
+
+    /** 是否还有更多数据 */
+    @Schema(description = "是否还有更多数据", example = "true")
+    private Boolean hasMore;
+
+    /** 每页条数 */
+    @Schema(description = "每页条数", example = "10")
+    private Integer pageSize;
+}
@@ -0,0 +1,22 @@
+package xyz.graygoo401.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 幂等请求记录（Redis中 (用户, 接口, Idempotency-Key) 对应的值）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotentRecord {
+    // 是否已完成（false表示首个请求仍在处理中）
+    private boolean completed;
+    // 处理中锁持有者标识（仅持有者可释放）
+    private String owner;
+    // 请求参数指纹（同一个键携带不同参数时拒绝）
+    private String fingerprint;
+    // 已完成请求的响应
+    private Object response;
+}
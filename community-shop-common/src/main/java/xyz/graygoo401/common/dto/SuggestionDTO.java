@@ -0,0 +1,27 @@
+package xyz.graygoo401.common.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 搜索框前缀补全候选（商品标题、用户名等），同时作为全量构建补全索引时的数据行
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Schema(description = "前缀补全候选")
+public class SuggestionDTO {
+    /** 条目ID（商品ID、用户ID等） */
+    @Schema(description = "条目ID（商品ID、用户ID等）", example = "1001")
+    private Long id;
+
+    /** 展示文本 */
+    @Schema(description = "展示文本", example = "二手iPhone 13 128G")
+    private String text;
+
+    /** 热度权重（商品为销量与浏览量加权，用户为粉丝数） */
+    @Schema(description = "热度权重，越大越靠前", example = "120")
+    private Long weight;
+}
@@ -26,7 +26,9 @@ public enum SystemErrorCode implements IErrorCode {
 
     USER_NOT_EXISTS("SYSTEM_031", 404, "用户不存在"),
 
-    OPERATION_REPEAT("SYSTEM_051", 409, "操作重复");
+    OPERATION_REPEAT("SYSTEM_051", 409, "操作重复"),
+    IDEMPOTENT_REQUEST_PROCESSING("SYSTEM_052", 409, "相同请求正在处理中，请稍后重试"),
+    IDEMPOTENT_KEY_REUSED("SYSTEM_053", 422, "幂等键已用于其他请求参数");
 
     private final String code;
     private final int standardCode;
@@ -0,0 +1,150 @@
+package xyz.graygoo401.common.export;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.*;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * CSV流式写出器（逐行写入输出流，内存占用与导出行数无关）
+ * 1. 首行写入UTF-8 BOM与表头，Excel可直接打开且中文不乱码
+ * 2. 每写满FLUSH_ROWS行主动flush：Servlet响应未设置Content-Length，已写出的数据以分块传输（chunked）发给客户端
+ * 3. 输出流为阻塞写，客户端读取慢时写入阻塞，数据库游标随之暂停拉取（天然背压），不会在服务端堆积
+ * 4. 字符串单元格按RFC 4180转义，并对以=、+、-、@开头的内容加单引号前缀，防止在Excel中被当作公式执行
+ * @param <T> 行对象类型
+ */
+public class CsvStreamWriter<T> implements Closeable {
+
+    public static final int FLUSH_ROWS = 500; // 每写出多少行flush一次（即一个分块的大致行数）
+    private static final int BUFFER_SIZE = 64 * 1024; // 字符缓冲区大小
+    private static final char BOM = '\uFEFF'; // UTF-8 BOM（Excel据此识别编码）
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Writer writer;
+    private final List<ExportColumn<T>> columns;
+    private long rowCount = 0;
+
+    /**
+     * 创建写出器并写入表头
+     * @param out 目标输出流（关闭写出器时一并关闭）
+     * @param columns 导出列
+     */
+    public CsvStreamWriter(OutputStream out, List<ExportColumn<T>> columns) throws IOException {
+        if (columns == null || columns.isEmpty()) {
+            throw new IllegalArgumentException("导出列不能为空");
+        }
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.columns = columns;
+        writer.write(BOM);
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCell(columns.get(i).getTitle());
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * 设置CSV下载响应头（不设置Content-Length，由容器按分块传输）
+     * 需在写出首个字节前调用
+     * @param response HTTP响应
+     * @param fileName 下载文件名（不含扩展名）
+     */
+    public static void prepareResponse(HttpServletResponse response, String fileName) {
+        String encodedName = URLEncoder.encode(fileName + ".csv", StandardCharsets.UTF_8).replace("+", "%20");
+        response.setContentType("text/csv;charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename*=UTF-8''" + encodedName);
+        response.setHeader("Cache-Control", "no-store");
+    }
+
+    /**
+     * 写出一行
+     */
+    public void write(T row) throws IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCell(columns.get(i).getGetter().apply(row));
+        }
+        writer.write("\r\n");
+        if (++rowCount % FLUSH_ROWS == 0) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * 逐行写出全部数据（数据源为数据库游标时边读边写）
+     * @return 本次写出的行数
+     */
+    public long writeAll(Iterable<T> rows) throws IOException {
+        long before = rowCount;
+        for (T row : rows) {
+            write(row);
+        }
+        writer.flush();
+        return rowCount - before;
+    }
+
+    /**
+     * 已写出的数据行数（不含表头）
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 写出单元格：数字与时间直接输出，其他值按字符串转义
+     */
+    private void writeCell(Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            writer.write(value.toString());
+            return;
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            writer.write(DATE_TIME_FORMATTER.format(dateTime));
+            return;
+        }
+        writeText(value.toString());
+    }
+
+    /**
+     * 写出文本单元格（公式前缀防护 + 含逗号、引号、换行时加双引号并转义内部引号）
+     */
+    private void writeText(String text) throws IOException {
+        if (text.isEmpty()) {
+            return;
+        }
+        char first = text.charAt(0);
+        if (first == '=' || first == '+' || first == '-' || first == '@') {
+            text = "'" + text;
+        }
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,28 @@
+package xyz.graygoo401.common.export;
+
+import lombok.Getter;
+
+import java.util.function.Function;
+
+/**
+ * 导出列定义（表头 + 从行对象取值的函数）
+ * @param <T> 行对象类型
+ */
+@Getter
+public class ExportColumn<T> {
+
+    /** 表头名称 */
+    private final String title;
+
+    /** 取值函数（返回null时输出空单元格） */
+    private final Function<T, ?> getter;
+
+    private ExportColumn(String title, Function<T, ?> getter) {
+        this.title = title;
+        this.getter = getter;
+    }
+
+    public static <T> ExportColumn<T> of(String title, Function<T, ?> getter) {
+        return new ExportColumn<>(title, getter);
+    }
+}
@@ -0,0 +1,556 @@
+package xyz.graygoo401.common.index;
+
+import lombok.Getter;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 前缀自动补全索引（压缩前缀树，节点缓存子树内权重最高的K条候选）
+ * 1. 键为规范化文本（去首尾空白、转小写、截断至64字符），节点的边标签为一段字符，子节点按首字符有序存放
+ * 2. 子树条目数超过K的节点缓存TopK候选，查询时定位到前缀所在节点直接返回；子树不超过K条时遍历收集
+ * 3. 新增或权重上升时沿路径插入候选；删除或权重下降时仅重算TopK中包含该条目的节点
+ * 4. 读写由读写锁保护；全量重建在锁外构建后一次性替换，重建期间的增量变更记录ID供调用方按最新数据重放
+ */
+public class AutocompleteIndex {
+
+    public static final int DEFAULT_TOP_K = 10; // 默认每个节点缓存的候选数（单次补全返回条数上限）
+    private static final int MAX_KEY_LENGTH = 64; // 键最大长度（更长的文本仅按前64个字符补全）
+
+    private final int topK;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Trie trie; // 当前索引数据（读写锁保护）
+    private Set<Long> pendingIds; // 全量重建期间发生变更的条目ID（null表示未在重建）
+    private volatile boolean ready = false; // 是否已完成首次全量构建
+
+    public AutocompleteIndex() {
+        this(DEFAULT_TOP_K);
+    }
+
+    public AutocompleteIndex(int topK) {
+        if (topK <= 0) {
+            throw new IllegalArgumentException("topK必须大于0：" + topK);
+        }
+        this.topK = topK;
+        this.trie = new Trie(topK);
+    }
+
+    /**
+     * 创建全量构建器（与当前索引的K值一致）
+     */
+    public Builder newBuilder() {
+        return new Builder(topK);
+    }
+
+    /**
+     * 前缀补全
+     *
+     * @param prefix 用户输入的前缀（大小写不敏感）
+     * @param limit  返回条数（不超过K）
+     * @return 按权重降序（权重相同按ID升序）的候选，前缀为空或无匹配时返回空列表
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            return trie.suggest(key, Math.min(limit, topK));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 写入或覆盖条目（文本或权重变化时先移除旧条目）
+     *
+     * @param id     条目ID（如商品ID、用户ID）
+     * @param text   展示文本（规范化后为空时仅移除旧条目）
+     * @param weight 权重（越大越靠前，如销量、粉丝数）
+     */
+    public void upsert(long id, String text, long weight) {
+        lock.writeLock().lock();
+        try {
+            trie.remove(id);
+            String key = normalize(text);
+            if (!key.isEmpty()) {
+                trie.insert(new Suggestion(id, text, weight, key), true);
+            }
+            if (pendingIds != null) {
+                pendingIds.add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 移除条目
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            trie.remove(id);
+            if (pendingIds != null) {
+                pendingIds.add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 标记开始全量重建，此后的增量变更会被记录，供重建完成后重放
+     */
+    public void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingIds = ConcurrentHashMap.newKeySet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 以全量构建结果替换当前索引
+     *
+     * @return 重建期间发生变更的条目ID（调用方需按数据库最新状态重放）
+     */
+    public Set<Long> replace(Builder builder) {
+        Trie rebuilt = builder.build();
+        lock.writeLock().lock();
+        try {
+            trie = rebuilt;
+            ready = true;
+            Set<Long> changedIds = pendingIds == null ? Collections.emptySet() : pendingIds;
+            pendingIds = null;
+            return changedIds;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 当前条目数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return trie.entriesById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String key = text.trim().toLowerCase(Locale.ROOT);
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    /**
+     * 补全候选（不可变，索引内部直接存放，查询时无需复制）
+     */
+    public static final class Suggestion {
+        /** 条目ID */
+        @Getter
+        private final long id;
+        /** 展示文本 */
+        @Getter
+        private final String text;
+        /** 权重 */
+        @Getter
+        private final long weight;
+
+        private final String key; // 规范化后的键
+
+        private Suggestion(long id, String text, long weight, String key) {
+            this.id = id;
+            this.text = text;
+            this.weight = weight;
+            this.key = key;
+        }
+    }
+
+    /**
+     * 全量构建器（先插入全部条目，最后自底向上一次性计算各节点TopK）
+     */
+    public static class Builder {
+
+        private final Trie trie;
+
+        private Builder(int topK) {
+            this.trie = new Trie(topK);
+        }
+
+        /**
+         * 追加条目（同一ID重复追加时以后者为准）
+         */
+        public Builder add(long id, String text, long weight) {
+            trie.remove(id);
+            String key = normalize(text);
+            if (!key.isEmpty()) {
+                trie.insert(new Suggestion(id, text, weight, key), false);
+            }
+            return this;
+        }
+
+        private Trie build() {
+            trie.computeTops(trie.root);
+            return trie;
+        }
+    }
+
+    // ---------------------- 前缀树实现 ----------------------
+
+    /**
+     * 候选排序：权重降序，权重相同按ID升序
+     */
+    private static final Comparator<Suggestion> ORDER = (a, b) -> {
+        int result = Long.compare(b.weight, a.weight);
+        return result != 0 ? result : Long.compare(a.id, b.id);
+    };
+
+    /**
+     * 压缩前缀树（非线程安全，由外层读写锁保护）
+     */
+    private static final class Trie {
+
+        private final int topK;
+        private final Node root = new Node("");
+        private final Map<Long, Suggestion> entriesById = new HashMap<>();
+
+        private Trie(int topK) {
+            this.topK = topK;
+        }
+
+        private List<Suggestion> suggest(String key, int limit) {
+            // 1. 定位前缀所在节点（前缀可能止于边标签中间）
+            Node node = root;
+            int pos = 0;
+            while (pos < key.length()) {
+                int index = node.childIndex(key.charAt(pos));
+                if (index < 0) {
+                    return Collections.emptyList();
+                }
+                Node child = node.children[index];
+                int common = commonPrefixLength(child.label, key, pos);
+                if (pos + common == key.length()) {
+                    node = child;
+                    break;
+                }
+                if (common < child.label.length()) {
+                    return Collections.emptyList();
+                }
+                node = child;
+                pos += common;
+            }
+
+            // 2. 取TopK（小子树遍历收集）
+            Suggestion[] top = node.top != null ? node.top : collect(node);
+            return Arrays.asList(top).subList(0, Math.min(limit, top.length));
+        }
+
+        /**
+         * 插入条目
+         *
+         * @param maintainTops 是否沿路径维护TopK（全量构建时为false，构建完成后统一计算）
+         */
+        private void insert(Suggestion entry, boolean maintainTops) {
+            // 1. 沿键下行，必要时拆分边或新建叶子节点
+            entriesById.put(entry.id, entry);
+            String key = entry.key;
+            List<Node> path = new ArrayList<>();
+            path.add(root);
+            Node node = root;
+            int pos = 0;
+            while (pos < key.length()) {
+                int index = node.childIndex(key.charAt(pos));
+                if (index < 0) {
+                    Node leaf = new Node(key.substring(pos));
+                    node.addChild(leaf);
+                    node = leaf;
+                    path.add(node);
+                    break;
+                }
+                Node child = node.children[index];
+                int common = commonPrefixLength(child.label, key, pos);
+                if (common < child.label.length()) {
+                    child = split(node, index, common);
+                }
+                node = child;
+                path.add(node);
+                pos += common;
+            }
+            node.addEntry(entry);
+
+            // 2. 更新路径上各节点的子树条目数与TopK
+            for (Node pathNode : path) {
+                pathNode.subtreeSize++;
+                if (maintainTops && pathNode.subtreeSize > topK) {
+                    pathNode.top = pathNode.top == null ? collect(pathNode) : offer(pathNode.top, entry);
+                }
+            }
+        }
+
+        /**
+         * 移除条目（不存在时忽略）
+         */
+        private void remove(long id) {
+            Suggestion entry = entriesById.remove(id);
+            if (entry == null) {
+                return;
+            }
+
+            // 1. 定位键所在节点路径
+            String key = entry.key;
+            List<Node> path = new ArrayList<>();
+            path.add(root);
+            Node node = root;
+            int pos = 0;
+            while (pos < key.length()) {
+                node = node.children[node.childIndex(key.charAt(pos))];
+                path.add(node);
+                pos += node.label.length();
+            }
+            node.removeEntry(entry);
+
+            // 2. 自底向上更新子树条目数，仅重算TopK中包含该条目的节点
+            for (int i = path.size() - 1; i >= 0; i--) {
+                Node pathNode = path.get(i);
+                pathNode.subtreeSize--;
+                if (pathNode.subtreeSize <= topK) {
+                    pathNode.top = null;
+                } else if (pathNode.top != null && contains(pathNode.top, entry)) {
+                    pathNode.top = mergeTop(pathNode);
+                }
+            }
+
+            // 3. 清理空叶子，并合并只剩单个子节点的中间节点，保持压缩形态
+            for (int i = path.size() - 1; i > 0; i--) {
+                Node pathNode = path.get(i);
+                Node parent = path.get(i - 1);
+                if (pathNode.entries == null && pathNode.childCount == 0) {
+                    parent.removeChild(pathNode);
+                } else {
+                    if (pathNode.entries == null && pathNode.childCount == 1) {
+                        pathNode.absorbOnlyChild();
+                    }
+                    break;
+                }
+            }
+        }
+
+        /**
+         * 自底向上计算TopK（全量构建），返回子树内不超过K条的最优候选
+         */
+        private Suggestion[] computeTops(Node node) {
+            List<Suggestion> candidates = new ArrayList<>();
+            if (node.entries != null) {
+                candidates.addAll(Arrays.asList(node.entries));
+            }
+            for (int i = 0; i < node.childCount; i++) {
+                candidates.addAll(Arrays.asList(computeTops(node.children[i])));
+            }
+            Suggestion[] best = bestOf(candidates);
+            node.top = node.subtreeSize > topK ? best : null;
+            return best;
+        }
+
+        /**
+         * 由本节点条目与各子节点TopK（或小子树全部条目）合并得到本节点TopK
+         */
+        private Suggestion[] mergeTop(Node node) {
+            List<Suggestion> candidates = new ArrayList<>();
+            if (node.entries != null) {
+                candidates.addAll(Arrays.asList(node.entries));
+            }
+            for (int i = 0; i < node.childCount; i++) {
+                Node child = node.children[i];
+                candidates.addAll(Arrays.asList(child.top != null ? child.top : collect(child)));
+            }
+            return bestOf(candidates);
+        }
+
+        /**
+         * 遍历收集子树全部条目并排序（仅用于条目数不超过K的子树，或首次超过K时建立TopK）
+         */
+        private Suggestion[] collect(Node node) {
+            List<Suggestion> candidates = new ArrayList<>();
+            Deque<Node> stack = new ArrayDeque<>();
+            stack.push(node);
+            while (!stack.isEmpty()) {
+                Node current = stack.pop();
+                if (current.entries != null) {
+                    candidates.addAll(Arrays.asList(current.entries));
+                }
+                for (int i = 0; i < current.childCount; i++) {
+                    stack.push(current.children[i]);
+                }
+            }
+            return bestOf(candidates);
+        }
+
+        private Suggestion[] bestOf(List<Suggestion> candidates) {
+            candidates.sort(ORDER);
+            return candidates.subList(0, Math.min(topK, candidates.size())).toArray(new Suggestion[0]);
+        }
+
+        /**
+         * 新条目优于TopK末位时插入（保持有序，超出K条时淘汰末位）
+         */
+        private Suggestion[] offer(Suggestion[] top, Suggestion entry) {
+            int position = Arrays.binarySearch(top, entry, ORDER);
+            position = position >= 0 ? position : -position - 1;
+            if (position >= topK) {
+                return top;
+            }
+            Suggestion[] result = new Suggestion[Math.min(topK, top.length + 1)];
+            System.arraycopy(top, 0, result, 0, position);
+            result[position] = entry;
+            System.arraycopy(top, position, result, position + 1, result.length - position - 1);
+            return result;
+        }
+
+        private static boolean contains(Suggestion[] top, Suggestion entry) {
+            for (Suggestion candidate : top) {
+                if (candidate == entry) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 在parent的第index个子节点边标签的common处拆分，返回新建的中间节点
+         */
+        private static Node split(Node parent, int index, int common) {
+            Node child = parent.children[index];
+            Node middle = new Node(child.label.substring(0, common));
+            child.label = child.label.substring(common);
+            middle.addChild(child);
+            middle.subtreeSize = child.subtreeSize;
+            middle.top = child.top;
+            parent.children[index] = middle;
+            return middle;
+        }
+
+        private static int commonPrefixLength(String label, String key, int offset) {
+            int max = Math.min(label.length(), key.length() - offset);
+            int i = 0;
+            while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+                i++;
+            }
+            return i;
+        }
+    }
+
+    /**
+     * 前缀树节点（子节点按边标签首字符有序，二分定位）
+     */
+    private static final class Node {
+
+        private static final Node[] NO_CHILDREN = new Node[0];
+        private static final char[] NO_CHARS = new char[0];
+
+        private String label; // 边标签（父节点到本节点的字符序列）
+        private char[] childChars = NO_CHARS; // 各子节点边标签首字符
+        private Node[] children = NO_CHILDREN;
+        private int childCount;
+        private Suggestion[] entries; // 键恰好止于本节点的条目（null表示无）
+        private int subtreeSize; // 子树条目总数
+        private Suggestion[] top; // 子树TopK（仅subtreeSize > K时维护，否则为null）
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        private int childIndex(char c) {
+            int low = 0;
+            int high = childCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (childChars[mid] < c) {
+                    low = mid + 1;
+                } else if (childChars[mid] > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+
+        private void addChild(Node child) {
+            char c = child.label.charAt(0);
+            int position = 0;
+            while (position < childCount && childChars[position] < c) {
+                position++;
+            }
+            if (childCount == children.length) {
+                int capacity = Math.max(2, childCount * 2);
+                children = Arrays.copyOf(children, capacity);
+                childChars = Arrays.copyOf(childChars, capacity);
+            }
+            System.arraycopy(children, position, children, position + 1, childCount - position);
+            System.arraycopy(childChars, position, childChars, position + 1, childCount - position);
+            children[position] = child;
+            childChars[position] = c;
+            childCount++;
+        }
+
+        private void removeChild(Node child) {
+            int index = childIndex(child.label.charAt(0));
+            System.arraycopy(children, index + 1, children, index, childCount - index - 1);
+            System.arraycopy(childChars, index + 1, childChars, index, childCount - index - 1);
+            children[--childCount] = null;
+        }
+
+        /**
+         * 合并唯一子节点（本节点无条目时），边标签拼接
+         */
+        private void absorbOnlyChild() {
+            Node child = children[0];
+            label = label + child.label;
+            childChars = child.childChars;
+            children = child.children;
+            childCount = child.childCount;
+            entries = child.entries;
+            subtreeSize = child.subtreeSize;
+            top = child.top;
+        }
+
+        private void addEntry(Suggestion entry) {
+            if (entries == null) {
+                entries = new Suggestion[]{entry};
+            } else {
+                entries = Arrays.copyOf(entries, entries.length + 1);
+                entries[entries.length - 1] = entry;
+            }
+        }
+
+        private void removeEntry(Suggestion entry) {
+            if (entries.length == 1) {
+                entries = null;
+                return;
+            }
+            Suggestion[] remaining = new Suggestion[entries.length - 1];
+            int i = 0;
+            for (Suggestion candidate : entries) {
+                if (candidate != entry) {
+                    remaining[i++] = candidate;
+                }
+            }
+            entries = remaining;
+        }
+    }
+}
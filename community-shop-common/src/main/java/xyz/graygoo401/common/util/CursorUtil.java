@@ -0,0 +1,75 @@
+package xyz.graygoo401.common.util;
+
+import org.springframework.util.StringUtils;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.common.exception.error.SystemErrorCode;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * 游标分页工具类
+ * 游标格式：{时间戳毫秒}_{主键ID}，对应 (create_time, id) 复合排序键
+ */
+public class CursorUtil {
+
+    private static final String SEPARATOR = "_"; // 时间戳与主键的分隔符
+
+    private CursorUtil() {}
+
+    /**
+     * 生成游标
+     * @param time 排序时间（如create_time）
+     * @param id 主键ID（时间相同时的决胜字段）
+     * @return 游标字符串
+     */
+    public static String encode(LocalDateTime time, Long id) {
+        if (time == null || id == null) {
+            return null;
+        }
+        long millis = time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return millis + SEPARATOR + id;
+    }
+
+    /**
+     * 解析游标中的时间部分
+     * @param cursor 游标字符串（为空表示第一页）
+     * @return 排序时间，游标为空时返回null
+     */
+    public static LocalDateTime decodeTime(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return null;
+        }
+        long millis = Long.parseLong(split(cursor)[0]);
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    /**
+     * 解析游标中的主键部分
+     * @param cursor 游标字符串（为空表示第一页）
+     * @return 主键ID，游标为空时返回null
+     */
+    public static Long decodeId(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return null;
+        }
+        return Long.parseLong(split(cursor)[1]);
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    private static String[] split(String cursor) {
+        String[] parts = cursor.split(SEPARATOR);
+        if (parts.length != 2) {
+            throw new BusinessException(SystemErrorCode.PARAM_ERROR, "分页游标格式非法");
+        }
+        try {
+            Long.parseLong(parts[0]);
+            Long.parseLong(parts[1]);
+        } catch (NumberFormatException e) {
+            throw new BusinessException(SystemErrorCode.PARAM_ERROR, "分页游标格式非法");
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,30 @@
+package xyz.graygoo401.common.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 事务工具类
+ * 用于将消息发送等副作用延迟到事务提交之后执行，避免消费者读到未提交数据
+ */
+public class TransactionUtil {
+
+    private TransactionUtil() {}
+
+    /**
+     * 事务提交后执行任务（当前无事务时立即执行）
+     * @param task 待执行任务
+     */
+    public static void afterCommit(Runnable task) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+}
@@ -14,6 +14,7 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import xyz.graygoo401.api.community.dto.post.*;
 import xyz.graygoo401.common.annotation.AdminRequired;
+import xyz.graygoo401.common.annotation.Idempotent;
 import xyz.graygoo401.common.annotation.LoginRequired;
 import xyz.graygoo401.common.dto.PageResult;
 import xyz.graygoo401.common.util.RequestParseUtil;
@@ -48,9 +49,10 @@ public class PostController {
      */
     @PostMapping("/publish")
     @LoginRequired
+    @Idempotent
     @Operation(
             summary = "发布帖子接口",
-            description = "登录用户发布社区帖子，业务规则：1.用户信用分需≥60分（低于则无法发布）；2.标题1-50字非空；3.内容1-2000字非空；4.图片最多9张（JSON格式URL列表）；5.新用户（注册≤7天）帖子需审核",
+            description = "登录用户发布社区帖子，业务规则：1.用户信用分需≥60分（低于则无法发布）；2.标题1-50字非空；3.内容1-2000字非空；4.图片最多9张（JSON格式URL列表）；5.新用户（注册≤7天）帖子需审核；6.支持请求头Idempotency-Key，超时重试携带同一键不会重复发帖",
             security = @SecurityRequirement(name = "Bearer Authentication")
     )
     @ApiResponses({
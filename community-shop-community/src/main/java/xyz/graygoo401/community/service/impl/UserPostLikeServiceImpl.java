@@ -7,6 +7,7 @@ import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import xyz.graygoo401.api.common.dto.mq.CommunityEventDTO;
+import xyz.graygoo401.api.common.enums.MqEventTypeEnum;
 import xyz.graygoo401.api.community.enums.PostStatusEnum;
 import xyz.graygoo401.api.user.dto.user.UserDTO;
 import xyz.graygoo401.api.user.feign.UserClient;
@@ -105,7 +106,7 @@ public class UserPostLikeServiceImpl extends BaseServiceImpl<UserPostLikeMapper,
             // 5. 发送互动消息（如果操作是点赞）
             CommunityEventDTO event = new CommunityEventDTO(postId, userId,
                     post.getUserId(), "LIKE");
-            rabbitTemplate.convertAndSend("community.topic", "community.like", event);
+            rabbitTemplate.convertAndSend(MqEventTypeEnum.POST_LIKED.getExchange(), MqEventTypeEnum.POST_LIKED.getRoutingKey(), event);
 
             log.info("用户点赞成功，用户ID：{}，帖子ID：{}", userId, postId);
             return true;
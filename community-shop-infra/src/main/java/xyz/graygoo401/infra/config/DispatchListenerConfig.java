@@ -0,0 +1,69 @@
+package xyz.graygoo401.infra.config;
+
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 验证码发送消费配置
+ * 1. 邮件：消费者侧攒批，凑满batchSize条或receiveTimeout内无新消息时整批交给监听方法，一批邮件复用一个SMTP连接；
+ * 2. 短信：逐条消费；
+ * 两类容器各自按concurrency启动固定数量的消费线程（发送线程），发送线程数即对邮件服务器、短信网关的最大并发；
+ * 队列长度上限在监听器的队列声明中设置（见CodeDispatchListener）
+ */
+@Configuration
+public class DispatchListenerConfig {
+
+    public static final String DISPATCH_EMAIL_CONTAINER_FACTORY = "dispatchEmailContainerFactory"; // 邮件批量消费容器工厂
+    public static final String DISPATCH_SMS_CONTAINER_FACTORY = "dispatchSmsContainerFactory"; // 短信消费容器工厂
+
+    @Value("${infra.dispatch.email.batch-size:50}")
+    private int emailBatchSize;
+
+    @Value("${infra.dispatch.email.receive-timeout-millis:200}")
+    private long emailReceiveTimeoutMillis;
+
+    @Value("${infra.dispatch.email.concurrency:2}")
+    private int emailConcurrency;
+
+    @Value("${infra.dispatch.sms.concurrency:4}")
+    private int smsConcurrency;
+
+    /**
+     * 邮件批量消费容器工厂（监听方法参数为List）
+     */
+    @Bean(DISPATCH_EMAIL_CONTAINER_FACTORY)
+    public SimpleRabbitListenerContainerFactory dispatchEmailContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(emailBatchSize);
+        factory.setReceiveTimeout(emailReceiveTimeoutMillis);
+        factory.setPrefetchCount(emailBatchSize);
+        factory.setConcurrentConsumers(emailConcurrency);
+        factory.setMaxConcurrentConsumers(emailConcurrency);
+        // 重试在发送服务内完成，异常消息不再重新入队
+        factory.setDefaultRequeueRejected(false);
+        return factory;
+    }
+
+    /**
+     * 短信消费容器工厂（每个消费线程同时只处理一条，预取1条避免积压在单个线程上）
+     */
+    @Bean(DISPATCH_SMS_CONTAINER_FACTORY)
+    public SimpleRabbitListenerContainerFactory dispatchSmsContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setPrefetchCount(1);
+        factory.setConcurrentConsumers(smsConcurrency);
+        factory.setMaxConcurrentConsumers(smsConcurrency);
+        factory.setDefaultRequeueRejected(false);
+        return factory;
+    }
+}
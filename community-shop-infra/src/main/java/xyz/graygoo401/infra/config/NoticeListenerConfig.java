@@ -0,0 +1,44 @@
+package xyz.graygoo401.infra.config;
+
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 通知批量消费配置
+ * 消费者侧攒批：凑满batchSize条或等待receiveTimeout内无新消息时，将已收到的消息作为一批交给监听方法，
+ * 一批消息一次批量查询用户、一条多行INSERT写入、一次管道更新未读计数；预取数不小于批大小，保证一批可以凑满
+ */
+@Configuration
+public class NoticeListenerConfig {
+
+    public static final String NOTICE_BATCH_CONTAINER_FACTORY = "noticeBatchContainerFactory"; // 通知批量消费容器工厂
+
+    @Value("${infra.notice.batch-size:200}")
+    private int batchSize;
+
+    @Value("${infra.notice.receive-timeout-millis:500}")
+    private long receiveTimeoutMillis;
+
+    @Value("${infra.notice.prefetch:400}")
+    private int prefetch;
+
+    /**
+     * 批量消费容器工厂（沿用全局配置与JSON消息转换器，监听方法参数为List）
+     */
+    @Bean(NOTICE_BATCH_CONTAINER_FACTORY)
+    public SimpleRabbitListenerContainerFactory noticeBatchContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(receiveTimeoutMillis);
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        return factory;
+    }
+}
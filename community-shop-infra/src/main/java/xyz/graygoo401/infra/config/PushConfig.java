@@ -0,0 +1,41 @@
+package xyz.graygoo401.infra.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import xyz.graygoo401.infra.service.base.PushService;
+import xyz.graygoo401.infra.util.PushRegistryCacheUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 消息推送配置
+ * 订阅本节点频道与广播频道，收到的推送事件投递给本节点的SSE连接（订阅回调运行在虚拟线程上）
+ */
+@Configuration
+public class PushConfig {
+
+    /**
+     * 推送订阅容器
+     */
+    @Bean
+    public RedisMessageListenerContainer pushListenerContainer(RedisConnectionFactory connectionFactory, PushService pushService) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("push-sub-");
+        executor.setVirtualThreads(true);
+
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.setTaskExecutor(executor);
+        MessageListener listener = (message, pattern) ->
+                pushService.deliverLocal(new String(message.getBody(), StandardCharsets.UTF_8));
+        container.addMessageListener(listener, List.of(
+                new ChannelTopic(PushRegistryCacheUtil.nodeChannel(pushService.getNodeId())),
+                new ChannelTopic(PushRegistryCacheUtil.PUSH_BROADCAST_CHANNEL)));
+        return container;
+    }
+}
@@ -8,19 +8,29 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import xyz.graygoo401.api.infra.dto.message.*;
 import xyz.graygoo401.api.infra.enums.MessageTypeEnum;
 import xyz.graygoo401.common.annotation.AdminRequired;
+import xyz.graygoo401.common.annotation.Idempotent;
 import xyz.graygoo401.common.annotation.LoginRequired;
+import xyz.graygoo401.common.dto.CursorPageResult;
 import xyz.graygoo401.common.dto.PageResult;
 import xyz.graygoo401.common.util.RequestParseUtil;
 import xyz.graygoo401.common.vo.ResultVO;
+import xyz.graygoo401.infra.service.base.AnnouncementService;
+import xyz.graygoo401.infra.service.base.ConversationService;
 import xyz.graygoo401.infra.service.base.MessageService;
+import xyz.graygoo401.infra.service.base.PushService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -37,6 +47,12 @@ public class MessageController {
     @Autowired
     private MessageService messageService;
     @Autowired
+    private AnnouncementService announcementService;
+    @Autowired
+    private PushService pushService;
+    @Autowired
+    private ConversationService conversationService;
+    @Autowired
     private RequestParseUtil requestParseUtil;
 
     /**
@@ -45,9 +61,10 @@ public class MessageController {
      */
     @PostMapping
     @LoginRequired
+    @Idempotent
     @Operation(
             summary = "发送消息接口（私信/系统通知）",
-            description = "登录用户发送消息，业务规则：1.私信：所有登录用户可发送，接收人需存在，内容≤1000字；2.系统通知：仅管理员可发送，需指定目标用户；3.订单类消息需关联业务ID（如订单ID）；4.发送后更新接收人未读消息缓存（+1）",
+            description = "登录用户发送消息，业务规则：1.私信：所有登录用户可发送，接收人需存在，内容≤1000字；2.系统通知：仅管理员可发送，需指定目标用户；3.订单类消息需关联业务ID（如订单ID）；4.发送后更新接收人未读消息缓存（+1）；5.支持请求头Idempotency-Key，超时重试携带同一键不会重复发送",
             security = @SecurityRequirement(name = "Bearer Authentication")
     )
     @ApiResponses({
@@ -226,39 +243,187 @@ public class MessageController {
 
     /**
      * 批量标记消息已读接口
-     * 对应Service层：MessageServiceImpl.markAsRead()，循环标记每条消息，校验归属权
+     * 对应Service层：MessageServiceImpl.batchMarkAsRead()，一次UPDATE标记，归属校验在WHERE条件中完成
      */
     @PatchMapping("/batch/read")
     @LoginRequired
     @Operation(
             summary = "批量标记消息已读接口",
-            description = "批量将多条消息标记为已读，业务规则：1.仅消息接收人可操作；2.消息需存在且未删除；3.每条消息标记后更新未读缓存（-1）；4.部分消息标记失败不影响整体操作（返回成功，日志记录失败信息）",
+            description = "批量将多条消息标记为已读，业务规则：1.只标记当前用户收到的未读、未删除消息，他人的或不存在的消息ID直接忽略；2.单次最多500条；3.按消息类型汇总后一次更新未读计数；返回实际标记条数",
             security = @SecurityRequirement(name = "Bearer Authentication")
     )
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "批量标记成功（无返回数据）",
+            @ApiResponse(responseCode = "200", description = "批量标记成功，返回实际标记条数",
                     content = @Content(schema = @Schema(implementation = ResultVO.class))),
-            @ApiResponse(responseCode = "400", description = "参数错误（消息ID列表为空=SYSTEM_003）",
+            @ApiResponse(responseCode = "400", description = "参数错误（消息ID列表为空或超过500条=SYSTEM_002）",
                     content = @Content(schema = @Schema(implementation = ResultVO.class))),
             @ApiResponse(responseCode = "401", description = "未登录（对应错误码：SYSTEM_021）",
                     content = @Content(schema = @Schema(implementation = ResultVO.class))),
-            @ApiResponse(responseCode = "403", description = "无权限操作（部分消息非当前用户所有，对应错误码：SYSTEM_022）",
+            @ApiResponse(responseCode = "500", description = "系统异常（对应错误码：SYSTEM_001）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class)))
+    })
+    public ResultVO<Integer> batchUpdateReadStatus(
+            @RequestBody
+            @Parameter(description = "待标记已读的消息ID列表，非空且不超过500条", required = true)
+            List<Long> msgIds
+    ) {
+        Long currentUserId = parseUserIdFromToken();
+        MessageBatchReadDTO batchReadDTO = new MessageBatchReadDTO();
+        batchReadDTO.setMsgIds(msgIds);
+        return ResultVO.success(messageService.batchMarkAsRead(currentUserId, batchReadDTO));
+    }
+
+    /**
+     * 按条件批量标记已读接口
+     * 对应Service层：MessageServiceImpl.batchMarkAsRead()，支持全部某类型、某时间之前的消息一键已读
+     */
+    @PatchMapping("/read")
+    @LoginRequired
+    @Operation(
+            summary = "按条件批量标记已读接口",
+            description = "按消息ID列表、消息类型、发送时间上限（可组合，至少指定一个）将当前用户的未读消息标记为已读，业务规则：1.只处理当前用户收到的未读、未删除消息；2.一次UPDATE完成，按消息类型汇总后一次更新未读计数；返回实际标记条数",
+            security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "标记成功，返回实际标记条数（无命中时为0）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "400", description = "参数错误（未指定任何条件或消息ID超过500条=SYSTEM_002）",
                     content = @Content(schema = @Schema(implementation = ResultVO.class))),
-            @ApiResponse(responseCode = "404", description = "部分消息不存在（对应错误码：MSG_001）",
+            @ApiResponse(responseCode = "401", description = "未登录（对应错误码：SYSTEM_021）",
                     content = @Content(schema = @Schema(implementation = ResultVO.class))),
-            @ApiResponse(responseCode = "500", description = "部分消息更新失败（对应错误码：SYSTEM_011）",
+            @ApiResponse(responseCode = "500", description = "系统异常（对应错误码：SYSTEM_001）",
                     content = @Content(schema = @Schema(implementation = ResultVO.class)))
     })
-    public ResultVO<Void> batchUpdateReadStatus(
+    public ResultVO<Integer> batchMarkAsRead(
             @RequestBody
-            @Parameter(description = "待标记已读的消息ID列表，非空且元素为有效消息ID", required = true)
-            List<Long> msgIds
+            @Parameter(description = "批量已读条件：msgIds/type/before至少指定一个", required = true)
+            MessageBatchReadDTO batchReadDTO
+    ) {
+        Long currentUserId = parseUserIdFromToken();
+        return ResultVO.success(messageService.batchMarkAsRead(currentUserId, batchReadDTO));
+    }
+
+    /**
+     * 私信会话列表接口
+     * 对应Service层：ConversationServiceImpl.listConversations()，单表查询conversation会话表，游标分页
+     */
+    @GetMapping("/conversations")
+    @LoginRequired
+    @Operation(
+            summary = "私信会话列表接口",
+            description = "查询当前登录用户的私信会话（聊天列表），业务规则：1.每个聊天对象一个会话，返回最后一条消息摘要与当前用户的未读数；2.按最后活跃时间降序排序；3.游标分页，首页不传cursor，后续传上一页返回的nextCursor，pageSize默认10、最大50",
+            security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "查询成功，返回会话游标分页结果（无数据时列表为空）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "400", description = "参数错误（游标格式非法、每页条数非法=SYSTEM_002）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "401", description = "未登录（对应错误码：SYSTEM_021）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "500", description = "数据查询失败（对应错误码：SYSTEM_014）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class)))
+    })
+    public ResultVO<CursorPageResult<ConversationDTO>> listConversations(
+            @RequestParam(required = false)
+            @Parameter(description = "分页游标（上一页返回的nextCursor，为空表示第一页）", example = "1716170400000_3001")
+            String cursor,
+            @RequestParam(required = false)
+            @Parameter(description = "每页条数（默认10，最大50）", example = "10")
+            Integer pageSize
+    ) {
+        Long currentUserId = parseUserIdFromToken();
+        CursorPageResult<ConversationDTO> conversations = conversationService.listConversations(currentUserId, cursor, pageSize);
+        return ResultVO.success(conversations);
+    }
+
+    /**
+     * 私信会话消息接口
+     * 对应Service层：ConversationServiceImpl.listMessages()，按(conversation_id, msg_id)索引游标分页
+     */
+    @GetMapping("/conversations/{partnerId}/messages")
+    @LoginRequired
+    @Operation(
+            summary = "私信会话消息接口",
+            description = "查询当前登录用户与聊天对象的私信，业务规则：1.按消息ID降序（最新消息在前），向上滚动时传上一页返回的nextCursor加载更早的消息；2.pageSize默认10、最大50；3.尚无会话时返回空列表；4.已删除的消息不返回",
+            security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "查询成功，返回消息游标分页结果",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "400", description = "参数错误（游标格式非法、每页条数非法=SYSTEM_002）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "401", description = "未登录（对应错误码：SYSTEM_021）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "500", description = "数据查询失败（对应错误码：SYSTEM_014）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class)))
+    })
+    public ResultVO<CursorPageResult<PrivateMessageDetailDTO>> listConversationMessages(
+            @PathVariable
+            @Parameter(description = "聊天对象用户ID", required = true, example = "1002")
+            Long partnerId,
+            @RequestParam(required = false)
+            @Parameter(description = "分页游标（上一页返回的nextCursor，为空表示第一页）", example = "1716170400000_10001")
+            String cursor,
+            @RequestParam(required = false)
+            @Parameter(description = "每页条数（默认10，最大50）", example = "10")
+            Integer pageSize
+    ) {
+        Long currentUserId = parseUserIdFromToken();
+        CursorPageResult<PrivateMessageDetailDTO> messages = conversationService.listMessages(currentUserId, partnerId, cursor, pageSize);
+        return ResultVO.success(messages);
+    }
+
+    /**
+     * 私信会话标记已读接口
+     * 对应Service层：MessageServiceImpl.markConversationRead()，一条UPDATE标记会话内全部未读私信
+     */
+    @PatchMapping("/conversations/{partnerId}/read")
+    @LoginRequired
+    @Operation(
+            summary = "私信会话标记已读接口",
+            description = "将当前登录用户与聊天对象会话中收到的未读私信全部标记为已读，业务规则：1.只标记当前最后一条消息及之前的私信，标记期间新到达的私信保持未读；2.按实际标记条数减少会话未读数与私信未读计数；3.尚无会话时返回0",
+            security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "标记成功，返回标记为已读的消息数",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "401", description = "未登录（对应错误码：SYSTEM_021）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "500", description = "更新失败（对应错误码：SYSTEM_001）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class)))
+    })
+    public ResultVO<Integer> markConversationRead(
+            @PathVariable
+            @Parameter(description = "聊天对象用户ID", required = true, example = "1002")
+            Long partnerId
     ) {
         Long currentUserId = parseUserIdFromToken();
-        for (Long msgId : msgIds) {
-            messageService.markAsRead(currentUserId, msgId);
-        }
-        return ResultVO.success();
+        Integer readCount = messageService.markConversationRead(currentUserId, partnerId);
+        return ResultVO.success(readCount);
+    }
+
+    /**
+     * 私信会话回填接口（管理员运维）
+     * 对应Service层：ConversationServiceImpl.backfillConversations()，会话上线后执行一次，可重复执行
+     */
+    @PostMapping("/conversations/backfill")
+    @AdminRequired
+    @Operation(
+            summary = "私信会话回填接口（管理员专属）",
+            description = "为会话上线前的历史私信（含归档私信）补齐会话ID，业务规则：1.仅管理员可操作；2.按用户对创建缺失的会话，推进最后一条消息并累加双方未读数；3.按消息ID游标分批，每个用户对单独提交，已回填的私信不会重复处理；4.发给自己的私信不回填",
+            security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "回填成功，返回本次回填的私信数",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "401", description = "未登录（对应错误码：SYSTEM_021）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "403", description = "无管理员权限（对应错误码：SYSTEM_022）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class)))
+    })
+    public ResultVO<Integer> backfillConversations() {
+        return ResultVO.success(conversationService.backfillConversations());
     }
 
     /**
@@ -294,15 +459,51 @@ public class MessageController {
         return ResultVO.success(messagePage);
     }
 
+    /**
+     * 消息日志导出接口（管理员报表）
+     * 对应Service层：MessageServiceImpl.exportMessages()，逐行读取数据库游标并以分块传输写出CSV
+     */
+    @GetMapping("/export")
+    @AdminRequired
+    @Operation(
+            summary = "消息日志导出接口（管理员专属）",
+            description = "按消息类型与发送时间范围导出消息日志CSV，业务规则：1.仅管理员可操作；2.包含已删除消息；3.时间范围可选，开始时间不能晚于结束时间；4.按消息ID升序流式输出，不限制行数；5.文件为UTF-8（带BOM）CSV，可直接用Excel打开",
+            security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "导出成功，返回CSV文件流",
+                    content = @Content(mediaType = "text/csv")),
+            @ApiResponse(responseCode = "400", description = "参数错误（时间范围非法=SYSTEM_002）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "401", description = "未登录（对应错误码：SYSTEM_021）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "403", description = "无管理员权限（对应错误码：SYSTEM_022）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class)))
+    })
+    public void exportMessages(
+            @RequestParam(required = false)
+            @Parameter(description = "消息类型（为空时导出全部类型）", example = "ORDER")
+            MessageTypeEnum type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            @Parameter(description = "发送时间下限（ISO格式）", example = "2024-01-01T00:00:00")
+            LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            @Parameter(description = "发送时间上限（ISO格式）", example = "2024-01-31T23:59:59")
+            LocalDateTime endTime,
+            HttpServletResponse response
+    ) {
+        messageService.exportMessages(type, startTime, endTime, response);
+    }
+
     /**
      * 统计未读消息数接口
-     * 对应Service层：MessageServiceImpl.countUnreadMessages()，优先从缓存获取，有效期5分钟
+     * 对应Service层：MessageServiceImpl.countUnreadMessages()，读取Redis未读计数（各类型计数之和）
      */
     @GetMapping("/unread/count")
     @LoginRequired
     @Operation(
             summary = "统计未读消息数接口",
-            description = "统计当前登录用户的未读消息总数，业务规则：1.仅统计未删除且未读的消息；2.优先从缓存获取（有效期5分钟），缓存未命中则查库并更新缓存；3.返回总数（含所有类型未读消息）",
+            description = "统计当前登录用户的未读消息总数，业务规则：1.仅统计未删除且未读的消息；2.从Redis未读计数读取（发送/已读时原子增减），计数未加载则按数据库分组统计并加载；3.返回总数（含所有类型未读消息）",
             security = @SecurityRequirement(name = "Bearer Authentication")
     )
     @ApiResponses({
@@ -321,6 +522,31 @@ public class MessageController {
         return ResultVO.success(unreadCount);
     }
 
+    /**
+     * 获取未读消息统计接口（未读角标）
+     * 对应Service层：MessageServiceImpl.getUnreadStat()，一次读取全部类型的未读计数
+     */
+    @GetMapping("/unread/stat")
+    @LoginRequired
+    @Operation(
+            summary = "获取未读消息统计接口",
+            description = "获取当前登录用户的未读消息总数及各类型（系统/订单/私信）未读数，业务规则：1.仅统计未删除且未读的消息；2.一次读取Redis未读计数的全部类型，计数未加载则按数据库分组统计并加载；3.用于未读角标展示",
+            security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "查询成功，返回未读消息统计（无未读时各项为0）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "401", description = "未登录（对应错误码：SYSTEM_021）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "500", description = "数据查询失败（对应错误码：SYSTEM_014）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class)))
+    })
+    public ResultVO<MessageStatDTO> getUnreadStat() {
+        Long currentUserId = parseUserIdFromToken();
+        MessageStatDTO statDTO = messageService.getUnreadStat(currentUserId);
+        return ResultVO.success(statDTO);
+    }
+
     /**
      * 获取最近未读消息预览接口
      * 对应Service层：MessageServiceImpl.getRecentUnreadPreviews()，返回前3条未读消息，内容截取30字
@@ -348,15 +574,38 @@ public class MessageController {
         return ResultVO.success(previews);
     }
 
+    /**
+     * 消息实时推送接口（SSE长连接）
+     * 对应Service层：PushServiceImpl.connect()，新消息、通知与全员公告建立连接后实时推送，替代轮询未读数与消息列表
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @LoginRequired
+    @Operation(
+            summary = "消息实时推送接口（SSE）",
+            description = "建立SSE长连接接收实时推送，事件类型：1.connected（连接成功，客户端应拉取一次未读统计）；2.message（新消息/通知）；3.announcement（全员公告）；4.resync（推送积压被丢弃，客户端应重新拉取未读统计与消息列表）；服务端每25秒发送一次心跳注释，连接断开后客户端应自动重连",
+            security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "连接建立成功，持续返回text/event-stream"),
+            @ApiResponse(responseCode = "401", description = "未登录（对应错误码：SYSTEM_021）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "503", description = "本节点连接数已达上限（对应错误码：MSG_021），客户端应稍后重连",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class)))
+    })
+    public SseEmitter streamMessages() {
+        Long currentUserId = parseUserIdFromToken();
+        return pushService.connect(currentUserId);
+    }
+
     /**
      * 发布系统公告接口
-     * 对应Service层：MessageServiceImpl.sendMessage()，仅管理员可操作，类型固定为SYSTEM
+     * 对应Service层：AnnouncementServiceImpl.publish()，仅管理员可操作，只写入一行公告，用户读取收件箱与未读数时按阅读游标合并
      */
     @PostMapping("/system-announce")
     @AdminRequired
     @Operation(
             summary = "发布系统公告接口（管理员专属）",
-            description = "管理员发布系统公告（如平台规则更新、活动通知），业务规则：1.仅管理员可操作；2.标题≤50字、内容≤1000字；3.可指定目标用户群体（全体/特定角色）；4.消息类型固定为SYSTEM（系统公告）；5.发布后所有目标用户收到通知",
+            description = "管理员发布全员公告（如平台规则更新、活动通知），业务规则：1.仅管理员可操作；2.标题≤50字、内容≤1000字；3.只写入一条公告记录，不为每个用户生成消息；4.所有用户在系统消息列表与未读统计中看到该公告，直到标记已读",
             security = @SecurityRequirement(name = "Bearer Authentication")
     )
     @ApiResponses({
@@ -373,15 +622,38 @@ public class MessageController {
     })
     public ResultVO<Long> publishSystemAnnouncement(
             @Valid @RequestBody
-            @Parameter(description = "系统公告发布参数，title/content/targetUserGroup为必填，类型自动设为SYSTEM", required = true)
+            @Parameter(description = "系统公告发布参数，title/content为必填，类型自动设为SYSTEM", required = true)
             MessageSendDTO messageSendDTO
     ) {
         Long adminId = parseUserIdFromToken();
         messageSendDTO.setType(MessageTypeEnum.SYSTEM);
-        Long announcementId = messageService.sendMessage(adminId, messageSendDTO);
+        Long announcementId = announcementService.publish(adminId, messageSendDTO);
         return ResultVO.success(announcementId);
     }
 
+    /**
+     * 全员公告标记已读接口
+     * 对应Service层：AnnouncementServiceImpl.markAllRead()，将当前用户的公告阅读游标推进到最新公告
+     */
+    @PatchMapping("/announcements/read")
+    @LoginRequired
+    @Operation(
+            summary = "全员公告标记已读接口",
+            description = "将当前登录用户的全部公告标记为已读（阅读游标推进到最新公告，只前进不后退），无公告时返回false",
+            security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "操作成功，返回是否推进游标",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "401", description = "未登录（对应错误码：SYSTEM_021）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class)))
+    })
+    public ResultVO<Boolean> markAnnouncementsRead() {
+        Long currentUserId = parseUserIdFromToken();
+        Boolean advanced = announcementService.markAllRead(currentUserId);
+        return ResultVO.success(advanced);
+    }
+
     /**
      * 工具方法：从请求头令牌中解析用户ID（复用系统JWT解析逻辑）
      * @return 当前登录用户ID
@@ -11,6 +11,9 @@ import xyz.graygoo401.infra.service.impl.EmailCodeServiceImpl;
 import xyz.graygoo401.infra.service.impl.PhoneCodeServiceImpl;
 import xyz.graygoo401.infra.util.ThirdPartyAuthUtil;
 
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/v1/infra/inner")
 public class InfraInnerController {
@@ -54,6 +57,14 @@ public class InfraInnerController {
         return ResultVO.success(msgId);
     }
 
+    /**
+     * 批量统计未读消息总数实现
+     */
+    @PostMapping("/messages/unread/count/batch")
+    public ResultVO<Map<Long, Integer>> batchCountUnreadMessages(@RequestBody List<Long> userIds) {
+        return ResultVO.success(messageService.batchCountUnreadMessages(userIds));
+    }
+
     /**
      * 三方平台授权码获取实现
      */
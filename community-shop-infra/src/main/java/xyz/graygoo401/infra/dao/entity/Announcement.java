@@ -0,0 +1,37 @@
+package xyz.graygoo401.infra.dao.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 全员公告实体类，对应数据库announcement表
+ * 一次公告只写一行，不为每个用户生成消息；用户的阅读状态由AnnouncementCursor判断
+ */
+@Data
+@TableName("announcement")
+public class Announcement {
+
+    /** 公告ID（自增，越大越新，用于与阅读游标比较） */
+    @TableId(value = "announcement_id", type = IdType.AUTO)
+    private Long announcementId;
+
+    /** 发布管理员ID */
+    private Long publisherId;
+
+    /** 标题 */
+    private String title;
+
+    /** 内容 */
+    private String content;
+
+    /** 发布时间 */
+    private LocalDateTime createTime;
+
+    /** 更新时间 */
+    private LocalDateTime updateTime;
+
+}
@@ -0,0 +1,28 @@
+package xyz.graygoo401.infra.dao.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 公告阅读游标实体类，对应数据库announcement_cursor表
+ * 每个用户一行，公告ID大于lastSeenId即为未读；无记录的用户游标视为0
+ */
+@Data
+@TableName("announcement_cursor")
+public class AnnouncementCursor {
+
+    /** 用户ID */
+    @TableId(value = "user_id", type = IdType.INPUT)
+    private Long userId;
+
+    /** 已读到的最大公告ID */
+    private Long lastSeenId;
+
+    /** 更新时间 */
+    private LocalDateTime updateTime;
+
+}
@@ -0,0 +1,43 @@
+package xyz.graygoo401.infra.dao.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 私信会话实体类，对应数据库conversation表
+ * 每对用户一行，以有序用户对（userLowId < userHighId）唯一确定，记录最后一条消息与双方各自的未读数
+ */
+@Data
+@TableName("conversation")
+public class Conversation {
+
+    /** 会话ID */
+    @TableId(value = "conversation_id", type = IdType.AUTO)
+    private Long conversationId;
+
+    /** 用户对中较小的用户ID */
+    private Long userLowId;
+
+    /** 用户对中较大的用户ID */
+    private Long userHighId;
+
+    /** 最后一条消息ID */
+    private Long lastMsgId;
+
+    /** 较小用户ID一方的未读数 */
+    private Integer lowUnreadCount;
+
+    /** 较大用户ID一方的未读数 */
+    private Integer highUnreadCount;
+
+    /** 创建时间 */
+    private LocalDateTime createTime;
+
+    /** 更新时间（最后一条消息的发送时间） */
+    private LocalDateTime updateTime;
+
+}
@@ -43,6 +43,9 @@ public class Message {
     /** 消息类型 */
     private MessageTypeEnum type;
 
+    /** 私信会话ID（非私信为null） */
+    private Long conversationId;
+
     /** 创建时间 */
     private LocalDateTime createTime;
 
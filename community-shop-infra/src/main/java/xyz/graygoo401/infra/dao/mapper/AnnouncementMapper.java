@@ -0,0 +1,48 @@
+package xyz.graygoo401.infra.dao.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import xyz.graygoo401.infra.dao.entity.Announcement;
+import xyz.graygoo401.infra.dao.entity.AnnouncementCursor;
+
+import java.util.List;
+
+/**
+ * 全员公告Mapper接口，提供announcement表与announcement_cursor表的操作
+ */
+@Mapper
+public interface AnnouncementMapper extends BaseMapper<Announcement> {
+
+    // ==================== 公告查询 ====================
+    /**
+     * 查询最近的公告（按公告ID倒序）
+     * @param limit 最大条数
+     * @return 公告列表
+     */
+    List<Announcement> selectRecent(@Param("limit") int limit);
+
+
+    // ==================== 阅读游标 ====================
+    /**
+     * 查询用户的阅读游标
+     * @param userId 用户ID
+     * @return 已读到的最大公告ID（无记录返回null）
+     */
+    Long selectLastSeenId(@Param("userId") Long userId);
+
+    /**
+     * 批量查询用户的阅读游标
+     * @param userIds 用户ID列表
+     * @return 游标列表（无记录的用户不包含在结果中）
+     */
+    List<AnnouncementCursor> selectCursors(@Param("userIds") List<Long> userIds);
+
+    /**
+     * 推进用户的阅读游标（无记录时插入；只前进不后退，并发推进取较大值）
+     * @param userId 用户ID
+     * @param lastSeenId 已读到的最大公告ID
+     * @return 影响行数
+     */
+    int advanceCursor(@Param("userId") Long userId, @Param("lastSeenId") Long lastSeenId);
+}
@@ -0,0 +1,109 @@
+package xyz.graygoo401.infra.dao.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import xyz.graygoo401.infra.dao.entity.Conversation;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 私信会话Mapper接口，提供conversation表的操作
+ */
+@Mapper
+public interface ConversationMapper extends BaseMapper<Conversation> {
+
+    // ==================== 会话查询 ====================
+    /**
+     * 按有序用户对查询会话
+     * @param userLowId 较小的用户ID
+     * @param userHighId 较大的用户ID
+     * @return 会话（不存在返回null）
+     */
+    Conversation selectByPair(@Param("userLowId") Long userLowId, @Param("userHighId") Long userHighId);
+
+    /**
+     * 按有序用户对加锁查询会话（读取最新提交的数据，用于并发创建会话后的重新查询）
+     * @param userLowId 较小的用户ID
+     * @param userHighId 较大的用户ID
+     * @return 会话（不存在返回null）
+     */
+    Conversation selectByPairForUpdate(@Param("userLowId") Long userLowId, @Param("userHighId") Long userHighId);
+
+    /**
+     * 按用户游标分页查询会话列表（按update_time、conversation_id倒序）
+     * @param userId 用户ID
+     * @param lastUpdateTime 上一页最后一条的更新时间（第一页为null）
+     * @param lastConversationId 上一页最后一条的会话ID（第一页为null）
+     * @param limit 查询条数
+     * @return 会话列表
+     */
+    List<Conversation> selectByUserCursor(
+            @Param("userId") Long userId,
+            @Param("lastUpdateTime") LocalDateTime lastUpdateTime,
+            @Param("lastConversationId") Long lastConversationId,
+            @Param("limit") int limit
+    );
+
+
+    // ==================== 会话维护 ====================
+    /**
+     * 记录新消息：推进最后一条消息（只前进不后退），接收方未读数+1
+     * @param conversationId 会话ID
+     * @param msgId 消息ID
+     * @param receiverLow 接收方是否为较小用户ID一方
+     * @param sendTime 消息发送时间
+     * @return 影响行数
+     */
+    int recordMessage(
+            @Param("conversationId") Long conversationId,
+            @Param("msgId") Long msgId,
+            @Param("receiverLow") boolean receiverLow,
+            @Param("sendTime") LocalDateTime sendTime
+    );
+
+    /**
+     * 减少接收方未读数（不小于0）
+     * @param conversationId 会话ID
+     * @param receiverLow 接收方是否为较小用户ID一方
+     * @param count 减少数量
+     * @return 影响行数
+     */
+    int decreaseUnread(
+            @Param("conversationId") Long conversationId,
+            @Param("receiverLow") boolean receiverLow,
+            @Param("count") int count
+    );
+
+    /**
+     * 按会话中接收方未读、未删除的私信重新统计接收方未读数
+     * @param conversationId 会话ID
+     * @param receiverId 接收人ID
+     * @param receiverLow 接收方是否为较小用户ID一方
+     * @return 影响行数
+     */
+    int recountUnread(
+            @Param("conversationId") Long conversationId,
+            @Param("receiverId") Long receiverId,
+            @Param("receiverLow") boolean receiverLow
+    );
+
+    /**
+     * 合并回填的历史私信：推进最后一条消息（只前进不后退），累加双方未读数
+     * 会话尚无消息（回填时新建）时更新时间取最后一条历史私信的发送时间，避免历史会话排到列表顶部
+     * @param conversationId 会话ID
+     * @param lastMsgId 回填私信中最大的消息ID
+     * @param lowUnreadCount 较小用户ID一方新增的未读数
+     * @param highUnreadCount 较大用户ID一方新增的未读数
+     * @param lastSendTime 回填私信中最晚的发送时间
+     * @return 影响行数
+     */
+    int mergeBackfill(
+            @Param("conversationId") Long conversationId,
+            @Param("lastMsgId") Long lastMsgId,
+            @Param("lowUnreadCount") int lowUnreadCount,
+            @Param("highUnreadCount") int highUnreadCount,
+            @Param("lastSendTime") LocalDateTime lastSendTime
+    );
+}
@@ -4,11 +4,17 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import xyz.graygoo401.api.infra.dto.message.MessageBatchReadDTO;
+import xyz.graygoo401.api.infra.dto.message.MessageBatchReadGroupDTO;
 import xyz.graygoo401.api.infra.dto.message.MessageQueryDTO;
+import xyz.graygoo401.api.infra.dto.message.MessageUnreadCountDTO;
 import xyz.graygoo401.api.infra.dto.message.PrivateMessageQueryDTO;
 import xyz.graygoo401.api.infra.enums.MessageTypeEnum;
 import xyz.graygoo401.infra.dao.entity.Message;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
@@ -17,6 +23,15 @@ import java.util.List;
  */
 public interface MessageMapper extends BaseMapper<Message> {
 
+    // ==================== 批量写入 ====================
+    /**
+     * 批量插入消息（多行VALUES，回填自增消息ID）
+     * @param messages 消息列表
+     * @return 影响行数
+     */
+    int insertBatch(@Param("messages") List<Message> messages);
+
+
     // ==================== 状态更新 ====================
     /**
      * 更新消息阅读状态
@@ -42,6 +57,40 @@ public interface MessageMapper extends BaseMapper<Message> {
      */
     int batchUpdateReadStatus(@Param("msgIds") List<Long> msgIds, @Param("isRead") boolean isRead);
 
+    /**
+     * 标记会话内接收人的未读消息为已读
+     * @param conversationId 会话ID
+     * @param receiverId 接收人ID
+     * @param maxMsgId 最大消息ID（只标记该ID及之前的消息）
+     * @return 影响行数（即减少的未读数）
+     */
+    int markConversationRead(
+            @Param("conversationId") Long conversationId,
+            @Param("receiverId") Long receiverId,
+            @Param("maxMsgId") Long maxMsgId
+    );
+
+    /**
+     * 按消息类型、会话分组统计待批量标记已读的消息（当前用户收到的未读、未删除消息，结果行数与命中消息数无关）
+     * @param receiverId 接收人ID（归属校验在WHERE条件中完成）
+     * @param query 批量已读条件（消息ID列表/消息类型/发送时间上限）
+     * @return 分组统计（类型、会话ID、发送者ID、未读数、最大消息ID）
+     */
+    List<MessageBatchReadGroupDTO> countUnreadForBatchRead(@Param("receiverId") Long receiverId, @Param("query") MessageBatchReadDTO query);
+
+    /**
+     * 按条件批量标记已读（条件与countUnreadForBatchRead一致，只处理maxMsgId及之前的消息）
+     * @param receiverId 接收人ID
+     * @param query 批量已读条件
+     * @param maxMsgId 最大消息ID（查询之后到达的新消息保持未读）
+     * @return 影响行数
+     */
+    int batchMarkRead(
+            @Param("receiverId") Long receiverId,
+            @Param("query") MessageBatchReadDTO query,
+            @Param("maxMsgId") Long maxMsgId
+    );
+
     /**
      * 批量更新用户消息删除状态
      * @param receiverId 接收人ID
@@ -90,6 +139,13 @@ public interface MessageMapper extends BaseMapper<Message> {
      */
     int countUnreadByType(@Param("receiverId") Long receiverId, @Param("msgType") MessageTypeEnum msgType);
 
+    /**
+     * 按接收人、消息类型分组统计未读消息数（未读计数缓存加载与对账用，未读数为0的类型不返回）
+     * @param receiverIds 接收人ID列表
+     * @return 分组未读数
+     */
+    List<MessageUnreadCountDTO> countUnreadGroupByType(@Param("receiverIds") List<Long> receiverIds);
+
     /**
      * 按复杂查询条件统计消息总数
      * @param queryDTO 包含用户ID、类型、状态、关键词等查询条件
@@ -118,6 +174,19 @@ public interface MessageMapper extends BaseMapper<Message> {
      */
     List<Message> selectByPrivateQuery(@Param("query") PrivateMessageQueryDTO queryDTO);
 
+    /**
+     * 按会话游标分页查询消息（按msg_id倒序）
+     * @param conversationId 会话ID
+     * @param lastMsgId 上一页最后一条的消息ID（第一页为null）
+     * @param limit 查询条数
+     * @return 消息列表
+     */
+    List<Message> selectByConversationCursor(
+            @Param("conversationId") Long conversationId,
+            @Param("lastMsgId") Long lastMsgId,
+            @Param("limit") int limit
+    );
+
     /**
      * 按用户ID获取最近maxCount条未读消息
      * @param userId 用户ID
@@ -126,4 +195,165 @@ public interface MessageMapper extends BaseMapper<Message> {
      */
     @Select("SELECT * FROM message WHERE receiver_id = #{userId} AND is_read = 0 ORDER BY create_time DESC LIMIT #{maxCount}")
     List<Message> selectRecentUnreadByUser(@Param("userId") Long userId, @Param("maxCount") int maxCount);
+
+    /**
+     * 流式查询消息日志（导出用，按消息ID升序逐行读取，含已删除消息，需在事务内遍历游标）
+     * @param msgType 消息类型（为空时不限类型）
+     * @param startTime 发送时间下限（可为空）
+     * @param endTime 发送时间上限（可为空）
+     * @return 消息游标
+     */
+    Cursor<Message> streamForExport(
+            @Param("msgType") MessageTypeEnum msgType,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime
+    );
+
+
+    // ==================== 冷热分离归档 ====================
+    /**
+     * 按消息ID游标查询可归档的消息ID（发送时间早于热数据边界，且已读或已删除；未读消息始终留在热表）
+     * @param beforeTime 热数据边界（早于该时间的消息可归档）
+     * @param lastMsgId 上一批最后一条的消息ID（第一批为null）
+     * @param limit 每批条数
+     * @return 消息ID列表（升序）
+     */
+    List<Long> selectArchivableIds(
+            @Param("beforeTime") LocalDateTime beforeTime,
+            @Param("lastMsgId") Long lastMsgId,
+            @Param("limit") int limit
+    );
+
+    /**
+     * 复制消息到归档表（重新校验归档条件，期间被改为未读的消息不复制）
+     * @param msgIds 消息ID列表
+     * @param beforeTime 热数据边界
+     * @return 复制条数
+     */
+    int copyToArchive(@Param("msgIds") List<Long> msgIds, @Param("beforeTime") LocalDateTime beforeTime);
+
+    /**
+     * 从热表删除已归档的消息（条件与copyToArchive一致，同一事务内两者行数相同）
+     * @param msgIds 消息ID列表
+     * @param beforeTime 热数据边界
+     * @return 删除条数
+     */
+    int deleteArchived(@Param("msgIds") List<Long> msgIds, @Param("beforeTime") LocalDateTime beforeTime);
+
+    /**
+     * 按消息ID查询归档消息
+     * @param msgId 消息ID
+     * @return 归档消息（不存在返回null）
+     */
+    Message selectArchiveById(@Param("msgId") Long msgId);
+
+    /**
+     * 按消息ID批量查询归档消息
+     * @param msgIds 消息ID集合
+     * @return 归档消息列表
+     */
+    List<Message> selectArchiveBatchIds(@Param("msgIds") Collection<Long> msgIds);
+
+    /**
+     * 按会话游标分页查询归档消息（按msg_id倒序）
+     * @param conversationId 会话ID
+     * @param lastMsgId 上一页最后一条的消息ID（第一页为null）
+     * @param limit 查询条数
+     * @return 归档消息列表
+     */
+    List<Message> selectArchiveByConversationCursor(
+            @Param("conversationId") Long conversationId,
+            @Param("lastMsgId") Long lastMsgId,
+            @Param("limit") int limit
+    );
+
+    /**
+     * 更新归档消息阅读状态（仅处理未删除的归档消息）
+     * @param msgId 消息ID
+     * @param isRead 阅读状态（0=未读，1=已读）
+     * @return 更新影响行数
+     */
+    int updateArchiveReadStatus(@Param("msgId") Long msgId, @Param("isRead") boolean isRead);
+
+    /**
+     * 更新归档消息删除状态（逻辑删除，仅处理未删除的归档消息）
+     * @param msgId 消息ID
+     * @param isDeleted 删除状态（0=未删除，1=已删除）
+     * @return 更新影响行数
+     */
+    int updateArchiveDeleteStatus(@Param("msgId") Long msgId, @Param("isDeleted") boolean isDeleted);
+
+    /**
+     * 按复杂查询条件统计归档消息总数（条件与countByQuery一致）
+     * @param queryDTO 查询条件
+     * @return 符合条件的归档消息总数
+     */
+    int countArchiveByQuery(@Param("query") MessageQueryDTO queryDTO);
+
+    /**
+     * 按复杂查询条件分页查询归档消息（条件、排序与selectByQuery一致）
+     * @param queryDTO 查询条件（offset为归档表内的偏移量）
+     * @return 归档消息列表
+     */
+    List<Message> selectArchiveByQuery(@Param("query") MessageQueryDTO queryDTO);
+
+    /**
+     * 按私聊查询条件统计归档消息总数（条件与countByPrivateQuery一致）
+     * @param queryDTO 查询条件
+     * @return 符合条件的归档消息总数
+     */
+    int countArchiveByPrivateQuery(@Param("query") PrivateMessageQueryDTO queryDTO);
+
+    /**
+     * 按私聊查询条件分页查询归档消息（条件、排序与selectByPrivateQuery一致）
+     * @param queryDTO 查询条件（offset为归档表内的偏移量）
+     * @return 归档消息列表
+     */
+    List<Message> selectArchiveByPrivateQuery(@Param("query") PrivateMessageQueryDTO queryDTO);
+
+    /**
+     * 流式查询归档消息日志（导出用，条件与streamForExport一致）
+     * @param msgType 消息类型（为空时不限类型）
+     * @param startTime 发送时间下限（可为空）
+     * @param endTime 发送时间上限（可为空）
+     * @return 消息游标
+     */
+    Cursor<Message> streamArchiveForExport(
+            @Param("msgType") MessageTypeEnum msgType,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime
+    );
+
+    // ==================== 私信会话回填 ====================
+    /**
+     * 按消息ID游标查询未关联会话的历史私信（不含发给自己的私信）
+     * @param lastMsgId 上一批最后一条的消息ID（第一批为null）
+     * @param limit 每批条数
+     * @return 私信列表（按消息ID升序）
+     */
+    List<Message> selectPrivateMissingConversation(@Param("lastMsgId") Long lastMsgId, @Param("limit") int limit);
+
+    /**
+     * 按消息ID游标查询未关联会话的历史归档私信（条件与selectPrivateMissingConversation一致）
+     * @param lastMsgId 上一批最后一条的消息ID（第一批为null）
+     * @param limit 每批条数
+     * @return 归档私信列表（按消息ID升序）
+     */
+    List<Message> selectArchivePrivateMissingConversation(@Param("lastMsgId") Long lastMsgId, @Param("limit") int limit);
+
+    /**
+     * 回填私信的会话ID（仅处理会话ID为空的消息）
+     * @param conversationId 会话ID
+     * @param msgIds 消息ID列表（同一用户对）
+     * @return 影响行数
+     */
+    int backfillConversationId(@Param("conversationId") Long conversationId, @Param("msgIds") List<Long> msgIds);
+
+    /**
+     * 回填归档私信的会话ID（仅处理会话ID为空的消息）
+     * @param conversationId 会话ID
+     * @param msgIds 消息ID列表（同一用户对）
+     * @return 影响行数
+     */
+    int backfillArchiveConversationId(@Param("conversationId") Long conversationId, @Param("msgIds") List<Long> msgIds);
 }
@@ -25,6 +25,8 @@ public enum MessageErrorCode implements IErrorCode {
     RECEIVER_NOT_EXISTS("MSG_011", 404, "接收者不存在"),
     SENDER_NOT_EXISTS("MSG_012", 404, "发送者不存在"),
 
+    PUSH_CONNECTION_LIMIT("MSG_021", 503, "推送连接数已达上限，请稍后重试"),
+
     MESSAGE_STATUS_TRANSITION_INVALID("MSG_004", 400, "消息状态转换错误");
 
     private final String code;
@@ -14,7 +14,8 @@ public enum VerifyErrorCode implements IErrorCode {
     VERIFY_CODE_VERIFY_FAILED("VERIFY_003", 400, "验证码验证失败"),
     VERIFY_CODE_NOT_EXISTS("VERIFY_004", 404, "验证码不存在"),
     VERIFY_CODE_EXPIRED("VERIFY_005", 400, "验证码已过期"),
-    VERIFY_CODE_NOT_MATCH("VERIFY_006", 400, "验证码不匹配");
+    VERIFY_CODE_NOT_MATCH("VERIFY_006", 400, "验证码不匹配"),
+    VERIFY_CODE_SEND_BUSY("VERIFY_007", 503, "验证码发送繁忙，请稍后重试");
 
     private final String code;
     private final int standardCode;
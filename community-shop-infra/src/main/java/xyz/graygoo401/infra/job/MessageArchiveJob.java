@@ -0,0 +1,31 @@
+package xyz.graygoo401.infra.job;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import xyz.graygoo401.infra.service.base.MessageArchiveService;
+
+/**
+ * 消息归档任务
+ * 将超过热数据天数的已读/已删除消息从message表分批迁入message_archive表，使热表规模只与近期消息量相关
+ */
+@Slf4j
+@Component
+public class MessageArchiveJob {
+
+    @Autowired
+    private MessageArchiveService messageArchiveService;
+
+    /**
+     * 每天凌晨3点30分执行（可通过message.archive.cron覆盖）；单次最多迁移max-batches批，未迁完的下次继续
+     */
+    @Scheduled(cron = "${message.archive.cron:0 30 3 * * ?}")
+    public void archive() {
+        try {
+            messageArchiveService.archiveExpiredMessages();
+        } catch (Exception e) {
+            log.error("消息归档任务执行失败", e);
+        }
+    }
+}
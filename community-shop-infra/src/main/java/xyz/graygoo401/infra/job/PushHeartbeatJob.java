@@ -0,0 +1,31 @@
+package xyz.graygoo401.infra.job;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import xyz.graygoo401.infra.service.base.PushService;
+
+/**
+ * 推送连接心跳任务
+ * 定时向空闲SSE连接发送心跳（防止代理断开空闲连接、及时发现已断开的客户端），并刷新本节点的用户登记
+ */
+@Slf4j
+@Component
+public class PushHeartbeatJob {
+
+    @Autowired
+    private PushService pushService;
+
+    /**
+     * 每25秒一次（可通过infra.push.heartbeat-millis覆盖，需小于登记有效期90秒的三分之一）
+     */
+    @Scheduled(fixedDelayString = "${infra.push.heartbeat-millis:25000}")
+    public void heartbeat() {
+        try {
+            pushService.heartbeat();
+        } catch (Exception e) {
+            log.error("推送心跳失败", e);
+        }
+    }
+}
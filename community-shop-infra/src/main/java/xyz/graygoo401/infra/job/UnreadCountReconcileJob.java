@@ -0,0 +1,31 @@
+package xyz.graygoo401.infra.job;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import xyz.graygoo401.infra.service.base.MessageService;
+
+/**
+ * 未读计数对账任务
+ * Redis未读计数随发送/已读原子增减，缓存更新失败或直接改库会使其与message表偏离，定期按数据库分组计数校正
+ */
+@Slf4j
+@Component
+public class UnreadCountReconcileJob {
+
+    @Autowired
+    private MessageService messageService;
+
+    /**
+     * 每小时第15分钟对账（可通过message.unread.reconcile-cron覆盖）
+     */
+    @Scheduled(cron = "${message.unread.reconcile-cron:0 15 * * * ?}")
+    public void reconcile() {
+        try {
+            messageService.reconcileUnreadCounts();
+        } catch (Exception e) {
+            log.error("未读计数对账失败", e);
+        }
+    }
+}
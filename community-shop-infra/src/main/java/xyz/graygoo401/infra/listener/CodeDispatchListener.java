@@ -0,0 +1,60 @@
+package xyz.graygoo401.infra.listener;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.ExchangeTypes;
+import org.springframework.amqp.rabbit.annotation.Argument;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import xyz.graygoo401.api.common.dto.mq.VerifyCodeEventDTO;
+import xyz.graygoo401.api.common.enums.MqEventTypeEnum;
+import xyz.graygoo401.infra.config.DispatchListenerConfig;
+import xyz.graygoo401.infra.service.base.CodeDispatchService;
+
+import java.util.List;
+
+/**
+ * 验证码发送监听器
+ * 队列为持久化队列，限制最大长度（x-max-length），超出时拒绝新消息（x-overflow=reject-publish），
+ * 邮件服务器或短信网关故障期间积压有上限，不会无限占用Broker内存；
+ * 被拒绝的事件由Broker返回nack，投递方（CodeDispatchService.publishCodeEvent）据此删除验证码并让发送接口返回繁忙
+ */
+@Component
+@Slf4j
+public class CodeDispatchListener {
+
+    @Autowired
+    private CodeDispatchService codeDispatchService;
+
+    /**
+     * 批量监听邮箱验证码发送事件（容器按条数或等待时间攒批，见DispatchListenerConfig）
+     */
+    @RabbitListener(bindings = @QueueBinding(
+            value = @Queue(name = "infra.dispatch.email", arguments = {
+                    @Argument(name = "x-max-length", value = "${infra.dispatch.queue-max-length:10000}", type = "java.lang.Integer"),
+                    @Argument(name = "x-overflow", value = "reject-publish")}),
+            exchange = @Exchange(name = MqEventTypeEnum.Exchanges.INFRA, type = ExchangeTypes.TOPIC),
+            key = MqEventTypeEnum.RoutingKeys.EMAIL_CODE_REQUESTED
+    ), containerFactory = DispatchListenerConfig.DISPATCH_EMAIL_CONTAINER_FACTORY)
+    public void onEmailCodes(List<VerifyCodeEventDTO> events) {
+        int sent = codeDispatchService.dispatchEmailCodes(events.stream().map(VerifyCodeEventDTO::getTarget).toList());
+        log.info("【验证码发送】本批邮件事件：{}，发送成功：{}", events.size(), sent);
+    }
+
+    /**
+     * 监听短信验证码发送事件
+     */
+    @RabbitListener(bindings = @QueueBinding(
+            value = @Queue(name = "infra.dispatch.sms", arguments = {
+                    @Argument(name = "x-max-length", value = "${infra.dispatch.queue-max-length:10000}", type = "java.lang.Integer"),
+                    @Argument(name = "x-overflow", value = "reject-publish")}),
+            exchange = @Exchange(name = MqEventTypeEnum.Exchanges.INFRA, type = ExchangeTypes.TOPIC),
+            key = MqEventTypeEnum.RoutingKeys.SMS_CODE_REQUESTED
+    ), containerFactory = DispatchListenerConfig.DISPATCH_SMS_CONTAINER_FACTORY)
+    public void onSmsCode(VerifyCodeEventDTO event) {
+        codeDispatchService.dispatchSmsCode(event.getTarget());
+    }
+}
@@ -9,11 +9,20 @@ import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import xyz.graygoo401.api.common.dto.mq.CommunityEventDTO;
+import xyz.graygoo401.api.common.dto.mq.OrderCheckoutEventDTO;
 import xyz.graygoo401.api.common.dto.mq.OrderEventDTO;
+import xyz.graygoo401.api.common.enums.MqEventTypeEnum;
 import xyz.graygoo401.api.infra.dto.message.MessageSendDTO;
 import xyz.graygoo401.api.infra.enums.MessageTypeEnum;
+import xyz.graygoo401.infra.config.NoticeListenerConfig;
 import xyz.graygoo401.infra.service.base.MessageService;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 /**
  * 通知服务监听器
  */
@@ -25,52 +34,106 @@ public class NotificationListener {
     private MessageService messageService;
 
     /**
-     * 监听订单类消息
+     * 批量监听订单类消息
+     * 容器按条数或等待时间攒批（见NoticeListenerConfig），每批一次批量查询接收人、一次多行写入、一次管道更新未读计数；
+     * 批量写入失败时整批回滚并抛出，由容器重新投递（不会出现部分写入后重复）
      */
     @RabbitListener(bindings = @QueueBinding(
             value = @Queue(name = "infra.notice.order"),
-            exchange = @Exchange(name = "order.topic", type = ExchangeTypes.TOPIC),
-            key = "order.#"
-    ))
-    public void onOrderMessage(OrderEventDTO event) {
-        log.info("【通知服务】准备为订单 {} 发送通知", event.getOrderNo());
+            exchange = @Exchange(name = MqEventTypeEnum.Exchanges.ORDER, type = ExchangeTypes.TOPIC),
+            key = {MqEventTypeEnum.RoutingKeys.ORDER_CREATED, MqEventTypeEnum.RoutingKeys.ORDER_PAID,
+                    MqEventTypeEnum.RoutingKeys.ORDER_CANCELLED, MqEventTypeEnum.RoutingKeys.ORDER_SHIPPED,
+                    MqEventTypeEnum.RoutingKeys.ORDER_COMPLETED, MqEventTypeEnum.RoutingKeys.ORDER_RETURNED}
+    ), containerFactory = NoticeListenerConfig.NOTICE_BATCH_CONTAINER_FACTORY)
+    public void onOrderMessages(List<OrderEventDTO> events) {
+        log.info("【通知服务】准备为 {} 个订单事件发送通知", events.size());
 
-        // 内部逻辑：构造 MessageSendDTO 并存入数据库
-        // 1. 构造 MessageSendDTO
-        MessageSendDTO sendDTO = new MessageSendDTO();
-        sendDTO.setReceiverId(event.getBuyerId());
-        sendDTO.setTitle("【通知服务】准备为订单 {" + event.getOrderNo() + "} 发送通知");
-        sendDTO.setContent("订单状态变更：" + event.getType());
-        sendDTO.setBusinessId(event.getOrderId());
-        sendDTO.setType(MessageTypeEnum.ORDER);
+        // 1. 每个订单事件向买家、卖家各构造一条通知
+        List<MessageSendDTO> notices = new ArrayList<>(events.size() * 2);
+        for (OrderEventDTO event : events) {
+            notices.add(buildOrderNotice(event, event.getBuyerId()));
+            notices.add(buildOrderNotice(event, event.getSellerId()));
+        }
+
+        // 2. 批量发送
+        messageService.sendNoticeBatch(notices);
+    }
 
-        // 2. 向买家发送通知
-        messageService.sendNotice(sendDTO);
+    /**
+     * 监听购物车结算聚合消息（买家一条通知，每个卖家一条通知）
+     */
+    @RabbitListener(bindings = @QueueBinding(
+            value = @Queue(name = "infra.notice.checkout"),
+            exchange = @Exchange(name = MqEventTypeEnum.Exchanges.ORDER, type = ExchangeTypes.TOPIC),
+            key = MqEventTypeEnum.RoutingKeys.CHECKOUT_CREATED
+    ))
+    public void onCheckoutMessage(OrderCheckoutEventDTO event) {
+        log.info("【通知服务】准备为结算单 {} 发送通知", event.getCheckoutNo());
 
-        // 3. 向卖家发送通知
-        sendDTO.setReceiverId(event.getSellerId());
-        messageService.sendNotice(sendDTO);
+        // 1. 向买家发送一条汇总通知
+        MessageSendDTO buyerDTO = new MessageSendDTO();
+        buyerDTO.setReceiverId(event.getBuyerId());
+        buyerDTO.setTitle("【通知服务】结算单 {" + event.getCheckoutNo() + "} 已提交");
+        buyerDTO.setContent("共 " + event.getOrders().size() + " 笔订单待支付，合计金额：" + event.getTotalAmount());
+        buyerDTO.setBusinessId(event.getOrders().get(0).getOrderId());
+        buyerDTO.setType(MessageTypeEnum.ORDER);
+        messageService.sendNotice(buyerDTO);
 
+        // 2. 按卖家分组，每个卖家发送一条通知
+        Map<Long, List<OrderEventDTO>> sellerOrders = event.getOrders().stream()
+                .collect(Collectors.groupingBy(OrderEventDTO::getSellerId, LinkedHashMap::new, Collectors.toList()));
+        sellerOrders.forEach((sellerId, orders) -> {
+            MessageSendDTO sellerDTO = new MessageSendDTO();
+            sellerDTO.setReceiverId(sellerId);
+            sellerDTO.setTitle("【通知服务】您有 " + orders.size() + " 笔新订单");
+            sellerDTO.setContent("订单编号：" + orders.stream().map(OrderEventDTO::getOrderNo).collect(Collectors.joining("、")));
+            sellerDTO.setBusinessId(orders.get(0).getOrderId());
+            sellerDTO.setType(MessageTypeEnum.ORDER);
+            messageService.sendNotice(sellerDTO);
+        });
     }
 
-    // 监听社区类消息
+    /**
+     * 批量监听社区类消息（攒批与失败处理同订单类消息）
+     */
     @RabbitListener(bindings = @QueueBinding(
             value = @Queue(name = "infra.notice.community"),
-            exchange = @Exchange(name = "community.topic", type = ExchangeTypes.TOPIC),
-            key = "community.#"
-    ))
-    public void onCommunityMessage(CommunityEventDTO event) {
-        log.info("【通知服务】用户 {} 给你点赞了", event.getAuthorId());
-        // 内部逻辑：给作者发送站内信
+            exchange = @Exchange(name = MqEventTypeEnum.Exchanges.COMMUNITY, type = ExchangeTypes.TOPIC),
+            key = MqEventTypeEnum.RoutingKeys.POST_LIKED
+    ), containerFactory = NoticeListenerConfig.NOTICE_BATCH_CONTAINER_FACTORY)
+    public void onCommunityMessages(List<CommunityEventDTO> events) {
+        log.info("【通知服务】准备为 {} 个点赞事件发送通知", events.size());
 
-        // 内部逻辑：构造 MessageSendDTO 并存入数据库
+        // 给作者发送站内信
+        List<MessageSendDTO> notices = events.stream().map(this::buildCommunityNotice).collect(Collectors.toList());
+        messageService.sendNoticeBatch(notices);
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 构造订单状态变更通知（买家、卖家内容相同）
+     */
+    private MessageSendDTO buildOrderNotice(OrderEventDTO event, Long receiverId) {
+        MessageSendDTO sendDTO = new MessageSendDTO();
+        sendDTO.setReceiverId(receiverId);
+        sendDTO.setTitle("【通知服务】准备为订单 {" + event.getOrderNo() + "} 发送通知");
+        sendDTO.setContent("订单状态变更：" + event.getType());
+        sendDTO.setBusinessId(event.getOrderId());
+        sendDTO.setType(MessageTypeEnum.ORDER);
+        return sendDTO;
+    }
+
+    /**
+     * 构造点赞通知
+     */
+    private MessageSendDTO buildCommunityNotice(CommunityEventDTO event) {
         MessageSendDTO sendDTO = new MessageSendDTO();
         sendDTO.setReceiverId(event.getAuthorId());
         sendDTO.setTitle("【通知服务】用户 " + event.getOperatorId() + " 给你点赞了");
         sendDTO.setContent("用户 " + event.getOperatorId() + " 赞了你的帖子 " + event.getPostId());
         sendDTO.setBusinessId(event.getPostId());
         sendDTO.setType(MessageTypeEnum.PRIVATE);
-
-        messageService.sendNotice(sendDTO);
+        return sendDTO;
     }
 }
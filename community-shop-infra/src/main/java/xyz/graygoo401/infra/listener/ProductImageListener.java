@@ -0,0 +1,68 @@
+package xyz.graygoo401.infra.listener;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.ExchangeTypes;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import xyz.graygoo401.api.common.dto.mq.ProductImageIngestEventDTO;
+import xyz.graygoo401.api.infra.enums.OssModuleEnum;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.infra.util.MinioUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 商品图片转存监听器
+ * 商品批量导入时交易服务只写入商品数据，外部图片URL通过事件交给本服务异步下载并转存MinIO
+ * 存储路径为 picture/product/{商品ID}/{序号}.{扩展名}，同一商品的图片可按前缀列出，重复消费时覆盖同名对象；
+ * 转存完成后发送image.stored事件回传相对路径，由交易服务补充商品首图
+ */
+@Component
+@Slf4j
+public class ProductImageListener {
+
+    @Autowired
+    private MinioUtil minioUtil;
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    /**
+     * 监听商品图片转存事件（单张图片失败只记录日志，不影响同一商品的其他图片，也不重新入队）
+     */
+    @RabbitListener(bindings = @QueueBinding(
+            value = @Queue(name = "infra.product.image"),
+            exchange = @Exchange(name = "product.topic", type = ExchangeTypes.TOPIC),
+            key = "image.ingest"
+    ))
+    public void onProductImageIngest(ProductImageIngestEventDTO event) {
+        List<String> imageUrls = event.getImageUrls();
+        if (imageUrls == null || imageUrls.isEmpty()) {
+            return;
+        }
+
+        // 1. 逐张转存
+        List<String> storedPaths = new ArrayList<>(imageUrls.size());
+        for (int i = 0; i < imageUrls.size(); i++) {
+            String objectPath = OssModuleEnum.PICTURE_PRODUCT.getUrlPath() + "/" + event.getProductId() + "/" + (i + 1);
+            try {
+                storedPaths.add(minioUtil.uploadImageFromUrl(imageUrls.get(i), objectPath, OssModuleEnum.PICTURE_PRODUCT));
+            } catch (BusinessException e) {
+                log.warn("商品图片转存失败，商品ID：{}，图片：{}，原因：{}", event.getProductId(), imageUrls.get(i), e.getMessage());
+            }
+        }
+        log.info("商品图片转存完成，商品ID：{}，成功：{}/{}", event.getProductId(), storedPaths.size(), imageUrls.size());
+
+        // 2. 回传转存后的相对路径（第一张成功转存的图片作为商品首图）
+        if (!storedPaths.isEmpty()) {
+            rabbitTemplate.convertAndSend("product.topic", "image.stored",
+                    new ProductImageIngestEventDTO(event.getProductId(), event.getSellerId(), storedPaths));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package xyz.graygoo401.infra.service.base;
+
+import org.springframework.stereotype.Service;
+import xyz.graygoo401.api.infra.dto.message.MessageSendDTO;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.common.service.BaseService;
+import xyz.graygoo401.infra.dao.entity.Announcement;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 全员公告服务接口（读时扇出）
+ * 发布只写一行公告，不为每个用户生成消息；用户的未读数与收件箱中的公告在读取时按阅读游标合并
+ */
+@Service
+public interface AnnouncementService extends BaseService<Announcement> {
+
+    /**
+     * 发布全员公告（写入一行公告并删除全局公告缓存，写入量与用户数无关）
+     * @param adminId 发布管理员ID
+     * @param sendDTO 公告参数（标题、内容）
+     * @return 公告ID
+     * @throws BusinessException 标题或内容为空、超限时抛出
+     */
+    Long publish(Long adminId, MessageSendDTO sendDTO);
+
+    /**
+     * 获取最近的公告（全局缓存，按公告ID倒序，最多100条）
+     * @return 公告列表
+     */
+    List<Announcement> listRecentAnnouncements();
+
+    /**
+     * 获取用户的公告阅读游标
+     * @param userId 用户ID
+     * @return 已读到的最大公告ID（无记录返回0）
+     */
+    long getLastSeenId(Long userId);
+
+    /**
+     * 统计用户未读公告数（最近公告中ID大于阅读游标的条数）
+     * @param userId 用户ID
+     * @return 未读公告数
+     */
+    int countUnread(Long userId);
+
+    /**
+     * 批量统计用户未读公告数（一次批量读取游标）
+     * @param userIds 用户ID列表
+     * @return 用户ID -> 未读公告数
+     */
+    Map<Long, Integer> batchCountUnread(List<Long> userIds);
+
+    /**
+     * 将全部公告标记为已读（阅读游标推进到最新公告）
+     * @param userId 用户ID
+     * @return 是否推进（无公告时返回false）
+     */
+    Boolean markAllRead(Long userId);
+}
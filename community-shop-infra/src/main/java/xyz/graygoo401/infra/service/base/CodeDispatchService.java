@@ -0,0 +1,36 @@
+package xyz.graygoo401.infra.service.base;
+
+import xyz.graygoo401.api.common.enums.MqEventTypeEnum;
+
+import java.util.Collection;
+
+/**
+ * 验证码异步发送服务接口
+ * 发送验证码接口只生成验证码、写入缓存并投递发送事件后立即返回，由消息队列的消费线程调用本服务完成实际发送；
+ * 发送时从缓存读取当前有效的验证码（已过期或已验证的不再发送），失败的按指数退避重试有限次数
+ */
+public interface CodeDispatchService {
+
+    /**
+     * 投递验证码发送事件并等待Broker确认（发送验证码接口同步调用）
+     * 发送队列已满（x-overflow=reject-publish）时Broker返回nack，队列不存在时消息被退回，均视为投递失败
+     * @param eventType 事件类型（EMAIL_CODE_REQUESTED/SMS_CODE_REQUESTED）
+     * @param target 接收目标（邮箱或手机号）
+     * @throws BusinessException 未确认、被拒绝或被退回时抛出（VERIFY_CODE_SEND_BUSY）
+     */
+    void publishCodeEvent(MqEventTypeEnum eventType, String target);
+
+    /**
+     * 批量发送邮箱验证码（整批复用同一个SMTP连接，只重试失败的邮箱）
+     * @param emails 接收邮箱（重复的只发送一次）
+     * @return 发送成功的邮件数
+     */
+    int dispatchEmailCodes(Collection<String> emails);
+
+    /**
+     * 发送短信验证码
+     * @param phone 手机号
+     * @return 是否发送成功（验证码已过期或已使用时返回false）
+     */
+    boolean dispatchSmsCode(String phone);
+}
@@ -0,0 +1,84 @@
+package xyz.graygoo401.infra.service.base;
+
+import org.springframework.stereotype.Service;
+import xyz.graygoo401.api.infra.dto.message.ConversationDTO;
+import xyz.graygoo401.api.infra.dto.message.PrivateMessageDetailDTO;
+import xyz.graygoo401.common.dto.CursorPageResult;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.common.service.BaseService;
+import xyz.graygoo401.infra.dao.entity.Conversation;
+import xyz.graygoo401.infra.dao.entity.Message;
+
+/**
+ * 私信会话服务接口
+ * 每对用户一个会话，发送私信时维护最后一条消息与接收方未读数；会话列表与会话内消息均按游标分页
+ */
+@Service
+public interface ConversationService extends BaseService<Conversation> {
+
+    /**
+     * 获取两个用户之间的会话ID，不存在时创建
+     * @param userId 用户ID
+     * @param partnerId 聊天对象ID
+     * @return 会话ID
+     */
+    Long getOrCreateConversationId(Long userId, Long partnerId);
+
+    /**
+     * 获取两个用户之间的会话
+     * @param userId 用户ID
+     * @param partnerId 聊天对象ID
+     * @return 会话（不存在返回null）
+     */
+    Conversation getConversation(Long userId, Long partnerId);
+
+    /**
+     * 记录会话中的新消息：推进最后一条消息，接收方未读数+1
+     * @param message 已写入的私信（需包含会话ID、消息ID、发送人与接收人）
+     * @throws BusinessException 会话不存在时抛出
+     */
+    void recordMessage(Message message);
+
+    /**
+     * 减少接收方在会话中的未读数
+     * @param conversationId 会话ID
+     * @param receiverId 接收人ID
+     * @param senderId 发送人ID（即接收人的聊天对象）
+     * @param count 减少数量
+     */
+    void decreaseUnread(Long conversationId, Long receiverId, Long senderId, int count);
+
+    /**
+     * 按会话中的未读私信重新统计接收方未读数（无法确定实际减少条数时校正会话未读数）
+     * @param conversationId 会话ID
+     * @param receiverId 接收人ID
+     * @param senderId 发送人ID（即接收人的聊天对象）
+     */
+    void recountUnread(Long conversationId, Long receiverId, Long senderId);
+
+    /**
+     * 游标分页查询用户的会话列表（按最后活跃时间倒序）
+     * @param userId 用户ID
+     * @param cursor 分页游标（上一页返回的nextCursor，为空表示第一页）
+     * @param pageSize 每页条数（默认10，最大50）
+     * @return 会话游标分页结果
+     */
+    CursorPageResult<ConversationDTO> listConversations(Long userId, String cursor, Integer pageSize);
+
+    /**
+     * 游标分页查询会话内的消息（按消息ID倒序，最新消息在前）
+     * @param userId 用户ID
+     * @param partnerId 聊天对象ID
+     * @param cursor 分页游标（上一页返回的nextCursor，为空表示第一页）
+     * @param pageSize 每页条数（默认10，最大50）
+     * @return 消息游标分页结果（无会话时返回空页）
+     */
+    CursorPageResult<PrivateMessageDetailDTO> listMessages(Long userId, Long partnerId, String cursor, Integer pageSize);
+
+    /**
+     * 回填历史私信的会话ID（先热表后归档表，按消息ID游标分批，可重复执行，上线后由管理员接口触发一次）
+     * 按有序用户对创建缺失的会话，并按回填的私信推进最后一条消息、累加双方未读数
+     * @return 本次回填的私信数
+     */
+    int backfillConversations();
+}
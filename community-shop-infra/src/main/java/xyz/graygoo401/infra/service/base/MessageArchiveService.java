@@ -0,0 +1,57 @@
+package xyz.graygoo401.infra.service.base;
+
+import xyz.graygoo401.infra.dao.entity.Message;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 消息冷热分离服务接口
+ * message表只保留最近N天的消息与全部未读消息（热数据），更早的已读/已删除消息分批迁入message_archive表（冷数据）；
+ * 未读计数、标记已读只查热表（未读消息不归档）；消息列表与搜索读完热表后续查归档表，按消息ID或时间范围查询时由本服务判断是否需要回查归档表
+ */
+public interface MessageArchiveService {
+
+    /**
+     * 热数据边界：发送时间早于该时间的已读/已删除消息会被归档
+     * @return 当前热数据边界
+     */
+    LocalDateTime getHotBoundary();
+
+    /**
+     * 判断时间范围是否可能包含归档消息
+     * @param startTime 时间范围下限（为空表示不限）
+     * @return 下限为空或早于热数据边界时返回true
+     */
+    boolean reachesArchive(LocalDateTime startTime);
+
+    /**
+     * 分批归档过期消息（每批在独立事务内复制并删除，批次之间暂停以限制对线上库的压力）
+     * @return 本次归档的消息数
+     */
+    int archiveExpiredMessages();
+
+    /**
+     * 按消息ID查询归档消息（热表未命中时调用）
+     * @param msgId 消息ID
+     * @return 归档消息（不存在返回null）
+     */
+    Message getArchivedMessage(Long msgId);
+
+    /**
+     * 按消息ID批量查询消息（先查热表，未命中的再查归档表）
+     * @param msgIds 消息ID集合
+     * @return 消息列表（不保证顺序）
+     */
+    List<Message> listMessagesByIds(Collection<Long> msgIds);
+
+    /**
+     * 按会话游标分页查询消息（按msg_id倒序；热表一页内已跨过热数据边界或不足一页时合并归档表结果）
+     * @param conversationId 会话ID
+     * @param lastMsgId 上一页最后一条的消息ID（第一页为null）
+     * @param limit 查询条数
+     * @return 消息列表
+     */
+    List<Message> listConversationMessages(Long conversationId, Long lastMsgId, int limit);
+}
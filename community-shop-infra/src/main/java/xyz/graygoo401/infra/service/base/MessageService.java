@@ -1,13 +1,17 @@
 package xyz.graygoo401.infra.service.base;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.stereotype.Service;
 import xyz.graygoo401.api.infra.dto.message.*;
+import xyz.graygoo401.api.infra.enums.MessageTypeEnum;
 import xyz.graygoo401.common.dto.PageResult;
 import xyz.graygoo401.common.exception.BusinessException;
 import xyz.graygoo401.common.service.BaseService;
 import xyz.graygoo401.infra.dao.entity.Message;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 站内消息服务接口，负责系统通知、用户私信等消息的发送与管理
@@ -35,6 +39,13 @@ public interface MessageService extends BaseService<Message> {
      */
     Long sendNotice(MessageSendDTO messageSendDTO);
 
+    /**
+     * 批量发送系统通知（通知批量消费使用，一次批量查询接收人、多行写入、管道更新未读计数）
+     * @param sendDTOs 通知参数列表
+     * @return 写入的通知数（参数不合法或接收人不存在的通知跳过）
+     */
+    int sendNoticeBatch(List<MessageSendDTO> sendDTOs);
+
     /**
      * 获取消息详情
      * @param userId 当前用户ID
@@ -104,6 +115,22 @@ public interface MessageService extends BaseService<Message> {
      */
     Boolean markAsRead(Long userId, Long msgId);
 
+    /**
+     * 标记与聊天对象的会话为已读
+     * @param userId 用户ID
+     * @param partnerId 聊天对象ID
+     * @return 标记为已读的消息数
+     */
+    Integer markConversationRead(Long userId, Long partnerId);
+
+    /**
+     * 批量标记已读（按消息ID列表/消息类型/发送时间上限，一次UPDATE，按类型汇总后一次更新未读计数）
+     * @param userId 用户ID（只处理该用户收到的消息）
+     * @param batchReadDTO 批量已读条件（至少指定一个）
+     * @return 标记为已读的消息数
+     */
+    Integer batchMarkAsRead(Long userId, MessageBatchReadDTO batchReadDTO);
+
     /**
      * 统计用户未读消息数量
      * 核心逻辑：按接收者ID和状态为"未读"查询计数
@@ -112,4 +139,35 @@ public interface MessageService extends BaseService<Message> {
      */
     Integer countUnreadMessages(Long userId);
 
+    /**
+     * 获取用户未读消息统计（未读角标，含总数及各类型未读数）
+     * 核心逻辑：一次读取Redis Hash中全部类型的未读计数，未加载时按数据库分组计数加载
+     * @param userId 用户ID
+     * @return 未读消息统计
+     */
+    MessageStatDTO getUnreadStat(Long userId);
+
+    /**
+     * 批量统计多个用户的未读消息总数
+     * @param userIds 用户ID列表
+     * @return 用户ID -> 未读消息总数
+     */
+    Map<Long, Integer> batchCountUnreadMessages(List<Long> userIds);
+
+    /**
+     * 未读计数对账：比对Redis计数与数据库未读数，删除不一致的计数
+     * @return 校正的用户数
+     */
+    int reconcileUnreadCounts();
+
+    /**
+     * 流式导出消息日志CSV（管理员报表，逐行读取数据库游标并写入响应，不在内存中汇总结果集）
+     * @param msgType 消息类型（为空时导出全部类型）
+     * @param startTime 发送时间下限（可为空）
+     * @param endTime 发送时间上限（可为空）
+     * @param response HTTP响应（以分块传输写出CSV）
+     * @return 导出行数
+     */
+    long exportMessages(MessageTypeEnum msgType, LocalDateTime startTime, LocalDateTime endTime, HttpServletResponse response);
+
 }
@@ -0,0 +1,53 @@
+package xyz.graygoo401.infra.service.base;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import xyz.graygoo401.api.infra.dto.message.MessagePushDTO;
+import xyz.graygoo401.common.exception.BusinessException;
+
+import java.util.List;
+
+/**
+ * 消息实时推送服务接口（SSE长连接 + Redis发布订阅）
+ * 客户端建立SSE连接后由服务端推送新消息与通知，替代轮询未读数与消息列表接口
+ */
+public interface PushService {
+
+    /**
+     * 建立SSE推送连接（登记用户所在节点）
+     * @param userId 当前用户ID
+     * @return SSE连接
+     * @throws BusinessException 本节点连接数达到上限时抛出
+     */
+    SseEmitter connect(Long userId);
+
+    /**
+     * 推送消息给接收人（按接收人所在节点分组，每个节点发布一次；推送失败只记录日志，不影响调用方）
+     * @param events 推送事件列表
+     */
+    void push(List<MessagePushDTO> events);
+
+    /**
+     * 推送给全部在线用户（全员公告）
+     * @param event 推送事件
+     */
+    void broadcast(MessagePushDTO event);
+
+    /**
+     * 投递发布订阅收到的消息给本节点的连接
+     * @param payload 消息体（推送事件列表JSON）
+     * @return 投递的连接数
+     */
+    int deliverLocal(String payload);
+
+    /**
+     * 心跳：向空闲连接发送心跳并刷新本节点的用户登记
+     * @return 本节点当前连接数
+     */
+    int heartbeat();
+
+    /**
+     * 获取本节点ID
+     * @return 节点ID
+     */
+    String getNodeId();
+}
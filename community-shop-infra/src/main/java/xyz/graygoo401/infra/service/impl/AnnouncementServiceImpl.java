@@ -0,0 +1,328 @@
+package xyz.graygoo401.infra.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import xyz.graygoo401.api.infra.dto.message.MessagePushDTO;
+import xyz.graygoo401.api.infra.dto.message.MessageSendDTO;
+import xyz.graygoo401.api.infra.enums.MessageTypeEnum;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.common.exception.error.SystemErrorCode;
+import xyz.graygoo401.common.service.BaseServiceImpl;
+import xyz.graygoo401.common.util.TransactionUtil;
+import xyz.graygoo401.infra.convert.MessageConvert;
+import xyz.graygoo401.infra.dao.entity.Announcement;
+import xyz.graygoo401.infra.dao.entity.AnnouncementCursor;
+import xyz.graygoo401.infra.dao.mapper.AnnouncementMapper;
+import xyz.graygoo401.infra.exception.error.MessageErrorCode;
+import xyz.graygoo401.infra.service.base.AnnouncementService;
+import xyz.graygoo401.infra.service.base.PushService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 全员公告服务实现类（读时扇出）
+ * 1. 发布：写入一行公告，事务提交后删除全局公告缓存，写入量与用户数无关；
+ * 2. 读取：最近公告全局缓存一份，用户阅读游标（已读到的最大公告ID）单独缓存，未读数 = 最近公告中ID大于游标的条数；
+ * 3. 已读：游标只前进不后退，数据库与缓存均按较大值更新，并发或乱序请求不会把游标改小。
+ */
+@Slf4j
+@Service
+public class AnnouncementServiceImpl extends BaseServiceImpl<AnnouncementMapper, Announcement> implements AnnouncementService {
+
+    private static final String CACHE_KEY_RECENT_ANNOUNCEMENTS = "message:announcement:recent"; // 最近公告缓存Key（全局一份）
+    private static final long CACHE_TTL_RECENT_ANNOUNCEMENTS = 10; // 最近公告缓存有效期（分钟）
+    private static final String CACHE_KEY_CURSOR = "message:announcement:cursor:"; // 阅读游标缓存Key前缀
+    private static final Duration CACHE_TTL_CURSOR = Duration.ofDays(7); // 阅读游标缓存有效期
+    private static final int MAX_RECENT_ANNOUNCEMENTS = 100; // 参与未读统计与收件箱合并的最近公告数
+    private static final int MAX_ANNOUNCEMENT_TITLE_LENGTH = 50; // 公告标题最大长度（字符）
+    private static final int MAX_ANNOUNCEMENT_CONTENT_LENGTH = 1000; // 公告内容最大长度（字符）
+
+    // 游标缓存不存在或小于新值时写入新值（只前进不后退）
+    private static final RedisScript<Long> ADVANCE_CURSOR_SCRIPT = new DefaultRedisScript<>(
+            "local current = redis.call('get', KEYS[1]) " +
+                    "if current and tonumber(current) >= tonumber(ARGV[1]) then " +
+                    "    return 0 " +
+                    "end " +
+                    "redis.call('set', KEYS[1], ARGV[1], 'EX', ARGV[2]) " +
+                    "return 1",
+            Long.class);
+
+    @Autowired
+    private AnnouncementMapper announcementMapper;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private PushService pushService;
+
+    @Autowired
+    private MessageConvert messageConvert;
+
+    /**
+     * 发布全员公告
+     *
+     * @param adminId 发布管理员ID
+     * @param sendDTO 公告参数（标题、内容）
+     * @return 公告ID
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public Long publish(Long adminId, MessageSendDTO sendDTO) {
+        try {
+            // 1. 参数校验
+            if (Objects.isNull(adminId) || Objects.isNull(sendDTO)) {
+                throw new BusinessException(SystemErrorCode.PARAM_NULL);
+            }
+            if (!StringUtils.hasText(sendDTO.getTitle()) || !StringUtils.hasText(sendDTO.getContent())) {
+                throw new BusinessException(MessageErrorCode.MESSAGE_CONTENT_NULL, "公告标题与内容不能为空");
+            }
+            if (sendDTO.getTitle().length() > MAX_ANNOUNCEMENT_TITLE_LENGTH
+                    || sendDTO.getContent().length() > MAX_ANNOUNCEMENT_CONTENT_LENGTH) {
+                throw new BusinessException(MessageErrorCode.MESSAGE_CONTENT_INVALID, "公告标题不超过50字、内容不超过1000字");
+            }
+
+            // 2. 写入一行公告（不为用户逐个生成消息）
+            Announcement announcement = new Announcement();
+            announcement.setPublisherId(adminId);
+            announcement.setTitle(sendDTO.getTitle());
+            announcement.setContent(sendDTO.getContent());
+            announcement.setCreateTime(LocalDateTime.now());
+            announcement.setUpdateTime(LocalDateTime.now());
+            if (announcementMapper.insert(announcement) <= 0) {
+                log.error("发布公告失败，数据库插入失败，管理员ID：{}", adminId);
+                throw new BusinessException(SystemErrorCode.DATA_INSERT_FAILED);
+            }
+
+            // 3. 事务提交后删除全局公告缓存（下次读取时重新加载），并广播给全部在线用户
+            MessagePushDTO event = buildPushEvent(announcement);
+            TransactionUtil.afterCommit(() -> {
+                redisTemplate.delete(CACHE_KEY_RECENT_ANNOUNCEMENTS);
+                pushService.broadcast(event);
+            });
+
+            log.info("发布公告成功，公告ID：{}，管理员ID：{}", announcement.getAnnouncementId(), adminId);
+            return announcement.getAnnouncementId();
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("发布公告异常，管理员ID：{}，参数：{}", adminId, sendDTO, e);
+            throw new BusinessException(SystemErrorCode.FAILURE);
+        }
+    }
+
+    /**
+     * 获取最近的公告（先查全局缓存，未命中或Redis不可用时查询数据库）
+     *
+     * @return 公告列表（按公告ID倒序）
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Announcement> listRecentAnnouncements() {
+        // 1. 先查全局缓存
+        try {
+            List<Announcement> cached = (List<Announcement>) redisTemplate.opsForValue().get(CACHE_KEY_RECENT_ANNOUNCEMENTS);
+            if (Objects.nonNull(cached)) {
+                return cached;
+            }
+        } catch (Exception e) {
+            log.warn("读取公告缓存失败，查询数据库", e);
+        }
+
+        // 2. 缓存未命中，查询数据库并回填
+        List<Announcement> recent = new ArrayList<>(announcementMapper.selectRecent(MAX_RECENT_ANNOUNCEMENTS));
+        try {
+            redisTemplate.opsForValue().set(CACHE_KEY_RECENT_ANNOUNCEMENTS, recent, CACHE_TTL_RECENT_ANNOUNCEMENTS, TimeUnit.MINUTES);
+        } catch (Exception e) {
+            log.warn("回填公告缓存失败", e);
+        }
+        return recent;
+    }
+
+    /**
+     * 获取用户的公告阅读游标（先查缓存，未命中时查询数据库并回填）
+     *
+     * @param userId 用户ID
+     * @return 已读到的最大公告ID（无记录返回0）
+     */
+    @Override
+    public long getLastSeenId(Long userId) {
+        if (Objects.isNull(userId)) {
+            throw new BusinessException(SystemErrorCode.PARAM_NULL);
+        }
+        String cacheKey = CACHE_KEY_CURSOR + userId;
+        try {
+            String cached = stringRedisTemplate.opsForValue().get(cacheKey);
+            if (Objects.nonNull(cached)) {
+                return Long.parseLong(cached);
+            }
+        } catch (Exception e) {
+            log.warn("读取公告游标缓存失败，查询数据库，用户ID：{}", userId, e);
+        }
+
+        Long lastSeenId = announcementMapper.selectLastSeenId(userId);
+        long result = Objects.isNull(lastSeenId) ? 0L : lastSeenId;
+        try {
+            // 仅在缓存不存在时回填，避免覆盖并发推进后的较大值
+            stringRedisTemplate.opsForValue().setIfAbsent(cacheKey, String.valueOf(result), CACHE_TTL_CURSOR);
+        } catch (Exception e) {
+            log.warn("回填公告游标缓存失败，用户ID：{}", userId, e);
+        }
+        return result;
+    }
+
+    /**
+     * 统计用户未读公告数
+     *
+     * @param userId 用户ID
+     * @return 未读公告数
+     */
+    @Override
+    public int countUnread(Long userId) {
+        return countNewerThan(listRecentAnnouncements(), getLastSeenId(userId));
+    }
+
+    /**
+     * 批量统计用户未读公告数（一次MGET读取游标，未命中的用户合并为一次数据库查询）
+     *
+     * @param userIds 用户ID列表
+     * @return 用户ID -> 未读公告数
+     */
+    @Override
+    public Map<Long, Integer> batchCountUnread(List<Long> userIds) {
+        if (Objects.isNull(userIds) || userIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<Announcement> recent = listRecentAnnouncements();
+        Map<Long, Long> lastSeenIds = batchGetLastSeenIds(userIds);
+        Map<Long, Integer> unreadCounts = new LinkedHashMap<>();
+        for (Long userId : userIds) {
+            unreadCounts.put(userId, countNewerThan(recent, lastSeenIds.getOrDefault(userId, 0L)));
+        }
+        return unreadCounts;
+    }
+
+    /**
+     * 将全部公告标记为已读
+     *
+     * @param userId 用户ID
+     * @return 是否推进（无公告时返回false）
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public Boolean markAllRead(Long userId) {
+        try {
+            // 1. 参数校验
+            if (Objects.isNull(userId)) {
+                throw new BusinessException(SystemErrorCode.PARAM_NULL);
+            }
+
+            // 2. 取最新公告ID（无公告时无需推进）
+            List<Announcement> recent = listRecentAnnouncements();
+            if (recent.isEmpty()) {
+                return false;
+            }
+            Long latestId = recent.get(0).getAnnouncementId();
+
+            // 3. 推进数据库游标，事务提交后按较大值更新缓存
+            announcementMapper.advanceCursor(userId, latestId);
+            TransactionUtil.afterCommit(() -> advanceCursorCache(userId, latestId));
+
+            log.info("公告全部标记已读，用户ID：{}，游标：{}", userId, latestId);
+            return true;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("公告标记已读异常，用户ID：{}", userId, e);
+            throw new BusinessException(SystemErrorCode.FAILURE);
+        }
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 构建公告推送事件（接收人为空表示推送给全部在线用户）
+     */
+    private MessagePushDTO buildPushEvent(Announcement announcement) {
+        MessagePushDTO event = new MessagePushDTO();
+        event.setMessageId(announcement.getAnnouncementId());
+        event.setType(MessageTypeEnum.SYSTEM);
+        event.setTitle(announcement.getTitle());
+        event.setContentSummary(messageConvert.getContentSummary(announcement.getContent()));
+        event.setIsAnnouncement(true);
+        event.setCreateTime(announcement.getCreateTime());
+        return event;
+    }
+
+    /**
+     * 统计公告列表（按ID倒序）中ID大于游标的条数
+     */
+    private int countNewerThan(List<Announcement> recent, long lastSeenId) {
+        int count = 0;
+        for (Announcement announcement : recent) {
+            if (announcement.getAnnouncementId() <= lastSeenId) {
+                break;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 批量获取阅读游标：一次MGET，未命中的用户一次IN查询（无记录按0处理）
+     */
+    private Map<Long, Long> batchGetLastSeenIds(List<Long> userIds) {
+        Map<Long, Long> lastSeenIds = new HashMap<>();
+        List<Long> missedUserIds = new ArrayList<>();
+        try {
+            List<String> keys = userIds.stream().map(userId -> CACHE_KEY_CURSOR + userId).collect(Collectors.toList());
+            List<String> cached = stringRedisTemplate.opsForValue().multiGet(keys);
+            for (int i = 0; i < userIds.size(); i++) {
+                String value = Objects.isNull(cached) ? null : cached.get(i);
+                if (Objects.nonNull(value)) {
+                    lastSeenIds.put(userIds.get(i), Long.parseLong(value));
+                } else {
+                    missedUserIds.add(userIds.get(i));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("批量读取公告游标缓存失败，查询数据库，用户数：{}", userIds.size(), e);
+            missedUserIds = new ArrayList<>(userIds);
+        }
+
+        if (!missedUserIds.isEmpty()) {
+            for (AnnouncementCursor cursor : announcementMapper.selectCursors(missedUserIds)) {
+                lastSeenIds.put(cursor.getUserId(), cursor.getLastSeenId());
+            }
+        }
+        return lastSeenIds;
+    }
+
+    /**
+     * 按较大值更新游标缓存（失败时删除缓存，下次读取时从数据库加载）
+     */
+    private void advanceCursorCache(Long userId, Long lastSeenId) {
+        String cacheKey = CACHE_KEY_CURSOR + userId;
+        try {
+            stringRedisTemplate.execute(ADVANCE_CURSOR_SCRIPT, Collections.singletonList(cacheKey),
+                    String.valueOf(lastSeenId), String.valueOf(CACHE_TTL_CURSOR.getSeconds()));
+        } catch (Exception e) {
+            log.warn("更新公告游标缓存失败，删除缓存，用户ID：{}", userId, e);
+            stringRedisTemplate.delete(cacheKey);
+        }
+    }
+}
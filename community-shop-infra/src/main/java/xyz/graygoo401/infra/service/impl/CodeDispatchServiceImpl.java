@@ -0,0 +1,190 @@
+package xyz.graygoo401.infra.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import xyz.graygoo401.api.common.dto.mq.VerifyCodeEventDTO;
+import xyz.graygoo401.api.common.enums.MqEventTypeEnum;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.infra.exception.error.VerifyErrorCode;
+import xyz.graygoo401.infra.service.base.CodeDispatchService;
+import xyz.graygoo401.infra.util.AliyunPnsSendUtil;
+import xyz.graygoo401.infra.util.CodeCacheUtil;
+import xyz.graygoo401.infra.util.EmailSendUtil;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 验证码异步发送服务实现类
+ * 0. 投递：开启publisher confirms（correlated）与mandatory，等待Broker确认后才算投递成功，队列满或未声明时由发送接口返回繁忙；
+ * 1. 邮件：一批邮箱一次发送调用，失败的邮箱退避后重新读取验证码再发送；
+ * 2. 短信：逐条发送，失败后退避重试；
+ * 退避时间按initial-backoff-millis * multiplier^(n-1)增长且不超过max-backoff-millis，
+ * 默认3次尝试共等待约3秒，远小于验证码有效期；发送方法不向外抛出异常，避免消息被反复重新投递
+ */
+@Slf4j
+@Service
+public class CodeDispatchServiceImpl implements CodeDispatchService {
+
+    @Value("${infra.dispatch.confirm-timeout-millis:3000}")
+    private long confirmTimeoutMillis;
+
+    @Value("${infra.dispatch.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${infra.dispatch.initial-backoff-millis:1000}")
+    private long initialBackoffMillis;
+
+    @Value("${infra.dispatch.backoff-multiplier:2.0}")
+    private double backoffMultiplier;
+
+    @Value("${infra.dispatch.max-backoff-millis:10000}")
+    private long maxBackoffMillis;
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private EmailSendUtil emailSendUtil;
+
+    @Autowired
+    private AliyunPnsSendUtil pnsSendUtil;
+
+    @Autowired
+    private CodeCacheUtil codeCacheUtil;
+
+    /**
+     * 投递验证码发送事件并等待Broker确认
+     * 核心逻辑：携带CorrelationData投递→等待confirm→nack（队列已满）或退回（无队列）时抛出繁忙异常
+     */
+    @Override
+    public void publishCodeEvent(MqEventTypeEnum eventType, String target) {
+        // 1. 携带关联数据投递，Broker的确认与退回都会回填到该对象
+        CorrelationData correlation = new CorrelationData();
+        rabbitTemplate.convertAndSend(eventType.getExchange(), eventType.getRoutingKey(), new VerifyCodeEventDTO(target), correlation);
+
+        // 2. 等待Broker确认
+        CorrelationData.Confirm confirm;
+        try {
+            confirm = correlation.getFuture().get(confirmTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(VerifyErrorCode.VERIFY_CODE_SEND_BUSY);
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("验证码发送事件未确认，事件类型：{}，等待时间：{}ms", eventType, confirmTimeoutMillis);
+            throw new BusinessException(VerifyErrorCode.VERIFY_CODE_SEND_BUSY);
+        }
+
+        // 3. nack（队列已满拒绝）或被退回（无可路由的队列）均视为投递失败
+        if (!confirm.isAck()) {
+            log.warn("验证码发送事件被Broker拒绝，事件类型：{}，原因：{}", eventType, confirm.getReason());
+            throw new BusinessException(VerifyErrorCode.VERIFY_CODE_SEND_BUSY);
+        }
+        if (correlation.getReturned() != null) {
+            log.error("验证码发送事件无可路由的队列，事件类型：{}，原因：{}", eventType, correlation.getReturned().getReplyText());
+            throw new BusinessException(VerifyErrorCode.VERIFY_CODE_SEND_BUSY);
+        }
+    }
+
+    /**
+     * 批量发送邮箱验证码
+     * 核心逻辑：去重→读取当前验证码→整批发送→失败部分退避后重试（每次重试重新读取验证码）
+     */
+    @Override
+    public int dispatchEmailCodes(Collection<String> emails) {
+        Set<String> pending = new LinkedHashSet<>();
+        emails.stream().filter(email -> email != null && !email.isBlank()).forEach(pending::add);
+        int sent = 0;
+        try {
+            for (int attempt = 1; !pending.isEmpty(); attempt++) {
+                // 1. 读取当前有效的验证码，已过期或已验证的邮箱跳过
+                Map<String, String> emailCodes = new LinkedHashMap<>();
+                for (String email : pending) {
+                    String code = codeCacheUtil.getCacheEmailCode(email);
+                    if (code != null) {
+                        emailCodes.put(email, code);
+                    }
+                }
+                if (emailCodes.isEmpty()) {
+                    break;
+                }
+
+                // 2. 整批发送，只保留失败的邮箱
+                Set<String> failed = emailSendUtil.sendCodeEmails(emailCodes);
+                sent += emailCodes.size() - failed.size();
+                pending = new LinkedHashSet<>(failed);
+                if (pending.isEmpty()) {
+                    break;
+                }
+                if (attempt >= maxAttempts) {
+                    log.error("邮箱验证码发送失败，已重试{}次，失败邮箱：{}", attempt, pending);
+                    break;
+                }
+
+                // 3. 退避后重试
+                if (!backoff(attempt)) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("邮箱验证码发送异常，已发送：{}，待发送：{}", sent, pending, e);
+        }
+        return sent;
+    }
+
+    /**
+     * 发送短信验证码
+     * 核心逻辑：读取当前验证码→发送→失败后退避重试（每次重试重新读取验证码）
+     */
+    @Override
+    public boolean dispatchSmsCode(String phone) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                // 1. 读取当前有效的验证码，已过期或已验证时不再发送
+                String code = codeCacheUtil.getCachePhoneCode(phone);
+                if (code == null) {
+                    return false;
+                }
+
+                // 2. 发送
+                pnsSendUtil.senPnsCode(phone, code);
+                return true;
+            } catch (Exception e) {
+                if (attempt >= maxAttempts) {
+                    log.error("短信验证码发送失败，已重试{}次，手机号：{}", attempt, phone, e);
+                    return false;
+                }
+                log.warn("短信验证码发送失败，第{}次，手机号：{}，原因：{}", attempt, phone, e.getMessage());
+            }
+
+            // 3. 退避后重试
+            if (!backoff(attempt)) {
+                return false;
+            }
+        }
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 第attempt次失败后等待（指数增长，不超过上限）
+     * @return 等待被中断时返回false，调用方停止重试
+     */
+    private boolean backoff(int attempt) {
+        long delay = (long) Math.min(initialBackoffMillis * Math.pow(backoffMultiplier, attempt - 1), maxBackoffMillis);
+        try {
+            Thread.sleep(delay);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("验证码发送重试等待被中断");
+            return false;
+        }
+    }
+}
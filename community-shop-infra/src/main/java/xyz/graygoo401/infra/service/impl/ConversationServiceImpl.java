@@ -0,0 +1,433 @@
+package xyz.graygoo401.infra.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import xyz.graygoo401.api.infra.dto.message.ConversationDTO;
+import xyz.graygoo401.api.infra.dto.message.PrivateMessageDetailDTO;
+import xyz.graygoo401.api.user.dto.user.UserDTO;
+import xyz.graygoo401.api.user.util.UserUtil;
+import xyz.graygoo401.common.dto.CursorPageResult;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.common.exception.error.SystemErrorCode;
+import xyz.graygoo401.common.service.BaseServiceImpl;
+import xyz.graygoo401.common.util.CursorUtil;
+import xyz.graygoo401.infra.convert.MessageConvert;
+import xyz.graygoo401.infra.dao.entity.Conversation;
+import xyz.graygoo401.infra.dao.entity.Message;
+import xyz.graygoo401.infra.dao.mapper.ConversationMapper;
+import xyz.graygoo401.infra.dao.mapper.MessageMapper;
+import xyz.graygoo401.infra.service.base.ConversationService;
+import xyz.graygoo401.infra.service.base.MessageArchiveService;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 私信会话服务实现类
+ * 1. 会话：每对用户一行（user_low_id < user_high_id），首次私信时创建，之后每条私信更新最后一条消息与接收方未读数；
+ * 2. 会话列表：按(update_time, conversation_id)游标分页，最后一条消息与聊天对象信息各一次批量查询；
+ * 3. 会话内消息：按(conversation_id, msg_id)索引游标分页，不再按发送人/接收人条件扫描消息表；
+ *    最后一条消息与较早的历史消息可能已归档，经MessageArchiveService回查归档表。
+ */
+@Slf4j
+@Service
+public class ConversationServiceImpl extends BaseServiceImpl<ConversationMapper, Conversation> implements ConversationService {
+
+    private static final int DEFAULT_PAGE_SIZE = 10; // 默认每页条数
+    private static final int MAX_PAGE_SIZE = 50; // 每页最大条数
+    private static final int BACKFILL_BATCH_SIZE = 500; // 会话回填每批私信数
+
+    @Autowired
+    private ConversationMapper conversationMapper;
+
+    @Autowired
+    private MessageMapper messageMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MessageArchiveService messageArchiveService;
+
+    @Autowired
+    private UserUtil userUtil;
+
+    @Autowired
+    private MessageConvert messageConvert;
+
+    /**
+     * 获取两个用户之间的会话ID，不存在时创建
+     *
+     * @param userId 用户ID
+     * @param partnerId 聊天对象ID
+     * @return 会话ID
+     */
+    @Override
+    public Long getOrCreateConversationId(Long userId, Long partnerId) {
+        // 1. 已有会话直接返回
+        Long userLowId = Math.min(userId, partnerId);
+        Long userHighId = Math.max(userId, partnerId);
+        Conversation conversation = conversationMapper.selectByPair(userLowId, userHighId);
+        if (Objects.nonNull(conversation)) {
+            return conversation.getConversationId();
+        }
+
+        // 2. 首次私信创建会话
+        conversation = new Conversation();
+        conversation.setUserLowId(userLowId);
+        conversation.setUserHighId(userHighId);
+        conversation.setLowUnreadCount(0);
+        conversation.setHighUnreadCount(0);
+        conversation.setCreateTime(LocalDateTime.now());
+        conversation.setUpdateTime(LocalDateTime.now());
+        try {
+            conversationMapper.insert(conversation);
+            log.info("创建私信会话成功，会话ID：{}，用户对：{}-{}", conversation.getConversationId(), userLowId, userHighId);
+            return conversation.getConversationId();
+        } catch (DuplicateKeyException e) {
+            // 3. 双方同时发出首条私信：对方请求已创建会话，加锁读取最新提交的会话
+            log.info("私信会话已被并发创建，重新查询，用户对：{}-{}", userLowId, userHighId);
+            return conversationMapper.selectByPairForUpdate(userLowId, userHighId).getConversationId();
+        }
+    }
+
+    /**
+     * 获取两个用户之间的会话
+     *
+     * @param userId 用户ID
+     * @param partnerId 聊天对象ID
+     * @return 会话（不存在返回null）
+     */
+    @Override
+    public Conversation getConversation(Long userId, Long partnerId) {
+        if (Objects.isNull(userId) || Objects.isNull(partnerId)) {
+            throw new BusinessException(SystemErrorCode.PARAM_NULL);
+        }
+        return conversationMapper.selectByPair(Math.min(userId, partnerId), Math.max(userId, partnerId));
+    }
+
+    /**
+     * 记录会话中的新消息
+     *
+     * @param message 已写入的私信
+     */
+    @Override
+    public void recordMessage(Message message) {
+        boolean receiverLow = message.getReceiverId() < message.getSenderId();
+        int updateRows = conversationMapper.recordMessage(
+                message.getConversationId(), message.getMsgId(), receiverLow, message.getCreateTime());
+        if (updateRows <= 0) {
+            log.error("更新私信会话失败，会话不存在，会话ID：{}，消息ID：{}", message.getConversationId(), message.getMsgId());
+            throw new BusinessException(SystemErrorCode.DATA_UPDATE_FAILED);
+        }
+    }
+
+    /**
+     * 减少接收方在会话中的未读数
+     *
+     * @param conversationId 会话ID
+     * @param receiverId 接收人ID
+     * @param senderId 发送人ID
+     * @param count 减少数量
+     */
+    @Override
+    public void decreaseUnread(Long conversationId, Long receiverId, Long senderId, int count) {
+        if (Objects.isNull(conversationId) || count <= 0) {
+            return;
+        }
+        conversationMapper.decreaseUnread(conversationId, receiverId < senderId, count);
+    }
+
+    /**
+     * 按会话中的未读私信重新统计接收方未读数
+     *
+     * @param conversationId 会话ID
+     * @param receiverId 接收人ID
+     * @param senderId 发送人ID
+     */
+    @Override
+    public void recountUnread(Long conversationId, Long receiverId, Long senderId) {
+        if (Objects.isNull(conversationId)) {
+            return;
+        }
+        conversationMapper.recountUnread(conversationId, receiverId, receiverId < senderId);
+    }
+
+    /**
+     * 游标分页查询用户的会话列表
+     *
+     * @param userId 用户ID
+     * @param cursor 分页游标
+     * @param pageSize 每页条数
+     * @return 会话游标分页结果
+     */
+    @Override
+    public CursorPageResult<ConversationDTO> listConversations(Long userId, String cursor, Integer pageSize) {
+        try {
+            // 1. 参数校验与游标解析（多查1条用于判断是否还有下一页）
+            if (Objects.isNull(userId)) {
+                throw new BusinessException(SystemErrorCode.PARAM_NULL);
+            }
+            int size = resolvePageSize(pageSize);
+            LocalDateTime lastUpdateTime = CursorUtil.decodeTime(cursor);
+            Long lastConversationId = CursorUtil.decodeId(cursor);
+
+            // 2. 查询会话（用户为用户对的任一方，两侧索引各取一段后合并）
+            List<Conversation> conversations = conversationMapper.selectByUserCursor(
+                    userId, lastUpdateTime, lastConversationId, size + 1);
+            boolean hasMore = conversations.size() > size;
+            List<Conversation> page = hasMore ? conversations.subList(0, size) : conversations;
+            if (page.isEmpty()) {
+                return new CursorPageResult<>(Collections.emptyList(), null, false, size);
+            }
+
+            // 3. 批量查询聊天对象与最后一条消息
+            List<Long> partnerIds = page.stream().map(conversation -> partnerOf(conversation, userId))
+                    .distinct().collect(Collectors.toList());
+            Map<Long, UserDTO> partnerMap = userUtil.getUserMapByIds(partnerIds);
+            List<Long> lastMsgIds = page.stream().map(Conversation::getLastMsgId)
+                    .filter(Objects::nonNull).collect(Collectors.toList());
+            Map<Long, Message> lastMessageMap = lastMsgIds.isEmpty() ? Collections.emptyMap()
+                    : messageArchiveService.listMessagesByIds(lastMsgIds).stream()
+                    .collect(Collectors.toMap(Message::getMsgId, Function.identity()));
+
+            // 4. 转换为DTO并生成下一页游标
+            List<ConversationDTO> dtoList = page.stream()
+                    .map(conversation -> toConversationDTO(conversation, userId, partnerMap, lastMessageMap))
+                    .collect(Collectors.toList());
+            String nextCursor = null;
+            if (hasMore) {
+                Conversation last = page.get(page.size() - 1);
+                nextCursor = CursorUtil.encode(last.getUpdateTime(), last.getConversationId());
+            }
+
+            log.info("查询私信会话列表成功，用户ID：{}，本页条数：{}，是否有下一页：{}", userId, dtoList.size(), hasMore);
+            return new CursorPageResult<>(dtoList, nextCursor, hasMore, size);
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("查询私信会话列表异常，用户ID：{}，游标：{}", userId, cursor, e);
+            throw new BusinessException(SystemErrorCode.DATA_QUERY_FAILED, "查询会话列表失败，请重试");
+        }
+    }
+
+    /**
+     * 游标分页查询会话内的消息
+     *
+     * @param userId 用户ID
+     * @param partnerId 聊天对象ID
+     * @param cursor 分页游标
+     * @param pageSize 每页条数
+     * @return 消息游标分页结果
+     */
+    @Override
+    public CursorPageResult<PrivateMessageDetailDTO> listMessages(Long userId, Long partnerId, String cursor, Integer pageSize) {
+        try {
+            // 1. 参数校验与游标解析（消息ID自增，游标中的主键部分即可定位）
+            int size = resolvePageSize(pageSize);
+            Long lastMsgId = CursorUtil.decodeId(cursor);
+            Conversation conversation = getConversation(userId, partnerId);
+            if (Objects.isNull(conversation)) {
+                return new CursorPageResult<>(Collections.emptyList(), null, false, size);
+            }
+
+            // 2. 按(conversation_id, msg_id)索引查询（翻到热数据边界之前时合并归档消息）
+            List<Message> messages = messageArchiveService.listConversationMessages(
+                    conversation.getConversationId(), lastMsgId, size + 1);
+            boolean hasMore = messages.size() > size;
+            List<Message> page = hasMore ? messages.subList(0, size) : messages;
+
+            // 3. 会话只有两个参与者，一次批量查询双方信息
+            Map<Long, UserDTO> userMap = page.isEmpty() ? Collections.emptyMap()
+                    : userUtil.getUserMapByIds(List.of(userId, partnerId));
+            List<PrivateMessageDetailDTO> dtoList = page.stream()
+                    .map(message -> toPrivateMessageDetailDTO(message, userMap.get(message.getSenderId())))
+                    .collect(Collectors.toList());
+            String nextCursor = null;
+            if (hasMore) {
+                Message last = page.get(page.size() - 1);
+                nextCursor = CursorUtil.encode(last.getCreateTime(), last.getMsgId());
+            }
+
+            log.info("查询私信会话消息成功，用户ID：{}，聊天对象ID：{}，本页条数：{}，是否有下一页：{}",
+                    userId, partnerId, dtoList.size(), hasMore);
+            return new CursorPageResult<>(dtoList, nextCursor, hasMore, size);
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("查询私信会话消息异常，用户ID：{}，聊天对象ID：{}，游标：{}", userId, partnerId, cursor, e);
+            throw new BusinessException(SystemErrorCode.DATA_QUERY_FAILED, "查询私信失败，请重试");
+        }
+    }
+
+    /**
+     * 回填历史私信的会话ID
+     * 核心逻辑：先热表后归档表（回填期间被归档的消息由归档表一轮补齐）→游标选出一批私信→按用户对分组
+     * →每组一个事务：创建或获取会话、写入会话ID、合并最后一条消息与未读数
+     *
+     * @return 本次回填的私信数
+     */
+    @Override
+    public int backfillConversations() {
+        try {
+            int backfilled = backfillTable(false) + backfillTable(true);
+            if (backfilled > 0) {
+                log.info("私信会话回填完成，回填私信数：{}", backfilled);
+            }
+            return backfilled;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("私信会话回填异常", e);
+            throw new BusinessException(SystemErrorCode.FAILURE);
+        }
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 按消息ID游标分批回填一张表（热表或归档表）中的私信
+     */
+    private int backfillTable(boolean archive) {
+        int backfilled = 0;
+        Long lastMsgId = null;
+        while (true) {
+            // 1. 游标查询一批未关联会话的私信
+            List<Message> messages = archive
+                    ? messageMapper.selectArchivePrivateMissingConversation(lastMsgId, BACKFILL_BATCH_SIZE)
+                    : messageMapper.selectPrivateMissingConversation(lastMsgId, BACKFILL_BATCH_SIZE);
+            if (messages.isEmpty()) {
+                break;
+            }
+
+            // 2. 按有序用户对分组，每组单独提交
+            Map<List<Long>, List<Message>> pairMessages = messages.stream().collect(Collectors.groupingBy(
+                    message -> List.of(Math.min(message.getSenderId(), message.getReceiverId()),
+                            Math.max(message.getSenderId(), message.getReceiverId())),
+                    LinkedHashMap::new, Collectors.toList()));
+            for (Map.Entry<List<Long>, List<Message>> entry : pairMessages.entrySet()) {
+                Integer rows = transactionTemplate.execute(status ->
+                        backfillPair(entry.getKey().get(0), entry.getKey().get(1), entry.getValue(), archive));
+                backfilled += rows == null ? 0 : rows;
+            }
+
+            lastMsgId = messages.get(messages.size() - 1).getMsgId();
+            if (messages.size() < BACKFILL_BATCH_SIZE) {
+                break;
+            }
+        }
+        return backfilled;
+    }
+
+    /**
+     * 回填同一用户对的一组私信
+     * 未读数按写入会话ID后重新读取的热表消息计算（行已被本事务锁定），归档私信均已读或已删除，不计未读
+     */
+    private int backfillPair(Long userLowId, Long userHighId, List<Message> messages, boolean archive) {
+        // 1. 获取或创建会话，写入会话ID（已被其他回填写入的消息不会重复处理）
+        Long conversationId = getOrCreateConversationId(userLowId, userHighId);
+        List<Long> msgIds = messages.stream().map(Message::getMsgId).collect(Collectors.toList());
+        int rows = archive
+                ? messageMapper.backfillArchiveConversationId(conversationId, msgIds)
+                : messageMapper.backfillConversationId(conversationId, msgIds);
+        if (rows <= 0) {
+            return 0;
+        }
+
+        // 2. 统计本组实际回填的私信：最后一条消息、最晚发送时间与双方未读数
+        List<Message> backfilled = archive ? messageMapper.selectArchiveBatchIds(msgIds) : messageMapper.selectBatchIds(msgIds);
+        Long lastMsgId = null;
+        LocalDateTime lastSendTime = null;
+        int lowUnreadCount = 0;
+        int highUnreadCount = 0;
+        for (Message message : backfilled) {
+            if (!conversationId.equals(message.getConversationId())) {
+                continue;
+            }
+            if (lastMsgId == null || message.getMsgId() > lastMsgId) {
+                lastMsgId = message.getMsgId();
+            }
+            if (lastSendTime == null || message.getCreateTime().isAfter(lastSendTime)) {
+                lastSendTime = message.getCreateTime();
+            }
+            if (!Boolean.TRUE.equals(message.getIsRead()) && !Boolean.TRUE.equals(message.getIsDeleted())) {
+                if (message.getReceiverId().equals(userLowId)) {
+                    lowUnreadCount++;
+                } else {
+                    highUnreadCount++;
+                }
+            }
+        }
+
+        // 3. 合并到会话（最后一条消息只前进不后退，未读数累加）
+        if (lastMsgId != null) {
+            conversationMapper.mergeBackfill(conversationId, lastMsgId, lowUnreadCount, highUnreadCount, lastSendTime);
+        }
+        return rows;
+    }
+
+    private int resolvePageSize(Integer pageSize) {
+        int size = Objects.isNull(pageSize) ? DEFAULT_PAGE_SIZE : pageSize;
+        if (size <= 0) {
+            throw new BusinessException(SystemErrorCode.PARAM_ERROR, "每页条数必须大于0");
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    private Long partnerOf(Conversation conversation, Long userId) {
+        return conversation.getUserLowId().equals(userId) ? conversation.getUserHighId() : conversation.getUserLowId();
+    }
+
+    /**
+     * 转换会话DTO（未读数取当前用户一侧，最后一条消息已删除时不展示摘要）
+     */
+    private ConversationDTO toConversationDTO(Conversation conversation, Long userId,
+                                              Map<Long, UserDTO> partnerMap, Map<Long, Message> lastMessageMap) {
+        ConversationDTO dto = new ConversationDTO();
+        dto.setConversationId(conversation.getConversationId());
+        dto.setUpdateTime(conversation.getUpdateTime());
+        boolean userLow = conversation.getUserLowId().equals(userId);
+        dto.setUnreadCount(userLow ? conversation.getLowUnreadCount() : conversation.getHighUnreadCount());
+
+        Long partnerId = partnerOf(conversation, userId);
+        ConversationDTO.PartnerDTO partnerDTO = new ConversationDTO.PartnerDTO();
+        partnerDTO.setUserId(partnerId);
+        UserDTO partner = partnerMap.get(partnerId);
+        if (Objects.nonNull(partner)) {
+            partnerDTO.setUsername(partner.getUsername());
+            partnerDTO.setAvatarUrl(partner.getAvatarUrl());
+        }
+        dto.setPartner(partnerDTO);
+
+        Message lastMessage = lastMessageMap.get(conversation.getLastMsgId());
+        if (Objects.nonNull(lastMessage)) {
+            dto.setLastMessageId(lastMessage.getMsgId());
+            dto.setLastSenderId(lastMessage.getSenderId());
+            if (!Boolean.TRUE.equals(lastMessage.getIsDeleted())) {
+                dto.setLastMessageSummary(messageConvert.getContentSummary(lastMessage.getContent()));
+            }
+        }
+        return dto;
+    }
+
+    private PrivateMessageDetailDTO toPrivateMessageDetailDTO(Message message, UserDTO sender) {
+        PrivateMessageDetailDTO dto = new PrivateMessageDetailDTO();
+        dto.setMessageId(message.getMsgId());
+        dto.setContent(message.getContent());
+        dto.setCreateTime(message.getCreateTime());
+
+        PrivateMessageDetailDTO.SenderDTO senderDTO = new PrivateMessageDetailDTO.SenderDTO();
+        senderDTO.setUserId(message.getSenderId());
+        if (Objects.nonNull(sender)) {
+            senderDTO.setUsername(sender.getUsername());
+            senderDTO.setAvatarUrl(sender.getAvatarUrl());
+        }
+        dto.setSender(senderDTO);
+        return dto;
+    }
+}
@@ -3,12 +3,13 @@ package xyz.graygoo401.infra.service.impl;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import xyz.graygoo401.api.common.enums.MqEventTypeEnum;
 import xyz.graygoo401.common.exception.BusinessException;
 import xyz.graygoo401.common.util.CodeGenerateUtil;
 import xyz.graygoo401.infra.exception.error.VerifyErrorCode;
+import xyz.graygoo401.infra.service.base.CodeDispatchService;
 import xyz.graygoo401.infra.service.base.VerificationCodeService;
 import xyz.graygoo401.infra.util.CodeCacheUtil;
-import xyz.graygoo401.infra.util.EmailSendUtil;
 
 /**
  * 邮箱验证码服务实现类
@@ -18,7 +19,7 @@ import xyz.graygoo401.infra.util.EmailSendUtil;
 public class EmailCodeServiceImpl implements VerificationCodeService {
 
     @Autowired
-    private EmailSendUtil emailSendUtil;
+    private CodeDispatchService codeDispatchService;
 
     @Autowired
     private CodeCacheUtil codeCacheUtil;
@@ -35,10 +36,19 @@ public class EmailCodeServiceImpl implements VerificationCodeService {
     public String sendCode(String email) {
         String code = codeGenerateUtil.generate6DigitCode();
         try {
-            emailSendUtil.sendSimpleCodeEmail(email, code);
+            // 1. 先写缓存，发送线程从缓存读取验证码
             codeCacheUtil.cacheEmailCode(email, code);
+
+            // 2. 投递发送事件，Broker确认后立即返回，由CodeDispatchListener异步发送
+            codeDispatchService.publishCodeEvent(MqEventTypeEnum.EMAIL_CODE_REQUESTED, email);
             return code;
+        } catch (BusinessException e) {
+            // 发送队列已满或事件未被确认：删除验证码，接口返回繁忙，用户稍后重试
+            codeCacheUtil.deleteCachedEmailCode(email);
+            throw e;
         } catch (Exception e) {
+            // 写缓存或投递失败时删除验证码，避免用户收不到却占用有效期
+            codeCacheUtil.deleteCachedEmailCode(email);
             throw new BusinessException(VerifyErrorCode.VERIFY_CODE_SEND_FAILED, e.getMessage());
         }
     }
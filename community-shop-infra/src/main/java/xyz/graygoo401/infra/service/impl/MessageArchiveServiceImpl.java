@@ -0,0 +1,159 @@
+package xyz.graygoo401.infra.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.common.exception.error.SystemErrorCode;
+import xyz.graygoo401.infra.dao.entity.Message;
+import xyz.graygoo401.infra.dao.mapper.MessageMapper;
+import xyz.graygoo401.infra.service.base.MessageArchiveService;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 消息冷热分离服务实现类
+ * 1. 归档：按消息ID升序分批选出可归档消息，每批在一个事务内INSERT...SELECT到归档表并从热表删除，批次间暂停；
+ * 2. 路由：消息ID自增且与发送时间同序，归档消息的发送时间都早于当前热数据边界，
+ *    因此热表一页内最早的消息仍晚于边界时，归档表中不会有更新的消息，无需回查。
+ */
+@Slf4j
+@Service
+public class MessageArchiveServiceImpl implements MessageArchiveService {
+
+    @Value("${message.archive.hot-days:90}")
+    private int hotDays;
+
+    @Value("${message.archive.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${message.archive.batch-pause-millis:200}")
+    private long batchPauseMillis;
+
+    @Value("${message.archive.max-batches:500}")
+    private int maxBatches;
+
+    @Autowired
+    private MessageMapper messageMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    public LocalDateTime getHotBoundary() {
+        return LocalDateTime.now().minusDays(hotDays);
+    }
+
+    @Override
+    public boolean reachesArchive(LocalDateTime startTime) {
+        return startTime == null || startTime.isBefore(getHotBoundary());
+    }
+
+    /**
+     * 分批归档过期消息
+     * 核心逻辑：固定本次热数据边界→游标选出一批ID→事务内复制并删除（行数不一致回滚）→暂停→下一批
+     */
+    @Override
+    public int archiveExpiredMessages() {
+        LocalDateTime boundary = getHotBoundary();
+        int archived = 0;
+        int batches = 0;
+        Long lastMsgId = null;
+        try {
+            while (batches < maxBatches) {
+                // 1. 游标查询一批可归档的消息ID
+                List<Long> msgIds = messageMapper.selectArchivableIds(boundary, lastMsgId, batchSize);
+                if (msgIds.isEmpty()) {
+                    break;
+                }
+
+                // 2. 同一事务内复制到归档表并从热表删除
+                Integer moved = transactionTemplate.execute(status -> moveBatch(msgIds, boundary));
+                archived += moved == null ? 0 : moved;
+                lastMsgId = msgIds.get(msgIds.size() - 1);
+                batches++;
+                if (msgIds.size() < batchSize) {
+                    break;
+                }
+
+                // 3. 批次间暂停，避免长时间占用热表的锁与IO
+                Thread.sleep(batchPauseMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("消息归档被中断，已归档：{}", archived);
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("消息归档异常，已归档：{}，最后消息ID：{}", archived, lastMsgId, e);
+            throw new BusinessException(SystemErrorCode.FAILURE);
+        }
+
+        if (archived > 0) {
+            log.info("消息归档完成，热数据边界：{}，批次数：{}，归档消息数：{}", boundary, batches, archived);
+        }
+        return archived;
+    }
+
+    @Override
+    public Message getArchivedMessage(Long msgId) {
+        return messageMapper.selectArchiveById(msgId);
+    }
+
+    @Override
+    public List<Message> listMessagesByIds(Collection<Long> msgIds) {
+        if (msgIds == null || msgIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // 1. 先查热表
+        List<Message> messages = new ArrayList<>(messageMapper.selectBatchIds(msgIds));
+        if (messages.size() == msgIds.size()) {
+            return messages;
+        }
+
+        // 2. 未命中的ID回查归档表
+        Set<Long> found = messages.stream().map(Message::getMsgId).collect(Collectors.toSet());
+        List<Long> missing = msgIds.stream().filter(msgId -> !found.contains(msgId)).toList();
+        messages.addAll(messageMapper.selectArchiveBatchIds(missing));
+        return messages;
+    }
+
+    @Override
+    public List<Message> listConversationMessages(Long conversationId, Long lastMsgId, int limit) {
+        // 1. 先查热表，一页已满且最早一条晚于热数据边界时直接返回
+        List<Message> hot = messageMapper.selectByConversationCursor(conversationId, lastMsgId, limit);
+        if (hot.size() == limit && !hot.get(hot.size() - 1).getCreateTime().isBefore(getHotBoundary())) {
+            return hot;
+        }
+
+        // 2. 否则以相同游标查询归档表，按消息ID倒序合并后取前limit条（未读的旧消息仍在热表，两表ID可能交错）
+        List<Message> archived = messageMapper.selectArchiveByConversationCursor(conversationId, lastMsgId, limit);
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        List<Message> merged = new ArrayList<>(hot.size() + archived.size());
+        merged.addAll(hot);
+        merged.addAll(archived);
+        merged.sort(Comparator.comparing(Message::getMsgId).reversed());
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 归档一批消息（在事务内调用；复制与删除的条件相同，行数不一致说明期间有并发修改，抛异常回滚本批）
+     */
+    private int moveBatch(List<Long> msgIds, LocalDateTime boundary) {
+        int copied = messageMapper.copyToArchive(msgIds, boundary);
+        int deleted = messageMapper.deleteArchived(msgIds, boundary);
+        if (copied != deleted) {
+            log.error("消息归档行数不一致，复制：{}，删除：{}，首条消息ID：{}", copied, deleted, msgIds.get(0));
+            throw new BusinessException(SystemErrorCode.DATA_DELETE_FAILED);
+        }
+        return deleted;
+    }
+}
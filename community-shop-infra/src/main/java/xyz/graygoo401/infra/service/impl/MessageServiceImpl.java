@@ -1,32 +1,48 @@
 package xyz.graygoo401.infra.service.impl;
 
 import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import xyz.graygoo401.api.infra.dto.message.*;
+import xyz.graygoo401.api.infra.enums.MessageSortFieldEnum;
 import xyz.graygoo401.api.infra.enums.MessageStatusEnum;
 import xyz.graygoo401.api.infra.enums.MessageTypeEnum;
 import xyz.graygoo401.api.user.dto.user.UserDTO;
 import xyz.graygoo401.api.user.util.UserUtil;
+import xyz.graygoo401.common.dto.PageParam;
 import xyz.graygoo401.common.dto.PageResult;
+import xyz.graygoo401.common.enums.SortDirectionEnum;
 import xyz.graygoo401.common.exception.BusinessException;
 import xyz.graygoo401.common.exception.error.SystemErrorCode;
+import xyz.graygoo401.common.export.CsvStreamWriter;
+import xyz.graygoo401.common.export.ExportColumn;
 import xyz.graygoo401.common.service.BaseServiceImpl;
+import xyz.graygoo401.common.util.TransactionUtil;
 import xyz.graygoo401.infra.convert.MessageConvert;
+import xyz.graygoo401.infra.dao.entity.Announcement;
+import xyz.graygoo401.infra.dao.entity.Conversation;
 import xyz.graygoo401.infra.dao.entity.Message;
 import xyz.graygoo401.infra.dao.mapper.MessageMapper;
 import xyz.graygoo401.infra.exception.error.MessageErrorCode;
+import xyz.graygoo401.infra.service.base.AnnouncementService;
+import xyz.graygoo401.infra.service.base.ConversationService;
+import xyz.graygoo401.infra.service.base.MessageArchiveService;
 import xyz.graygoo401.infra.service.base.MessageService;
+import xyz.graygoo401.infra.service.base.PushService;
+import xyz.graygoo401.infra.util.UnreadCountCacheUtil;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -37,13 +53,31 @@ import java.util.stream.Collectors;
 public class MessageServiceImpl extends BaseServiceImpl<MessageMapper, Message> implements MessageService {
 
     // 缓存相关常量
-    private static final String CACHE_KEY_UNREAD_STAT = "message:unread:stat:"; // 未读统计缓存Key前缀
     private static final String CACHE_KEY_RECENT_UNREAD = "message:recent:unread:"; // 最近未读预览缓存Key前缀
-    private static final long CACHE_TTL_UNREAD_STAT = 5; // 未读统计缓存有效期（分钟）
     private static final long CACHE_TTL_RECENT_UNREAD = 3; // 最近未读预览缓存有效期（分钟）
     private static final int MAX_RECENT_UNREAD_COUNT = 3; // 最近未读消息预览最大条数
     private static final int MAX_MESSAGE_CONTENT_LENGTH = 1000; // 消息内容最大长度（字符）
     private static final int MAX_NOTICE_TITLE_LENGTH = 50; // 系统公告标题最大长度（字符）
+    private static final int UNREAD_RECONCILE_BATCH_SIZE = 200; // 未读计数对账每批用户数
+    private static final int MAX_INSERT_BATCH_ROWS = 500; // 批量写入时单条INSERT最大行数
+    private static final int MAX_BATCH_READ_IDS = 500; // 批量已读单次最多消息ID数
+    private static final String SYSTEM_SENDER_NAME = "系统通知"; // 系统消息发送者昵称
+    private static final String SYSTEM_SENDER_AVATAR = "/static/avatar/system_default.png"; // 系统默认头像
+    private static final DateTimeFormatter EXPORT_FILE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss"); // 导出文件名时间格式
+
+    // 消息导出列（流式导出时逐行取值）
+    private static final List<ExportColumn<Message>> MESSAGE_EXPORT_COLUMNS = List.of(
+            ExportColumn.of("消息ID", Message::getMsgId),
+            ExportColumn.of("发送者ID", Message::getSenderId),
+            ExportColumn.of("接收者ID", Message::getReceiverId),
+            ExportColumn.of("消息类型", message -> message.getType() == null ? null : message.getType().getDesc()),
+            ExportColumn.of("标题", Message::getTitle),
+            ExportColumn.of("内容", Message::getContent),
+            ExportColumn.of("关联订单ID", Message::getOrderId),
+            ExportColumn.of("是否已读", message -> Boolean.TRUE.equals(message.getIsRead()) ? "是" : "否"),
+            ExportColumn.of("是否已删除", message -> Boolean.TRUE.equals(message.getIsDeleted()) ? "是" : "否"),
+            ExportColumn.of("发送时间", Message::getCreateTime)
+    );
 
     @Autowired
     private MessageMapper messageMapper;
@@ -57,6 +91,21 @@ public class MessageServiceImpl extends BaseServiceImpl<MessageMapper, Message>
     @Autowired
     private MessageConvert messageConvert;
 
+    @Autowired
+    private UnreadCountCacheUtil unreadCountCacheUtil;
+
+    @Autowired
+    private AnnouncementService announcementService;
+
+    @Autowired
+    private PushService pushService;
+
+    @Autowired
+    private ConversationService conversationService;
+
+    @Autowired
+    private MessageArchiveService messageArchiveService;
+
     /**
      * 发送业务触发消息（如订单支付通知、评价提醒）
      *
@@ -83,19 +132,30 @@ public class MessageServiceImpl extends BaseServiceImpl<MessageMapper, Message>
                 throw new BusinessException(MessageErrorCode.RECEIVER_NOT_EXISTS);
             }
 
-            // 3. 构建Message实体
+            // 3. 构建Message实体（私信归入双方的会话，首次私信时创建会话）
             Message message = buildBusinessMessage(messageSendDTO);
             message.setSenderId(userId);
+            boolean privateMessage = MessageTypeEnum.PRIVATE.equals(message.getType());
+            if (privateMessage) {
+                if (userId.equals(message.getReceiverId())) {
+                    throw new BusinessException(SystemErrorCode.PARAM_ERROR, "不能给自己发送私信");
+                }
+                message.setConversationId(conversationService.getOrCreateConversationId(userId, message.getReceiverId()));
+            }
 
-            // 4. 插入数据库
+            // 4. 插入数据库，私信同时更新会话的最后一条消息与接收方未读数
             int insertRows = messageMapper.insert(message);
             if (insertRows <= 0) {
                 log.error("发送业务消息失败，数据库插入失败，消息参数：{}", messageSendDTO);
                 throw new BusinessException(SystemErrorCode.DATA_INSERT_FAILED);
             }
+            if (privateMessage) {
+                conversationService.recordMessage(message);
+            }
 
-            // 5. 更新未读消息缓存（+1）
-            updateUnreadStatCache(messageSendDTO.getReceiverId(), 1);
+            // 5. 更新未读消息计数（+1），事务提交后推送给在线接收人
+            updateUnreadCount(message.getReceiverId(), message.getType(), 1);
+            pushMessages(List.of(message));
 
             log.info("发送业务消息成功，消息ID：{}，接收人ID：{}，消息类型：{}",
                     message.getMsgId(), messageSendDTO.getReceiverId(), messageSendDTO.getType());
@@ -140,6 +200,10 @@ public class MessageServiceImpl extends BaseServiceImpl<MessageMapper, Message>
                 throw new BusinessException(SystemErrorCode.DATA_INSERT_FAILED);
             }
 
+            // 5. 更新未读消息计数（+1），事务提交后推送给在线接收人
+            updateUnreadCount(message.getReceiverId(), message.getType(), 1);
+            pushMessages(List.of(message));
+
             log.info("发送系统通知成功，消息ID：{}，接收人ID：{}，消息类型：{}",
                     message.getMsgId(), messageSendDTO.getReceiverId(), messageSendDTO.getType());
             return message.getMsgId();
@@ -151,6 +215,77 @@ public class MessageServiceImpl extends BaseServiceImpl<MessageMapper, Message>
         }
     }
 
+    /**
+     * 批量发送系统通知（通知批量消费使用）
+     * 一次批量查询接收人，按单条INSERT最多500行分段多行写入，事务提交后一次管道更新未读计数；
+     * 参数不合法或接收人不存在的通知跳过并记录日志，不影响同批其他通知
+     *
+     * @param sendDTOs 通知参数列表
+     * @return 写入的通知数
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public int sendNoticeBatch(List<MessageSendDTO> sendDTOs) {
+        try {
+            if (Objects.isNull(sendDTOs) || sendDTOs.isEmpty()) {
+                return 0;
+            }
+
+            // 1. 参数校验（不合法的通知跳过）
+            List<MessageSendDTO> validDTOs = new ArrayList<>(sendDTOs.size());
+            for (MessageSendDTO sendDTO : sendDTOs) {
+                try {
+                    validateBusinessMessageParam(sendDTO);
+                    validDTOs.add(sendDTO);
+                } catch (BusinessException e) {
+                    log.warn("批量发送通知跳过不合法通知，原因：{}，消息参数：{}", e.getMessage(), sendDTO);
+                }
+            }
+            if (validDTOs.isEmpty()) {
+                return 0;
+            }
+
+            // 2. 一次批量查询接收人
+            List<Long> receiverIds = validDTOs.stream().map(MessageSendDTO::getReceiverId).distinct().collect(Collectors.toList());
+            Map<Long, UserDTO> receiverMap = userUtil.getUserMapByIds(receiverIds);
+
+            // 3. 构建Message实体（接收人不存在的通知跳过）
+            List<Message> messages = new ArrayList<>(validDTOs.size());
+            for (MessageSendDTO sendDTO : validDTOs) {
+                if (!receiverMap.containsKey(sendDTO.getReceiverId())) {
+                    log.warn("批量发送通知跳过接收人不存在的通知，接收人ID：{}", sendDTO.getReceiverId());
+                    continue;
+                }
+                Message message = buildBusinessMessage(sendDTO);
+                message.setTitle(sendDTO.getTitle());
+                message.setIsRead(false);
+                message.setIsDeleted(false);
+                messages.add(message);
+            }
+
+            // 4. 分段多行写入
+            for (int from = 0; from < messages.size(); from += MAX_INSERT_BATCH_ROWS) {
+                List<Message> chunk = messages.subList(from, Math.min(from + MAX_INSERT_BATCH_ROWS, messages.size()));
+                if (messageMapper.insertBatch(chunk) != chunk.size()) {
+                    log.error("批量发送通知失败，数据库写入行数不符，应写入：{}", chunk.size());
+                    throw new BusinessException(SystemErrorCode.DATA_INSERT_FAILED);
+                }
+            }
+
+            // 5. 事务提交后一次管道更新未读计数，并推送给在线接收人（按节点分组发布）
+            updateUnreadCounts(messages);
+            pushMessages(messages);
+
+            log.info("批量发送通知成功，提交数：{}，写入数：{}，接收人数：{}", sendDTOs.size(), messages.size(), receiverIds.size());
+            return messages.size();
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("批量发送通知异常，通知数：{}", sendDTOs.size(), e);
+            throw new BusinessException(SystemErrorCode.FAILURE);
+        }
+    }
+
     /**
      * 获取消息详情
      *
@@ -170,6 +305,10 @@ public class MessageServiceImpl extends BaseServiceImpl<MessageMapper, Message>
             }
 
             Message message= messageMapper.selectById(msgId);
+            if (Objects.isNull(message)) {
+                // 热表未命中时回查归档表（较早的已读消息已迁出）
+                message = messageArchiveService.getArchivedMessage(msgId);
+            }
             if (Objects.isNull(message)) {
                 log.error("获取消息详情失败，消息不存在，消息ID：{}", msgId);
                 throw new BusinessException(MessageErrorCode.MESSAGE_NOT_EXISTS);
@@ -219,27 +358,37 @@ public class MessageServiceImpl extends BaseServiceImpl<MessageMapper, Message>
                 throw new BusinessException(SystemErrorCode.PARAM_NULL);
             }
 
-            // 2. 校验消息存在且操作人是接收人
+            // 2. 校验消息存在且操作人是接收人（热表未命中时回查归档表）
             Message message = messageMapper.selectById(statusUpdateDTO.getMessageId());
+            boolean archived = false;
+            if (Objects.isNull(message)) {
+                message = messageArchiveService.getArchivedMessage(statusUpdateDTO.getMessageId());
+                archived = Objects.nonNull(message);
+            }
             validateMessageOwner(message, userId);
 
-            // 3. 执行状态更新
+            // 3. 执行状态更新（归档消息在归档表上更新）
             int updateRows;
             switch (statusUpdateDTO.getTargetStatus()){
                 case MessageStatusEnum.READ:
-                    updateRows =  messageMapper.updateReadStatus(statusUpdateDTO.getMessageId(), true);
+                    updateRows = archived
+                            ? messageMapper.updateArchiveReadStatus(statusUpdateDTO.getMessageId(), true)
+                            : messageMapper.updateReadStatus(statusUpdateDTO.getMessageId(), true);
                     break;
                 case MessageStatusEnum.DELETED:
-                    updateRows = messageMapper.updateDeleteStatus(statusUpdateDTO.getMessageId(), true);
+                    updateRows = archived
+                            ? messageMapper.updateArchiveDeleteStatus(statusUpdateDTO.getMessageId(), true)
+                            : messageMapper.updateDeleteStatus(statusUpdateDTO.getMessageId(), true);
                     break;
                 default:
                     throw new BusinessException(MessageErrorCode.MESSAGE_STATUS_TRANSITION_INVALID);
             }
 
             if (updateRows > 0) {
-                // 5. 若从“未读”转为其他状态，更新未读缓存（-1）
+                // 5. 若从“未读”转为其他状态，更新未读计数与会话未读数（-1）
                 if (!message.getIsRead()) {
-                    updateUnreadStatCache(userId, -1);
+                    updateUnreadCount(message.getReceiverId(), message.getType(), -1);
+                    conversationService.decreaseUnread(message.getConversationId(), message.getReceiverId(), message.getSenderId(), 1);
                 }
                 // 6. 清除相关缓存（最近未读预览）
                 clearRecentUnreadCache(userId);
@@ -273,25 +422,28 @@ public class MessageServiceImpl extends BaseServiceImpl<MessageMapper, Message>
             int pageNum = Objects.nonNull(messageQueryDTO.getPageNum()) ? messageQueryDTO.getPageNum() : 1;
             int pageSize = Objects.nonNull(messageQueryDTO.getPageSize()) ? messageQueryDTO.getPageSize() : 10;
 
-            // 2. 分页查询数据库
-            long total = messageMapper.countByQuery(messageQueryDTO);
-            List<Message> messageList = messageMapper.selectByQuery(messageQueryDTO);
+            // 2. 系统消息按发送时间排序时合并全员公告（读时扇出）
+            if (MessageTypeEnum.SYSTEM.equals(messageQueryDTO.getType())
+                    && MessageSortFieldEnum.CREATE_TIME.equals(messageQueryDTO.getSortField())) {
+                return searchSystemMessagesWithAnnouncements(userId, messageQueryDTO, pageNum, pageSize);
+            }
+
+            // 3. 分页查询数据库（热表读完后续查归档表；按发送时间升序时归档消息在前）
+            long hotTotal = messageMapper.countByQuery(messageQueryDTO);
+            long archiveTotal = messageMapper.countArchiveByQuery(messageQueryDTO);
+            long total = hotTotal + archiveTotal;
+            boolean archiveFirst = MessageSortFieldEnum.CREATE_TIME.equals(messageQueryDTO.getSortField())
+                    && SortDirectionEnum.ASC.equals(messageQueryDTO.getSortDir());
+            List<Message> messageList = pageAcrossArchive(messageQueryDTO, hotTotal, archiveTotal, archiveFirst,
+                    (long) (pageNum - 1) * pageSize, pageSize, messageMapper::selectByQuery, messageMapper::selectArchiveByQuery);
             long totalPages = total % pageSize == 0 ? total / pageSize : total / pageSize + 1;
 
-            // 3. 转换为DTO列表（脱敏发送者信息）
+            // 4. 转换为DTO列表（脱敏发送者信息）
             List<MessageListItemDTO> dtoList = messageList.stream()
-                    .map(message -> {
-                        MessageListItemDTO dto = messageConvert.messageToMessageListItemDTO(message);
-                        // 处理系统消息发送者信息（固定为“系统通知”）
-                        if (MessageTypeEnum.SYSTEM.equals(message.getType())) {
-                            dto.getSender().setUsername("系统通知");
-                            dto.getSender().setAvatarUrl("/static/avatar/system_default.png"); // 系统默认头像
-                        }
-                        return dto;
-                    })
+                    .map(this::toMessageListItemDTO)
                     .collect(Collectors.toList());
 
-            // 4. 封装分页结果
+            // 5. 封装分页结果
             PageResult<MessageListItemDTO> pageResult = new PageResult<>();
             pageResult.setTotal(total);
             pageResult.setTotalPages(totalPages);
@@ -326,11 +478,15 @@ public class MessageServiceImpl extends BaseServiceImpl<MessageMapper, Message>
             }
 
 
-            // 2.分段查询数据库
-            List<Message> messages = messageMapper.selectByPrivateQuery(queryDTO);
+            // 2.分段查询数据库（页大小取请求参数，不随本页实际条数变化；按时间升序，归档消息在前）
+            queryDTO.setOffset();
+            int pageSize = queryDTO.getPageSize();
+            long hotTotal = messageMapper.countByPrivateQuery(queryDTO);
+            long archiveTotal = messageMapper.countArchiveByPrivateQuery(queryDTO);
+            long total = hotTotal + archiveTotal;
+            List<Message> messages = pageAcrossArchive(queryDTO, hotTotal, archiveTotal, true, queryDTO.getOffset(), pageSize,
+                    messageMapper::selectByPrivateQuery, messageMapper::selectArchiveByPrivateQuery);
             List<PrivateMessageDetailDTO> messageDTOs = convertMessagesToDTOs(messages);
-            int pageSize = messages.size();
-            long total = messageMapper.countByPrivateQuery(queryDTO);
             long totalPages = total % pageSize == 0 ? total / pageSize : total / pageSize + 1;
 
             // 封装分页结果
@@ -417,6 +573,45 @@ public class MessageServiceImpl extends BaseServiceImpl<MessageMapper, Message>
         }
     }
 
+    /**
+     * 流式导出消息日志CSV
+     * 核心逻辑：参数校验→设置下载响应头→事务内打开数据库游标→逐行写出（按分块flush）
+     * 时间范围早于热数据边界时同时打开归档表与热表游标，按消息ID归并后写出
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportMessages(MessageTypeEnum msgType, LocalDateTime startTime, LocalDateTime endTime, HttpServletResponse response) {
+        // 1. 参数校验
+        if (startTime != null && endTime != null && startTime.isAfter(endTime)) {
+            throw new BusinessException(SystemErrorCode.PARAM_ERROR, "开始时间不能晚于结束时间");
+        }
+
+        // 2. 设置下载响应头（此后开始写出数据，异常无法再以JSON返回）
+        CsvStreamWriter.prepareResponse(response, "消息导出_" + LocalDateTime.now().format(EXPORT_FILE_TIME_FORMATTER));
+
+        // 3. 逐行读取游标并写出
+        long rows = 0;
+        try {
+            CsvStreamWriter<Message> writer = new CsvStreamWriter<>(response.getOutputStream(), MESSAGE_EXPORT_COLUMNS);
+            if (messageArchiveService.reachesArchive(startTime)) {
+                // 两个游标同时打开（MySQL需开启useCursorFetch，服务端游标互不阻塞）
+                try (Cursor<Message> archiveCursor = messageMapper.streamArchiveForExport(msgType, startTime, endTime);
+                     Cursor<Message> cursor = messageMapper.streamForExport(msgType, startTime, endTime)) {
+                    rows = writer.writeAll(mergeByMsgId(archiveCursor, cursor));
+                }
+            } else {
+                try (Cursor<Message> cursor = messageMapper.streamForExport(msgType, startTime, endTime)) {
+                    rows = writer.writeAll(cursor);
+                }
+            }
+            log.info("消息导出完成，类型：{}，时间范围：{} ~ {}，行数：{}", msgType, startTime, endTime, rows);
+        } catch (IOException e) {
+            // 客户端中断下载或连接断开（响应已提交，仅记录日志）
+            log.warn("消息导出中断，类型：{}，原因：{}", msgType, e.getMessage());
+        }
+        return rows;
+    }
+
     // ---------------------- 私有辅助方法 ----------------------
 
     /**
@@ -460,6 +655,22 @@ public class MessageServiceImpl extends BaseServiceImpl<MessageMapper, Message>
         return message;
     }
 
+    /**
+     * 校验批量已读参数（至少指定一个条件，消息ID列表不超过上限）
+     */
+    private void validateBatchReadParam(MessageBatchReadDTO batchReadDTO) {
+        if (Objects.isNull(batchReadDTO)) {
+            throw new BusinessException(SystemErrorCode.PARAM_NULL);
+        }
+        boolean hasIds = Objects.nonNull(batchReadDTO.getMsgIds()) && !batchReadDTO.getMsgIds().isEmpty();
+        if (!hasIds && Objects.isNull(batchReadDTO.getType()) && Objects.isNull(batchReadDTO.getBefore())) {
+            throw new BusinessException(SystemErrorCode.PARAM_ERROR, "至少指定消息ID列表、消息类型或时间上限之一");
+        }
+        if (hasIds && batchReadDTO.getMsgIds().size() > MAX_BATCH_READ_IDS) {
+            throw new BusinessException(SystemErrorCode.PARAM_ERROR, "单次最多标记" + MAX_BATCH_READ_IDS + "条消息");
+        }
+    }
+
     /**
      * 校验消息归属（操作人是否为接收人）
      */
@@ -475,27 +686,282 @@ public class MessageServiceImpl extends BaseServiceImpl<MessageMapper, Message>
     }
 
     /**
-     * 更新未读消息统计缓存
+     * 原子增减未读消息计数（事务提交后执行，回滚的消息不计入；计数未加载时跳过，下次读取时按数据库计数加载）
      *
-     * @param userId     用户ID
+     * @param userId      接收人ID
+     * @param type        消息类型
      * @param changeCount 变更数量（+1：新增未读；-1：减少未读）
      */
-    private void updateUnreadStatCache(Long userId, int changeCount) {
-        String cacheKey = CACHE_KEY_UNREAD_STAT + userId;
-        // 先尝试获取缓存并更新
-        MessageStatDTO cachedStat = (MessageStatDTO) redisTemplate.opsForValue().get(cacheKey);
-        if (Objects.nonNull(cachedStat)) {
-            // 更新总未读
-            int newTotal = Math.max(cachedStat.getTotalUnread() + changeCount, 0);
-            cachedStat.setTotalUnread(newTotal);
-            // 此处简化处理：实际需根据消息类型更新对应类型的未读数，需结合具体场景传递类型参数
-            redisTemplate.opsForValue().set(cacheKey, cachedStat, CACHE_TTL_UNREAD_STAT, TimeUnit.MINUTES);
-            log.info("更新用户未读缓存，用户ID：{}，变更数量：{}，更新后总未读：{}", userId, changeCount, newTotal);
-        } else {
-            // 缓存未命中，触发主动查询（后续请求会命中缓存）
-            countUnreadMessages(userId);
-            log.info("未读缓存未命中，触发主动查询，用户ID：{}", userId);
+    private void updateUnreadCount(Long userId, MessageTypeEnum type, int changeCount) {
+        if (Objects.isNull(userId) || Objects.isNull(type)) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> {
+            try {
+                unreadCountCacheUtil.increment(userId, type, changeCount);
+            } catch (Exception e) {
+                // 计数更新失败不影响消息本身，由对账任务校正
+                log.error("更新未读计数失败，用户ID：{}，消息类型：{}，变更数量：{}", userId, type, changeCount, e);
+            }
+        });
+    }
+
+    /**
+     * 按接收人、消息类型汇总新增未读数，事务提交后一次管道更新（计数未加载的用户跳过）
+     */
+    private void updateUnreadCounts(List<Message> messages) {
+        Map<Long, Map<MessageTypeEnum, Long>> deltas = new HashMap<>();
+        for (Message message : messages) {
+            deltas.computeIfAbsent(message.getReceiverId(), userId -> new EnumMap<>(MessageTypeEnum.class))
+                    .merge(message.getType(), 1L, Long::sum);
+        }
+        updateUnreadCounts(deltas);
+    }
+
+    /**
+     * 按用户、消息类型的变更量（正数增加、负数减少）在事务提交后一次管道更新未读计数
+     */
+    private void updateUnreadCounts(Map<Long, Map<MessageTypeEnum, Long>> deltas) {
+        TransactionUtil.afterCommit(() -> {
+            try {
+                unreadCountCacheUtil.incrementAll(deltas);
+            } catch (Exception e) {
+                // 计数更新失败不影响消息本身，由对账任务校正
+                log.error("批量更新未读计数失败，用户数：{}", deltas.size(), e);
+            }
+        });
+    }
+
+    /**
+     * 事务提交后推送新消息给在线接收人（推送失败只记录日志，客户端可通过未读统计补偿）
+     */
+    private void pushMessages(List<Message> messages) {
+        List<MessagePushDTO> events = messages.stream().map(message -> {
+            MessagePushDTO event = new MessagePushDTO();
+            event.setReceiverId(message.getReceiverId());
+            event.setMessageId(message.getMsgId());
+            event.setType(message.getType());
+            event.setTitle(message.getTitle());
+            event.setContentSummary(messageConvert.getContentSummary(message.getContent()));
+            event.setIsAnnouncement(false);
+            event.setCreateTime(message.getCreateTime());
+            return event;
+        }).collect(Collectors.toList());
+        TransactionUtil.afterCommit(() -> pushService.push(events));
+    }
+
+    /**
+     * 批量获取各类型未读数：先读缓存，未加载的用户一次分组查询数据库并写入缓存（Redis不可用时全部查库）
+     */
+    private Map<Long, Map<MessageTypeEnum, Integer>> batchGetUnreadCounts(List<Long> userIds) {
+        // 1. 管道批量读取缓存
+        Map<Long, Map<MessageTypeEnum, Integer>> countsByUser = new LinkedHashMap<>();
+        boolean cacheAvailable = true;
+        try {
+            countsByUser.putAll(unreadCountCacheUtil.multiGet(userIds));
+        } catch (Exception e) {
+            log.error("读取未读计数缓存失败，按数据库统计，用户ID：{}", userIds, e);
+            cacheAvailable = false;
+        }
+
+        // 2. 未命中的用户合并查询数据库
+        List<Long> missedUserIds = userIds.stream().filter(userId -> !countsByUser.containsKey(userId)).collect(Collectors.toList());
+        if (missedUserIds.isEmpty()) {
+            return countsByUser;
+        }
+        Map<Long, Map<MessageTypeEnum, Integer>> dbCounts = queryUnreadCounts(missedUserIds);
+        for (Long userId : missedUserIds) {
+            Map<MessageTypeEnum, Integer> counts = dbCounts.getOrDefault(userId, new EnumMap<>(MessageTypeEnum.class));
+            countsByUser.put(userId, counts);
+
+            // 3. 写入缓存（已被其他请求加载时不覆盖）
+            if (cacheAvailable) {
+                try {
+                    unreadCountCacheUtil.load(userId, counts);
+                } catch (Exception e) {
+                    log.error("加载未读计数缓存失败，用户ID：{}", userId, e);
+                }
+            }
+        }
+        return countsByUser;
+    }
+
+    /**
+     * 按接收人、消息类型分组查询数据库未读数
+     */
+    private Map<Long, Map<MessageTypeEnum, Integer>> queryUnreadCounts(List<Long> userIds) {
+        Map<Long, Map<MessageTypeEnum, Integer>> countsByUser = new HashMap<>();
+        for (MessageUnreadCountDTO row : messageMapper.countUnreadGroupByType(userIds)) {
+            countsByUser.computeIfAbsent(row.getReceiverId(), userId -> new EnumMap<>(MessageTypeEnum.class))
+                    .put(row.getType(), row.getUnreadCount());
         }
+        return countsByUser;
+    }
+
+    /**
+     * 将各类型未读数封装为未读统计DTO（未读公告计入系统消息）
+     */
+    private MessageStatDTO buildMessageStat(Map<MessageTypeEnum, Integer> counts, int announcementUnread) {
+        MessageStatDTO statDTO = new MessageStatDTO();
+        statDTO.setSystemUnread(counts.getOrDefault(MessageTypeEnum.SYSTEM, 0) + announcementUnread);
+        statDTO.setOrderUnread(counts.getOrDefault(MessageTypeEnum.ORDER, 0));
+        statDTO.setPrivateUnread(counts.getOrDefault(MessageTypeEnum.PRIVATE, 0));
+        statDTO.setTotalUnread(counts.values().stream().mapToInt(Integer::intValue).sum() + announcementUnread);
+        return statDTO;
+    }
+
+    /**
+     * 系统消息列表合并全员公告：公告与消息各自按发送时间有序，归并后取当前页
+     * 参与合并的公告最多100条，消息只需读取[页起点 - 公告数, 页终点)的窗口：
+     * 窗口之前的公告排名必然小于页起点，窗口读满时窗口之后的公告排名必然不小于页终点
+     */
+    private PageResult<MessageListItemDTO> searchSystemMessagesWithAnnouncements(Long userId, MessageQueryDTO queryDTO,
+                                                                                int pageNum, int pageSize) {
+        // 1. 按查询条件过滤公告（已读状态由阅读游标决定），按排序方向排列
+        boolean ascending = SortDirectionEnum.ASC.equals(queryDTO.getSortDir());
+        long lastSeenId = announcementService.getLastSeenId(userId);
+        String keyword = queryDTO.getKeyword();
+        Comparator<Announcement> byCreateTime = Comparator.comparing(Announcement::getCreateTime);
+        List<Announcement> announcements = announcementService.listRecentAnnouncements().stream()
+                .filter(announcement -> Objects.isNull(queryDTO.getIsRead())
+                        || queryDTO.getIsRead() == (announcement.getAnnouncementId() <= lastSeenId))
+                .filter(announcement -> !StringUtils.hasText(keyword)
+                        || announcement.getTitle().contains(keyword) || announcement.getContent().contains(keyword))
+                .sorted(ascending ? byCreateTime : byCreateTime.reversed())
+                .collect(Collectors.toList());
+
+        // 2. 读取消息窗口
+        long offset = (long) (pageNum - 1) * pageSize;
+        long pageEnd = offset + pageSize;
+        long windowStart = Math.max(0, offset - announcements.size());
+        long hotTotal = messageMapper.countByQuery(queryDTO);
+        long archiveTotal = messageMapper.countArchiveByQuery(queryDTO);
+        List<Message> window = pageAcrossArchive(queryDTO, hotTotal, archiveTotal, ascending, windowStart,
+                (int) (pageEnd - windowStart), messageMapper::selectByQuery, messageMapper::selectArchiveByQuery);
+        long total = hotTotal + archiveTotal + announcements.size();
+
+        // 3. 归并：排名 = 窗口起点 + 已归并消息数 + 已归并公告数，落在当前页内的加入结果
+        List<MessageListItemDTO> dtoList = new ArrayList<>(pageSize);
+        int i = 0;
+        int j = 0;
+        while ((i < window.size() || j < announcements.size()) && windowStart + i + j < pageEnd) {
+            long rank = windowStart + i + j;
+            boolean takeAnnouncement = i >= window.size() || (j < announcements.size()
+                    && (ascending ? !announcements.get(j).getCreateTime().isAfter(window.get(i).getCreateTime())
+                                  : !announcements.get(j).getCreateTime().isBefore(window.get(i).getCreateTime())));
+            MessageListItemDTO dto = takeAnnouncement
+                    ? toAnnouncementListItemDTO(announcements.get(j++), lastSeenId)
+                    : toMessageListItemDTO(window.get(i++));
+            if (rank >= offset) {
+                dtoList.add(dto);
+            }
+        }
+
+        // 4. 封装分页结果
+        long totalPages = total % pageSize == 0 ? total / pageSize : total / pageSize + 1;
+        log.info("查询系统消息列表成功（含公告），用户ID：{}，总条数：{}，参与合并公告数：{}", userId, total, announcements.size());
+        return new PageResult<>(total, totalPages, dtoList, pageNum, pageSize);
+    }
+
+    /**
+     * 热表与归档表拼接分页：两表各自按查询条件排序，视为先后相连的两段，页窗口落在哪段就查哪段，跨段时各取一部分
+     * 热表只有未读消息会早于热数据边界，按发送时间倒序时这些旧的未读消息排在归档消息之前
+     * @param archiveFirst 归档表在前（按发送时间升序时为true）
+     * @param offset 页起点（两段合计的偏移量）
+     * @param limit 页大小
+     */
+    private <Q extends PageParam> List<Message> pageAcrossArchive(Q query, long hotTotal, long archiveTotal, boolean archiveFirst,
+                                                                 long offset, int limit,
+                                                                 Function<Q, List<Message>> hotQuery,
+                                                                 Function<Q, List<Message>> archiveQuery) {
+        long firstTotal = archiveFirst ? archiveTotal : hotTotal;
+        long secondTotal = archiveFirst ? hotTotal : archiveTotal;
+        Function<Q, List<Message>> firstQuery = archiveFirst ? archiveQuery : hotQuery;
+        Function<Q, List<Message>> secondQuery = archiveFirst ? hotQuery : archiveQuery;
+
+        // 1. 页起点落在第一段内时查询第一段
+        List<Message> page = new ArrayList<>(limit);
+        if (offset < firstTotal) {
+            query.setOffset((int) offset);
+            query.setPageSize(limit);
+            page.addAll(firstQuery.apply(query));
+        }
+
+        // 2. 第一段已读完仍不足一页时，从第二段的对应位置续查
+        int remaining = limit - page.size();
+        if (remaining > 0 && secondTotal > 0) {
+            query.setOffset((int) Math.max(0, offset - firstTotal));
+            query.setPageSize(remaining);
+            page.addAll(secondQuery.apply(query));
+        }
+        return page;
+    }
+
+    /**
+     * 按消息ID升序归并两个有序数据源（未读的旧消息留在热表，两表的消息ID可能交错）
+     */
+    private static Iterable<Message> mergeByMsgId(Iterable<Message> first, Iterable<Message> second) {
+        return () -> new Iterator<>() {
+            private final Iterator<Message> firstIt = first.iterator();
+            private final Iterator<Message> secondIt = second.iterator();
+            private Message firstHead = firstIt.hasNext() ? firstIt.next() : null;
+            private Message secondHead = secondIt.hasNext() ? secondIt.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return firstHead != null || secondHead != null;
+            }
+
+            @Override
+            public Message next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Message next;
+                if (secondHead == null || (firstHead != null && firstHead.getMsgId() < secondHead.getMsgId())) {
+                    next = firstHead;
+                    firstHead = firstIt.hasNext() ? firstIt.next() : null;
+                } else {
+                    next = secondHead;
+                    secondHead = secondIt.hasNext() ? secondIt.next() : null;
+                }
+                return next;
+            }
+        };
+    }
+
+    /**
+     * 消息实体转列表项（系统消息发送者固定为“系统通知”）
+     */
+    private MessageListItemDTO toMessageListItemDTO(Message message) {
+        MessageListItemDTO dto = messageConvert.messageToMessageListItemDTO(message);
+        if (MessageTypeEnum.SYSTEM.equals(message.getType())) {
+            dto.getSender().setUsername(SYSTEM_SENDER_NAME);
+            dto.getSender().setAvatarUrl(SYSTEM_SENDER_AVATAR);
+        }
+        dto.setIsAnnouncement(false);
+        return dto;
+    }
+
+    /**
+     * 公告转列表项（公告ID不大于阅读游标即为已读）
+     */
+    private MessageListItemDTO toAnnouncementListItemDTO(Announcement announcement, long lastSeenId) {
+        MessageListItemDTO.Sender sender = new MessageListItemDTO.Sender();
+        sender.setUserId(0L);
+        sender.setUsername(SYSTEM_SENDER_NAME);
+        sender.setAvatarUrl(SYSTEM_SENDER_AVATAR);
+
+        MessageListItemDTO dto = new MessageListItemDTO();
+        dto.setMessageId(announcement.getAnnouncementId());
+        dto.setContentSummary(messageConvert.getContentSummary(announcement.getContent()));
+        dto.setSender(sender);
+        dto.setType(MessageTypeEnum.SYSTEM);
+        dto.setStatus(announcement.getAnnouncementId() <= lastSeenId ? MessageStatusEnum.READ : MessageStatusEnum.UNREAD);
+        dto.setCreateTime(announcement.getCreateTime());
+        dto.setHasAttachment(false);
+        dto.setIsAnnouncement(true);
+        return dto;
     }
 
     /**
@@ -560,6 +1026,8 @@ public class MessageServiceImpl extends BaseServiceImpl<MessageMapper, Message>
         if (rows <= 0) {
             throw new RuntimeException("通知发送失败");
         }
+        updateUnreadCount(sellerId, MessageTypeEnum.ORDER, 1);
+        pushMessages(List.of(message));
         return true;
     }
 
@@ -588,14 +1056,21 @@ public class MessageServiceImpl extends BaseServiceImpl<MessageMapper, Message>
         if (rows <= 0) {
             throw new BusinessException(SystemErrorCode.DATA_INSERT_FAILED);
         }
+        updateUnreadCount(buyerId, MessageTypeEnum.ORDER, 1);
+        pushMessages(List.of(message));
         return true;
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public Boolean markAsRead(Long userId, Long msgId) {
-        // 校验消息是否存在且属于当前用户
+        // 校验消息是否存在且属于当前用户（热表未命中时回查归档表）
         Message message = messageMapper.selectById(msgId);
+        boolean archived = false;
+        if (message == null) {
+            message = messageArchiveService.getArchivedMessage(msgId);
+            archived = message != null;
+        }
         if (message == null || message.getIsDeleted()) {
             throw new BusinessException(MessageErrorCode.MESSAGE_NOT_EXISTS);
         }
@@ -604,16 +1079,187 @@ public class MessageServiceImpl extends BaseServiceImpl<MessageMapper, Message>
         }
 
         // 标记为已读
-        int rows = messageMapper.updateReadStatus(msgId, true);
+        int rows = archived ? messageMapper.updateArchiveReadStatus(msgId, true) : messageMapper.updateReadStatus(msgId, true);
         if (rows <= 0) {
             throw new BusinessException(SystemErrorCode.DATA_UPDATE_FAILED);
         }
+        if (!message.getIsRead()) {
+            updateUnreadCount(message.getReceiverId(), message.getType(), -1);
+            conversationService.decreaseUnread(message.getConversationId(), message.getReceiverId(), message.getSenderId(), 1);
+        }
         return true;
     }
 
+    /**
+     * 标记与聊天对象的会话为已读
+     * 只标记会话当前最后一条消息及之前的未读私信，并按实际标记条数减少会话未读数与私信未读计数，
+     * 标记期间新到达的私信保持未读
+     *
+     * @param userId 用户ID
+     * @param partnerId 聊天对象ID
+     * @return 标记为已读的消息数
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public Integer markConversationRead(Long userId, Long partnerId) {
+        try {
+            // 1. 查询会话（无会话或无消息时无需处理）
+            Conversation conversation = conversationService.getConversation(userId, partnerId);
+            if (Objects.isNull(conversation) || Objects.isNull(conversation.getLastMsgId())) {
+                return 0;
+            }
+
+            // 2. 批量标记当前用户收到的未读私信
+            int readRows = messageMapper.markConversationRead(conversation.getConversationId(), userId, conversation.getLastMsgId());
+
+            // 3. 按实际标记条数减少会话未读数与私信未读计数，清除最近未读预览缓存
+            if (readRows > 0) {
+                conversationService.decreaseUnread(conversation.getConversationId(), userId, partnerId, readRows);
+                updateUnreadCount(userId, MessageTypeEnum.PRIVATE, -readRows);
+                clearRecentUnreadCache(userId);
+            }
+
+            log.info("标记私信会话已读成功，用户ID：{}，聊天对象ID：{}，标记条数：{}", userId, partnerId, readRows);
+            return readRows;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("标记私信会话已读异常，用户ID：{}，聊天对象ID：{}", userId, partnerId, e);
+            throw new BusinessException(SystemErrorCode.FAILURE);
+        }
+    }
+
+    /**
+     * 批量标记已读
+     * 核心逻辑：参数校验→按类型、会话分组统计命中的未读消息（归属校验在WHERE中）→一次UPDATE→
+     * 按类型汇总减少的未读数，事务提交后一次管道更新计数；私信按会话减少会话未读数，
+     * 更新行数与统计不一致（期间有并发的标记已读）时删除计数，并按会话重新统计会话未读数
+     *
+     * @param userId 用户ID
+     * @param batchReadDTO 批量已读条件（消息ID列表/消息类型/发送时间上限，至少指定一个）
+     * @return 标记为已读的消息数
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public Integer batchMarkAsRead(Long userId, MessageBatchReadDTO batchReadDTO) {
+        try {
+            // 1. 参数校验
+            validateBatchReadParam(batchReadDTO);
+
+            // 2. 按类型、会话分组统计命中的未读消息（不加锁，结果行数与命中条数无关），无命中时无需更新
+            List<MessageBatchReadGroupDTO> groups = messageMapper.countUnreadForBatchRead(userId, batchReadDTO);
+            if (groups.isEmpty()) {
+                return 0;
+            }
+
+            // 3. 一次UPDATE标记已读（不超过统计到的最大消息ID，期间到达的新消息保持未读）
+            Long maxMsgId = groups.stream().map(MessageBatchReadGroupDTO::getMaxMsgId).max(Long::compare).orElseThrow();
+            int unreadTotal = groups.stream().mapToInt(MessageBatchReadGroupDTO::getUnreadCount).sum();
+            int readRows = messageMapper.batchMarkRead(userId, batchReadDTO, maxMsgId);
+            boolean countMatched = readRows == unreadTotal;
+            if (!countMatched) {
+                // 统计与更新之间有并发的标记已读，计数无法按类型校正时删除计数，下次读取按数据库重建
+                log.warn("批量标记已读行数与统计不一致，用户ID：{}，统计：{}，更新：{}", userId, unreadTotal, readRows);
+                TransactionUtil.afterCommit(() -> unreadCountCacheUtil.evict(userId));
+            } else {
+                // 4. 按类型汇总减少的未读数，一次更新计数
+                Map<MessageTypeEnum, Long> typeDeltas = new EnumMap<>(MessageTypeEnum.class);
+                groups.forEach(group -> typeDeltas.merge(group.getType(), -(long) group.getUnreadCount(), Long::sum));
+                updateUnreadCounts(Map.of(userId, typeDeltas));
+            }
+
+            // 5. 私信按会话减少会话未读数（统计不一致时部分消息已由并发请求扣减，改为按会话重新统计）
+            groups.stream()
+                    .filter(group -> Objects.nonNull(group.getConversationId()))
+                    .forEach(group -> {
+                        if (countMatched) {
+                            conversationService.decreaseUnread(
+                                    group.getConversationId(), userId, group.getSenderId(), group.getUnreadCount());
+                        } else {
+                            conversationService.recountUnread(group.getConversationId(), userId, group.getSenderId());
+                        }
+                    });
+            clearRecentUnreadCache(userId);
+
+            log.info("批量标记已读成功，用户ID：{}，条件：{}，标记条数：{}", userId, batchReadDTO, readRows);
+            return readRows;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("批量标记已读异常，用户ID：{}，条件：{}", userId, batchReadDTO, e);
+            throw new BusinessException(SystemErrorCode.FAILURE);
+        }
+    }
+
     @Override
     public Integer countUnreadMessages(Long userId) {
-        return messageMapper.countUnread(userId);
+        return getUnreadStat(userId).getTotalUnread();
+    }
+
+    /**
+     * 获取用户未读消息统计（未读角标）
+     * 一次HGETALL读取全部类型的未读数，计数未加载或Redis不可用时按数据库分组计数
+     *
+     * @param userId 用户ID
+     * @return 总未读数及各类型未读数
+     */
+    @Override
+    public MessageStatDTO getUnreadStat(Long userId) {
+        if (Objects.isNull(userId)) {
+            throw new BusinessException(SystemErrorCode.PARAM_NULL);
+        }
+        Map<MessageTypeEnum, Integer> counts = batchGetUnreadCounts(List.of(userId)).get(userId);
+        return buildMessageStat(counts, announcementService.countUnread(userId));
+    }
+
+    /**
+     * 批量统计用户未读消息总数（管道批量读取计数，未加载的用户合并为一次数据库分组查询）
+     *
+     * @param userIds 用户ID列表
+     * @return 用户ID -> 未读消息总数
+     */
+    @Override
+    public Map<Long, Integer> batchCountUnreadMessages(List<Long> userIds) {
+        if (Objects.isNull(userIds) || userIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<Long> distinctUserIds = userIds.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        Map<Long, Integer> totals = new LinkedHashMap<>();
+        Map<Long, Integer> announcementUnread = announcementService.batchCountUnread(distinctUserIds);
+        batchGetUnreadCounts(distinctUserIds).forEach((userId, counts) ->
+                totals.put(userId, counts.values().stream().mapToInt(Integer::intValue).sum()
+                        + announcementUnread.getOrDefault(userId, 0)));
+        return totals;
+    }
+
+    /**
+     * 未读计数对账：分批比对已加载的计数与数据库分组计数，删除不一致的计数（下次读取时重新加载）
+     *
+     * @return 校正的用户数
+     */
+    @Override
+    public int reconcileUnreadCounts() {
+        int[] corrected = {0};
+        unreadCountCacheUtil.scanUserIds(UNREAD_RECONCILE_BATCH_SIZE, userIds -> {
+            // 1. 批量读取缓存计数与数据库计数
+            Map<Long, Map<MessageTypeEnum, Integer>> cachedCounts = unreadCountCacheUtil.multiGet(userIds);
+            Map<Long, Map<MessageTypeEnum, Integer>> dbCounts = queryUnreadCounts(userIds);
+
+            // 2. 逐用户比对，不一致时删除计数
+            for (Map.Entry<Long, Map<MessageTypeEnum, Integer>> entry : cachedCounts.entrySet()) {
+                Map<MessageTypeEnum, Integer> expected = dbCounts.getOrDefault(entry.getKey(), new EnumMap<>(MessageTypeEnum.class));
+                for (MessageTypeEnum type : MessageTypeEnum.values()) {
+                    if (!entry.getValue().getOrDefault(type, 0).equals(expected.getOrDefault(type, 0))) {
+                        log.warn("未读计数与数据库不一致，用户ID：{}，缓存：{}，数据库：{}", entry.getKey(), entry.getValue(), expected);
+                        unreadCountCacheUtil.evict(entry.getKey());
+                        corrected[0]++;
+                        break;
+                    }
+                }
+            }
+        });
+        log.info("未读计数对账完成，校正用户数：{}", corrected[0]);
+        return corrected[0];
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,333 @@
+package xyz.graygoo401.infra.service.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import xyz.graygoo401.api.infra.dto.message.MessagePushDTO;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.common.exception.error.SystemErrorCode;
+import xyz.graygoo401.infra.exception.error.MessageErrorCode;
+import xyz.graygoo401.infra.service.base.PushService;
+import xyz.graygoo401.infra.util.PushRegistryCacheUtil;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 消息实时推送服务实现类
+ * 1. 连接：每个SSE连接一个有界发送队列，由虚拟线程排空（发送阻塞只占用虚拟线程），单节点连接数设上限；
+ * 2. 路由：Redis登记用户所在节点，推送时按节点分组，每个节点一次发布，节点收到后投递给本地连接；
+ * 3. 背压：队列满时丢弃新事件，排空后补发一次resync事件，客户端据此重新拉取未读统计与消息列表；
+ * 4. 心跳：定时向空闲连接发送SSE注释行，发送失败的连接被移除，同时刷新本节点的用户登记。
+ */
+@Slf4j
+@Service
+public class PushServiceImpl implements PushService {
+
+    private static final String EVENT_CONNECTED = "connected"; // 连接成功事件
+    private static final String EVENT_MESSAGE = "message"; // 新消息事件
+    private static final String EVENT_ANNOUNCEMENT = "announcement"; // 全员公告事件
+    private static final String EVENT_RESYNC = "resync"; // 事件丢失后要求客户端重新拉取
+    private static final String HEARTBEAT_COMMENT = "ping"; // 心跳注释
+    private static final TypeReference<List<MessagePushDTO>> PUSH_EVENT_LIST_TYPE = new TypeReference<>() {};
+
+    @Value("${infra.push.max-connections:50000}")
+    private int maxConnections;
+
+    @Value("${infra.push.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${infra.push.emitter-timeout-millis:1800000}")
+    private long emitterTimeoutMillis;
+
+    @Autowired
+    private PushRegistryCacheUtil pushRegistryCacheUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final String nodeId = UUID.randomUUID().toString().replace("-", ""); // 本节点ID（每次启动生成）
+    private final Map<Long, Set<PushConnection>> connections = new ConcurrentHashMap<>(); // 用户ID -> 本节点连接
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final LongAdder droppedEvents = new LongAdder(); // 因队列已满丢弃的事件数
+    private final ExecutorService pushExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * 建立SSE推送连接
+     *
+     * @param userId 当前用户ID
+     * @return SSE连接
+     */
+    @Override
+    public SseEmitter connect(Long userId) {
+        // 1. 参数校验与单节点连接数上限
+        if (Objects.isNull(userId)) {
+            throw new BusinessException(SystemErrorCode.PARAM_NULL);
+        }
+        if (connectionCount.incrementAndGet() > maxConnections) {
+            connectionCount.decrementAndGet();
+            log.warn("建立推送连接失败，本节点连接数已达上限：{}，用户ID：{}", maxConnections, userId);
+            throw new BusinessException(MessageErrorCode.PUSH_CONNECTION_LIMIT);
+        }
+
+        // 2. 创建连接，断开、超时、出错时移除
+        SseEmitter emitter = createEmitter();
+        PushConnection connection = new PushConnection(userId, emitter);
+        emitter.onCompletion(() -> removeConnection(connection));
+        emitter.onTimeout(() -> removeConnection(connection));
+        emitter.onError(e -> removeConnection(connection));
+        connections.compute(userId, (id, userConnections) -> {
+            Set<PushConnection> set = Objects.isNull(userConnections) ? ConcurrentHashMap.newKeySet() : userConnections;
+            set.add(connection);
+            return set;
+        });
+
+        // 3. 登记用户所在节点（失败时由下次心跳补登记）
+        try {
+            pushRegistryCacheUtil.register(userId, nodeId);
+        } catch (Exception e) {
+            log.warn("登记推送连接失败，用户ID：{}，节点ID：{}", userId, nodeId, e);
+        }
+
+        // 4. 发送连接成功事件（客户端据此拉取一次未读统计，弥补连接建立前的消息）
+        connection.offer(SseEmitter.event().name(EVENT_CONNECTED).data(nodeId));
+        log.debug("建立推送连接成功，用户ID：{}，本节点连接数：{}", userId, connectionCount.get());
+        return emitter;
+    }
+
+    /**
+     * 推送消息给接收人
+     *
+     * @param events 推送事件列表
+     */
+    @Override
+    public void push(List<MessagePushDTO> events) {
+        if (Objects.isNull(events) || events.isEmpty()) {
+            return;
+        }
+        try {
+            // 1. 批量查询接收人所在节点
+            List<Long> receiverIds = events.stream().map(MessagePushDTO::getReceiverId)
+                    .filter(Objects::nonNull).distinct().collect(Collectors.toList());
+            Map<Long, List<String>> nodesByUser = pushRegistryCacheUtil.lookupNodes(receiverIds);
+
+            // 2. 按节点分组，每个节点发布一次
+            Map<String, List<MessagePushDTO>> eventsByNode = new HashMap<>();
+            for (MessagePushDTO event : events) {
+                for (String node : nodesByUser.getOrDefault(event.getReceiverId(), Collections.emptyList())) {
+                    eventsByNode.computeIfAbsent(node, key -> new ArrayList<>()).add(event);
+                }
+            }
+            for (Map.Entry<String, List<MessagePushDTO>> entry : eventsByNode.entrySet()) {
+                pushRegistryCacheUtil.publish(PushRegistryCacheUtil.nodeChannel(entry.getKey()),
+                        objectMapper.writeValueAsString(entry.getValue()));
+            }
+        } catch (Exception e) {
+            // 推送只是加速通知，失败时客户端仍可通过未读统计接口获取
+            log.warn("推送消息失败，事件数：{}", events.size(), e);
+        }
+    }
+
+    /**
+     * 推送给全部在线用户
+     *
+     * @param event 推送事件
+     */
+    @Override
+    public void broadcast(MessagePushDTO event) {
+        try {
+            pushRegistryCacheUtil.publish(PushRegistryCacheUtil.PUSH_BROADCAST_CHANNEL,
+                    objectMapper.writeValueAsString(Collections.singletonList(event)));
+        } catch (Exception e) {
+            log.warn("广播推送失败，消息ID：{}", event.getMessageId(), e);
+        }
+    }
+
+    /**
+     * 投递发布订阅收到的消息给本节点的连接（只入队，不阻塞订阅线程）
+     *
+     * @param payload 消息体（推送事件列表JSON）
+     * @return 投递的连接数
+     */
+    @Override
+    public int deliverLocal(String payload) {
+        try {
+            List<MessagePushDTO> events = objectMapper.readValue(payload, PUSH_EVENT_LIST_TYPE);
+            int delivered = 0;
+            for (MessagePushDTO event : events) {
+                Collection<PushConnection> targets;
+                if (Objects.isNull(event.getReceiverId())) {
+                    targets = connections.values().stream().flatMap(Set::stream).collect(Collectors.toList());
+                } else {
+                    targets = connections.getOrDefault(event.getReceiverId(), Collections.emptySet());
+                }
+                for (PushConnection connection : targets) {
+                    if (connection.offer(buildEvent(event))) {
+                        delivered++;
+                    }
+                }
+            }
+            return delivered;
+        } catch (Exception e) {
+            log.error("投递推送消息失败，消息体：{}", payload, e);
+            return 0;
+        }
+    }
+
+    /**
+     * 心跳：向空闲连接发送心跳注释，刷新本节点的用户登记
+     *
+     * @return 本节点当前连接数
+     */
+    @Override
+    public int heartbeat() {
+        // 1. 空闲连接发送心跳（有待发送事件的连接无需心跳）
+        for (Set<PushConnection> userConnections : connections.values()) {
+            for (PushConnection connection : userConnections) {
+                connection.offerHeartbeat();
+            }
+        }
+
+        // 2. 刷新本节点的用户登记
+        try {
+            pushRegistryCacheUtil.refresh(new ArrayList<>(connections.keySet()), nodeId);
+        } catch (Exception e) {
+            log.warn("刷新推送连接登记失败，节点ID：{}", nodeId, e);
+        }
+        log.debug("推送心跳完成，本节点连接数：{}，累计丢弃事件数：{}", connectionCount.get(), droppedEvents.sum());
+        return connectionCount.get();
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 节点停止时关闭全部连接（客户端自动重连到其他节点）
+     */
+    @PreDestroy
+    public void shutdown() {
+        connections.values().forEach(userConnections -> userConnections.forEach(connection -> connection.emitter.complete()));
+        pushExecutor.shutdownNow();
+    }
+
+    /**
+     * 创建SSE连接
+     */
+    protected SseEmitter createEmitter() {
+        return new SseEmitter(emitterTimeoutMillis);
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    private SseEmitter.SseEventBuilder buildEvent(MessagePushDTO event) {
+        String name = Boolean.TRUE.equals(event.getIsAnnouncement()) ? EVENT_ANNOUNCEMENT : EVENT_MESSAGE;
+        return SseEmitter.event().id(String.valueOf(event.getMessageId())).name(name).data(event);
+    }
+
+    /**
+     * 移除连接（重复调用只生效一次），用户在本节点的最后一个连接断开时删除登记
+     */
+    private void removeConnection(PushConnection connection) {
+        if (!connection.closed.compareAndSet(false, true)) {
+            return;
+        }
+        connectionCount.decrementAndGet();
+        boolean[] lastConnection = {false};
+        connections.computeIfPresent(connection.userId, (id, userConnections) -> {
+            userConnections.remove(connection);
+            lastConnection[0] = userConnections.isEmpty();
+            return lastConnection[0] ? null : userConnections;
+        });
+        if (lastConnection[0]) {
+            try {
+                pushRegistryCacheUtil.unregister(connection.userId, nodeId);
+            } catch (Exception e) {
+                log.warn("删除推送连接登记失败，用户ID：{}", connection.userId, e);
+            }
+        }
+    }
+
+    /**
+     * 单个SSE连接：有界发送队列 + 虚拟线程排空（同一时刻最多一个排空任务，保证事件顺序）
+     */
+    private final class PushConnection {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean overflowed = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private PushConnection(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        /**
+         * 事件入队（队列已满时丢弃并标记，排空后补发resync）
+         */
+        private boolean offer(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) {
+                return false;
+            }
+            if (!queue.offer(event)) {
+                overflowed.set(true);
+                droppedEvents.increment();
+                return false;
+            }
+            scheduleDrain();
+            return true;
+        }
+
+        /**
+         * 心跳只发给空闲连接，不占用队列容量也不触发resync
+         */
+        private void offerHeartbeat() {
+            if (!closed.get() && queue.isEmpty() && queue.offer(SseEmitter.event().comment(HEARTBEAT_COMMENT))) {
+                scheduleDrain();
+            }
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                pushExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed.get() && (event = queue.poll()) != null) {
+                    emitter.send(event);
+                }
+                if (!closed.get() && overflowed.compareAndSet(true, false)) {
+                    emitter.send(SseEmitter.event().name(EVENT_RESYNC).data(EVENT_RESYNC));
+                }
+            } catch (Exception e) {
+                // 发送失败（客户端已断开）：移除连接并结束
+                log.debug("推送连接发送失败，移除连接，用户ID：{}", userId, e);
+                removeConnection(this);
+                queue.clear();
+                emitter.completeWithError(e);
+            } finally {
+                draining.set(false);
+                if (!closed.get() && !queue.isEmpty()) {
+                    scheduleDrain();
+                }
+            }
+        }
+    }
+}
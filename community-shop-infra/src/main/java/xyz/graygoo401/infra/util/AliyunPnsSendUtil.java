@@ -30,7 +30,27 @@ public class AliyunPnsSendUtil {
     private static final Long INTERVAL = 60L;
     private static final int CACHE_TTL_CODE = 5;
 
-    // 初始化客户端（单例，避免重复创建连接）
+    // 客户端单例（SDK客户端线程安全，内部复用HTTP连接池）
+    private volatile Client pnsClient;
+
+    /**
+     * 获取客户端（首次使用时创建，之后复用，避免每条短信重新创建客户端与连接）
+     */
+    public Client getPnsClient() throws Exception {
+        Client client = pnsClient;
+        if (client == null) {
+            synchronized (this) {
+                client = pnsClient;
+                if (client == null) {
+                    client = createPnsClient();
+                    pnsClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    // 初始化客户端
     public Client createPnsClient() throws Exception {
         Config config = new Config()
                 // 身份认证：AccessKey ID/Secret
@@ -49,7 +69,7 @@ public class AliyunPnsSendUtil {
      * @throws Exception 发送失败时抛出异常
      */
     public String senPnsCode(String phone, String code) throws Exception {
-        Client client = createPnsClient();
+        Client client = getPnsClient();
         // 构建发送请求（验证码长度6位，与场景ID关联）
         SendSmsVerifyCodeRequest request = new SendSmsVerifyCodeRequest()
                 .setPhoneNumber(phone)
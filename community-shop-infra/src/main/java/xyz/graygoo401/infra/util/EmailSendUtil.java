@@ -2,14 +2,24 @@ package xyz.graygoo401.infra.util;
 
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Component;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+@Slf4j
 @Component
 public class EmailSendUtil {
 
@@ -27,6 +37,19 @@ public class EmailSendUtil {
     @Autowired
     private TemplateEngine templateEngine;  // Thymeleaf模板引擎（用于渲染HTML邮件）
 
+    /**
+     * 启动完成后预先渲染一次验证码模板
+     * Thymeleaf模板解析结果默认缓存（spring.thymeleaf.cache），预热后首封邮件不再承担读取与解析模板的耗时
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpTemplate() {
+        try {
+            renderCodeTemplate("000000");
+        } catch (Exception e) {
+            log.warn("邮件模板预热失败，模板：{}", emailTemplatePath, e);
+        }
+    }
+
     /**
      * 发送HTML格式的邮箱验证码
      * @param toEmail 接收邮箱地址（如 user@example.com）
@@ -34,28 +57,52 @@ public class EmailSendUtil {
      * @throws MessagingException 邮件发送失败时抛出异常
      */
     public void sendCodeEmail(String toEmail, String code) throws MessagingException {
-        // 1. 创建MIME邮件对象（支持HTML、附件等复杂内容）
-        MimeMessage mimeMessage = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
-
-        // 2. 设置邮件基础信息
-        helper.setFrom(fromEmail);          // 发送方邮箱
-        helper.setTo(toEmail);              // 接收方邮箱
-        helper.setSubject(emailSubject);    // 邮件主题
+        mailSender.send(buildCodeMessage(toEmail, code));
+    }
 
-        // 3. 渲染HTML模板（传递验证码、有效期等变量到模板）
-        Context context = new Context();
-        context.setVariable("code", code);  // 验证码
-        context.setVariable("expireMin", 5); // 有效期（分钟）
-        context.setVariable("systemName", "graygoo401 的验证码服务"); // 系统名称
-        // 使用Thymeleaf渲染模板，生成HTML内容
-        String htmlContent = templateEngine.process(emailTemplatePath, context);
+    /**
+     * 批量发送HTML格式的邮箱验证码
+     * JavaMailSender一次send调用内复用同一个SMTP连接依次发送全部邮件，避免每封邮件单独建连、SSL握手与认证
+     * @param emailCodes 接收邮箱 -> 验证码
+     * @return 发送失败的邮箱（全部成功时为空集合；连接或认证失败时为全部邮箱）
+     */
+    public Set<String> sendCodeEmails(Map<String, String> emailCodes) {
+        Set<String> failed = new HashSet<>();
+        if (emailCodes == null || emailCodes.isEmpty()) {
+            return failed;
+        }
 
-        // 4. 设置邮件内容为HTML格式
-        helper.setText(htmlContent, true);  // 第二个参数true表示内容为HTML
+        // 1. 逐封构建邮件，记录邮件对象与邮箱的对应关系（构建失败的直接计为失败）
+        Map<MimeMessage, String> messageEmails = new LinkedHashMap<>();
+        emailCodes.forEach((email, code) -> {
+            try {
+                messageEmails.put(buildCodeMessage(email, code), email);
+            } catch (Exception e) {
+                log.warn("验证码邮件构建失败，邮箱：{}", email, e);
+                failed.add(email);
+            }
+        });
+        if (messageEmails.isEmpty()) {
+            return failed;
+        }
 
-        // 5. 发送邮件
-        mailSender.send(mimeMessage);
+        // 2. 一次调用发送整批邮件
+        try {
+            mailSender.send(messageEmails.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            // 部分邮件失败：失败的邮件对象在failedMessages中，其余已发送成功
+            if (e.getFailedMessages().isEmpty()) {
+                failed.addAll(messageEmails.values());
+            } else {
+                e.getFailedMessages().keySet().forEach(message -> failed.add(messageEmails.get(message)));
+            }
+            log.warn("验证码邮件部分发送失败，本批：{}，失败：{}", messageEmails.size(), failed.size(), e);
+        } catch (Exception e) {
+            // 连接、认证失败：整批均未发送
+            failed.addAll(messageEmails.values());
+            log.warn("验证码邮件发送失败，本批：{}", messageEmails.size(), e);
+        }
+        return failed;
     }
 
     /**
@@ -78,4 +125,37 @@ public class EmailSendUtil {
         message.setText(content);
         mailSender.send(message);
     }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 构建HTML格式的验证码邮件
+     */
+    private MimeMessage buildCodeMessage(String toEmail, String code) throws MessagingException {
+        // 1. 创建MIME邮件对象（支持HTML、附件等复杂内容）
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+
+        // 2. 设置邮件基础信息
+        helper.setFrom(fromEmail);          // 发送方邮箱
+        helper.setTo(toEmail);              // 接收方邮箱
+        helper.setSubject(emailSubject);    // 邮件主题
+
+        // 3. 设置邮件内容为HTML格式
+        helper.setText(renderCodeTemplate(code), true);  // 第二个参数true表示内容为HTML
+        return mimeMessage;
+    }
+
+    /**
+     * 渲染验证码HTML模板（传递验证码、有效期等变量到模板）
+     */
+    private String renderCodeTemplate(String code) {
+        Context context = new Context();
+        context.setVariable("emailSubject", emailSubject); // 邮件主题
+        context.setVariable("code", code);  // 验证码
+        context.setVariable("expireMin", 5); // 有效期（分钟）
+        context.setVariable("systemName", "graygoo401 的验证码服务"); // 系统名称
+        // 使用Thymeleaf渲染模板，生成HTML内容（模板解析结果由模板引擎缓存）
+        return templateEngine.process(emailTemplatePath, context);
+    }
 }
@@ -9,6 +9,10 @@ import io.minio.messages.DeleteObject;
 import io.minio.messages.Item;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
 import org.apache.tomcat.util.http.fileupload.IOUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -20,11 +24,19 @@ import xyz.graygoo401.infra.config.MinioConfig;
 import xyz.graygoo401.infra.exception.OssException;
 import xyz.graygoo401.infra.exception.error.OssErrorCode;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.Proxy;
+import java.net.URI;
 import java.net.URLEncoder;
+import java.net.UnknownHostException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -81,6 +93,25 @@ public class MinioUtil {
             "application/json", "application/xml", "text/yaml", "text/x-yaml"
     );
 
+    /** 外部图片下载读取超时（秒） */
+    private static final int REMOTE_READ_TIMEOUT_SECONDS = 20;
+
+    /** 外部图片允许的 MIME 类型及对应扩展名 */
+    private static final Map<String, String> REMOTE_IMAGE_EXTENSIONS = Map.of(
+            "image/jpeg", ".jpg",
+            "image/png", ".png",
+            "image/webp", ".webp"
+    );
+
+    /** 外部图片下载客户端（MinIO SDK自带的OkHttp；不跟随重定向、不走代理，每次下载按已校验的地址固定DNS解析结果） */
+    private static final OkHttpClient HTTP_CLIENT = new OkHttpClient.Builder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .readTimeout(Duration.ofSeconds(REMOTE_READ_TIMEOUT_SECONDS))
+            .followRedirects(false)
+            .followSslRedirects(false)
+            .proxy(Proxy.NO_PROXY)
+            .build();
+
     // 安全注意事项
     // 1. 禁止高危类型：无论何种场景，均需禁用可执行文件（exe、sh、bat、cmd）、脚本文件（php、jsp、py、asp）、恶意格式（scr、pif）；
     // 2. SVG 处理：若业务需支持 SVG，需额外过滤 SVG 中的 <script> 标签，防止 XSS 攻击；
@@ -307,6 +338,80 @@ public class MinioUtil {
         return uploadFiles(files, module, minioConfig.getBucketName());
     }
 
+    /**
+     * 下载外部图片并转存到默认存储桶（商品批量导入的图片URL由服务端拉取）
+     * 1. 仅允许http/https，拒绝解析到内网、回环等地址的主机，且不跟随重定向，防止借服务端访问内网；
+     *    连接固定到校验过的地址（Host头与TLS证书校验仍使用原主机名），避免校验后再次解析被DNS重绑定到内网
+     * 2. 仅接受jpg/png/webp，按模块大小上限边读边计数，超限立即中止
+     * @param sourceUrl 外部图片URL
+     * @param objectPath 不含扩展名的存储路径（扩展名按响应的Content-Type补全）
+     * @param module 文件模块（取大小上限）
+     * @return 图片在 MinIO 中的相对路径
+     */
+    public String uploadImageFromUrl(String sourceUrl, String objectPath, OssModuleEnum module) {
+        // 1. 校验URL协议与目标主机
+        URI uri;
+        try {
+            uri = URI.create(sourceUrl);
+        } catch (IllegalArgumentException e) {
+            throw new OssException(OssErrorCode.OSS_FILE_FORMAT_INVALID, "图片URL格式错误");
+        }
+        String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase();
+        if (!("http".equals(scheme) || "https".equals(scheme)) || uri.getHost() == null) {
+            throw new OssException(OssErrorCode.OSS_FILE_FORMAT_INVALID, "仅支持http/https图片URL");
+        }
+        List<InetAddress> addresses = resolvePublicAddresses(uri.getHost());
+
+        // 2. 下载图片（只连接已校验的地址，不跟随重定向）
+        OkHttpClient pinnedClient = HTTP_CLIENT.newBuilder().dns(hostname -> addresses).build();
+        Request request = new Request.Builder().url(uri.toString()).get().build();
+        try (Response response = pinnedClient.newCall(request).execute()) {
+            ResponseBody body = response.body();
+            if (response.code() != 200 || body == null) {
+                throw new OssException(OssErrorCode.OSS_FILE_DOWNLOAD_FAILS, "图片下载失败，状态码：" + response.code());
+            }
+
+            // 3. 校验图片类型
+            String contentType = Objects.requireNonNullElse(response.header("Content-Type"), "")
+                    .split(";")[0].trim().toLowerCase();
+            String extension = REMOTE_IMAGE_EXTENSIONS.get(contentType);
+            if (extension == null) {
+                throw new OssException(OssErrorCode.OSS_PICTURE_FORMAT_INVALID, "仅支持 jpg/png/webp 格式图片");
+            }
+
+            // 4. 读取图片内容（超过模块大小上限时中止）
+            byte[] content;
+            try (InputStream in = body.byteStream()) {
+                content = in.readNBytes((int) module.getMaxSize() + 1);
+            }
+            if (content.length > module.getMaxSize()) {
+                throw new OssException(OssErrorCode.OSS_PICTURE_SIZE_INVALID,
+                        module.getDesc() + "大小不能超过 " + module.getMaxSize() / 1024 / 1024 + "MB");
+            }
+
+            // 5. 上传到默认存储桶
+            String filePath = objectPath + extension;
+            minioClient.putObject(
+                    PutObjectArgs.builder()
+                            .bucket(minioConfig.getBucketName())
+                            .object(filePath)
+                            .stream(new ByteArrayInputStream(content), content.length, -1)
+                            .contentType(contentType)
+                            .build()
+            );
+            log.info("外部图片转存成功，来源：{}，相对路径：{}", sourceUrl, filePath);
+            return filePath;
+        } catch (OssException e) {
+            throw e;
+        } catch (MinioException e) {
+            log.error("MinIO 服务异常：{}", e.getMessage());
+            throw new OssException(OssErrorCode.OSS_SERVICE_FAILS);
+        } catch (Exception e) {
+            log.error("外部图片转存失败，来源：{}，原因：{}", sourceUrl, e.getMessage());
+            throw new OssException(OssErrorCode.OSS_FILE_DOWNLOAD_FAILS, "图片下载失败");
+        }
+    }
+
     /**
      * 获取文件输入流
      * @param bucketName 存储桶名称
@@ -664,6 +769,43 @@ public class MinioUtil {
     }
 
 
+    /**
+     * 解析外部主机并校验全部解析地址均为公网地址（返回的地址用于固定本次下载的连接目标）
+     * @param host 主机名
+     * @return 校验通过的地址列表
+     */
+    private List<InetAddress> resolvePublicAddresses(String host) {
+        InetAddress[] addresses;
+        try {
+            addresses = InetAddress.getAllByName(host);
+        } catch (UnknownHostException e) {
+            throw new OssException(OssErrorCode.OSS_FILE_DOWNLOAD_FAILS, "图片URL主机无法解析：" + host);
+        }
+        for (InetAddress address : addresses) {
+            if (isNonPublicAddress(address)) {
+                throw new OssException(OssErrorCode.OSS_FILE_FORMAT_INVALID, "不允许访问内网地址：" + host);
+            }
+        }
+        return List.of(addresses);
+    }
+
+    /**
+     * 判断是否为非公网地址：回环、链路本地、私有网段、组播，以及IPv6唯一本地地址（fc00::/7）与运营商级NAT共享地址（100.64.0.0/10）
+     * @param address IP地址
+     * @return 非公网地址返回true
+     */
+    private static boolean isNonPublicAddress(InetAddress address) {
+        if (address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress() || address.isMulticastAddress()) {
+            return true;
+        }
+        byte[] bytes = address.getAddress();
+        if (address instanceof Inet4Address) {
+            return (bytes[0] & 0xFF) == 100 && (bytes[1] & 0xC0) == 64;
+        }
+        return address instanceof Inet6Address && (bytes[0] & 0xFE) == 0xFC;
+    }
+
     /**
      * 获取文件的绝对存储路径
      * @param bucketName 存储桶名称
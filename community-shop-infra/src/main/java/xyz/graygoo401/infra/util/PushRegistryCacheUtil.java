@@ -0,0 +1,156 @@
+package xyz.graygoo401.infra.util;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * 推送连接节点登记工具类
+ * Redis Key：message:push:user:{用户ID}，Hash结构，字段为持有该用户连接的节点ID，值为该节点最近一次心跳的时间（秒）
+ * 1. 建立连接时登记，用户在本节点的最后一个连接断开时删除字段；
+ * 2. 节点心跳时批量刷新字段与有效期，节点宕机后其字段不再刷新，查询时按心跳时间过滤，不向失效节点发布；
+ * 3. 推送时按节点分组，每个节点一个发布订阅频道（message:push:node:{节点ID}），全员公告使用广播频道。
+ */
+@Component
+public class PushRegistryCacheUtil {
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    // 用户节点登记前缀
+    private static final String PUSH_USER_KEY_PREFIX = "message:push:user:";
+
+    // 节点频道前缀
+    private static final String PUSH_NODE_CHANNEL_PREFIX = "message:push:node:";
+
+    // 广播频道（全员公告）
+    public static final String PUSH_BROADCAST_CHANNEL = "message:push:broadcast";
+
+    // 登记有效期：心跳间隔的3倍以上，超过该时间未刷新的节点视为失效
+    private static final Duration REGISTRY_TTL = Duration.ofSeconds(90);
+
+    // 每次管道刷新的用户数
+    private static final int REFRESH_BATCH_SIZE = 1000;
+
+    /**
+     * 登记用户连接所在节点
+     * @param userId 用户ID
+     * @param nodeId 节点ID
+     */
+    public void register(Long userId, String nodeId) {
+        refresh(Collections.singletonList(userId), nodeId);
+    }
+
+    /**
+     * 删除用户在指定节点的登记
+     * @param userId 用户ID
+     * @param nodeId 节点ID
+     */
+    public void unregister(Long userId, String nodeId) {
+        stringRedisTemplate.opsForHash().delete(buildKey(userId), nodeId);
+    }
+
+    /**
+     * 批量刷新本节点持有连接的用户登记（管道执行，每批1000个用户一次网络往返）
+     * @param userIds 用户ID集合
+     * @param nodeId 节点ID
+     */
+    public void refresh(Collection<Long> userIds, String nodeId) {
+        String heartbeat = String.valueOf(Instant.now().getEpochSecond());
+        List<Long> batch = new ArrayList<>(Math.min(userIds.size(), REFRESH_BATCH_SIZE));
+        for (Long userId : userIds) {
+            batch.add(userId);
+            if (batch.size() >= REFRESH_BATCH_SIZE) {
+                refreshBatch(batch, nodeId, heartbeat);
+                batch = new ArrayList<>(REFRESH_BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            refreshBatch(batch, nodeId, heartbeat);
+        }
+    }
+
+    /**
+     * 批量查询用户连接所在的有效节点（管道执行HGETALL，过滤心跳超时的节点）
+     * @param userIds 用户ID列表
+     * @return 用户ID -> 节点ID列表（不在线的用户不包含在结果中）
+     */
+    public Map<Long, List<String>> lookupNodes(List<Long> userIds) {
+        List<Object> results = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (Long userId : userIds) {
+                    operations.opsForHash().entries(buildKey(userId));
+                }
+                return null;
+            }
+        });
+
+        long expireBefore = Instant.now().getEpochSecond() - REGISTRY_TTL.getSeconds();
+        Map<Long, List<String>> nodesByUser = new HashMap<>();
+        for (int i = 0; i < userIds.size(); i++) {
+            @SuppressWarnings("unchecked")
+            Map<Object, Object> entries = (Map<Object, Object>) results.get(i);
+            if (entries == null || entries.isEmpty()) {
+                continue;
+            }
+            List<String> nodes = new ArrayList<>(entries.size());
+            entries.forEach((node, heartbeat) -> {
+                if (Long.parseLong(heartbeat.toString()) >= expireBefore) {
+                    nodes.add(node.toString());
+                }
+            });
+            if (!nodes.isEmpty()) {
+                nodesByUser.put(userIds.get(i), nodes);
+            }
+        }
+        return nodesByUser;
+    }
+
+    /**
+     * 向频道发布推送消息
+     * @param channel 频道
+     * @param payload 消息体（JSON）
+     */
+    public void publish(String channel, String payload) {
+        stringRedisTemplate.convertAndSend(channel, payload);
+    }
+
+    /**
+     * 获取节点频道
+     * @param nodeId 节点ID
+     * @return 频道名
+     */
+    public static String nodeChannel(String nodeId) {
+        return PUSH_NODE_CHANNEL_PREFIX + nodeId;
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    private String buildKey(Long userId) {
+        return PUSH_USER_KEY_PREFIX + userId;
+    }
+
+    private void refreshBatch(List<Long> userIds, String nodeId, String heartbeat) {
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (Long userId : userIds) {
+                    String key = buildKey(userId);
+                    operations.opsForHash().put(key, nodeId, heartbeat);
+                    operations.expire(key, REGISTRY_TTL);
+                }
+                return null;
+            }
+        });
+    }
+}
@@ -0,0 +1,203 @@
+package xyz.graygoo401.infra.util;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import xyz.graygoo401.api.infra.enums.MessageTypeEnum;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * 未读消息计数缓存工具类
+ * Redis Key：message:unread:count:{用户ID}，Hash结构，字段为消息类型code，值为该类型未读数
+ * 1. 发送/已读时以HINCRBY原子增减，并发发送不会丢失更新（Lua脚本仅在Hash已加载时执行，避免在未加载的Key上生成不完整的计数）；
+ * 2. 读取时一次HGETALL取全部类型，未加载时由调用方按数据库分组计数加载（Hash已存在时不覆盖，保留加载期间的并发增减）；
+ * 3. 计数可能因缓存更新失败等原因与数据库偏离，由对账任务定期比对并删除不一致的Key（下次读取时重新加载）。
+ */
+@Component
+public class UnreadCountCacheUtil {
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    // 缓存前缀（与旧版JSON统计缓存message:unread:stat:区分，避免类型冲突）
+    private static final String UNREAD_COUNT_KEY_PREFIX = "message:unread:count:";
+
+    // 缓存有效期：7天（每次增减与加载时续期，不活跃用户的计数自动过期）
+    private static final Duration CACHE_TTL_UNREAD_COUNT = Duration.ofDays(7);
+
+    // Hash已加载时原子增减（结果小于0时置0），返回增减后的值；未加载时返回-1
+    private static final RedisScript<Long> INCREMENT_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 0 then " +
+                    "    return -1 " +
+                    "end " +
+                    "local count = redis.call('hincrby', KEYS[1], ARGV[1], ARGV[2]) " +
+                    "if count < 0 then " +
+                    "    redis.call('hset', KEYS[1], ARGV[1], 0) " +
+                    "    count = 0 " +
+                    "end " +
+                    "redis.call('expire', KEYS[1], ARGV[3]) " +
+                    "return count",
+            Long.class);
+
+    // Hash不存在时写入全部字段（ARGV[1]为有效期，其后为字段、值交替），成功返回1；已存在返回0
+    private static final RedisScript<Long> LOAD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 1 then " +
+                    "    return 0 " +
+                    "end " +
+                    "for i = 2, #ARGV, 2 do " +
+                    "    redis.call('hset', KEYS[1], ARGV[i], ARGV[i + 1]) " +
+                    "end " +
+                    "redis.call('expire', KEYS[1], ARGV[1]) " +
+                    "return 1",
+            Long.class);
+
+    /**
+     * 原子增减指定类型的未读数
+     * @param userId 用户ID
+     * @param type 消息类型
+     * @param delta 变更数量（+1：新增未读；-1：减少未读）
+     * @return 增减后的未读数（计数未加载时返回-1，不做修改）
+     */
+    public long increment(Long userId, MessageTypeEnum type, long delta) {
+        Long count = stringRedisTemplate.execute(INCREMENT_SCRIPT, Collections.singletonList(buildKey(userId)),
+                type.getCode(), String.valueOf(delta), String.valueOf(CACHE_TTL_UNREAD_COUNT.getSeconds()));
+        return count == null ? -1 : count;
+    }
+
+    /**
+     * 批量原子增减多个用户的未读数（管道执行，一次网络往返；计数未加载的用户跳过）
+     * @param deltas 用户ID -> 消息类型 -> 变更数量
+     */
+    public void incrementAll(Map<Long, Map<MessageTypeEnum, Long>> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        String ttl = String.valueOf(CACHE_TTL_UNREAD_COUNT.getSeconds());
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                deltas.forEach((userId, typeDeltas) -> typeDeltas.forEach((type, delta) ->
+                        operations.execute(INCREMENT_SCRIPT, Collections.singletonList(buildKey(userId)),
+                                type.getCode(), String.valueOf(delta), ttl)));
+                return null;
+            }
+        });
+    }
+
+    /**
+     * 获取用户各类型未读数（一次HGETALL）
+     * @param userId 用户ID
+     * @return 各类型未读数（null表示计数未加载）
+     */
+    public Map<MessageTypeEnum, Integer> get(Long userId) {
+        Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(buildKey(userId));
+        return parseEntries(entries);
+    }
+
+    /**
+     * 批量获取多个用户的各类型未读数（管道执行HGETALL，一次网络往返）
+     * @param userIds 用户ID列表
+     * @return 用户ID -> 各类型未读数（计数未加载的用户不包含在结果中）
+     */
+    public Map<Long, Map<MessageTypeEnum, Integer>> multiGet(List<Long> userIds) {
+        List<Object> results = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (Long userId : userIds) {
+                    operations.opsForHash().entries(buildKey(userId));
+                }
+                return null;
+            }
+        });
+
+        Map<Long, Map<MessageTypeEnum, Integer>> countsByUser = new HashMap<>();
+        for (int i = 0; i < userIds.size(); i++) {
+            @SuppressWarnings("unchecked")
+            Map<MessageTypeEnum, Integer> counts = parseEntries((Map<Object, Object>) results.get(i));
+            if (counts != null) {
+                countsByUser.put(userIds.get(i), counts);
+            }
+        }
+        return countsByUser;
+    }
+
+    /**
+     * 加载用户各类型未读数（计数已存在时不覆盖）
+     * @param userId 用户ID
+     * @param counts 各类型未读数（缺失的类型按0写入，保证零未读用户的Hash也存在）
+     * @return 是否写入
+     */
+    public boolean load(Long userId, Map<MessageTypeEnum, Integer> counts) {
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(CACHE_TTL_UNREAD_COUNT.getSeconds()));
+        for (MessageTypeEnum type : MessageTypeEnum.values()) {
+            args.add(type.getCode());
+            args.add(String.valueOf(counts.getOrDefault(type, 0)));
+        }
+        Long loaded = stringRedisTemplate.execute(LOAD_SCRIPT, Collections.singletonList(buildKey(userId)), args.toArray());
+        return Long.valueOf(1).equals(loaded);
+    }
+
+    /**
+     * 删除用户未读计数（下次读取时按数据库重新加载）
+     * @param userId 用户ID
+     */
+    public void evict(Long userId) {
+        stringRedisTemplate.delete(buildKey(userId));
+    }
+
+    /**
+     * 分批遍历已加载未读计数的用户ID（SCAN，不阻塞Redis）
+     * @param batchSize 每批用户数
+     * @param consumer 批处理逻辑
+     */
+    public void scanUserIds(int batchSize, Consumer<List<Long>> consumer) {
+        ScanOptions options = ScanOptions.scanOptions().match(UNREAD_COUNT_KEY_PREFIX + "*").count(batchSize).build();
+        List<Long> batch = new ArrayList<>(batchSize);
+        try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                batch.add(Long.valueOf(cursor.next().substring(UNREAD_COUNT_KEY_PREFIX.length())));
+                if (batch.size() >= batchSize) {
+                    consumer.accept(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            consumer.accept(batch);
+        }
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    private String buildKey(Long userId) {
+        return UNREAD_COUNT_KEY_PREFIX + userId;
+    }
+
+    /**
+     * 解析Hash字段（空Hash表示计数未加载，返回null；未知类型字段忽略）
+     */
+    private Map<MessageTypeEnum, Integer> parseEntries(Map<Object, Object> entries) {
+        if (entries == null || entries.isEmpty()) {
+            return null;
+        }
+        Map<MessageTypeEnum, Integer> counts = new EnumMap<>(MessageTypeEnum.class);
+        for (MessageTypeEnum type : MessageTypeEnum.values()) {
+            Object value = entries.get(type.getCode());
+            counts.put(type, value == null ? 0 : Math.max(Integer.parseInt(value.toString()), 0));
+        }
+        return counts;
+    }
+}
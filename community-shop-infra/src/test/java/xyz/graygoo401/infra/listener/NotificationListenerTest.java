@@ -0,0 +1,219 @@
+package xyz.graygoo401.infra.listener;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import xyz.graygoo401.api.common.dto.mq.CommunityEventDTO;
+import xyz.graygoo401.api.common.dto.mq.OrderEventDTO;
+import xyz.graygoo401.api.infra.enums.MessageTypeEnum;
+import xyz.graygoo401.api.user.dto.user.UserDTO;
+import xyz.graygoo401.api.user.util.UserUtil;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.infra.convert.MessageConvert;
+import xyz.graygoo401.infra.dao.entity.Message;
+import xyz.graygoo401.infra.dao.mapper.MessageMapper;
+import xyz.graygoo401.infra.service.base.PushService;
+import xyz.graygoo401.infra.service.impl.MessageServiceImpl;
+import xyz.graygoo401.infra.util.UnreadCountCacheUtil;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * NotificationListener批量消费测试
+ * 使用真实MessageServiceImpl，模拟Mapper、用户服务与未读计数缓存
+ * 覆盖：订单事件按批消费时每批只有一次用户批量查询、一次多行写入、一次管道计数更新，
+ * 不合法与接收人不存在的通知跳过，写入失败时整批抛出由容器重新投递
+ * 5万个事件的吞吐测试以日志输出耗时供参考，默认构建不执行（benchmark分组）
+ */
+@Slf4j
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class NotificationListenerTest {
+
+    private static final int EVENT_COUNT = 2_000; // 订单事件总数
+    private static final int BENCHMARK_EVENT_COUNT = 50_000; // 吞吐测试的订单事件总数
+    private static final int BATCH_SIZE = 200;     // 每批事件数（与infra.notice.batch-size默认值一致）
+    private static final long MISSING_USER_ID = 99_999L; // 不存在的用户
+
+    @Mock
+    private MessageMapper messageMapper;
+    @Mock
+    private UserUtil userUtil;
+    @Mock
+    private UnreadCountCacheUtil unreadCountCacheUtil;
+    @Mock
+    private PushService pushService;
+
+    private final List<Message> insertedMessages = new ArrayList<>();
+    private final Map<Long, Map<MessageTypeEnum, Long>> unreadDeltas = new HashMap<>();
+    private NotificationListener notificationListener;
+
+    @BeforeEach
+    void setUp() {
+        // 1. 模拟多行写入：记录写入的消息并回填自增主键
+        AtomicLong idGenerator = new AtomicLong();
+        when(messageMapper.insertBatch(anyList())).thenAnswer(invocation -> {
+            List<Message> messages = invocation.getArgument(0);
+            messages.forEach(message -> message.setMsgId(idGenerator.incrementAndGet()));
+            insertedMessages.addAll(messages);
+            return messages.size();
+        });
+
+        // 2. 模拟用户批量查询：除MISSING_USER_ID外均存在
+        when(userUtil.getUserMapByIds(anyList())).thenAnswer(invocation -> {
+            Map<Long, UserDTO> userMap = new HashMap<>();
+            for (Long userId : invocation.<List<Long>>getArgument(0)) {
+                if (!userId.equals(MISSING_USER_ID)) {
+                    UserDTO user = new UserDTO();
+                    user.setUserId(userId);
+                    userMap.put(userId, user);
+                }
+            }
+            return userMap;
+        });
+
+        // 3. 模拟管道计数更新：累计各用户各类型的增量
+        doAnswer(invocation -> {
+            Map<Long, Map<MessageTypeEnum, Long>> deltas = invocation.getArgument(0);
+            deltas.forEach((userId, typeDeltas) -> typeDeltas.forEach((type, delta) ->
+                    unreadDeltas.computeIfAbsent(userId, id -> new EnumMap<>(MessageTypeEnum.class)).merge(type, delta, Long::sum)));
+            return null;
+        }).when(unreadCountCacheUtil).incrementAll(anyMap());
+
+        MessageServiceImpl messageService = new MessageServiceImpl();
+        ReflectionTestUtils.setField(messageService, "messageMapper", messageMapper);
+        ReflectionTestUtils.setField(messageService, "userUtil", userUtil);
+        ReflectionTestUtils.setField(messageService, "unreadCountCacheUtil", unreadCountCacheUtil);
+        ReflectionTestUtils.setField(messageService, "pushService", pushService);
+        ReflectionTestUtils.setField(messageService, "messageConvert", MessageConvert.INSTANCE);
+        notificationListener = new NotificationListener();
+        ReflectionTestUtils.setField(notificationListener, "messageService", messageService);
+    }
+
+    /**
+     * 测试批量消费：订单事件按200条一批消费，每个事件向买家、卖家各写入一条通知
+     * 校验通知总数、每批的批量调用次数（含一次实时推送）、未读计数增量与逐条接口未被调用
+     */
+    @Test
+    void onOrderMessages_eventBatches_oneBulkCallPerBatch() {
+        consumeAndVerify(EVENT_COUNT);
+    }
+
+    /**
+     * 吞吐测试：5万个订单事件按批消费，校验同上，并输出吞吐量
+     */
+    @Test
+    @Tag("benchmark")
+    void onOrderMessages_50kEvents_throughput() {
+        long elapsedMillis = consumeAndVerify(BENCHMARK_EVENT_COUNT);
+        log.info("通知批量消费完成，事件数：{}，批次数：{}，写入通知数：{}，耗时：{}ms，吞吐量：{}事件/秒",
+                BENCHMARK_EVENT_COUNT, BENCHMARK_EVENT_COUNT / BATCH_SIZE, insertedMessages.size(),
+                elapsedMillis, BENCHMARK_EVENT_COUNT * 1000L / elapsedMillis);
+    }
+
+    /**
+     * 测试跳过：接收人不存在与参数不合法的通知跳过，同批其他通知正常写入
+     */
+    @Test
+    void onCommunityMessages_invalidOrMissingReceiver_skipped() {
+        List<CommunityEventDTO> events = List.of(
+                buildCommunityEvent(1L, 2L, 101L),
+                buildCommunityEvent(3L, MISSING_USER_ID, 102L),
+                buildCommunityEvent(4L, null, 103L),
+                buildCommunityEvent(5L, 2L, 104L));
+
+        notificationListener.onCommunityMessages(events);
+
+        assertEquals(2, insertedMessages.size());
+        assertTrue(insertedMessages.stream().allMatch(message -> message.getReceiverId().equals(2L)));
+        assertEquals(MessageTypeEnum.PRIVATE, insertedMessages.get(0).getType());
+        assertEquals(2L, unreadDeltas.get(2L).get(MessageTypeEnum.PRIVATE));
+        verify(userUtil, times(1)).getUserMapByIds(List.of(2L, MISSING_USER_ID));
+    }
+
+    /**
+     * 测试失败：写入异常时整批抛出（由容器重新投递），不更新未读计数
+     */
+    @Test
+    void onOrderMessages_insertFails_throwsWithoutCounting() {
+        when(messageMapper.insertBatch(anyList())).thenThrow(new RuntimeException("数据库连接失败"));
+
+        assertThrows(BusinessException.class, () ->
+                notificationListener.onOrderMessages(List.of(buildOrderEvent(1, 1L, 2L))));
+
+        verifyNoInteractions(unreadCountCacheUtil);
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 按批消费指定数量的订单事件（1000个买家、100个卖家）并校验批量调用与未读计数，返回消费耗时（毫秒）
+     */
+    private long consumeAndVerify(int eventCount) {
+        // 1. 构造事件
+        List<OrderEventDTO> events = new ArrayList<>(eventCount);
+        for (int i = 0; i < eventCount; i++) {
+            events.add(buildOrderEvent(i, 1L + i % 1000, 10_001L + i % 100));
+        }
+
+        // 2. 按批消费
+        long start = System.nanoTime();
+        for (int from = 0; from < eventCount; from += BATCH_SIZE) {
+            notificationListener.onOrderMessages(events.subList(from, Math.min(from + BATCH_SIZE, eventCount)));
+        }
+        long elapsedMillis = Math.max((System.nanoTime() - start) / 1_000_000, 1);
+
+        // 3. 验证通知与批量调用次数（每批400条通知，不超过单条INSERT最大行数）
+        int batches = eventCount / BATCH_SIZE;
+        assertEquals(eventCount * 2, insertedMessages.size());
+        verify(userUtil, times(batches)).getUserMapByIds(anyList());
+        verify(messageMapper, times(batches)).insertBatch(anyList());
+        verify(unreadCountCacheUtil, times(batches)).incrementAll(anyMap());
+        verify(pushService, times(batches)).push(anyList());
+        verify(userUtil, never()).getUserById(anyLong());
+        verify(messageMapper, never()).insert(any(Message.class));
+        verify(unreadCountCacheUtil, never()).increment(anyLong(), any(), anyLong());
+
+        // 4. 验证未读计数增量：每个买家、卖家分别收到 事件数/1000、事件数/100 条订单通知
+        assertEquals(eventCount / 1000L, unreadDeltas.get(1L).get(MessageTypeEnum.ORDER));
+        assertEquals(eventCount / 100L, unreadDeltas.get(10_001L).get(MessageTypeEnum.ORDER));
+        long totalDelta = unreadDeltas.values().stream().mapToLong(typeDeltas -> typeDeltas.get(MessageTypeEnum.ORDER)).sum();
+        assertEquals(eventCount * 2L, totalDelta);
+        Message first = insertedMessages.get(0);
+        assertEquals(MessageTypeEnum.ORDER, first.getType());
+        assertNotNull(first.getTitle());
+        assertFalse(first.getIsRead());
+        return elapsedMillis;
+    }
+
+    private OrderEventDTO buildOrderEvent(int index, Long buyerId, Long sellerId) {
+        OrderEventDTO event = new OrderEventDTO();
+        event.setOrderId(100_000L + index);
+        event.setOrderNo("ORD" + (100_000 + index));
+        event.setBuyerId(buyerId);
+        event.setSellerId(sellerId);
+        event.setType("PAID");
+        return event;
+    }
+
+    private CommunityEventDTO buildCommunityEvent(Long operatorId, Long authorId, Long postId) {
+        CommunityEventDTO event = new CommunityEventDTO();
+        event.setOperatorId(operatorId);
+        event.setAuthorId(authorId);
+        event.setPostId(postId);
+        event.setAction("LIKE");
+        return event;
+    }
+}
@@ -0,0 +1,94 @@
+package xyz.graygoo401.infra.mapper;
+
+import com.baomidou.mybatisplus.test.autoconfigure.MybatisPlusTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.test.context.ActiveProfiles;
+import xyz.graygoo401.infra.dao.entity.Announcement;
+import xyz.graygoo401.infra.dao.entity.AnnouncementCursor;
+import xyz.graygoo401.infra.dao.mapper.AnnouncementMapper;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AnnouncementMapper单元测试
+ * 覆盖：最近公告按ID倒序限量查询、阅读游标插入与只前进不后退、批量查询游标
+ */
+@MybatisPlusTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+public class AnnouncementMapperTest {
+
+    @Autowired
+    private AnnouncementMapper announcementMapper;
+
+    /**
+     * 测试selectRecent：按公告ID倒序，最多返回limit条
+     */
+    @Test
+    void selectRecent_limit_returnsNewestFirst() {
+        // 1. 写入3条公告
+        Long first = insertAnnouncement("公告1");
+        Long second = insertAnnouncement("公告2");
+        Long third = insertAnnouncement("公告3");
+
+        // 2. 查询最近2条
+        List<Announcement> recent = announcementMapper.selectRecent(2);
+
+        // 3. 断言顺序与条数
+        assertEquals(2, recent.size());
+        assertEquals(third, recent.get(0).getAnnouncementId());
+        assertEquals(second, recent.get(1).getAnnouncementId());
+        assertTrue(first < second, "公告ID应自增");
+    }
+
+    /**
+     * 测试advanceCursor：无记录时插入，较大值前进，较小值不回退
+     */
+    @Test
+    void advanceCursor_onlyMovesForward() {
+        assertNull(announcementMapper.selectLastSeenId(1L), "无记录时游标应为null");
+
+        announcementMapper.advanceCursor(1L, 5L);
+        assertEquals(5L, announcementMapper.selectLastSeenId(1L));
+
+        announcementMapper.advanceCursor(1L, 8L);
+        assertEquals(8L, announcementMapper.selectLastSeenId(1L));
+
+        announcementMapper.advanceCursor(1L, 3L);
+        assertEquals(8L, announcementMapper.selectLastSeenId(1L), "游标不应回退");
+    }
+
+    /**
+     * 测试selectCursors：批量查询游标，无记录的用户不包含在结果中
+     */
+    @Test
+    void selectCursors_batch_returnsExistingOnly() {
+        announcementMapper.advanceCursor(1L, 4L);
+        announcementMapper.advanceCursor(2L, 6L);
+
+        Map<Long, Long> cursors = announcementMapper.selectCursors(List.of(1L, 2L, 3L)).stream()
+                .collect(Collectors.toMap(AnnouncementCursor::getUserId, AnnouncementCursor::getLastSeenId));
+
+        assertEquals(Map.of(1L, 4L, 2L, 6L), cursors);
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    private Long insertAnnouncement(String title) {
+        Announcement announcement = new Announcement();
+        announcement.setPublisherId(9L);
+        announcement.setTitle(title);
+        announcement.setContent(title + "内容");
+        announcement.setCreateTime(LocalDateTime.now());
+        announcement.setUpdateTime(LocalDateTime.now());
+        assertEquals(1, announcementMapper.insert(announcement));
+        return announcement.getAnnouncementId();
+    }
+}
@@ -0,0 +1,201 @@
+package xyz.graygoo401.infra.mapper;
+
+import com.baomidou.mybatisplus.test.autoconfigure.MybatisPlusTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.context.ActiveProfiles;
+import xyz.graygoo401.api.infra.enums.MessageTypeEnum;
+import xyz.graygoo401.infra.dao.entity.Conversation;
+import xyz.graygoo401.infra.dao.entity.Message;
+import xyz.graygoo401.infra.dao.mapper.ConversationMapper;
+import xyz.graygoo401.infra.dao.mapper.MessageMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ConversationMapper单元测试
+ * 覆盖：有序用户对唯一、记录新消息（最后一条消息只前进、接收方未读数+1）、未读数减少不小于0、按未读私信重新统计未读数、
+ * 用户作为用户对任一方时的会话列表游标分页、历史私信回填合并
+ */
+@MybatisPlusTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+public class ConversationMapperTest {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 5, 20, 10, 0, 0);
+
+    @Autowired
+    private ConversationMapper conversationMapper;
+
+    @Autowired
+    private MessageMapper messageMapper;
+
+    /**
+     * 测试selectByPair：按有序用户对查询，同一用户对重复插入违反唯一索引
+     */
+    @Test
+    void selectByPair_uniquePair() {
+        Long conversationId = insertConversation(1L, 2L, BASE_TIME);
+
+        assertEquals(conversationId, conversationMapper.selectByPair(1L, 2L).getConversationId());
+        assertEquals(conversationId, conversationMapper.selectByPairForUpdate(1L, 2L).getConversationId());
+        assertNull(conversationMapper.selectByPair(2L, 3L));
+        assertThrows(DuplicateKeyException.class, () -> insertConversation(1L, 2L, BASE_TIME));
+    }
+
+    /**
+     * 测试recordMessage与decreaseUnread：接收方未读数+1，最后一条消息与更新时间不回退；未读数减少不小于0
+     */
+    @Test
+    void recordMessage_advancesLastMessageAndUnread() {
+        Long conversationId = insertConversation(1L, 2L, BASE_TIME);
+
+        // 1. 用户1发给用户2（接收方为较大ID一方）两条，用户2回复一条
+        assertEquals(1, conversationMapper.recordMessage(conversationId, 10L, false, BASE_TIME.plusMinutes(1)));
+        assertEquals(1, conversationMapper.recordMessage(conversationId, 12L, false, BASE_TIME.plusMinutes(3)));
+        assertEquals(1, conversationMapper.recordMessage(conversationId, 11L, true, BASE_TIME.plusMinutes(2)));
+
+        // 2. 较晚提交的较小消息ID不会使最后一条消息回退
+        Conversation conversation = conversationMapper.selectById(conversationId);
+        assertEquals(12L, conversation.getLastMsgId());
+        assertEquals(BASE_TIME.plusMinutes(3), conversation.getUpdateTime());
+        assertEquals(1, conversation.getLowUnreadCount());
+        assertEquals(2, conversation.getHighUnreadCount());
+
+        // 3. 未读数减少不小于0
+        conversationMapper.decreaseUnread(conversationId, false, 5);
+        conversationMapper.decreaseUnread(conversationId, true, 1);
+        conversation = conversationMapper.selectById(conversationId);
+        assertEquals(0, conversation.getHighUnreadCount());
+        assertEquals(0, conversation.getLowUnreadCount());
+    }
+
+    /**
+     * 测试recountUnread：接收方未读数按会话中未读、未删除的私信重新统计，另一方未读数不受影响
+     */
+    @Test
+    void recountUnread_countsUnreadPrivateMessages() {
+        Long conversationId = insertConversation(1L, 2L, BASE_TIME);
+
+        // 1. 计数为3，实际用户2仅1条未读私信（另有已读、已删除各1条）
+        for (int i = 0; i < 3; i++) {
+            conversationMapper.recordMessage(conversationId, 10L + i, false, BASE_TIME);
+        }
+        conversationMapper.recordMessage(conversationId, 13L, true, BASE_TIME);
+        insertPrivateMessage(conversationId, 1L, 2L, false, false);
+        insertPrivateMessage(conversationId, 1L, 2L, true, false);
+        insertPrivateMessage(conversationId, 1L, 2L, false, true);
+
+        // 2. 重新统计较大ID一方（用户2）的未读数
+        assertEquals(1, conversationMapper.recountUnread(conversationId, 2L, false));
+
+        // 3. 断言结果
+        Conversation conversation = conversationMapper.selectById(conversationId);
+        assertEquals(1, conversation.getHighUnreadCount());
+        assertEquals(1, conversation.getLowUnreadCount());
+    }
+
+    /**
+     * 测试selectByUserCursor：用户5在4个会话中是较大ID一方、在3个会话中是较小ID一方，
+     * 按(update_time, conversation_id)倒序逐页读取，不重复、不遗漏，更新时间相同时按会话ID决胜
+     */
+    @Test
+    void selectByUserCursor_bothSides_pagesWithoutGapOrDuplicate() {
+        // 1. 构造会话：与用户1~4（用户5为较大一方）、与用户6~8（用户5为较小一方），其中两个会话更新时间相同
+        List<Long> expected = new ArrayList<>();
+        for (long partnerId = 1; partnerId <= 8; partnerId++) {
+            if (partnerId == 5) {
+                continue;
+            }
+            LocalDateTime updateTime = partnerId == 3 ? BASE_TIME.plusMinutes(6) : BASE_TIME.plusMinutes(partnerId);
+            expected.add(insertConversation(Math.min(5L, partnerId), Math.max(5L, partnerId), updateTime));
+        }
+        insertConversation(1L, 2L, BASE_TIME.plusHours(1)); // 与用户5无关的会话
+
+        // 期望顺序：更新时间倒序，同一时间按会话ID倒序（用户3与用户6的会话同为+6分钟）
+        List<Conversation> all = new ArrayList<>();
+        for (Long conversationId : expected) {
+            all.add(conversationMapper.selectById(conversationId));
+        }
+        all.sort((a, b) -> a.getUpdateTime().equals(b.getUpdateTime())
+                ? b.getConversationId().compareTo(a.getConversationId())
+                : b.getUpdateTime().compareTo(a.getUpdateTime()));
+
+        // 2. 每页3条逐页读取
+        List<Long> paged = new ArrayList<>();
+        LocalDateTime lastUpdateTime = null;
+        Long lastConversationId = null;
+        while (true) {
+            List<Conversation> page = conversationMapper.selectByUserCursor(5L, lastUpdateTime, lastConversationId, 3);
+            page.forEach(conversation -> paged.add(conversation.getConversationId()));
+            if (page.size() < 3) {
+                break;
+            }
+            lastUpdateTime = page.get(2).getUpdateTime();
+            lastConversationId = page.get(2).getConversationId();
+        }
+
+        // 3. 断言顺序一致且覆盖全部7个会话
+        assertEquals(all.stream().map(Conversation::getConversationId).toList(), paged);
+        assertEquals(7, paged.size());
+    }
+
+    /**
+     * 测试mergeBackfill：回填新建的会话更新时间取历史私信时间；已有消息的会话最后一条消息与更新时间不回退，未读数累加
+     */
+    @Test
+    void mergeBackfill_newConversationTakesHistoryTimeAndNeverRewinds() {
+        // 1. 回填时新建的会话（尚无消息）：更新时间取最后一条历史私信的发送时间
+        Long created = insertConversation(1L, 2L, BASE_TIME.plusDays(30));
+        assertEquals(1, conversationMapper.mergeBackfill(created, 8L, 1, 2, BASE_TIME));
+        Conversation conversation = conversationMapper.selectById(created);
+        assertEquals(8L, conversation.getLastMsgId());
+        assertEquals(BASE_TIME, conversation.getUpdateTime());
+        assertEquals(1, conversation.getLowUnreadCount());
+        assertEquals(2, conversation.getHighUnreadCount());
+
+        // 2. 上线后已有新私信的会话：合并较早的历史私信不回退，未读数累加
+        Long active = insertConversation(3L, 4L, BASE_TIME.plusDays(30));
+        conversationMapper.recordMessage(active, 100L, true, BASE_TIME.plusDays(30));
+        assertEquals(1, conversationMapper.mergeBackfill(active, 9L, 2, 0, BASE_TIME));
+        conversation = conversationMapper.selectById(active);
+        assertEquals(100L, conversation.getLastMsgId());
+        assertEquals(BASE_TIME.plusDays(30), conversation.getUpdateTime());
+        assertEquals(3, conversation.getLowUnreadCount());
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    private Long insertConversation(Long userLowId, Long userHighId, LocalDateTime updateTime) {
+        Conversation conversation = new Conversation();
+        conversation.setUserLowId(userLowId);
+        conversation.setUserHighId(userHighId);
+        conversation.setLowUnreadCount(0);
+        conversation.setHighUnreadCount(0);
+        conversation.setCreateTime(updateTime);
+        conversation.setUpdateTime(updateTime);
+        assertEquals(1, conversationMapper.insert(conversation));
+        return conversation.getConversationId();
+    }
+
+    private void insertPrivateMessage(Long conversationId, Long senderId, Long receiverId, boolean isRead, boolean isDeleted) {
+        Message message = new Message();
+        message.setSenderId(senderId);
+        message.setReceiverId(receiverId);
+        message.setTitle("私信");
+        message.setContent("测试私信");
+        message.setIsRead(isRead);
+        message.setIsDeleted(isDeleted);
+        message.setType(MessageTypeEnum.PRIVATE);
+        message.setConversationId(conversationId);
+        message.setCreateTime(BASE_TIME);
+        message.setUpdateTime(BASE_TIME);
+        assertEquals(1, messageMapper.insert(message));
+    }
+}
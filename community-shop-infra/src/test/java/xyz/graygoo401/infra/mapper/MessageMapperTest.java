@@ -1,19 +1,25 @@
 package xyz.graygoo401.infra.mapper;
 
 import com.baomidou.mybatisplus.test.autoconfigure.MybatisPlusTest;
+import org.apache.ibatis.cursor.Cursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.test.context.ActiveProfiles;
+import xyz.graygoo401.api.infra.dto.message.MessageBatchReadDTO;
+import xyz.graygoo401.api.infra.dto.message.MessageBatchReadGroupDTO;
 import xyz.graygoo401.api.infra.dto.message.MessageQueryDTO;
+import xyz.graygoo401.api.infra.dto.message.MessageUnreadCountDTO;
 import xyz.graygoo401.api.infra.dto.message.PrivateMessageQueryDTO;
 import xyz.graygoo401.api.infra.enums.MessageTypeEnum;
 import xyz.graygoo401.infra.dao.entity.Message;
 import xyz.graygoo401.infra.dao.mapper.MessageMapper;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -121,6 +127,26 @@ public class MessageMapperTest {
         assertEquals(1, orderUnreadCount, "用户receiverId=1的订单类型未读消息数应为1");
     }
 
+    /**
+     * 测试countUnreadGroupByType：按接收人、类型分组统计未读消息数（与countUnread总数一致）
+     */
+    @Test
+    void countUnreadGroupByType_multiReceivers_returnsGroupedCounts() {
+        // 1. 执行测试方法（receiverId=1有订单、私信未读各1条；receiverId=999无消息）
+        List<MessageUnreadCountDTO> counts = messageMapper.countUnreadGroupByType(List.of(1L, 999L));
+
+        // 2. 断言结果（未读数为0的类型与无消息的接收人不返回）
+        assertEquals(2, counts.size());
+        for (MessageUnreadCountDTO count : counts) {
+            assertEquals(1L, count.getReceiverId());
+            assertEquals(1, count.getUnreadCount());
+        }
+        assertEquals(messageMapper.countUnread(1L),
+                counts.stream().mapToInt(MessageUnreadCountDTO::getUnreadCount).sum());
+        assertTrue(counts.stream().anyMatch(count -> count.getType() == MessageTypeEnum.ORDER));
+        assertTrue(counts.stream().anyMatch(count -> count.getType() == MessageTypeEnum.PRIVATE));
+    }
+
     /**
      * 测试updateReadStatus：更新消息阅读状态（正常场景，标记为已读）
      * 适配《代码文档1》2.7.2节 状态更新 - updateReadStatus方法
@@ -291,4 +317,279 @@ public class MessageMapperTest {
         assertEquals("订单发货通知", insertedMessage.getTitle(), "新增消息标题不匹配");
         assertEquals(MessageTypeEnum.ORDER, insertedMessage.getType(), "新增消息类型应为ORDER");
     }
-}
\ No newline at end of file
+
+    /**
+     * 测试insertBatch：一条多行INSERT写入多条通知，回填自增主键
+     */
+    @Test
+    void insertBatch_multipleNotices_insertsAllAndFillsIds() {
+        // 1. 构造3条通知（两个接收人、两种类型）
+        List<Message> messages = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Message message = new Message();
+            message.setSenderId(0L);
+            message.setReceiverId(i < 2 ? 1L : 2L);
+            message.setTitle("批量通知" + i);
+            message.setContent("批量通知内容" + i);
+            message.setOrderId(2001L + i);
+            message.setIsRead(false);
+            message.setIsDeleted(false);
+            message.setType(i == 0 ? MessageTypeEnum.PRIVATE : MessageTypeEnum.ORDER);
+            message.setCreateTime(LocalDateTime.now());
+            message.setUpdateTime(LocalDateTime.now());
+            messages.add(message);
+        }
+
+        // 2. 执行批量写入
+        int affectedRows = messageMapper.insertBatch(messages);
+
+        // 3. 断言写入行数与回填主键
+        assertEquals(3, affectedRows, "批量写入应影响3行数据");
+        for (Message message : messages) {
+            assertNotNull(message.getMsgId(), "批量写入后应回填消息ID");
+            Message inserted = messageMapper.selectById(message.getMsgId());
+            assertEquals(message.getTitle(), inserted.getTitle(), "批量写入消息标题不匹配");
+            assertEquals(message.getType(), inserted.getType(), "批量写入消息类型不匹配");
+            assertFalse(inserted.getIsRead(), "批量写入的通知应为未读");
+        }
+    }
+
+    /**
+     * 测试selectByConversationCursor与markConversationRead：会话内按消息ID倒序游标分页；
+     * 标记已读只处理当前用户收到的、不超过指定消息ID的未读私信
+     */
+    @Test
+    void conversationMessages_cursorPagingAndMarkRead() {
+        // 1. 会话9001内5条私信（用户1与用户2交替发送），另一会话1条
+        List<Long> msgIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            msgIds.add(insertPrivateMessage(9001L, i % 2 == 0 ? 1L : 2L, i % 2 == 0 ? 2L : 1L));
+        }
+        insertPrivateMessage(9002L, 1L, 3L);
+
+        // 2. 游标分页：每页2条，按消息ID倒序
+        List<Message> firstPage = messageMapper.selectByConversationCursor(9001L, null, 2);
+        assertEquals(List.of(msgIds.get(4), msgIds.get(3)), firstPage.stream().map(Message::getMsgId).toList());
+        List<Message> secondPage = messageMapper.selectByConversationCursor(9001L, firstPage.get(1).getMsgId(), 2);
+        assertEquals(List.of(msgIds.get(2), msgIds.get(1)), secondPage.stream().map(Message::getMsgId).toList());
+        List<Message> lastPage = messageMapper.selectByConversationCursor(9001L, secondPage.get(1).getMsgId(), 2);
+        assertEquals(List.of(msgIds.get(0)), lastPage.stream().map(Message::getMsgId).toList());
+
+        // 3. 用户2标记已读到第4条：用户2收到的是第1、3、5条，只标记第1、3条
+        assertEquals(2, messageMapper.markConversationRead(9001L, 2L, msgIds.get(3)));
+        assertTrue(messageMapper.selectById(msgIds.get(2)).getIsRead());
+        assertFalse(messageMapper.selectById(msgIds.get(4)).getIsRead(), "超过maxMsgId的消息应保持未读");
+        assertFalse(messageMapper.selectById(msgIds.get(1)).getIsRead(), "用户1收到的消息不受影响");
+        assertEquals(0, messageMapper.markConversationRead(9001L, 2L, msgIds.get(3)), "重复标记不应再影响行数");
+    }
+
+    /**
+     * 测试countUnreadForBatchRead与batchMarkRead：归属校验在WHERE中，他人的消息、已读消息即使在ID列表中也不受影响；
+     * 按类型、会话分组统计；按类型与时间上限筛选；不超过maxMsgId
+     */
+    @Test
+    void batchMarkRead_ownershipAndConditionsInWhere() {
+        // 1. 按ID列表：用户2收到3条未读，列表中混入用户1收到的消息与已读消息
+        List<Long> received = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            received.add(insertPrivateMessage(9005L, 1L, 2L));
+        }
+        Long othersMessage = insertPrivateMessage(9005L, 2L, 1L);
+        List<Long> requested = new ArrayList<>(received);
+        requested.add(othersMessage);
+        requested.add(readMessage.getMsgId());
+        MessageBatchReadDTO byIds = new MessageBatchReadDTO(requested, null, null);
+
+        List<MessageBatchReadGroupDTO> groups = messageMapper.countUnreadForBatchRead(2L, byIds);
+        assertEquals(1, groups.size());
+        assertEquals(MessageTypeEnum.PRIVATE, groups.get(0).getType());
+        assertEquals(9005L, groups.get(0).getConversationId());
+        assertEquals(1L, groups.get(0).getSenderId());
+        assertEquals(3, groups.get(0).getUnreadCount());
+        assertEquals(received.get(2), groups.get(0).getMaxMsgId());
+
+        // 2. maxMsgId之后的消息不标记
+        assertEquals(2, messageMapper.batchMarkRead(2L, byIds, received.get(1)));
+        assertFalse(messageMapper.selectById(received.get(2)).getIsRead());
+        assertFalse(messageMapper.selectById(othersMessage).getIsRead(), "他人的消息不受影响");
+        assertEquals(1, messageMapper.batchMarkRead(2L, byIds, received.get(2)));
+
+        // 3. 按类型与时间上限：用户1在2024-01-06之前的未读私信（初始化数据msgId=6）
+        MessageBatchReadDTO byTypeAndTime = new MessageBatchReadDTO(null, MessageTypeEnum.PRIVATE, LocalDateTime.of(2024, 1, 6, 0, 0));
+        List<MessageBatchReadGroupDTO> oldPrivate = messageMapper.countUnreadForBatchRead(1L, byTypeAndTime);
+        assertEquals(1, oldPrivate.size());
+        assertEquals(1, oldPrivate.get(0).getUnreadCount());
+        assertEquals(1, messageMapper.batchMarkRead(1L, byTypeAndTime, oldPrivate.get(0).getMaxMsgId()));
+        assertFalse(messageMapper.selectById(othersMessage).getIsRead(), "时间上限之后的消息不受影响");
+    }
+
+    /**
+     * 测试streamForExport：按类型流式读取消息（含已删除消息），按消息ID升序
+     */
+    @Test
+    void streamForExport_orderType_streamsAscendingIncludingDeleted() throws Exception {
+        // 1. 执行流式查询（测试方法在事务内，游标可直接遍历）
+        List<Long> msgIds = new ArrayList<>();
+        try (Cursor<Message> cursor = messageMapper.streamForExport(MessageTypeEnum.ORDER, null, null)) {
+            for (Message message : cursor) {
+                assertEquals(MessageTypeEnum.ORDER, message.getType(), "导出消息类型应为ORDER");
+                msgIds.add(message.getMsgId());
+            }
+        }
+
+        // 2. 验证结果（包含已删除消息msgId=3，且按ID升序）
+        assertTrue(msgIds.contains(deletedMessage.getMsgId()), "导出应包含已删除消息");
+        assertFalse(msgIds.contains(systemMessage.getMsgId()), "导出不应包含系统消息");
+        List<Long> sorted = new ArrayList<>(msgIds);
+        Collections.sort(sorted);
+        assertEquals(sorted, msgIds, "导出消息应按ID升序");
+    }
+
+    /**
+     * 测试归档：只迁移早于热数据边界且已读/已删除的消息，按消息ID游标分批；迁移后收件箱只查热表，归档消息可按ID查询与导出
+     */
+    @Test
+    void archive_movesOnlyExpiredReadOrDeleted() throws Exception {
+        // 1. 边界2024-06-01：初始化数据均早于边界，未读的系统消息不可归档
+        LocalDateTime boundary = LocalDateTime.of(2024, 6, 1, 0, 0);
+        insertPrivateMessage(9003L, 1L, 2L); // 边界之后的新消息
+        messageMapper.updateDeleteStatus(deletedMessage.getMsgId(), true); // 未读但已删除的消息可归档
+        List<Long> msgIds = messageMapper.selectArchivableIds(boundary, null, 100);
+        assertTrue(msgIds.containsAll(List.of(readMessage.getMsgId(), deletedMessage.getMsgId())));
+        assertFalse(msgIds.contains(systemMessage.getMsgId()), "未读消息应留在热表");
+
+        // 2. 每批1条按游标读取，与一次读取的结果一致
+        List<Long> batched = new ArrayList<>();
+        Long lastMsgId = null;
+        List<Long> batch;
+        while (!(batch = messageMapper.selectArchivableIds(boundary, lastMsgId, 1)).isEmpty()) {
+            batched.addAll(batch);
+            lastMsgId = batch.get(0);
+        }
+        assertEquals(msgIds, batched);
+
+        // 3. 复制与删除行数一致，消息移出热表
+        assertEquals(msgIds.size(), messageMapper.copyToArchive(msgIds, boundary));
+        assertEquals(msgIds.size(), messageMapper.deleteArchived(msgIds, boundary));
+        assertNull(messageMapper.selectById(readMessage.getMsgId()));
+        assertNotNull(messageMapper.selectById(systemMessage.getMsgId()));
+        assertTrue(messageMapper.selectArchivableIds(boundary, null, 100).isEmpty());
+
+        // 4. 归档消息字段完整，可按ID查询；收件箱只返回热表消息
+        Message archived = messageMapper.selectArchiveById(readMessage.getMsgId());
+        assertEquals(readMessage.getTitle(), archived.getTitle());
+        assertEquals(readMessage.getCreateTime(), archived.getCreateTime());
+        assertTrue(archived.getIsRead());
+        assertEquals(msgIds.size(), messageMapper.selectArchiveBatchIds(msgIds).size());
+        assertTrue(messageMapper.selectByReceiver(1L, MessageTypeEnum.ORDER, 0, 10).stream()
+                .noneMatch(message -> msgIds.contains(message.getMsgId())));
+
+        // 5. 归档消息按类型流式导出
+        List<Long> exported = new ArrayList<>();
+        try (Cursor<Message> cursor = messageMapper.streamArchiveForExport(MessageTypeEnum.ORDER, null, boundary)) {
+            cursor.forEach(message -> exported.add(message.getMsgId()));
+        }
+        assertTrue(exported.contains(deletedMessage.getMsgId()));
+    }
+
+    /**
+     * 测试selectArchiveByConversationCursor：已读私信归档后仍可按会话游标分页查询
+     */
+    @Test
+    void archive_conversationMessagesPagedFromArchive() {
+        // 1. 会话9004内3条私信，前2条已读后归档
+        List<Long> msgIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            msgIds.add(insertPrivateMessage(9004L, 1L, 2L));
+        }
+        messageMapper.batchUpdateReadStatus(msgIds.subList(0, 2), true);
+        LocalDateTime boundary = LocalDateTime.now().plusMinutes(1);
+        List<Long> archivable = messageMapper.selectArchivableIds(boundary, msgIds.get(0) - 1, 100);
+        assertEquals(msgIds.subList(0, 2), archivable);
+        messageMapper.copyToArchive(archivable, boundary);
+        messageMapper.deleteArchived(archivable, boundary);
+
+        // 2. 热表只剩未读的第3条，归档表按消息ID倒序游标分页
+        assertEquals(List.of(msgIds.get(2)), messageMapper.selectByConversationCursor(9004L, null, 10)
+                .stream().map(Message::getMsgId).toList());
+        assertEquals(List.of(msgIds.get(1)), messageMapper.selectArchiveByConversationCursor(9004L, null, 1)
+                .stream().map(Message::getMsgId).toList());
+        assertEquals(List.of(msgIds.get(0)), messageMapper.selectArchiveByConversationCursor(9004L, msgIds.get(1), 10)
+                .stream().map(Message::getMsgId).toList());
+    }
+
+    /**
+     * 测试归档消息的列表查询与状态更新：按查询条件统计/分页归档表，已归档消息可逻辑删除且不会重复删除
+     */
+    @Test
+    void archive_queryAndSoftDeleteArchivedMessage() {
+        // 1. 归档已读订单消息
+        LocalDateTime boundary = LocalDateTime.of(2024, 6, 1, 0, 0);
+        List<Long> msgIds = List.of(readMessage.getMsgId());
+        messageMapper.copyToArchive(msgIds, boundary);
+        messageMapper.deleteArchived(msgIds, boundary);
+
+        // 2. 按查询条件统计与分页归档表
+        MessageQueryDTO queryDTO = new MessageQueryDTO();
+        queryDTO.setType(MessageTypeEnum.ORDER);
+        queryDTO.setReceiverId(readMessage.getReceiverId());
+        assertEquals(1, messageMapper.countArchiveByQuery(queryDTO));
+        assertEquals(msgIds, messageMapper.selectArchiveByQuery(queryDTO).stream().map(Message::getMsgId).toList());
+
+        // 3. 逻辑删除归档消息，重复删除与删除后标记已读均不生效
+        assertEquals(1, messageMapper.updateArchiveDeleteStatus(readMessage.getMsgId(), true));
+        assertEquals(0, messageMapper.updateArchiveDeleteStatus(readMessage.getMsgId(), true));
+        assertEquals(0, messageMapper.updateArchiveReadStatus(readMessage.getMsgId(), true));
+        assertTrue(messageMapper.selectArchiveById(readMessage.getMsgId()).getIsDeleted());
+    }
+
+    /**
+     * 测试私信会话回填：只选出未关联会话的私信（不含发给自己的私信），会话ID只写入一次，归档表同样处理
+     */
+    @Test
+    void conversationBackfill_selectsLegacyPrivateAndFillsOnce() {
+        // 1. 两条历史私信、一条发给自己的私信、一条已关联会话的私信，另有一条历史私信已读后归档
+        Long first = insertPrivateMessage(null, 1L, 2L);
+        Long second = insertPrivateMessage(null, 2L, 1L);
+        insertPrivateMessage(null, 3L, 3L);
+        insertPrivateMessage(9005L, 1L, 2L);
+        Long archivedId = insertPrivateMessage(null, 1L, 2L);
+        messageMapper.updateReadStatus(archivedId, true);
+        LocalDateTime boundary = LocalDateTime.now().plusMinutes(1);
+        messageMapper.copyToArchive(List.of(archivedId), boundary);
+        messageMapper.deleteArchived(List.of(archivedId), boundary);
+
+        // 2. 热表与归档表各自按游标选出历史私信
+        assertEquals(List.of(first, second), messageMapper.selectPrivateMissingConversation(first - 1, 100)
+                .stream().map(Message::getMsgId).toList());
+        assertEquals(List.of(archivedId), messageMapper.selectArchivePrivateMissingConversation(first - 1, 100)
+                .stream().map(Message::getMsgId).toList());
+
+        // 3. 回填会话ID，重复回填不生效，回填后不再被选出
+        assertEquals(2, messageMapper.backfillConversationId(9006L, List.of(first, second)));
+        assertEquals(0, messageMapper.backfillConversationId(9007L, List.of(first, second)));
+        assertEquals(1, messageMapper.backfillArchiveConversationId(9006L, List.of(archivedId)));
+        assertEquals(9006L, messageMapper.selectById(second).getConversationId());
+        assertEquals(9006L, messageMapper.selectArchiveById(archivedId).getConversationId());
+        assertTrue(messageMapper.selectPrivateMissingConversation(first - 1, 100).isEmpty());
+        assertTrue(messageMapper.selectArchivePrivateMissingConversation(first - 1, 100).isEmpty());
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    private Long insertPrivateMessage(Long conversationId, Long senderId, Long receiverId) {
+        Message message = new Message();
+        message.setSenderId(senderId);
+        message.setReceiverId(receiverId);
+        message.setTitle("私信");
+        message.setContent("私信内容");
+        message.setIsRead(false);
+        message.setIsDeleted(false);
+        message.setType(MessageTypeEnum.PRIVATE);
+        message.setConversationId(conversationId);
+        message.setCreateTime(LocalDateTime.now());
+        message.setUpdateTime(LocalDateTime.now());
+        assertEquals(1, messageMapper.insert(message));
+        return message.getMsgId();
+    }
+}
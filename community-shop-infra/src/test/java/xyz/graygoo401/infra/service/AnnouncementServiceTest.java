@@ -0,0 +1,228 @@
+package xyz.graygoo401.infra.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+import xyz.graygoo401.api.infra.dto.message.MessagePushDTO;
+import xyz.graygoo401.api.infra.dto.message.MessageSendDTO;
+import xyz.graygoo401.api.infra.enums.MessageTypeEnum;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.infra.convert.MessageConvert;
+import xyz.graygoo401.infra.dao.entity.Announcement;
+import xyz.graygoo401.infra.dao.entity.AnnouncementCursor;
+import xyz.graygoo401.infra.dao.mapper.AnnouncementMapper;
+import xyz.graygoo401.infra.exception.error.MessageErrorCode;
+import xyz.graygoo401.infra.service.base.PushService;
+import xyz.graygoo401.infra.service.impl.AnnouncementServiceImpl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * AnnouncementServiceImpl单元测试（读时扇出）
+ * 以内存Map模拟announcement表、announcement_cursor表与Redis
+ * 覆盖：发布公告的写入量与用户数无关、未读数按阅读游标在读取时计算、标记已读只推进游标、参数校验
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class AnnouncementServiceTest {
+
+    private static final int USER_COUNT = 10_000; // 模拟用户数
+    private static final String RECENT_CACHE_KEY = "message:announcement:recent";
+
+    @Mock
+    private AnnouncementMapper announcementMapper;
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+    @Mock
+    private ValueOperations<String, String> stringValueOperations;
+    @Mock
+    private PushService pushService;
+
+    private final List<Announcement> announcementTable = new ArrayList<>(); // 模拟announcement表
+    private final Map<Long, Long> cursorTable = new HashMap<>();           // 模拟announcement_cursor表
+    private final Map<String, Object> fakeRedis = new HashMap<>();         // 模拟Redis
+    private AnnouncementServiceImpl announcementService;
+
+    @BeforeEach
+    void setUp() {
+        mockMapper();
+        mockRedis();
+        announcementService = new AnnouncementServiceImpl();
+        ReflectionTestUtils.setField(announcementService, "announcementMapper", announcementMapper);
+        ReflectionTestUtils.setField(announcementService, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(announcementService, "stringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(announcementService, "pushService", pushService);
+        ReflectionTestUtils.setField(announcementService, "messageConvert", MessageConvert.INSTANCE);
+    }
+
+    /**
+     * 广播测试：向1万用户发布公告，只写入一行公告、删除一次全局缓存、广播一次推送，不写任何用户维度的数据
+     * 随后批量统计全部用户的未读数，每人1条，且游标只做一次批量查询
+     */
+    @Test
+    void publish_broadcastToAllUsers_constantWrites() {
+        // 1. 发布公告
+        Long announcementId = announcementService.publish(9L, buildSendDTO("平台规则更新"));
+
+        // 2. 验证写入量：一行公告 + 一次缓存删除，与用户数无关
+        assertEquals(1L, announcementId);
+        verify(announcementMapper, times(1)).insert(any(Announcement.class));
+        verify(announcementMapper, never()).advanceCursor(anyLong(), anyLong());
+        verify(redisTemplate, times(1)).delete(RECENT_CACHE_KEY);
+        verify(stringRedisTemplate, never()).execute(any(RedisScript.class), anyList(), (Object[]) any());
+        verify(pushService, times(1)).broadcast(argThat((MessagePushDTO event) ->
+                Boolean.TRUE.equals(event.getIsAnnouncement()) && event.getReceiverId() == null
+                        && announcementId.equals(event.getMessageId())));
+        verify(pushService, never()).push(anyList());
+
+        // 3. 读取时合并：全部用户各有1条未读公告
+        List<Long> userIds = LongStream.rangeClosed(1, USER_COUNT).boxed().collect(Collectors.toList());
+        Map<Long, Integer> unreadCounts = announcementService.batchCountUnread(userIds);
+        assertEquals(USER_COUNT, unreadCounts.size());
+        assertTrue(unreadCounts.values().stream().allMatch(count -> count == 1));
+        verify(announcementMapper, times(1)).selectCursors(anyList());
+        verify(announcementMapper, times(1)).selectRecent(anyInt());
+
+        // 4. 再发布一条：写入量仍为一行
+        announcementService.publish(9L, buildSendDTO("活动通知"));
+        verify(announcementMapper, times(2)).insert(any(Announcement.class));
+        assertEquals(2, announcementService.countUnread(1L));
+        assertEquals(2, announcementTable.size());
+        assertTrue(cursorTable.isEmpty());
+    }
+
+    /**
+     * 测试已读：标记已读后游标推进到最新公告，未读数归0；之后的新公告重新计为未读
+     */
+    @Test
+    void markAllRead_advancesCursorAndNewAnnouncementCountsAgain() {
+        announcementService.publish(9L, buildSendDTO("公告1"));
+        announcementService.publish(9L, buildSendDTO("公告2"));
+        assertEquals(2, announcementService.countUnread(1L));
+
+        assertTrue(announcementService.markAllRead(1L));
+        assertEquals(2L, cursorTable.get(1L));
+        assertEquals("2", fakeRedis.get("message:announcement:cursor:1"));
+        assertEquals(0, announcementService.countUnread(1L));
+        assertEquals(2, announcementService.countUnread(2L), "其他用户不受影响");
+
+        announcementService.publish(9L, buildSendDTO("公告3"));
+        assertEquals(1, announcementService.countUnread(1L));
+        assertEquals(Map.of(1L, 1, 2L, 3), announcementService.batchCountUnread(List.of(1L, 2L)));
+    }
+
+    /**
+     * 测试无公告：标记已读不写入游标
+     */
+    @Test
+    void markAllRead_noAnnouncement_returnsFalse() {
+        assertFalse(announcementService.markAllRead(1L));
+        verify(announcementMapper, never()).advanceCursor(anyLong(), anyLong());
+    }
+
+    /**
+     * 测试参数校验：标题为空、标题超50字均不写入
+     */
+    @Test
+    void publish_invalidParam_throwsWithoutInsert() {
+        MessageSendDTO noTitle = buildSendDTO(null);
+        BusinessException nullException = assertThrows(BusinessException.class, () -> announcementService.publish(9L, noTitle));
+        assertEquals(MessageErrorCode.MESSAGE_CONTENT_NULL, nullException.getErrorCode());
+
+        MessageSendDTO longTitle = buildSendDTO("公".repeat(51));
+        BusinessException lengthException = assertThrows(BusinessException.class, () -> announcementService.publish(9L, longTitle));
+        assertEquals(MessageErrorCode.MESSAGE_CONTENT_INVALID, lengthException.getErrorCode());
+
+        verify(announcementMapper, never()).insert(any(Announcement.class));
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    private void mockMapper() {
+        when(announcementMapper.insert(any(Announcement.class))).thenAnswer(invocation -> {
+            Announcement announcement = invocation.getArgument(0);
+            announcement.setAnnouncementId((long) announcementTable.size() + 1);
+            announcementTable.add(announcement);
+            return 1;
+        });
+        when(announcementMapper.selectRecent(anyInt())).thenAnswer(invocation -> {
+            List<Announcement> recent = new ArrayList<>(announcementTable);
+            Collections.reverse(recent);
+            return recent.subList(0, Math.min(invocation.<Integer>getArgument(0), recent.size()));
+        });
+        when(announcementMapper.selectLastSeenId(anyLong())).thenAnswer(invocation -> cursorTable.get(invocation.<Long>getArgument(0)));
+        when(announcementMapper.selectCursors(anyList())).thenAnswer(invocation -> {
+            List<AnnouncementCursor> cursors = new ArrayList<>();
+            for (Long userId : invocation.<List<Long>>getArgument(0)) {
+                if (cursorTable.containsKey(userId)) {
+                    AnnouncementCursor cursor = new AnnouncementCursor();
+                    cursor.setUserId(userId);
+                    cursor.setLastSeenId(cursorTable.get(userId));
+                    cursors.add(cursor);
+                }
+            }
+            return cursors;
+        });
+        when(announcementMapper.advanceCursor(anyLong(), anyLong())).thenAnswer(invocation -> {
+            cursorTable.merge(invocation.getArgument(0), invocation.getArgument(1), Math::max);
+            return 1;
+        });
+    }
+
+    private void mockRedis() {
+        // 1. 全局公告缓存（RedisTemplate）
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenAnswer(invocation -> fakeRedis.get(invocation.<String>getArgument(0)));
+        doAnswer(invocation -> fakeRedis.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(valueOperations).set(anyString(), any(), anyLong(), any(TimeUnit.class));
+        when(redisTemplate.delete(anyString())).thenAnswer(invocation -> fakeRedis.remove(invocation.<String>getArgument(0)) != null);
+
+        // 2. 阅读游标缓存（StringRedisTemplate）
+        when(stringRedisTemplate.opsForValue()).thenReturn(stringValueOperations);
+        when(stringValueOperations.get(anyString())).thenAnswer(invocation -> fakeRedis.get(invocation.<String>getArgument(0)));
+        when(stringValueOperations.multiGet(anyCollection())).thenAnswer(invocation -> invocation.<Collection<String>>getArgument(0)
+                .stream().map(key -> (String) fakeRedis.get(key)).collect(Collectors.toList()));
+        when(stringValueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenAnswer(invocation ->
+                fakeRedis.putIfAbsent(invocation.getArgument(0), invocation.getArgument(1)) == null);
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), (Object[]) any())).thenAnswer(invocation -> {
+            String key = invocation.<List<String>>getArgument(1).get(0);
+            String value = invocation.getArgument(2);
+            Object current = fakeRedis.get(key);
+            if (current != null && Long.parseLong((String) current) >= Long.parseLong(value)) {
+                return 0L;
+            }
+            fakeRedis.put(key, value);
+            return 1L;
+        });
+    }
+
+    private MessageSendDTO buildSendDTO(String title) {
+        MessageSendDTO sendDTO = new MessageSendDTO();
+        sendDTO.setTitle(title);
+        sendDTO.setContent("公告内容：" + title);
+        sendDTO.setType(MessageTypeEnum.SYSTEM);
+        return sendDTO;
+    }
+}
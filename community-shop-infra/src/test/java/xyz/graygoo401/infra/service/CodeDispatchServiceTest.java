@@ -0,0 +1,263 @@
+package xyz.graygoo401.infra.service;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import xyz.graygoo401.api.common.dto.mq.VerifyCodeEventDTO;
+import xyz.graygoo401.api.common.enums.MqEventTypeEnum;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.common.util.CodeGenerateUtil;
+import xyz.graygoo401.infra.exception.error.VerifyErrorCode;
+import xyz.graygoo401.infra.service.impl.CodeDispatchServiceImpl;
+import xyz.graygoo401.infra.service.impl.EmailCodeServiceImpl;
+import xyz.graygoo401.infra.service.impl.PhoneCodeServiceImpl;
+import xyz.graygoo401.infra.util.AliyunPnsSendUtil;
+import xyz.graygoo401.infra.util.CodeCacheUtil;
+import xyz.graygoo401.infra.util.EmailSendUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * CodeDispatchServiceImpl单元测试
+ * 邮件经真实的EmailSendUtil与Thymeleaf模板（与运行时相同的SpringTemplateEngine）渲染后交给内存中的SMTP替身（不连接邮件服务器），短信网关使用Mock
+ * 覆盖：整批一次发送、去重与跳过已过期验证码、只重试失败邮箱、重试次数上限、短信失败重试，
+ * 以及发送验证码接口的投递确认（Broker使用Mock的RabbitTemplate模拟ack、队列满nack与无队列退回）
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class CodeDispatchServiceTest {
+
+    @Mock
+    private CodeCacheUtil codeCacheUtil;
+    @Mock
+    private AliyunPnsSendUtil pnsSendUtil;
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+    @Mock
+    private CodeGenerateUtil codeGenerateUtil;
+
+    private InMemoryMailSender mailSender;
+
+    private CodeDispatchServiceImpl codeDispatchService;
+
+    @BeforeEach
+    void setUp() {
+        mailSender = new InMemoryMailSender();
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+
+        EmailSendUtil emailSendUtil = new EmailSendUtil();
+        ReflectionTestUtils.setField(emailSendUtil, "fromEmail", "noreply@graygoo401.xyz");
+        ReflectionTestUtils.setField(emailSendUtil, "emailSubject", "验证码");
+        ReflectionTestUtils.setField(emailSendUtil, "emailTemplatePath", "email/code-template.html");
+        ReflectionTestUtils.setField(emailSendUtil, "mailSender", mailSender);
+        ReflectionTestUtils.setField(emailSendUtil, "templateEngine", templateEngine);
+
+        codeDispatchService = new CodeDispatchServiceImpl();
+        ReflectionTestUtils.setField(codeDispatchService, "confirmTimeoutMillis", 1000L);
+        ReflectionTestUtils.setField(codeDispatchService, "rabbitTemplate", rabbitTemplate);
+        ReflectionTestUtils.setField(codeDispatchService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(codeDispatchService, "initialBackoffMillis", 0L);
+        ReflectionTestUtils.setField(codeDispatchService, "backoffMultiplier", 2.0);
+        ReflectionTestUtils.setField(codeDispatchService, "maxBackoffMillis", 0L);
+        ReflectionTestUtils.setField(codeDispatchService, "emailSendUtil", emailSendUtil);
+        ReflectionTestUtils.setField(codeDispatchService, "pnsSendUtil", pnsSendUtil);
+        ReflectionTestUtils.setField(codeDispatchService, "codeCacheUtil", codeCacheUtil);
+
+        when(codeCacheUtil.getCacheEmailCode("a@test.com")).thenReturn("111111");
+        when(codeCacheUtil.getCacheEmailCode("b@test.com")).thenReturn("222222");
+        when(codeGenerateUtil.generate6DigitCode()).thenReturn("123456");
+    }
+
+    /**
+     * 测试整批发送：重复邮箱只发一次，验证码已过期的邮箱跳过，其余邮件在一次发送调用（同一SMTP连接）内完成，正文为渲染后的验证码
+     */
+    @Test
+    void dispatchEmailCodes_sendsBatchInOneCall() throws Exception {
+        assertEquals(2, codeDispatchService.dispatchEmailCodes(List.of("a@test.com", "b@test.com", "a@test.com", "expired@test.com")));
+
+        assertEquals(1, mailSender.sendCalls.size());
+        assertEquals(List.of("a@test.com", "b@test.com"), mailSender.sendCalls.get(0));
+        assertTrue(mailSender.delivered.get("b@test.com").contains("222222"));
+    }
+
+    /**
+     * 测试部分失败：只有失败的邮箱进入下一次尝试
+     */
+    @Test
+    void dispatchEmailCodes_retriesOnlyFailedAddresses() {
+        mailSender.failuresLeft.put("b@test.com", 1);
+
+        assertEquals(2, codeDispatchService.dispatchEmailCodes(List.of("a@test.com", "b@test.com")));
+
+        assertEquals(List.of(List.of("a@test.com", "b@test.com"), List.of("b@test.com")), mailSender.sendCalls);
+        assertEquals(Set.of("a@test.com", "b@test.com"), mailSender.delivered.keySet());
+    }
+
+    /**
+     * 测试重试上限：持续失败的邮箱最多尝试max-attempts次，不向外抛出异常
+     */
+    @Test
+    void dispatchEmailCodes_givesUpAfterMaxAttempts() {
+        mailSender.failuresLeft.put("b@test.com", Integer.MAX_VALUE);
+
+        assertEquals(1, codeDispatchService.dispatchEmailCodes(List.of("a@test.com", "b@test.com")));
+        assertEquals(3, mailSender.sendCalls.size());
+    }
+
+    /**
+     * 测试短信发送：网关失败后退避重试；验证码已过期（已使用）时不再发送
+     */
+    @Test
+    void dispatchSmsCode_retriesAndSkipsExpiredCode() throws Exception {
+        when(codeCacheUtil.getCachePhoneCode("13800138000")).thenReturn("333333");
+        when(pnsSendUtil.senPnsCode("13800138000", "333333"))
+                .thenThrow(new RuntimeException("阿里云短信服务异常"))
+                .thenReturn("request-id");
+
+        assertTrue(codeDispatchService.dispatchSmsCode("13800138000"));
+        verify(pnsSendUtil, times(2)).senPnsCode("13800138000", "333333");
+
+        assertFalse(codeDispatchService.dispatchSmsCode("13900139000"));
+        verify(pnsSendUtil, never()).senPnsCode(eq("13900139000"), anyString());
+    }
+
+    /**
+     * 测试发送邮箱验证码：先缓存验证码，投递事件并在Broker确认后返回
+     */
+    @Test
+    void sendEmailCode_publishesEventAfterConfirm() {
+        stubBroker(true, false);
+
+        assertEquals("123456", buildEmailCodeService().sendCode("a@test.com"));
+
+        verify(codeCacheUtil).cacheEmailCode("a@test.com", "123456");
+        verify(rabbitTemplate).convertAndSend(eq(MqEventTypeEnum.EMAIL_CODE_REQUESTED.getExchange()),
+                eq(MqEventTypeEnum.EMAIL_CODE_REQUESTED.getRoutingKey()),
+                argThat((VerifyCodeEventDTO event) -> "a@test.com".equals(event.getTarget())), any(CorrelationData.class));
+        verify(codeCacheUtil, never()).deleteCachedEmailCode(anyString());
+    }
+
+    /**
+     * 测试发送队列已满：Broker按reject-publish返回nack，接口返回繁忙并删除已缓存的验证码
+     */
+    @Test
+    void sendEmailCode_queueFull_returnsBusyAndDeletesCode() {
+        stubBroker(false, false);
+
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> buildEmailCodeService().sendCode("a@test.com"));
+
+        assertEquals(VerifyErrorCode.VERIFY_CODE_SEND_BUSY, exception.getErrorCode());
+        verify(codeCacheUtil).deleteCachedEmailCode("a@test.com");
+    }
+
+    /**
+     * 测试发送队列未声明：消息被退回（Broker仍ack），接口返回繁忙并删除已缓存的验证码
+     */
+    @Test
+    void sendSmsCode_unroutable_returnsBusyAndDeletesCode() {
+        stubBroker(true, true);
+        PhoneCodeServiceImpl phoneCodeService = new PhoneCodeServiceImpl();
+        ReflectionTestUtils.setField(phoneCodeService, "codeDispatchService", codeDispatchService);
+        ReflectionTestUtils.setField(phoneCodeService, "codeCacheUtil", codeCacheUtil);
+        ReflectionTestUtils.setField(phoneCodeService, "codeGenerateUtil", codeGenerateUtil);
+
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> phoneCodeService.sendCode("13800138000"));
+
+        assertEquals(VerifyErrorCode.VERIFY_CODE_SEND_BUSY, exception.getErrorCode());
+        verify(codeCacheUtil).cachePhoneCode("13800138000", "123456");
+        verify(codeCacheUtil).deleteCachedPhoneCode("13800138000");
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    private EmailCodeServiceImpl buildEmailCodeService() {
+        EmailCodeServiceImpl emailCodeService = new EmailCodeServiceImpl();
+        ReflectionTestUtils.setField(emailCodeService, "codeDispatchService", codeDispatchService);
+        ReflectionTestUtils.setField(emailCodeService, "codeCacheUtil", codeCacheUtil);
+        ReflectionTestUtils.setField(emailCodeService, "codeGenerateUtil", codeGenerateUtil);
+        return emailCodeService;
+    }
+
+    /**
+     * 模拟Broker：投递时回填确认结果（ack/nack），returned为true时先回填退回消息（与RabbitTemplate的处理顺序一致）
+     */
+    private void stubBroker(boolean ack, boolean returned) {
+        doAnswer(invocation -> {
+            CorrelationData correlation = invocation.getArgument(3);
+            if (returned) {
+                correlation.setReturned(new ReturnedMessage(new Message(new byte[0]), 312, "NO_ROUTE",
+                        invocation.getArgument(0), invocation.getArgument(1)));
+            }
+            correlation.getFuture().complete(new CorrelationData.Confirm(ack, ack ? null : "reject-publish"));
+            return null;
+        }).when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+    }
+
+    /**
+     * 内存SMTP替身：记录每次发送调用的收件人与邮件原文，可按收件人配置失败次数（模拟服务器拒收单封邮件）
+     */
+    private static class InMemoryMailSender extends JavaMailSenderImpl {
+
+        private final List<List<String>> sendCalls = new ArrayList<>();
+        private final Map<String, String> delivered = new LinkedHashMap<>();
+        private final Map<String, Integer> failuresLeft = new HashMap<>();
+
+        @Override
+        protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+            List<String> recipients = new ArrayList<>();
+            Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+            for (MimeMessage message : mimeMessages) {
+                try {
+                    String recipient = message.getAllRecipients()[0].toString();
+                    recipients.add(recipient);
+                    if (failuresLeft.getOrDefault(recipient, 0) > 0) {
+                        failuresLeft.merge(recipient, -1, Integer::sum);
+                        failedMessages.put(message, new MessagingException("550 mailbox unavailable"));
+                        continue;
+                    }
+                    ByteArrayOutputStream raw = new ByteArrayOutputStream();
+                    message.writeTo(raw);
+                    delivered.put(recipient, raw.toString(StandardCharsets.UTF_8));
+                } catch (MessagingException | IOException e) {
+                    failedMessages.put(message, e);
+                }
+            }
+            sendCalls.add(recipients);
+            if (!failedMessages.isEmpty()) {
+                throw new MailSendException(failedMessages);
+            }
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package xyz.graygoo401.infra.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import xyz.graygoo401.api.infra.dto.message.ConversationDTO;
+import xyz.graygoo401.api.infra.dto.message.PrivateMessageDetailDTO;
+import xyz.graygoo401.api.infra.enums.MessageTypeEnum;
+import xyz.graygoo401.api.user.dto.user.UserDTO;
+import xyz.graygoo401.api.user.util.UserUtil;
+import xyz.graygoo401.common.dto.CursorPageResult;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.common.exception.error.SystemErrorCode;
+import xyz.graygoo401.common.util.CursorUtil;
+import xyz.graygoo401.infra.convert.MessageConvert;
+import xyz.graygoo401.infra.dao.entity.Conversation;
+import xyz.graygoo401.infra.dao.entity.Message;
+import xyz.graygoo401.infra.dao.mapper.ConversationMapper;
+import xyz.graygoo401.infra.dao.mapper.MessageMapper;
+import xyz.graygoo401.infra.service.base.MessageArchiveService;
+import xyz.graygoo401.infra.service.impl.ConversationServiceImpl;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ConversationServiceImpl单元测试
+ * 覆盖：会话列表（聊天对象与最后一条消息批量查询、当前用户一侧的未读数、下一页游标）、
+ * 会话内消息游标分页、首条私信并发创建会话、每页条数校验、历史私信会话回填
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class ConversationServiceTest {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 5, 20, 10, 0, 0);
+
+    @Mock
+    private ConversationMapper conversationMapper;
+    @Mock
+    private MessageArchiveService messageArchiveService;
+    @Mock
+    private UserUtil userUtil;
+    @Mock
+    private MessageMapper messageMapper;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private ConversationServiceImpl conversationService;
+
+    @BeforeEach
+    void setUp() {
+        conversationService = new ConversationServiceImpl();
+        ReflectionTestUtils.setField(conversationService, "conversationMapper", conversationMapper);
+        ReflectionTestUtils.setField(conversationService, "messageArchiveService", messageArchiveService);
+        ReflectionTestUtils.setField(conversationService, "userUtil", userUtil);
+        ReflectionTestUtils.setField(conversationService, "messageConvert", MessageConvert.INSTANCE);
+        ReflectionTestUtils.setField(conversationService, "messageMapper", messageMapper);
+        ReflectionTestUtils.setField(conversationService, "transactionTemplate", transactionTemplate);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(userUtil.getUserMapByIds(anyList())).thenAnswer(invocation -> {
+            Map<Long, UserDTO> userMap = new HashMap<>();
+            for (Long userId : invocation.<List<Long>>getArgument(0)) {
+                UserDTO user = new UserDTO();
+                user.setUserId(userId);
+                user.setUsername("user" + userId);
+                userMap.put(userId, user);
+            }
+            return userMap;
+        });
+    }
+
+    /**
+     * 测试会话列表：用户5分别作为较大、较小一方的两个会话，每页1条
+     * 校验聊天对象、最后一条消息摘要、当前用户一侧的未读数与下一页游标，聊天对象与最后一条消息各一次批量查询
+     */
+    @Test
+    void listConversations_resolvesPartnerLastMessageAndCursor() {
+        Conversation asHigh = buildConversation(301L, 2L, 5L, 1001L, BASE_TIME.plusMinutes(2));
+        asHigh.setLowUnreadCount(4);
+        asHigh.setHighUnreadCount(1);
+        Conversation asLow = buildConversation(302L, 5L, 8L, 1002L, BASE_TIME.plusMinutes(1));
+        when(conversationMapper.selectByUserCursor(5L, null, null, 2)).thenReturn(List.of(asHigh, asLow));
+        when(messageArchiveService.listMessagesByIds(List.of(1001L))).thenReturn(List.of(buildMessage(1001L, 2L, 5L, "明天上午10点取货")));
+
+        CursorPageResult<ConversationDTO> result = conversationService.listConversations(5L, null, 1);
+
+        assertTrue(result.getHasMore());
+        assertEquals(CursorUtil.encode(asHigh.getUpdateTime(), 301L), result.getNextCursor());
+        ConversationDTO dto = result.getList().get(0);
+        assertEquals(2L, dto.getPartner().getUserId());
+        assertEquals("user2", dto.getPartner().getUsername());
+        assertEquals(1, dto.getUnreadCount(), "应取当前用户（较大ID一方）的未读数");
+        assertEquals(1001L, dto.getLastMessageId());
+        assertEquals("明天上午10点取货", dto.getLastMessageSummary());
+        verify(userUtil, times(1)).getUserMapByIds(List.of(2L));
+        verify(messageArchiveService, times(1)).listMessagesByIds(anyCollection());
+    }
+
+    /**
+     * 测试会话内消息：按游标中的消息ID继续查询，一次批量查询双方信息；无会话时返回空页且不查询消息
+     */
+    @Test
+    void listMessages_cursorPagingAndNoConversation() {
+        Conversation conversation = buildConversation(301L, 1L, 2L, 1005L, BASE_TIME);
+        when(conversationMapper.selectByPair(1L, 2L)).thenReturn(conversation);
+        when(messageArchiveService.listConversationMessages(301L, 1004L, 3)).thenReturn(List.of(
+                buildMessage(1003L, 1L, 2L, "在吗"), buildMessage(1002L, 2L, 1L, "在"), buildMessage(1001L, 1L, 2L, "你好")));
+
+        String cursor = CursorUtil.encode(BASE_TIME, 1004L);
+        CursorPageResult<PrivateMessageDetailDTO> page = conversationService.listMessages(2L, 1L, cursor, 2);
+
+        assertEquals(List.of(1003L, 1002L), page.getList().stream().map(PrivateMessageDetailDTO::getMessageId).toList());
+        assertEquals("user1", page.getList().get(0).getSender().getUsername());
+        assertTrue(page.getHasMore());
+        assertEquals(1002L, CursorUtil.decodeId(page.getNextCursor()));
+        verify(userUtil, times(1)).getUserMapByIds(anyList());
+
+        CursorPageResult<PrivateMessageDetailDTO> empty = conversationService.listMessages(2L, 9L, null, null);
+        assertTrue(empty.getList().isEmpty());
+        assertFalse(empty.getHasMore());
+        verify(messageArchiveService, times(1)).listConversationMessages(anyLong(), any(), anyInt());
+    }
+
+    /**
+     * 测试首条私信并发创建：插入违反唯一索引时加锁重新查询对方已创建的会话
+     */
+    @Test
+    void getOrCreateConversationId_concurrentCreate_returnsExisting() {
+        when(conversationMapper.selectByPair(1L, 2L)).thenReturn(null);
+        when(conversationMapper.insert(any(Conversation.class))).thenThrow(new org.springframework.dao.DuplicateKeyException("uk_user_pair"));
+        when(conversationMapper.selectByPairForUpdate(1L, 2L)).thenReturn(buildConversation(301L, 1L, 2L, null, BASE_TIME));
+
+        assertEquals(301L, conversationService.getOrCreateConversationId(2L, 1L));
+    }
+
+    /**
+     * 测试每页条数校验：小于等于0时抛出PARAM_ERROR
+     */
+    @Test
+    void listConversations_invalidPageSize_throws() {
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> conversationService.listConversations(5L, null, 0));
+        assertEquals(SystemErrorCode.PARAM_ERROR, exception.getErrorCode());
+        verify(conversationMapper, never()).selectByUserCursor(anyLong(), any(), any(), anyInt());
+    }
+
+    /**
+     * 测试历史私信会话回填：按用户对分组创建或复用会话，未读数按接收方一侧累加（已读、已删除不计），
+     * 最后一条消息与最晚发送时间合并到会话；归档私信只写入会话ID
+     */
+    @Test
+    void backfillConversations_groupsByPairAndMergesUnread() {
+        // 1. 热表：用户1与2之间3条（其中1条已读），用户3发给1一条已删除；归档表：用户1与2之间1条
+        Message toHigh = buildMessage(11L, 1L, 2L, "在吗");
+        Message toLow = buildMessage(12L, 2L, 1L, "在的");
+        Message read = buildMessage(13L, 1L, 2L, "好的");
+        read.setIsRead(true);
+        read.setCreateTime(BASE_TIME.plusMinutes(3));
+        Message deleted = buildMessage(14L, 3L, 1L, "已删除");
+        deleted.setIsDeleted(true);
+        Message archived = buildMessage(5L, 2L, 1L, "很早的私信");
+        archived.setIsRead(true);
+        when(messageMapper.selectPrivateMissingConversation(null, 500)).thenReturn(List.of(toHigh, toLow, read, deleted));
+        when(messageMapper.selectArchivePrivateMissingConversation(null, 500)).thenReturn(List.of(archived));
+        when(conversationMapper.selectByPair(1L, 2L)).thenReturn(buildConversation(301L, 1L, 2L, null, BASE_TIME));
+        when(conversationMapper.selectByPair(1L, 3L)).thenReturn(buildConversation(302L, 1L, 3L, null, BASE_TIME));
+        when(messageMapper.backfillConversationId(anyLong(), anyList())).thenAnswer(invocation -> invocation.<List<?>>getArgument(1).size());
+        when(messageMapper.backfillArchiveConversationId(anyLong(), anyList())).thenAnswer(invocation -> invocation.<List<?>>getArgument(1).size());
+        when(messageMapper.selectBatchIds(List.of(11L, 12L, 13L))).thenReturn(withConversation(301L, toHigh, toLow, read));
+        when(messageMapper.selectBatchIds(List.of(14L))).thenReturn(withConversation(302L, deleted));
+        when(messageMapper.selectArchiveBatchIds(List.of(5L))).thenReturn(withConversation(301L, archived));
+
+        // 2. 执行回填
+        assertEquals(5, conversationService.backfillConversations());
+
+        // 3. 每个用户对一个事务，未读数按接收方一侧累加
+        verify(transactionTemplate, times(3)).execute(any());
+        verify(conversationMapper, times(1)).mergeBackfill(301L, 13L, 1, 1, BASE_TIME.plusMinutes(3));
+        verify(conversationMapper, times(1)).mergeBackfill(302L, 14L, 0, 0, BASE_TIME);
+        verify(conversationMapper, times(1)).mergeBackfill(301L, 5L, 0, 0, BASE_TIME);
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    private Conversation buildConversation(Long conversationId, Long userLowId, Long userHighId, Long lastMsgId, LocalDateTime updateTime) {
+        Conversation conversation = new Conversation();
+        conversation.setConversationId(conversationId);
+        conversation.setUserLowId(userLowId);
+        conversation.setUserHighId(userHighId);
+        conversation.setLastMsgId(lastMsgId);
+        conversation.setLowUnreadCount(0);
+        conversation.setHighUnreadCount(0);
+        conversation.setUpdateTime(updateTime);
+        return conversation;
+    }
+
+    private Message buildMessage(Long msgId, Long senderId, Long receiverId, String content) {
+        Message message = new Message();
+        message.setMsgId(msgId);
+        message.setSenderId(senderId);
+        message.setReceiverId(receiverId);
+        message.setContent(content);
+        message.setType(MessageTypeEnum.PRIVATE);
+        message.setIsRead(false);
+        message.setIsDeleted(false);
+        message.setCreateTime(BASE_TIME);
+        return message;
+    }
+
+    private List<Message> withConversation(Long conversationId, Message... messages) {
+        for (Message message : messages) {
+            message.setConversationId(conversationId);
+        }
+        return List.of(messages);
+    }
+}
@@ -0,0 +1,158 @@
+package xyz.graygoo401.infra.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.common.exception.error.SystemErrorCode;
+import xyz.graygoo401.infra.dao.entity.Message;
+import xyz.graygoo401.infra.dao.mapper.MessageMapper;
+import xyz.graygoo401.infra.service.impl.MessageArchiveServiceImpl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * MessageArchiveServiceImpl单元测试
+ * 覆盖：分批归档（游标推进、批次上限、行数不一致回滚）、按ID回查归档表、会话消息按热数据边界路由
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class MessageArchiveServiceTest {
+
+    private static final int BATCH_SIZE = 2;
+
+    @Mock
+    private MessageMapper messageMapper;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private MessageArchiveServiceImpl messageArchiveService;
+
+    @BeforeEach
+    void setUp() {
+        messageArchiveService = new MessageArchiveServiceImpl();
+        ReflectionTestUtils.setField(messageArchiveService, "hotDays", 90);
+        ReflectionTestUtils.setField(messageArchiveService, "batchSize", BATCH_SIZE);
+        ReflectionTestUtils.setField(messageArchiveService, "batchPauseMillis", 0L);
+        ReflectionTestUtils.setField(messageArchiveService, "maxBatches", 10);
+        ReflectionTestUtils.setField(messageArchiveService, "messageMapper", messageMapper);
+        ReflectionTestUtils.setField(messageArchiveService, "transactionTemplate", transactionTemplate);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(messageMapper.copyToArchive(anyList(), any())).thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+        when(messageMapper.deleteArchived(anyList(), any())).thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+    }
+
+    /**
+     * 测试分批归档：每批2条，最后一批不足2条时结束；游标按上一批最后一条消息ID推进，所有批次使用同一热数据边界
+     */
+    @Test
+    void archiveExpiredMessages_movesBatchesUntilShortBatch() {
+        when(messageMapper.selectArchivableIds(any(), isNull(), eq(BATCH_SIZE))).thenReturn(List.of(1L, 2L));
+        when(messageMapper.selectArchivableIds(any(), eq(2L), eq(BATCH_SIZE))).thenReturn(List.of(5L, 7L));
+        when(messageMapper.selectArchivableIds(any(), eq(7L), eq(BATCH_SIZE))).thenReturn(List.of(9L));
+
+        assertEquals(5, messageArchiveService.archiveExpiredMessages());
+
+        verify(transactionTemplate, times(3)).execute(any());
+        verify(messageMapper, times(3)).selectArchivableIds(any(), any(), anyInt());
+        verify(messageMapper).copyToArchive(eq(List.of(9L)), any());
+        // 热数据边界在任务开始时确定，约为90天前
+        LocalDateTime boundary = messageArchiveService.getHotBoundary();
+        verify(messageMapper, times(3)).selectArchivableIds(
+                argThat(time -> !time.isAfter(boundary) && time.isAfter(boundary.minusMinutes(1))), any(), anyInt());
+    }
+
+    /**
+     * 测试批次上限：单次任务最多执行max-batches批，剩余消息留到下次
+     */
+    @Test
+    void archiveExpiredMessages_stopsAtMaxBatches() {
+        ReflectionTestUtils.setField(messageArchiveService, "maxBatches", 3);
+        when(messageMapper.selectArchivableIds(any(), any(), eq(BATCH_SIZE))).thenAnswer(invocation -> {
+            Long lastMsgId = invocation.getArgument(1);
+            long start = lastMsgId == null ? 1 : lastMsgId + 1;
+            return LongStream.range(start, start + BATCH_SIZE).boxed().toList();
+        });
+
+        assertEquals(6, messageArchiveService.archiveExpiredMessages());
+        verify(messageMapper, times(3)).deleteArchived(anyList(), any());
+    }
+
+    /**
+     * 测试复制与删除行数不一致：抛出DATA_DELETE_FAILED使本批事务回滚，不再处理后续批次
+     */
+    @Test
+    void archiveExpiredMessages_rowCountMismatch_throws() {
+        when(messageMapper.selectArchivableIds(any(), isNull(), eq(BATCH_SIZE))).thenReturn(List.of(1L, 2L));
+        when(messageMapper.deleteArchived(anyList(), any())).thenReturn(1);
+
+        BusinessException exception = assertThrows(BusinessException.class, () -> messageArchiveService.archiveExpiredMessages());
+        assertEquals(SystemErrorCode.DATA_DELETE_FAILED, exception.getErrorCode());
+        verify(messageMapper, times(1)).selectArchivableIds(any(), any(), anyInt());
+    }
+
+    /**
+     * 测试按ID批量查询：热表全部命中时不查归档表，未命中的ID回查归档表
+     */
+    @Test
+    void listMessagesByIds_fallsBackToArchiveForMissingIds() {
+        when(messageMapper.selectBatchIds(List.of(1L, 2L))).thenReturn(List.of(buildMessage(1L, LocalDateTime.now()), buildMessage(2L, LocalDateTime.now())));
+        assertEquals(2, messageArchiveService.listMessagesByIds(List.of(1L, 2L)).size());
+        verify(messageMapper, never()).selectArchiveBatchIds(any());
+
+        when(messageMapper.selectBatchIds(List.of(1L, 3L))).thenReturn(List.of(buildMessage(1L, LocalDateTime.now())));
+        when(messageMapper.selectArchiveBatchIds(List.of(3L))).thenReturn(List.of(buildMessage(3L, LocalDateTime.now().minusDays(200))));
+        assertEquals(List.of(1L, 3L), messageArchiveService.listMessagesByIds(List.of(1L, 3L)).stream().map(Message::getMsgId).toList());
+    }
+
+    /**
+     * 测试会话消息路由：
+     * 1. 热表一页已满且最早一条晚于热数据边界时不查归档表；
+     * 2. 热表一页跨过边界时合并归档表结果，按消息ID倒序取前limit条（未读的旧消息留在热表，与归档消息ID交错）
+     */
+    @Test
+    void listConversationMessages_routesByHotBoundary() {
+        LocalDateTime recent = LocalDateTime.now().minusDays(1);
+        LocalDateTime old = LocalDateTime.now().minusDays(200);
+        when(messageMapper.selectByConversationCursor(301L, null, 2))
+                .thenReturn(List.of(buildMessage(120L, recent), buildMessage(110L, recent)));
+        assertEquals(List.of(120L, 110L), ids(messageArchiveService.listConversationMessages(301L, null, 2)));
+        verify(messageMapper, never()).selectArchiveByConversationCursor(anyLong(), any(), anyInt());
+
+        when(messageMapper.selectByConversationCursor(301L, 110L, 3))
+                .thenReturn(List.of(buildMessage(100L, recent), buildMessage(40L, old)));
+        when(messageMapper.selectArchiveByConversationCursor(301L, 110L, 3))
+                .thenReturn(List.of(buildMessage(60L, old), buildMessage(50L, old), buildMessage(30L, old)));
+        assertEquals(List.of(100L, 60L, 50L), ids(messageArchiveService.listConversationMessages(301L, 110L, 3)));
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    private Message buildMessage(Long msgId, LocalDateTime createTime) {
+        Message message = new Message();
+        message.setMsgId(msgId);
+        message.setIsRead(true);
+        message.setIsDeleted(false);
+        message.setCreateTime(createTime);
+        return message;
+    }
+
+    private List<Long> ids(List<Message> messages) {
+        return new ArrayList<>(messages.stream().map(Message::getMsgId).toList());
+    }
+}
@@ -1,5 +1,6 @@
 package xyz.graygoo401.infra.service;
 
+import org.apache.ibatis.cursor.Cursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,6 +12,7 @@ import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.mock.web.MockHttpServletResponse;
 import xyz.graygoo401.api.infra.dto.message.*;
 import xyz.graygoo401.api.infra.enums.MessageStatusEnum;
 import xyz.graygoo401.api.infra.enums.MessageTypeEnum;
@@ -20,16 +22,28 @@ import xyz.graygoo401.common.dto.PageResult;
 import xyz.graygoo401.common.exception.BusinessException;
 import xyz.graygoo401.common.exception.error.SystemErrorCode;
 import xyz.graygoo401.infra.convert.MessageConvert;
+import xyz.graygoo401.infra.dao.entity.Announcement;
+import xyz.graygoo401.infra.dao.entity.Conversation;
 import xyz.graygoo401.infra.dao.entity.Message;
 import xyz.graygoo401.infra.dao.mapper.MessageMapper;
 import xyz.graygoo401.infra.exception.error.MessageErrorCode;
+import xyz.graygoo401.infra.service.base.AnnouncementService;
+import xyz.graygoo401.infra.service.base.ConversationService;
+import xyz.graygoo401.infra.service.base.MessageArchiveService;
+import xyz.graygoo401.infra.service.base.PushService;
 import xyz.graygoo401.infra.service.impl.MessageServiceImpl;
+import xyz.graygoo401.infra.util.UnreadCountCacheUtil;
 
 import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -50,6 +64,16 @@ public class MessageServiceTest {
     private MessageConvert messageConvert;
     @Mock
     private ValueOperations<String, Object> valueOperations;
+    @Mock
+    private UnreadCountCacheUtil unreadCountCacheUtil;
+    @Mock
+    private AnnouncementService announcementService;
+    @Mock
+    private PushService pushService;
+    @Mock
+    private ConversationService conversationService;
+    @Mock
+    private MessageArchiveService messageArchiveService;
 
     // 注入测试目标服务
     @InjectMocks
@@ -224,7 +248,7 @@ public class MessageServiceTest {
         verify(userUtil, times(1)).getUserById(1L);          // 校验发送者
         verify(userUtil, times(1)).getUserById(2L);          // 校验接收者
         verify(messageMapper, times(1)).insert(any(Message.class)); // 插入消息
-        verify(redisTemplate, times(1)).opsForValue();     // 更新未读缓存
+        verify(unreadCountCacheUtil, times(1)).increment(2L, MessageTypeEnum.ORDER, 1); // 未读计数原子+1
     }
 
     /**
@@ -298,11 +322,6 @@ public class MessageServiceTest {
         when(messageMapper.selectById(1001L)).thenReturn(testMessage); // 消息存在
         when(messageMapper.updateDeleteStatus(anyLong(), anyBoolean())).thenReturn(1); // 更新成功
         when(messageMapper.updateReadStatus(anyLong(), anyBoolean())).thenReturn(1); // 更新成功
-        // 模拟未读统计缓存存在
-        MessageStatDTO cachedStat = new MessageStatDTO();
-        cachedStat.setTotalUnread(5); // 原未读数5
-        when(valueOperations.get("message:unread:stat:2")).thenReturn(cachedStat);
-
         // 2. 执行测试方法（接收者ID=2，更新状态为已读）
         Boolean result = messageService.updateMessageStatus(2L, testStatusDTO);
 
@@ -313,7 +332,7 @@ public class MessageServiceTest {
         verify(messageMapper, times(1)).selectById(1001L); // 查询消息
         verify(messageMapper, times(1)).updateReadStatus(anyLong(), anyBoolean()); // 更新状态
         verify(redisTemplate, times(1)).delete("message:recent:unread:2"); // 清除最近未读缓存
-        verify(valueOperations, times(1)).set(anyString(), any(MessageStatDTO.class), eq(5L), eq(TimeUnit.MINUTES)); // 更新未读统计
+        verify(unreadCountCacheUtil, times(1)).increment(2L, MessageTypeEnum.ORDER, -1); // 未读计数原子-1
     }
 
     /**
@@ -338,6 +357,70 @@ public class MessageServiceTest {
         verify(messageMapper, never()).updateById(any(Message.class));
     }
 
+    /**
+     * 测试：删除已归档的消息
+     * 校验点：热表未命中时回查归档表，在归档表上逻辑删除；归档消息已读，不扣减未读数
+     */
+    @Test
+    void testUpdateMessageStatus_ArchivedMessage_DeletesInArchive() {
+        // 1. 模拟依赖行为（热表未命中，归档表中存在已读消息）
+        testMessage.setIsRead(true);
+        testStatusDTO.setTargetStatus(MessageStatusEnum.DELETED);
+        when(messageMapper.selectById(1001L)).thenReturn(null);
+        when(messageArchiveService.getArchivedMessage(1001L)).thenReturn(testMessage);
+        when(messageMapper.updateArchiveDeleteStatus(1001L, true)).thenReturn(1);
+
+        // 2. 执行测试方法
+        Boolean result = messageService.updateMessageStatus(2L, testStatusDTO);
+
+        // 3. 验证结果
+        assertTrue(result);
+        verify(messageMapper, never()).updateDeleteStatus(anyLong(), anyBoolean());
+        verify(unreadCountCacheUtil, never()).increment(anyLong(), any(), anyInt());
+    }
+
+    /**
+     * 测试：分页查询消息列表 - 热表读完后续查归档表
+     * 热表2条、归档表3条，每页3条：第1页为热表2条+归档第1条，第2页从归档第2条开始，总数为两表之和
+     */
+    @Test
+    void testSearchMessagesByQuery_ContinuesIntoArchive() {
+        // 1. 模拟依赖行为（记录每次查询的偏移量与条数）
+        List<String> calls = new ArrayList<>();
+        when(messageMapper.countByQuery(any(MessageQueryDTO.class))).thenReturn(2);
+        when(messageMapper.countArchiveByQuery(any(MessageQueryDTO.class))).thenReturn(3);
+        when(messageMapper.selectByQuery(any(MessageQueryDTO.class))).thenAnswer(invocation -> {
+            MessageQueryDTO query = invocation.getArgument(0);
+            calls.add("hot:" + query.getOffset() + "," + query.getPageSize());
+            return buildMessages(1L, 2 - query.getOffset());
+        });
+        when(messageMapper.selectArchiveByQuery(any(MessageQueryDTO.class))).thenAnswer(invocation -> {
+            MessageQueryDTO query = invocation.getArgument(0);
+            calls.add("archive:" + query.getOffset() + "," + query.getPageSize());
+            return buildMessages(100L + query.getOffset(), Math.min(query.getPageSize(), 3 - query.getOffset()));
+        });
+        when(messageConvert.messageToMessageListItemDTO(any(Message.class))).thenAnswer(invocation -> {
+            MessageListItemDTO dto = new MessageListItemDTO();
+            dto.setMessageId(invocation.<Message>getArgument(0).getMsgId());
+            return dto;
+        });
+
+        // 2. 查询第1页与第2页
+        MessageQueryDTO query = new MessageQueryDTO();
+        query.setType(MessageTypeEnum.ORDER);
+        query.setPageSize(3);
+        PageResult<MessageListItemDTO> firstPage = messageService.searchMessagesByQuery(2L, query);
+        query.setPageNum(2);
+        query.setPageSize(3);
+        PageResult<MessageListItemDTO> secondPage = messageService.searchMessagesByQuery(2L, query);
+
+        // 3. 验证结果
+        assertEquals(5, firstPage.getTotal());
+        assertEquals(List.of(1L, 2L, 100L), firstPage.getList().stream().map(MessageListItemDTO::getMessageId).toList());
+        assertEquals(List.of(101L, 102L), secondPage.getList().stream().map(MessageListItemDTO::getMessageId).toList());
+        assertEquals(List.of("hot:0,3", "archive:0,1", "archive:1,3"), calls);
+    }
+
     /**
      * 测试6：分页查询消息列表 - 成功场景（从数据库查询）
      * 校验点：分页参数正确、DTO转换正确、总条数匹配
@@ -371,6 +454,63 @@ public class MessageServiceTest {
         verify(messageMapper, times(1)).selectByQuery(testMessageQueryDTO);
     }
 
+    /**
+     * 测试：查询系统消息列表 - 合并全员公告
+     * 5条系统消息与2条公告按发送时间归并后分页（每页3条），公告按阅读游标区分已读/未读，总数为两者之和
+     */
+    @Test
+    void testSearchMessagesByQuery_SystemMergesAnnouncements() {
+        // 1. 准备测试数据：消息M1~M5分别在1~5小时前，公告11在30分钟前（未读）、公告10在3.5小时前（已读）
+        LocalDateTime now = LocalDateTime.now();
+        List<Message> systemMessages = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            Message message = new Message();
+            message.setMsgId((long) i);
+            message.setType(MessageTypeEnum.SYSTEM);
+            message.setCreateTime(now.minusHours(i));
+            systemMessages.add(message);
+        }
+        when(messageMapper.countByQuery(any(MessageQueryDTO.class))).thenReturn(5);
+        when(messageMapper.selectByQuery(any(MessageQueryDTO.class))).thenAnswer(invocation -> {
+            MessageQueryDTO query = invocation.getArgument(0);
+            int from = Math.min(query.getOffset(), systemMessages.size());
+            return systemMessages.subList(from, Math.min(from + query.getPageSize(), systemMessages.size()));
+        });
+        when(messageConvert.messageToMessageListItemDTO(any(Message.class))).thenAnswer(invocation -> {
+            MessageListItemDTO dto = new MessageListItemDTO();
+            dto.setMessageId(invocation.<Message>getArgument(0).getMsgId());
+            dto.setSender(new MessageListItemDTO.Sender());
+            return dto;
+        });
+        when(announcementService.listRecentAnnouncements()).thenReturn(List.of(
+                buildAnnouncement(11L, now.minusMinutes(30)), buildAnnouncement(10L, now.minusMinutes(210))));
+        when(announcementService.getLastSeenId(2L)).thenReturn(10L);
+
+        // 2. 逐页查询（归并顺序：A11、M1、M2、M3、A10、M4、M5）
+        List<String> pages = new ArrayList<>();
+        PageResult<MessageListItemDTO> firstPage = null;
+        for (int pageNum = 1; pageNum <= 3; pageNum++) {
+            MessageQueryDTO query = new MessageQueryDTO();
+            query.setType(MessageTypeEnum.SYSTEM);
+            query.setPageNum(pageNum);
+            query.setPageSize(3);
+            PageResult<MessageListItemDTO> result = messageService.searchMessagesByQuery(2L, query);
+            firstPage = firstPage == null ? result : firstPage;
+            pages.add(result.getList().stream()
+                    .map(dto -> (dto.getIsAnnouncement() ? "A" : "M") + dto.getMessageId())
+                    .reduce((a, b) -> a + "," + b).orElse(""));
+        }
+
+        // 3. 验证结果
+        assertEquals(List.of("A11,M1,M2", "M3,A10,M4", "M5"), pages);
+        assertEquals(7, firstPage.getTotal());
+        assertEquals(3, firstPage.getTotalPages());
+        MessageListItemDTO announcement = firstPage.getList().get(0);
+        assertEquals(MessageStatusEnum.UNREAD, announcement.getStatus());
+        assertEquals(MessageTypeEnum.SYSTEM, announcement.getType());
+        assertEquals("系统通知", announcement.getSender().getUsername());
+    }
+
     /**
      * 测试7：获取最近未读消息预览 - 成功场景（缓存未命中，从数据库查询）
      * 校验点：最多返回3条、内容摘要截取正确、缓存更新
@@ -415,12 +555,14 @@ public class MessageServiceTest {
 
     /**
      * 测试8：统计未读消息数 - 成功场景
-     * 校验点：返回正确未读数量、调用Mapper统计方法
+     * 校验点：计数未加载时按数据库分组计数返回各类型之和，并写入计数缓存
      */
     @Test
     void testCountUnreadMessages_Success() {
-        // 1. 模拟依赖行为（用户2有3条未读消息）
-        when(messageMapper.countUnread(2L)).thenReturn(3);
+        // 1. 模拟依赖行为（计数未加载，用户2有2条订单未读、1条私信未读）
+        when(unreadCountCacheUtil.multiGet(List.of(2L))).thenReturn(Collections.emptyMap());
+        when(messageMapper.countUnreadGroupByType(List.of(2L))).thenReturn(List.of(
+                buildUnreadCount(2L, MessageTypeEnum.ORDER, 2), buildUnreadCount(2L, MessageTypeEnum.PRIVATE, 1)));
 
         // 2. 执行测试方法
         Integer unreadCount = messageService.countUnreadMessages(2L);
@@ -430,6 +572,310 @@ public class MessageServiceTest {
         assertEquals(3, unreadCount);
 
         // 4. 验证依赖调用
-        verify(messageMapper, times(1)).countUnread(2L);
+        verify(messageMapper, times(1)).countUnreadGroupByType(List.of(2L));
+        verify(unreadCountCacheUtil, times(1)).load(eq(2L), anyMap());
+    }
+
+    /**
+     * 测试：获取未读统计 - 未读公告在读取时计入系统消息与总数
+     */
+    @Test
+    void testGetUnreadStat_IncludesAnnouncements() {
+        when(unreadCountCacheUtil.multiGet(List.of(2L))).thenReturn(Collections.emptyMap());
+        when(messageMapper.countUnreadGroupByType(List.of(2L))).thenReturn(List.of(
+                buildUnreadCount(2L, MessageTypeEnum.ORDER, 2), buildUnreadCount(2L, MessageTypeEnum.SYSTEM, 1)));
+        when(announcementService.countUnread(2L)).thenReturn(2);
+
+        MessageStatDTO stat = messageService.getUnreadStat(2L);
+
+        assertEquals(3, stat.getSystemUnread());
+        assertEquals(2, stat.getOrderUnread());
+        assertEquals(5, stat.getTotalUnread());
+    }
+
+    /**
+     * 测试：发送私信 - 归入双方会话
+     * 校验点：插入前写入会话ID，插入后以回填的消息ID更新会话（最后一条消息、接收方未读数）
+     */
+    @Test
+    void testSendMessage_Private_RecordsConversation() {
+        when(userUtil.getUserById(1L)).thenReturn(testSender);
+        when(userUtil.getUserById(2L)).thenReturn(testReceiver);
+        when(conversationService.getOrCreateConversationId(1L, 2L)).thenReturn(3001L);
+        when(messageMapper.insert(any(Message.class))).thenAnswer(invocation -> {
+            invocation.<Message>getArgument(0).setMsgId(1001L);
+            return 1;
+        });
+        testSendDTO.setType(MessageTypeEnum.PRIVATE);
+
+        messageService.sendMessage(1L, testSendDTO);
+
+        ArgumentCaptor<Message> messageCaptor = ArgumentCaptor.forClass(Message.class);
+        verify(conversationService, times(1)).recordMessage(messageCaptor.capture());
+        assertEquals(3001L, messageCaptor.getValue().getConversationId());
+        assertEquals(1001L, messageCaptor.getValue().getMsgId());
+        verify(unreadCountCacheUtil, times(1)).increment(2L, MessageTypeEnum.PRIVATE, 1);
+    }
+
+    /**
+     * 测试：发送私信 - 失败场景（发给自己）
+     * 校验点：抛出PARAM_ERROR异常，不创建会话、不插入消息
+     */
+    @Test
+    void testSendMessage_Private_Fail_ToSelf() {
+        when(userUtil.getUserById(1L)).thenReturn(testSender);
+        testSendDTO.setReceiverId(1L);
+        testSendDTO.setType(MessageTypeEnum.PRIVATE);
+
+        BusinessException exception = assertThrows(BusinessException.class, () -> messageService.sendMessage(1L, testSendDTO));
+
+        assertEquals(SystemErrorCode.PARAM_ERROR, exception.getErrorCode());
+        verify(conversationService, never()).getOrCreateConversationId(anyLong(), anyLong());
+        verify(messageMapper, never()).insert(any(Message.class));
+    }
+
+    /**
+     * 测试：标记会话已读
+     * 校验点：只标记到会话最后一条消息，按实际标记条数减少会话未读数与私信未读计数
+     */
+    @Test
+    void testMarkConversationRead_Success() {
+        Conversation conversation = new Conversation();
+        conversation.setConversationId(3001L);
+        conversation.setUserLowId(1L);
+        conversation.setUserHighId(2L);
+        conversation.setLastMsgId(1005L);
+        when(conversationService.getConversation(2L, 1L)).thenReturn(conversation);
+        when(messageMapper.markConversationRead(3001L, 2L, 1005L)).thenReturn(3);
+
+        Integer readCount = messageService.markConversationRead(2L, 1L);
+
+        assertEquals(3, readCount);
+        verify(conversationService, times(1)).decreaseUnread(3001L, 2L, 1L, 3);
+        verify(unreadCountCacheUtil, times(1)).increment(2L, MessageTypeEnum.PRIVATE, -3);
+        verify(redisTemplate, times(1)).delete("message:recent:unread:2");
+    }
+
+    /**
+     * 测试：批量标记已读 - 成功场景（订单消息2条、私信分属两个会话共3条）
+     * 校验点：一次UPDATE以统计到的最大消息ID为上限；按类型汇总后一次管道更新计数；按会话减少会话未读数
+     */
+    @Test
+    void testBatchMarkAsRead_Success_GroupsCountersByType() {
+        MessageBatchReadDTO batchReadDTO = new MessageBatchReadDTO(null, null, LocalDateTime.of(2024, 6, 1, 0, 0));
+        when(messageMapper.countUnreadForBatchRead(2L, batchReadDTO)).thenReturn(List.of(
+                buildReadGroup(MessageTypeEnum.ORDER, null, 0L, 2, 1004L),
+                buildReadGroup(MessageTypeEnum.PRIVATE, 3001L, 1L, 2, 1003L),
+                buildReadGroup(MessageTypeEnum.PRIVATE, 3002L, 7L, 1, 1005L)));
+        when(messageMapper.batchMarkRead(2L, batchReadDTO, 1005L)).thenReturn(5);
+
+        Integer readCount = messageService.batchMarkAsRead(2L, batchReadDTO);
+
+        assertEquals(5, readCount);
+        verify(messageMapper, times(1)).batchMarkRead(2L, batchReadDTO, 1005L);
+        verify(unreadCountCacheUtil, times(1)).incrementAll(Map.of(2L,
+                Map.of(MessageTypeEnum.ORDER, -2L, MessageTypeEnum.PRIVATE, -3L)));
+        verify(unreadCountCacheUtil, never()).increment(anyLong(), any(), anyInt());
+        verify(conversationService, times(1)).decreaseUnread(3001L, 2L, 1L, 2);
+        verify(conversationService, times(1)).decreaseUnread(3002L, 2L, 7L, 1);
+        verify(redisTemplate, times(1)).delete("message:recent:unread:2");
+    }
+
+    /**
+     * 测试：批量标记已读 - 更新行数与统计不一致（期间有并发的标记已读）
+     * 校验点：删除未读计数而不按统计扣减；会话未读数按会话重新统计，不再按统计值减少
+     */
+    @Test
+    void testBatchMarkAsRead_ConcurrentRead_RecountsConversations() {
+        MessageBatchReadDTO batchReadDTO = new MessageBatchReadDTO(null, MessageTypeEnum.PRIVATE, null);
+        when(messageMapper.countUnreadForBatchRead(2L, batchReadDTO)).thenReturn(List.of(
+                buildReadGroup(MessageTypeEnum.PRIVATE, 3001L, 1L, 2, 1003L),
+                buildReadGroup(MessageTypeEnum.PRIVATE, 3002L, 7L, 1, 1005L)));
+        when(messageMapper.batchMarkRead(2L, batchReadDTO, 1005L)).thenReturn(1);
+
+        Integer readCount = messageService.batchMarkAsRead(2L, batchReadDTO);
+
+        assertEquals(1, readCount);
+        verify(unreadCountCacheUtil, times(1)).evict(2L);
+        verify(unreadCountCacheUtil, never()).incrementAll(any());
+        verify(conversationService, never()).decreaseUnread(anyLong(), anyLong(), anyLong(), anyInt());
+        verify(conversationService, times(1)).recountUnread(3001L, 2L, 1L);
+        verify(conversationService, times(1)).recountUnread(3002L, 2L, 7L);
+        verify(redisTemplate, times(1)).delete("message:recent:unread:2");
+    }
+
+    /**
+     * 测试：批量标记已读 - 无命中与参数错误
+     * 校验点：无未读消息时不执行UPDATE、不更新计数；未指定条件或消息ID超过上限时抛出PARAM_ERROR
+     */
+    @Test
+    void testBatchMarkAsRead_NoMatchOrInvalidParam() {
+        MessageBatchReadDTO byType = new MessageBatchReadDTO(null, MessageTypeEnum.SYSTEM, null);
+        when(messageMapper.countUnreadForBatchRead(2L, byType)).thenReturn(Collections.emptyList());
+        assertEquals(0, messageService.batchMarkAsRead(2L, byType));
+        verify(messageMapper, never()).batchMarkRead(anyLong(), any(), anyLong());
+        verify(unreadCountCacheUtil, never()).incrementAll(any());
+
+        BusinessException noCondition = assertThrows(BusinessException.class,
+                () -> messageService.batchMarkAsRead(2L, new MessageBatchReadDTO(Collections.emptyList(), null, null)));
+        assertEquals(SystemErrorCode.PARAM_ERROR, noCondition.getErrorCode());
+        List<Long> tooManyIds = LongStream.rangeClosed(1, 501).boxed().toList();
+        BusinessException tooMany = assertThrows(BusinessException.class,
+                () -> messageService.batchMarkAsRead(2L, new MessageBatchReadDTO(tooManyIds, null, null)));
+        assertEquals(SystemErrorCode.PARAM_ERROR, tooMany.getErrorCode());
+    }
+
+    /**
+     * 测试：导出消息日志 - 成功场景
+     * 校验点：下载响应头、BOM与表头、逐行写出、文本转义（逗号/引号）与公式前缀防护
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExportMessages_Success_StreamsCsv() throws Exception {
+        // 1. 模拟游标数据（标题以=开头、内容含逗号与双引号）
+        Message riskyMessage = new Message();
+        riskyMessage.setMsgId(1002L);
+        riskyMessage.setSenderId(1L);
+        riskyMessage.setReceiverId(2L);
+        riskyMessage.setTitle("=HYPERLINK(\"x\")");
+        riskyMessage.setContent("你好,\"卖家\"");
+        riskyMessage.setType(MessageTypeEnum.ORDER);
+        riskyMessage.setIsRead(false);
+        riskyMessage.setIsDeleted(true);
+        riskyMessage.setCreateTime(LocalDateTime.of(2024, 1, 7, 12, 0));
+        Cursor<Message> cursor = mock(Cursor.class);
+        when(cursor.iterator()).thenReturn(List.of(testMessage, riskyMessage).iterator());
+        when(messageMapper.streamForExport(MessageTypeEnum.ORDER, null, null)).thenReturn(cursor);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // 2. 执行测试方法
+        long rows = messageService.exportMessages(MessageTypeEnum.ORDER, null, null, response);
+
+        // 3. 验证结果
+        assertEquals(2, rows);
+        assertEquals("text/csv;charset=UTF-8", response.getContentType());
+        assertTrue(response.getHeader("Content-Disposition").startsWith("attachment; filename*=UTF-8''"));
+        String[] lines = response.getContentAsString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("\uFEFF消息ID,发送者ID,接收者ID,消息类型"));
+        assertEquals("1002,1,2,订单消息,\"'=HYPERLINK(\"\"x\"\")\",\"你好,\"\"卖家\"\"\",,否,是,2024-01-07 12:00:00", lines[2]);
+        verify(cursor, times(1)).close();
+    }
+
+    /**
+     * 测试：导出消息日志 - 失败场景（开始时间晚于结束时间）
+     * 校验点：抛出PARAM_ERROR异常，未设置下载响应头、未打开游标
+     */
+    @Test
+    void testExportMessages_Fail_InvalidTimeRange() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        BusinessException exception = assertThrows(BusinessException.class, () ->
+                messageService.exportMessages(null, LocalDateTime.now(), LocalDateTime.now().minusDays(1), response));
+
+        assertEquals(SystemErrorCode.PARAM_ERROR, exception.getErrorCode());
+        assertNull(response.getContentType());
+        verify(messageMapper, never()).streamForExport(any(), any(), any());
+    }
+
+    /**
+     * 测试：导出消息日志 - 时间范围早于热数据边界
+     * 校验点：归档表与热表的消息按消息ID归并写出（未读的旧消息留在热表，两表ID交错），两个游标均关闭
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExportMessages_ReachesArchive_MergesByMsgId() throws Exception {
+        // 1. 模拟归档游标与热表游标各一条消息
+        LocalDateTime startTime = LocalDateTime.of(2023, 1, 1, 0, 0);
+        Message archivedMessage = new Message();
+        archivedMessage.setMsgId(88L);
+        archivedMessage.setSenderId(1L);
+        archivedMessage.setReceiverId(2L);
+        archivedMessage.setTitle("归档消息");
+        archivedMessage.setContent("半年前的订单通知");
+        archivedMessage.setType(MessageTypeEnum.ORDER);
+        archivedMessage.setIsRead(true);
+        archivedMessage.setIsDeleted(false);
+        archivedMessage.setCreateTime(startTime.plusDays(1));
+        Message laterArchivedMessage = new Message();
+        laterArchivedMessage.setMsgId(testMessage.getMsgId() + 1);
+        laterArchivedMessage.setSenderId(1L);
+        laterArchivedMessage.setReceiverId(2L);
+        laterArchivedMessage.setTitle("归档消息");
+        laterArchivedMessage.setContent("已删除的订单通知");
+        laterArchivedMessage.setType(MessageTypeEnum.ORDER);
+        laterArchivedMessage.setIsRead(false);
+        laterArchivedMessage.setIsDeleted(true);
+        laterArchivedMessage.setCreateTime(startTime.plusDays(2));
+        Cursor<Message> archiveCursor = mock(Cursor.class);
+        when(archiveCursor.iterator()).thenReturn(List.of(archivedMessage, laterArchivedMessage).iterator());
+        Cursor<Message> hotCursor = mock(Cursor.class);
+        when(hotCursor.iterator()).thenReturn(List.of(testMessage).iterator());
+        when(messageArchiveService.reachesArchive(startTime)).thenReturn(true);
+        when(messageMapper.streamArchiveForExport(MessageTypeEnum.ORDER, startTime, null)).thenReturn(archiveCursor);
+        when(messageMapper.streamForExport(MessageTypeEnum.ORDER, startTime, null)).thenReturn(hotCursor);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // 2. 执行测试方法
+        long rows = messageService.exportMessages(MessageTypeEnum.ORDER, startTime, null, response);
+
+        // 3. 验证结果：表头 + 3行，按消息ID升序（归档、热表、归档）
+        assertEquals(3, rows);
+        String[] lines = response.getContentAsString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(4, lines.length);
+        assertTrue(lines[1].startsWith("88,"));
+        assertTrue(lines[2].startsWith(testMessage.getMsgId() + ","));
+        assertTrue(lines[3].startsWith(laterArchivedMessage.getMsgId() + ","));
+        verify(archiveCursor, times(1)).close();
+        verify(hotCursor, times(1)).close();
+    }
+
+    /**
+     * 构建未读分组计数
+     */
+    private MessageUnreadCountDTO buildUnreadCount(Long receiverId, MessageTypeEnum type, int unreadCount) {
+        MessageUnreadCountDTO countDTO = new MessageUnreadCountDTO();
+        countDTO.setReceiverId(receiverId);
+        countDTO.setType(type);
+        countDTO.setUnreadCount(unreadCount);
+        return countDTO;
+    }
+
+    /**
+     * 构建消息ID连续的订单消息
+     */
+    private List<Message> buildMessages(long firstMsgId, int count) {
+        List<Message> messages = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Message message = new Message();
+            message.setMsgId(firstMsgId + i);
+            message.setType(MessageTypeEnum.ORDER);
+            messages.add(message);
+        }
+        return messages;
+    }
+
+    private Announcement buildAnnouncement(Long announcementId, LocalDateTime createTime) {
+        Announcement announcement = new Announcement();
+        announcement.setAnnouncementId(announcementId);
+        announcement.setPublisherId(9L);
+        announcement.setTitle("平台公告" + announcementId);
+        announcement.setContent("平台规则更新，公告编号：" + announcementId);
+        announcement.setCreateTime(createTime);
+        return announcement;
+    }
+
+    /**
+     * 构建批量已读分组统计行
+     */
+    private MessageBatchReadGroupDTO buildReadGroup(MessageTypeEnum type, Long conversationId, Long senderId,
+                                                    int unreadCount, Long maxMsgId) {
+        MessageBatchReadGroupDTO group = new MessageBatchReadGroupDTO();
+        group.setType(type);
+        group.setConversationId(conversationId);
+        group.setSenderId(senderId);
+        group.setUnreadCount(unreadCount);
+        group.setMaxMsgId(maxMsgId);
+        return group;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,292 @@
+package xyz.graygoo401.infra.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.*;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+import xyz.graygoo401.api.infra.dto.message.MessageSendDTO;
+import xyz.graygoo401.api.infra.dto.message.MessageStatDTO;
+import xyz.graygoo401.api.infra.dto.message.MessageUnreadCountDTO;
+import xyz.graygoo401.api.infra.enums.MessageTypeEnum;
+import xyz.graygoo401.api.user.dto.user.UserDTO;
+import xyz.graygoo401.api.user.util.UserUtil;
+import xyz.graygoo401.infra.dao.entity.Message;
+import xyz.graygoo401.infra.dao.mapper.MessageMapper;
+import xyz.graygoo401.infra.convert.MessageConvert;
+import xyz.graygoo401.infra.service.base.AnnouncementService;
+import xyz.graygoo401.infra.service.base.ConversationService;
+import xyz.graygoo401.infra.service.base.PushService;
+import xyz.graygoo401.infra.service.impl.MessageServiceImpl;
+import xyz.graygoo401.infra.util.UnreadCountCacheUtil;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 未读消息计数测试
+ * 真实UnreadCountCacheUtil + 模拟Redis（Lua脚本在同一把锁内执行，模拟Redis单线程原子执行脚本），消息表以内存计数模拟
+ * 覆盖：1000条消息并发发送后计数准确、计数未加载时发送不生成不完整计数、批量读取合并数据库查询、对账删除偏离的计数
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class MessageUnreadCountTest {
+
+    private static final int PARALLEL_SENDS = 1000; // 并发发送消息数
+    private static final Long RECEIVER_ID = 2L;
+
+    @Mock
+    private MessageMapper messageMapper;
+    @Mock
+    private UserUtil userUtil;
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+    @Mock
+    private AnnouncementService announcementService;
+    @Mock
+    private PushService pushService;
+    @Mock
+    private ConversationService conversationService;
+
+    private final Map<String, Map<String, Long>> fakeRedis = new HashMap<>(); // 模拟Redis Hash（访问需持有fakeRedis锁）
+    private final Map<Long, Map<MessageTypeEnum, AtomicLong>> dbUnread = new ConcurrentHashMap<>(); // 模拟message表未读数
+    private MessageServiceImpl messageService;
+
+    @BeforeEach
+    void setUp() {
+        // 1. 模拟Redis（脚本、HGETALL、管道、SCAN、DEL）
+        mockRedis();
+
+        // 2. 模拟消息表：插入未读消息时计数+1，分组统计返回当前计数
+        when(userUtil.getUserById(anyLong())).thenAnswer(invocation -> {
+            UserDTO user = new UserDTO();
+            user.setUserId(invocation.getArgument(0));
+            return user;
+        });
+        when(messageMapper.insert(any(Message.class))).thenAnswer(invocation -> {
+            Message message = invocation.getArgument(0);
+            dbUnread(message.getReceiverId(), message.getType()).incrementAndGet();
+            return 1;
+        });
+        when(messageMapper.countUnreadGroupByType(anyList())).thenAnswer(invocation -> {
+            List<MessageUnreadCountDTO> rows = new ArrayList<>();
+            for (Long receiverId : invocation.<List<Long>>getArgument(0)) {
+                dbUnread.getOrDefault(receiverId, Collections.emptyMap()).forEach((type, count) -> {
+                    if (count.get() > 0) {
+                        MessageUnreadCountDTO row = new MessageUnreadCountDTO();
+                        row.setReceiverId(receiverId);
+                        row.setType(type);
+                        row.setUnreadCount((int) count.get());
+                        rows.add(row);
+                    }
+                });
+            }
+            return rows;
+        });
+
+        // 3. 组装服务
+        UnreadCountCacheUtil unreadCountCacheUtil = new UnreadCountCacheUtil();
+        ReflectionTestUtils.setField(unreadCountCacheUtil, "stringRedisTemplate", stringRedisTemplate);
+        messageService = new MessageServiceImpl();
+        ReflectionTestUtils.setField(messageService, "messageMapper", messageMapper);
+        ReflectionTestUtils.setField(messageService, "userUtil", userUtil);
+        ReflectionTestUtils.setField(messageService, "unreadCountCacheUtil", unreadCountCacheUtil);
+        ReflectionTestUtils.setField(messageService, "announcementService", announcementService);
+        ReflectionTestUtils.setField(messageService, "pushService", pushService);
+        ReflectionTestUtils.setField(messageService, "conversationService", conversationService);
+        ReflectionTestUtils.setField(messageService, "messageConvert", MessageConvert.INSTANCE);
+    }
+
+    /**
+     * 并发测试：计数已加载后1000条消息并发发送给同一用户
+     * 每次发送以HINCRBY原子+1，不丢失更新，且不再查询数据库
+     */
+    @Test
+    void sendMessage_concurrentSends_countExact() throws Exception {
+        // 1. 初始5条订单未读，首次读取加载计数
+        dbUnread(RECEIVER_ID, MessageTypeEnum.ORDER).set(5);
+        assertEquals(5, messageService.countUnreadMessages(RECEIVER_ID));
+
+        // 2. 并发发送（订单消息与私信各半，统一起跑）
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<Long>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < PARALLEL_SENDS; i++) {
+                MessageTypeEnum type = i % 2 == 0 ? MessageTypeEnum.ORDER : MessageTypeEnum.PRIVATE;
+                futures.add(executor.submit(() -> {
+                    startLatch.await();
+                    return messageService.sendMessage(1L, buildSendDTO(type));
+                }));
+            }
+            startLatch.countDown();
+            for (Future<Long> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // 3. 验证结果：缓存计数与数据库一致，发送期间未查询数据库
+        MessageStatDTO statDTO = messageService.getUnreadStat(RECEIVER_ID);
+        assertEquals(5 + PARALLEL_SENDS, statDTO.getTotalUnread());
+        assertEquals(5 + PARALLEL_SENDS / 2, statDTO.getOrderUnread());
+        assertEquals(PARALLEL_SENDS / 2, statDTO.getPrivateUnread());
+        assertEquals(0, statDTO.getSystemUnread());
+        verify(messageMapper, times(1)).countUnreadGroupByType(anyList());
+    }
+
+    /**
+     * 计数未加载时发送：跳过增减（不生成只含增量的不完整计数），首次读取按数据库加载
+     */
+    @Test
+    void sendMessage_countNotLoaded_loadedFromDbOnRead() {
+        dbUnread(RECEIVER_ID, MessageTypeEnum.ORDER).set(3);
+        messageService.sendMessage(1L, buildSendDTO(MessageTypeEnum.ORDER));
+        assertTrue(fakeRedis.isEmpty());
+
+        assertEquals(4, messageService.countUnreadMessages(RECEIVER_ID));
+        messageService.sendMessage(1L, buildSendDTO(MessageTypeEnum.SYSTEM));
+        MessageStatDTO statDTO = messageService.getUnreadStat(RECEIVER_ID);
+        assertEquals(5, statDTO.getTotalUnread());
+        assertEquals(1, statDTO.getSystemUnread());
+        verify(messageMapper, times(1)).countUnreadGroupByType(anyList());
+    }
+
+    /**
+     * 批量读取：已加载的用户走缓存，未加载的用户合并为一次数据库分组查询（零未读用户同样写入计数）
+     */
+    @Test
+    void batchCountUnreadMessages_cachedAndMissedUsers() {
+        dbUnread(2L, MessageTypeEnum.ORDER).set(2);
+        dbUnread(3L, MessageTypeEnum.PRIVATE).set(4);
+        messageService.countUnreadMessages(2L);
+        clearInvocations(messageMapper);
+
+        Map<Long, Integer> totals = messageService.batchCountUnreadMessages(List.of(2L, 3L, 4L, 3L));
+
+        assertEquals(Map.of(2L, 2, 3L, 4, 4L, 0), totals);
+        verify(messageMapper, times(1)).countUnreadGroupByType(List.of(3L, 4L));
+        assertEquals(3, fakeRedis.size());
+    }
+
+    /**
+     * 对账：与数据库不一致的计数被删除，下次读取重新加载；一致的计数保留
+     */
+    @Test
+    void reconcileUnreadCounts_evictsDriftedCounts() {
+        dbUnread(2L, MessageTypeEnum.ORDER).set(5);
+        dbUnread(3L, MessageTypeEnum.ORDER).set(1);
+        messageService.batchCountUnreadMessages(List.of(2L, 3L));
+
+        // 模拟缓存更新失败导致偏离（消息已写库但计数未+1）
+        dbUnread(2L, MessageTypeEnum.ORDER).incrementAndGet();
+
+        assertEquals(1, messageService.reconcileUnreadCounts());
+        assertFalse(fakeRedis.containsKey("message:unread:count:2"));
+        assertTrue(fakeRedis.containsKey("message:unread:count:3"));
+        assertEquals(6, messageService.countUnreadMessages(2L));
+        assertEquals(0, messageService.reconcileUnreadCounts());
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 模拟Redis：Lua脚本按UnreadCountCacheUtil中的脚本语义在fakeRedis锁内执行
+     */
+    @SuppressWarnings("unchecked")
+    private void mockRedis() {
+        Object incrementScript = ReflectionTestUtils.getField(UnreadCountCacheUtil.class, "INCREMENT_SCRIPT");
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), (Object[]) any())).thenAnswer(invocation -> {
+            RedisScript<Long> script = invocation.getArgument(0);
+            String key = invocation.<List<String>>getArgument(1).get(0);
+            Object[] args = Arrays.copyOfRange(invocation.getArguments(), 2, invocation.getArguments().length);
+            synchronized (fakeRedis) {
+                Map<String, Long> hash = fakeRedis.get(key);
+                if (script == incrementScript) {
+                    if (hash == null) {
+                        return -1L;
+                    }
+                    long count = Math.max(hash.merge(args[0].toString(), Long.parseLong(args[1].toString()), Long::sum), 0);
+                    hash.put(args[0].toString(), count);
+                    return count;
+                }
+                if (hash != null) {
+                    return 0L;
+                }
+                hash = new HashMap<>();
+                for (int i = 1; i < args.length; i += 2) {
+                    hash.put(args[i].toString(), Long.parseLong(args[i + 1].toString()));
+                }
+                fakeRedis.put(key, hash);
+                return 1L;
+            }
+        });
+
+        when(stringRedisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(anyString())).thenAnswer(invocation -> hgetAll(invocation.getArgument(0)));
+        when(stringRedisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            // 记录回调中依次执行的HGETALL，按顺序返回结果
+            List<Object> results = new ArrayList<>();
+            RedisOperations<String, String> operations = mock(RedisOperations.class);
+            HashOperations<String, Object, Object> pipelinedHashOperations = mock(HashOperations.class);
+            when(operations.opsForHash()).thenReturn(pipelinedHashOperations);
+            when(pipelinedHashOperations.entries(anyString())).thenAnswer(entries -> {
+                results.add(hgetAll(entries.getArgument(0)));
+                return null;
+            });
+            invocation.<SessionCallback<Object>>getArgument(0).execute(operations);
+            return results;
+        });
+        when(stringRedisTemplate.scan(any(ScanOptions.class))).thenAnswer(invocation -> {
+            Iterator<String> keys;
+            synchronized (fakeRedis) {
+                keys = new ArrayList<>(fakeRedis.keySet()).iterator();
+            }
+            Cursor<String> cursor = mock(Cursor.class);
+            when(cursor.hasNext()).thenAnswer(hasNext -> keys.hasNext());
+            when(cursor.next()).thenAnswer(next -> keys.next());
+            return cursor;
+        });
+        when(stringRedisTemplate.delete(anyString())).thenAnswer(invocation -> {
+            synchronized (fakeRedis) {
+                return fakeRedis.remove(invocation.<String>getArgument(0)) != null;
+            }
+        });
+    }
+
+    private Map<Object, Object> hgetAll(String key) {
+        synchronized (fakeRedis) {
+            Map<Object, Object> entries = new HashMap<>();
+            fakeRedis.getOrDefault(key, Collections.emptyMap()).forEach((field, value) -> entries.put(field, value.toString()));
+            return entries;
+        }
+    }
+
+    private AtomicLong dbUnread(Long receiverId, MessageTypeEnum type) {
+        return dbUnread.computeIfAbsent(receiverId, id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(type, t -> new AtomicLong());
+    }
+
+    private MessageSendDTO buildSendDTO(MessageTypeEnum type) {
+        MessageSendDTO sendDTO = new MessageSendDTO();
+        sendDTO.setReceiverId(RECEIVER_ID);
+        sendDTO.setType(type);
+        sendDTO.setTitle("订单通知");
+        sendDTO.setContent("您的订单已发货");
+        sendDTO.setBusinessId(123456L);
+        return sendDTO;
+    }
+}
@@ -0,0 +1,301 @@
+package xyz.graygoo401.infra.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import xyz.graygoo401.api.infra.dto.message.MessagePushDTO;
+import xyz.graygoo401.api.infra.enums.MessageTypeEnum;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.infra.exception.error.MessageErrorCode;
+import xyz.graygoo401.infra.service.impl.PushServiceImpl;
+import xyz.graygoo401.infra.util.PushRegistryCacheUtil;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * PushServiceImpl单元测试
+ * 以记录型SseEmitter模拟客户端连接，以内存方式把发布的消息直接投递回本节点（模拟Redis发布订阅）
+ * 覆盖：单节点推送与连接数上限、全员广播、心跳、慢连接背压（丢弃 + resync）、发送失败移除连接与登记
+ * 5万连接的推送测试以日志输出耗时供参考，默认构建不执行（benchmark分组）
+ */
+@Slf4j
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class PushServiceTest {
+
+    private static final int CONNECTION_COUNT = 1_000; // 模拟连接数（同时作为连接数上限）
+    private static final int BENCHMARK_CONNECTION_COUNT = 50_000; // 推送测试的连接数（与infra.push.max-connections默认值一致）
+    private static final int QUEUE_CAPACITY = 64;
+
+    @Mock
+    private PushRegistryCacheUtil pushRegistryCacheUtil;
+
+    private final Map<String, List<String>> publishedPayloads = new ConcurrentHashMap<>(); // 频道 -> 发布的消息体
+    private Supplier<RecordingEmitter> emitterFactory = RecordingEmitter::new;
+    private PushServiceImpl pushService;
+
+    @BeforeEach
+    void setUp() {
+        pushService = new PushServiceImpl() {
+            @Override
+            protected SseEmitter createEmitter() {
+                return emitterFactory.get();
+            }
+        };
+        ReflectionTestUtils.setField(pushService, "maxConnections", CONNECTION_COUNT);
+        ReflectionTestUtils.setField(pushService, "queueCapacity", QUEUE_CAPACITY);
+        ReflectionTestUtils.setField(pushService, "emitterTimeoutMillis", 0L);
+        ReflectionTestUtils.setField(pushService, "pushRegistryCacheUtil", pushRegistryCacheUtil);
+        ReflectionTestUtils.setField(pushService, "objectMapper", new ObjectMapper().findAndRegisterModules());
+
+        // 1. 全部已登记用户都在本节点
+        when(pushRegistryCacheUtil.lookupNodes(anyList())).thenAnswer(invocation -> invocation.<List<Long>>getArgument(0)
+                .stream().collect(Collectors.toMap(userId -> userId, userId -> List.of(pushService.getNodeId()))));
+        // 2. 发布即投递回本节点
+        doAnswer(invocation -> {
+            String channel = invocation.getArgument(0);
+            String payload = invocation.getArgument(1);
+            publishedPayloads.computeIfAbsent(channel, key -> new CopyOnWriteArrayList<>()).add(payload);
+            pushService.deliverLocal(payload);
+            return null;
+        }).when(pushRegistryCacheUtil).publish(anyString(), anyString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        pushService.shutdown();
+    }
+
+    /**
+     * 连接测试：单节点建立连接直到上限，超出上限的连接被拒绝；向每个用户推送一条消息，
+     * 只查询一次节点登记、向本节点发布一次，每个连接都收到自己的消息
+     */
+    @Test
+    void push_connections_onePublishPerNodeAndEveryConnectionReceives() throws Exception {
+        connectAndPushToAll(CONNECTION_COUNT);
+    }
+
+    /**
+     * 推送测试：单节点5万连接，校验同上，并输出推送吞吐
+     */
+    @Test
+    @Tag("benchmark")
+    void push_50kConnections_throughput() throws Exception {
+        long elapsedMillis = connectAndPushToAll(BENCHMARK_CONNECTION_COUNT);
+        log.info("消息实时推送完成，连接数：{}，推送事件数：{}，发布次数：1，耗时：{}ms，吞吐：{}条/秒",
+                BENCHMARK_CONNECTION_COUNT, BENCHMARK_CONNECTION_COUNT, elapsedMillis,
+                BENCHMARK_CONNECTION_COUNT * 1000L / elapsedMillis);
+    }
+
+    /**
+     * 测试广播：全员公告发布到广播频道，本节点每个连接收到一条announcement事件
+     */
+    @Test
+    void broadcast_announcement_reachesAllConnections() throws Exception {
+        List<RecordingEmitter> emitters = new ArrayList<>();
+        for (long userId = 1; userId <= 3; userId++) {
+            emitters.add((RecordingEmitter) pushService.connect(userId));
+        }
+
+        pushService.broadcast(buildPushEvent(null, 7L, true));
+
+        assertEquals(1, publishedPayloads.get(PushRegistryCacheUtil.PUSH_BROADCAST_CHANNEL).size());
+        for (RecordingEmitter emitter : emitters) {
+            assertTrue(emitter.await("announcement", 1));
+        }
+        verify(pushRegistryCacheUtil, never()).lookupNodes(anyList());
+    }
+
+    /**
+     * 测试心跳：空闲连接收到心跳注释，并批量刷新本节点的用户登记
+     */
+    @Test
+    void heartbeat_idleConnections_pingAndRefreshRegistry() throws Exception {
+        RecordingEmitter first = (RecordingEmitter) pushService.connect(1L);
+        RecordingEmitter second = (RecordingEmitter) pushService.connect(2L);
+        assertTrue(first.await("connected", 1));
+        assertTrue(second.await("connected", 1));
+
+        assertEquals(2, pushService.heartbeat());
+
+        assertTrue(first.await("ping", 1));
+        assertTrue(second.await("ping", 1));
+        verify(pushRegistryCacheUtil).refresh(argThat(userIds -> new HashSet<>(userIds).equals(Set.of(1L, 2L))),
+                eq(pushService.getNodeId()));
+    }
+
+    /**
+     * 测试背压：慢连接的发送阻塞时，超出队列容量的事件被丢弃，不影响投递方；
+     * 连接恢复后排空队列并补发一次resync事件
+     */
+    @Test
+    void deliverLocal_slowConnection_dropsOverflowAndSendsResync() throws Exception {
+        // 1. 连接的首次发送（connected事件）阻塞，直到放行
+        CountDownLatch sendStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        emitterFactory = () -> new RecordingEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                sendStarted.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(builder);
+            }
+        };
+        RecordingEmitter emitter = (RecordingEmitter) pushService.connect(1L);
+        assertTrue(sendStarted.await(5, TimeUnit.SECONDS));
+
+        // 2. 投递超出队列容量的事件：只入队QUEUE_CAPACITY条，投递不阻塞
+        List<MessagePushDTO> events = new ArrayList<>();
+        for (long messageId = 1; messageId <= QUEUE_CAPACITY * 2; messageId++) {
+            events.add(buildPushEvent(1L, messageId, false));
+        }
+        String payload = new ObjectMapper().findAndRegisterModules().writeValueAsString(events);
+        assertEquals(QUEUE_CAPACITY, pushService.deliverLocal(payload));
+
+        // 3. 放行后排空队列，最后补发resync
+        release.countDown();
+        assertTrue(emitter.await("resync", 1));
+        List<String> received = emitter.events();
+        assertEquals(QUEUE_CAPACITY + 2, received.size());
+        assertEquals("connected", received.get(0));
+        assertEquals("resync", received.get(received.size() - 1));
+        assertEquals(QUEUE_CAPACITY, Collections.frequency(received, "message"));
+    }
+
+    /**
+     * 测试发送失败：客户端断开导致发送异常时移除连接、删除节点登记，之后不再投递
+     */
+    @Test
+    void send_failure_removesConnectionAndUnregisters() throws Exception {
+        emitterFactory = () -> new RecordingEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        pushService.connect(1L);
+
+        verify(pushRegistryCacheUtil, timeout(5000)).unregister(1L, pushService.getNodeId());
+        assertEquals(0, pushService.heartbeat());
+        String payload = new ObjectMapper().findAndRegisterModules().writeValueAsString(List.of(buildPushEvent(1L, 1L, false)));
+        assertEquals(0, pushService.deliverLocal(payload));
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 以连接数上限建立指定数量的连接，向每个用户推送一条消息并校验路由，返回推送到全部连接收到的耗时（毫秒）
+     */
+    private long connectAndPushToAll(int connectionCount) throws InterruptedException {
+        // 1. 建立连接直到上限
+        ReflectionTestUtils.setField(pushService, "maxConnections", connectionCount);
+        List<RecordingEmitter> emitters = new ArrayList<>(connectionCount);
+        for (long userId = 1; userId <= connectionCount; userId++) {
+            emitters.add((RecordingEmitter) pushService.connect(userId));
+        }
+        verify(pushRegistryCacheUtil, times(connectionCount)).register(anyLong(), eq(pushService.getNodeId()));
+
+        // 2. 超出上限被拒绝
+        BusinessException exception = assertThrows(BusinessException.class, () -> pushService.connect(connectionCount + 1L));
+        assertEquals(MessageErrorCode.PUSH_CONNECTION_LIMIT, exception.getErrorCode());
+
+        // 3. 每个用户推送一条消息
+        List<MessagePushDTO> events = new ArrayList<>(connectionCount);
+        for (long userId = 1; userId <= connectionCount; userId++) {
+            events.add(buildPushEvent(userId, userId, false));
+        }
+        long start = System.nanoTime();
+        pushService.push(events);
+        for (RecordingEmitter emitter : emitters) {
+            assertTrue(emitter.await("message", 1), "每个连接都应收到推送");
+        }
+        long elapsedMillis = Math.max((System.nanoTime() - start) / 1_000_000, 1);
+
+        // 4. 验证路由：一次批量查询、一次发布，每个连接恰好收到自己的一条消息
+        verify(pushRegistryCacheUtil, times(1)).lookupNodes(anyList());
+        verify(pushRegistryCacheUtil, times(1)).publish(anyString(), anyString());
+        assertEquals(1, publishedPayloads.get(PushRegistryCacheUtil.nodeChannel(pushService.getNodeId())).size());
+        assertEquals(List.of("connected", "message"), emitters.get(0).events());
+        assertEquals("id:1", emitters.get(0).texts().get(1).lines().findFirst().orElse(null));
+        assertEquals(connectionCount, pushService.heartbeat());
+        return elapsedMillis;
+    }
+
+    private MessagePushDTO buildPushEvent(Long receiverId, Long messageId, boolean announcement) {
+        MessagePushDTO event = new MessagePushDTO();
+        event.setReceiverId(receiverId);
+        event.setMessageId(messageId);
+        event.setType(announcement ? MessageTypeEnum.SYSTEM : MessageTypeEnum.ORDER);
+        event.setTitle("标题" + messageId);
+        event.setContentSummary("摘要" + messageId);
+        event.setIsAnnouncement(announcement);
+        return event;
+    }
+
+    /**
+     * 记录型SseEmitter：记录发送的事件文本，不写出到网络
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> texts = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            texts.add(builder.build().stream().map(part -> String.valueOf(part.getData())).collect(Collectors.joining()));
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+
+        private List<String> texts() {
+            return texts;
+        }
+
+        /**
+         * 事件名列表（心跳注释记为ping）
+         */
+        private List<String> events() {
+            return texts.stream().map(text -> text.lines()
+                    .filter(line -> line.startsWith("event:")).map(line -> line.substring("event:".length()))
+                    .findFirst().orElse(text.startsWith(":") ? text.substring(1).trim() : "")).collect(Collectors.toList());
+        }
+
+        /**
+         * 等待收到指定数量的某类事件
+         */
+        private synchronized boolean await(String event, int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (Collections.frequency(events(), event) < count) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                wait(remaining);
+            }
+            return true;
+        }
+    }
+}
@@ -10,6 +10,64 @@ CREATE TABLE `message` (
                            is_read BOOLEAN DEFAULT FALSE COMMENT '阅读状态（true=已读）',
                            is_deleted BOOLEAN DEFAULT FALSE COMMENT '删除状态（true=已删除）',
                            type VARCHAR(20) NOT NULL COMMENT '消息类型（枚举MessageTypeEnum的code：SYSTEM/ORDER/PRIVATE）',
+                           conversation_id BIGINT COMMENT '私信会话ID（非私信为null）',
                            create_time DATETIME NOT NULL COMMENT '创建时间',
                            update_time DATETIME COMMENT '更新时间'
-) COMMENT '系统消息表';
\ No newline at end of file
+) COMMENT '系统消息表';
+CREATE INDEX idx_conversation_msg ON `message` (conversation_id, msg_id);  -- 会话内消息按ID游标分页
+
+-- 消息归档表（冷数据：超过热数据天数且已读或已删除的消息，由归档任务从message表分批迁入，字段与message表一致）
+-- 生产环境MySQL按create_time月分区：PRIMARY KEY (msg_id, create_time) + PARTITION BY RANGE (TO_DAYS(create_time))
+DROP TABLE IF EXISTS `message_archive`;
+CREATE TABLE `message_archive` (
+                           msg_id BIGINT PRIMARY KEY COMMENT '消息ID（沿用message表ID）',
+                           sender_id BIGINT NOT NULL COMMENT '发送者ID（0=系统）',
+                           receiver_id BIGINT NOT NULL COMMENT '接收者ID（-1=所有用户）',
+                           title VARCHAR(100) NOT NULL COMMENT '消息标题',
+                           content TEXT NOT NULL COMMENT '消息内容',
+                           order_id BIGINT COMMENT '关联订单ID（非订单消息为null）',
+                           is_read BOOLEAN DEFAULT FALSE COMMENT '阅读状态（true=已读）',
+                           is_deleted BOOLEAN DEFAULT FALSE COMMENT '删除状态（true=已删除）',
+                           type VARCHAR(20) NOT NULL COMMENT '消息类型',
+                           conversation_id BIGINT COMMENT '私信会话ID（非私信为null）',
+                           create_time DATETIME NOT NULL COMMENT '创建时间',
+                           update_time DATETIME COMMENT '更新时间'
+) COMMENT '消息归档表';
+CREATE INDEX idx_archive_conversation_msg ON `message_archive` (conversation_id, msg_id);  -- 会话内历史消息按ID游标分页
+CREATE INDEX idx_archive_create_time ON `message_archive` (create_time);  -- 按时间范围导出
+CREATE INDEX idx_archive_receiver_type ON `message_archive` (receiver_id, type, create_time);  -- 列表/搜索在热表读完后续查归档表
+
+-- 私信会话表（每对用户一行，user_low_id < user_high_id，维护最后一条消息与双方未读数）
+DROP TABLE IF EXISTS `conversation`;
+CREATE TABLE `conversation` (
+                           conversation_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                           user_low_id BIGINT NOT NULL COMMENT '用户对中较小的用户ID',
+                           user_high_id BIGINT NOT NULL COMMENT '用户对中较大的用户ID',
+                           last_msg_id BIGINT COMMENT '最后一条消息ID',
+                           low_unread_count INT NOT NULL DEFAULT 0 COMMENT '较小用户ID一方的未读数',
+                           high_unread_count INT NOT NULL DEFAULT 0 COMMENT '较大用户ID一方的未读数',
+                           create_time DATETIME NOT NULL COMMENT '创建时间',
+                           update_time DATETIME NOT NULL COMMENT '更新时间（最后一条消息的发送时间）',
+                           UNIQUE KEY uk_user_pair (user_low_id, user_high_id)
+) COMMENT '私信会话表';
+CREATE INDEX idx_low_time ON `conversation` (user_low_id, update_time, conversation_id);  -- 会话列表游标分页
+CREATE INDEX idx_high_time ON `conversation` (user_high_id, update_time, conversation_id);
+
+-- 全员公告表（读时扇出：一次公告只写一行，阅读状态由announcement_cursor中的游标判断）
+DROP TABLE IF EXISTS `announcement`;
+CREATE TABLE `announcement` (
+                           announcement_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                           publisher_id BIGINT NOT NULL COMMENT '发布管理员ID',
+                           title VARCHAR(100) NOT NULL COMMENT '公告标题',
+                           content TEXT NOT NULL COMMENT '公告内容',
+                           create_time DATETIME NOT NULL COMMENT '发布时间',
+                           update_time DATETIME COMMENT '更新时间'
+) COMMENT '全员公告表';
+
+-- 公告阅读游标表（每个用户一行，记录已读到的最大公告ID，公告ID大于游标即为未读）
+DROP TABLE IF EXISTS `announcement_cursor`;
+CREATE TABLE `announcement_cursor` (
+                           user_id BIGINT PRIMARY KEY COMMENT '用户ID',
+                           last_seen_id BIGINT NOT NULL DEFAULT 0 COMMENT '已读到的最大公告ID',
+                           update_time DATETIME COMMENT '更新时间'
+) COMMENT '公告阅读游标表';
@@ -0,0 +1,20 @@
+package xyz.graygoo401.trade.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import xyz.graygoo401.common.index.AutocompleteIndex;
+
+/**
+ * 前缀补全配置类（每个实例在内存中维护一份商品标题补全索引）
+ */
+@Configuration
+public class AutocompleteConfig {
+
+    /**
+     * 商品标题补全索引（每个前缀缓存热度最高的10条候选）
+     */
+    @Bean
+    public AutocompleteIndex productAutocompleteIndex() {
+        return new AutocompleteIndex();
+    }
+}
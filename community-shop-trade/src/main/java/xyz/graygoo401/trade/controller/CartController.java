@@ -0,0 +1,159 @@
+package xyz.graygoo401.trade.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import xyz.graygoo401.api.trade.dto.cart.CartItemAddDTO;
+import xyz.graygoo401.api.trade.dto.cart.CartItemDTO;
+import xyz.graygoo401.common.annotation.LoginRequired;
+import xyz.graygoo401.common.util.RequestParseUtil;
+import xyz.graygoo401.common.vo.ResultVO;
+import xyz.graygoo401.trade.service.base.CartService;
+
+import java.util.List;
+
+/**
+ * 购物车模块Controller，负责加购、修改数量、移除与购物车列表查询，结算见OrderController.checkout()
+ */
+@RestController
+@RequestMapping("/api/v1/cart")
+@Tag(
+        name = "购物车接口",
+        description = "包含加入购物车、修改数量、移除商品及购物车列表查询等功能，所有接口均需登录，返回统一ResultVO格式"
+)
+@Validated
+public class CartController {
+    @Autowired
+    private CartService cartService;
+    @Autowired
+    private RequestParseUtil requestParseUtil;
+
+    /**
+     * 加入购物车接口
+     * 对应Service层：CartServiceImpl.addItem()，已存在的商品累加数量
+     */
+    @PostMapping("/items")
+    @LoginRequired
+    @Operation(
+            summary = "加入购物车接口",
+            description = "将在售商品加入购物车，业务规则：1.商品需存在且在售；2.已在购物车中的商品累加数量；3.购物车最多50种商品",
+            security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "加购成功，返回该商品当前数量",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "400", description = "参数错误（SYSTEM_002/SYSTEM_003）/商品已下架（PRODUCT_091）/种类超过上限（ORDER_010）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "401", description = "未登录（对应错误码：SYSTEM_021）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "404", description = "商品不存在（对应错误码：PRODUCT_001）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class)))
+    })
+    public ResultVO<Integer> addItem(
+            @Valid @RequestBody
+            @Parameter(description = "加购参数，productId/quantity为必填", required = true)
+            CartItemAddDTO itemDTO
+    ) {
+        Long currentUserId = parseUserIdFromToken();
+        Integer quantity = cartService.addItem(currentUserId, itemDTO);
+        return ResultVO.success(quantity);
+    }
+
+    /**
+     * 修改购物车商品数量接口
+     * 对应Service层：CartServiceImpl.updateItem()
+     */
+    @PutMapping("/items")
+    @LoginRequired
+    @Operation(
+            summary = "修改购物车商品数量接口",
+            description = "将购物车中指定商品的数量修改为目标值，商品需已在购物车中",
+            security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "修改成功",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "401", description = "未登录（对应错误码：SYSTEM_021）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "404", description = "商品不在购物车中（对应错误码：SYSTEM_004）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class)))
+    })
+    public ResultVO<Boolean> updateItem(
+            @Valid @RequestBody
+            @Parameter(description = "修改参数，productId/quantity为必填", required = true)
+            CartItemAddDTO itemDTO
+    ) {
+        Long currentUserId = parseUserIdFromToken();
+        Boolean updateResult = cartService.updateItem(currentUserId, itemDTO);
+        return ResultVO.success(updateResult);
+    }
+
+    /**
+     * 批量移除购物车商品接口
+     * 对应Service层：CartServiceImpl.removeItems()
+     */
+    @DeleteMapping("/items")
+    @LoginRequired
+    @Operation(
+            summary = "移除购物车商品接口",
+            description = "按商品ID批量移除购物车商品，返回实际移除的商品种类数",
+            security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "移除成功",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "401", description = "未登录（对应错误码：SYSTEM_021）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class)))
+    })
+    public ResultVO<Long> removeItems(
+            @RequestParam
+            @Parameter(description = "待移除的商品ID列表", required = true, example = "3001,3002")
+            List<Long> productIds
+    ) {
+        Long currentUserId = parseUserIdFromToken();
+        Long removed = cartService.removeItems(currentUserId, productIds);
+        return ResultVO.success(removed);
+    }
+
+    /**
+     * 查询购物车列表接口
+     * 对应Service层：CartServiceImpl.listItems()
+     */
+    @GetMapping
+    @LoginRequired
+    @Operation(
+            summary = "查询购物车列表接口",
+            description = "返回当前用户购物车中的全部商品，附带最新价格、库存与是否可结算标记（已删除商品不展示）",
+            security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "查询成功",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "401", description = "未登录（对应错误码：SYSTEM_021）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "500", description = "数据查询失败（对应错误码：SYSTEM_014）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class)))
+    })
+    public ResultVO<List<CartItemDTO>> listItems() {
+        Long currentUserId = parseUserIdFromToken();
+        List<CartItemDTO> items = cartService.listItems(currentUserId);
+        return ResultVO.success(items);
+    }
+
+    /**
+     * 工具方法：从请求头令牌中解析用户ID（复用系统JWT解析逻辑）
+     * @return 当前登录用户ID
+     */
+    private Long parseUserIdFromToken() {
+        return requestParseUtil.parseUserIdFromRequest();
+    }
+}
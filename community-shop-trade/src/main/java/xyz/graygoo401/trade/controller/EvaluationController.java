@@ -13,6 +13,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import xyz.graygoo401.api.trade.dto.evaluation.*;
+import xyz.graygoo401.common.annotation.AdminRequired;
 import xyz.graygoo401.common.annotation.LoginRequired;
 import xyz.graygoo401.common.dto.PageResult;
 import xyz.graygoo401.common.util.RequestParseUtil;
@@ -266,6 +267,29 @@ public class EvaluationController {
         return ResultVO.success(productScore);
     }
 
+    /**
+     * 评价商品ID回填接口（管理员运维）
+     * 对应Service层：EvaluationServiceImpl.backfillProductIds()，上线evaluation.product_id字段后执行一次，可重复执行
+     */
+    @PostMapping("/product-id/backfill")
+    @AdminRequired
+    @Operation(
+            summary = "评价商品ID回填接口（管理员专属）",
+            description = "按关联订单补齐历史评价的冗余商品ID，业务规则：1.仅管理员可操作；2.按评价ID游标分批提交，已回填的评价不会重复处理；3.关联订单缺失的评价保持为空；4.用于上线后一次性迁移历史数据",
+            security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "回填成功，返回本次回填的评价数",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "401", description = "未登录（对应错误码：SYSTEM_021）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "403", description = "无管理员权限（对应错误码：SYSTEM_022）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class)))
+    })
+    public ResultVO<Integer> backfillProductIds() {
+        return ResultVO.success(evaluationService.backfillProductIds());
+    }
+
     /**
      * 工具方法：从请求头令牌中解析用户ID（复用系统JWT解析逻辑，实际项目中需对接权限工具类）
      * @return 当前登录用户ID
@@ -8,16 +8,25 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import xyz.graygoo401.api.trade.dto.order.*;
+import xyz.graygoo401.common.annotation.AdminRequired;
+import xyz.graygoo401.common.annotation.Idempotent;
 import xyz.graygoo401.common.annotation.LoginRequired;
-import xyz.graygoo401.common.dto.PageResult;
+import xyz.graygoo401.common.dto.CursorPageResult;
 import xyz.graygoo401.common.util.RequestParseUtil;
 import xyz.graygoo401.common.vo.ResultVO;
 import xyz.graygoo401.trade.service.base.OrderService;
+import xyz.graygoo401.trade.service.base.SellerDailyStatsService;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 
 
 /**
@@ -34,6 +43,8 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
     @Autowired
+    private SellerDailyStatsService sellerDailyStatsService;
+    @Autowired
     private RequestParseUtil requestParseUtil;
 
     /**
@@ -42,9 +53,10 @@ public class OrderController {
      */
     @PostMapping("/create")
     @LoginRequired
+    @Idempotent
     @Operation(
             summary = "创建订单接口",
-            description = "买家创建订单，业务规则：1.买家信用分需≥60分（低于无法下单）；2.商品需在售且库存≥购买数量；3.订单金额需与商品单价×数量一致（误差≤0.01元）；4.收货地址/支付方式不能为空；5.创建后默认状态为待支付（PENDING_PAYMENT），支付有效期30分钟",
+            description = "买家创建订单，业务规则：1.买家信用分需≥60分（低于无法下单）；2.商品需在售且库存≥购买数量；3.订单金额需与商品单价×数量一致（误差≤0.01元）；4.收货地址/支付方式不能为空；5.创建后默认状态为待支付（PENDING_PAYMENT），支付有效期30分钟；6.支持请求头Idempotency-Key，超时重试携带同一键不会重复下单，返回首次创建的订单",
             security = @SecurityRequirement(name = "Bearer Authentication")
     )
     @ApiResponses({
@@ -73,6 +85,42 @@ public class OrderController {
         return ResultVO.success(orderDetail);
     }
 
+    /**
+     * 购物车结算接口
+     * 对应Service层：OrderServiceImpl.checkout()，多商品一次下单，按卖家拆分子订单
+     */
+    @PostMapping("/checkout")
+    @LoginRequired
+    @Idempotent
+    @Operation(
+            summary = "购物车结算接口",
+            description = "买家一次结算多个商品，业务规则：1.买家信用分需≥60分；2.单次最多结算50种商品，重复商品自动合并数量；3.所有商品需在售且库存充足，任一不满足则整单失败；4.结算总价需与各商品单价×数量之和一致（误差≤0.01元）；5.按卖家拆分子订单，同一次结算共享结算单号，订单初始状态为待支付；6.结算成功后自动移出购物车；7.支持请求头Idempotency-Key，超时重试携带同一键不会重复结算",
+            security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "结算成功，返回结算单号与子订单列表",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "400", description = "参数错误（结算商品为空=ORDER_008、商品种类超过上限=ORDER_009、金额异常=ORDER_007、库存不足或已下架=PRODUCT_092）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "401", description = "未登录（对应错误码：SYSTEM_021）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "403", description = "信用分不足（对应错误码：SYSTEM_022）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "404", description = "用户不存在（SYSTEM_031）/商品不存在（PRODUCT_001）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "500", description = "数据插入失败（对应错误码：SYSTEM_013）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class)))
+    })
+    public ResultVO<OrderCheckoutResultDTO> checkout(
+            @Valid @RequestBody
+            @Parameter(description = "结算参数，items/totalAmount/address/payType为必填", required = true)
+            OrderCheckoutDTO checkoutDTO
+    ) {
+        Long currentUserId = parseUserIdFromToken();
+        OrderCheckoutResultDTO result = orderService.checkout(currentUserId, checkoutDTO);
+        return ResultVO.success(result);
+    }
+
     /**
      * 取消订单接口
      * 对应Service层：OrderServiceImpl.cancelOrder()，校验待支付状态、订单归属权，自动恢复库存
@@ -252,13 +300,13 @@ public class OrderController {
     @LoginRequired
     @Operation(
             summary = "买家查询订单列表接口",
-            description = "查询当前登录买家的订单列表，业务规则：1.仅返回当前买家的订单；2.支持按订单状态筛选（待支付/待发货/已发货/已完成/已取消）；3.分页默认pageNum=1、pageSize=10；4.默认按创建时间降序排序，结果优先从缓存获取（有效期15分钟）",
+            description = "查询当前登录买家的订单列表，业务规则：1.仅返回当前买家的订单；2.支持按订单状态筛选（待支付/待发货/已发货/已完成/已取消）；3.游标分页，首页不传cursor，后续传上一页返回的nextCursor，pageSize默认10；4.按创建时间降序排序，单表查询order_view读模型",
             security = @SecurityRequirement(name = "Bearer Authentication")
     )
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "查询成功，返回分页订单列表（无数据时列表为空）",
+            @ApiResponse(responseCode = "200", description = "查询成功，返回游标分页订单列表（无数据时列表为空）",
                     content = @Content(schema = @Schema(implementation = ResultVO.class))),
-            @ApiResponse(responseCode = "400", description = "参数错误（分页参数为负数=SYSTEM_002、状态非法=ORDER_004）",
+            @ApiResponse(responseCode = "400", description = "参数错误（分页参数为负数或游标非法=SYSTEM_002、状态非法=ORDER_004）",
                     content = @Content(schema = @Schema(implementation = ResultVO.class))),
             @ApiResponse(responseCode = "401", description = "未登录（对应错误码：SYSTEM_021）",
                     content = @Content(schema = @Schema(implementation = ResultVO.class))),
@@ -267,13 +315,13 @@ public class OrderController {
             @ApiResponse(responseCode = "500", description = "数据查询失败（对应错误码：SYSTEM_014）",
                     content = @Content(schema = @Schema(implementation = ResultVO.class)))
     })
-    public ResultVO<PageResult<OrderListItemDTO>> getBuyerOrders(
+    public ResultVO<CursorPageResult<OrderListItemDTO>> getBuyerOrders(
             @Valid @ModelAttribute
             @Parameter(description = "买家订单查询参数，支持状态筛选及分页，buyerId自动从Token解析")
             OrderQueryDTO orderQueryDTO
     ) {
         Long currentBuyerId = parseUserIdFromToken();
-        PageResult<OrderListItemDTO> orderList = orderService.getBuyerOrders(currentBuyerId, orderQueryDTO);
+        CursorPageResult<OrderListItemDTO> orderList = orderService.getBuyerOrders(currentBuyerId, orderQueryDTO);
         return ResultVO.success(orderList);
     }
 
@@ -285,13 +333,13 @@ public class OrderController {
     @LoginRequired
     @Operation(
             summary = "卖家查询订单列表接口",
-            description = "查询当前登录卖家的订单列表，业务规则：1.仅返回当前卖家的订单；2.支持按订单状态（待支付/待发货/已发货等）筛选；3.分页默认pageNum=1、pageSize=10；4.默认按创建时间降序排序，结果优先从缓存获取（有效期15分钟）",
+            description = "查询当前登录卖家的订单列表，业务规则：1.仅返回当前卖家的订单；2.支持按订单状态（待支付/待发货/已发货等）筛选；3.游标分页，首页不传cursor，后续传上一页返回的nextCursor，pageSize默认10；4.按创建时间降序排序，单表查询order_view读模型",
             security = @SecurityRequirement(name = "Bearer Authentication")
     )
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "查询成功，返回分页订单列表（无数据时列表为空）",
+            @ApiResponse(responseCode = "200", description = "查询成功，返回游标分页订单列表（无数据时列表为空）",
                     content = @Content(schema = @Schema(implementation = ResultVO.class))),
-            @ApiResponse(responseCode = "400", description = "参数错误（分页参数为负数=SYSTEM_002、状态非法=ORDER_004）",
+            @ApiResponse(responseCode = "400", description = "参数错误（分页参数为负数或游标非法=SYSTEM_002、状态非法=ORDER_004）",
                     content = @Content(schema = @Schema(implementation = ResultVO.class))),
             @ApiResponse(responseCode = "401", description = "未登录（对应错误码：SYSTEM_021）",
                     content = @Content(schema = @Schema(implementation = ResultVO.class))),
@@ -300,16 +348,150 @@ public class OrderController {
             @ApiResponse(responseCode = "500", description = "数据查询失败（对应错误码：SYSTEM_014）",
                     content = @Content(schema = @Schema(implementation = ResultVO.class)))
     })
-    public ResultVO<PageResult<OrderListItemDTO>> getSellerOrders(
+    public ResultVO<CursorPageResult<OrderListItemDTO>> getSellerOrders(
             @Valid @ModelAttribute
             @Parameter(description = "卖家订单查询参数，支持状态筛选及分页，sellerId自动从Token解析")
             OrderQueryDTO sellerOrderQueryDTO
     ) {
         Long currentSellerId = parseUserIdFromToken();
-        PageResult<OrderListItemDTO> orderList = orderService.getSellerOrders(currentSellerId, sellerOrderQueryDTO);
+        CursorPageResult<OrderListItemDTO> orderList = orderService.getSellerOrders(currentSellerId, sellerOrderQueryDTO);
         return ResultVO.success(orderList);
     }
 
+    /**
+     * 订单导出接口（管理员报表）
+     * 对应Service层：OrderServiceImpl.exportOrders()，逐行读取数据库游标并以分块传输写出CSV
+     */
+    @GetMapping("/export")
+    @AdminRequired
+    @Operation(
+            summary = "订单导出接口（管理员专属）",
+            description = "按卖家与下单时间范围导出订单CSV，业务规则：1.仅管理员可操作；2.卖家ID为空时导出全部卖家订单；3.时间范围可选，开始时间不能晚于结束时间；4.按订单ID升序流式输出，不限制行数；5.文件为UTF-8（带BOM）CSV，可直接用Excel打开",
+            security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "导出成功，返回CSV文件流",
+                    content = @Content(mediaType = "text/csv")),
+            @ApiResponse(responseCode = "400", description = "参数错误（时间范围非法=SYSTEM_002）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "401", description = "未登录（对应错误码：SYSTEM_021）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "403", description = "无管理员权限（对应错误码：SYSTEM_022）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class)))
+    })
+    public void exportOrders(
+            @RequestParam(required = false)
+            @Parameter(description = "卖家ID（为空时导出全部卖家）", example = "2")
+            Long sellerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            @Parameter(description = "下单时间下限（ISO格式）", example = "2024-01-01T00:00:00")
+            LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            @Parameter(description = "下单时间上限（ISO格式）", example = "2024-01-31T23:59:59")
+            LocalDateTime endTime,
+            HttpServletResponse response
+    ) {
+        orderService.exportOrders(sellerId, startTime, endTime, response);
+    }
+
+    /**
+     * 卖家销售日统计查询接口
+     * 对应Service层：SellerDailyStatsServiceImpl.listDailyStats()，只读取预聚合的seller_daily_stats表
+     */
+    @GetMapping("/seller/stats/daily")
+    @LoginRequired
+    @Operation(
+            summary = "卖家销售日统计查询接口",
+            description = "查询当前登录卖家在日期范围内的逐日销售统计，业务规则：1.仅返回当前卖家的统计；2.订单数与成交额按支付日期统计，退款计入原订单的支付日期，评价按评价日期统计；3.日期范围包含首尾两天，最长366天；4.无数据的日期各项为0",
+            security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "查询成功，返回逐日统计列表（按日期升序）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "400", description = "参数错误（日期为空=SYSTEM_003、范围非法或超过366天=SYSTEM_002）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "401", description = "未登录（对应错误码：SYSTEM_021）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "500", description = "数据查询失败（对应错误码：SYSTEM_014）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class)))
+    })
+    public ResultVO<List<SellerDailyStatsDTO>> getSellerDailyStats(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @Parameter(description = "开始日期（ISO格式，包含）", required = true, example = "2024-01-01")
+            LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @Parameter(description = "结束日期（ISO格式，包含）", required = true, example = "2024-01-31")
+            LocalDate endDate
+    ) {
+        Long currentSellerId = parseUserIdFromToken();
+        return ResultVO.success(sellerDailyStatsService.listDailyStats(currentSellerId, startDate, endDate));
+    }
+
+    /**
+     * 卖家销售汇总查询接口
+     * 对应Service层：SellerDailyStatsServiceImpl.getSalesSummary()，由日统计累加得出，不访问订单表
+     */
+    @GetMapping("/seller/stats/summary")
+    @LoginRequired
+    @Operation(
+            summary = "卖家销售汇总查询接口",
+            description = "查询当前登录卖家在日期范围内的销售汇总（订单数、成交额、退款数、退款额、评价数、平均评分），业务规则：1.口径与日统计接口一致；2.平均评分为评分总和/评价数，保留1位小数，无评价时为0.0；3.日期范围最长366天",
+            security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "查询成功，返回销售汇总",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "400", description = "参数错误（日期为空=SYSTEM_003、范围非法或超过366天=SYSTEM_002）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "401", description = "未登录（对应错误码：SYSTEM_021）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "500", description = "数据查询失败（对应错误码：SYSTEM_014）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class)))
+    })
+    public ResultVO<SellerSalesSummaryDTO> getSellerSalesSummary(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @Parameter(description = "开始日期（ISO格式，包含）", required = true, example = "2024-01-01")
+            LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @Parameter(description = "结束日期（ISO格式，包含）", required = true, example = "2024-01-31")
+            LocalDate endDate
+    ) {
+        Long currentSellerId = parseUserIdFromToken();
+        return ResultVO.success(sellerDailyStatsService.getSalesSummary(currentSellerId, startDate, endDate));
+    }
+
+    /**
+     * 卖家销售日统计回填接口（管理员运维）
+     * 对应Service层：SellerDailyStatsServiceImpl.backfill()，按订单与评价实时聚合结果覆盖统计，可重复执行
+     */
+    @PostMapping("/seller/stats/backfill")
+    @AdminRequired
+    @Operation(
+            summary = "卖家销售日统计回填接口（管理员专属）",
+            description = "按日期范围重新聚合订单与评价数据并校正卖家销售日统计，业务规则：1.仅管理员可操作；2.只覆盖与实时聚合结果不一致的记录，重复执行结果不变；3.用于上线时补齐历史数据或数据修复后校正",
+            security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "回填成功，返回被校正的记录数",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "400", description = "参数错误（日期为空=SYSTEM_003、开始日期晚于结束日期=SYSTEM_002）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "401", description = "未登录（对应错误码：SYSTEM_021）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "403", description = "无管理员权限（对应错误码：SYSTEM_022）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class)))
+    })
+    public ResultVO<Integer> backfillSellerDailyStats(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @Parameter(description = "开始日期（ISO格式，包含）", required = true, example = "2024-01-01")
+            LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @Parameter(description = "结束日期（ISO格式，包含）", required = true, example = "2024-01-31")
+            LocalDate endDate
+    ) {
+        return ResultVO.success(sellerDailyStatsService.backfill(startDate, endDate));
+    }
+
     /**
      * 工具方法：从请求头令牌中解析用户ID（复用系统JWT解析逻辑）
      * @return 当前登录用户ID
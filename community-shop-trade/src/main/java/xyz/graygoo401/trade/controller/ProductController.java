@@ -9,16 +9,31 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 import xyz.graygoo401.api.trade.dto.product.*;
+import xyz.graygoo401.api.trade.enums.ProductStatusEnum;
+import xyz.graygoo401.common.annotation.AdminRequired;
 import xyz.graygoo401.common.annotation.LoginRequired;
 import xyz.graygoo401.common.dto.PageResult;
+import xyz.graygoo401.common.dto.SuggestionDTO;
+import xyz.graygoo401.common.exception.UnLoginException;
 import xyz.graygoo401.common.util.RequestParseUtil;
 import xyz.graygoo401.common.vo.ResultVO;
+import xyz.graygoo401.trade.service.base.ProductImportService;
 import xyz.graygoo401.trade.service.base.ProductService;
+import xyz.graygoo401.trade.service.base.ProductViewService;
+
+import java.time.LocalDate;
+import java.util.List;
 
 /**
  * 商品管理模块Controller，负责商品发布、详情查询、库存更新、状态管理及搜索等接口实现
@@ -35,6 +50,12 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductViewService productViewService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
     @Autowired
     private RequestParseUtil requestParseUtil;
 
@@ -80,12 +101,12 @@ public class ProductController {
 
     /**
      * 获取商品详情接口
-     * 对应Service层：ProductServiceImpl.getProductDetail()，校验商品存在、仅返回在售状态，自动累加浏览量
+     * 对应Service层：ProductServiceImpl.getProductDetail()，校验商品存在、仅返回在售状态，记录浏览量与独立访客
      */
     @GetMapping("/{productId}")
     @Operation(
             summary = "获取商品详情接口",
-            description = "查询指定商品的完整信息，业务规则：1.仅返回在售状态（ON_SALE）商品；2.已下架/删除/封禁商品无法查看；3.自动累加浏览量（异步处理，不阻塞查询）；返回信息含卖家脱敏信息、库存、图片列表等",
+            description = "查询指定商品的完整信息，业务规则：1.仅返回在售状态（ON_SALE）商品；2.已下架/删除/封禁商品无法查看；3.自动累加浏览量与当日独立访客（登录用户按用户ID、未登录按客户端IP去重；写入内存缓冲后定时批量落库，不阻塞查询）；返回信息含卖家脱敏信息、库存、图片列表等",
             parameters = @Parameter(
                     name = "productId",
                     description = "商品唯一标识（路径参数）",
@@ -109,12 +130,50 @@ public class ProductController {
     public ResultVO<ProductDetailDTO> getProductDetail(
             @PathVariable
             @Parameter(description = "商品ID，需为整数", required = true, example = "4001")
-            Long productId
+            Long productId,
+            HttpServletRequest request
     ) {
-        ProductDetailDTO productDetail = productService.getProductDetail(productId);
+        ProductDetailDTO productDetail = productService.getProductDetail(productId, resolveVisitorId(request));
         return ResultVO.success(productDetail);
     }
 
+    /**
+     * 查询商品独立访客数接口
+     * 对应Service层：ProductViewServiceImpl.countUniqueVisitors()，仅商品所属卖家可查，按日读取HyperLogLog近似基数
+     */
+    @GetMapping("/{productId}/visitors")
+    @LoginRequired
+    @Operation(
+            summary = "查询商品独立访客数接口",
+            description = "卖家查看自己商品某日的独立访客数，业务规则：1.仅商品所属卖家可查；2.日期默认当天，保留最近7天；3.登录用户按用户ID、未登录按客户端IP去重；4.结果为近似值（标准误差约0.81%），当日数据约有5秒落库延迟",
+            security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "查询成功，返回独立访客数",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "401", description = "未登录（对应错误码：SYSTEM_021）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "403", description = "非商品所属卖家（对应错误码：SYSTEM_022）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "404", description = "商品不存在（对应错误码：PRODUCT_001）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "500", description = "数据查询失败（对应错误码：SYSTEM_014）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class)))
+    })
+    public ResultVO<Long> countUniqueVisitors(
+            @PathVariable
+            @Parameter(description = "商品ID，需为整数", required = true, example = "4001")
+            Long productId,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @Parameter(description = "统计日期（yyyy-MM-dd，默认当天）", example = "2024-01-07")
+            LocalDate date
+    ) {
+        Long currentSellerId = parseUserIdFromToken();
+        long visitors = productViewService.countUniqueVisitors(currentSellerId, productId, date);
+        return ResultVO.success(visitors);
+    }
+
     /**
      * 更新商品信息接口
      * 对应Service层：ProductServiceImpl.updateProduct()，校验卖家身份、商品存在、非库存信息修改
@@ -293,6 +352,68 @@ public class ProductController {
         return ResultVO.success(productPage);
     }
 
+    /**
+     * 分面搜索商品接口
+     * 对应Service层：ProductServiceImpl.searchProductsWithFacets()，一次请求返回当前页商品及类别/成色/价格区间分面计数
+     */
+    @GetMapping("/search/facets")
+    @Operation(
+            summary = "分面搜索商品接口",
+            description = "在搜索商品接口的基础上同时返回分面计数，业务规则：1.筛选、排序、分页规则与搜索商品接口一致；2.分面包含类别、成色、价格区间三个维度，每个维度的计数保留其余维度的筛选条件、忽略本维度条件；3.类别分面按商品数降序且仅返回有商品的类别，成色与价格区间返回全部取值；4.价格区间分面附带minPrice/maxPrice，可直接作为筛选参数回传",
+            parameters = {
+                    @Parameter(name = "keyword", description = "搜索关键词（模糊匹配标题/描述）", in = ParameterIn.QUERY),
+                    @Parameter(name = "minPrice", description = "最低价格（≥0，支持两位小数）", in = ParameterIn.QUERY, schema = @Schema(type = "number", format = "double")),
+                    @Parameter(name = "maxPrice", description = "最高价格（>minPrice，支持两位小数）", in = ParameterIn.QUERY, schema = @Schema(type = "number", format = "double")),
+                    @Parameter(name = "category", description = "商品分类（精准匹配）", in = ParameterIn.QUERY),
+                    @Parameter(name = "condition", description = "商品成色（精准匹配）", in = ParameterIn.QUERY),
+                    @Parameter(name = "sortField", description = "排序字段（VIEW_COUNT=浏览量，PRICE=价格，CREATE_TIME=发布时间）", in = ParameterIn.QUERY, schema = @Schema(defaultValue = "CREATE_TIME")),
+                    @Parameter(name = "sortDir", description = "排序方向（ASC=升序，DESC=降序）", in = ParameterIn.QUERY, schema = @Schema(defaultValue = "DESC")),
+                    @Parameter(name = "pageNum", description = "页码（默认1）", in = ParameterIn.QUERY, schema = @Schema(type = "integer", defaultValue = "1")),
+                    @Parameter(name = "pageSize", description = "每页条数（默认10）", in = ParameterIn.QUERY, schema = @Schema(type = "integer", defaultValue = "10"))
+            }
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "搜索成功，返回分页商品列表及分面计数",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "500", description = "数据查询失败（对应错误码：SYSTEM_014）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class)))
+    })
+    public ResultVO<ProductFacetSearchResultDTO> searchProductsWithFacets(
+            @Valid @ModelAttribute
+            @Parameter(description = "商品搜索参数，支持关键词、价格区间、分类、成色筛选及排序")
+            ProductQueryDTO productQueryDTO
+    ) {
+        ProductFacetSearchResultDTO result = productService.searchProductsWithFacets(productQueryDTO);
+        return ResultVO.success(result);
+    }
+
+    /**
+     * 商品标题补全接口
+     * 对应Service层：ProductServiceImpl.suggestProducts()，由内存补全索引按前缀返回热门在售商品
+     */
+    @GetMapping("/suggest")
+    @Operation(
+            summary = "商品标题补全接口",
+            description = "搜索框输入联想，业务规则：1.按标题前缀匹配（忽略首尾空白与大小写）；2.仅返回在售商品，按热度（已完成订单销量×10+浏览量）降序，热度相同按商品ID升序；3.默认且最多返回10条；4.前缀为空或索引尚未构建完成时返回空列表"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "查询成功，返回补全候选列表",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "500", description = "数据查询失败（对应错误码：SYSTEM_014）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class)))
+    })
+    public ResultVO<List<SuggestionDTO>> suggestProducts(
+            @RequestParam
+            @Parameter(description = "已输入的标题前缀", required = true, example = "iphone")
+            String prefix,
+            @RequestParam(required = false)
+            @Parameter(description = "返回条数（默认且最多10条）", example = "10")
+            Integer limit
+    ) {
+        List<SuggestionDTO> suggestions = productService.suggestProducts(prefix, limit);
+        return ResultVO.success(suggestions);
+    }
+
     /**
      * 查询卖家商品列表接口
      * 对应Service层：ProductServiceImpl.getSellerProducts()，仅查询当前卖家的商品，支持状态筛选
@@ -327,6 +448,99 @@ public class ProductController {
         return ResultVO.success(sellerProductPage);
     }
 
+    /**
+     * 商品导出接口（管理员报表）
+     * 对应Service层：ProductServiceImpl.exportProducts()，逐行读取数据库游标并以分块传输写出CSV
+     */
+    @GetMapping("/export")
+    @AdminRequired
+    @Operation(
+            summary = "商品导出接口（管理员专属）",
+            description = "按卖家与商品状态导出商品CSV，业务规则：1.仅管理员可操作；2.卖家ID、状态均为空时导出全量商品目录；3.按商品ID升序流式输出，不限制行数；4.文件为UTF-8（带BOM）CSV，可直接用Excel打开",
+            security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "导出成功，返回CSV文件流",
+                    content = @Content(mediaType = "text/csv")),
+            @ApiResponse(responseCode = "401", description = "未登录（对应错误码：SYSTEM_021）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "403", description = "无管理员权限（对应错误码：SYSTEM_022）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class)))
+    })
+    public void exportProducts(
+            @RequestParam(required = false)
+            @Parameter(description = "卖家ID（为空时导出全部卖家）", example = "2")
+            Long sellerId,
+            @RequestParam(required = false)
+            @Parameter(description = "商品状态（为空时导出全部状态）", example = "ON_SALE")
+            ProductStatusEnum status,
+            HttpServletResponse response
+    ) {
+        productService.exportProducts(sellerId, status, response);
+    }
+
+    /**
+     * 商品批量导入接口
+     * 对应Service层：ProductImportServiceImpl.submitImport()，转存文件后异步导入，立即返回任务ID
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @LoginRequired
+    @Operation(
+            summary = "商品批量导入接口",
+            description = "上传CSV或JSON文件批量发布商品，业务规则：1.CSV首行为表头，列名与发布参数字段名一致，多张图片以“|”分隔；JSON顶层为发布参数对象数组；2.每行校验规则与单个发布一致，失败行记入错误报告，不影响其他行；3.合法行分批写入，外部图片URL异步转存至MinIO；4.接口立即返回任务ID，通过任务查询接口获取进度",
+            security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "提交成功，返回PENDING状态的导入任务",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "400", description = "文件为空（对应错误码：SYSTEM_003）、文件格式不支持（对应错误码：PRODUCT_031）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "401", description = "未登录（对应错误码：SYSTEM_021）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "403", description = "无发布权限（对应错误码：SYSTEM_022）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class)))
+    })
+    public ResultVO<ProductImportJobDTO> importProducts(
+            @RequestParam
+            @Parameter(description = "导入文件（.csv或.json）", required = true)
+            MultipartFile file
+    ) {
+        Long currentSellerId = parseUserIdFromToken();
+        ProductImportJobDTO importJob = productImportService.submitImport(currentSellerId, file);
+        return ResultVO.success(importJob);
+    }
+
+    /**
+     * 商品导入任务查询接口
+     * 对应Service层：ProductImportServiceImpl.getImportJob()，返回进度、处理速度与单行错误报告
+     */
+    @GetMapping("/import/{jobId}")
+    @LoginRequired
+    @Operation(
+            summary = "商品导入任务查询接口",
+            description = "查询批量导入任务的状态、已处理/成功/失败行数、处理速度（行/秒）及单行错误报告（最多1000条），业务规则：1.仅任务所属卖家可查；2.任务信息保留1天",
+            security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "查询成功，返回导入任务",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "401", description = "未登录（对应错误码：SYSTEM_021）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "403", description = "非任务所属卖家（对应错误码：SYSTEM_022）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "404", description = "任务不存在或已过期（对应错误码：PRODUCT_032）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class)))
+    })
+    public ResultVO<ProductImportJobDTO> getImportJob(
+            @PathVariable
+            @Parameter(description = "导入任务ID", required = true, example = "3f2b8c0e9a5d4e7f8b1c2d3e4f5a6b7c")
+            String jobId
+    ) {
+        Long currentSellerId = parseUserIdFromToken();
+        ProductImportJobDTO importJob = productImportService.getImportJob(currentSellerId, jobId);
+        return ResultVO.success(importJob);
+    }
+
     /**
      * 工具方法：从请求头令牌中解析用户ID（实际项目需结合JWT工具实现）
      * @return 当前登录用户ID（未登录时返回null）
@@ -334,4 +548,20 @@ public class ProductController {
     private Long parseUserIdFromToken() {
         return requestParseUtil.parseUserIdFromRequest();
     }
+
+    /**
+     * 工具方法：解析访客标识（携带有效令牌时取用户ID，否则取客户端IP）
+     * 客户端IP取getRemoteAddr()：代理转发头由容器按server.forward-headers-strategy解析，只信任内网代理，客户端伪造的X-Forwarded-For不会生效
+     * @return 访客标识（user:用户ID 或 ip:客户端IP）
+     */
+    private String resolveVisitorId(HttpServletRequest request) {
+        if (StringUtils.hasText(request.getHeader("Authorization"))) {
+            try {
+                return "user:" + requestParseUtil.parseUserIdFromRequest(request);
+            } catch (UnLoginException e) {
+                // 令牌无效时按未登录访客处理
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
 }
\ No newline at end of file
@@ -58,11 +58,12 @@ public interface EvaluationConvert {
      * 映射说明：
      * 1. 初始化评价状态为正常，有用数为 0
      * 2. 图片列表以 JSON 字符串存储
-     * 3. 卖家 ID 需通过 orderId 查询订单后补充
+     * 3. 卖家 ID、商品 ID 需通过 orderId 查询订单后补充
      */
     @Mappings({
             @Mapping(target = "evalId", ignore = true),
             @Mapping(target = "evaluateeId", ignore = true), // 需通过 orderId 查询订单获取卖家 ID
+            @Mapping(target = "productId", ignore = true), // 需通过 orderId 查询订单获取商品 ID
             @Mapping(target = "createTime", ignore = true),
             @Mapping(target = "updateTime", ignore = true)
     })
@@ -9,6 +9,7 @@ import xyz.graygoo401.api.trade.dto.order.OrderDetailDTO;
 import xyz.graygoo401.api.trade.dto.order.OrderListItemDTO;
 import xyz.graygoo401.api.user.dto.user.UserDTO;
 import xyz.graygoo401.trade.dao.entity.Order;
+import xyz.graygoo401.trade.dao.entity.OrderView;
 
 import java.util.List;
 
@@ -34,10 +35,21 @@ public interface OrderConvert {
      */
     @Mappings({
             @Mapping(target = "productSummary", ignore = true), // 需关联 Product 实体拼接（如"商品1等3件"）
-            @Mapping(target = "productImage", ignore = true) // 需关联 Product 实体获取首图
+            @Mapping(target = "productImage", ignore = true), // 需关联 Product 实体获取首图
+            @Mapping(target = "counterpartNickname", ignore = true) // 需关联 User 实体获取昵称
     })
     OrderListItemDTO orderToOrderListItemDTO(Order order);
 
+    /**
+     * OrderView 读模型 -> OrderListItemDTO（订单列表项）
+     * 映射说明：商品标题作为商品简要描述，交易对方昵称由买家/卖家视角决定，需在 Service 中补充
+     */
+    @Mappings({
+            @Mapping(target = "productSummary", source = "productTitle"),
+            @Mapping(target = "counterpartNickname", ignore = true)
+    })
+    OrderListItemDTO orderViewToOrderListItemDTO(OrderView view);
+
     /**
      * OrderCreateDTO（订单创建请求）-> Order 实体
      * 映射说明：
@@ -12,6 +12,7 @@ import xyz.graygoo401.api.trade.dto.product.ProductDetailDTO;
 import xyz.graygoo401.api.trade.dto.product.ProductListItemDTO;
 import xyz.graygoo401.api.trade.dto.product.ProductPublishDTO;
 import xyz.graygoo401.api.trade.dto.product.ProductUpdateDTO;
+import xyz.graygoo401.api.trade.dto.product.SimilarProductDTO;
 import xyz.graygoo401.trade.dao.entity.Product;
 
 import java.util.List;
@@ -30,7 +31,9 @@ public interface ProductConvert {
      * Product 实体 -> ProductDetailDTO（商品详情响应）
      * 映射说明：
      * 1. 枚举类型因类型一致可自动映射
+     * 2. 相似商品由推荐模块单独填充
      */
+    @Mapping(target = "similarProducts", ignore = true)
     ProductDetailDTO productToProductDetailDTO(Product product);
 
     /**
@@ -40,16 +43,23 @@ public interface ProductConvert {
      */
     ProductListItemDTO productToProductListItemDTO(Product product);
 
+    /**
+     * Product 实体 -> SimilarProductDTO（商品详情页相似商品）
+     */
+    SimilarProductDTO productToSimilarProductDTO(Product product);
+
     /**
      * ProductPublishDTO（商品发布请求）-> Product 实体
      * 映射说明：
      * 1. 发布时默认初始化浏览量 0、状态为在售
      * 2. 忽略实体中自动生成的字段
+     * 3. 第一张图片作为商品首图
      */
     @Mappings({
             @Mapping(target = "productId", ignore = true), // 主键自增
             @Mapping(target = "viewCount", constant = "0"), // 初始浏览量 0
             @Mapping(target = "createTime", ignore = true), // 发布时间由系统生成
+            @Mapping(target = "mainImage", expression = "java(firstImage(dto.getImageUrls()))"), // 商品首图
     })
     Product productPublishDtoToProduct(ProductPublishDTO dto);
 
@@ -62,6 +72,7 @@ public interface ProductConvert {
             @Mapping(target = "sellerId", ignore = true), // 卖家 ID 不可修改
             @Mapping(target = "viewCount", ignore = true), // 浏览量由系统维护
             @Mapping(target = "createTime", ignore = true), // 创建时间不可修改
+            @Mapping(target = "mainImage", source = "mainImageUrl"), // 商品首图
     })
     void updateProductFromUpdateDto(ProductUpdateDTO dto, @MappingTarget Product product);
 
@@ -75,6 +86,15 @@ public interface ProductConvert {
      */
     List<ProductDetailDTO> productListToProductDetailList(List<Product> products);
 
+    /**
+     * 辅助方法：取图片列表的第一张作为商品首图
+     * @param imageUrls 图片相对路径列表
+     * @return 第一张图片，列表为空时返回 null
+     */
+    default String firstImage(List<String> imageUrls) {
+        return imageUrls == null || imageUrls.isEmpty() ? null : imageUrls.get(0);
+    }
+
     /**
      * 辅助方法：JSON 字符串转 String 数组
      * @param json JSON 格式的 URL 列表（如 "[\"url1\",\"url2\"]"）
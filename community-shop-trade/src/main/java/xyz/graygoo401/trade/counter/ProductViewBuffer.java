@@ -0,0 +1,123 @@
+package xyz.graygoo401.trade.counter;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 商品浏览内存缓冲（商品详情请求只写内存，由定时任务批量落库与写入Redis）
+ * 1. 按线程分条带：每条带独立的ConcurrentHashMap，同一热门商品的并发浏览分散到不同条带，避免争抢同一个哈希桶
+ * 2. 浏览量按商品ID累加；访客按统计Key（日期+商品）去重暂存，供批量写入HyperLogLog
+ * 3. 写入（merge/compute）与取出（remove）对同一Key互斥，取出后的计数与访客集合不会再被修改，不丢增量
+ * 4. 暂存访客数超过上限时丢弃新访客（独立访客数本为近似统计），浏览量不受上限影响
+ */
+@Component
+public class ProductViewBuffer {
+
+    public static final int MAX_PENDING_VISITORS = 200_000; // 两次落库之间最多暂存的访客记录数
+    private static final int STRIPE_COUNT = 16; // 条带数（2的幂）
+
+    private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+    private final LongAdder pendingVisitors = new LongAdder(); // 当前暂存的访客记录数（近似值，用于限流）
+
+    public ProductViewBuffer() {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * 记录一次浏览
+     * @param productId 商品ID
+     */
+    public void recordView(Long productId) {
+        currentStripe().views.merge(productId, 1L, Long::sum);
+    }
+
+    /**
+     * 记录一个访客（同一统计Key下重复访客只保留一份）
+     * @param counterKey 独立访客统计Key（按日期与商品区分）
+     * @param visitorId 访客标识
+     */
+    public void recordVisitor(String counterKey, String visitorId) {
+        if (pendingVisitors.sum() >= MAX_PENDING_VISITORS) {
+            return;
+        }
+        currentStripe().visitors.compute(counterKey, (key, visitors) -> {
+            if (visitors == null) {
+                visitors = new HashSet<>();
+            }
+            if (visitors.add(visitorId)) {
+                pendingVisitors.increment();
+            }
+            return visitors;
+        });
+    }
+
+    /**
+     * 取出并清空所有条带的浏览增量
+     * @return 商品ID -> 浏览增量
+     */
+    public Map<Long, Long> drainViews() {
+        Map<Long, Long> drained = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            for (Long productId : stripe.views.keySet()) {
+                Long delta = stripe.views.remove(productId);
+                if (delta != null) {
+                    drained.merge(productId, delta, Long::sum);
+                }
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * 取出并清空所有条带的暂存访客
+     * @return 统计Key -> 访客标识集合
+     */
+    public Map<String, Set<String>> drainVisitors() {
+        Map<String, Set<String>> drained = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            for (String counterKey : stripe.visitors.keySet()) {
+                Set<String> visitors = stripe.visitors.remove(counterKey);
+                if (visitors != null) {
+                    pendingVisitors.add(-visitors.size());
+                    drained.computeIfAbsent(counterKey, key -> new HashSet<>()).addAll(visitors);
+                }
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * 回填浏览增量（落库失败时调用，下次落库重试）
+     * @param deltas 商品ID -> 浏览增量
+     */
+    public void restoreViews(Map<Long, Long> deltas) {
+        Map<Long, Long> views = currentStripe().views;
+        deltas.forEach((productId, delta) -> views.merge(productId, delta, Long::sum));
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 按线程ID选择条带（同一线程固定写同一条带，Web容器线程数远大于条带数时分布均匀）
+     */
+    private Stripe currentStripe() {
+        long threadId = Thread.currentThread().threadId();
+        return stripes[(int) ((threadId ^ (threadId >>> 16)) & (STRIPE_COUNT - 1))];
+    }
+
+    /**
+     * 单个条带：浏览增量与暂存访客
+     */
+    private static final class Stripe {
+        private final ConcurrentHashMap<Long, Long> views = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, Set<String>> visitors = new ConcurrentHashMap<>();
+    }
+}
@@ -33,6 +33,10 @@ public class Evaluation {
     @TableField("evaluatee_id")
     private Long evaluateeId;
 
+    /** 商品ID（冗余自订单，用于商品评价列表） */
+    @TableField("product_id")
+    private Long productId;
+
     /** 评价内容 */
     @TableField("content")
     private String content;
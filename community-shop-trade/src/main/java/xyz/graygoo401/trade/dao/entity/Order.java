@@ -39,6 +39,10 @@ public class Order {
     @TableField("order_no")
     private String orderNo;
 
+    /** 结算单号（购物车结算时同一批订单共享，单商品下单为空） */
+    @TableField("checkout_no")
+    private String checkoutNo;
+
     /** 交易金额 */
     @TableField("total_amount")
     private BigDecimal totalAmount;
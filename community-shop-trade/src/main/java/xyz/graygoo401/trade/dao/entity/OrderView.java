@@ -0,0 +1,81 @@
+package xyz.graygoo401.trade.dao.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import xyz.graygoo401.api.trade.enums.OrderStatusEnum;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 订单列表读模型实体类，对应数据库order_view表
+ * 冗余商品标题、缩略图与买卖双方昵称，买家/卖家订单列表单表查询即可返回，无需关联商品表或远程调用用户服务
+ * 数据由订单事件、商品事件异步维护（见OrderViewListener）
+ */
+@NoArgsConstructor
+@Data
+@TableName("order_view")
+public class OrderView {
+
+    /** 订单ID（与order表主键一致） */
+    @TableId(value = "order_id", type = IdType.INPUT)
+    private Long orderId;
+
+    /** 订单编号 */
+    @TableField("order_no")
+    private String orderNo;
+
+    /** 买家ID */
+    @TableField("buyer_id")
+    private Long buyerId;
+
+    /** 卖家ID */
+    @TableField("seller_id")
+    private Long sellerId;
+
+    /** 商品ID */
+    @TableField("product_id")
+    private Long productId;
+
+    /** 商品标题（冗余） */
+    @TableField("product_title")
+    private String productTitle;
+
+    /** 商品缩略图（冗余） */
+    @TableField("product_image")
+    private String productImage;
+
+    /** 买家昵称（冗余，卖家列表展示） */
+    @TableField("buyer_nickname")
+    private String buyerNickname;
+
+    /** 卖家昵称（冗余，买家列表展示） */
+    @TableField("seller_nickname")
+    private String sellerNickname;
+
+    /** 交易金额 */
+    @TableField("total_amount")
+    private BigDecimal totalAmount;
+
+    /** 购买数量 */
+    private Integer quantity;
+
+    /** 订单状态 */
+    private OrderStatusEnum status;
+
+    /** 下单时间（与order表一致，作为游标分页排序键） */
+    @TableField("create_time")
+    private LocalDateTime createTime;
+
+    /** 支付时间 */
+    @TableField("pay_time")
+    private LocalDateTime payTime;
+
+    /** 读模型最后同步时间 */
+    @TableField("update_time")
+    private LocalDateTime updateTime;
+}
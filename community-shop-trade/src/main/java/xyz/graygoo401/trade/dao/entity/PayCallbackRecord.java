@@ -0,0 +1,51 @@
+package xyz.graygoo401.trade.dao.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import xyz.graygoo401.api.trade.enums.PayTypeEnum;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 支付回调处理记录实体类
+ * (trade_no, trade_status) 唯一，同一笔回调只会被成功处理一次
+ */
+@Data
+@NoArgsConstructor
+@TableName("pay_callback_record")
+public class PayCallbackRecord {
+
+    /** 记录ID */
+    @TableId(value = "record_id", type = IdType.AUTO)
+    private Long recordId;
+
+    /** 支付平台交易流水号 */
+    @TableField("trade_no")
+    private String tradeNo;
+
+    /** 回调交易状态 */
+    @TableField("trade_status")
+    private String tradeStatus;
+
+    /** 商户订单编号 */
+    @TableField("order_no")
+    private String orderNo;
+
+    /** 支付方式 */
+    @TableField("pay_type")
+    private PayTypeEnum payType;
+
+    /** 回调支付金额 */
+    @TableField("pay_amount")
+    private BigDecimal payAmount;
+
+    /** 回调原始内容 */
+    @TableField("callback_content")
+    private String callbackContent;
+
+    /** 首次处理时间 */
+    @TableField("create_time")
+    private LocalDateTime createTime;
+}
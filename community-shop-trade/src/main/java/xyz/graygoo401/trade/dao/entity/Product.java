@@ -60,6 +60,10 @@ public class Product {
     @TableField("status")
     private ProductStatusEnum status;
 
+    /** 商品首图（MinIO相对路径） */
+    @TableField("main_image")
+    private String mainImage;
+
     /** 商品成色 */
     @TableField("condition")
     private ProductConditionEnum condition;
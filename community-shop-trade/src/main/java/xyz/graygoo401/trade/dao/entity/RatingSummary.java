@@ -0,0 +1,83 @@
+package xyz.graygoo401.trade.dao.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import xyz.graygoo401.api.trade.enums.RatingTargetTypeEnum;
+
+import java.time.LocalDateTime;
+
+/**
+ * 评分汇总实体类，对应数据库rating_summary表
+ * 按卖家/商品维护评价数、评分总和与1-5星分布，评分统计查询直接读取，无需实时聚合evaluation表
+ * 数据由评价增删改原子更新（见RatingSummaryService），并由对账任务定期校正
+ */
+@NoArgsConstructor
+@Data
+@TableName("rating_summary")
+public class RatingSummary {
+
+    /** 汇总ID */
+    @TableId(value = "summary_id", type = IdType.AUTO)
+    private Long summaryId;
+
+    /** 汇总对象类型 */
+    @TableField("target_type")
+    private RatingTargetTypeEnum targetType;
+
+    /** 汇总对象ID（卖家ID/商品ID） */
+    @TableField("target_id")
+    private Long targetId;
+
+    /** 有效评价数 */
+    @TableField("rating_count")
+    private Integer ratingCount;
+
+    /** 评分总和 */
+    @TableField("rating_sum")
+    private Long ratingSum;
+
+    /** 一星评价数 */
+    @TableField("star1_count")
+    private Integer star1Count;
+
+    /** 二星评价数 */
+    @TableField("star2_count")
+    private Integer star2Count;
+
+    /** 三星评价数 */
+    @TableField("star3_count")
+    private Integer star3Count;
+
+    /** 四星评价数 */
+    @TableField("star4_count")
+    private Integer star4Count;
+
+    /** 五星评价数 */
+    @TableField("star5_count")
+    private Integer star5Count;
+
+    /** 最后更新时间 */
+    @TableField("update_time")
+    private LocalDateTime updateTime;
+
+    /**
+     * 创建空汇总（无评价）
+     */
+    public static RatingSummary empty(RatingTargetTypeEnum targetType, Long targetId) {
+        RatingSummary summary = new RatingSummary();
+        summary.setTargetType(targetType);
+        summary.setTargetId(targetId);
+        summary.setRatingCount(0);
+        summary.setRatingSum(0L);
+        summary.setStar1Count(0);
+        summary.setStar2Count(0);
+        summary.setStar3Count(0);
+        summary.setStar4Count(0);
+        summary.setStar5Count(0);
+        return summary;
+    }
+}
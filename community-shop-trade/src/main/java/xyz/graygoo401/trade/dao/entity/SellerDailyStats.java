@@ -0,0 +1,80 @@
+package xyz.graygoo401.trade.dao.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 卖家销售日统计实体类，对应数据库seller_daily_stats表
+ * 按卖家、日期预聚合支付订单数、成交额、退款与评价，卖家看板按日期范围直接读取，无需聚合order表
+ * 订单与评价指标分别按支付时间、评价时间归属日期；退款计入原订单支付日期（退货流转不记录时间）
+ * 数据由订单流转与评价增删改原子增量更新（见SellerDailyStatsService），并由回填任务按日校正
+ */
+@NoArgsConstructor
+@Data
+@TableName("seller_daily_stats")
+public class SellerDailyStats {
+
+    /** 统计ID */
+    @TableId(value = "stats_id", type = IdType.AUTO)
+    private Long statsId;
+
+    /** 卖家ID */
+    @TableField("seller_id")
+    private Long sellerId;
+
+    /** 统计日期 */
+    @TableField("stat_date")
+    private LocalDate statDate;
+
+    /** 支付订单数 */
+    @TableField("order_count")
+    private Integer orderCount;
+
+    /** 成交额 */
+    @TableField("gmv")
+    private BigDecimal gmv;
+
+    /** 退款订单数 */
+    @TableField("refund_count")
+    private Integer refundCount;
+
+    /** 退款金额 */
+    @TableField("refund_amount")
+    private BigDecimal refundAmount;
+
+    /** 有效评价数 */
+    @TableField("rating_count")
+    private Integer ratingCount;
+
+    /** 评分总和 */
+    @TableField("rating_sum")
+    private Long ratingSum;
+
+    /** 最后更新时间 */
+    @TableField("update_time")
+    private LocalDateTime updateTime;
+
+    /**
+     * 创建空统计（各项为0，也用作增量的初始值）
+     */
+    public static SellerDailyStats empty(Long sellerId, LocalDate statDate) {
+        SellerDailyStats stats = new SellerDailyStats();
+        stats.setSellerId(sellerId);
+        stats.setStatDate(statDate);
+        stats.setOrderCount(0);
+        stats.setGmv(BigDecimal.ZERO);
+        stats.setRefundCount(0);
+        stats.setRefundAmount(BigDecimal.ZERO);
+        stats.setRatingCount(0);
+        stats.setRatingSum(0L);
+        return stats;
+    }
+}
@@ -63,6 +63,25 @@ public interface EvaluationMapper extends BaseMapper<Evaluation> {
      */
     Integer countByQuery(@Param("query") EvaluationQueryDTO queryDTO);
 
+    // ==================== 历史数据回填 ====================
+    /**
+     * 游标查询未回填商品ID的评价ID（按评价ID升序）
+     * @param lastEvalId 上一批最后一个评价ID（null表示从头开始）
+     * @param limit 每批条数
+     * @return 评价ID列表
+     */
+    List<Long> selectIdsMissingProductId(
+            @Param("lastEvalId") Long lastEvalId,
+            @Param("limit") int limit
+    );
+
+    /**
+     * 按关联订单回填评价的商品ID（仅更新product_id为空的记录，可重复执行）
+     * @param evalIds 评价ID列表
+     * @return 回填条数
+     */
+    int backfillProductId(@Param("evalIds") List<Long> evalIds);
+
     // ==================== 统计分析 ====================
     /**
      * 统计卖家的平均评分
@@ -108,11 +127,10 @@ public interface EvaluationMapper extends BaseMapper<Evaluation> {
     @Select({
             "<script>",
             "SELECT COUNT(1)",
-            "FROM evaluation e",
-            "JOIN `order` o USING (order_id)",
-            "WHERE o.product_id = #{productId}",
-            "<if test='minScore != null'>AND e.score &gt;= #{minScore}</if>",   // 是否需要转义取决于 SQL 语句是否被 MyBatis 当作 XML 格式解析。
-            "<if test='maxScore != null'>AND e.score &lt;= #{maxScore}</if>",
+            "FROM evaluation",
+            "WHERE product_id = #{productId}",
+            "<if test='minScore != null'>AND score &gt;= #{minScore}</if>",   // 是否需要转义取决于 SQL 语句是否被 MyBatis 当作 XML 格式解析。
+            "<if test='maxScore != null'>AND score &lt;= #{maxScore}</if>",
             "</script>"})
     int countProductScoreLevel(@Param("productId") Long productId,
                                 @Param("minScore") Integer minScore,
@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
 import xyz.graygoo401.api.trade.dto.order.OrderQueryDTO;
 import xyz.graygoo401.api.trade.enums.OrderStatusEnum;
 import xyz.graygoo401.api.trade.enums.PayTypeEnum;
@@ -41,6 +42,15 @@ public interface OrderMapper extends BaseMapper<Order> {
      */
 
 
+    // ==================== 批量写入 ====================
+    /**
+     * 批量插入订单（多行VALUES，回填自增订单ID）
+     * @param orders 订单列表
+     * @return 影响行数
+     */
+    int insertBatch(@Param("orders") List<Order> orders);
+
+
     // ==================== 状态与时间更新 ====================
     /**
      * 更新订单状态
@@ -50,6 +60,23 @@ public interface OrderMapper extends BaseMapper<Order> {
      */
     int updateStatus(@Param("orderId") Long orderId, @Param("status") OrderStatusEnum status);
 
+    /**
+     * 条件更新订单状态（CAS：仅当前状态等于期望状态时更新，用于订单状态机）
+     * @param orderId 订单ID
+     * @param expectStatus 期望的当前状态
+     * @param targetStatus 目标状态
+     * @param timeColumn 同时记录流转时间的字段（由状态流转表声明，为空时不记录）
+     * @param eventTime 流转时间
+     * @return 影响行数（0表示订单状态已被并发修改）
+     */
+    int compareAndSetStatus(
+            @Param("orderId") Long orderId,
+            @Param("expectStatus") OrderStatusEnum expectStatus,
+            @Param("targetStatus") OrderStatusEnum targetStatus,
+            @Param("timeColumn") String timeColumn,
+            @Param("eventTime") LocalDateTime eventTime
+    );
+
     /**
      * 更新支付时间
      * @param orderId 订单ID
@@ -176,4 +203,46 @@ public interface OrderMapper extends BaseMapper<Order> {
             @Param("offset") int offset,
             @Param("limit") int limit
     );
+
+    /**
+     * 流式查询时间范围内的订单（导出用，按订单ID升序逐行读取，需在事务内遍历游标）
+     * @param userId 用户ID（买家或卖家，为空时不限用户）
+     * @param role 角色（"BUYER"或"SELLER"，为空时不限用户）
+     * @param startTime 开始时间（可为空）
+     * @param endTime 结束时间（可为空）
+     * @return 订单游标
+     */
+    Cursor<Order> streamByCreateTimeRange(
+            @Param("userId") Long userId,
+            @Param("role") String role,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime
+    );
+
+    /**
+     * 流式查询对账窗口内的订单（支付对账用，按订单编号升序逐行读取，需在事务内遍历游标）
+     * 范围：指定支付方式，且支付时间或创建时间落在窗口内（覆盖窗口内已支付订单，以及窗口内下单但本地未支付的订单）
+     * @param payType 支付方式
+     * @param startTime 窗口开始时间（包含）
+     * @param endTime 窗口结束时间（不包含）
+     * @return 订单游标（仅含订单ID、订单编号、金额、状态、支付时间）
+     */
+    Cursor<Order> streamForReconcile(
+            @Param("payType") PayTypeEnum payType,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime
+    );
+
+    /**
+     * 游标分批查询已支付（未取消/退款）订单的买家与商品（离线计算共同购买相似商品，按订单ID升序）
+     * @param lastOrderId 上一批最后一个订单ID（null表示从头开始）
+     * @param since 下单时间下限（仅统计近期订单）
+     * @param limit 每批条数
+     * @return 订单列表（仅含订单ID、买家ID、商品ID）
+     */
+    List<Order> selectPurchasesForRecommend(
+            @Param("lastOrderId") Long lastOrderId,
+            @Param("since") LocalDateTime since,
+            @Param("limit") int limit
+    );
 }
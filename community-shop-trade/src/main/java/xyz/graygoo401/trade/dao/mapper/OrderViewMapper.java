@@ -0,0 +1,75 @@
+package xyz.graygoo401.trade.dao.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import xyz.graygoo401.api.trade.enums.OrderStatusEnum;
+import xyz.graygoo401.trade.dao.entity.OrderView;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 订单列表读模型Mapper接口，对应order_view表
+ * 索引：idx_buyer_time(buyer_id, create_time)、idx_seller_time(seller_id, create_time)
+ */
+@Mapper
+public interface OrderViewMapper extends BaseMapper<OrderView> {
+
+    // ==================== 读模型维护 ====================
+    /**
+     * 新增或覆盖读模型记录（以order_id为唯一键）
+     * @param view 读模型记录
+     * @return 影响行数
+     */
+    int upsert(OrderView view);
+
+    /**
+     * 同步商品冗余信息（商品标题/缩略图变更时调用，冗余字段未变化的记录不更新）
+     * @param productId 商品ID
+     * @param productTitle 商品标题
+     * @param productImage 商品缩略图（为null时不更新）
+     * @return 影响行数
+     */
+    int updateProductInfo(
+            @Param("productId") Long productId,
+            @Param("productTitle") String productTitle,
+            @Param("productImage") String productImage
+    );
+
+
+    // ==================== 游标分页查询 ====================
+    /**
+     * 按买家游标分页查询订单列表（按create_time、order_id倒序）
+     * @param buyerId 买家ID
+     * @param status 订单状态（可为null）
+     * @param lastCreateTime 上一页最后一条的下单时间（第一页为null）
+     * @param lastOrderId 上一页最后一条的订单ID（第一页为null）
+     * @param limit 查询条数
+     * @return 订单读模型列表
+     */
+    List<OrderView> selectByBuyerCursor(
+            @Param("buyerId") Long buyerId,
+            @Param("status") OrderStatusEnum status,
+            @Param("lastCreateTime") LocalDateTime lastCreateTime,
+            @Param("lastOrderId") Long lastOrderId,
+            @Param("limit") int limit
+    );
+
+    /**
+     * 按卖家游标分页查询订单列表（按create_time、order_id倒序）
+     * @param sellerId 卖家ID
+     * @param status 订单状态（可为null）
+     * @param lastCreateTime 上一页最后一条的下单时间（第一页为null）
+     * @param lastOrderId 上一页最后一条的订单ID（第一页为null）
+     * @param limit 查询条数
+     * @return 订单读模型列表
+     */
+    List<OrderView> selectBySellerCursor(
+            @Param("sellerId") Long sellerId,
+            @Param("status") OrderStatusEnum status,
+            @Param("lastCreateTime") LocalDateTime lastCreateTime,
+            @Param("lastOrderId") Long lastOrderId,
+            @Param("limit") int limit
+    );
+}
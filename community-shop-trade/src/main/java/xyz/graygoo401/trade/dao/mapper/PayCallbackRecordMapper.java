@@ -0,0 +1,13 @@
+package xyz.graygoo401.trade.dao.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import xyz.graygoo401.trade.dao.entity.PayCallbackRecord;
+
+/**
+ * 支付回调处理记录Mapper接口
+ * 依赖 uk_trade_no_status 唯一索引去重，重复插入抛出DuplicateKeyException
+ */
+@Mapper
+public interface PayCallbackRecordMapper extends BaseMapper<PayCallbackRecord> {
+}
@@ -5,12 +5,19 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.cursor.Cursor;
+import xyz.graygoo401.api.trade.dto.cart.CartItemAddDTO;
+import xyz.graygoo401.api.trade.dto.product.ProductFacetCountDTO;
 import xyz.graygoo401.api.trade.dto.product.ProductQueryDTO;
 import xyz.graygoo401.api.trade.dto.product.SellerProductQueryDTO;
+import xyz.graygoo401.api.trade.enums.ProductPriceRangeEnum;
 import xyz.graygoo401.api.trade.enums.ProductStatusEnum;
+import xyz.graygoo401.common.dto.SuggestionDTO;
 import xyz.graygoo401.trade.dao.entity.Product;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 商品模块Mapper接口，对应product表操作
@@ -18,6 +25,14 @@ import java.util.List;
 @Mapper
 public interface ProductMapper extends BaseMapper<Product> {
 
+    // ==================== 批量写入 ====================
+    /**
+     * 批量插入商品（多行VALUES，回填自增商品ID）
+     * @param products 商品列表
+     * @return 影响行数
+     */
+    int insertBatch(@Param("products") List<Product> products);
+
     // ==================== 搜索与筛选 ====================
 
     /**
@@ -76,6 +91,68 @@ public interface ProductMapper extends BaseMapper<Product> {
      */
     List<Product> selectBySellerQuery(@Param("query") SellerProductQueryDTO productQueryDTO);
 
+    /**
+     * 游标分批查询在售商品的筛选列（构建内存筛选索引，按商品ID升序）
+     * @param lastProductId 上一批最后一个商品ID（null表示从头开始）
+     * @param limit 每批条数
+     * @return 商品列表（仅含商品ID、卖家、类别、成色、价格、发布时间）
+     */
+    List<Product> selectOnSaleForIndex(
+            @Param("lastProductId") Long lastProductId,
+            @Param("limit") int limit
+    );
+
+    /**
+     * 游标分批查询在售商品的补全数据（构建标题前缀补全索引，按商品ID升序）
+     * 权重 = 已完成订单销量 × 10 + 浏览量
+     * @param lastProductId 上一批最后一个商品ID（null表示从头开始）
+     * @param limit 每批条数
+     * @return 补全数据行（id=商品ID，text=标题，weight=热度权重）
+     */
+    List<SuggestionDTO> selectOnSaleForAutocomplete(
+            @Param("lastProductId") Long lastProductId,
+            @Param("limit") int limit
+    );
+
+    /**
+     * 查询单个在售商品的补全数据（增量刷新补全索引）
+     * @param productId 商品ID
+     * @return 补全数据行，商品不存在或非在售时返回null
+     */
+    SuggestionDTO selectOnSaleSuggestionById(@Param("productId") Long productId);
+
+    /**
+     * 批量查询在售商品的补全数据（商品批量事件刷新补全索引）
+     * @param productIds 商品ID列表
+     * @return 在售商品的补全数据行（不存在或非在售的商品不返回）
+     */
+    List<SuggestionDTO> selectOnSaleSuggestionByIds(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * 按类别分组计数（分面计数，忽略类别条件，保留其余条件）
+     * @param queryDTO 查询条件
+     * @return 分组计数（value为类别名称）
+     */
+    List<ProductFacetCountDTO> countGroupByCategory(@Param("query") ProductQueryDTO queryDTO);
+
+    /**
+     * 按成色分组计数（分面计数，忽略成色条件，保留其余条件）
+     * @param queryDTO 查询条件
+     * @return 分组计数（value为成色code）
+     */
+    List<ProductFacetCountDTO> countGroupByCondition(@Param("query") ProductQueryDTO queryDTO);
+
+    /**
+     * 按价格区间分组计数（分面计数，忽略价格条件，保留其余条件）
+     * @param queryDTO 查询条件
+     * @param priceRanges 价格区间（按价格升序）
+     * @return 分组计数（value为价格区间code）
+     */
+    List<ProductFacetCountDTO> countGroupByPriceRange(
+            @Param("query") ProductQueryDTO queryDTO,
+            @Param("priceRanges") ProductPriceRangeEnum[] priceRanges
+    );
+
 
     // ==================== 库存与卖家查询 ====================
     /**
@@ -86,6 +163,36 @@ public interface ProductMapper extends BaseMapper<Product> {
      */
     int updateStock(@Param("productId") Long productId, @Param("stock") int stock);
 
+    /**
+     * 批量预占库存（单条多行条件更新，仅扣减在售且库存充足的商品）
+     * @param items 结算商品列表（商品ID不可重复）
+     * @return 影响行数（小于商品种类数说明存在库存不足或不可售的商品）
+     */
+    int reserveStockBatch(@Param("items") List<CartItemAddDTO> items);
+
+    /**
+     * 批量标记已售罄（仅处理在售且库存为0的商品，用于批量预占库存后）
+     * @param productIds 商品ID列表
+     * @return 影响行数（切换为已售罄的商品数）
+     */
+    int markSoldOutByIds(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * 增加商品库存（相对增量更新，用于取消订单恢复库存；已售罄商品同时恢复为在售）
+     * @param productId 商品ID
+     * @param quantity 增加数量
+     * @return 影响行数
+     */
+    int increaseStock(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    /**
+     * 补充商品首图（仅首图为空时写入）
+     * @param productId 商品ID
+     * @param mainImage 首图相对路径
+     * @return 影响行数（已有首图时为0）
+     */
+    int updateMainImageIfAbsent(@Param("productId") Long productId, @Param("mainImage") String mainImage);
+
     /**
      * 更新商品浏览量（自增1）
      * @param productId 商品ID
@@ -93,6 +200,13 @@ public interface ProductMapper extends BaseMapper<Product> {
      */
     int updateViewCount(@Param("productId") Long productId);
 
+    /**
+     * 批量累加商品浏览量（单条多行更新，不刷新update_time）
+     * @param deltas 商品ID -> 浏览增量
+     * @return 影响行数
+     */
+    int incrementViewCountBatch(@Param("deltas") Map<Long, Long> deltas);
+
     /**
      * 分页查询卖家发布的商品
      * @param sellerId 卖家ID
@@ -123,6 +237,14 @@ public interface ProductMapper extends BaseMapper<Product> {
 
     // ==================== 管理操作 ===================
 
+    /**
+     * 流式查询商品（导出用，按商品ID升序逐行读取，需在事务内遍历游标）
+     * @param sellerId 卖家ID（为空时不限卖家）
+     * @param status 商品状态（为空时不限状态）
+     * @return 商品游标
+     */
+    Cursor<Product> streamForExport(@Param("sellerId") Long sellerId, @Param("status") ProductStatusEnum status);
+
     /**
      * 更新商品状态
      * @param productId 商品ID
@@ -0,0 +1,94 @@
+package xyz.graygoo401.trade.dao.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import xyz.graygoo401.api.trade.enums.RatingTargetTypeEnum;
+import xyz.graygoo401.trade.dao.entity.RatingSummary;
+
+import java.util.List;
+
+/**
+ * 评分汇总Mapper接口，对应rating_summary表
+ * 索引：uk_target(target_type, target_id)
+ */
+@Mapper
+public interface RatingSummaryMapper extends BaseMapper<RatingSummary> {
+
+    // ==================== 汇总查询 ====================
+    /**
+     * 查询指定对象的评分汇总（唯一索引单行查询）
+     * @param targetType 汇总对象类型
+     * @param targetId 汇总对象ID
+     * @return 评分汇总（null表示暂无评价）
+     */
+    RatingSummary selectByTarget(
+            @Param("targetType") RatingTargetTypeEnum targetType,
+            @Param("targetId") Long targetId
+    );
+
+    // ==================== 增量维护 ====================
+    /**
+     * 新增一条评价：评价数+1、评分总和+score、对应星级+1（不存在则插入，单条SQL原子完成）
+     * @param targetType 汇总对象类型
+     * @param targetId 汇总对象ID
+     * @param score 评分（1-5）
+     * @return 影响行数
+     */
+    int increaseRating(
+            @Param("targetType") RatingTargetTypeEnum targetType,
+            @Param("targetId") Long targetId,
+            @Param("score") Integer score
+    );
+
+    /**
+     * 移除一条评价：评价数-1、评分总和-score、对应星级-1（最低为0）
+     * @param targetType 汇总对象类型
+     * @param targetId 汇总对象ID
+     * @param score 评分（1-5）
+     * @return 影响行数（0表示汇总不存在，需对账修复）
+     */
+    int decreaseRating(
+            @Param("targetType") RatingTargetTypeEnum targetType,
+            @Param("targetId") Long targetId,
+            @Param("score") Integer score
+    );
+
+    // ==================== 对账 ====================
+    /**
+     * 按evaluation表实时聚合评分汇总（仅统计正常状态评价，按对象ID升序）
+     * @param targetType 汇总对象类型
+     * @param targetIds 限定对象ID（为空时按游标分批）
+     * @param lastTargetId 游标：上一批最后一个对象ID（为null时从头开始）
+     * @param limit 每批条数
+     * @return 实时聚合结果（未设置targetType）
+     */
+    List<RatingSummary> selectActualSummaries(
+            @Param("targetType") RatingTargetTypeEnum targetType,
+            @Param("targetIds") List<Long> targetIds,
+            @Param("lastTargetId") Long lastTargetId,
+            @Param("limit") int limit
+    );
+
+    /**
+     * 查询已存储的评分汇总（按对象ID升序）
+     * @param targetType 汇总对象类型
+     * @param targetIds 限定对象ID（为空时按游标分批）
+     * @param lastTargetId 游标：上一批最后一个对象ID（为null时从头开始）
+     * @param limit 每批条数
+     * @return 评分汇总列表
+     */
+    List<RatingSummary> selectStoredSummaries(
+            @Param("targetType") RatingTargetTypeEnum targetType,
+            @Param("targetIds") List<Long> targetIds,
+            @Param("lastTargetId") Long lastTargetId,
+            @Param("limit") int limit
+    );
+
+    /**
+     * 以对账结果覆盖评分汇总（以(target_type, target_id)为唯一键）
+     * @param summary 评分汇总
+     * @return 影响行数
+     */
+    int overwrite(RatingSummary summary);
+}
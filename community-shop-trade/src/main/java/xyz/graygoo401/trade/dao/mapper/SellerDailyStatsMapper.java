@@ -0,0 +1,93 @@
+package xyz.graygoo401.trade.dao.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import xyz.graygoo401.trade.dao.entity.SellerDailyStats;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 卖家销售日统计Mapper接口，对应seller_daily_stats表
+ * 索引：uk_seller_date(seller_id, stat_date)、idx_stat_date(stat_date)
+ */
+@Mapper
+public interface SellerDailyStatsMapper extends BaseMapper<SellerDailyStats> {
+
+    // ==================== 范围查询 ====================
+    /**
+     * 查询卖家日期范围内的日统计（唯一索引范围扫描，按日期升序，无数据的日期不返回）
+     * @param sellerId 卖家ID
+     * @param startDate 开始日期（包含）
+     * @param endDate 结束日期（包含）
+     * @return 日统计列表
+     */
+    List<SellerDailyStats> selectBySellerAndDateRange(
+            @Param("sellerId") Long sellerId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    // ==================== 增量维护 ====================
+    /**
+     * 累加增量：各指标加上delta中的值（不存在则插入，单条SQL原子完成）
+     * @param delta 增量（sellerId、statDate必填，各指标非负）
+     * @return 影响行数
+     */
+    int increase(SellerDailyStats delta);
+
+    /**
+     * 移除一条评价：评价数-1、评分总和-score（最低为0）
+     * @param sellerId 卖家ID
+     * @param statDate 评价所属日期
+     * @param score 评分（1-5）
+     * @return 影响行数（0表示统计不存在，需回填修复）
+     */
+    int decreaseRating(
+            @Param("sellerId") Long sellerId,
+            @Param("statDate") LocalDate statDate,
+            @Param("score") Integer score
+    );
+
+    // ==================== 回填 ====================
+    /**
+     * 按order、evaluation表实时聚合某一日的卖家统计（按卖家ID升序）
+     * @param dayStart 当日开始时间（包含）
+     * @param dayEnd 次日开始时间（不包含）
+     * @param sellerIds 限定卖家ID（为空时按游标分批）
+     * @param lastSellerId 游标：上一批最后一个卖家ID（为null时从头开始）
+     * @param limit 每批条数
+     * @return 实时聚合结果（未设置statDate）
+     */
+    List<SellerDailyStats> selectActualDailyStats(
+            @Param("dayStart") LocalDateTime dayStart,
+            @Param("dayEnd") LocalDateTime dayEnd,
+            @Param("sellerIds") List<Long> sellerIds,
+            @Param("lastSellerId") Long lastSellerId,
+            @Param("limit") int limit
+    );
+
+    /**
+     * 查询某一日已存储的卖家统计（按卖家ID升序）
+     * @param statDate 统计日期
+     * @param sellerIds 限定卖家ID（为空时按游标分批）
+     * @param lastSellerId 游标：上一批最后一个卖家ID（为null时从头开始）
+     * @param limit 每批条数
+     * @return 日统计列表
+     */
+    List<SellerDailyStats> selectStoredDailyStats(
+            @Param("statDate") LocalDate statDate,
+            @Param("sellerIds") List<Long> sellerIds,
+            @Param("lastSellerId") Long lastSellerId,
+            @Param("limit") int limit
+    );
+
+    /**
+     * 以回填结果覆盖日统计（以(seller_id, stat_date)为唯一键）
+     * @param stats 日统计
+     * @return 影响行数
+     */
+    int overwrite(SellerDailyStats stats);
+}
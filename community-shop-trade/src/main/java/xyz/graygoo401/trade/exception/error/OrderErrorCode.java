@@ -23,7 +23,14 @@ public enum OrderErrorCode implements IErrorCode {
 
     ORDER_AMOUNT_ABNORMAL("ORDER_007", 400, "订单金额参数错误"),
 
-    ORDER_NOT_COMPLETED("ORDER_005", 400, "订单未完成");
+    ORDER_NOT_COMPLETED("ORDER_005", 400, "订单未完成"),
+
+    ORDER_STATUS_CONFLICT("ORDER_011", 409, "订单状态已变更，请刷新后重试"),
+
+    // 购物车与结算
+    CHECKOUT_ITEMS_EMPTY("ORDER_008", 400, "结算商品为空"),
+    CHECKOUT_ITEMS_TOO_MANY("ORDER_009", 400, "结算商品种类超过上限"),
+    CART_ITEMS_TOO_MANY("ORDER_010", 400, "购物车商品种类超过上限");
 
     private final String code;
     private final int standardCode;
@@ -19,10 +19,14 @@ public enum PaymentErrorCode implements IErrorCode {
     PAYMENT_GENERATE_URL_FAILS("PAY_011", 500, "生成支付链接失败"),
     PAYMENT_CALLBACK_VALIDATE_FAILS("PAY_012", 400, "支付回调参数验证失败"),
     PAYMENT_CALLBACK_FAILS("PAY_013", 400, "支付回调失败"),
+    PAYMENT_ORDER_NOT_PAYABLE("PAY_014", 409, "订单不可支付"),
 
     PAYMENT_USER_NOT_MATCH("PAY_101", 400, "用户不匹配"),
 
-    PAYMENT_ALIPAY_FAILS("PAY_102", 400, "支付宝支付失败");
+    PAYMENT_ALIPAY_FAILS("PAY_102", 400, "支付宝支付失败"),
+
+    PAYMENT_RECONCILE_FILE_NOT_EXISTS("PAY_201", 404, "对账单文件不存在"),
+    PAYMENT_RECONCILE_FILE_INVALID("PAY_202", 400, "对账单文件格式错误");
 
     private final String code;
     private final int standardCode;
@@ -28,6 +28,9 @@ public enum ProductErrorCode implements IErrorCode {
     PRODUCT_DESCRIPTION_TOO_LONG("PRODUCT_021", 400, "商品描述过长"),
     PRODUCT_IMAGE_TOO_MANY("PRODUCT_022", 400, "商品图片数量过多"),
 
+    PRODUCT_IMPORT_FORMAT_INVALID("PRODUCT_031", 400, "导入文件格式不支持（仅支持csv、json）"),
+    PRODUCT_IMPORT_JOB_NOT_EXISTS("PRODUCT_032", 404, "导入任务不存在或已过期"),
+
     PRODUCT_ALREADY_OFF_SALE("PRODUCT_091", 400, "商品已下架"),
     PRODUCT_STOCK_INSUFFICIENT("PRODUCT_092", 400, "商品库存不足"),
     ORDER_AMOUNT_ABNORMAL("ORDER_021", 400, "订单金额异常");
@@ -0,0 +1,164 @@
+package xyz.graygoo401.trade.importer;
+
+import xyz.graygoo401.api.trade.dto.product.ProductPublishDTO;
+import xyz.graygoo401.api.trade.enums.ProductConditionEnum;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * CSV商品导入读取器
+ * 1. 首行为表头，列名与ProductPublishDTO字段名一致（不区分大小写、顺序任意），title/category/price/stock为必需列
+ * 2. 按RFC 4180解析：字段可用双引号包裹，引号内可含逗号、换行，内部双引号写作两个双引号
+ * 3. imageUrls列内多张图片以“|”分隔；condition列填写成色code（如NINETY_PERCENT_NEW）
+ * 4. 兼容Excel另存的UTF-8 BOM，空行跳过
+ */
+public class CsvProductImportReader implements ProductImportReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024; // 字符缓冲区大小
+    private static final char BOM = '\uFEFF'; // UTF-8 BOM（Excel另存CSV时写入）
+    private static final String IMAGE_URL_SEPARATOR = "\\|";
+    private static final List<String> REQUIRED_COLUMNS = List.of("title", "category", "price", "stock");
+
+    private final Reader reader;
+    private final Map<String, Integer> columnIndex = new HashMap<>(); // 小写列名 -> 列下标
+    private long rowNumber = 0;
+
+    public CsvProductImportReader(InputStream in) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new IOException("CSV文件为空，缺少表头");
+        }
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim();
+            if (i == 0 && !name.isEmpty() && name.charAt(0) == BOM) {
+                name = name.substring(1);
+            }
+            columnIndex.put(name.toLowerCase(), i);
+        }
+        for (String column : REQUIRED_COLUMNS) {
+            if (!columnIndex.containsKey(column.toLowerCase())) {
+                throw new IOException("CSV表头缺少必需列：" + column);
+            }
+        }
+    }
+
+    @Override
+    public ProductImportRow next() throws IOException {
+        List<String> fields;
+        do {
+            fields = readRecord();
+            if (fields == null) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.get(0).isBlank());
+
+        rowNumber++;
+        if (fields.size() != columnIndex.size()) {
+            return ProductImportRow.failure(rowNumber, "列数（" + fields.size() + "）与表头（" + columnIndex.size() + "）不一致");
+        }
+
+        ProductPublishDTO publishDTO = new ProductPublishDTO();
+        publishDTO.setTitle(field(fields, "title"));
+        publishDTO.setCategory(field(fields, "category"));
+        publishDTO.setDescription(field(fields, "description"));
+
+        String price = field(fields, "price");
+        if (price != null) {
+            try {
+                publishDTO.setPrice(new BigDecimal(price));
+            } catch (NumberFormatException e) {
+                return ProductImportRow.failure(rowNumber, "价格格式错误：" + price);
+            }
+        }
+
+        String stock = field(fields, "stock");
+        if (stock != null) {
+            try {
+                publishDTO.setStock(Integer.valueOf(stock));
+            } catch (NumberFormatException e) {
+                return ProductImportRow.failure(rowNumber, "库存格式错误：" + stock);
+            }
+        }
+
+        String condition = field(fields, "condition");
+        if (condition != null) {
+            publishDTO.setCondition(ProductConditionEnum.getByCode(condition));
+            if (publishDTO.getCondition() == null) {
+                return ProductImportRow.failure(rowNumber, "商品成色不存在：" + condition);
+            }
+        }
+
+        String imageUrls = field(fields, "imageUrls");
+        if (imageUrls != null) {
+            publishDTO.setImageUrls(Arrays.stream(imageUrls.split(IMAGE_URL_SEPARATOR))
+                    .map(String::trim)
+                    .filter(url -> !url.isEmpty())
+                    .toList());
+        }
+        return ProductImportRow.success(rowNumber, publishDTO);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 按列名取字段值（列不存在或值为空白时返回null）
+     */
+    private String field(List<String> fields, String column) {
+        Integer index = columnIndex.get(column.toLowerCase());
+        if (index == null) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * 读取一条CSV记录（引号内的换行属于字段内容）
+     * @return 字段列表，文件结束时返回null
+     */
+    private List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("第" + (rowNumber + 1) + "行附近引号未闭合");
+                }
+                if (c == '"') {
+                    int next = reader.read();
+                    if (next != '"') {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                }
+                field.append((char) c);
+            } else if (c == -1 || c == '\n') {
+                fields.add(field.toString());
+                return fields;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+}
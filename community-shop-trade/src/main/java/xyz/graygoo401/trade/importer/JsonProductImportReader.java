@@ -0,0 +1,60 @@
+package xyz.graygoo401.trade.importer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import xyz.graygoo401.api.trade.dto.product.ProductPublishDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * JSON商品导入读取器
+ * 文件顶层为ProductPublishDTO对象数组，使用Jackson流式解析器逐个读取数组元素，不会一次性加载整个数组
+ * 单个元素字段类型错误时该行失败并继续；JSON语法错误时整个文件无法继续解析，抛出IOException
+ */
+public class JsonProductImportReader implements ProductImportReader {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final JsonParser parser;
+    private long rowNumber = 0;
+
+    public JsonProductImportReader(InputStream in) throws IOException {
+        this.parser = OBJECT_MAPPER.getFactory().createParser(in);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            parser.close();
+            throw new IOException("JSON导入文件顶层必须为数组");
+        }
+    }
+
+    @Override
+    public ProductImportRow next() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == null || token == JsonToken.END_ARRAY) {
+            return null;
+        }
+
+        rowNumber++;
+        if (token != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return ProductImportRow.failure(rowNumber, "数组元素必须为对象");
+        }
+        JsonNode node = OBJECT_MAPPER.readTree(parser);
+        try {
+            return ProductImportRow.success(rowNumber, OBJECT_MAPPER.treeToValue(node, ProductPublishDTO.class));
+        } catch (MismatchedInputException e) {
+            String field = e.getPath().isEmpty() ? "" : e.getPath().get(0).getFieldName();
+            return ProductImportRow.failure(rowNumber, "字段格式错误：" + field);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
@@ -0,0 +1,30 @@
+package xyz.graygoo401.trade.importer;
+
+import xyz.graygoo401.api.trade.enums.ProductImportFormatEnum;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 商品导入文件流式读取器（每次只解析一条数据，内存占用与文件大小无关）
+ */
+public interface ProductImportReader extends Closeable {
+
+    /**
+     * 读取下一条数据
+     * 单行字段格式错误时返回失败行并继续；文件结构损坏（引号未闭合、JSON语法错误等）时抛出IOException
+     * @return 下一条数据，读完时返回null
+     */
+    ProductImportRow next() throws IOException;
+
+    /**
+     * 按文件格式创建读取器（关闭读取器时一并关闭输入流）
+     */
+    static ProductImportReader open(InputStream in, ProductImportFormatEnum format) throws IOException {
+        return switch (format) {
+            case CSV -> new CsvProductImportReader(in);
+            case JSON -> new JsonProductImportReader(in);
+        };
+    }
+}
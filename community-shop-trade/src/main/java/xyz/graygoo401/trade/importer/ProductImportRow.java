@@ -0,0 +1,30 @@
+package xyz.graygoo401.trade.importer;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import xyz.graygoo401.api.trade.dto.product.ProductPublishDTO;
+
+/**
+ * 导入文件中解析出的一条数据（解析失败时publishDTO为空、error为失败原因）
+ */
+@Getter
+@AllArgsConstructor
+public class ProductImportRow {
+
+    /** 数据行号（从1开始，不含CSV表头与空行；JSON为数组下标+1） */
+    private final long rowNumber;
+
+    /** 解析出的商品发布参数 */
+    private final ProductPublishDTO publishDTO;
+
+    /** 解析错误（为空表示解析成功） */
+    private final String error;
+
+    public static ProductImportRow success(long rowNumber, ProductPublishDTO publishDTO) {
+        return new ProductImportRow(rowNumber, publishDTO, null);
+    }
+
+    public static ProductImportRow failure(long rowNumber, String error) {
+        return new ProductImportRow(rowNumber, null, error);
+    }
+}
@@ -0,0 +1,847 @@
+package xyz.graygoo401.trade.index;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import xyz.graygoo401.api.trade.dto.product.ProductQueryDTO;
+import xyz.graygoo401.api.trade.enums.ProductConditionEnum;
+import xyz.graygoo401.api.trade.enums.ProductPriceRangeEnum;
+import xyz.graygoo401.api.trade.enums.ProductSortFieldEnum;
+import xyz.graygoo401.api.trade.enums.ProductStatusEnum;
+import xyz.graygoo401.common.enums.SortDirectionEnum;
+import xyz.graygoo401.trade.dao.entity.Product;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * 在售商品内存列式筛选索引
+ * 1. 按行存储商品ID、卖家、类别、成色、价格（分）、发布时间六列，行号即数组下标
+ * 2. 类别/成色/价格区间为位图索引，卖家为行号倒排表，价格/发布时间为按值排序的行号数组（兼作范围查找与排序）
+ * 3. 仅服务浏览页查询（在售、无关键词、按发布时间/价格排序）与分面计数（在售、无关键词），其余查询仍走数据库
+ * 4. 增量变更追加新行并标记旧行失效，失效行在定时全量重建时清理；读写由读写锁保护
+ */
+@Slf4j
+@Component
+public class ProductFilterIndex {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Columns columns = new Columns(16); // 当前索引数据（读写锁保护）
+    private Set<Long> pendingIds; // 全量重建期间发生变更的商品ID（null表示未在重建）
+    private volatile boolean ready = false; // 是否已完成首次全量构建
+
+    /**
+     * 创建全量构建器（按商品ID升序追加在售商品）
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * 判断查询能否由索引应答（索引就绪、在售、无关键词、按发布时间或价格排序）
+     */
+    public boolean supports(ProductQueryDTO queryDTO) {
+        return ready
+                && !StringUtils.hasText(queryDTO.getKeyword())
+                && (queryDTO.getStatus() == null || ProductStatusEnum.ON_SALE.equals(queryDTO.getStatus()))
+                && (queryDTO.getSortField() == null
+                || ProductSortFieldEnum.CREATE_TIME.equals(queryDTO.getSortField())
+                || ProductSortFieldEnum.PRICE.equals(queryDTO.getSortField()));
+    }
+
+    /**
+     * 筛选、计数并分页
+     *
+     * @param queryDTO 查询条件（需先经supports判断）
+     * @param offset   偏移量
+     * @param limit    每页条数
+     * @return 总条数与当前页商品ID（按排序顺序）
+     */
+    public IndexPage query(ProductQueryDTO queryDTO, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            return columns.query(queryDTO, Math.max(offset, 0), Math.max(limit, 0));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 判断分面计数能否由索引应答（索引就绪、在售、无关键词，与排序无关）
+     */
+    public boolean supportsFacets(ProductQueryDTO queryDTO) {
+        return ready
+                && !StringUtils.hasText(queryDTO.getKeyword())
+                && (queryDTO.getStatus() == null || ProductStatusEnum.ON_SALE.equals(queryDTO.getStatus()));
+    }
+
+    /**
+     * 分面计数：类别、成色、价格区间各维度分别以其余维度条件的交集为筛选集，与各取值位图求交计数
+     *
+     * @param queryDTO 查询条件（需先经supportsFacets判断）
+     * @return 各维度取值的命中商品数
+     */
+    public FacetCounts facets(ProductQueryDTO queryDTO) {
+        lock.readLock().lock();
+        try {
+            return columns.facets(queryDTO);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 写入或覆盖商品（商品需为在售状态）
+     */
+    public void upsert(Product product) {
+        lock.writeLock().lock();
+        try {
+            columns.remove(product.getProductId());
+            int row = columns.appendRow(product);
+            columns.overlayRows.put(product.getProductId(), row);
+            columns.insertSorted(row);
+            if (pendingIds != null) {
+                pendingIds.add(product.getProductId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 移除商品（下架、删除等）
+     */
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            columns.remove(productId);
+            if (pendingIds != null) {
+                pendingIds.add(productId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 标记开始全量重建，此后的增量变更会被记录，供重建完成后重放
+     */
+    public void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingIds = ConcurrentHashMap.newKeySet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 以全量构建结果替换当前索引
+     *
+     * @return 重建期间发生变更的商品ID（调用方需按数据库最新状态重放）
+     */
+    public Set<Long> replace(Builder builder) {
+        Columns rebuilt = builder.build();
+        lock.writeLock().lock();
+        try {
+            columns = rebuilt;
+            ready = true;
+            Set<Long> changedIds = pendingIds == null ? Collections.emptySet() : pendingIds;
+            pendingIds = null;
+            return changedIds;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 当前有效商品数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return columns.aliveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 索引分页结果
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class IndexPage {
+        /** 符合条件的商品总数 */
+        private final long total;
+        /** 当前页商品ID（按排序顺序） */
+        private final List<Long> productIds;
+    }
+
+    /**
+     * 分面计数结果
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class FacetCounts {
+        /** 类别 -> 命中数（按命中数降序，仅含命中数大于0的类别） */
+        private final Map<String, Long> categories;
+        /** 成色 -> 命中数（含全部成色） */
+        private final Map<ProductConditionEnum, Long> conditions;
+        /** 价格区间 -> 命中数（含全部区间） */
+        private final Map<ProductPriceRangeEnum, Long> priceRanges;
+    }
+
+    /**
+     * 全量构建器（构建过程不持有索引锁，构建完成后一次性替换）
+     */
+    public static class Builder {
+
+        private final Columns columns = new Columns(1024);
+        private long lastProductId = Long.MIN_VALUE;
+
+        /**
+         * 追加商品（需按商品ID严格升序追加，以便按ID二分定位行号）
+         */
+        public Builder add(Product product) {
+            if (product.getProductId() <= lastProductId) {
+                throw new IllegalArgumentException("商品需按ID升序追加，当前ID：" + product.getProductId());
+            }
+            lastProductId = product.getProductId();
+            columns.appendRow(product);
+            return this;
+        }
+
+        private Columns build() {
+            columns.baseSize = columns.size;
+            columns.sortAll();
+            return columns;
+        }
+    }
+
+    // ---------------------- 列存储实现 ----------------------
+
+    /**
+     * 列数据与二级索引（非线程安全，由外层读写锁保护）
+     */
+    private static final class Columns {
+
+        private static final byte NO_CONDITION = -1; // 成色为空
+        private static final int SORT_COST_FACTOR = 8; // 命中行排序（装箱比较）相对沿排序数组逐行判断的单位开销
+        private static final int FACET_SCAN_COST_FACTOR = 32; // 分面逐行取列值（随机访问列数组）相对位图逐字求交的单位开销
+        private static final ProductConditionEnum[] CONDITIONS = ProductConditionEnum.values();
+        private static final ProductPriceRangeEnum[] PRICE_RANGES = ProductPriceRangeEnum.values();
+        private static final long[] PRICE_RANGE_UPPER_CENTS = new long[PRICE_RANGES.length]; // 各价格区间上限（分，不含）
+
+        static {
+            for (int i = 0; i < PRICE_RANGES.length; i++) {
+                PRICE_RANGE_UPPER_CENTS[i] = toCents(PRICE_RANGES[i].getUpperBound(), RoundingMode.CEILING, Long.MAX_VALUE);
+            }
+        }
+
+        // 行存储列
+        private int size;
+        private long[] productIds;
+        private long[] sellerIds;
+        private long[] prices; // 价格（分）
+        private long[] createTimes; // 发布时间（UTC毫秒）
+        private int[] categoryIds; // 类别字典编号
+        private byte[] conditions; // 成色序号
+
+        // 行状态：baseSize之前的行按商品ID升序，可二分定位；之后为增量追加行，经overlayRows定位
+        private int baseSize;
+        private final Map<Long, Integer> overlayRows = new HashMap<>();
+        private final Bitmap alive = new Bitmap();
+        private int aliveCount;
+
+        // 等值筛选索引
+        private final Map<String, Integer> categoryDict = new HashMap<>();
+        private final List<Bitmap> categoryBitmaps = new ArrayList<>();
+        private final Bitmap[] conditionBitmaps = new Bitmap[CONDITIONS.length];
+        private final Bitmap[] priceRangeBitmaps = new Bitmap[PRICE_RANGES.length];
+        private final Map<Long, IntList> sellerRows = new HashMap<>();
+
+        // 范围/排序索引（包含失效行，查询时以alive过滤）
+        private int[] rowsByPrice;
+        private int[] rowsByCreateTime;
+
+        private Columns(int capacity) {
+            productIds = new long[capacity];
+            sellerIds = new long[capacity];
+            prices = new long[capacity];
+            createTimes = new long[capacity];
+            categoryIds = new int[capacity];
+            conditions = new byte[capacity];
+            rowsByPrice = new int[capacity];
+            rowsByCreateTime = new int[capacity];
+            for (int i = 0; i < conditionBitmaps.length; i++) {
+                conditionBitmaps[i] = new Bitmap();
+            }
+            for (int i = 0; i < priceRangeBitmaps.length; i++) {
+                priceRangeBitmaps[i] = new Bitmap();
+            }
+        }
+
+        private int appendRow(Product product) {
+            ensureCapacity(size + 1);
+            int row = size++;
+            productIds[row] = product.getProductId();
+            sellerIds[row] = product.getSellerId() == null ? 0L : product.getSellerId();
+            prices[row] = toCents(product.getPrice(), RoundingMode.HALF_UP, 0L);
+            createTimes[row] = toEpochMillis(product.getCreateTime());
+            categoryIds[row] = categoryDict.computeIfAbsent(product.getCategory() == null ? "" : product.getCategory(), category -> {
+                categoryBitmaps.add(new Bitmap());
+                return categoryBitmaps.size() - 1;
+            });
+            conditions[row] = product.getCondition() == null ? NO_CONDITION : (byte) product.getCondition().ordinal();
+
+            alive.set(row);
+            aliveCount++;
+            categoryBitmaps.get(categoryIds[row]).set(row);
+            if (conditions[row] != NO_CONDITION) {
+                conditionBitmaps[conditions[row]].set(row);
+            }
+            priceRangeBitmaps[priceRangeOf(prices[row])].set(row);
+            sellerRows.computeIfAbsent(sellerIds[row], sellerId -> new IntList()).add(row);
+            return row;
+        }
+
+        private void remove(Long productId) {
+            int row = findRow(productId);
+            if (row < 0) {
+                return;
+            }
+            alive.clear(row);
+            aliveCount--;
+            categoryBitmaps.get(categoryIds[row]).clear(row);
+            if (conditions[row] != NO_CONDITION) {
+                conditionBitmaps[conditions[row]].clear(row);
+            }
+            priceRangeBitmaps[priceRangeOf(prices[row])].clear(row);
+            overlayRows.remove(productId);
+        }
+
+        private int findRow(Long productId) {
+            Integer overlayRow = overlayRows.get(productId);
+            if (overlayRow != null) {
+                return overlayRow;
+            }
+            int row = Arrays.binarySearch(productIds, 0, baseSize, productId);
+            return row >= 0 && alive.get(row) ? row : -1;
+        }
+
+        private void sortAll() {
+            rowsByPrice = sortRows(prices);
+            rowsByCreateTime = sortRows(createTimes);
+        }
+
+        private int[] sortRows(long[] keys) {
+            Integer[] rows = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                rows[i] = i;
+            }
+            Arrays.parallelSort(rows, (a, b) -> compareRows(keys, a, b));
+            int[] sorted = new int[Math.max(size, 16)];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = rows[i];
+            }
+            return sorted;
+        }
+
+        /**
+         * 将新行插入两个有序行号数组（新行已计入size）
+         */
+        private void insertSorted(int row) {
+            rowsByPrice = insertRow(rowsByPrice, prices, row);
+            rowsByCreateTime = insertRow(rowsByCreateTime, createTimes, row);
+        }
+
+        private int[] insertRow(int[] sortedRows, long[] keys, int row) {
+            int length = size - 1;
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compareRows(keys, sortedRows[mid], row) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            int[] target = sortedRows.length > length ? sortedRows : Arrays.copyOf(sortedRows, Math.max(16, length * 2));
+            System.arraycopy(sortedRows, low, target, low + 1, length - low);
+            target[low] = row;
+            return target;
+        }
+
+        /**
+         * 按排序键比较两行，键相同时按商品ID比较，保证分页稳定
+         */
+        private int compareRows(long[] keys, int a, int b) {
+            int result = Long.compare(keys[a], keys[b]);
+            return result != 0 ? result : Long.compare(productIds[a], productIds[b]);
+        }
+
+        private IndexPage query(ProductQueryDTO queryDTO, int offset, int limit) {
+            // 1. 价格区间转换为分（下限向上取整、上限向下取整）
+            long minPrice = toCents(queryDTO.getMinPrice(), RoundingMode.CEILING, Long.MIN_VALUE);
+            long maxPrice = toCents(queryDTO.getMaxPrice(), RoundingMode.FLOOR, Long.MAX_VALUE);
+            if (minPrice > maxPrice) {
+                return emptyPage(0);
+            }
+            boolean sortByPrice = ProductSortFieldEnum.PRICE.equals(queryDTO.getSortField());
+            boolean desc = !SortDirectionEnum.ASC.equals(queryDTO.getSortDir());
+            long[] sortKeys = sortByPrice ? prices : createTimes;
+
+            // 2. 指定卖家：倒排表行数有限，逐行校验后排序
+            if (queryDTO.getSellerId() != null) {
+                IntList sellerRowList = sellerRows.get(queryDTO.getSellerId());
+                if (sellerRowList == null) {
+                    return emptyPage(0);
+                }
+                Integer categoryId = resolveCategory(queryDTO.getCategory());
+                if (categoryId != null && categoryId < 0) {
+                    return emptyPage(0);
+                }
+                List<Integer> matched = new ArrayList<>();
+                for (int i = 0; i < sellerRowList.size; i++) {
+                    int row = sellerRowList.data[i];
+                    if (alive.get(row)
+                            && (categoryId == null || categoryIds[row] == categoryId)
+                            && (queryDTO.getCondition() == null || conditions[row] == queryDTO.getCondition().ordinal())
+                            && prices[row] >= minPrice && prices[row] <= maxPrice) {
+                        matched.add(row);
+                    }
+                }
+                return sortAndSlice(matched, sortKeys, desc, offset, limit);
+            }
+
+            // 3. 等值条件：位图求交（null表示全部有效行，无条件时不复制位图）
+            Bitmap candidates = null;
+            Integer categoryId = resolveCategory(queryDTO.getCategory());
+            if (categoryId != null) {
+                if (categoryId < 0) {
+                    return emptyPage(0);
+                }
+                candidates = categoryBitmaps.get(categoryId).copy();
+            }
+            if (queryDTO.getCondition() != null) {
+                Bitmap conditionRows = conditionBitmaps[queryDTO.getCondition().ordinal()];
+                if (candidates == null) {
+                    candidates = conditionRows.copy();
+                } else {
+                    candidates.and(conditionRows);
+                }
+            }
+
+            // 4. 价格区间：在价格有序数组上二分定位连续区段，区段与候选行中较小的一方逐行过滤
+            int priceFrom = 0;
+            int priceTo = size;
+            boolean priceBounded = minPrice != Long.MIN_VALUE || maxPrice != Long.MAX_VALUE;
+            if (priceBounded) {
+                priceFrom = lowerBound(minPrice);
+                priceTo = upperBound(maxPrice);
+                int candidateCount = candidates == null ? aliveCount : candidates.cardinality();
+                Bitmap matches = candidates == null ? alive : candidates;
+                if (priceTo - priceFrom < candidateCount) {
+                    Bitmap priceRows = new Bitmap(size);
+                    for (int pos = priceFrom; pos < priceTo; pos++) {
+                        if (matches.get(rowsByPrice[pos])) {
+                            priceRows.set(rowsByPrice[pos]);
+                        }
+                    }
+                    candidates = priceRows;
+                } else {
+                    candidates = candidates == null ? alive.copy() : candidates;
+                    for (int row = candidates.nextSetBit(0); row >= 0; row = candidates.nextSetBit(row + 1)) {
+                        if (prices[row] < minPrice || prices[row] > maxPrice) {
+                            candidates.clear(row);
+                        }
+                    }
+                }
+            }
+            Bitmap matches = candidates == null ? alive : candidates;
+
+            // 5. 计数
+            int total = candidates == null ? aliveCount : candidates.cardinality();
+            if (total == 0 || offset >= total) {
+                return emptyPage(total);
+            }
+
+            // 6. 分页：命中少时直接排序命中行，否则沿排序数组跳过offset后顺序收集
+            int[] order = sortByPrice ? rowsByPrice : rowsByCreateTime;
+            int from = sortByPrice && priceBounded ? priceFrom : 0;
+            int to = sortByPrice && priceBounded ? priceTo : size;
+            long walkCost = (long) (offset + limit) * (to - from) / total;
+            long sortCost = (long) total * (32 - Integer.numberOfLeadingZeros(total)) * SORT_COST_FACTOR;
+            if (sortCost < walkCost) {
+                List<Integer> matched = new ArrayList<>(total);
+                for (int row = matches.nextSetBit(0); row >= 0; row = matches.nextSetBit(row + 1)) {
+                    matched.add(row);
+                }
+                return sortAndSlice(matched, sortKeys, desc, offset, limit);
+            }
+            List<Long> pageIds = new ArrayList<>(Math.min(limit, total - offset));
+            int skipped = 0;
+            for (int i = 0; i < to - from && pageIds.size() < limit; i++) {
+                int row = order[desc ? to - 1 - i : from + i];
+                if (matches.get(row)) {
+                    if (skipped < offset) {
+                        skipped++;
+                    } else {
+                        pageIds.add(productIds[row]);
+                    }
+                }
+            }
+            return new IndexPage(total, pageIds);
+        }
+
+        private FacetCounts facets(ProductQueryDTO queryDTO) {
+            long minPrice = toCents(queryDTO.getMinPrice(), RoundingMode.CEILING, Long.MIN_VALUE);
+            long maxPrice = toCents(queryDTO.getMaxPrice(), RoundingMode.FLOOR, Long.MAX_VALUE);
+            Integer categoryId = resolveCategory(queryDTO.getCategory());
+            long[] categoryCounts = new long[categoryBitmaps.size()];
+            long[] conditionCounts = new long[CONDITIONS.length];
+            long[] priceRangeCounts = new long[PRICE_RANGES.length];
+
+            // 1. 指定卖家：倒排表行数有限，逐行判断各维度条件后计数
+            if (queryDTO.getSellerId() != null) {
+                IntList sellerRowList = sellerRows.get(queryDTO.getSellerId());
+                for (int i = 0; sellerRowList != null && i < sellerRowList.size; i++) {
+                    int row = sellerRowList.data[i];
+                    if (!alive.get(row)) {
+                        continue;
+                    }
+                    boolean categoryMatched = categoryId == null || categoryIds[row] == categoryId;
+                    boolean conditionMatched = queryDTO.getCondition() == null || conditions[row] == queryDTO.getCondition().ordinal();
+                    boolean priceMatched = prices[row] >= minPrice && prices[row] <= maxPrice;
+                    if (conditionMatched && priceMatched) {
+                        categoryCounts[categoryIds[row]]++;
+                    }
+                    if (categoryMatched && priceMatched && conditions[row] != NO_CONDITION) {
+                        conditionCounts[conditions[row]]++;
+                    }
+                    if (categoryMatched && conditionMatched) {
+                        priceRangeCounts[priceRangeOf(prices[row])]++;
+                    }
+                }
+                return buildFacetCounts(categoryCounts, conditionCounts, priceRangeCounts);
+            }
+
+            // 2. 各维度条件对应的行集（null表示该维度无条件）
+            Bitmap categoryFilter = null;
+            if (categoryId != null) {
+                categoryFilter = categoryId < 0 ? new Bitmap() : categoryBitmaps.get(categoryId);
+            }
+            Bitmap conditionFilter = queryDTO.getCondition() == null ? null : conditionBitmaps[queryDTO.getCondition().ordinal()];
+            Bitmap priceFilter = null;
+            if (minPrice != Long.MIN_VALUE || maxPrice != Long.MAX_VALUE) {
+                priceFilter = new Bitmap(size);
+                int priceTo = minPrice > maxPrice ? 0 : upperBound(maxPrice);
+                for (int pos = lowerBound(minPrice); pos < priceTo; pos++) {
+                    if (alive.get(rowsByPrice[pos])) {
+                        priceFilter.set(rowsByPrice[pos]);
+                    }
+                }
+            }
+
+            // 3. 各维度以其余维度条件的交集为筛选集分别计数（选中某一取值后仍可看到同维度其他取值的数量）
+            countFacet(intersect(conditionFilter, priceFilter), categoryBitmaps.toArray(new Bitmap[0]),
+                    row -> categoryIds[row], categoryCounts);
+            countFacet(intersect(categoryFilter, priceFilter), conditionBitmaps,
+                    row -> conditions[row], conditionCounts);
+            countFacet(intersect(categoryFilter, conditionFilter), priceRangeBitmaps,
+                    row -> priceRangeOf(prices[row]), priceRangeCounts);
+            return buildFacetCounts(categoryCounts, conditionCounts, priceRangeCounts);
+        }
+
+        /**
+         * 组装分面结果（类别按命中数降序，成色与价格区间按枚举顺序）
+         */
+        private FacetCounts buildFacetCounts(long[] categoryCounts, long[] conditionCounts, long[] priceRangeCounts) {
+            Map<String, Long> categories = new LinkedHashMap<>();
+            categoryDict.entrySet().stream()
+                    .filter(entry -> !entry.getKey().isEmpty() && categoryCounts[entry.getValue()] > 0)
+                    .sorted((a, b) -> Long.compare(categoryCounts[b.getValue()], categoryCounts[a.getValue()]))
+                    .forEach(entry -> categories.put(entry.getKey(), categoryCounts[entry.getValue()]));
+            Map<ProductConditionEnum, Long> conditionMap = new EnumMap<>(ProductConditionEnum.class);
+            for (ProductConditionEnum condition : CONDITIONS) {
+                conditionMap.put(condition, conditionCounts[condition.ordinal()]);
+            }
+            Map<ProductPriceRangeEnum, Long> priceRangeMap = new EnumMap<>(ProductPriceRangeEnum.class);
+            for (ProductPriceRangeEnum priceRange : PRICE_RANGES) {
+                priceRangeMap.put(priceRange, priceRangeCounts[priceRange.ordinal()]);
+            }
+            return new FacetCounts(categories, conditionMap, priceRangeMap);
+        }
+
+        /**
+         * 按筛选集统计各取值的命中数：筛选集很小时逐行取列值计数，否则逐个取值位图与筛选集求交计数
+         *
+         * @param filter       筛选集（null表示全部有效行）
+         * @param valueBitmaps 各取值位图（下标即取值编号）
+         * @param valueOfRow   行号 -> 取值编号（负数表示无取值）
+         * @param counts       计数结果（下标即取值编号）
+         */
+        private void countFacet(Bitmap filter, Bitmap[] valueBitmaps, IntUnaryOperator valueOfRow, long[] counts) {
+            if (filter == null) {
+                for (int i = 0; i < valueBitmaps.length; i++) {
+                    counts[i] = valueBitmaps[i].cardinality();
+                }
+                return;
+            }
+            long bitmapWords = (long) valueBitmaps.length * (size >>> 6);
+            if ((long) filter.cardinality() * FACET_SCAN_COST_FACTOR < bitmapWords) {
+                for (int row = filter.nextSetBit(0); row >= 0; row = filter.nextSetBit(row + 1)) {
+                    int value = valueOfRow.applyAsInt(row);
+                    if (value >= 0) {
+                        counts[value]++;
+                    }
+                }
+                return;
+            }
+            for (int i = 0; i < valueBitmaps.length; i++) {
+                counts[i] = valueBitmaps[i].andCardinality(filter);
+            }
+        }
+
+        /**
+         * 多个行集求交（忽略null，全部为null时返回null；仅一个非null时直接返回该位图，调用方不可修改结果）
+         */
+        private static Bitmap intersect(Bitmap... bitmaps) {
+            Bitmap result = null;
+            boolean copied = false;
+            for (Bitmap bitmap : bitmaps) {
+                if (bitmap == null) {
+                    continue;
+                }
+                if (result == null) {
+                    result = bitmap;
+                } else {
+                    if (!copied) {
+                        result = result.copy();
+                        copied = true;
+                    }
+                    result.and(bitmap);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * 价格（分）所属价格区间序号
+         */
+        private static int priceRangeOf(long cents) {
+            for (int i = 0; i < PRICE_RANGE_UPPER_CENTS.length - 1; i++) {
+                if (cents < PRICE_RANGE_UPPER_CENTS[i]) {
+                    return i;
+                }
+            }
+            return PRICE_RANGE_UPPER_CENTS.length - 1;
+        }
+
+        /**
+         * 类别条件转字典编号（null表示无类别条件，-1表示类别不存在）
+         */
+        private Integer resolveCategory(String category) {
+            if (!StringUtils.hasText(category)) {
+                return null;
+            }
+            return categoryDict.getOrDefault(category, -1);
+        }
+
+        private IndexPage sortAndSlice(List<Integer> rows, long[] sortKeys, boolean desc, int offset, int limit) {
+            Comparator<Integer> comparator = (a, b) -> compareRows(sortKeys, a, b);
+            rows.sort(desc ? comparator.reversed() : comparator);
+            List<Long> pageIds = new ArrayList<>();
+            for (int i = offset; i < rows.size() && pageIds.size() < limit; i++) {
+                pageIds.add(productIds[rows.get(i)]);
+            }
+            return new IndexPage(rows.size(), pageIds);
+        }
+
+        /**
+         * 价格有序数组中首个价格 >= minPrice 的位置
+         */
+        private int lowerBound(long minPrice) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (prices[rowsByPrice[mid]] < minPrice) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * 价格有序数组中首个价格 > maxPrice 的位置
+         */
+        private int upperBound(long maxPrice) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (prices[rowsByPrice[mid]] <= maxPrice) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private void ensureCapacity(int required) {
+            if (required <= productIds.length) {
+                return;
+            }
+            int capacity = Math.max(required, productIds.length * 2);
+            productIds = Arrays.copyOf(productIds, capacity);
+            sellerIds = Arrays.copyOf(sellerIds, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            createTimes = Arrays.copyOf(createTimes, capacity);
+            categoryIds = Arrays.copyOf(categoryIds, capacity);
+            conditions = Arrays.copyOf(conditions, capacity);
+        }
+
+        private static IndexPage emptyPage(long total) {
+            return new IndexPage(total, Collections.emptyList());
+        }
+
+        private static long toCents(BigDecimal amount, RoundingMode roundingMode, long defaultValue) {
+            return amount == null ? defaultValue : amount.movePointRight(2).setScale(0, roundingMode).longValue();
+        }
+
+        private static long toEpochMillis(LocalDateTime time) {
+            return time == null ? Long.MIN_VALUE : time.toInstant(ZoneOffset.UTC).toEpochMilli();
+        }
+    }
+
+    /**
+     * 行号位图（按需增长，实时维护置位数，支持免复制的交集计数）
+     */
+    private static final class Bitmap {
+        private long[] words;
+        private int cardinality;
+
+        private Bitmap() {
+            this(64);
+        }
+
+        private Bitmap(int capacity) {
+            words = new long[Math.max(1, (capacity + 63) >>> 6)];
+        }
+
+        private void set(int row) {
+            int index = row >>> 6;
+            if (index >= words.length) {
+                words = Arrays.copyOf(words, Math.max(index + 1, words.length * 2));
+            }
+            long mask = 1L << row;
+            if ((words[index] & mask) == 0) {
+                words[index] |= mask;
+                cardinality++;
+            }
+        }
+
+        private void clear(int row) {
+            int index = row >>> 6;
+            long mask = 1L << row;
+            if (index < words.length && (words[index] & mask) != 0) {
+                words[index] &= ~mask;
+                cardinality--;
+            }
+        }
+
+        private boolean get(int row) {
+            int index = row >>> 6;
+            return index < words.length && (words[index] & (1L << row)) != 0;
+        }
+
+        /**
+         * 从fromRow开始的首个置位行号（无则返回-1）
+         */
+        private int nextSetBit(int fromRow) {
+            int index = fromRow >>> 6;
+            if (index >= words.length) {
+                return -1;
+            }
+            long word = words[index] & (-1L << fromRow);
+            while (word == 0) {
+                if (++index == words.length) {
+                    return -1;
+                }
+                word = words[index];
+            }
+            return (index << 6) + Long.numberOfTrailingZeros(word);
+        }
+
+        private int cardinality() {
+            return cardinality;
+        }
+
+        /**
+         * 原地求交
+         */
+        private void and(Bitmap other) {
+            int common = Math.min(words.length, other.words.length);
+            int count = 0;
+            for (int i = 0; i < common; i++) {
+                words[i] &= other.words[i];
+                count += Long.bitCount(words[i]);
+            }
+            Arrays.fill(words, common, words.length, 0L);
+            cardinality = count;
+        }
+
+        /**
+         * 与另一位图交集的置位数（不修改双方）
+         */
+        private int andCardinality(Bitmap other) {
+            int common = Math.min(words.length, other.words.length);
+            int count = 0;
+            for (int i = 0; i < common; i++) {
+                count += Long.bitCount(words[i] & other.words[i]);
+            }
+            return count;
+        }
+
+        private Bitmap copy() {
+            Bitmap bitmap = new Bitmap(0);
+            bitmap.words = Arrays.copyOf(words, words.length);
+            bitmap.cardinality = cardinality;
+            return bitmap;
+        }
+    }
+
+    /**
+     * 可增长int数组（卖家倒排表，避免装箱）
+     */
+    private static final class IntList {
+        private int[] data = new int[4];
+        private int size;
+
+        private void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package xyz.graygoo401.trade.job;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import xyz.graygoo401.trade.service.base.PaymentReconcileService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 支付对账任务
+ * 每日核对前一日的支付宝对账单（本地CSV：{settlement-dir}/alipay-yyyyMMdd.csv），差异写入报告文件
+ */
+@Slf4j
+@Component
+public class PaymentReconcileJob {
+
+    private static final DateTimeFormatter FILE_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    /** 对账单存放目录 */
+    @Value("${trade.reconcile.settlement-dir:${java.io.tmpdir}/settlement}")
+    private String settlementDir;
+
+    @Autowired
+    private PaymentReconcileService paymentReconcileService;
+
+    /**
+     * 每日上午10:00对账（支付宝前一日账单次日上午可下载，可通过trade.reconcile.cron覆盖）
+     */
+    @Scheduled(cron = "${trade.reconcile.cron:0 0 10 * * ?}")
+    public void reconcile() {
+        LocalDate billDate = LocalDate.now().minusDays(1);
+        Path settlementFile = Paths.get(settlementDir, "alipay-" + billDate.format(FILE_DATE_FORMATTER) + ".csv");
+        if (!Files.isRegularFile(settlementFile)) {
+            log.warn("支付对账跳过，对账单不存在：{}", settlementFile);
+            return;
+        }
+        try {
+            paymentReconcileService.reconcile(billDate, settlementFile);
+        } catch (Exception e) {
+            log.error("支付对账失败，账单日：{}", billDate, e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package xyz.graygoo401.trade.job;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import xyz.graygoo401.trade.service.base.ProductService;
+
+/**
+ * 商品标题补全索引重建任务
+ * 启动后立即全量构建（构建完成前补全返回空列表），此后定期重建，刷新销量/浏览量热度并兜底遗漏的商品事件
+ */
+@Slf4j
+@Component
+public class ProductAutocompleteIndexJob {
+
+    @Autowired
+    private ProductService productService;
+
+    /**
+     * 每30分钟重建一次（可通过product.autocomplete.rebuild-interval覆盖，单位毫秒）
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${product.autocomplete.rebuild-interval:1800000}")
+    public void rebuild() {
+        try {
+            productService.rebuildAutocompleteIndex();
+        } catch (Exception e) {
+            log.error("商品标题补全索引重建任务执行失败", e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package xyz.graygoo401.trade.job;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import xyz.graygoo401.trade.service.base.ProductService;
+
+/**
+ * 商品筛选索引重建任务
+ * 启动后立即全量构建（构建完成前搜索走数据库），此后定期重建，清理失效行并兜底遗漏的商品事件
+ */
+@Slf4j
+@Component
+public class ProductFilterIndexJob {
+
+    @Autowired
+    private ProductService productService;
+
+    /**
+     * 每10分钟重建一次（可通过product.filter-index.rebuild-interval覆盖，单位毫秒）
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${product.filter-index.rebuild-interval:600000}")
+    public void rebuild() {
+        try {
+            productService.rebuildFilterIndex();
+        } catch (Exception e) {
+            log.error("商品筛选索引重建任务执行失败", e);
+        }
+    }
+}
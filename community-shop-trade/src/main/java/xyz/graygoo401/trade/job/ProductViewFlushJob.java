@@ -0,0 +1,40 @@
+package xyz.graygoo401.trade.job;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import xyz.graygoo401.trade.service.base.ProductViewService;
+
+/**
+ * 商品浏览量落库任务
+ * 定期将内存缓冲的浏览增量批量写入数据库、访客写入HyperLogLog；实例关闭前再落库一次，减少停机丢失的浏览量
+ */
+@Slf4j
+@Component
+public class ProductViewFlushJob {
+
+    @Autowired
+    private ProductViewService productViewService;
+
+    /**
+     * 每5秒落库一次（可通过product.view.flush-interval覆盖，单位毫秒）
+     */
+    @Scheduled(fixedDelayString = "${product.view.flush-interval:5000}")
+    public void flush() {
+        try {
+            productViewService.flushViews();
+        } catch (Exception e) {
+            log.error("商品浏览量落库任务执行失败", e);
+        }
+    }
+
+    /**
+     * 实例关闭前落库剩余增量
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,35 @@
+package xyz.graygoo401.trade.job;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import xyz.graygoo401.api.trade.enums.RatingTargetTypeEnum;
+import xyz.graygoo401.trade.service.base.RatingSummaryService;
+
+/**
+ * 评分汇总对账任务
+ * 增量维护可能因异常或人工改数与evaluation表偏离，每日低峰期按实时聚合结果校正一次
+ */
+@Slf4j
+@Component
+public class RatingSummaryReconcileJob {
+
+    @Autowired
+    private RatingSummaryService ratingSummaryService;
+
+    /**
+     * 每日凌晨3:30对账（可通过rating.summary.reconcile-cron覆盖）
+     */
+    @Scheduled(cron = "${rating.summary.reconcile-cron:0 30 3 * * ?}")
+    public void reconcile() {
+        for (RatingTargetTypeEnum targetType : RatingTargetTypeEnum.values()) {
+            try {
+                ratingSummaryService.reconcile(targetType);
+            } catch (Exception e) {
+                // 单类型对账失败不影响其他类型
+                log.error("评分汇总对账失败，类型：{}", targetType, e);
+            }
+        }
+    }
+}
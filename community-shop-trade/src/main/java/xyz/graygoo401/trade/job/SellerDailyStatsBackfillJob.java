@@ -0,0 +1,38 @@
+package xyz.graygoo401.trade.job;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import xyz.graygoo401.trade.service.base.SellerDailyStatsService;
+
+import java.time.LocalDate;
+
+/**
+ * 卖家销售日统计回填任务
+ * 增量维护可能因异常或人工改数与order、evaluation表偏离，每日低峰期按实时聚合结果校正最近几天的统计
+ */
+@Slf4j
+@Component
+public class SellerDailyStatsBackfillJob {
+
+    @Autowired
+    private SellerDailyStatsService sellerDailyStatsService;
+
+    @Value("${trade.seller-stats.backfill-days:7}")
+    private int backfillDays;
+
+    /**
+     * 每日凌晨4:00回填（可通过trade.seller-stats.backfill-cron覆盖）
+     */
+    @Scheduled(cron = "${trade.seller-stats.backfill-cron:0 0 4 * * ?}")
+    public void backfill() {
+        LocalDate today = LocalDate.now();
+        try {
+            sellerDailyStatsService.backfill(today.minusDays(backfillDays), today.minusDays(1));
+        } catch (Exception e) {
+            log.error("卖家销售日统计回填失败，最近天数：{}", backfillDays, e);
+        }
+    }
+}
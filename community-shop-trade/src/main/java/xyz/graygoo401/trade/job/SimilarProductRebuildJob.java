@@ -0,0 +1,31 @@
+package xyz.graygoo401.trade.job;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import xyz.graygoo401.trade.service.base.SimilarProductService;
+
+/**
+ * 相似商品重建任务
+ * 共同购买关系变化缓慢，每日低峰期全量重算一次，结果写入Redis供商品详情页读取
+ */
+@Slf4j
+@Component
+public class SimilarProductRebuildJob {
+
+    @Autowired
+    private SimilarProductService similarProductService;
+
+    /**
+     * 每日凌晨4:00重建（可通过product.similar.rebuild-cron覆盖）
+     */
+    @Scheduled(cron = "${product.similar.rebuild-cron:0 0 4 * * ?}")
+    public void rebuild() {
+        try {
+            similarProductService.rebuildSimilarProducts();
+        } catch (Exception e) {
+            log.error("相似商品重建任务执行失败", e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package xyz.graygoo401.trade.listener;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.ExchangeTypes;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import xyz.graygoo401.api.common.dto.mq.OrderCheckoutEventDTO;
+import xyz.graygoo401.api.common.dto.mq.OrderEventDTO;
+import xyz.graygoo401.api.common.enums.MqEventTypeEnum;
+import xyz.graygoo401.api.common.dto.mq.ProductEventDTO;
+import xyz.graygoo401.trade.service.base.OrderViewService;
+
+import java.util.stream.Collectors;
+
+/**
+ * 订单列表读模型监听器
+ * 订单事件：刷新对应订单的读模型；结算事件：批量刷新本次结算的订单；商品事件：同步商品冗余信息
+ */
+@Component
+@Slf4j
+public class OrderViewListener {
+
+    @Autowired
+    private OrderViewService orderViewService;
+
+    /**
+     * 监听订单类消息
+     */
+    @RabbitListener(bindings = @QueueBinding(
+            value = @Queue(name = "trade.order.view"),
+            exchange = @Exchange(name = MqEventTypeEnum.Exchanges.ORDER, type = ExchangeTypes.TOPIC),
+            key = {MqEventTypeEnum.RoutingKeys.ORDER_CREATED, MqEventTypeEnum.RoutingKeys.ORDER_PAID,
+                    MqEventTypeEnum.RoutingKeys.ORDER_CANCELLED, MqEventTypeEnum.RoutingKeys.ORDER_SHIPPED,
+                    MqEventTypeEnum.RoutingKeys.ORDER_COMPLETED, MqEventTypeEnum.RoutingKeys.ORDER_RETURNED}
+    ))
+    public void onOrderMessage(OrderEventDTO event) {
+        log.info("【订单读模型】订单 {} 状态变更：{}", event.getOrderNo(), event.getType());
+        orderViewService.refreshOrder(event.getOrderId());
+    }
+
+    /**
+     * 监听购物车结算聚合消息（一次结算批量刷新全部订单）
+     */
+    @RabbitListener(bindings = @QueueBinding(
+            value = @Queue(name = "trade.order.view.checkout"),
+            exchange = @Exchange(name = MqEventTypeEnum.Exchanges.ORDER, type = ExchangeTypes.TOPIC),
+            key = MqEventTypeEnum.RoutingKeys.CHECKOUT_CREATED
+    ))
+    public void onCheckoutMessage(OrderCheckoutEventDTO event) {
+        log.info("【订单读模型】结算单 {} 创建订单 {} 笔", event.getCheckoutNo(), event.getOrders().size());
+        orderViewService.refreshOrders(event.getOrders().stream().map(OrderEventDTO::getOrderId).collect(Collectors.toList()));
+    }
+
+    /**
+     * 监听商品更新消息（只有编辑商品、补充首图会改变标题与缩略图；新发布的商品没有订单，下架/删除不影响已有订单的展示信息）
+     */
+    @RabbitListener(bindings = @QueueBinding(
+            value = @Queue(name = "trade.order.view.product"),
+            exchange = @Exchange(name = "product.topic", type = ExchangeTypes.TOPIC),
+            key = "product.update"
+    ))
+    public void onProductMessage(ProductEventDTO event) {
+        log.info("【订单读模型】商品 {} 信息变更：{}", event.getProductId(), event.getAction());
+        orderViewService.refreshProduct(event.getProductId());
+    }
+}
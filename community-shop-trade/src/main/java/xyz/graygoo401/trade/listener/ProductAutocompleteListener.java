@@ -0,0 +1,51 @@
+package xyz.graygoo401.trade.listener;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.ExchangeTypes;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import xyz.graygoo401.api.common.dto.mq.ProductBatchEventDTO;
+import xyz.graygoo401.api.common.dto.mq.ProductEventDTO;
+import xyz.graygoo401.trade.service.base.ProductService;
+
+/**
+ * 商品标题补全索引监听器
+ * 补全索引位于各实例内存中，使用匿名独占队列，保证每个实例都收到全部商品变更事件
+ */
+@Component
+@Slf4j
+public class ProductAutocompleteListener {
+
+    @Autowired
+    private ProductService productService;
+
+    /**
+     * 监听单个商品变更消息（按事件逐个绑定，批量事件的消息体不同，由onProductBatchMessage处理）
+     */
+    @RabbitListener(bindings = @QueueBinding(
+            value = @Queue,
+            exchange = @Exchange(name = "product.topic", type = ExchangeTypes.TOPIC),
+            key = {"product.create", "product.update", "product.delete", "product.status"}
+    ))
+    public void onProductMessage(ProductEventDTO event) {
+        log.info("【商品补全索引】商品 {} 信息变更：{}", event.getProductId(), event.getAction());
+        productService.refreshAutocompleteIndex(event.getProductId());
+    }
+
+    /**
+     * 监听商品批量导入消息（一批商品一条消息，一次查询刷新）
+     */
+    @RabbitListener(bindings = @QueueBinding(
+            value = @Queue,
+            exchange = @Exchange(name = "product.topic", type = ExchangeTypes.TOPIC),
+            key = "product.batch.create"
+    ))
+    public void onProductBatchMessage(ProductBatchEventDTO event) {
+        log.info("【商品补全索引】卖家 {} 批量导入商品：{} 个", event.getSellerId(), event.getProductIds().size());
+        productService.refreshAutocompleteIndexBatch(event.getProductIds());
+    }
+}
@@ -0,0 +1,40 @@
+package xyz.graygoo401.trade.listener;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.ExchangeTypes;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import xyz.graygoo401.api.common.dto.mq.ProductImageIngestEventDTO;
+import xyz.graygoo401.trade.service.base.ProductService;
+
+/**
+ * 商品图片转存完成监听器
+ * 批量导入的商品写入时还没有图片，基础服务转存完成后回传相对路径，第一张作为商品首图（订单列表缩略图）
+ */
+@Component
+@Slf4j
+public class ProductImageStoredListener {
+
+    @Autowired
+    private ProductService productService;
+
+    /**
+     * 监听商品图片转存完成消息
+     */
+    @RabbitListener(bindings = @QueueBinding(
+            value = @Queue(name = "trade.product.image.stored"),
+            exchange = @Exchange(name = "product.topic", type = ExchangeTypes.TOPIC),
+            key = "image.stored"
+    ))
+    public void onImageStored(ProductImageIngestEventDTO event) {
+        if (event.getImageUrls() == null || event.getImageUrls().isEmpty()) {
+            return;
+        }
+        log.info("【商品图片】商品 {} 图片转存完成：{} 张", event.getProductId(), event.getImageUrls().size());
+        productService.fillMainImage(event.getProductId(), event.getImageUrls().get(0));
+    }
+}
@@ -0,0 +1,159 @@
+package xyz.graygoo401.trade.recommend;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * 相似商品离线计算器（非线程安全，由批处理任务单线程使用）
+ * 1. 共同购买：同一买家购买过的在售商品两两共现，相似度 = 共现买家数 / sqrt(商品A买家数 × 商品B买家数)（余弦相似度，抑制热门商品）
+ * 2. 类别价格补齐：共同购买邻居不足K个时（二手商品多为单件，共现稀疏），按同类别价格最接近的在售商品补齐
+ * 3. 每个买家只保留最近购买的MAX_ITEMS_PER_BUYER件商品，避免少数高频买家的两两组合主导计算量与结果
+ */
+public class SimilarProductCalculator {
+
+    public static final int MAX_ITEMS_PER_BUYER = 50; // 单个买家参与共现计算的最多商品数
+
+    private final int topK;
+    private final Map<Long, CandidateProduct> products = new HashMap<>(); // 在售商品（相似商品的目标与候选）
+    private final Map<Long, LinkedHashSet<Long>> basketsByBuyer = new HashMap<>(); // 买家 -> 购买过的商品（按购买先后）
+
+    public SimilarProductCalculator(int topK) {
+        if (topK <= 0) {
+            throw new IllegalArgumentException("topK必须大于0：" + topK);
+        }
+        this.topK = topK;
+    }
+
+    /**
+     * 登记在售商品（仅在售商品会作为目标与邻居）
+     */
+    public void addProduct(Long productId, String category, BigDecimal price) {
+        long priceCents = price == null ? 0L : price.movePointRight(2).longValue();
+        products.put(productId, new CandidateProduct(productId, category, priceCents));
+    }
+
+    /**
+     * 登记一次购买（需按下单时间升序登记，超出上限时淘汰该买家最早购买的商品）
+     */
+    public void addPurchase(Long buyerId, Long productId) {
+        LinkedHashSet<Long> basket = basketsByBuyer.computeIfAbsent(buyerId, id -> new LinkedHashSet<>());
+        basket.remove(productId);
+        basket.add(productId);
+        if (basket.size() > MAX_ITEMS_PER_BUYER) {
+            Iterator<Long> iterator = basket.iterator();
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * 计算每个在售商品的相似商品列表
+     *
+     * @return 商品ID -> 相似商品ID（按相似度降序，至多K个，不含自身；无任何邻居的商品不返回）
+     */
+    public Map<Long, List<Long>> build() {
+        // 1. 统计商品买家数与两两共现买家数（只统计在售商品）
+        Map<Long, Integer> buyerCounts = new HashMap<>();
+        Map<Long, Map<Long, Integer>> coCounts = new HashMap<>();
+        for (LinkedHashSet<Long> basket : basketsByBuyer.values()) {
+            long[] items = basket.stream().filter(products::containsKey).mapToLong(Long::longValue).toArray();
+            for (long item : items) {
+                buyerCounts.merge(item, 1, Integer::sum);
+            }
+            if (items.length < 2) {
+                continue;
+            }
+            for (long item : items) {
+                Map<Long, Integer> neighbors = coCounts.computeIfAbsent(item, id -> new HashMap<>());
+                for (long other : items) {
+                    if (other != item) {
+                        neighbors.merge(other, 1, Integer::sum);
+                    }
+                }
+            }
+        }
+
+        // 2. 共同购买邻居：按余弦相似度降序（相同按商品ID升序）取前K个
+        Map<Long, List<Long>> result = new HashMap<>();
+        coCounts.forEach((item, neighbors) -> {
+            double itemBuyers = buyerCounts.get(item);
+            List<Map.Entry<Long, Double>> scored = new ArrayList<>(neighbors.size());
+            neighbors.forEach((other, count) ->
+                    scored.add(Map.entry(other, count / Math.sqrt(itemBuyers * buyerCounts.get(other)))));
+            scored.sort(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+            List<Long> similar = new ArrayList<>(topK);
+            for (int i = 0; i < scored.size() && similar.size() < topK; i++) {
+                similar.add(scored.get(i).getKey());
+            }
+            result.put(item, similar);
+        });
+
+        // 3. 同类别价格最接近的商品补齐不足K个的列表
+        fillByCategoryPrice(result);
+        return result;
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 各类别按价格排序后，以目标商品位置为中心向两侧扩展，每次取价格差更小的一侧
+     */
+    private void fillByCategoryPrice(Map<Long, List<Long>> result) {
+        Map<String, List<CandidateProduct>> byCategory = new HashMap<>();
+        for (CandidateProduct product : products.values()) {
+            byCategory.computeIfAbsent(product.category, category -> new ArrayList<>()).add(product);
+        }
+        for (List<CandidateProduct> sameCategory : byCategory.values()) {
+            if (sameCategory.size() < 2) {
+                continue;
+            }
+            sameCategory.sort(Comparator.comparingLong((CandidateProduct product) -> product.priceCents)
+                    .thenComparingLong(product -> product.productId));
+            for (int position = 0; position < sameCategory.size(); position++) {
+                CandidateProduct target = sameCategory.get(position);
+                List<Long> similar = result.get(target.productId);
+                if (similar != null && similar.size() >= topK) {
+                    continue;
+                }
+                if (similar == null) {
+                    similar = new ArrayList<>(topK);
+                    result.put(target.productId, similar);
+                }
+                Set<Long> existing = new HashSet<>(similar);
+                int low = position - 1;
+                int high = position + 1;
+                while (similar.size() < topK && (low >= 0 || high < sameCategory.size())) {
+                    CandidateProduct next;
+                    if (low < 0) {
+                        next = sameCategory.get(high++);
+                    } else if (high >= sameCategory.size()) {
+                        next = sameCategory.get(low--);
+                    } else if (target.priceCents - sameCategory.get(low).priceCents
+                            <= sameCategory.get(high).priceCents - target.priceCents) {
+                        next = sameCategory.get(low--);
+                    } else {
+                        next = sameCategory.get(high++);
+                    }
+                    if (existing.add(next.productId)) {
+                        similar.add(next.productId);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 在售候选商品（类别与价格用于补齐）
+     */
+    private static final class CandidateProduct {
+        private final long productId;
+        private final String category;
+        private final long priceCents;
+
+        private CandidateProduct(long productId, String category, long priceCents) {
+            this.productId = productId;
+            this.category = category == null ? "" : category;
+            this.priceCents = priceCents;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package xyz.graygoo401.trade.reconcile;
+
+import xyz.graygoo401.api.trade.dto.payment.PaymentReconcileResultDTO;
+import xyz.graygoo401.api.trade.enums.OrderStatusEnum;
+import xyz.graygoo401.trade.dao.entity.Order;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import static xyz.graygoo401.api.trade.enums.OrderStatusEnum.*;
+
+/**
+ * 支付对账归并连接（非线程安全，一次对账使用一个实例）
+ * 1. 对账单与本地订单均按订单编号升序，两个指针同时前进：键小的一侧为单边记录，键相等时比对金额与状态
+ * 2. 每侧只持有当前一条记录，差异逐条交给MismatchSink写出，内存占用与两侧数据量无关
+ * 3. 对账单中相同订单号相邻出现，仅首条参与比对，其余记为重复；任一侧键出现倒序时立即失败，避免排序规则不一致导致整批误报
+ * 4. 本地未支付（待支付、已取消）且对账单无记录属于正常情况，不计为差异
+ */
+public class PaymentReconciler {
+
+    /** 平台交易状态：已收款 */
+    private static final Set<String> PLATFORM_PAID_STATUSES = Set.of("TRADE_SUCCESS", "TRADE_FINISHED");
+    /** 平台交易状态：未付款超时关闭或全额退款后关闭 */
+    private static final String PLATFORM_CLOSED_STATUS = "TRADE_CLOSED";
+    /** 平台交易状态：等待买家付款 */
+    private static final String PLATFORM_WAIT_STATUS = "WAIT_BUYER_PAY";
+
+    /** 本地已收款的订单状态 */
+    private static final Set<OrderStatusEnum> LOCAL_PAID_STATUSES =
+            EnumSet.of(PENDING_SHIPMENT, SHIPPED, PENDING_RECEIVE, COMPLETED, REFUNDING, ARBITRATION);
+    /** 本地已全额退款的订单状态 */
+    private static final Set<OrderStatusEnum> LOCAL_REFUNDED_STATUSES = EnumSet.of(REFUNDED, RETURNED);
+
+    /**
+     * 差异输出（通常为报告文件写出器）
+     */
+    @FunctionalInterface
+    public interface MismatchSink {
+        void accept(ReconcileMismatch mismatch) throws IOException;
+    }
+
+    private final MismatchSink sink;
+    private final PaymentReconcileResultDTO result = new PaymentReconcileResultDTO();
+    private String lastBillOrderNo;
+    private String lastLocalOrderNo;
+
+    public PaymentReconciler(MismatchSink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * 执行归并连接
+     * @param bill 有序对账单
+     * @param orders 按订单编号升序的本地订单（通常为数据库游标）
+     * @return 对账计数（账单日期、报告文件、耗时由调用方填写）
+     * @throws IOException 读取对账单或写出差异失败
+     * @throws IllegalStateException 任一侧未按订单编号升序
+     */
+    public PaymentReconcileResultDTO reconcile(SettlementFileReader bill, Iterator<Order> orders) throws IOException {
+        SettlementRecord record = nextRecord(bill);
+        Order order = nextOrder(orders);
+        while (record != null || order != null) {
+            int compare = record == null ? 1 : order == null ? -1 : record.getOrderNo().compareTo(order.getOrderNo());
+            if (compare < 0) {
+                // 1. 仅对账单有
+                emit(ReconcileMismatchTypeEnum.MISSING_LOCAL, record, null);
+                record = nextRecord(bill);
+            } else if (compare > 0) {
+                // 2. 仅本地有：只有本地认为已收款的订单才应出现在对账单中
+                if (expectsPlatformRecord(order.getStatus())) {
+                    emit(ReconcileMismatchTypeEnum.MISSING_PLATFORM, null, order);
+                }
+                order = nextOrder(orders);
+            } else {
+                // 3. 两边都有：比对金额与状态
+                boolean matched = true;
+                if (!amountEquals(order.getTotalAmount(), record.getAmount())) {
+                    emit(ReconcileMismatchTypeEnum.AMOUNT_DIFF, record, order);
+                    matched = false;
+                }
+                if (!statusConsistent(order.getStatus(), record.getTradeStatus())) {
+                    emit(ReconcileMismatchTypeEnum.STATUS_DIFF, record, order);
+                    matched = false;
+                }
+                if (matched) {
+                    result.setMatchedCount(result.getMatchedCount() + 1);
+                }
+                record = nextRecord(bill);
+                order = nextOrder(orders);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 本地状态与平台状态是否一致
+     */
+    static boolean statusConsistent(OrderStatusEnum localStatus, String platformStatus) {
+        if (PLATFORM_PAID_STATUSES.contains(platformStatus)) {
+            return LOCAL_PAID_STATUSES.contains(localStatus);
+        }
+        if (PLATFORM_CLOSED_STATUS.equals(platformStatus)) {
+            return LOCAL_REFUNDED_STATUSES.contains(localStatus) || localStatus == CANCELLED;
+        }
+        if (PLATFORM_WAIT_STATUS.equals(platformStatus)) {
+            return localStatus == PENDING_PAYMENT || localStatus == CANCELLED;
+        }
+        return false;
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 读取下一条对账记录：跳过并记录相邻重复，校验升序
+     */
+    private SettlementRecord nextRecord(SettlementFileReader bill) throws IOException {
+        SettlementRecord record;
+        while ((record = bill.next()) != null) {
+            result.setBillRows(result.getBillRows() + 1);
+            if (lastBillOrderNo != null) {
+                int compare = lastBillOrderNo.compareTo(record.getOrderNo());
+                if (compare > 0) {
+                    throw new IllegalStateException("对账单未按订单号升序：第" + record.getRowNumber() + "行");
+                }
+                if (compare == 0) {
+                    emit(ReconcileMismatchTypeEnum.DUPLICATE, record, null);
+                    continue;
+                }
+            }
+            lastBillOrderNo = record.getOrderNo();
+            return record;
+        }
+        return null;
+    }
+
+    /**
+     * 读取下一个本地订单并校验严格升序（订单编号唯一）
+     */
+    private Order nextOrder(Iterator<Order> orders) {
+        if (!orders.hasNext()) {
+            return null;
+        }
+        Order order = orders.next();
+        result.setOrderRows(result.getOrderRows() + 1);
+        if (lastLocalOrderNo != null && lastLocalOrderNo.compareTo(order.getOrderNo()) >= 0) {
+            throw new IllegalStateException("本地订单未按订单号升序：" + order.getOrderNo());
+        }
+        lastLocalOrderNo = order.getOrderNo();
+        return order;
+    }
+
+    /**
+     * 写出一条差异并累加对应计数
+     */
+    private void emit(ReconcileMismatchTypeEnum type, SettlementRecord record, Order order) throws IOException {
+        switch (type) {
+            case MISSING_LOCAL -> result.setMissingLocalCount(result.getMissingLocalCount() + 1);
+            case MISSING_PLATFORM -> result.setMissingPlatformCount(result.getMissingPlatformCount() + 1);
+            case AMOUNT_DIFF -> result.setAmountDiffCount(result.getAmountDiffCount() + 1);
+            case STATUS_DIFF -> result.setStatusDiffCount(result.getStatusDiffCount() + 1);
+            case DUPLICATE -> result.setDuplicateCount(result.getDuplicateCount() + 1);
+        }
+        sink.accept(new ReconcileMismatch(type,
+                record != null ? record.getOrderNo() : order.getOrderNo(),
+                record == null ? null : record.getTradeNo(),
+                order == null ? null : order.getTotalAmount(),
+                record == null ? null : record.getAmount(),
+                order == null ? null : order.getStatus(),
+                record == null ? null : record.getTradeStatus()));
+    }
+
+    /**
+     * 本地订单是否应出现在对账单中（已收款或已退款）
+     */
+    private static boolean expectsPlatformRecord(OrderStatusEnum status) {
+        return LOCAL_PAID_STATUSES.contains(status) || LOCAL_REFUNDED_STATUSES.contains(status);
+    }
+
+    /**
+     * 金额比较（忽略小数位数差异，如100与100.00相等）
+     */
+    private static boolean amountEquals(BigDecimal localAmount, BigDecimal platformAmount) {
+        if (localAmount == null || platformAmount == null) {
+            return localAmount == platformAmount;
+        }
+        return localAmount.compareTo(platformAmount) == 0;
+    }
+}
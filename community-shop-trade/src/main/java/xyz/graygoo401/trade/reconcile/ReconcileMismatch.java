@@ -0,0 +1,36 @@
+package xyz.graygoo401.trade.reconcile;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import xyz.graygoo401.api.trade.enums.OrderStatusEnum;
+
+import java.math.BigDecimal;
+
+/**
+ * 一条对账差异（一侧缺失时该侧字段为空）
+ */
+@Getter
+@AllArgsConstructor
+public class ReconcileMismatch {
+
+    /** 差异类型 */
+    private final ReconcileMismatchTypeEnum type;
+
+    /** 订单编号 */
+    private final String orderNo;
+
+    /** 平台交易号 */
+    private final String tradeNo;
+
+    /** 本地订单金额 */
+    private final BigDecimal localAmount;
+
+    /** 平台交易金额 */
+    private final BigDecimal platformAmount;
+
+    /** 本地订单状态 */
+    private final OrderStatusEnum localStatus;
+
+    /** 平台交易状态 */
+    private final String platformStatus;
+}
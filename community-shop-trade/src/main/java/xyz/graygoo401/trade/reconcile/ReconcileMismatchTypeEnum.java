@@ -0,0 +1,30 @@
+package xyz.graygoo401.trade.reconcile;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 对账差异类型
+ */
+@AllArgsConstructor
+@Getter
+public enum ReconcileMismatchTypeEnum {
+
+    /** 对账单有该交易，本地无对应订单（或订单不在对账窗口内） */
+    MISSING_LOCAL("MISSING_LOCAL", "本地缺失"),
+
+    /** 本地订单已支付，对账单无该交易 */
+    MISSING_PLATFORM("MISSING_PLATFORM", "平台缺失"),
+
+    /** 两边均有，交易金额不一致 */
+    AMOUNT_DIFF("AMOUNT_DIFF", "金额不一致"),
+
+    /** 两边均有，支付状态不一致（如平台已收款而本地已取消） */
+    STATUS_DIFF("STATUS_DIFF", "状态不一致"),
+
+    /** 同一商户订单号在对账单中重复出现（仅首条参与比对） */
+    DUPLICATE("DUPLICATE", "对账单重复");
+
+    private final String code;
+    private final String desc;
+}
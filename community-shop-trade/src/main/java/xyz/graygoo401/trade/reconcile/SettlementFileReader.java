@@ -0,0 +1,145 @@
+package xyz.graygoo401.trade.reconcile;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 对账单读取器（逐行读取，内存占用与账单行数无关）
+ * 1. 格式参照支付宝交易账单明细：以“#”开头的行为说明行，首个非说明行为表头，字段以逗号分隔且不含引号转义，字段两侧的空白与制表符忽略
+ * 2. 表头按列名定位（不区分大小写、顺序任意），out_trade_no/total_amount/trade_status为必需列，trade_no可选
+ * 3. 兼容UTF-8 BOM，空行跳过；数据行格式错误时抛出IOException并指明行号（账单不完整时不应继续对账）
+ */
+public class SettlementFileReader implements Closeable {
+
+    public static final String ORDER_NO_COLUMN = "out_trade_no";
+    public static final String TRADE_NO_COLUMN = "trade_no";
+    public static final String AMOUNT_COLUMN = "total_amount";
+    public static final String STATUS_COLUMN = "trade_status";
+
+    private static final int BUFFER_SIZE = 64 * 1024; // 字符缓冲区大小
+    private static final char BOM = '\uFEFF'; // UTF-8 BOM
+    private static final String COMMENT_PREFIX = "#";
+    private static final List<String> REQUIRED_COLUMNS = List.of(ORDER_NO_COLUMN, AMOUNT_COLUMN, STATUS_COLUMN);
+
+    private final BufferedReader reader;
+    private final String header;
+    private final int orderNoIndex;
+    private final int tradeNoIndex;
+    private final int amountIndex;
+    private final int statusIndex;
+    private final int columnCount;
+    private long rowNumber = 0;
+
+    public SettlementFileReader(InputStream in) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.header = readHeader(reader);
+        Map<String, Integer> columnIndex = parseHeader(header);
+        this.orderNoIndex = columnIndex.get(ORDER_NO_COLUMN);
+        this.tradeNoIndex = columnIndex.getOrDefault(TRADE_NO_COLUMN, -1);
+        this.amountIndex = columnIndex.get(AMOUNT_COLUMN);
+        this.statusIndex = columnIndex.get(STATUS_COLUMN);
+        this.columnCount = columnIndex.size();
+    }
+
+    /**
+     * 读取下一条交易记录
+     * @return 交易记录，读到文件末尾时返回null
+     */
+    public SettlementRecord next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (isSkippable(line));
+
+        rowNumber++;
+        String[] fields = split(line);
+        if (fields.length != columnCount) {
+            throw new IOException("对账单第" + rowNumber + "行列数（" + fields.length + "）与表头（" + columnCount + "）不一致");
+        }
+        String orderNo = fields[orderNoIndex];
+        if (orderNo.isEmpty()) {
+            throw new IOException("对账单第" + rowNumber + "行缺少" + ORDER_NO_COLUMN);
+        }
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(fields[amountIndex]);
+        } catch (NumberFormatException e) {
+            throw new IOException("对账单第" + rowNumber + "行金额格式错误：" + fields[amountIndex]);
+        }
+        String tradeNo = tradeNoIndex < 0 || fields[tradeNoIndex].isEmpty() ? null : fields[tradeNoIndex];
+        return new SettlementRecord(rowNumber, orderNo, tradeNo, amount, fields[statusIndex]);
+    }
+
+    /**
+     * 表头行（已去除BOM）
+     */
+    public String getHeader() {
+        return header;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * 读取表头：跳过说明行与空行，去除BOM
+     * @throws IOException 文件中没有表头
+     */
+    static String readHeader(BufferedReader reader) throws IOException {
+        String line;
+        boolean first = true;
+        while ((line = reader.readLine()) != null) {
+            if (first && !line.isEmpty() && line.charAt(0) == BOM) {
+                line = line.substring(1);
+            }
+            first = false;
+            if (!isSkippable(line)) {
+                return line;
+            }
+        }
+        throw new IOException("对账单为空，缺少表头");
+    }
+
+    /**
+     * 解析表头为小写列名 -> 列下标，并校验必需列
+     */
+    static Map<String, Integer> parseHeader(String header) throws IOException {
+        String[] names = split(header);
+        Map<String, Integer> columnIndex = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            columnIndex.put(names[i].toLowerCase(), i);
+        }
+        for (String column : REQUIRED_COLUMNS) {
+            if (!columnIndex.containsKey(column)) {
+                throw new IOException("对账单表头缺少必需列：" + column);
+            }
+        }
+        return columnIndex;
+    }
+
+    /**
+     * 是否为说明行或空行
+     */
+    static boolean isSkippable(String line) {
+        return line.isBlank() || line.startsWith(COMMENT_PREFIX);
+    }
+
+    /**
+     * 按逗号拆分一行并去除各字段两侧空白（含支付宝账单在数字字段前补的制表符）
+     */
+    static String[] split(String line) {
+        String[] fields = line.split(",", -1);
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = fields[i].trim();
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,213 @@
+package xyz.graygoo401.trade.reconcile;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * 对账单外部排序（按商户订单号升序，内存占用只与单个顺串大小有关）
+ * 1. 先顺序扫描一遍：已按订单号有序（平台账单通常如此）时直接返回原文件，不做额外IO
+ * 2. 否则按runSize行切分为顺串，每个顺串在内存中排序后写入临时文件
+ * 3. 最后用小顶堆对全部顺串做多路归并，写出“表头 + 有序数据行”的新文件；说明行与空行不保留
+ * 键比较使用String.compareTo（与订单编号在数据库中的排序一致，见OrderMapper.streamForReconcile），相同键保持原有先后顺序
+ */
+public class SettlementFileSorter {
+
+    private static final int BUFFER_SIZE = 64 * 1024; // 字符缓冲区大小
+
+    private SettlementFileSorter() {
+    }
+
+    /**
+     * 按需排序对账单
+     * @param input 原始对账单
+     * @param workDir 临时文件目录
+     * @param runSize 单个顺串的最大行数（决定排序阶段的内存占用）
+     * @return 有序对账单路径（原文件已有序时返回input，否则为workDir下的新文件，由调用方删除）
+     */
+    public static Path sortIfNeeded(Path input, Path workDir, int runSize) throws IOException {
+        if (runSize <= 0) {
+            throw new IllegalArgumentException("runSize必须大于0：" + runSize);
+        }
+        if (isSorted(input)) {
+            return input;
+        }
+        Files.createDirectories(workDir);
+        List<Path> runs = new ArrayList<>();
+        try {
+            // 1. 切分顺串并逐个排序写出
+            String header;
+            int keyIndex;
+            try (BufferedReader reader = newReader(input)) {
+                header = SettlementFileReader.readHeader(reader);
+                keyIndex = SettlementFileReader.parseHeader(header).get(SettlementFileReader.ORDER_NO_COLUMN);
+                List<KeyedLine> buffer = new ArrayList<>(Math.min(runSize, 1 << 16));
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (SettlementFileReader.isSkippable(line)) {
+                        continue;
+                    }
+                    buffer.add(new KeyedLine(keyOf(line, keyIndex), line));
+                    if (buffer.size() >= runSize) {
+                        runs.add(writeRun(buffer, workDir));
+                        buffer.clear();
+                    }
+                }
+                if (!buffer.isEmpty()) {
+                    runs.add(writeRun(buffer, workDir));
+                }
+            }
+
+            // 2. 多路归并
+            Path output = Files.createTempFile(workDir, "settlement-sorted-", ".csv");
+            try (BufferedWriter writer = newWriter(output)) {
+                writer.write(header);
+                writer.newLine();
+                mergeRuns(runs, keyIndex, writer);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(output);
+                throw e;
+            }
+            return output;
+        } finally {
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+        }
+    }
+
+    /**
+     * 判断对账单是否已按订单号升序（允许相同订单号相邻）
+     */
+    public static boolean isSorted(Path input) throws IOException {
+        try (BufferedReader reader = newReader(input)) {
+            String header = SettlementFileReader.readHeader(reader);
+            int keyIndex = SettlementFileReader.parseHeader(header).get(SettlementFileReader.ORDER_NO_COLUMN);
+            String previousKey = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (SettlementFileReader.isSkippable(line)) {
+                    continue;
+                }
+                String key = keyOf(line, keyIndex);
+                if (previousKey != null && previousKey.compareTo(key) > 0) {
+                    return false;
+                }
+                previousKey = key;
+            }
+            return true;
+        }
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 排序并写出一个顺串（List.sort为稳定排序，相同键保持读入顺序）
+     */
+    private static Path writeRun(List<KeyedLine> buffer, Path workDir) throws IOException {
+        buffer.sort(Comparator.comparing(KeyedLine::key));
+        Path run = Files.createTempFile(workDir, "settlement-run-", ".tmp");
+        try (BufferedWriter writer = newWriter(run)) {
+            for (KeyedLine keyedLine : buffer) {
+                writer.write(keyedLine.line());
+                writer.newLine();
+            }
+        }
+        return run;
+    }
+
+    /**
+     * 多路归并：堆中保存每个顺串的当前行，键相同时按顺串先后出堆，保证整体稳定
+     */
+    private static void mergeRuns(List<Path> runs, int keyIndex, BufferedWriter writer) throws IOException {
+        PriorityQueue<RunCursor> heap = new PriorityQueue<>(Math.max(1, runs.size()),
+                Comparator.comparing((RunCursor cursor) -> cursor.key).thenComparingInt(cursor -> cursor.runIndex));
+        List<RunCursor> cursors = new ArrayList<>(runs.size());
+        try {
+            for (int i = 0; i < runs.size(); i++) {
+                RunCursor cursor = new RunCursor(i, keyIndex, newReader(runs.get(i)));
+                cursors.add(cursor);
+                if (cursor.advance()) {
+                    heap.add(cursor);
+                }
+            }
+            while (!heap.isEmpty()) {
+                RunCursor cursor = heap.poll();
+                writer.write(cursor.line);
+                writer.newLine();
+                if (cursor.advance()) {
+                    heap.add(cursor);
+                }
+            }
+        } finally {
+            for (RunCursor cursor : cursors) {
+                cursor.reader.close();
+            }
+        }
+    }
+
+    /**
+     * 取出一行的订单号（只拆分到订单号所在列）
+     */
+    private static String keyOf(String line, int keyIndex) throws IOException {
+        int start = 0;
+        for (int i = 0; i < keyIndex; i++) {
+            start = line.indexOf(',', start) + 1;
+            if (start == 0) {
+                throw new IOException("对账单数据行缺少" + SettlementFileReader.ORDER_NO_COLUMN + "列：" + line);
+            }
+        }
+        int end = line.indexOf(',', start);
+        return (end < 0 ? line.substring(start) : line.substring(start, end)).trim();
+    }
+
+    private static BufferedReader newReader(Path path) throws IOException {
+        return new BufferedReader(new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private static BufferedWriter newWriter(Path path) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(path), StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /**
+     * 顺串中的一行及其排序键
+     */
+    private record KeyedLine(String key, String line) {
+    }
+
+    /**
+     * 归并阶段单个顺串的读取位置
+     */
+    private static class RunCursor {
+
+        private final int runIndex;
+        private final int keyIndex;
+        private final BufferedReader reader;
+        private String line;
+        private String key;
+
+        private RunCursor(int runIndex, int keyIndex, BufferedReader reader) {
+            this.runIndex = runIndex;
+            this.keyIndex = keyIndex;
+            this.reader = reader;
+        }
+
+        /**
+         * 读取下一行并取出排序键（顺串文件只含切分阶段已校验过的数据行）
+         * @return 是否还有数据
+         */
+        private boolean advance() throws IOException {
+            line = reader.readLine();
+            if (line == null) {
+                return false;
+            }
+            key = keyOf(line, keyIndex);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package xyz.graygoo401.trade.reconcile;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * 对账单中的一条交易记录
+ */
+@Getter
+@AllArgsConstructor
+public class SettlementRecord {
+
+    /** 数据行号（从1开始，不含表头、注释行与空行） */
+    private final long rowNumber;
+
+    /** 商户订单号（即本地订单编号order_no，归并连接键） */
+    private final String orderNo;
+
+    /** 平台交易号（可为空） */
+    private final String tradeNo;
+
+    /** 交易金额 */
+    private final BigDecimal amount;
+
+    /** 平台交易状态（如TRADE_SUCCESS、TRADE_CLOSED） */
+    private final String tradeStatus;
+}
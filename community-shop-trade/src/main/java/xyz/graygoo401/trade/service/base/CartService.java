@@ -0,0 +1,49 @@
+package xyz.graygoo401.trade.service.base;
+
+import org.springframework.stereotype.Service;
+import xyz.graygoo401.api.trade.dto.cart.CartItemAddDTO;
+import xyz.graygoo401.api.trade.dto.cart.CartItemDTO;
+import xyz.graygoo401.common.exception.BusinessException;
+
+import java.util.List;
+
+/**
+ * 购物车服务接口
+ * 购物车存储于Redis Hash（cart:{userId}，field为商品ID，value为数量），结算由OrderService完成
+ */
+@Service
+public interface CartService {
+
+    /**
+     * 加入购物车（已存在则累加数量）
+     * @param userId 用户ID
+     * @param itemDTO 商品ID与增加数量
+     * @return 加购后的数量
+     * @throws BusinessException 商品不存在、已下架、购物车商品种类超过上限等场景抛出
+     */
+    Integer addItem(Long userId, CartItemAddDTO itemDTO);
+
+    /**
+     * 修改购物车商品数量
+     * @param userId 用户ID
+     * @param itemDTO 商品ID与目标数量
+     * @return 是否修改成功
+     * @throws BusinessException 商品不在购物车中等场景抛出
+     */
+    Boolean updateItem(Long userId, CartItemAddDTO itemDTO);
+
+    /**
+     * 批量移除购物车商品
+     * @param userId 用户ID
+     * @param productIds 商品ID列表
+     * @return 实际移除的商品种类数
+     */
+    Long removeItems(Long userId, List<Long> productIds);
+
+    /**
+     * 查询购物车列表（批量加载商品信息，标记是否可结算）
+     * @param userId 用户ID
+     * @return 购物车商品列表
+     */
+    List<CartItemDTO> listItems(Long userId);
+}
@@ -78,4 +78,11 @@ public interface EvaluationService {
      */
     ProductScoreDTO calculateProductScore(Long productId);
 
+    /**
+     * 回填历史评价的冗余商品ID（按评价ID游标分批，可重复执行，上线后由管理员接口触发一次）
+     *
+     * @return 本次回填的评价数
+     */
+    int backfillProductIds();
+
 }
@@ -1,13 +1,16 @@
 package xyz.graygoo401.trade.service.base;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.stereotype.Service;
 import xyz.graygoo401.api.trade.dto.order.*;
 import xyz.graygoo401.api.trade.enums.OrderStatusEnum;
-import xyz.graygoo401.common.dto.PageResult;
+import xyz.graygoo401.common.dto.CursorPageResult;
 import xyz.graygoo401.common.exception.BusinessException;
 import xyz.graygoo401.common.service.BaseService;
 import xyz.graygoo401.trade.dao.entity.Order;
 
+import java.time.LocalDateTime;
+
 /**
  * 交易流程Service接口，实现《文档》中订单创建、支付、售后等核心功能
  * 依据：
@@ -27,6 +30,15 @@ public interface OrderService extends BaseService<Order> {
      */
     OrderDetailDTO createOrder(Long userId, OrderCreateDTO orderCreateDTO);
 
+    /**
+     * 购物车结算（多商品下单，按卖家拆分子订单）
+     * @param userId 买家ID
+     * @param checkoutDTO 结算参数（商品列表、收货信息、支付方式）
+     * @return 结算结果（结算单号 + 按卖家拆分的子订单）
+     * @throws BusinessException 任一商品库存不足/已下架、金额异常、买家信用分过低等场景抛出（整单回滚）
+     */
+    OrderCheckoutResultDTO checkout(Long userId, OrderCheckoutDTO checkoutDTO);
+
     /**
      * 取消订单
      * @param userId 操作人ID（买家/管理员）
@@ -73,20 +85,20 @@ public interface OrderService extends BaseService<Order> {
     OrderDetailDTO getOrderDetail(Long userId, Long orderId);
 
     /**
-     * 买家查询订单列表
+     * 买家查询订单列表（基于order_view读模型，游标分页）
      * @param buyerId 买家ID
-     * @param queryDTO 订单查询参数（含状态筛选、分页）
-     * @return 分页订单列表
+     * @param queryDTO 订单查询参数（含状态筛选、游标、每页条数）
+     * @return 游标分页订单列表
      */
-    PageResult<OrderListItemDTO> getBuyerOrders(Long buyerId, OrderQueryDTO queryDTO);
+    CursorPageResult<OrderListItemDTO> getBuyerOrders(Long buyerId, OrderQueryDTO queryDTO);
 
     /**
-     * 卖家查询订单列表
+     * 卖家查询订单列表（基于order_view读模型，游标分页）
      * @param sellerId 卖家ID
-     * @param queryDTO 订单查询参数（含状态筛选、分页）
-     * @return 分页订单列表
+     * @param queryDTO 订单查询参数（含状态筛选、游标、每页条数）
+     * @return 游标分页订单列表
      */
-    PageResult<OrderListItemDTO> getSellerOrders(Long sellerId, OrderQueryDTO queryDTO);
+    CursorPageResult<OrderListItemDTO> getSellerOrders(Long sellerId, OrderQueryDTO queryDTO);
 
     /**
      * 自动关闭超时未支付订单（定时任务调用）
@@ -105,4 +117,14 @@ public interface OrderService extends BaseService<Order> {
      */
     Boolean updateOrderStatus(Long orderId, OrderStatusEnum status, Long operatorId);
 
+    /**
+     * 流式导出订单CSV（管理员报表，逐行读取数据库游标并写入响应，不在内存中汇总结果集）
+     * @param sellerId 卖家ID（为空时导出全部卖家）
+     * @param startTime 下单时间下限（可为空）
+     * @param endTime 下单时间上限（可为空）
+     * @param response HTTP响应（以分块传输写出CSV）
+     * @return 导出行数
+     */
+    long exportOrders(Long sellerId, LocalDateTime startTime, LocalDateTime endTime, HttpServletResponse response);
+
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package xyz.graygoo401.trade.service.base;
+
+import org.springframework.stereotype.Service;
+import xyz.graygoo401.common.service.BaseService;
+import xyz.graygoo401.trade.dao.entity.OrderView;
+
+import java.util.List;
+
+/**
+ * 订单列表读模型Service接口
+ * 负责根据订单/商品变更事件维护order_view表，供买家/卖家订单列表单表查询
+ */
+@Service
+public interface OrderViewService extends BaseService<OrderView> {
+
+    /**
+     * 按订单最新数据刷新读模型（订单创建、状态变更时调用）
+     * @param orderId 订单ID
+     * @return 是否刷新成功（订单不存在时返回false）
+     */
+    Boolean refreshOrder(Long orderId);
+
+    /**
+     * 批量刷新读模型（购物车结算事件调用，商品与用户信息各批量查询一次）
+     * @param orderIds 订单ID列表
+     * @return 成功刷新的订单数
+     */
+    int refreshOrders(List<Long> orderIds);
+
+    /**
+     * 按商品最新数据同步读模型中的商品标题与缩略图（商品更新事件调用）
+     * @param productId 商品ID
+     * @return 受影响的读模型记录数
+     */
+    int refreshProduct(Long productId);
+}
@@ -0,0 +1,26 @@
+package xyz.graygoo401.trade.service.base;
+
+import org.springframework.stereotype.Service;
+import xyz.graygoo401.api.trade.dto.order.PayCallbackDTO;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.common.service.BaseService;
+import xyz.graygoo401.trade.dao.entity.PayCallbackRecord;
+
+/**
+ * 支付回调处理服务接口
+ * 签名校验由各支付渠道入口完成，本服务负责验签后的幂等去重与订单/支付状态更新
+ */
+@Service
+public interface PayCallbackService extends BaseService<PayCallbackRecord> {
+
+    /**
+     * 处理支付成功回调（幂等）
+     * 去重顺序：Redis SETNX(交易流水号, 状态) → 回调处理记录唯一索引 → 订单条件更新（仅待支付订单）
+     * 缓存清理与MQ通知在事务提交后异步执行，不阻塞回调应答
+     * @param payCallbackDTO 已验签的回调参数（payNo为平台流水号，payStatus为平台交易状态）
+     * @param rawContent 回调原始内容（落库留痕）
+     * @return true=已处理（含重复回调），支付平台收到后停止重试
+     * @throws BusinessException 参数缺失、订单不存在、金额不匹配等场景抛出（支付平台将重试）
+     */
+    Boolean processPaySuccess(PayCallbackDTO payCallbackDTO, String rawContent);
+}
@@ -0,0 +1,23 @@
+package xyz.graygoo401.trade.service.base;
+
+import org.springframework.stereotype.Service;
+import xyz.graygoo401.api.trade.dto.payment.PaymentReconcileResultDTO;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * 支付对账Service接口
+ * 对账单按订单号外部排序后，与按订单号升序读取的本地订单做归并连接，差异逐条写入报告文件
+ */
+@Service
+public interface PaymentReconcileService {
+
+    /**
+     * 核对指定账单日的支付宝交易
+     * @param billDate 账单日期（本地订单取支付时间或创建时间落在当日的支付宝订单）
+     * @param settlementFile 对账单文件（CSV，可无序）
+     * @return 对账结果（差异明细见报告文件）
+     */
+    PaymentReconcileResultDTO reconcile(LocalDate billDate, Path settlementFile);
+}
@@ -0,0 +1,29 @@
+package xyz.graygoo401.trade.service.base;
+
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import xyz.graygoo401.api.trade.dto.product.ProductImportJobDTO;
+
+/**
+ * 商品批量导入Service接口
+ * 上传文件后立即返回任务ID，导入线程流式解析、并行校验、分批写入，进度与错误报告可按任务ID查询
+ */
+@Service
+public interface ProductImportService {
+
+    /**
+     * 提交商品批量导入任务
+     * @param sellerId 当前登录卖家ID（导入商品的归属卖家）
+     * @param file 导入文件（csv或json）
+     * @return 导入任务（PENDING状态）
+     */
+    ProductImportJobDTO submitImport(Long sellerId, MultipartFile file);
+
+    /**
+     * 查询导入任务进度与错误报告（仅任务所属卖家可查）
+     * @param sellerId 当前登录卖家ID
+     * @param jobId 任务ID
+     * @return 导入任务
+     */
+    ProductImportJobDTO getImportJob(Long sellerId, String jobId);
+}
@@ -1,12 +1,18 @@
 package xyz.graygoo401.trade.service.base;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.stereotype.Service;
+import xyz.graygoo401.api.trade.dto.cart.CartItemAddDTO;
 import xyz.graygoo401.api.trade.dto.product.*;
+import xyz.graygoo401.api.trade.enums.ProductStatusEnum;
 import xyz.graygoo401.common.dto.PageResult;
+import xyz.graygoo401.common.dto.SuggestionDTO;
 import xyz.graygoo401.common.exception.BusinessException;
 import xyz.graygoo401.common.service.BaseService;
 import xyz.graygoo401.trade.dao.entity.Product;
 
+import java.util.List;
+
 /**
  * 商品管理Service接口，实现《文档》中商品发布、搜索、库存管理等核心功能
  * 依据：
@@ -52,6 +58,14 @@ public interface ProductService extends BaseService<Product> {
      */
     Integer updateStock(Long userId, ProductStockUpdateDTO stockUpdateDTO);
 
+    /**
+     * 批量预占库存（购物车结算，单条SQL完成多商品扣减）
+     * @param items 结算商品列表（商品ID不可重复）
+     * @return 扣减成功的商品种类数
+     * @throws BusinessException 任一商品库存不足或不可售时抛出（需在事务中调用以回滚已扣减库存）
+     */
+    Integer reserveStockBatch(List<CartItemAddDTO> items);
+
     /**
      * 商品上下架操作
      * @param sellerId 卖家ID
@@ -68,6 +82,13 @@ public interface ProductService extends BaseService<Product> {
      */
     PageResult<ProductListItemDTO> queryProducts(ProductQueryDTO queryDTO);
 
+    /**
+     * 分面搜索商品（当前页商品 + 类别/成色/价格区间分面计数）
+     * @param queryDTO 搜索参数（含关键词、分类、成色、价格区间、分页）
+     * @return 分页商品列表及各维度分面计数
+     */
+    ProductFacetSearchResultDTO searchProductsWithFacets(ProductQueryDTO queryDTO);
+
     /**
      * 卖家查询自有商品列表
      * @param queryDTO 卖家商品查询参数
@@ -77,12 +98,74 @@ public interface ProductService extends BaseService<Product> {
     PageResult<ProductListItemDTO> getSellerProducts(SellerProductQueryDTO queryDTO);
 
     /**
-     * 商品详情查询（同时自增浏览量）
+     * 商品详情查询（同时记录浏览，浏览量由缓冲定时落库）
      * @param productId 商品ID
-     * @return 商品详情
+     * @param visitorId 访客标识（用于统计每日独立访客，可为空）
+     * @return 商品详情（含限时读取的相似商品）
      * @throws BusinessException 商品不存在、已下架等场景抛出
      */
-    ProductDetailDTO getProductDetail(Long productId);
+    ProductDetailDTO getProductDetail(Long productId, String visitorId);
+
+    /**
+     * 全量重建商品筛选索引（定时任务调用）
+     * @return 载入的在售商品数
+     */
+    int rebuildFilterIndex();
+
+    /**
+     * 按数据库最新状态刷新筛选索引中的单个商品（商品变更事件调用）
+     * @param productId 商品ID
+     */
+    void refreshFilterIndex(Long productId);
+
+    /**
+     * 按数据库最新状态批量刷新筛选索引（商品批量事件调用，一次查询）
+     * @param productIds 商品ID列表
+     */
+    void refreshFilterIndexBatch(List<Long> productIds);
+
+    /**
+     * 商品标题前缀补全（搜索框输入联想）
+     * @param prefix 用户已输入的前缀（大小写不敏感）
+     * @param limit 返回条数（默认且最多10条）
+     * @return 按热度降序的在售商品候选，索引未就绪时返回空列表
+     */
+    List<SuggestionDTO> suggestProducts(String prefix, Integer limit);
+
+    /**
+     * 全量重建商品标题补全索引（定时任务调用）
+     * @return 载入的在售商品数
+     */
+    int rebuildAutocompleteIndex();
+
+    /**
+     * 按数据库最新状态刷新补全索引中的单个商品（商品变更事件调用）
+     * @param productId 商品ID
+     */
+    void refreshAutocompleteIndex(Long productId);
+
+    /**
+     * 按数据库最新状态批量刷新补全索引（商品批量事件调用，一次查询）
+     * @param productIds 商品ID列表
+     */
+    void refreshAutocompleteIndexBatch(List<Long> productIds);
+
+    /**
+     * 补充商品首图（批量导入的商品图片转存完成后调用，已有首图时不覆盖；写入后发送商品更新事件同步订单读模型）
+     * @param productId 商品ID
+     * @param mainImage 首图相对路径
+     * @return 是否写入
+     */
+    boolean fillMainImage(Long productId, String mainImage);
+
+    /**
+     * 流式导出商品CSV（管理员报表，逐行读取数据库游标并写入响应，不在内存中汇总结果集）
+     * @param sellerId 卖家ID（为空时导出全部卖家）
+     * @param status 商品状态（为空时导出全部状态）
+     * @param response HTTP响应（以分块传输写出CSV）
+     * @return 导出行数
+     */
+    long exportProducts(Long sellerId, ProductStatusEnum status, HttpServletResponse response);
 
 
 }
@@ -0,0 +1,35 @@
+package xyz.graygoo401.trade.service.base;
+
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+
+/**
+ * 商品浏览统计Service接口
+ * 详情请求只写内存缓冲，浏览量定时批量落库，每日独立访客由Redis HyperLogLog近似统计
+ */
+@Service
+public interface ProductViewService {
+
+    /**
+     * 记录一次商品浏览（仅写内存，不访问数据库与Redis，不抛出异常）
+     * @param productId 商品ID
+     * @param visitorId 访客标识（登录用户ID或客户端IP，为空时只计浏览量）
+     */
+    void recordView(Long productId, String visitorId);
+
+    /**
+     * 落库缓冲中的浏览增量并写入独立访客（定时任务调用）
+     * @return 本次落库的浏览次数
+     */
+    long flushViews();
+
+    /**
+     * 查询商品某日的独立访客数（仅商品所属卖家可查）
+     * @param sellerId 当前登录卖家ID
+     * @param productId 商品ID
+     * @param date 统计日期（为空时取当天）
+     * @return 独立访客数（HyperLogLog近似值，标准误差约0.81%）
+     */
+    long countUniqueVisitors(Long sellerId, Long productId, LocalDate date);
+}
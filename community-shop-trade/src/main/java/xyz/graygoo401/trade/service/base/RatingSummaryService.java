@@ -0,0 +1,45 @@
+package xyz.graygoo401.trade.service.base;
+
+import org.springframework.stereotype.Service;
+import xyz.graygoo401.api.trade.enums.RatingTargetTypeEnum;
+import xyz.graygoo401.common.service.BaseService;
+import xyz.graygoo401.trade.dao.entity.RatingSummary;
+
+/**
+ * 评分汇总Service接口
+ * 按卖家/商品维护评价数、评分总和与1-5星分布（rating_summary表 + Redis Hash），评分统计查询O(1)读取
+ */
+@Service
+public interface RatingSummaryService extends BaseService<RatingSummary> {
+
+    /**
+     * 计入一条评价（卖家汇总与商品汇总同时更新，需在评价写入的同一事务中调用）
+     * @param sellerId 卖家ID
+     * @param productId 商品ID
+     * @param score 评分（1-5）
+     */
+    void addRating(Long sellerId, Long productId, Integer score);
+
+    /**
+     * 移除一条评价（卖家汇总与商品汇总同时更新，需在评价写入的同一事务中调用）
+     * @param sellerId 卖家ID
+     * @param productId 商品ID
+     * @param score 评分（1-5）
+     */
+    void removeRating(Long sellerId, Long productId, Integer score);
+
+    /**
+     * 查询评分汇总（优先读Redis Hash，未命中时按唯一索引查询汇总表并回填）
+     * @param targetType 汇总对象类型
+     * @param targetId 汇总对象ID
+     * @return 评分汇总（暂无评价时各项为0，不返回null）
+     */
+    RatingSummary getSummary(RatingTargetTypeEnum targetType, Long targetId);
+
+    /**
+     * 对账：按evaluation表实时聚合结果校正汇总表，并清除被校正对象的缓存（定时任务调用）
+     * @param targetType 汇总对象类型
+     * @return 被校正的汇总记录数
+     */
+    int reconcile(RatingTargetTypeEnum targetType);
+}
@@ -0,0 +1,69 @@
+package xyz.graygoo401.trade.service.base;
+
+import org.springframework.stereotype.Service;
+import xyz.graygoo401.api.trade.dto.order.SellerDailyStatsDTO;
+import xyz.graygoo401.api.trade.dto.order.SellerSalesSummaryDTO;
+import xyz.graygoo401.api.trade.enums.OrderStatusEnum;
+import xyz.graygoo401.trade.dao.entity.Order;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 卖家销售日统计Service接口
+ * 按卖家、日期预聚合支付订单数、成交额、退款与评价（seller_daily_stats表），卖家看板范围查询只读统计表，不访问order表
+ */
+@Service
+public interface SellerDailyStatsService {
+
+    /**
+     * 计入一次订单状态流转（支付计入订单数与成交额，退款/退货计入退款，其他流转忽略；需在流转条件更新的同一事务中调用）
+     * @param order 流转后的订单（需包含卖家ID、金额与支付时间）
+     * @param fromStatus 流转前状态
+     * @param toStatus 流转后状态
+     */
+    void applyOrderTransition(Order order, OrderStatusEnum fromStatus, OrderStatusEnum toStatus);
+
+    /**
+     * 计入一条评价（需在评价写入的同一事务中调用）
+     * @param sellerId 卖家ID
+     * @param ratedTime 评价时间（决定归属日期）
+     * @param score 评分（1-5）
+     */
+    void addRating(Long sellerId, LocalDateTime ratedTime, Integer score);
+
+    /**
+     * 移除一条评价（需在评价写入的同一事务中调用）
+     * @param sellerId 卖家ID
+     * @param ratedTime 评价时间（决定归属日期）
+     * @param score 评分（1-5）
+     */
+    void removeRating(Long sellerId, LocalDateTime ratedTime, Integer score);
+
+    /**
+     * 查询卖家日期范围内的逐日统计（无数据的日期各项为0）
+     * @param sellerId 卖家ID
+     * @param startDate 开始日期（包含）
+     * @param endDate 结束日期（包含，范围不超过366天）
+     * @return 逐日统计（按日期升序）
+     */
+    List<SellerDailyStatsDTO> listDailyStats(Long sellerId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * 查询卖家日期范围内的销售汇总（累加日统计）
+     * @param sellerId 卖家ID
+     * @param startDate 开始日期（包含）
+     * @param endDate 结束日期（包含，范围不超过366天）
+     * @return 销售汇总
+     */
+    SellerSalesSummaryDTO getSalesSummary(Long sellerId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * 回填：按order、evaluation表实时聚合结果逐日覆盖统计表（幂等，可重复执行；定时任务与管理员调用）
+     * @param startDate 开始日期（包含）
+     * @param endDate 结束日期（包含）
+     * @return 被校正的统计记录数
+     */
+    int backfill(LocalDate startDate, LocalDate endDate);
+}
@@ -0,0 +1,28 @@
+package xyz.graygoo401.trade.service.base;
+
+import org.springframework.stereotype.Service;
+import xyz.graygoo401.api.trade.dto.product.SimilarProductDTO;
+
+import java.util.List;
+
+/**
+ * 相似商品Service接口
+ * 离线按订单共同购买（不足时按同类别相近价格补齐）预计算每个在售商品的相似商品列表存入Redis，商品详情页按ID直接读取
+ */
+@Service
+public interface SimilarProductService {
+
+    /**
+     * 全量重建相似商品列表（定时任务调用）
+     * @return 写入相似商品列表的商品数
+     */
+    int rebuildSimilarProducts();
+
+    /**
+     * 查询相似商品（有耗时上限，超时或异常时返回空列表，不影响商品详情主流程）
+     * @param productId 商品ID
+     * @param category 商品类别（无预计算列表时按同类别最新在售商品兜底）
+     * @return 在售相似商品列表（不含自身）
+     */
+    List<SimilarProductDTO> getSimilarProducts(Long productId, String category);
+}
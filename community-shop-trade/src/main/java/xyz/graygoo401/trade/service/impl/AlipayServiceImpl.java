@@ -6,12 +6,10 @@ import com.alipay.api.AlipayClient;
 import com.alipay.api.internal.util.AlipaySignature;
 import com.alipay.api.request.AlipayTradePagePayRequest;
 import com.alipay.api.response.AlipayTradePagePayResponse;
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import xyz.graygoo401.api.trade.dto.order.PayCallbackDTO;
 import xyz.graygoo401.api.trade.enums.OrderStatusEnum;
 import xyz.graygoo401.api.trade.enums.PayStatusEnum;
 import xyz.graygoo401.api.trade.enums.PayTypeEnum;
@@ -24,10 +22,10 @@ import xyz.graygoo401.trade.dao.mapper.OrderMapper;
 import xyz.graygoo401.trade.dao.mapper.PaymentMapper;
 import xyz.graygoo401.trade.exception.error.OrderErrorCode;
 import xyz.graygoo401.trade.exception.error.PaymentErrorCode;
+import xyz.graygoo401.trade.service.base.PayCallbackService;
 import xyz.graygoo401.trade.service.base.PaymentService;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -50,6 +48,9 @@ public class AlipayServiceImpl extends BaseServiceImpl<PaymentMapper, Payment> i
     @Autowired
     private PaymentMapper paymentMapper;
 
+    @Autowired
+    private PayCallbackService payCallbackService;
+
     /**
      * 生成支付宝支付链接（电脑网站支付）
      * @param orderId 订单ID
@@ -115,12 +116,12 @@ public class AlipayServiceImpl extends BaseServiceImpl<PaymentMapper, Payment> i
     }
 
     /**
-     * 处理支付宝异步回调（核心：验证签名+更新订单/支付状态）
+     * 处理支付宝异步回调（验证签名后交由PayCallbackService幂等处理）
+     * 支付宝会对同一通知重试多次，重复通知由PayCallbackService去重后直接返回成功
      * @param params 支付宝回调参数（request.getParameterMap）
      * @return "success"（支付宝收到后停止重试，否则会重试24小时）
      */
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public Boolean handlePayCallback(Map<String, String> params) {
         try {
             // 1. 验证回调签名（防止伪造请求）
@@ -134,57 +135,24 @@ public class AlipayServiceImpl extends BaseServiceImpl<PaymentMapper, Payment> i
                 throw new BusinessException(PaymentErrorCode.PAYMENT_CALLBACK_VALIDATE_FAILS);
             }
 
-            // 2. 解析回调参数（核心参数：订单号、支付状态、第三方流水号）
-            String outTradeNo = params.get("out_trade_no"); // 商户订单号
+            // 2. 校验支付状态（仅处理「支付成功」的回调）
             String tradeStatus = params.get("trade_status"); // 支付状态（TRADE_SUCCESS=支付成功）
-            String tradeNo = params.get("trade_no"); // 支付宝流水号
-            String gmtPayment = params.get("gmt_payment"); // 支付时间（格式：yyyy-MM-dd HH:mm:ss）
-
-            // 3. 校验支付状态（仅处理「支付成功」的回调）
             if (!"TRADE_SUCCESS".equals(tradeStatus)) {
                 return true; // 非成功状态无需处理，返回 true 避免重试
             }
 
-            // 4. 查询支付记录（避免重复处理回调）
-            // 调用paymentMapper的selectOne方法，传入查询条件，返回单个Payment对象
-            Payment payment = paymentMapper.selectOne(
-                    // 创建LambdaQueryWrapper，指定查询的实体是Payment
-                    new LambdaQueryWrapper<Payment>()
-                            // 3. 拼接第一个条件：payment表的order_no字段 = outTradeNo（支付宝回调的商户订单号）
-                            .eq(Payment::getOrderNo, outTradeNo)
-                            // 拼接第二个条件：payment表的pay_platform字段 = ALIPAY
-                            .eq(Payment::getPayType, PayTypeEnum.ALIPAY)
-            );
-            if (payment == null) {
-                throw new BusinessException(PaymentErrorCode.PAYMENT_NOT_EXISTS, "支付记录不存在，订单号：" + outTradeNo);
-            }
-            if (PayStatusEnum.SUCCESS == payment.getPayStatus()) { // 已处理过支付成功
-                return true;
-            }
-
-            // 5. 更新支付记录状态
-            paymentMapper.update(null,
-                    new LambdaUpdateWrapper<Payment>()
-                            .eq(Payment::getPaymentId, payment.getPaymentId())
-                            .set(Payment::getPayStatus, PayStatusEnum.SUCCESS)
-                            .set(Payment::getPlatformTradeNo, tradeNo)
-                            .set(Payment::getPayTime, LocalDateTime.parse(gmtPayment, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")))
-                            .set(Payment::getCallbackTime, LocalDateTime.now())
-                            .set(Payment::getCallbackContent, JSON.toJSONString(params))
-            );
-
-            // 6. 更新订单状态（关联现有订单流程：待支付→已支付）
-            orderMapper.update(null,
-                    new LambdaUpdateWrapper<Order>()
-                            .eq(Order::getOrderNo, outTradeNo)
-                            .set(Order::getStatus, "PAID") // 假设已支付状态为PAID
-                            .set(Order::getPayTime, LocalDateTime.parse(gmtPayment, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")))
-            );
-
-            // 7. 后续业务：发送支付成功通知、解锁库存等（可调用现有Service）
-            // notificationService.sendPaySuccessMsg(order.getBuyerId(), orderId);
-
-            return true; // 回调处理成功，返回支付宝停止重试
+            // 3. 解析回调参数（核心参数：订单号、支付宝流水号、支付金额、支付时间）
+            PayCallbackDTO payCallbackDTO = new PayCallbackDTO();
+            payCallbackDTO.setOrderNo(params.get("out_trade_no")); // 商户订单号
+            payCallbackDTO.setPayNo(params.get("trade_no")); // 支付宝流水号
+            payCallbackDTO.setPayStatus(tradeStatus);
+            payCallbackDTO.setPayTime(params.get("gmt_payment")); // 支付时间（格式：yyyy-MM-dd HH:mm:ss）
+            payCallbackDTO.setPayType(PayTypeEnum.ALIPAY);
+            String totalAmount = params.get("total_amount");
+            payCallbackDTO.setPayAmount(totalAmount != null ? new BigDecimal(totalAmount) : null);
+
+            // 4. 幂等处理（去重→订单/支付记录条件更新→提交后异步通知）
+            return payCallbackService.processPaySuccess(payCallbackDTO, JSON.toJSONString(params));
         } catch (BusinessException e) {
             throw e;
         } catch (Exception e) {
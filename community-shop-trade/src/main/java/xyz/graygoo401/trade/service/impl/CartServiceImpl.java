@@ -0,0 +1,207 @@
+package xyz.graygoo401.trade.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import xyz.graygoo401.api.trade.dto.cart.CartItemAddDTO;
+import xyz.graygoo401.api.trade.dto.cart.CartItemDTO;
+import xyz.graygoo401.api.trade.enums.ProductStatusEnum;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.common.exception.error.SystemErrorCode;
+import xyz.graygoo401.trade.dao.entity.Product;
+import xyz.graygoo401.trade.exception.error.OrderErrorCode;
+import xyz.graygoo401.trade.exception.error.ProductErrorCode;
+import xyz.graygoo401.trade.service.base.CartService;
+import xyz.graygoo401.trade.service.base.ProductService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 购物车服务实现类
+ * 每个用户一个Redis Hash，加购使用HINCRBY原子累加，列表查询一次HGETALL + 一次批量商品查询
+ */
+@Slf4j
+@Service
+public class CartServiceImpl implements CartService {
+
+    // 购物车相关常量
+    private static final String CACHE_KEY_CART = "cart:"; // 购物车Key前缀
+    private static final Duration CACHE_TTL_CART = Duration.ofDays(30); // 购物车有效期（最后一次修改起算）
+    public static final int MAX_CART_ITEMS = 50; // 购物车最大商品种类数
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private ProductService productService;
+
+    /**
+     * 加入购物车
+     * 核心逻辑：参数校验→商品可售校验→种类上限校验→HINCRBY累加数量→刷新有效期
+     */
+    @Override
+    public Integer addItem(Long userId, CartItemAddDTO itemDTO) {
+        try {
+            // 1. 参数校验
+            validateCartItemParam(userId, itemDTO);
+
+            // 2. 商品可售校验
+            Product product = productService.getById(itemDTO.getProductId());
+            if (product == null) {
+                throw new BusinessException(ProductErrorCode.PRODUCT_NOT_EXISTS);
+            }
+            if (!ProductStatusEnum.ON_SALE.equals(product.getStatus())) {
+                throw new BusinessException(ProductErrorCode.PRODUCT_ALREADY_OFF_SALE, "商品已下架或不可售");
+            }
+
+            // 3. 种类上限校验（仅新增商品时校验）
+            String cartKey = CACHE_KEY_CART + userId;
+            String field = String.valueOf(itemDTO.getProductId());
+            if (!redisTemplate.opsForHash().hasKey(cartKey, field)
+                    && redisTemplate.opsForHash().size(cartKey) >= MAX_CART_ITEMS) {
+                throw new BusinessException(OrderErrorCode.CART_ITEMS_TOO_MANY, "购物车最多添加" + MAX_CART_ITEMS + "种商品");
+            }
+
+            // 4. 原子累加数量并刷新有效期
+            Long quantity = redisTemplate.opsForHash().increment(cartKey, field, itemDTO.getQuantity());
+            redisTemplate.expire(cartKey, CACHE_TTL_CART);
+
+            log.info("加入购物车成功，用户ID：{}，商品ID：{}，当前数量：{}", userId, itemDTO.getProductId(), quantity);
+            return quantity.intValue();
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("加入购物车异常，用户ID：{}", userId, e);
+            throw new BusinessException(SystemErrorCode.FAILURE);
+        }
+    }
+
+    /**
+     * 修改购物车商品数量
+     */
+    @Override
+    public Boolean updateItem(Long userId, CartItemAddDTO itemDTO) {
+        try {
+            // 1. 参数校验
+            validateCartItemParam(userId, itemDTO);
+
+            // 2. 校验商品在购物车中
+            String cartKey = CACHE_KEY_CART + userId;
+            String field = String.valueOf(itemDTO.getProductId());
+            if (!redisTemplate.opsForHash().hasKey(cartKey, field)) {
+                throw new BusinessException(SystemErrorCode.NOT_FOUND, "商品不在购物车中");
+            }
+
+            // 3. 覆盖数量并刷新有效期
+            redisTemplate.opsForHash().put(cartKey, field, itemDTO.getQuantity());
+            redisTemplate.expire(cartKey, CACHE_TTL_CART);
+            return true;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("修改购物车异常，用户ID：{}", userId, e);
+            throw new BusinessException(SystemErrorCode.FAILURE);
+        }
+    }
+
+    /**
+     * 批量移除购物车商品（一次HDEL）
+     */
+    @Override
+    public Long removeItems(Long userId, List<Long> productIds) {
+        try {
+            // 1. 参数校验
+            if (userId == null) {
+                throw new BusinessException(SystemErrorCode.PARAM_NULL, "用户ID不能为空");
+            }
+            if (productIds == null || productIds.isEmpty()) {
+                return 0L;
+            }
+
+            // 2. 批量删除
+            Object[] fields = productIds.stream().map(String::valueOf).toArray();
+            Long removed = redisTemplate.opsForHash().delete(CACHE_KEY_CART + userId, fields);
+            log.info("移除购物车商品，用户ID：{}，移除种类数：{}", userId, removed);
+            return removed;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("移除购物车商品异常，用户ID：{}", userId, e);
+            throw new BusinessException(SystemErrorCode.FAILURE);
+        }
+    }
+
+    /**
+     * 查询购物车列表
+     * 核心逻辑：HGETALL读取全部商品→批量查询商品信息→组装展示数据（已删除商品不展示）
+     */
+    @Override
+    public List<CartItemDTO> listItems(Long userId) {
+        try {
+            // 1. 参数校验
+            if (userId == null) {
+                throw new BusinessException(SystemErrorCode.PARAM_NULL, "用户ID不能为空");
+            }
+
+            // 2. 读取购物车
+            Map<Object, Object> entries = redisTemplate.opsForHash().entries(CACHE_KEY_CART + userId);
+            if (entries.isEmpty()) {
+                return new ArrayList<>();
+            }
+
+            // 3. 批量查询商品信息
+            List<Long> productIds = entries.keySet().stream()
+                    .map(field -> Long.valueOf(field.toString()))
+                    .collect(Collectors.toList());
+            Map<Long, Product> productMap = productService.getByIds(productIds).stream()
+                    .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+
+            // 4. 组装展示数据
+            List<CartItemDTO> items = new ArrayList<>();
+            for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+                Product product = productMap.get(Long.valueOf(entry.getKey().toString()));
+                if (product == null) {
+                    continue;
+                }
+                int quantity = ((Number) entry.getValue()).intValue();
+
+                CartItemDTO item = new CartItemDTO();
+                item.setProductId(product.getProductId());
+                item.setSellerId(product.getSellerId());
+                item.setTitle(product.getTitle());
+                item.setPrice(product.getPrice());
+                item.setQuantity(quantity);
+                item.setStock(product.getStock());
+                item.setStatus(product.getStatus());
+                item.setAvailable(ProductStatusEnum.ON_SALE.equals(product.getStatus()) && product.getStock() >= quantity);
+                items.add(item);
+            }
+            return items;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("查询购物车异常，用户ID：{}", userId, e);
+            throw new BusinessException(SystemErrorCode.DATA_QUERY_FAILED);
+        }
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 校验购物车商品参数
+     */
+    private void validateCartItemParam(Long userId, CartItemAddDTO itemDTO) {
+        if (userId == null || itemDTO == null || itemDTO.getProductId() == null) {
+            throw new BusinessException(SystemErrorCode.PARAM_NULL, "用户ID和商品ID不能为空");
+        }
+        if (itemDTO.getQuantity() == null || itemDTO.getQuantity() <= 0) {
+            throw new BusinessException(SystemErrorCode.PARAM_ERROR, "数量必须大于0");
+        }
+    }
+}
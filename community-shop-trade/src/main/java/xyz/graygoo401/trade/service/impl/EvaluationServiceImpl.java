@@ -2,12 +2,13 @@ package xyz.graygoo401.trade.service.impl;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import xyz.graygoo401.api.trade.dto.evaluation.*;
+import xyz.graygoo401.api.trade.enums.EvaluationStatusEnum;
 import xyz.graygoo401.api.trade.enums.OrderStatusEnum;
+import xyz.graygoo401.api.trade.enums.RatingTargetTypeEnum;
 import xyz.graygoo401.api.user.dto.user.UserDTO;
 import xyz.graygoo401.api.user.util.UserUtil;
 import xyz.graygoo401.common.dto.PageResult;
@@ -19,6 +20,7 @@ import xyz.graygoo401.trade.convert.EvaluationConvert;
 import xyz.graygoo401.trade.dao.entity.Evaluation;
 import xyz.graygoo401.trade.dao.entity.Order;
 import xyz.graygoo401.trade.dao.entity.Product;
+import xyz.graygoo401.trade.dao.entity.RatingSummary;
 import xyz.graygoo401.trade.dao.mapper.EvaluationMapper;
 import xyz.graygoo401.trade.exception.error.EvaluationErrorCode;
 import xyz.graygoo401.trade.exception.error.OrderErrorCode;
@@ -26,6 +28,8 @@ import xyz.graygoo401.trade.exception.error.ProductErrorCode;
 import xyz.graygoo401.trade.service.base.EvaluationService;
 import xyz.graygoo401.trade.service.base.OrderService;
 import xyz.graygoo401.trade.service.base.ProductService;
+import xyz.graygoo401.trade.service.base.RatingSummaryService;
+import xyz.graygoo401.trade.service.base.SellerDailyStatsService;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -40,15 +44,14 @@ import java.util.stream.Collectors;
 @Service
 public class EvaluationServiceImpl extends BaseServiceImpl<EvaluationMapper, Evaluation> implements EvaluationService {
 
-    // 缓存相关常量
-    private static final String CACHE_KEY_SELLER_AVG_SCORE = "evaluation:seller:avgScore:"; // 卖家平均评分缓存Key前缀
-    private static final long CACHE_TTL_SELLER_AVG_SCORE = 12; // 卖家平均评分缓存有效期（小时）
+    // 评价相关常量
     private static final int MAX_REPORT_REASON_LENGTH = 200; // 举报原因最大长度（字符）
     private static final int MIN_SCORE = 1; // 评价最低分数
     private static final int MAX_SCORE = 5; // 评价最高分数
     private static final int MAX_TAG_COUNT = 3; // 评价标签最大数量
     private static final int MAX_CONTENT_LENGTH = 500; // 评价内容最大长度（字符）
     private static final int MAX_IMAGE_COUNT = 5; // 评价图片最大数量
+    private static final int BACKFILL_BATCH_SIZE = 500; // 商品ID回填每批条数
 
     @Autowired
     private EvaluationMapper evaluationMapper;
@@ -63,7 +66,10 @@ public class EvaluationServiceImpl extends BaseServiceImpl<EvaluationMapper, Eva
     private UserUtil userUtil;
 
     @Autowired
-    private RedisTemplate<String, Object> redisTemplate;
+    private RatingSummaryService ratingSummaryService;
+
+    @Autowired
+    private SellerDailyStatsService sellerDailyStatsService;
 
     @Autowired
     private EvaluationConvert evaluationConvert;
@@ -116,9 +122,11 @@ public class EvaluationServiceImpl extends BaseServiceImpl<EvaluationMapper, Eva
                 throw new BusinessException(EvaluationErrorCode.SELLER_NOT_EXISTS);
             }
 
-            // 6. 构建Evaluation实体并插入数据库
+            // 6. 构建Evaluation实体并插入数据库（卖家ID、商品ID冗余自订单，供卖家/商品评价列表走索引）
             Evaluation evaluation = evaluationConvert.evaluationCreateDtoToEvaluation(evalCreateDTO);
             evaluation.setUserId(userId);
+            evaluation.setEvaluateeId(sellerId);
+            evaluation.setProductId(order.getProductId());
             int insertRows = evaluationMapper.insert(evaluation);
             if (insertRows <= 0) {
                 log.error("提交评价失败，数据库插入失败，评价参数：{}", evalCreateDTO);
@@ -128,8 +136,9 @@ public class EvaluationServiceImpl extends BaseServiceImpl<EvaluationMapper, Eva
             // 7. 根据评价分数调整卖家信用分（好评+5，差评-10，中评不调整）
             adjustSellerCreditScore(sellerId, evaluation.getScore());
 
-            // 8. 清除卖家平均评分缓存（后续查询需重新统计）
-            clearSellerAvgScoreCache(sellerId);
+            // 8. 计入卖家与商品评分汇总、卖家销售日统计（同一事务内原子更新）
+            ratingSummaryService.addRating(sellerId, product.getProductId(), evaluation.getScore());
+            sellerDailyStatsService.addRating(sellerId, evaluation.getCreateTime(), evaluation.getScore());
 
             // 9. 封装评价详情DTO并返回
             EvaluationDetailDTO detailDTO = evaluationConvert.evaluationToEvaluationDetailDTO(evaluation);
@@ -203,17 +212,19 @@ public class EvaluationServiceImpl extends BaseServiceImpl<EvaluationMapper, Eva
             // 1. 参数校验
             validateSellerAndPageParam(queryDTO);
 
-            // 2. 校验卖家存在
+            // 2. 校验卖家存在（按商品查询时可不指定卖家）
             Long sellerId = queryDTO.getEvaluateeId();
-            UserDTO seller = userUtil.getUserById(sellerId);
-            if (Objects.isNull(seller)) {
-                log.error("查询卖家评价列表失败，卖家不存在，卖家ID：{}", sellerId);
-                throw new BusinessException(SystemErrorCode.USER_NOT_EXISTS);
+            if (Objects.nonNull(sellerId)) {
+                UserDTO seller = userUtil.getUserById(sellerId);
+                if (Objects.isNull(seller)) {
+                    log.error("查询卖家评价列表失败，卖家不存在，卖家ID：{}", sellerId);
+                    throw new BusinessException(SystemErrorCode.USER_NOT_EXISTS);
+                }
             }
 
-            // 3. 分页查询卖家的有效评价（状态为正常）
-            int pageNum = queryDTO.getPageNum() <= 0 ? 1 : queryDTO.getPageNum();
-            int pageSize = queryDTO.getPageSize() <= 0 || queryDTO.getPageSize() > 20 ? 10 : queryDTO.getPageSize(); // 限制最大页大小为20
+            // 3. 分页查询卖家/商品的有效评价（状态为正常）
+            int pageNum = queryDTO.getPageNum();
+            int pageSize = queryDTO.getPageSize();
             List<Evaluation> evaluationList = evaluationMapper.selectByQuery(queryDTO);
             long total = evaluationMapper.countByQuery(queryDTO);
             long totalPages = total % pageSize == 0 ? total / pageSize : total / pageSize + 1;
@@ -285,7 +296,7 @@ public class EvaluationServiceImpl extends BaseServiceImpl<EvaluationMapper, Eva
     }
 
     /**
-     * 更新评价内容（带权限校验）
+     * 更新评价内容（带权限校验，传入新评分时同步调整评分汇总）
      * @param userId 操作人ID
      * @param evaluationUpdateDTO 更新信息
      * @return 是否成功
@@ -314,16 +325,36 @@ public class EvaluationServiceImpl extends BaseServiceImpl<EvaluationMapper, Eva
             throw new BusinessException(SystemErrorCode.PERMISSION_DENIED);
         }
 
-        // 4. 执行更新
+        // 4. 评分变更校验（未传入新评分时仅更新内容）
+        Integer oldScore = evaluation.getScore();
+        Integer newScore = evaluationUpdateDTO.getNewScore();
+        if (newScore != null && (newScore < MIN_SCORE || newScore > MAX_SCORE)) {
+            throw new BusinessException(EvaluationErrorCode.EVALUATION_SCORE_INVALID);
+        }
+        boolean scoreChanged = newScore != null && !newScore.equals(oldScore);
+
+        // 5. 执行更新
         evaluation.setContent(newContent);
+        if (scoreChanged) {
+            evaluation.setScore(newScore);
+        }
         evaluation.setUpdateTime(LocalDateTime.now()); // 更新修改时间
         int rows = evaluationMapper.updateById(evaluation);
 
-        // 5. 验证结果
+        // 6. 验证结果
         if (rows <= 0) {
             throw new BusinessException(SystemErrorCode.DATA_UPDATE_FAILED);
         }
 
+        // 7. 评分变更时调整评分汇总（移除旧评分、计入新评分）
+        if (scoreChanged && isCountedInSummary(evaluation)) {
+            Long productId = getEvaluatedProductId(evaluation);
+            ratingSummaryService.removeRating(evaluation.getEvaluateeId(), productId, oldScore);
+            ratingSummaryService.addRating(evaluation.getEvaluateeId(), productId, newScore);
+            sellerDailyStatsService.removeRating(evaluation.getEvaluateeId(), evaluation.getCreateTime(), oldScore);
+            sellerDailyStatsService.addRating(evaluation.getEvaluateeId(), evaluation.getCreateTime(), newScore);
+        }
+
         log.info("更新评价内容成功，ID：{}", evalId);
         return true;
     }
@@ -368,7 +399,13 @@ public class EvaluationServiceImpl extends BaseServiceImpl<EvaluationMapper, Eva
             throw new BusinessException(SystemErrorCode.DATA_DELETE_FAILED);
         }
 
-        // 后期可能添加的删除缓存位置
+        // 5. 从卖家与商品评分汇总、卖家销售日统计中移除
+        if (isCountedInSummary(evaluation)) {
+            ratingSummaryService.removeRating(evaluation.getEvaluateeId(),
+                    getEvaluatedProductId(evaluation), evaluation.getScore());
+            sellerDailyStatsService.removeRating(evaluation.getEvaluateeId(), evaluation.getCreateTime(),
+                    evaluation.getScore());
+        }
 
         log.info("删除评价成功，ID：{}，操作人：{}", evalId, operatorId);
         return true;
@@ -377,6 +414,7 @@ public class EvaluationServiceImpl extends BaseServiceImpl<EvaluationMapper, Eva
 
     /**
      * 计算卖家评分统计
+     * 直接读取评分汇总（Redis Hash / rating_summary单行），不再实时聚合evaluation表
      * @param sellerId 卖家ID
      * @return 评分统计DTO
      */
@@ -387,43 +425,36 @@ public class EvaluationServiceImpl extends BaseServiceImpl<EvaluationMapper, Eva
             throw new BusinessException(SystemErrorCode.PARAM_ERROR, "卖家ID无效");
         }
 
-        // 2. 初始化结果对象
+        // 2. 读取评分汇总
+        RatingSummary summary = ratingSummaryService.getSummary(RatingTargetTypeEnum.SELLER, sellerId);
+
+        // 3. 设置星级统计数据与平均评分
         SellerScoreDTO scoreDTO = new SellerScoreDTO();
         scoreDTO.setSellerId(sellerId);
-
-        // 3. 查询平均评分
-        Double avgScore = evaluationMapper.selectSellerAverageScore(sellerId);
-        scoreDTO.setAverageScore(avgScore != null ? avgScore : 0.0);
-
-        // 4. 统计各星级数量
-        int fiveStar = evaluationMapper.countSellerScoreLevel(sellerId, 5, 5);
-        int fourStar = evaluationMapper.countSellerScoreLevel(sellerId, 4, 4);
-        int threeStar = evaluationMapper.countSellerScoreLevel(sellerId, 3, 3);
-        int twoStar = evaluationMapper.countSellerScoreLevel(sellerId, 2, 2);
-        int oneStar = evaluationMapper.countSellerScoreLevel(sellerId, 1, 1);
-
-        // 5. 设置星级统计数据
-        scoreDTO.setFiveStarCount(fiveStar);
-        scoreDTO.setFourStarCount(fourStar);
-        scoreDTO.setThreeStarCount(threeStar);
-        scoreDTO.setTwoStarCount(twoStar);
-        scoreDTO.setOneStarCount(oneStar);
-
-        // 6. 计算好评率（4-5星视为好评）
-        int total = fiveStar + fourStar + threeStar + twoStar + oneStar;
-        int positiveCount = fiveStar + fourStar;
-        int negativeCount = twoStar + oneStar;
-        scoreDTO.setPositiveRate(total > 0 ? (double) positiveCount / total * 100 : 0.0);
-        scoreDTO.setNegativeRate(total > 0 ? (double) negativeCount / total * 100 : 0.0);
+        scoreDTO.setAverageScore(averageScore(summary));
+        scoreDTO.setFiveStarCount(summary.getStar5Count());
+        scoreDTO.setFourStarCount(summary.getStar4Count());
+        scoreDTO.setThreeStarCount(summary.getStar3Count());
+        scoreDTO.setTwoStarCount(summary.getStar2Count());
+        scoreDTO.setOneStarCount(summary.getStar1Count());
+
+        // 4. 计算好评率（4-5星视为好评）
+        int total = summary.getRatingCount();
+        scoreDTO.setPositiveRate(percentage(summary.getStar5Count() + summary.getStar4Count(), total));
+        scoreDTO.setNegativeRate(percentage(summary.getStar2Count() + summary.getStar1Count(), total));
         scoreDTO.setTotalCount(total);
 
-        // 未来可添加缓存模块
-
         log.info("计算卖家评分完成，卖家ID：{}，总评价数：{}，平均评分：{}",
                 sellerId, total, scoreDTO.getAverageScore());
         return scoreDTO;
     }
 
+    /**
+     * 计算商品评分统计
+     * 直接读取评分汇总（Redis Hash / rating_summary单行），不再关联order表实时聚合
+     * @param productId 商品ID
+     * @return 评分统计DTO
+     */
     @Override
     public ProductScoreDTO calculateProductScore(Long productId) {
         // 1. 参数校验
@@ -431,43 +462,65 @@ public class EvaluationServiceImpl extends BaseServiceImpl<EvaluationMapper, Eva
             throw new BusinessException(SystemErrorCode.PARAM_ERROR, "商品ID无效");
         }
 
-        // 2. 初始化结果对象
+        // 2. 读取评分汇总
+        RatingSummary summary = ratingSummaryService.getSummary(RatingTargetTypeEnum.PRODUCT, productId);
+
+        // 3. 设置星级统计数据与平均评分
         ProductScoreDTO scoreDTO = new ProductScoreDTO();
         scoreDTO.setProductId(productId);
-
-        // 3. 查询平均评分
-        Double avgScore = evaluationMapper.selectProductAverageScore(productId);
-        scoreDTO.setAverageScore(avgScore != null ? avgScore : 0.0);
-
-        // 4. 统计各星级数量
-        int fiveStar = evaluationMapper.countProductScoreLevel(productId, 5, 5);
-        int fourStar = evaluationMapper.countProductScoreLevel(productId, 4, 4);
-        int threeStar = evaluationMapper.countProductScoreLevel(productId, 3, 3);
-        int twoStar = evaluationMapper.countProductScoreLevel(productId, 2, 2);
-        int oneStar = evaluationMapper.countProductScoreLevel(productId, 1, 1);
-
-        // 5. 设置星级统计数据
-        scoreDTO.setFiveStarCount(fiveStar);
-        scoreDTO.setFourStarCount(fourStar);
-        scoreDTO.setThreeStarCount(threeStar);
-        scoreDTO.setTwoStarCount(twoStar);
-        scoreDTO.setOneStarCount(oneStar);
-
-        // 6. 计算好评率（4-5星视为好评）
-        int total = fiveStar + fourStar + threeStar + twoStar + oneStar;
-        int positiveCount = fiveStar + fourStar;
-        int negativeCount = twoStar + oneStar;
-        scoreDTO.setPositiveRate(total > 0 ? (double) positiveCount / total * 100 : 0.0);
-        scoreDTO.setNegativeRate(total > 0 ? (double) negativeCount / total * 100 : 0.0);
+        scoreDTO.setAverageScore(averageScore(summary));
+        scoreDTO.setFiveStarCount(summary.getStar5Count());
+        scoreDTO.setFourStarCount(summary.getStar4Count());
+        scoreDTO.setThreeStarCount(summary.getStar3Count());
+        scoreDTO.setTwoStarCount(summary.getStar2Count());
+        scoreDTO.setOneStarCount(summary.getStar1Count());
+
+        // 4. 计算好评率（4-5星视为好评）
+        int total = summary.getRatingCount();
+        scoreDTO.setPositiveRate(percentage(summary.getStar5Count() + summary.getStar4Count(), total));
+        scoreDTO.setNegativeRate(percentage(summary.getStar2Count() + summary.getStar1Count(), total));
         scoreDTO.setTotalCount(total);
 
-        // 未来可添加缓存模块
-
         log.info("计算商品评分完成，商品ID：{}，总评价数：{}，平均评分：{}",
                 productId, total, scoreDTO.getAverageScore());
         return scoreDTO;
     }
 
+    /**
+     * 回填历史评价的冗余商品ID
+     * 每批单独提交，关联订单缺失的评价保持为空并被游标跳过，不会重复扫描
+     *
+     * @return 本次回填的评价数
+     */
+    @Override
+    public int backfillProductIds() {
+        try {
+            int backfilled = 0;
+            Long lastEvalId = null;
+            while (true) {
+                // 1. 游标查询一批未回填的评价ID
+                List<Long> evalIds = evaluationMapper.selectIdsMissingProductId(lastEvalId, BACKFILL_BATCH_SIZE);
+                if (evalIds.isEmpty()) {
+                    break;
+                }
+
+                // 2. 按关联订单回填商品ID
+                backfilled += evaluationMapper.backfillProductId(evalIds);
+                lastEvalId = evalIds.get(evalIds.size() - 1);
+            }
+
+            if (backfilled > 0) {
+                log.info("评价商品ID回填完成，回填记录数：{}", backfilled);
+            }
+            return backfilled;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("评价商品ID回填异常", e);
+            throw new BusinessException(SystemErrorCode.FAILURE);
+        }
+    }
+
     // ---------------------- 私有辅助方法 ----------------------
 
     /**
@@ -550,19 +603,21 @@ public class EvaluationServiceImpl extends BaseServiceImpl<EvaluationMapper, Eva
     }
 
     /**
-     * 校验卖家ID与分页参数合法性
+     * 校验卖家ID/商品ID与分页参数合法性（卖家ID与商品ID至少指定一个，保证查询命中对应索引）
      */
     private void validateSellerAndPageParam(EvaluationQueryDTO queryDTO) {
-        if (Objects.isNull(queryDTO) || Objects.isNull(queryDTO.getEvaluateeId())) {
+        if (Objects.isNull(queryDTO)
+                || (Objects.isNull(queryDTO.getEvaluateeId()) && Objects.isNull(queryDTO.getProductId()))) {
             throw new BusinessException(SystemErrorCode.PARAM_NULL);
         }
-        // 分页参数默认值处理（pageNum默认1，pageSize默认10）
+        // 分页参数默认值处理（pageNum默认1，pageSize默认10，最大20）
         if (queryDTO.getPageNum() <= 0) {
             queryDTO.setPageNum(1);
         }
-        if (queryDTO.getPageSize() <= 0) {
+        if (queryDTO.getPageSize() <= 0 || queryDTO.getPageSize() > 20) {
             queryDTO.setPageSize(10);
         }
+        queryDTO.setOffset();
     }
 
     /**
@@ -597,16 +652,42 @@ public class EvaluationServiceImpl extends BaseServiceImpl<EvaluationMapper, Eva
     }
 
     /**
-     * 清除卖家平均评分缓存
+     * 评价是否计入评分汇总（仅正常状态评价参与统计，新提交评价状态由数据库默认为正常）
      */
-    private void clearSellerAvgScoreCache(Long sellerId) {
-        String cacheKey = CACHE_KEY_SELLER_AVG_SCORE + sellerId;
-        Boolean deleteResult = redisTemplate.delete(cacheKey);
-        if (Boolean.TRUE.equals(deleteResult)) {
-            log.info("清除卖家平均评分缓存成功，卖家ID：{}，缓存Key：{}", sellerId, cacheKey);
-        } else {
-            log.warn("清除卖家平均评分缓存失败（缓存不存在或已过期），卖家ID：{}，缓存Key：{}", sellerId, cacheKey);
+    private boolean isCountedInSummary(Evaluation evaluation) {
+        return evaluation.getStatus() == null || EvaluationStatusEnum.NORMAL.equals(evaluation.getStatus());
+    }
+
+    /**
+     * 获取评价关联的商品ID（优先取冗余字段，历史评价未回填时经订单获取）
+     */
+    private Long getEvaluatedProductId(Evaluation evaluation) {
+        if (Objects.nonNull(evaluation.getProductId())) {
+            return evaluation.getProductId();
+        }
+        Order order = orderService.getById(evaluation.getOrderId());
+        if (Objects.isNull(order)) {
+            log.error("评价关联订单不存在，评价ID：{}，订单ID：{}", evaluation.getEvalId(), evaluation.getOrderId());
+            throw new BusinessException(SystemErrorCode.RELATED_DATA_MISSING);
         }
+        return order.getProductId();
+    }
+
+    /**
+     * 平均评分（保留1位小数，与原AVG统计口径一致）
+     */
+    private double averageScore(RatingSummary summary) {
+        if (summary.getRatingCount() <= 0) {
+            return 0.0;
+        }
+        return Math.round(summary.getRatingSum() * 10.0 / summary.getRatingCount()) / 10.0;
+    }
+
+    /**
+     * 百分比（总数为0时返回0）
+     */
+    private double percentage(int count, int total) {
+        return total > 0 ? (double) count / total * 100 : 0.0;
     }
 
 }
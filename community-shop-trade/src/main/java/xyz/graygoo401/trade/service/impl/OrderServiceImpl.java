@@ -1,6 +1,8 @@
 package xyz.graygoo401.trade.service.impl;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,39 +11,52 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
+import xyz.graygoo401.api.common.dto.mq.OrderCheckoutEventDTO;
 import xyz.graygoo401.api.common.dto.mq.OrderEventDTO;
+import xyz.graygoo401.api.common.enums.MqEventTypeEnum;
 import xyz.graygoo401.api.infra.dto.message.MessageSendDTO;
 import xyz.graygoo401.api.infra.enums.MessageTypeEnum;
 import xyz.graygoo401.api.infra.util.InfraUtil;
+import xyz.graygoo401.api.trade.dto.cart.CartItemAddDTO;
 import xyz.graygoo401.api.trade.dto.order.*;
-import xyz.graygoo401.api.trade.dto.product.ProductStockUpdateDTO;
 import xyz.graygoo401.api.trade.enums.OrderStatusEnum;
 import xyz.graygoo401.api.trade.enums.PayTypeEnum;
 import xyz.graygoo401.api.trade.enums.ProductStatusEnum;
 import xyz.graygoo401.api.user.dto.user.UserDTO;
 import xyz.graygoo401.api.user.util.UserUtil;
-import xyz.graygoo401.common.dto.PageResult;
+import xyz.graygoo401.common.dto.CursorPageResult;
 import xyz.graygoo401.common.enums.UserRoleEnum;
 import xyz.graygoo401.common.exception.BusinessException;
 import xyz.graygoo401.common.exception.error.SystemErrorCode;
+import xyz.graygoo401.common.export.CsvStreamWriter;
+import xyz.graygoo401.common.export.ExportColumn;
 import xyz.graygoo401.common.service.BaseServiceImpl;
+import xyz.graygoo401.common.util.CursorUtil;
 import xyz.graygoo401.common.util.SignUtil;
+import xyz.graygoo401.common.util.TransactionUtil;
 import xyz.graygoo401.trade.convert.OrderConvert;
 import xyz.graygoo401.trade.convert.ProductConvert;
 import xyz.graygoo401.trade.dao.entity.Order;
+import xyz.graygoo401.trade.dao.entity.OrderView;
 import xyz.graygoo401.trade.dao.entity.Product;
 import xyz.graygoo401.trade.dao.mapper.OrderMapper;
+import xyz.graygoo401.trade.dao.mapper.OrderViewMapper;
 import xyz.graygoo401.trade.exception.error.OrderErrorCode;
 import xyz.graygoo401.trade.exception.error.ProductErrorCode;
+import xyz.graygoo401.trade.service.base.CartService;
 import xyz.graygoo401.trade.service.base.OrderService;
+import xyz.graygoo401.trade.service.base.PayCallbackService;
 import xyz.graygoo401.trade.service.base.ProductService;
+import xyz.graygoo401.trade.statemachine.OrderStateMachine;
+import xyz.graygoo401.trade.statemachine.OrderTransitionEnum;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Objects;
-import java.util.Random;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -57,13 +72,35 @@ public class OrderServiceImpl extends BaseServiceImpl<OrderMapper, Order> implem
     private static final String ORDER_NO_PREFIX = LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd")); // 订单编号前缀（yyyyMMdd）
     private static final int ORDER_NO_RANDOM_LEN = 8; // 订单编号随机数长度
     private static final int PAY_EXPIRE_MINUTES = 30; // 支付有效期（分钟）
+    private static final String CHECKOUT_NO_PREFIX = "CK"; // 结算单号前缀
+    private static final int MAX_CHECKOUT_ITEMS = 50; // 单次结算最大商品种类数
+    private static final int ORDER_INSERT_BATCH_SIZE = 100; // 订单批量插入每批条数
 
     // 缓存相关常量
     private static final String CACHE_KEY_ORDER = "order:info:"; // 订单信息缓存Key前缀
     private static final String CACHE_KEY_ORDER_LIST = "order:list:"; // 订单列表缓存Key前缀
     private static final String CACHE_KEY_USER_ORDERS = "order:user:"; // 用户订单列表缓存Key前缀
     private static final long CACHE_TTL_ORDER = 30; // 订单缓存有效期（分钟）
-    private static final long CACHE_TTL_ORDER_LIST = 15; // 订单列表缓存有效期（分钟）
+    private static final int MAX_LIST_PAGE_SIZE = 50; // 订单列表每页最大条数
+    private static final DateTimeFormatter EXPORT_FILE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss"); // 导出文件名时间格式
+
+    // 订单导出列（流式导出时逐行取值，不含收货人手机号与地址）
+    private static final List<ExportColumn<Order>> ORDER_EXPORT_COLUMNS = List.of(
+            ExportColumn.of("订单ID", Order::getOrderId),
+            ExportColumn.of("订单编号", Order::getOrderNo),
+            ExportColumn.of("商品ID", Order::getProductId),
+            ExportColumn.of("买家ID", Order::getBuyerId),
+            ExportColumn.of("卖家ID", Order::getSellerId),
+            ExportColumn.of("数量", Order::getQuantity),
+            ExportColumn.of("订单金额", Order::getTotalAmount),
+            ExportColumn.of("订单状态", order -> order.getStatus() == null ? null : order.getStatus().getDesc()),
+            ExportColumn.of("支付方式", order -> order.getPayType() == null ? null : order.getPayType().getDesc()),
+            ExportColumn.of("下单时间", Order::getCreateTime),
+            ExportColumn.of("支付时间", Order::getPayTime),
+            ExportColumn.of("发货时间", Order::getShipTime),
+            ExportColumn.of("收货时间", Order::getReceiveTime),
+            ExportColumn.of("取消时间", Order::getCancelTime)
+    );
 
     // 支付相关常量
     @Value("${pay.callback.secret}")
@@ -75,6 +112,9 @@ public class OrderServiceImpl extends BaseServiceImpl<OrderMapper, Order> implem
     @Autowired
     private OrderMapper orderMapper;
 
+    @Autowired
+    private OrderViewMapper orderViewMapper;
+
     @Autowired
     private UserUtil userUtil;
 
@@ -93,6 +133,15 @@ public class OrderServiceImpl extends BaseServiceImpl<OrderMapper, Order> implem
     @Autowired
     private RabbitTemplate rabbitTemplate;
 
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private PayCallbackService payCallbackService;
+
+    @Autowired
+    private OrderStateMachine orderStateMachine;
+
 
     /**
      * 创建订单（支持单商品）
@@ -150,12 +199,8 @@ public class OrderServiceImpl extends BaseServiceImpl<OrderMapper, Order> implem
                 throw new BusinessException(SystemErrorCode.DATA_INSERT_FAILED, "订单创建失败，请重试");
             }
 
-            ProductStockUpdateDTO stockUpdateDTO = new ProductStockUpdateDTO(product.getProductId(),
-                    -orderCreateDTO.getQuantity(), "订单创建");
-            int stockUpdateCount = productService.updateStock(product.getSellerId(), stockUpdateDTO);
-            if (stockUpdateCount != 1) {
-                throw new BusinessException(SystemErrorCode.DATA_UPDATE_FAILED, "库存更新失败，订单创建回滚");
-            }
+            // 与购物车结算共用条件扣减：仅在售且库存充足时扣减，库存归零时切换为已售罄并发送商品事件
+            productService.reserveStockBatch(List.of(new CartItemAddDTO(product.getProductId(), orderCreateDTO.getQuantity())));
 
             // 6. 生成支付信息（模拟支付链接，实际项目对接第三方支付接口）
             OrderDetailDTO orderDetail = this.OrderToOrderDetailDTO(order);
@@ -181,9 +226,122 @@ public class OrderServiceImpl extends BaseServiceImpl<OrderMapper, Order> implem
         }
     }
 
+    /**
+     * 购物车结算
+     * 核心逻辑：合并商品→买家信用校验（一次）→批量查询商品并校验金额→单条SQL批量预占库存
+     * →按卖家拆分并批量插入订单→事务提交后清理购物车并发送一条聚合事件
+     */
+    @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED, rollbackFor = Exception.class)
+    public OrderCheckoutResultDTO checkout(Long userId, OrderCheckoutDTO checkoutDTO) {
+        try {
+            // 1. 基础参数校验，合并重复商品
+            List<CartItemAddDTO> items = mergeCheckoutItems(checkoutDTO);
+
+            // 2. 买家信息与信用校验
+            UserDTO buyer = userUtil.getUserById(userId);
+            if (buyer == null) {
+                throw new BusinessException(SystemErrorCode.USER_NOT_EXISTS);
+            }
+            if (buyer.getCreditScore() < MIN_BUYER_CREDIT_SCORE) {
+                throw new BusinessException(SystemErrorCode.PERMISSION_DENIED,
+                        "买家信用分不足" + MIN_BUYER_CREDIT_SCORE + "分，无法创建订单");
+            }
+
+            // 3. 批量查询商品并校验可售状态与金额一致性
+            Map<Long, Product> productMap = productService.getByIds(
+                    items.stream().map(CartItemAddDTO::getProductId).collect(Collectors.toList())
+            ).stream().collect(Collectors.toMap(Product::getProductId, Function.identity()));
+            BigDecimal actualAmount = BigDecimal.ZERO;
+            for (CartItemAddDTO item : items) {
+                Product product = productMap.get(item.getProductId());
+                if (product == null) {
+                    throw new BusinessException(ProductErrorCode.PRODUCT_NOT_EXISTS, "商品不存在，商品ID：" + item.getProductId());
+                }
+                if (!ProductStatusEnum.ON_SALE.equals(product.getStatus())) {
+                    throw new BusinessException(ProductErrorCode.PRODUCT_ALREADY_OFF_SALE, "商品【" + product.getTitle() + "】已下架或不可售");
+                }
+                actualAmount = actualAmount.add(product.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+            }
+            if (actualAmount.subtract(checkoutDTO.getTotalAmount()).abs().compareTo(new BigDecimal("0.01")) >= 0) {
+                throw new BusinessException(OrderErrorCode.ORDER_AMOUNT_ABNORMAL, "订单金额异常，请重新结算");
+            }
+
+            // 4. 单条SQL批量预占库存（任一商品不足则整单回滚）
+            productService.reserveStockBatch(items);
+
+            // 5. 按卖家拆分，构建订单实体（同一次结算共享结算单号）
+            String checkoutNo = CHECKOUT_NO_PREFIX + generateOrderNo();
+            LocalDateTime now = LocalDateTime.now();
+            Map<Long, List<Order>> sellerOrders = new LinkedHashMap<>();
+            for (CartItemAddDTO item : items) {
+                Product product = productMap.get(item.getProductId());
+                Order order = new Order();
+                order.setProductId(product.getProductId());
+                order.setBuyerId(userId);
+                order.setSellerId(product.getSellerId());
+                order.setOrderNo(generateOrderNo());
+                order.setCheckoutNo(checkoutNo);
+                order.setTotalAmount(product.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+                order.setQuantity(item.getQuantity());
+                order.setReceiverName(StringUtils.hasText(checkoutDTO.getReceiverName()) ? checkoutDTO.getReceiverName() : buyer.getUsername());
+                order.setAddress(checkoutDTO.getAddress());
+                order.setPhoneNumber(StringUtils.hasText(checkoutDTO.getPhoneNumber()) ? checkoutDTO.getPhoneNumber() : buyer.getPhoneNumber());
+                order.setBuyerRemark(checkoutDTO.getBuyerRemark());
+                order.setStatus(OrderStatusEnum.PENDING_PAYMENT);
+                order.setPayType(checkoutDTO.getPayType());
+                order.setCreateTime(now);
+                order.setPayExpireTime(now.plusMinutes(PAY_EXPIRE_MINUTES));
+                sellerOrders.computeIfAbsent(product.getSellerId(), k -> new ArrayList<>()).add(order);
+            }
+
+            // 6. 分批插入订单（多行VALUES，回填订单ID）
+            List<Order> allOrders = sellerOrders.values().stream().flatMap(List::stream).collect(Collectors.toList());
+            for (int from = 0; from < allOrders.size(); from += ORDER_INSERT_BATCH_SIZE) {
+                List<Order> batch = allOrders.subList(from, Math.min(from + ORDER_INSERT_BATCH_SIZE, allOrders.size()));
+                int insertCount = orderMapper.insertBatch(batch);
+                if (insertCount != batch.size()) {
+                    log.error("结算订单批量插入失败，结算单号：{}，预期：{}，实际：{}", checkoutNo, batch.size(), insertCount);
+                    throw new BusinessException(SystemErrorCode.DATA_INSERT_FAILED, "订单创建失败，请重试");
+                }
+            }
+
+            // 7. 组装结算结果
+            OrderCheckoutResultDTO result = new OrderCheckoutResultDTO();
+            result.setCheckoutNo(checkoutNo);
+            result.setTotalAmount(actualAmount);
+            sellerOrders.forEach((sellerId, orders) -> {
+                OrderCheckoutResultDTO.SubOrderDTO subOrder = new OrderCheckoutResultDTO.SubOrderDTO();
+                subOrder.setSellerId(sellerId);
+                subOrder.setSubtotal(orders.stream().map(Order::getTotalAmount).reduce(BigDecimal.ZERO, BigDecimal::add));
+                orders.forEach(order -> {
+                    subOrder.getOrderIds().add(order.getOrderId());
+                    subOrder.getOrderNos().add(order.getOrderNo());
+                });
+                result.getSubOrders().add(subOrder);
+            });
+
+            // 8. 事务提交后清理购物车中已结算的商品
+            List<Long> productIds = items.stream().map(CartItemAddDTO::getProductId).collect(Collectors.toList());
+            TransactionUtil.afterCommit(() -> cartService.removeItems(userId, productIds));
+
+            // 9. 发送一条聚合结算事件（替代逐单发送）
+            sendCheckoutEvent(checkoutNo, userId, actualAmount, allOrders);
+
+            log.info("购物车结算成功，结算单号：{}，买家ID：{}，商品种类：{}，子订单数：{}",
+                    checkoutNo, userId, items.size(), sellerOrders.size());
+            return result;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("购物车结算异常", e);
+            throw new BusinessException(SystemErrorCode.FAILURE, "结算异常，请联系客服");
+        }
+    }
+
     /**
      * 取消订单
-     * 核心逻辑：参数校验→订单存在性校验→权限校验→状态校验→恢复库存→更新订单状态→发送通知
+     * 核心逻辑：参数校验→订单存在性校验→识别管理员→状态机流转（状态与守卫校验、条件更新、恢复库存、事件）→清除缓存
      */
     @Override
     @Transactional(isolation = Isolation.READ_COMMITTED, rollbackFor = Exception.class)
@@ -201,50 +359,19 @@ public class OrderServiceImpl extends BaseServiceImpl<OrderMapper, Order> implem
                 throw new BusinessException(OrderErrorCode.ORDER_NOT_EXISTS);
             }
 
-            // 3. 权限校验（买家或管理员可取消）
+            // 3. 识别管理员（买家或管理员可取消，由状态机守卫校验）
             UserDTO operator = userUtil.getUserById(userId);
-            boolean isBuyer = Objects.equals(order.getBuyerId(), userId);
             boolean isAdmin = operator != null && UserRoleEnum.ADMIN.equals(operator.getRole());
-            if (!isBuyer && !isAdmin) {
-                throw new BusinessException(SystemErrorCode.PERMISSION_DENIED, "无权限取消此订单");
-            }
-
-            // 4. 订单状态校验（仅待支付状态可取消）
-            if (!OrderStatusEnum.PENDING_PAYMENT.equals(order.getStatus())) {
-                throw new BusinessException(OrderErrorCode.ORDER_STATUS_INVALID,
-                        "订单状态为【" + order.getStatus().getDesc() + "】，不允许取消");
-            }
-
-            // 5. 恢复商品库存
-            Product product = productService.getById(order.getProductId());
-            if (product == null) {
-                throw new BusinessException(ProductErrorCode.PRODUCT_NOT_EXISTS, "商品不存在，无法恢复库存");
-            }
-            ProductStockUpdateDTO stockUpdateDTO = new ProductStockUpdateDTO(product.getProductId(),
-                    order.getQuantity(), "订单创建");
-            int stockUpdateCount = productService.updateStock(product.getSellerId(), stockUpdateDTO);
-            if (stockUpdateCount != 1) {
-                throw new BusinessException(SystemErrorCode.DATA_UPDATE_FAILED, "库存恢复失败，取消订单回滚");
-            }
 
-            // 6. 更新订单状态为已取消
-            order.setStatus(OrderStatusEnum.CANCELLED);
-            order.setCancelTime(LocalDateTime.now());
-//            order.setCancelReason(isBuyer ? "买家主动取消" : "管理员操作取消");
-            int orderUpdateCount = orderMapper.updateById(order);
-            if (orderUpdateCount != 1) {
-                throw new BusinessException(SystemErrorCode.DATA_UPDATE_FAILED, "订单状态更新失败");
-            }
+            // 4. 状态流转：待支付→已取消（条件更新失败说明订单已被并发支付或关闭），同时恢复库存并发送取消事件
+            orderStateMachine.fire(order, OrderTransitionEnum.CANCEL, userId, isAdmin);
 
-            // 7. 清除缓存
+            // 5. 清除缓存
             redisTemplate.delete(CACHE_KEY_ORDER + orderId);
             // 清除订单列表缓存（买家和卖家）
             redisTemplate.delete(CACHE_KEY_ORDER_LIST + "buyer:" + order.getBuyerId());
             redisTemplate.delete(CACHE_KEY_ORDER_LIST + "seller:" + order.getSellerId());
 
-            // 8. 发送取消通知给卖家
-            sendOrderNotice(order, OrderStatusEnum.CANCELLED.getCode());
-
             log.info("订单取消成功，订单ID：{}，操作人ID：{}", orderId, userId);
             return true;
         } catch (BusinessException e) {
@@ -257,10 +384,10 @@ public class OrderServiceImpl extends BaseServiceImpl<OrderMapper, Order> implem
 
     /**
      * 支付订单回调处理
-     * 核心逻辑：参数校验→签名校验→订单校验→状态校验→更新订单支付信息→发送通知
+     * 核心逻辑：参数校验→签名校验→交由PayCallbackService幂等处理（去重→订单条件更新→提交后异步清缓存与发通知）
+     * 不在此开启事务：回调处理失败时需返回fail而非回滚异常，事务由PayCallbackService自行管理
      */
     @Override
-    @Transactional(isolation = Isolation.READ_COMMITTED, rollbackFor = Exception.class)
     public String handlePayCallback(PayCallbackDTO payCallbackDTO) {
         try {
             // 1. 基础参数校验
@@ -277,48 +404,12 @@ public class OrderServiceImpl extends BaseServiceImpl<OrderMapper, Order> implem
                 return "fail:签名验证失败";
             }
 
-            // 3. 订单查询与校验
-            Order order = orderMapper.selectByOrderNo(payCallbackDTO.getOrderNo());
-            if (order == null) {
-                log.error("支付回调订单不存在，订单号：{}", payCallbackDTO.getOrderNo());
-                return "fail:订单不存在";
-            }
-
-            // 4. 订单状态校验（仅待支付状态可处理支付）
-            if (!OrderStatusEnum.PENDING_PAYMENT.equals(order.getStatus())) {
-                log.error("支付回调订单状态异常，订单号：{}，当前状态：{}",
-                        payCallbackDTO.getOrderNo(), order.getStatus().name());
-                return "fail:订单状态异常，当前状态：" + order.getStatus().getDesc();
-            }
-
-            // 5. 支付金额校验
-            if (order.getTotalAmount().subtract(payCallbackDTO.getPayAmount()).abs().compareTo(new BigDecimal("0.01")) > 0) {
-                log.error("支付回调金额不匹配，订单号：{}，订单金额：{}，支付金额：{}",
-                        payCallbackDTO.getOrderNo(), order.getTotalAmount(), payCallbackDTO.getPayAmount());
-                return "fail:支付金额与订单金额不一致";
-            }
-
-            // 6. 更新订单支付信息
-            order.setStatus(OrderStatusEnum.PENDING_SHIPMENT);
-            order.setPayTime(LocalDateTime.now());
-//            order.setPayNo(payCallbackDTO.getPayNo()); // 第三方支付流水号
-            int updateCount = orderMapper.updateById(order);
-            if (updateCount != 1) {
-                log.error("支付回调订单状态更新失败，订单号：{}", payCallbackDTO.getOrderNo());
-                return "fail:订单支付状态更新失败";
-            }
-
-            // 7. 清除缓存
-            redisTemplate.delete(CACHE_KEY_ORDER + order.getOrderId());
-            redisTemplate.delete(CACHE_KEY_ORDER_LIST + "buyer:" + order.getBuyerId());
-            redisTemplate.delete(CACHE_KEY_ORDER_LIST + "seller:" + order.getSellerId());
-
-            // 8. 发送支付成功通知（买家 + 卖家）
-            sendOrderNotice(order,OrderStatusEnum.PENDING_SHIPMENT.getCode());
-
-            log.info("支付回调处理成功，订单号：{}，支付流水号：{}",
-                    payCallbackDTO.getOrderNo(), payCallbackDTO.getPayNo());
+            // 3. 幂等处理（重复回调直接返回成功，避免支付平台持续重试）
+            payCallbackService.processPaySuccess(payCallbackDTO, payCallbackDTO.toString());
             return "success";
+        } catch (BusinessException e) {
+            log.error("支付回调处理失败，订单号：{}，原因：{}", payCallbackDTO.getOrderNo(), e.getMessage());
+            return "fail:" + e.getMessage();
         } catch (IllegalArgumentException e) {
             log.error("支付回调支付方式枚举转换失败，参数：{}", payCallbackDTO.getPayType());
             return "fail:支付方式非法";
@@ -330,7 +421,7 @@ public class OrderServiceImpl extends BaseServiceImpl<OrderMapper, Order> implem
 
     /**
      * 卖家发货
-     * 核心逻辑：参数校验→订单校验→权限校验→状态校验→更新订单发货信息→发送通知
+     * 核心逻辑：参数校验→订单校验→状态机流转（状态与卖家守卫校验、条件更新、事件）→刷新缓存
      */
     @Override
     @Transactional(isolation = Isolation.READ_COMMITTED, rollbackFor = Exception.class)
@@ -350,29 +441,13 @@ public class OrderServiceImpl extends BaseServiceImpl<OrderMapper, Order> implem
                 throw new BusinessException(OrderErrorCode.ORDER_NOT_EXISTS);
             }
 
-            // 3. 权限校验（仅订单所属卖家可发货）
-            if (!Objects.equals(order.getSellerId(), sellerId)) {
-                throw new BusinessException(SystemErrorCode.PERMISSION_DENIED, "无权限发货，此订单不属于当前卖家");
-            }
-
-            // 4. 订单状态校验（仅已支付状态可发货）
-            if (!OrderStatusEnum.PENDING_SHIPMENT.equals(order.getStatus())) {
-                throw new BusinessException(OrderErrorCode.ORDER_STATUS_INVALID,
-                        "订单状态为【" + order.getStatus().getDesc() + "】，不允许发货");
-            }
-
-            // 5. 更新订单发货信息
-            order.setStatus(OrderStatusEnum.SHIPPED);
-            order.setShipTime(LocalDateTime.now());
-            int updateCount = orderMapper.updateById(order);
-            if (updateCount != 1) {
-                throw new BusinessException(SystemErrorCode.DATA_UPDATE_FAILED, "订单发货状态更新失败");
-            }
+            // 3. 状态流转：待发货→已发货（仅订单所属卖家），并发送发货事件
+            orderStateMachine.fire(order, OrderTransitionEnum.SHIP, sellerId, false);
 
-            // 6. 转换为DTO并补充商品信息
+            // 4. 转换为DTO并补充商品信息
             OrderDetailDTO orderDetail = this.OrderToOrderDetailDTO(order);
 
-            // 7. 缓存更新后的订单详情
+            // 5. 缓存更新后的订单详情
             redisTemplate.opsForValue().set(
                     CACHE_KEY_ORDER + orderId,
                     orderDetail,
@@ -383,9 +458,6 @@ public class OrderServiceImpl extends BaseServiceImpl<OrderMapper, Order> implem
             redisTemplate.delete(CACHE_KEY_ORDER_LIST + "buyer:" + order.getBuyerId());
             redisTemplate.delete(CACHE_KEY_ORDER_LIST + "seller:" + sellerId);
 
-            // 8. 发送发货通知给买家
-            sendOrderNotice(order, OrderStatusEnum.SHIPPED.getCode());
-
             log.info("订单发货成功，订单ID：{}，卖家ID：{}", orderId, sellerId);
             return orderDetail;
         } catch (BusinessException e) {
@@ -398,7 +470,7 @@ public class OrderServiceImpl extends BaseServiceImpl<OrderMapper, Order> implem
 
     /**
      * 买家确认收货
-     * 核心逻辑：参数校验→订单校验→权限校验→状态校验→更新订单状态→发送通知
+     * 核心逻辑：参数校验→订单校验→状态机流转（状态与买家守卫校验、条件更新、事件）→刷新缓存
      */
     @Override
     @Transactional(isolation = Isolation.READ_COMMITTED, rollbackFor = Exception.class)
@@ -416,29 +488,13 @@ public class OrderServiceImpl extends BaseServiceImpl<OrderMapper, Order> implem
                 throw new BusinessException(OrderErrorCode.ORDER_NOT_EXISTS);
             }
 
-            // 3. 权限校验（仅订单所属买家可确认收货）
-            if (!Objects.equals(order.getBuyerId(), buyerId)) {
-                throw new BusinessException(SystemErrorCode.PERMISSION_DENIED, "无权限确认收货，此订单不属于当前买家");
-            }
-
-            // 4. 订单状态校验（仅已发货状态可确认收货）
-            if (!OrderStatusEnum.SHIPPED.equals(order.getStatus())) {
-                throw new BusinessException(OrderErrorCode.ORDER_STATUS_INVALID,
-                        "订单状态为【" + order.getStatus().getDesc() + "】，不允许确认收货");
-            }
-
-            // 5. 更新订单状态为已完成
-            order.setStatus(OrderStatusEnum.COMPLETED);
-            order.setReceiveTime(LocalDateTime.now());
-            int updateCount = orderMapper.updateById(order);
-            if (updateCount != 1) {
-                throw new BusinessException(SystemErrorCode.DATA_UPDATE_FAILED, "订单确认收货状态更新失败");
-            }
+            // 3. 状态流转：已发货/待收货→已完成（仅订单所属买家），并发送完成事件
+            orderStateMachine.fire(order, OrderTransitionEnum.CONFIRM_RECEIVE, buyerId, false);
 
-            // 6. 转换为DTO并补充商品信息
+            // 4. 转换为DTO并补充商品信息
             OrderDetailDTO orderDetail = this.OrderToOrderDetailDTO(order);
 
-            // 7. 缓存更新后的订单详情
+            // 5. 缓存更新后的订单详情
             redisTemplate.opsForValue().set(
                     CACHE_KEY_ORDER + orderId,
                     orderDetail,
@@ -449,9 +505,6 @@ public class OrderServiceImpl extends BaseServiceImpl<OrderMapper, Order> implem
             redisTemplate.delete(CACHE_KEY_ORDER_LIST + "buyer:" + buyerId);
             redisTemplate.delete(CACHE_KEY_ORDER_LIST + "seller:" + order.getSellerId());
 
-            // 8. 发送确认收货通知给卖家
-            sendOrderNotice(order, OrderStatusEnum.COMPLETED.getCode());
-
             log.info("订单确认收货成功，订单ID：{}，买家ID：{}", orderId, buyerId);
             return orderDetail;
         } catch (BusinessException e) {
@@ -514,10 +567,10 @@ public class OrderServiceImpl extends BaseServiceImpl<OrderMapper, Order> implem
 
     /**
      * 买家查询订单列表
-     * 核心逻辑：参数处理→缓存查询→数据库查询→数据转换→缓存更新
+     * 核心逻辑：参数处理→游标解析→单表查询order_view读模型→数据转换
      */
     @Override
-    public PageResult<OrderListItemDTO> getBuyerOrders(Long buyerId, OrderQueryDTO queryDTO) {
+    public CursorPageResult<OrderListItemDTO> getBuyerOrders(Long buyerId, OrderQueryDTO queryDTO) {
         try {
             // 1. 基础参数校验
             if (buyerId == null) {
@@ -527,48 +580,20 @@ public class OrderServiceImpl extends BaseServiceImpl<OrderMapper, Order> implem
                 queryDTO = new OrderQueryDTO();
             }
 
-            // 2. 处理分页参数（默认页码1，每页10条）
-            int pageNum = queryDTO.getPageNum() == null ? 1 : queryDTO.getPageNum();
-            int pageSize = queryDTO.getPageSize() == null ? 10 : queryDTO.getPageSize();
-            int offset = (pageNum - 1) * pageSize;
-
-            // 3. 构建缓存Key（包含买家ID、状态、分页参数）
-            String cacheKey = CACHE_KEY_ORDER_LIST + "buyer:" + buyerId
-                    + ":status:" + (queryDTO.getStatus() == null ? "ALL" : queryDTO.getStatus().name())
-                    + ":page:" + pageNum + ":size:" + pageSize;
-
-            // 4. 优先查询缓存
-            PageResult<OrderListItemDTO> cacheResult = (PageResult<OrderListItemDTO>) redisTemplate.opsForValue().get(cacheKey);
-            if (cacheResult != null) {
-                log.info("从缓存获取买家订单列表，买家ID：{}，页码：{}", buyerId, pageNum);
-                return cacheResult;
-            }
-
-            // 5. 数据库查询（订单列表 + 总条数）
-            List<Order> orderList = orderMapper.selectByBuyerId(buyerId, queryDTO.getStatus(), offset, pageSize);
-            long total = orderMapper.countByBuyerId(buyerId, queryDTO.getStatus());
-
-            // 6. 转换为订单列表DTO（补充商品缩略信息）
-            List<OrderListItemDTO> listDTOs = orderList.stream().map(order -> {
-                OrderListItemDTO listDTO = orderConvert.orderToOrderListItemDTO(order);
-                Product product = productService.getById(order.getProductId());
-//                if (product != null) {
-//                    listDTO.setProductSummary(product.getTitle());
-//                    listDTO.setProductImage(product.getImageUrls().length > 0 ? product.getImageUrls()[0] : "");
-//                }
-                return listDTO;
-            }).collect(Collectors.toList());
-
-            // 7. 封装分页结果
-            long totalPages = (total + pageSize - 1) / pageSize;
-            PageResult<OrderListItemDTO> result = new PageResult<>(
-                    total, totalPages, listDTOs, pageNum, pageSize
-            );
+            // 2. 处理分页参数（默认每页10条，多查1条用于判断是否还有下一页）
+            int pageSize = resolveListPageSize(queryDTO);
+            LocalDateTime lastCreateTime = CursorUtil.decodeTime(queryDTO.getCursor());
+            Long lastOrderId = CursorUtil.decodeId(queryDTO.getCursor());
 
-            // 8. 缓存订单列表
-            redisTemplate.opsForValue().set(cacheKey, result, CACHE_TTL_ORDER_LIST, TimeUnit.MINUTES);
+            // 3. 单表查询读模型（命中idx_buyer_time索引，无需关联商品表或调用用户服务）
+            List<OrderView> views = orderViewMapper.selectByBuyerCursor(
+                    buyerId, queryDTO.getStatus(), lastCreateTime, lastOrderId, pageSize + 1);
 
-            log.info("查询买家订单列表成功，买家ID：{}，总条数：{}，页码：{}", buyerId, total, pageNum);
+            // 4. 转换为游标分页结果（买家视角展示卖家昵称）
+            CursorPageResult<OrderListItemDTO> result = buildOrderCursorPage(views, pageSize, true);
+
+            log.info("查询买家订单列表成功，买家ID：{}，本页条数：{}，是否有下一页：{}",
+                    buyerId, result.getList().size(), result.getHasMore());
             return result;
         } catch (BusinessException e) {
             throw e;
@@ -580,10 +605,10 @@ public class OrderServiceImpl extends BaseServiceImpl<OrderMapper, Order> implem
 
     /**
      * 卖家查询订单列表
-     * 核心逻辑：参数处理→缓存查询→数据库查询→数据转换→缓存更新
+     * 核心逻辑：参数处理→游标解析→单表查询order_view读模型→数据转换
      */
     @Override
-    public PageResult<OrderListItemDTO> getSellerOrders(Long sellerId, OrderQueryDTO queryDTO) {
+    public CursorPageResult<OrderListItemDTO> getSellerOrders(Long sellerId, OrderQueryDTO queryDTO) {
         try {
             // 1. 基础参数校验
             if (sellerId == null) {
@@ -593,48 +618,20 @@ public class OrderServiceImpl extends BaseServiceImpl<OrderMapper, Order> implem
                 queryDTO = new OrderQueryDTO();
             }
 
-            // 2. 处理分页参数（默认页码1，每页10条）
-            int pageNum = queryDTO.getPageNum() == null ? 1 : queryDTO.getPageNum();
-            int pageSize = queryDTO.getPageSize() == null ? 10 : queryDTO.getPageSize();
-            int offset = (pageNum - 1) * pageSize;
-
-            // 3. 构建缓存Key（包含卖家ID、状态、分页参数）
-            String cacheKey = CACHE_KEY_ORDER_LIST + "seller:" + sellerId
-                    + ":status:" + (queryDTO.getStatus() == null ? "ALL" : queryDTO.getStatus().name())
-                    + ":page:" + pageNum + ":size:" + pageSize;
-
-            // 4. 优先查询缓存
-            PageResult<OrderListItemDTO> cacheResult = (PageResult<OrderListItemDTO>) redisTemplate.opsForValue().get(cacheKey);
-            if (cacheResult != null) {
-                log.info("从缓存获取卖家订单列表，卖家ID：{}，页码：{}", sellerId, pageNum);
-                return cacheResult;
-            }
-
-            // 5. 数据库查询（订单列表 + 总条数）
-            List<Order> orderList = orderMapper.selectBySellerId(sellerId, queryDTO.getStatus(), offset, pageSize);
-            long total = orderMapper.countBySellerId(sellerId, queryDTO.getStatus());
-
-            // 6. 转换为订单列表DTO（补充商品缩略信息）
-            List<OrderListItemDTO> listDTOs = orderList.stream().map(order -> {
-                OrderListItemDTO listDTO = orderConvert.orderToOrderListItemDTO(order);
-                Product product = productService.getById(order.getProductId());
-//                if (product != null) {
-//                    listDTO.setProductSummary(product.getTitle());
-//                    listDTO.setProductImage(product.getImageUrls().length > 0 ? product.getImageUrls()[0] : "");
-//                }
-                return listDTO;
-            }).collect(Collectors.toList());
-
-            // 7. 封装分页结果
-            long totalPages = (total + pageSize - 1) / pageSize;
-            PageResult<OrderListItemDTO> result = new PageResult<>(
-                    total, totalPages, listDTOs, pageNum, pageSize
-            );
+            // 2. 处理分页参数（默认每页10条，多查1条用于判断是否还有下一页）
+            int pageSize = resolveListPageSize(queryDTO);
+            LocalDateTime lastCreateTime = CursorUtil.decodeTime(queryDTO.getCursor());
+            Long lastOrderId = CursorUtil.decodeId(queryDTO.getCursor());
 
-            // 8. 缓存订单列表
-            redisTemplate.opsForValue().set(cacheKey, result, CACHE_TTL_ORDER_LIST, TimeUnit.MINUTES);
+            // 3. 单表查询读模型（命中idx_seller_time索引，无需关联商品表或调用用户服务）
+            List<OrderView> views = orderViewMapper.selectBySellerCursor(
+                    sellerId, queryDTO.getStatus(), lastCreateTime, lastOrderId, pageSize + 1);
 
-            log.info("查询卖家订单列表成功，卖家ID：{}，总条数：{}，页码：{}", sellerId, total, pageNum);
+            // 4. 转换为游标分页结果（卖家视角展示买家昵称）
+            CursorPageResult<OrderListItemDTO> result = buildOrderCursorPage(views, pageSize, false);
+
+            log.info("查询卖家订单列表成功，卖家ID：{}，本页条数：{}，是否有下一页：{}",
+                    sellerId, result.getList().size(), result.getHasMore());
             return result;
         } catch (BusinessException e) {
             throw e;
@@ -646,7 +643,7 @@ public class OrderServiceImpl extends BaseServiceImpl<OrderMapper, Order> implem
 
     /**
      * 自动关闭超时未支付订单（定时任务调用）
-     * 核心逻辑：查询超时订单→批量更新状态→恢复库存→发送通知
+     * 核心逻辑：查询超时订单→逐单状态机流转（条件更新、恢复库存、事件）→清除缓存
      */
     @Override
     @Transactional(isolation = Isolation.READ_COMMITTED, rollbackFor = Exception.class)
@@ -666,44 +663,25 @@ public class OrderServiceImpl extends BaseServiceImpl<OrderMapper, Order> implem
                 return 0;
             }
 
-            // 3. 批量处理超时订单（更新状态 + 恢复库存）
+            // 3. 逐单关闭（条件更新失败说明订单在查询后已被支付或取消，跳过）
             int closedCount = 0;
             for (Order order : timeoutOrders) {
                 try {
-                    // 3.1 更新订单状态为已取消
-                    order.setStatus(OrderStatusEnum.CANCELLED);
-                    order.setCancelTime(LocalDateTime.now());
-//                    order.setCancelReason("超时未支付，系统自动关闭");
-                    int updateCount = orderMapper.updateById(order);
-                    if (updateCount != 1) {
-                        log.error("自动关闭订单状态更新失败，订单ID：{}", order.getOrderId());
-                        continue;
-                    }
-
-                    // 3.2 恢复商品库存
-                    Product product = productService.getById(order.getProductId());
-                    ProductStockUpdateDTO stockUpdateDTO = new ProductStockUpdateDTO(order.getProductId(),
-                            order.getQuantity(), "订单超时关闭");
-                    if (product != null) {
-                        productService.updateStock(product.getProductId(), stockUpdateDTO);
-                    } else {
-                        log.warn("自动关闭订单商品不存在，无法恢复库存，订单ID：{}", order.getOrderId());
-                    }
-
-                    // 3.3 清除缓存
+                    // 3.1 状态流转：待支付→已取消，同时恢复库存并发送取消事件
+                    orderStateMachine.fire(order, OrderTransitionEnum.TIMEOUT_CLOSE, null, false);
+
+                    // 3.2 清除缓存
                     redisTemplate.delete(CACHE_KEY_ORDER + order.getOrderId());
                     redisTemplate.delete(CACHE_KEY_ORDER_LIST + "buyer:" + order.getBuyerId());
                     redisTemplate.delete(CACHE_KEY_ORDER_LIST + "seller:" + order.getSellerId());
 
-                    // 3.4 发送系统关闭通知给买家
-                    sendOrderNotice(order, OrderStatusEnum.CANCELLED.getCode());
-
                     closedCount++;
                     log.info("自动关闭超时订单成功，订单ID：{}，订单编号：{}", order.getOrderId(), order.getOrderNo());
+                } catch (BusinessException e) {
+                    log.info("自动关闭订单跳过，订单ID：{}，原因：{}", order.getOrderId(), e.getMessage());
                 } catch (Exception e) {
                     log.error("自动关闭订单异常，订单ID：{}", order.getOrderId(), e);
                     // 单个订单处理失败不影响其他订单
-                    continue;
                 }
             }
 
@@ -719,9 +697,10 @@ public class OrderServiceImpl extends BaseServiceImpl<OrderMapper, Order> implem
 
     /**
      * 更新订单状态（基础CRUD）
-     * 核心逻辑：校验状态流转合法性与操作用户权限，更新状态并刷新缓存
+     * 核心逻辑：按源状态与目标状态查找流转表，由状态机校验守卫并条件更新，刷新缓存
      */
     @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED, rollbackFor = Exception.class)
     public Boolean updateOrderStatus(Long orderId, OrderStatusEnum status, Long operatorId) {
         try {
             // 1. 参数校验
@@ -735,26 +714,23 @@ public class OrderServiceImpl extends BaseServiceImpl<OrderMapper, Order> implem
                 throw new BusinessException(OrderErrorCode.ORDER_NOT_EXISTS);
             }
 
-            // 3. 校验状态流转合法性（示例：待支付→已取消、待支付→已支付等）
-            validateOrderStatusTransition(order.getStatus(), status);
-
-            // 4. 校验操作用户权限
-            validateOrderOperatorPermission(order, status, operatorId);
-
-            // 5. 更新订单状态
-            int updateRows = orderMapper.updateStatus(orderId, status);
-            if (updateRows <= 0) {
-                log.error("更新订单状态失败，订单ID：{}，目标状态：{}", orderId, status);
-                throw new BusinessException(SystemErrorCode.DATA_UPDATE_FAILED);
+            // 3. 查找状态流转（流转表未声明的流转不允许）
+            OrderStatusEnum fromStatus = order.getStatus();
+            OrderTransitionEnum transition = OrderTransitionEnum.resolve(fromStatus, status);
+            if (transition == null) {
+                throw new BusinessException(OrderErrorCode.ORDER_STATUS_INVALID);
             }
 
-            // 6. 刷新缓存（删除旧缓存，下次查询重新加载）
+            // 4. 状态流转（守卫校验操作人角色，条件更新失败说明订单状态已被并发修改）
+            orderStateMachine.fire(order, transition, operatorId, false);
+
+            // 5. 刷新缓存（删除旧缓存，下次查询重新加载）
             redisTemplate.delete(CACHE_KEY_ORDER + orderId);
             redisTemplate.delete(CACHE_KEY_USER_ORDERS + order.getBuyerId()); // 删除买家订单列表缓存
             redisTemplate.delete(CACHE_KEY_USER_ORDERS + order.getSellerId()); // 删除卖家订单列表缓存
 
             log.info("更新订单状态成功，订单ID：{}，原状态：{}，新状态：{}，操作人：{}",
-                    orderId, order.getStatus(), status, operatorId);
+                    orderId, fromStatus, status, operatorId);
             return true;
 
         } catch (BusinessException e) {
@@ -765,6 +741,36 @@ public class OrderServiceImpl extends BaseServiceImpl<OrderMapper, Order> implem
         }
     }
 
+    /**
+     * 流式导出订单CSV
+     * 核心逻辑：参数校验→设置下载响应头→事务内打开数据库游标→逐行写出（按分块flush）
+     * 游标需在事务（同一数据库连接）内遍历，只读事务避免长时间占用写锁
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportOrders(Long sellerId, LocalDateTime startTime, LocalDateTime endTime, HttpServletResponse response) {
+        // 1. 参数校验
+        if (startTime != null && endTime != null && startTime.isAfter(endTime)) {
+            throw new BusinessException(SystemErrorCode.PARAM_ERROR, "开始时间不能晚于结束时间");
+        }
+
+        // 2. 设置下载响应头（此后开始写出数据，异常无法再以JSON返回）
+        CsvStreamWriter.prepareResponse(response, "订单导出_" + LocalDateTime.now().format(EXPORT_FILE_TIME_FORMATTER));
+
+        // 3. 逐行读取游标并写出
+        String role = sellerId == null ? null : "SELLER";
+        long rows = 0;
+        try (Cursor<Order> cursor = orderMapper.streamByCreateTimeRange(sellerId, role, startTime, endTime)) {
+            CsvStreamWriter<Order> writer = new CsvStreamWriter<>(response.getOutputStream(), ORDER_EXPORT_COLUMNS);
+            rows = writer.writeAll(cursor);
+            log.info("订单导出完成，卖家ID：{}，时间范围：{} ~ {}，行数：{}", sellerId, startTime, endTime, rows);
+        } catch (IOException e) {
+            // 客户端中断下载或连接断开（响应已提交，仅记录日志）
+            log.warn("订单导出中断，卖家ID：{}，原因：{}", sellerId, e.getMessage());
+        }
+        return rows;
+    }
+
     // ---------------------- 私有辅助方法 ----------------------
 
     private OrderDetailDTO OrderToOrderDetailDTO(Order order) {
@@ -852,96 +858,104 @@ public class OrderServiceImpl extends BaseServiceImpl<OrderMapper, Order> implem
         }
     }
 
+    /**
+     * 发送订单创建事件（事务提交后发送，保证消费者可读到最新订单数据）
+     * 状态流转事件由OrderStateMachine按流转事件类型发送
+     */
     private void sendOrderNotice(Order order, String type) {
         OrderEventDTO event = new OrderEventDTO(order.getOrderId(), order.getBuyerId(),
                 order.getSellerId(), order.getOrderNo(), type);
 
-        // 发送到 order.topic 交换机，路由键为 order.pay.success
-        rabbitTemplate.convertAndSend("order.topic", "order.pay.success", event);
+        // 发送订单创建事件（独立路由键，仅绑定该类型的队列接收，下单不会触发支付奖励）
+        TransactionUtil.afterCommit(() -> rabbitTemplate.convertAndSend(
+                MqEventTypeEnum.ORDER_CREATED.getExchange(), MqEventTypeEnum.ORDER_CREATED.getRoutingKey(), event));
+    }
 
+    /**
+     * 发送结算聚合事件（一次结算仅一条消息，事务提交后发送）
+     * 独立路由键，仅绑定结算事件的队列接收，避免单订单消费者误消费
+     */
+    private void sendCheckoutEvent(String checkoutNo, Long buyerId, BigDecimal totalAmount, List<Order> orders) {
+        List<OrderEventDTO> orderEvents = orders.stream()
+                .map(order -> new OrderEventDTO(order.getOrderId(), order.getBuyerId(), order.getSellerId(),
+                        order.getOrderNo(), OrderStatusEnum.PENDING_PAYMENT.getCode()))
+                .collect(Collectors.toList());
+        OrderCheckoutEventDTO event = new OrderCheckoutEventDTO(checkoutNo, buyerId, totalAmount, orderEvents);
+
+        TransactionUtil.afterCommit(() -> rabbitTemplate.convertAndSend(
+                MqEventTypeEnum.CHECKOUT_CREATED.getExchange(), MqEventTypeEnum.CHECKOUT_CREATED.getRoutingKey(), event));
     }
 
     /**
-     * 校验订单状态流转合法性
-     * 仅允许特定状态之间的转换（如待支付→已支付、待支付→已取消等）
-     * @param currentStatus 当前订单状态
-     * @param targetStatus 目标订单状态
+     * 校验结算参数并合并重复商品（同一商品数量累加，保持提交顺序）
      */
-    private void validateOrderStatusTransition(OrderStatusEnum currentStatus, OrderStatusEnum targetStatus) {
-        // 状态流转规则：待支付→已支付/已取消；已支付→已发货/已取消；已发货→已完成/已退货；已完成→无后续；已取消→无后续
-        switch (currentStatus) {
-            case PENDING_PAYMENT:
-                // 待支付状态仅允许转为已支付或已取消
-                if (!OrderStatusEnum.PENDING_SHIPMENT.equals(targetStatus) && !OrderStatusEnum.CANCELLED.equals(targetStatus)) {
-                    throw new BusinessException(OrderErrorCode.ORDER_STATUS_INVALID);
-                }
-                break;
-            case PENDING_SHIPMENT:
-                // 已支付状态仅允许转为已发货或已取消（需特殊业务审批，此处简化处理）
-                if (!OrderStatusEnum.SHIPPED.equals(targetStatus) && !OrderStatusEnum.CANCELLED.equals(targetStatus)) {
-                    throw new BusinessException(OrderErrorCode.ORDER_STATUS_INVALID);
-                }
-                break;
-            case SHIPPED:
-                // 已发货状态仅允许转为已完成或已退货
-                if (!OrderStatusEnum.COMPLETED.equals(targetStatus) && !OrderStatusEnum.RETURNED.equals(targetStatus)) {
-                    throw new BusinessException(OrderErrorCode.ORDER_STATUS_INVALID);
-                }
-                break;
-            case COMPLETED:
-            case CANCELLED:
-            case RETURNED:
-                // 终态状态不允许任何转换
-                throw new BusinessException(OrderErrorCode.ORDER_STATUS_INVALID);
-            default:
-                throw new BusinessException(OrderErrorCode.ORDER_STATUS_INVALID);
+    private List<CartItemAddDTO> mergeCheckoutItems(OrderCheckoutDTO checkoutDTO) {
+        if (checkoutDTO == null) {
+            throw new BusinessException(SystemErrorCode.PARAM_NULL, "结算参数不能为空");
+        }
+        if (checkoutDTO.getItems() == null || checkoutDTO.getItems().isEmpty()) {
+            throw new BusinessException(OrderErrorCode.CHECKOUT_ITEMS_EMPTY);
+        }
+        if (checkoutDTO.getTotalAmount() == null || checkoutDTO.getTotalAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new BusinessException(SystemErrorCode.PARAM_ERROR, "订单金额必须大于0");
+        }
+        if (!StringUtils.hasText(checkoutDTO.getAddress())) {
+            throw new BusinessException(SystemErrorCode.PARAM_NULL, "收货地址不能为空");
+        }
+        if (checkoutDTO.getPayType() == null) {
+            throw new BusinessException(SystemErrorCode.PARAM_NULL, "支付方式不能为空");
         }
+
+        Map<Long, Integer> quantityMap = new LinkedHashMap<>();
+        for (CartItemAddDTO item : checkoutDTO.getItems()) {
+            if (item == null || item.getProductId() == null) {
+                throw new BusinessException(SystemErrorCode.PARAM_NULL, "商品ID不能为空");
+            }
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new BusinessException(SystemErrorCode.PARAM_ERROR, "购买数量必须大于0");
+            }
+            quantityMap.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        if (quantityMap.size() > MAX_CHECKOUT_ITEMS) {
+            throw new BusinessException(OrderErrorCode.CHECKOUT_ITEMS_TOO_MANY, "单次最多结算" + MAX_CHECKOUT_ITEMS + "种商品");
+        }
+        return quantityMap.entrySet().stream()
+                .map(entry -> new CartItemAddDTO(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
     }
 
     /**
-     * 校验订单操作人权限
-     * 不同状态更新需对应权限（如买家取消待支付订单、卖家发货等）
-     * @param order 订单信息
-     * @param targetStatus 目标状态
-     * @param operatorId 操作人ID
+     * 解析订单列表每页条数（默认10条，最大MAX_LIST_PAGE_SIZE条）
      */
-    private void validateOrderOperatorPermission(Order order, OrderStatusEnum targetStatus, Long operatorId) {
-        Long buyerId = order.getBuyerId();
-        Long sellerId = order.getSellerId();
-
-        switch (targetStatus) {
-            case CANCELLED:
-                // 待支付订单可由买家取消；已支付订单取消需双方确认（此处简化为仅买家可发起）
-                if (!buyerId.equals(operatorId)) {
-                    throw new BusinessException(SystemErrorCode.PERMISSION_DENIED);
-                }
-                break;
-            case PENDING_SHIPMENT:
-                // 仅买家可支付订单
-                if (!buyerId.equals(operatorId)) {
-                    throw new BusinessException(SystemErrorCode.PERMISSION_DENIED);
-                }
-                break;
-            case SHIPPED:
-                // 仅卖家可操作发货
-                if (!sellerId.equals(operatorId)) {
-                    throw new BusinessException(SystemErrorCode.PERMISSION_DENIED);
-                }
-                break;
-            case COMPLETED:
-                // 仅买家可确认收货完成订单
-                if (!buyerId.equals(operatorId)) {
-                    throw new BusinessException(SystemErrorCode.PERMISSION_DENIED);
-                }
-                break;
-            case RETURNED:
-                // 退货需买家发起，此处简化为仅买家可操作
-                if (!buyerId.equals(operatorId)) {
-                    throw new BusinessException(SystemErrorCode.PERMISSION_DENIED);
-                }
-                break;
-            default:
-                throw new BusinessException(SystemErrorCode.PERMISSION_DENIED);
+    private int resolveListPageSize(OrderQueryDTO queryDTO) {
+        int pageSize = queryDTO.getPageSize() == null ? 10 : queryDTO.getPageSize();
+        if (pageSize <= 0) {
+            throw new BusinessException(SystemErrorCode.PARAM_ERROR, "每页条数必须大于0");
+        }
+        return Math.min(pageSize, MAX_LIST_PAGE_SIZE);
+    }
+
+    /**
+     * 将读模型查询结果（pageSize + 1条）封装为游标分页结果
+     * @param views 读模型列表
+     * @param pageSize 每页条数
+     * @param buyerSide 是否为买家视角（买家视角展示卖家昵称，卖家视角展示买家昵称）
+     */
+    private CursorPageResult<OrderListItemDTO> buildOrderCursorPage(List<OrderView> views, int pageSize, boolean buyerSide) {
+        boolean hasMore = views.size() > pageSize;
+        List<OrderView> pageViews = hasMore ? views.subList(0, pageSize) : views;
+
+        List<OrderListItemDTO> listDTOs = pageViews.stream().map(view -> {
+            OrderListItemDTO listDTO = orderConvert.orderViewToOrderListItemDTO(view);
+            listDTO.setCounterpartNickname(buyerSide ? view.getSellerNickname() : view.getBuyerNickname());
+            return listDTO;
+        }).collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (hasMore) {
+            OrderView last = pageViews.get(pageViews.size() - 1);
+            nextCursor = CursorUtil.encode(last.getCreateTime(), last.getOrderId());
         }
+        return new CursorPageResult<>(listDTOs, nextCursor, hasMore, pageSize);
     }
 }
@@ -0,0 +1,212 @@
+package xyz.graygoo401.trade.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import xyz.graygoo401.api.user.dto.user.UserDTO;
+import xyz.graygoo401.api.user.util.UserUtil;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.common.exception.error.SystemErrorCode;
+import xyz.graygoo401.common.service.BaseServiceImpl;
+import xyz.graygoo401.trade.dao.entity.Order;
+import xyz.graygoo401.trade.dao.entity.OrderView;
+import xyz.graygoo401.trade.dao.entity.Product;
+import xyz.graygoo401.trade.dao.mapper.OrderMapper;
+import xyz.graygoo401.trade.dao.mapper.OrderViewMapper;
+import xyz.graygoo401.trade.dao.mapper.ProductMapper;
+import xyz.graygoo401.trade.service.base.OrderViewService;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 订单列表读模型服务实现类
+ * 写侧允许查询商品表与远程调用用户服务，读侧（订单列表）仅查询order_view单表
+ */
+@Slf4j
+@Service
+public class OrderViewServiceImpl extends BaseServiceImpl<OrderViewMapper, OrderView> implements OrderViewService {
+
+    @Autowired
+    private OrderViewMapper orderViewMapper;
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private UserUtil userUtil;
+
+    /**
+     * 按订单最新数据刷新读模型
+     * 核心逻辑：查询订单→补充商品标题与首图→批量获取买卖双方昵称→upsert读模型
+     */
+    @Override
+    public Boolean refreshOrder(Long orderId) {
+        try {
+            // 1. 参数校验
+            if (orderId == null) {
+                throw new BusinessException(SystemErrorCode.PARAM_NULL, "订单ID不能为空");
+            }
+
+            // 2. 查询订单
+            Order order = orderMapper.selectById(orderId);
+            if (order == null) {
+                log.warn("刷新订单读模型失败，订单不存在，订单ID：{}", orderId);
+                return false;
+            }
+
+            // 3. 构建读模型（订单字段）
+            OrderView view = buildView(order);
+
+            // 4. 补充商品冗余信息
+            Product product = productMapper.selectById(order.getProductId());
+            if (product != null) {
+                view.setProductTitle(product.getTitle());
+                view.setProductImage(product.getMainImage());
+            }
+
+            // 5. 补充买卖双方昵称（一次批量远程调用）
+            fillNicknames(view);
+
+            // 6. 写入读模型
+            orderViewMapper.upsert(view);
+            log.info("刷新订单读模型成功，订单ID：{}，状态：{}", orderId, order.getStatus());
+            return true;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("刷新订单读模型异常，订单ID：{}", orderId, e);
+            throw new BusinessException(SystemErrorCode.FAILURE);
+        }
+    }
+
+    /**
+     * 批量刷新读模型
+     * 核心逻辑：批量查询订单→批量查询商品→一次批量远程调用获取昵称→逐条upsert
+     */
+    @Override
+    public int refreshOrders(List<Long> orderIds) {
+        try {
+            // 1. 参数校验
+            if (orderIds == null || orderIds.isEmpty()) {
+                return 0;
+            }
+
+            // 2. 批量查询订单
+            List<Order> orders = orderMapper.selectBatchIds(orderIds);
+            if (orders.isEmpty()) {
+                log.warn("批量刷新订单读模型失败，订单均不存在，订单ID：{}", orderIds);
+                return 0;
+            }
+
+            // 3. 批量查询商品
+            List<Long> productIds = orders.stream().map(Order::getProductId).distinct().collect(Collectors.toList());
+            Map<Long, Product> productMap = productMapper.selectBatchIds(productIds).stream()
+                    .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+
+            // 4. 批量获取买卖双方昵称（用户服务不可用时保留空值）
+            Map<Long, UserDTO> userMap = new HashMap<>();
+            try {
+                Set<Long> userIds = new HashSet<>();
+                orders.forEach(order -> {
+                    userIds.add(order.getBuyerId());
+                    userIds.add(order.getSellerId());
+                });
+                userMap = userUtil.getUserMapByIds(new ArrayList<>(userIds));
+            } catch (Exception e) {
+                log.warn("批量获取订单买卖双方昵称失败，订单ID：{}", orderIds, e);
+            }
+
+            // 5. 逐条写入读模型
+            for (Order order : orders) {
+                OrderView view = buildView(order);
+                Product product = productMap.get(order.getProductId());
+                if (product != null) {
+                    view.setProductTitle(product.getTitle());
+                    view.setProductImage(product.getMainImage());
+                }
+                UserDTO buyer = userMap.get(order.getBuyerId());
+                UserDTO seller = userMap.get(order.getSellerId());
+                view.setBuyerNickname(buyer != null ? buyer.getUsername() : null);
+                view.setSellerNickname(seller != null ? seller.getUsername() : null);
+                orderViewMapper.upsert(view);
+            }
+            log.info("批量刷新订单读模型成功，订单数：{}", orders.size());
+            return orders.size();
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("批量刷新订单读模型异常，订单ID：{}", orderIds, e);
+            throw new BusinessException(SystemErrorCode.FAILURE);
+        }
+    }
+
+    /**
+     * 同步商品冗余信息到读模型
+     * 核心逻辑：查询商品最新标题与首图→按商品ID更新关联的读模型记录
+     */
+    @Override
+    public int refreshProduct(Long productId) {
+        try {
+            // 1. 参数校验
+            if (productId == null) {
+                throw new BusinessException(SystemErrorCode.PARAM_NULL, "商品ID不能为空");
+            }
+
+            // 2. 查询商品最新信息（已删除的商品不再同步）
+            Product product = productMapper.selectById(productId);
+            if (product == null) {
+                return 0;
+            }
+
+            // 3. 按商品ID索引更新关联的读模型记录（标题与首图未变化的记录不写入，编辑商品描述、价格等不产生写入）
+            int updateRows = orderViewMapper.updateProductInfo(productId, product.getTitle(), product.getMainImage());
+            log.info("同步商品信息到订单读模型，商品ID：{}，影响记录数：{}", productId, updateRows);
+            return updateRows;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("同步商品信息到订单读模型异常，商品ID：{}", productId, e);
+            throw new BusinessException(SystemErrorCode.FAILURE);
+        }
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 由订单构建读模型（仅订单字段，冗余字段由调用方补充）
+     */
+    private OrderView buildView(Order order) {
+        OrderView view = new OrderView();
+        view.setOrderId(order.getOrderId());
+        view.setOrderNo(order.getOrderNo());
+        view.setBuyerId(order.getBuyerId());
+        view.setSellerId(order.getSellerId());
+        view.setProductId(order.getProductId());
+        view.setTotalAmount(order.getTotalAmount());
+        view.setQuantity(order.getQuantity());
+        view.setStatus(order.getStatus());
+        view.setCreateTime(order.getCreateTime());
+        view.setPayTime(order.getPayTime());
+        return view;
+    }
+
+    /**
+     * 填充买卖双方昵称（用户服务不可用时保留空值，不阻断读模型写入）
+     */
+    private void fillNicknames(OrderView view) {
+        try {
+            Map<Long, UserDTO> userMap = userUtil.getUserMapByIds(List.of(view.getBuyerId(), view.getSellerId()));
+            UserDTO buyer = userMap.get(view.getBuyerId());
+            UserDTO seller = userMap.get(view.getSellerId());
+            view.setBuyerNickname(buyer != null ? buyer.getUsername() : null);
+            view.setSellerNickname(seller != null ? seller.getUsername() : null);
+        } catch (Exception e) {
+            log.warn("获取订单买卖双方昵称失败，订单ID：{}", view.getOrderId(), e);
+        }
+    }
+}
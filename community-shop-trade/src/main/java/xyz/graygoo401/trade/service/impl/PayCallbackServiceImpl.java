@@ -0,0 +1,239 @@
+package xyz.graygoo401.trade.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import xyz.graygoo401.api.common.dto.mq.OrderEventDTO;
+import xyz.graygoo401.api.common.enums.MqEventTypeEnum;
+import xyz.graygoo401.api.trade.dto.order.PayCallbackDTO;
+import xyz.graygoo401.api.trade.enums.OrderStatusEnum;
+import xyz.graygoo401.api.trade.enums.PayStatusEnum;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.common.exception.error.SystemErrorCode;
+import xyz.graygoo401.common.service.BaseServiceImpl;
+import xyz.graygoo401.common.util.TransactionUtil;
+import xyz.graygoo401.trade.dao.entity.Order;
+import xyz.graygoo401.trade.dao.entity.PayCallbackRecord;
+import xyz.graygoo401.trade.dao.entity.Payment;
+import xyz.graygoo401.trade.dao.mapper.OrderMapper;
+import xyz.graygoo401.trade.dao.mapper.PayCallbackRecordMapper;
+import xyz.graygoo401.trade.dao.mapper.PaymentMapper;
+import xyz.graygoo401.trade.exception.error.OrderErrorCode;
+import xyz.graygoo401.trade.exception.error.PaymentErrorCode;
+import xyz.graygoo401.trade.service.base.PayCallbackService;
+import xyz.graygoo401.trade.service.base.SellerDailyStatsService;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 支付回调处理服务实现类
+ * 支付平台会对同一通知多次重试，三层去重保证订单只被更新一次、事件只发布一次：
+ * 1. Redis去重Key拦截已处理完成的重复回调（不访问数据库），Key仅在事务提交后写入，提交失败时不会残留；
+ * 2. 回调处理记录表 (trade_no, trade_status) 唯一索引拦截处理中的并发回调（Redis键丢失/过期时同样生效）；
+ * 3. 订单条件更新 WHERE status = 'PENDING_PAYMENT'（并发下仅一个事务能更新成功）。
+ * 订单已被取消等不可支付的情况不应答成功：回滚后返回失败并记录错误日志，由人工核实退款
+ */
+@Slf4j
+@Service
+public class PayCallbackServiceImpl extends BaseServiceImpl<PayCallbackRecordMapper, PayCallbackRecord> implements PayCallbackService {
+
+    private static final String CALLBACK_DEDUPE_KEY = "pay:callback:"; // 回调去重Key前缀（pay:callback:{tradeNo}:{status}）
+    private static final long CALLBACK_DEDUPE_EXPIRE_HOURS = 25; // 去重Key过期时间（覆盖支付宝24小时重试窗口）
+    private static final String DEFAULT_TRADE_STATUS = "SUCCESS"; // 回调未携带状态时的默认值
+    private static final String CACHE_KEY_ORDER = "order:info:"; // 订单信息缓存Key前缀
+    private static final String CACHE_KEY_ORDER_LIST = "order:list:"; // 订单列表缓存Key前缀
+    private static final DateTimeFormatter PAY_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    // 回调后续处理线程池（缓存清理、MQ通知），回调线程只做去重与状态更新，尽快应答支付平台
+    private static final ExecutorService CALLBACK_POST_EXECUTOR = Executors.newFixedThreadPool(4);
+
+    @Autowired
+    private PayCallbackRecordMapper payCallbackRecordMapper;
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    @Autowired
+    private PaymentMapper paymentMapper;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private SellerDailyStatsService sellerDailyStatsService;
+
+    /**
+     * 处理支付成功回调
+     * 核心逻辑：参数校验→Redis去重→处理记录去重→订单/金额校验→订单条件更新→支付记录条件更新→提交后写去重Key、异步清缓存与发通知
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public Boolean processPaySuccess(PayCallbackDTO payCallbackDTO, String rawContent) {
+        // 1. 基础参数校验
+        if (payCallbackDTO == null || !StringUtils.hasText(payCallbackDTO.getOrderNo())
+                || payCallbackDTO.getPayAmount() == null) {
+            throw new BusinessException(SystemErrorCode.PARAM_NULL, "支付回调参数不完整");
+        }
+        String tradeNo = StringUtils.hasText(payCallbackDTO.getPayNo())
+                ? payCallbackDTO.getPayNo() : payCallbackDTO.getOrderNo();
+        String tradeStatus = StringUtils.hasText(payCallbackDTO.getPayStatus())
+                ? payCallbackDTO.getPayStatus() : DEFAULT_TRADE_STATUS;
+
+        // 2. Redis去重（Key存在说明该回调已处理且事务已提交）
+        String dedupeKey = CALLBACK_DEDUPE_KEY + tradeNo + ":" + tradeStatus;
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(dedupeKey))) {
+            log.info("支付回调重复（Redis去重命中），交易流水号：{}，状态：{}", tradeNo, tradeStatus);
+            return true;
+        }
+
+        try {
+            // 3. 写入回调处理记录（唯一索引兜底去重）
+            PayCallbackRecord record = new PayCallbackRecord();
+            record.setTradeNo(tradeNo);
+            record.setTradeStatus(tradeStatus);
+            record.setOrderNo(payCallbackDTO.getOrderNo());
+            record.setPayType(payCallbackDTO.getPayType());
+            record.setPayAmount(payCallbackDTO.getPayAmount());
+            record.setCallbackContent(rawContent);
+            record.setCreateTime(LocalDateTime.now());
+            try {
+                payCallbackRecordMapper.insert(record);
+            } catch (DuplicateKeyException e) {
+                log.info("支付回调重复（处理记录已存在），交易流水号：{}，状态：{}", tradeNo, tradeStatus);
+                TransactionUtil.afterCommit(() -> markProcessed(dedupeKey, payCallbackDTO.getOrderNo()));
+                return true;
+            }
+
+            // 4. 订单查询与金额校验
+            Order order = orderMapper.selectByOrderNo(payCallbackDTO.getOrderNo());
+            if (order == null) {
+                throw new BusinessException(OrderErrorCode.ORDER_NOT_EXISTS, "支付回调订单不存在");
+            }
+            if (order.getTotalAmount().subtract(payCallbackDTO.getPayAmount()).abs().compareTo(new BigDecimal("0.01")) > 0) {
+                throw new BusinessException(PaymentErrorCode.PAYMENT_CALLBACK_VALIDATE_FAILS, "支付金额与订单金额不一致");
+            }
+
+            // 5. 订单条件更新（仅待支付订单生效，影响行数为0说明已被本笔交易的其他回调处理，或订单不可支付）
+            LocalDateTime payTime = parsePayTime(payCallbackDTO.getPayTime());
+            int updateCount = orderMapper.updatePayInfo(order.getOrderId(), payTime,
+                    payCallbackDTO.getPayType() != null ? payCallbackDTO.getPayType() : order.getPayType());
+            if (updateCount != 1) {
+                if (isPaidByTrade(order.getOrderNo(), tradeNo, tradeStatus)) {
+                    log.info("支付回调订单已由本笔交易支付，交易流水号：{}，状态：{}", tradeNo, tradeStatus);
+                    TransactionUtil.afterCommit(() -> markProcessed(dedupeKey, order.getOrderNo()));
+                    return true;
+                }
+                // 订单已取消（如超时关闭）或已由其他交易支付：不应答成功，回滚处理记录，告警人工核实退款
+                log.error("支付回调订单不可支付，需人工核实退款，订单号：{}，当前状态：{}，交易流水号：{}，金额：{}",
+                        order.getOrderNo(), order.getStatus(), tradeNo, payCallbackDTO.getPayAmount());
+                throw new BusinessException(PaymentErrorCode.PAYMENT_ORDER_NOT_PAYABLE,
+                        "订单状态异常，当前状态：" + order.getStatus().getDesc());
+            }
+
+            // 6. 计入卖家销售日统计（与订单条件更新同一事务，重复回调不会重复计入）
+            OrderStatusEnum fromStatus = order.getStatus();
+            order.setStatus(OrderStatusEnum.PENDING_SHIPMENT);
+            order.setPayTime(payTime);
+            sellerDailyStatsService.applyOrderTransition(order, fromStatus, OrderStatusEnum.PENDING_SHIPMENT);
+
+            // 7. 支付记录条件更新（仅待支付记录生效，无支付记录的渠道影响行数为0）
+            paymentMapper.update(null,
+                    new LambdaUpdateWrapper<Payment>()
+                            .eq(Payment::getOrderNo, order.getOrderNo())
+                            .eq(Payment::getPayStatus, PayStatusEnum.PENDING)
+                            .set(Payment::getPayStatus, PayStatusEnum.SUCCESS)
+                            .set(Payment::getPlatformTradeNo, payCallbackDTO.getPayNo())
+                            .set(Payment::getPayTime, payTime)
+                            .set(Payment::getCallbackTime, LocalDateTime.now())
+                            .set(Payment::getCallbackContent, rawContent)
+            );
+
+            // 8. 事务提交后写入去重Key，并异步清缓存、发送支付成功通知（不阻塞回调应答）
+            TransactionUtil.afterCommit(() -> {
+                markProcessed(dedupeKey, order.getOrderNo());
+                CALLBACK_POST_EXECUTOR.execute(() -> afterPaySuccess(order));
+            });
+
+            log.info("支付回调处理成功，订单号：{}，支付流水号：{}", order.getOrderNo(), tradeNo);
+            return true;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("支付回调处理异常，订单号：{}", payCallbackDTO.getOrderNo(), e);
+            throw new BusinessException(PaymentErrorCode.PAYMENT_CALLBACK_FAILS);
+        }
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 写入去重Key（仅在事务提交后调用，写入失败不影响回调结果，由处理记录唯一索引兜底）
+     */
+    private void markProcessed(String dedupeKey, String orderNo) {
+        try {
+            redisTemplate.opsForValue().set(dedupeKey, orderNo, CALLBACK_DEDUPE_EXPIRE_HOURS, TimeUnit.HOURS);
+        } catch (Exception e) {
+            log.warn("支付回调去重Key写入失败，Key：{}", dedupeKey, e);
+        }
+    }
+
+    /**
+     * 订单是否已由本笔交易支付：同一交易流水号的其他状态回调已有处理记录
+     * （处理记录与订单更新同一事务提交，不可支付时整体回滚，已提交的记录即代表本笔交易已完成支付处理）
+     */
+    private boolean isPaidByTrade(String orderNo, String tradeNo, String tradeStatus) {
+        Long processedCount = payCallbackRecordMapper.selectCount(new LambdaQueryWrapper<PayCallbackRecord>()
+                .eq(PayCallbackRecord::getOrderNo, orderNo)
+                .eq(PayCallbackRecord::getTradeNo, tradeNo)
+                .ne(PayCallbackRecord::getTradeStatus, tradeStatus));
+        return processedCount != null && processedCount > 0;
+    }
+
+    /**
+     * 支付成功后续处理：清除订单缓存 + 发送支付成功事件（买家 + 卖家通知、订单视图刷新）
+     */
+    private void afterPaySuccess(Order order) {
+        try {
+            redisTemplate.delete(CACHE_KEY_ORDER + order.getOrderId());
+            redisTemplate.delete(CACHE_KEY_ORDER_LIST + "buyer:" + order.getBuyerId());
+            redisTemplate.delete(CACHE_KEY_ORDER_LIST + "seller:" + order.getSellerId());
+
+            OrderEventDTO event = new OrderEventDTO(order.getOrderId(), order.getBuyerId(),
+                    order.getSellerId(), order.getOrderNo(), OrderStatusEnum.PENDING_SHIPMENT.getCode());
+            rabbitTemplate.convertAndSend(MqEventTypeEnum.ORDER_PAID.getExchange(), MqEventTypeEnum.ORDER_PAID.getRoutingKey(), event);
+        } catch (Exception e) {
+            log.error("支付成功后续处理失败，订单号：{}", order.getOrderNo(), e);
+        }
+    }
+
+    /**
+     * 解析支付时间（格式：yyyy-MM-dd HH:mm:ss），缺失或格式错误时取当前时间
+     */
+    private LocalDateTime parsePayTime(String payTime) {
+        if (!StringUtils.hasText(payTime)) {
+            return LocalDateTime.now();
+        }
+        try {
+            return LocalDateTime.parse(payTime, PAY_TIME_FORMATTER);
+        } catch (DateTimeParseException e) {
+            log.warn("支付时间格式错误，使用当前时间，payTime：{}", payTime);
+            return LocalDateTime.now();
+        }
+    }
+}
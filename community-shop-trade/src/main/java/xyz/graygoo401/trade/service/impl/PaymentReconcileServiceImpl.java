@@ -0,0 +1,139 @@
+package xyz.graygoo401.trade.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import xyz.graygoo401.api.trade.dto.payment.PaymentReconcileResultDTO;
+import xyz.graygoo401.api.trade.enums.PayTypeEnum;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.common.exception.error.SystemErrorCode;
+import xyz.graygoo401.common.export.CsvStreamWriter;
+import xyz.graygoo401.common.export.ExportColumn;
+import xyz.graygoo401.trade.dao.entity.Order;
+import xyz.graygoo401.trade.dao.mapper.OrderMapper;
+import xyz.graygoo401.trade.exception.error.PaymentErrorCode;
+import xyz.graygoo401.trade.reconcile.PaymentReconciler;
+import xyz.graygoo401.trade.reconcile.ReconcileMismatch;
+import xyz.graygoo401.trade.reconcile.SettlementFileReader;
+import xyz.graygoo401.trade.reconcile.SettlementFileSorter;
+import xyz.graygoo401.trade.service.base.PaymentReconcileService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * 支付对账服务实现类
+ * 1. 排序：对账单已按订单号有序时直接使用，否则外部排序到临时文件（内存只保留一个顺串）
+ * 2. 归并：只读事务内打开按订单号升序的订单游标，与对账单逐行归并连接
+ * 3. 输出：差异边比对边写入报告CSV，结果只返回各类差异计数，整个过程内存占用与数据量无关
+ */
+@Slf4j
+@Service
+public class PaymentReconcileServiceImpl implements PaymentReconcileService {
+
+    private static final DateTimeFormatter REPORT_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    // 差异报告列
+    private static final List<ExportColumn<ReconcileMismatch>> REPORT_COLUMNS = List.of(
+            ExportColumn.of("差异类型", mismatch -> mismatch.getType().getDesc()),
+            ExportColumn.of("订单编号", ReconcileMismatch::getOrderNo),
+            ExportColumn.of("平台交易号", ReconcileMismatch::getTradeNo),
+            ExportColumn.of("本地金额", ReconcileMismatch::getLocalAmount),
+            ExportColumn.of("平台金额", ReconcileMismatch::getPlatformAmount),
+            ExportColumn.of("本地状态", mismatch -> mismatch.getLocalStatus() == null ? null : mismatch.getLocalStatus().getDesc()),
+            ExportColumn.of("平台状态", ReconcileMismatch::getPlatformStatus)
+    );
+
+    /** 差异报告与排序临时文件目录 */
+    @Value("${trade.reconcile.report-dir:${java.io.tmpdir}/reconcile}")
+    private String reportDir;
+
+    /** 外部排序单个顺串的行数 */
+    @Value("${trade.reconcile.sort-run-size:200000}")
+    private int sortRunSize;
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    /**
+     * 核对指定账单日的支付宝交易
+     * 核心逻辑：参数校验→按需外部排序→事务内打开订单游标→归并连接并写出差异报告→清理排序临时文件
+     * 游标需在事务（同一数据库连接）内遍历，只读事务避免长时间占用写锁
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public PaymentReconcileResultDTO reconcile(LocalDate billDate, Path settlementFile) {
+        long startMillis = System.currentTimeMillis();
+        Path sortedFile = null;
+        try {
+            // 1. 参数校验
+            if (billDate == null || settlementFile == null) {
+                throw new BusinessException(SystemErrorCode.PARAM_NULL);
+            }
+            if (!Files.isRegularFile(settlementFile)) {
+                throw new BusinessException(PaymentErrorCode.PAYMENT_RECONCILE_FILE_NOT_EXISTS);
+            }
+
+            // 2. 对账单按订单号排序（已有序时返回原文件）
+            Path workDir = Paths.get(reportDir);
+            Files.createDirectories(workDir);
+            sortedFile = SettlementFileSorter.sortIfNeeded(settlementFile, workDir, sortRunSize);
+
+            // 3. 归并连接，差异写入报告
+            Path reportFile = workDir.resolve("alipay-reconcile-" + billDate.format(REPORT_DATE_FORMATTER) + ".csv");
+            PaymentReconcileResultDTO result;
+            try (SettlementFileReader bill = new SettlementFileReader(Files.newInputStream(sortedFile));
+                 Cursor<Order> orders = orderMapper.streamForReconcile(PayTypeEnum.ALIPAY,
+                         billDate.atStartOfDay(), billDate.plusDays(1).atStartOfDay());
+                 CsvStreamWriter<ReconcileMismatch> report =
+                         new CsvStreamWriter<>(Files.newOutputStream(reportFile), REPORT_COLUMNS)) {
+                result = new PaymentReconciler(report::write).reconcile(bill, orders.iterator());
+            }
+
+            // 4. 填写结果
+            result.setBillDate(billDate);
+            result.setReportFile(reportFile.toString());
+            result.setElapsedMillis(System.currentTimeMillis() - startMillis);
+            log.info("支付对账完成，账单日：{}，对账单{}行，本地订单{}条，一致{}条，本地缺失{}，平台缺失{}，金额不一致{}，状态不一致{}，重复{}，耗时{}ms",
+                    billDate, result.getBillRows(), result.getOrderRows(), result.getMatchedCount(),
+                    result.getMissingLocalCount(), result.getMissingPlatformCount(), result.getAmountDiffCount(),
+                    result.getStatusDiffCount(), result.getDuplicateCount(), result.getElapsedMillis());
+            return result;
+
+        } catch (BusinessException e) {
+            throw e;
+        } catch (IOException e) {
+            log.error("支付对账读取对账单失败，账单日：{}，文件：{}", billDate, settlementFile, e);
+            throw new BusinessException(PaymentErrorCode.PAYMENT_RECONCILE_FILE_INVALID, e.getMessage());
+        } catch (Exception e) {
+            log.error("支付对账系统异常，账单日：{}", billDate, e);
+            throw new BusinessException(SystemErrorCode.FAILURE);
+        } finally {
+            deleteSortedFile(sortedFile, settlementFile);
+        }
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 删除外部排序生成的临时文件（对账单原本有序时未生成，不删除原文件）
+     */
+    private void deleteSortedFile(Path sortedFile, Path settlementFile) {
+        if (sortedFile == null || sortedFile.equals(settlementFile)) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(sortedFile);
+        } catch (IOException e) {
+            log.warn("删除对账排序临时文件失败：{}", sortedFile, e);
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package xyz.graygoo401.trade.service.impl;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+import xyz.graygoo401.api.common.dto.mq.ProductBatchEventDTO;
+import xyz.graygoo401.api.common.dto.mq.ProductImageIngestEventDTO;
+import xyz.graygoo401.api.trade.dto.product.ProductImportErrorDTO;
+import xyz.graygoo401.api.trade.dto.product.ProductImportJobDTO;
+import xyz.graygoo401.api.trade.dto.product.ProductPublishDTO;
+import xyz.graygoo401.api.trade.enums.ProductImportFormatEnum;
+import xyz.graygoo401.api.trade.enums.ProductImportStatusEnum;
+import xyz.graygoo401.api.trade.enums.ProductStatusEnum;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.common.exception.error.SystemErrorCode;
+import xyz.graygoo401.trade.dao.entity.Product;
+import xyz.graygoo401.trade.dao.mapper.ProductMapper;
+import xyz.graygoo401.trade.exception.error.ProductErrorCode;
+import xyz.graygoo401.trade.importer.ProductImportReader;
+import xyz.graygoo401.trade.importer.ProductImportRow;
+import xyz.graygoo401.trade.service.base.ProductImportService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 商品批量导入服务实现类
+ * 1. 提交：校验格式与卖家（整个文件只校验一次卖家），上传文件转存为临时文件后交给导入线程，立即返回任务ID
+ * 2. 解析：按格式流式读取，每攒满batchSize行作为一批，内存只保留当前批
+ * 3. 校验：批内各行在校验线程池中并行执行注解校验与发布规则校验，失败行记入错误报告
+ * 4. 写入：一批合法行用一条多行INSERT写入并回填商品ID，不逐条查询、不写详情缓存
+ * 5. 异步：每批写入后发送一条商品批量创建事件（同步筛选/补全索引），带图片的商品发送图片转存事件，由基础服务下载后转存MinIO
+ * 6. 进度：每批结束后把任务快照写入Redis，多实例均可按任务ID查询
+ */
+@Slf4j
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+
+    // 导入相关常量
+    private static final String CACHE_KEY_IMPORT_JOB = "product:import:job:"; // 导入任务Key前缀
+    private static final Duration CACHE_TTL_IMPORT_JOB = Duration.ofDays(1); // 导入任务保留1天
+    private static final int MAX_ERROR_REPORT = 1000; // 错误报告最多保留的行数
+    private static final String IMAGE_URL_PATTERN = "^https?://.+$"; // 图片URL格式（由服务端下载，仅允许http/https）
+
+    // 导入任务线程池（同时执行的导入任务数有限，其余任务排队保持PENDING）
+    private static final ExecutorService IMPORT_EXECUTOR = Executors.newFixedThreadPool(2);
+
+    // 行校验线程池（批内并行校验，与公共ForkJoinPool隔离）
+    private static final ForkJoinPool VALIDATE_POOL = new ForkJoinPool(4);
+
+    /** 每批写入行数（即一条多行INSERT包含的行数） */
+    @Value("${trade.product-import.batch-size:500}")
+    private int batchSize;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    /**
+     * 提交商品批量导入任务
+     * 核心逻辑：校验文件格式→校验卖家→转存临时文件→保存PENDING任务→提交导入线程
+     */
+    @Override
+    public ProductImportJobDTO submitImport(Long sellerId, MultipartFile file) {
+        try {
+            // 1. 参数校验
+            if (sellerId == null || file == null || file.isEmpty()) {
+                throw new BusinessException(SystemErrorCode.PARAM_NULL);
+            }
+            ProductImportFormatEnum format = ProductImportFormatEnum.getByFileName(file.getOriginalFilename());
+            if (format == null) {
+                throw new BusinessException(ProductErrorCode.PRODUCT_IMPORT_FORMAT_INVALID);
+            }
+
+            // 2. 校验卖家（整个文件只校验一次）
+            if (productMapper.verifySellerExists(sellerId) <= 0) {
+                throw new BusinessException(SystemErrorCode.PERMISSION_DENIED);
+            }
+
+            // 3. 转存上传文件（请求结束后容器会清理上传的临时文件，导入线程读取转存副本）
+            Path tempFile = Files.createTempFile("product-import-", "." + format.getExtension());
+            file.transferTo(tempFile);
+
+            // 4. 保存任务并提交导入线程（返回值与导入线程各持一份任务对象，避免响应序列化时被并发修改）
+            String jobId = UUID.randomUUID().toString().replace("-", "");
+            LocalDateTime submitTime = LocalDateTime.now();
+            ProductImportJobDTO job = buildJob(jobId, sellerId, format, submitTime);
+            saveJob(job);
+            ProductImportJobDTO runningJob = buildJob(jobId, sellerId, format, submitTime);
+            IMPORT_EXECUTOR.execute(() -> runImport(runningJob, tempFile));
+
+            log.info("商品导入任务已提交，任务ID：{}，卖家ID：{}，文件：{}，大小：{}字节",
+                    jobId, sellerId, file.getOriginalFilename(), file.getSize());
+            return job;
+
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("提交商品导入任务异常，卖家ID：{}", sellerId, e);
+            throw new BusinessException(SystemErrorCode.FAILURE);
+        }
+    }
+
+    /**
+     * 查询导入任务进度与错误报告
+     */
+    @Override
+    public ProductImportJobDTO getImportJob(Long sellerId, String jobId) {
+        try {
+            // 1. 参数校验
+            if (sellerId == null || !StringUtils.hasText(jobId)) {
+                throw new BusinessException(SystemErrorCode.PARAM_NULL);
+            }
+
+            // 2. 查询任务快照
+            ProductImportJobDTO job = (ProductImportJobDTO) redisTemplate.opsForValue().get(CACHE_KEY_IMPORT_JOB + jobId);
+            if (job == null) {
+                throw new BusinessException(ProductErrorCode.PRODUCT_IMPORT_JOB_NOT_EXISTS);
+            }
+
+            // 3. 仅任务所属卖家可查
+            if (!Objects.equals(job.getSellerId(), sellerId)) {
+                throw new BusinessException(SystemErrorCode.PERMISSION_DENIED);
+            }
+            return job;
+
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("查询商品导入任务异常，任务ID：{}", jobId, e);
+            throw new BusinessException(SystemErrorCode.FAILURE);
+        }
+    }
+
+    /**
+     * 执行导入（导入线程调用）
+     * 逐批读取→并行校验→多行INSERT→发送事件→更新进度；文件结构损坏或数据库异常时任务中断，已写入的批次保留
+     * @param job 导入任务（由当前线程独占修改）
+     * @param file 转存的导入文件（执行结束后删除）
+     */
+    public void runImport(ProductImportJobDTO job, Path file) {
+        long startNanos = System.nanoTime();
+        job.setStatus(ProductImportStatusEnum.RUNNING);
+        job.setStartTime(LocalDateTime.now());
+        saveJob(job);
+
+        try (InputStream in = Files.newInputStream(file);
+             ProductImportReader reader = ProductImportReader.open(in, job.getFormat())) {
+            List<ProductImportRow> batch = new ArrayList<>(batchSize);
+            ProductImportRow row;
+            while ((row = reader.next()) != null) {
+                batch.add(row);
+                if (batch.size() >= batchSize) {
+                    importBatch(job, batch, startNanos);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                importBatch(job, batch, startNanos);
+            }
+            job.setStatus(ProductImportStatusEnum.COMPLETED);
+            log.info("商品导入完成，任务ID：{}，成功：{}行，失败：{}行，速度：{}行/秒",
+                    job.getJobId(), job.getSuccessRows(), job.getFailedRows(), job.getRowsPerSecond());
+        } catch (IOException e) {
+            log.warn("商品导入文件解析中断，任务ID：{}，原因：{}", job.getJobId(), e.getMessage());
+            job.setStatus(ProductImportStatusEnum.FAILED);
+            job.setFailReason("文件解析失败：" + e.getMessage());
+        } catch (Exception e) {
+            log.error("商品导入异常，任务ID：{}", job.getJobId(), e);
+            job.setStatus(ProductImportStatusEnum.FAILED);
+            job.setFailReason("数据写入失败，已成功的批次保留");
+        } finally {
+            job.setFinishTime(LocalDateTime.now());
+            saveJob(job);
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("删除商品导入临时文件失败：{}", file, e);
+            }
+        }
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 导入一批数据：并行校验→多行INSERT→发送事件→更新进度
+     */
+    private void importBatch(ProductImportJobDTO job, List<ProductImportRow> batch, long startNanos) {
+        // 1. 批内并行校验
+        String[] errors = VALIDATE_POOL.submit(() -> batch.parallelStream()
+                .map(row -> validateRow(job.getSellerId(), row))
+                .toArray(String[]::new)).join();
+
+        // 2. 合法行转换为实体，失败行记入错误报告
+        LocalDateTime now = LocalDateTime.now();
+        List<Product> products = new ArrayList<>(batch.size());
+        List<ProductPublishDTO> publishDTOs = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            ProductImportRow row = batch.get(i);
+            if (errors[i] != null) {
+                addError(job, row.getRowNumber(), errors[i]);
+                continue;
+            }
+            products.add(buildProduct(job.getSellerId(), row.getPublishDTO(), now));
+            publishDTOs.add(row.getPublishDTO());
+        }
+
+        // 3. 多行INSERT写入（回填商品ID）
+        if (!products.isEmpty()) {
+            productMapper.insertBatch(products);
+            sendImportEvents(products, publishDTOs);
+        }
+
+        // 4. 更新进度
+        job.setProcessedRows(job.getProcessedRows() + batch.size());
+        job.setSuccessRows(job.getSuccessRows() + products.size());
+        long elapsedNanos = Math.max(System.nanoTime() - startNanos, 1);
+        job.setRowsPerSecond(job.getProcessedRows() * 1_000_000_000L / elapsedNanos);
+        saveJob(job);
+    }
+
+    /**
+     * 校验单行数据（注解校验 + 发布规则校验 + 图片URL格式）
+     * @return 错误原因，合法时返回null
+     */
+    private String validateRow(Long sellerId, ProductImportRow row) {
+        if (row.getError() != null) {
+            return row.getError();
+        }
+        ProductPublishDTO publishDTO = row.getPublishDTO();
+        publishDTO.setSellerId(sellerId);
+
+        Set<ConstraintViolation<ProductPublishDTO>> violations = validator.validate(publishDTO);
+        if (!CollectionUtils.isEmpty(violations)) {
+            return violations.stream()
+                    .min(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                    .map(ConstraintViolation::getMessage)
+                    .orElse(null);
+        }
+        try {
+            ProductServiceImpl.validatePublishParam(publishDTO);
+        } catch (BusinessException e) {
+            return e.getMessage();
+        }
+        if (publishDTO.getImageUrls() != null
+                && !publishDTO.getImageUrls().stream().allMatch(url -> url.matches(IMAGE_URL_PATTERN))) {
+            return ProductErrorCode.PRODUCT_IMAGE_URL_INVALID.getMessage();
+        }
+        return null;
+    }
+
+    /**
+     * 发送商品批量创建事件与图片转存事件（消息发送失败不影响已写入的商品，索引由定时全量重建兜底）
+     * 一批商品只发送一条批量事件，索引监听器一次查询刷新整批；订单读模型不关心新商品，不绑定该事件
+     */
+    private void sendImportEvents(List<Product> products, List<ProductPublishDTO> publishDTOs) {
+        try {
+            List<Long> productIds = products.stream().map(Product::getProductId).toList();
+            rabbitTemplate.convertAndSend("product.topic", "product.batch.create",
+                    new ProductBatchEventDTO(products.get(0).getSellerId(), productIds, "CREATE"));
+
+            for (int i = 0; i < products.size(); i++) {
+                Product product = products.get(i);
+                // 路由键不以product.开头，商品事件监听器不会收到
+                List<String> imageUrls = publishDTOs.get(i).getImageUrls();
+                if (!CollectionUtils.isEmpty(imageUrls)) {
+                    rabbitTemplate.convertAndSend("product.topic", "image.ingest",
+                            new ProductImageIngestEventDTO(product.getProductId(), product.getSellerId(), imageUrls));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("商品导入事件发送失败，本批首个商品ID：{}", products.get(0).getProductId(), e);
+        }
+    }
+
+    /**
+     * 记录失败行（错误报告超出上限时只计数）
+     */
+    private void addError(ProductImportJobDTO job, long rowNumber, String message) {
+        job.setFailedRows(job.getFailedRows() + 1);
+        if (job.getErrors().size() < MAX_ERROR_REPORT) {
+            job.getErrors().add(new ProductImportErrorDTO(rowNumber, message));
+        }
+    }
+
+    /**
+     * 发布参数转换为待插入实体（与单个发布的默认值一致：在售、浏览量为0）
+     */
+    private Product buildProduct(Long sellerId, ProductPublishDTO publishDTO, LocalDateTime now) {
+        Product product = new Product();
+        product.setSellerId(sellerId);
+        product.setTitle(publishDTO.getTitle());
+        product.setCategory(publishDTO.getCategory());
+        product.setDescription(publishDTO.getDescription());
+        product.setPrice(publishDTO.getPrice());
+        product.setStock(publishDTO.getStock());
+        product.setCondition(publishDTO.getCondition());
+        product.setStatus(ProductStatusEnum.ON_SALE);
+        product.setViewCount(0);
+        product.setCreateTime(now);
+        product.setUpdateTime(now);
+        return product;
+    }
+
+    private ProductImportJobDTO buildJob(String jobId, Long sellerId, ProductImportFormatEnum format, LocalDateTime submitTime) {
+        ProductImportJobDTO job = new ProductImportJobDTO();
+        job.setJobId(jobId);
+        job.setSellerId(sellerId);
+        job.setFormat(format);
+        job.setStatus(ProductImportStatusEnum.PENDING);
+        job.setSubmitTime(submitTime);
+        return job;
+    }
+
+    /**
+     * 保存任务快照（Redis异常只记录日志，不中断导入）
+     */
+    private void saveJob(ProductImportJobDTO job) {
+        try {
+            redisTemplate.opsForValue().set(CACHE_KEY_IMPORT_JOB + job.getJobId(), job, CACHE_TTL_IMPORT_JOB);
+        } catch (Exception e) {
+            log.warn("保存商品导入任务进度失败，任务ID：{}", job.getJobId(), e);
+        }
+    }
+}
@@ -1,33 +1,57 @@
 package xyz.graygoo401.trade.service.impl;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
+import xyz.graygoo401.api.common.dto.mq.ProductEventDTO;
+import xyz.graygoo401.api.trade.dto.cart.CartItemAddDTO;
 import xyz.graygoo401.api.trade.dto.product.*;
+import xyz.graygoo401.api.trade.enums.ProductConditionEnum;
+import xyz.graygoo401.api.trade.enums.ProductPriceRangeEnum;
 import xyz.graygoo401.api.trade.enums.ProductStatusEnum;
 import xyz.graygoo401.api.user.dto.user.UserDTO;
 import xyz.graygoo401.api.user.util.UserUtil;
 import xyz.graygoo401.common.dto.PageResult;
+import xyz.graygoo401.common.dto.SuggestionDTO;
 import xyz.graygoo401.common.enums.UserRoleEnum;
 import xyz.graygoo401.common.exception.BusinessException;
 import xyz.graygoo401.common.exception.error.SystemErrorCode;
+import xyz.graygoo401.common.export.CsvStreamWriter;
+import xyz.graygoo401.common.export.ExportColumn;
+import xyz.graygoo401.common.index.AutocompleteIndex;
 import xyz.graygoo401.common.service.BaseServiceImpl;
+import xyz.graygoo401.common.util.TransactionUtil;
 import xyz.graygoo401.trade.convert.ProductConvert;
 import xyz.graygoo401.trade.dao.entity.Product;
 import xyz.graygoo401.trade.dao.mapper.ProductMapper;
 import xyz.graygoo401.trade.exception.error.ProductErrorCode;
+import xyz.graygoo401.trade.index.ProductFilterIndex;
 import xyz.graygoo401.trade.service.base.ProductService;
+import xyz.graygoo401.trade.service.base.ProductViewService;
+import xyz.graygoo401.trade.service.base.SimilarProductService;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -50,6 +74,25 @@ public class ProductServiceImpl extends BaseServiceImpl<ProductMapper, Product>
     private static final Integer MAX_IMAGE_COUNT = 5; // 最大图片数量
     private static final Integer MAX_DESCRIPTION_LENGTH = 2000; // 商品描述最大长度
     private static final Integer MAX_NAME_LENGTH = 100; // 商品名称最大长度
+    private static final int FILTER_INDEX_BATCH_SIZE = 1000; // 筛选索引全量构建每批加载条数
+    private static final int AUTOCOMPLETE_BATCH_SIZE = 1000; // 补全索引全量构建每批加载条数
+    private static final int MAX_SUGGEST_LIMIT = 10; // 单次补全最大返回条数
+    private static final DateTimeFormatter EXPORT_FILE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss"); // 导出文件名时间格式
+
+    // 商品导出列（流式导出时逐行取值，不含商品描述长文本）
+    private static final List<ExportColumn<Product>> PRODUCT_EXPORT_COLUMNS = List.of(
+            ExportColumn.of("商品ID", Product::getProductId),
+            ExportColumn.of("卖家ID", Product::getSellerId),
+            ExportColumn.of("商品标题", Product::getTitle),
+            ExportColumn.of("分类", Product::getCategory),
+            ExportColumn.of("成色", product -> product.getCondition() == null ? null : product.getCondition().getDesc()),
+            ExportColumn.of("价格", Product::getPrice),
+            ExportColumn.of("库存", Product::getStock),
+            ExportColumn.of("商品状态", product -> product.getStatus() == null ? null : product.getStatus().getDesc()),
+            ExportColumn.of("浏览量", Product::getViewCount),
+            ExportColumn.of("发布时间", Product::getCreateTime),
+            ExportColumn.of("更新时间", Product::getUpdateTime)
+    );
 
     // 依赖注入
     @Autowired
@@ -64,6 +107,21 @@ public class ProductServiceImpl extends BaseServiceImpl<ProductMapper, Product>
     @Autowired
     private ProductConvert productConvert;
 
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private ProductFilterIndex productFilterIndex;
+
+    @Autowired
+    private AutocompleteIndex productAutocompleteIndex;
+
+    @Autowired
+    private SimilarProductService similarProductService;
+
+    @Autowired
+    private ProductViewService productViewService;
+
 
     /**
      * 发布商品
@@ -101,6 +159,9 @@ public class ProductServiceImpl extends BaseServiceImpl<ProductMapper, Product>
             ProductDetailDTO detailDTO = productConvert.productToProductDetailDTO(savedProduct);
             redisTemplate.opsForValue().set(CACHE_KEY_PRODUCT + savedProduct.getProductId(), detailDTO, CACHE_TTL_PRODUCT);
 
+            // 8. 发送商品变更事件（同步商品筛选索引）
+            sendProductEvent(savedProduct, "CREATE");
+
             log.info("商品发布成功，商品ID：{}，卖家ID：{}", savedProduct.getProductId(), userId);
             return detailDTO;
 
@@ -147,6 +208,9 @@ public class ProductServiceImpl extends BaseServiceImpl<ProductMapper, Product>
             }
             // 5. 清除缓存
             redisTemplate.delete(CACHE_KEY_PRODUCT + productId);
+
+            // 6. 发送商品变更事件（同步商品筛选索引）
+            sendProductEvent(product, "DELETE");
             log.info("删除商品成功，商品ID：{}，操作人ID：{}", productId, operatorId);
             return true;
         } catch (BusinessException e) {
@@ -197,6 +261,9 @@ public class ProductServiceImpl extends BaseServiceImpl<ProductMapper, Product>
             ProductDetailDTO detailDTO = productConvert.productToProductDetailDTO(updatedProduct);
             redisTemplate.opsForValue().set(CACHE_KEY_PRODUCT + updatedProduct.getProductId(), detailDTO, CACHE_TTL_PRODUCT);
 
+            // 9. 发送商品变更事件（同步订单读模型等冗余数据）
+            sendProductEvent(updatedProduct, "UPDATE");
+
             log.info("商品更新成功，商品ID：{}，卖家ID：{}", updatedProduct.getProductId(), userId);
             return detailDTO;
 
@@ -267,6 +334,50 @@ public class ProductServiceImpl extends BaseServiceImpl<ProductMapper, Product>
         }
     }
 
+    /**
+     * 批量预占库存
+     * 核心逻辑：单条多行条件UPDATE扣减库存→影响行数与商品种类数比对→库存归零商品切换为已售罄→清除商品缓存→事务提交后逐个发送商品事件
+     */
+    @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED, rollbackFor = Exception.class)
+    public Integer reserveStockBatch(List<CartItemAddDTO> items) {
+        try {
+            // 1. 参数校验
+            if (items == null || items.isEmpty()) {
+                throw new BusinessException(SystemErrorCode.PARAM_NULL, "预占库存商品不能为空");
+            }
+
+            // 2. 单条SQL批量扣减（库存不足或非在售的商品不会被更新）
+            int updateRows = productMapper.reserveStockBatch(items);
+            if (updateRows != items.size()) {
+                log.warn("批量预占库存失败，商品种类数：{}，成功扣减数：{}", items.size(), updateRows);
+                throw new BusinessException(ProductErrorCode.PRODUCT_STOCK_INSUFFICIENT, "部分商品库存不足或已下架，请调整后重新结算");
+            }
+
+            // 3. 库存扣减至0的商品切换为已售罄（单条SQL）
+            List<Long> productIds = items.stream().map(CartItemAddDTO::getProductId).collect(Collectors.toList());
+            int soldOutRows = productMapper.markSoldOutByIds(productIds);
+
+            // 4. 清除商品缓存（库存已变化）
+            redisTemplate.delete(productIds.stream()
+                    .map(productId -> CACHE_KEY_PRODUCT + productId)
+                    .collect(Collectors.toList()));
+
+            // 5. 逐个商品发送变更事件（事务提交后发送；售罄商品发送状态事件，其余发送更新事件）
+            for (Product product : productMapper.selectBatchIds(productIds)) {
+                sendProductEvent(product, ProductStatusEnum.SOLD_OUT.equals(product.getStatus()) ? "STATUS" : "UPDATE");
+            }
+
+            log.info("批量预占库存成功，商品种类数：{}，售罄商品数：{}", updateRows, soldOutRows);
+            return updateRows;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("批量预占库存异常", e);
+            throw new BusinessException(SystemErrorCode.FAILURE);
+        }
+    }
+
     /**
      * 商品上下架操作
      */
@@ -313,6 +424,9 @@ public class ProductServiceImpl extends BaseServiceImpl<ProductMapper, Product>
                     CACHE_TTL_PRODUCT
             );
 
+            // 7. 发送商品变更事件（同步商品筛选索引）
+            sendProductEvent(product, "STATUS");
+
             log.info("商品状态更新成功，商品ID：{}，原状态：{}，新状态：{}",
                     productId, product.getStatus(), status);
             return true;
@@ -338,34 +452,49 @@ public class ProductServiceImpl extends BaseServiceImpl<ProductMapper, Product>
             int pageNum = queryDTO.getPageNum() == null ? 1 : queryDTO.getPageNum();
             int pageSize = queryDTO.getPageSize() == null ? 10 : queryDTO.getPageSize();
             int offset = (pageNum - 1) * pageSize;
-
-            // 2. 构建缓存Key
             queryDTO.setOffset(offset);
+            if (queryDTO.getStatus() == null) {
+                // 搜索仅返回在售商品
+                queryDTO.setStatus(ProductStatusEnum.ON_SALE);
+            }
+
+            // 2. 浏览查询（无关键词、按发布时间/价格排序）由内存筛选索引完成筛选、计数与排序，仅按主键加载当前页
+            if (productFilterIndex.supports(queryDTO)) {
+                ProductFilterIndex.IndexPage indexPage = productFilterIndex.query(queryDTO, offset, pageSize);
+                List<ProductListItemDTO> dtoList = selectProductsInOrder(indexPage.getProductIds()).stream()
+                        .map(productConvert::productToProductListItemDTO)
+                        .collect(Collectors.toList());
+                long total = indexPage.getTotal();
+                long totalPages = total % pageSize == 0 ? total / pageSize : total / pageSize + 1;
+                return new PageResult<>(total, totalPages, dtoList, pageNum, pageSize);
+            }
+
+            // 3. 构建缓存Key
             String cacheKey = buildProductListCacheKey(queryDTO, pageNum, pageSize);
 
-            // 3. 尝试从缓存获取
+            // 4. 尝试从缓存获取
             PageResult<ProductListItemDTO> pageResult = (PageResult<ProductListItemDTO>) redisTemplate.opsForValue().get(cacheKey);
             if (Objects.nonNull(pageResult)) {
                 log.info("商品列表缓存命中，查询条件：{}，页码：{}", queryDTO, pageNum);
                 return pageResult;
             }
 
-            // 4. 查询总数
+            // 5. 查询总数
             long total = productMapper.countByQuery(queryDTO);
 
-            // 5. 查询商品列表
+            // 6. 查询商品列表
             List<Product> productList = productMapper.selectByQuery(queryDTO);
 
-            // 6. 转换为DTO列表
+            // 7. 转换为DTO列表
             List<ProductListItemDTO> dtoList = productList.stream()
                     .map(productConvert::productToProductListItemDTO)
                     .collect(Collectors.toList());
 
-            // 7. 构建分页结果
+            // 8. 构建分页结果
             long totalPages = total % pageSize == 0 ? total / pageSize : total / pageSize + 1;
             pageResult = new PageResult<>(total, totalPages, dtoList, pageNum, pageSize);
 
-            // 8. 缓存结果
+            // 9. 缓存结果
             redisTemplate.opsForValue().set(
                     cacheKey,
                     pageResult,
@@ -381,6 +510,45 @@ public class ProductServiceImpl extends BaseServiceImpl<ProductMapper, Product>
         }
     }
 
+    /**
+     * 分面搜索商品
+     */
+    @Override
+    public ProductFacetSearchResultDTO searchProductsWithFacets(ProductQueryDTO queryDTO) {
+        try {
+            // 1. 查询当前页商品（参数默认值由queryProducts补齐）
+            if (queryDTO == null) {
+                queryDTO = new ProductQueryDTO();
+            }
+            PageResult<ProductListItemDTO> pageResult = queryProducts(queryDTO);
+
+            // 2. 分面计数：无关键词的在售查询由筛选索引位图求交完成，否则每个维度一次分组查询
+            ProductFilterIndex.FacetCounts facetCounts = productFilterIndex.supportsFacets(queryDTO)
+                    ? productFilterIndex.facets(queryDTO)
+                    : countFacetsFromDb(queryDTO);
+
+            // 3. 组装结果
+            ProductFacetSearchResultDTO resultDTO = new ProductFacetSearchResultDTO();
+            resultDTO.setPage(pageResult);
+            resultDTO.setCategoryFacets(facetCounts.getCategories().entrySet().stream()
+                    .map(entry -> buildFacetCount(entry.getKey(), entry.getKey(), entry.getValue()))
+                    .collect(Collectors.toList()));
+            resultDTO.setConditionFacets(facetCounts.getConditions().entrySet().stream()
+                    .map(entry -> buildFacetCount(entry.getKey().getCode(), entry.getKey().getDesc(), entry.getValue()))
+                    .collect(Collectors.toList()));
+            resultDTO.setPriceRangeFacets(facetCounts.getPriceRanges().entrySet().stream()
+                    .map(entry -> buildPriceRangeFacetCount(entry.getKey(), entry.getValue()))
+                    .collect(Collectors.toList()));
+            return resultDTO;
+
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("商品分面搜索异常", e);
+            throw new BusinessException(SystemErrorCode.DATA_QUERY_FAILED);
+        }
+    }
+
     /**
      * 卖家查询自有商品列表
      */
@@ -424,12 +592,11 @@ public class ProductServiceImpl extends BaseServiceImpl<ProductMapper, Product>
     }
 
     /**
-     * 商品详情查询（同时自增浏览量）
-     * 普通用户查看
+     * 商品详情查询（同时记录浏览）
+     * 普通用户查看；只读不开启事务，浏览量与独立访客写入内存缓冲，由定时任务批量落库
      */
     @Override
-    @Transactional(isolation = Isolation.READ_COMMITTED, rollbackFor = Exception.class)
-    public ProductDetailDTO getProductDetail(Long productId) {
+    public ProductDetailDTO getProductDetail(Long productId, String visitorId) {
         try {
             // 1. 参数校验
             if (productId == null) {
@@ -439,8 +606,8 @@ public class ProductServiceImpl extends BaseServiceImpl<ProductMapper, Product>
             // 2. 尝试从缓存获取
             ProductDetailDTO detailDTO = (ProductDetailDTO) redisTemplate.opsForValue().get(CACHE_KEY_PRODUCT + productId);
             if (Objects.nonNull(detailDTO)) {
-//                // 缓存命中但仍需更新浏览量（异步处理）
-//                asyncIncrementViewCount(productId);
+                productViewService.recordView(productId, visitorId);
+                detailDTO.setSimilarProducts(similarProductService.getSimilarProducts(productId, detailDTO.getCategory()));
                 return detailDTO;
             }
 
@@ -462,9 +629,8 @@ public class ProductServiceImpl extends BaseServiceImpl<ProductMapper, Product>
                 throw new BusinessException(ProductErrorCode.PRODUCT_ALREADY_OFF_SALE);
             }
 
-//            // 5. 自增浏览量
-//            productMapper.incrementViewCount(productId);
-//            product.setViewCount(product.getViewCount() + 1);
+            // 5. 记录浏览（仅写内存缓冲）
+            productViewService.recordView(productId, visitorId);
 
             // 6. 转换为DTO并缓存
             detailDTO = productConvert.productToProductDetailDTO(product);
@@ -474,6 +640,9 @@ public class ProductServiceImpl extends BaseServiceImpl<ProductMapper, Product>
                     CACHE_TTL_PRODUCT
             );
 
+            // 7. 填充相似商品（限时读取预计算结果，不随详情缓存）
+            detailDTO.setSimilarProducts(similarProductService.getSimilarProducts(productId, product.getCategory()));
+
             log.info("商品详情查询成功，商品ID：{}", productId);
             return detailDTO;
 
@@ -486,12 +655,260 @@ public class ProductServiceImpl extends BaseServiceImpl<ProductMapper, Product>
     }
 
 
+    /**
+     * 全量重建商品筛选索引
+     * 核心逻辑：标记重建开始→游标分批加载在售商品→替换索引→重放重建期间的增量变更
+     */
+    @Override
+    public int rebuildFilterIndex() {
+        try {
+            // 1. 标记重建开始（此后的增量变更在替换后按数据库最新状态重放）
+            productFilterIndex.beginRebuild();
+
+            // 2. 按商品ID游标分批加载在售商品
+            ProductFilterIndex.Builder builder = ProductFilterIndex.newBuilder();
+            int loaded = 0;
+            Long lastProductId = null;
+            while (true) {
+                List<Product> batch = productMapper.selectOnSaleForIndex(lastProductId, FILTER_INDEX_BATCH_SIZE);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                batch.forEach(builder::add);
+                loaded += batch.size();
+                lastProductId = batch.get(batch.size() - 1).getProductId();
+            }
+
+            // 3. 替换索引并重放重建期间的变更
+            Set<Long> changedIds = productFilterIndex.replace(builder);
+            changedIds.forEach(this::refreshFilterIndex);
+
+            log.info("商品筛选索引重建完成，在售商品数：{}，重放变更数：{}", loaded, changedIds.size());
+            return loaded;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("商品筛选索引重建异常", e);
+            throw new BusinessException(SystemErrorCode.FAILURE);
+        }
+    }
+
+    /**
+     * 按数据库最新状态刷新筛选索引中的单个商品（在售则写入，否则移除）
+     */
+    @Override
+    public void refreshFilterIndex(Long productId) {
+        try {
+            if (productId == null) {
+                throw new BusinessException(SystemErrorCode.PARAM_NULL);
+            }
+            Product product = productMapper.selectById(productId);
+            if (product == null || !ProductStatusEnum.ON_SALE.equals(product.getStatus())) {
+                productFilterIndex.remove(productId);
+            } else {
+                productFilterIndex.upsert(product);
+            }
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("商品筛选索引刷新异常，商品ID：{}", productId, e);
+            throw new BusinessException(SystemErrorCode.FAILURE);
+        }
+    }
+
+    /**
+     * 批量刷新筛选索引（在售则写入，不存在或非在售则移除）
+     */
+    @Override
+    public void refreshFilterIndexBatch(List<Long> productIds) {
+        try {
+            if (CollectionUtils.isEmpty(productIds)) {
+                return;
+            }
+            Map<Long, Product> productMap = productMapper.selectBatchIds(productIds).stream()
+                    .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+            for (Long productId : productIds) {
+                Product product = productMap.get(productId);
+                if (product == null || !ProductStatusEnum.ON_SALE.equals(product.getStatus())) {
+                    productFilterIndex.remove(productId);
+                } else {
+                    productFilterIndex.upsert(product);
+                }
+            }
+        } catch (Exception e) {
+            log.error("商品筛选索引批量刷新异常，商品数：{}", productIds.size(), e);
+            throw new BusinessException(SystemErrorCode.FAILURE);
+        }
+    }
+
+    /**
+     * 商品标题前缀补全
+     * 核心逻辑：索引就绪时由内存补全索引返回热度最高的在售商品，未就绪（启动后首次构建完成前）返回空列表，避免逐键击穿到数据库
+     */
+    @Override
+    public List<SuggestionDTO> suggestProducts(String prefix, Integer limit) {
+        try {
+            // 1. 参数处理
+            if (!StringUtils.hasText(prefix) || !productAutocompleteIndex.isReady()) {
+                return Collections.emptyList();
+            }
+            int size = limit == null || limit <= 0 ? MAX_SUGGEST_LIMIT : Math.min(limit, MAX_SUGGEST_LIMIT);
+
+            // 2. 查询补全索引
+            return productAutocompleteIndex.suggest(prefix, size).stream()
+                    .map(suggestion -> new SuggestionDTO(suggestion.getId(), suggestion.getText(), suggestion.getWeight()))
+                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            log.error("商品标题补全异常，前缀：{}", prefix, e);
+            throw new BusinessException(SystemErrorCode.DATA_QUERY_FAILED);
+        }
+    }
+
+    /**
+     * 全量重建商品标题补全索引
+     * 核心逻辑：标记重建开始→游标分批加载在售商品标题与热度→替换索引→重放重建期间的增量变更
+     */
+    @Override
+    public int rebuildAutocompleteIndex() {
+        try {
+            // 1. 标记重建开始（此后的增量变更在替换后按数据库最新状态重放）
+            productAutocompleteIndex.beginRebuild();
+
+            // 2. 按商品ID游标分批加载在售商品
+            AutocompleteIndex.Builder builder = productAutocompleteIndex.newBuilder();
+            int loaded = 0;
+            Long lastProductId = null;
+            while (true) {
+                List<SuggestionDTO> batch = productMapper.selectOnSaleForAutocomplete(lastProductId, AUTOCOMPLETE_BATCH_SIZE);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                batch.forEach(row -> builder.add(row.getId(), row.getText(), row.getWeight()));
+                loaded += batch.size();
+                lastProductId = batch.get(batch.size() - 1).getId();
+            }
+
+            // 3. 替换索引并重放重建期间的变更
+            Set<Long> changedIds = productAutocompleteIndex.replace(builder);
+            changedIds.forEach(this::refreshAutocompleteIndex);
+
+            log.info("商品标题补全索引重建完成，在售商品数：{}，重放变更数：{}", loaded, changedIds.size());
+            return loaded;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("商品标题补全索引重建异常", e);
+            throw new BusinessException(SystemErrorCode.FAILURE);
+        }
+    }
+
+    /**
+     * 按数据库最新状态刷新补全索引中的单个商品（在售则写入，否则移除）
+     */
+    @Override
+    public void refreshAutocompleteIndex(Long productId) {
+        try {
+            if (productId == null) {
+                throw new BusinessException(SystemErrorCode.PARAM_NULL);
+            }
+            SuggestionDTO row = productMapper.selectOnSaleSuggestionById(productId);
+            if (row == null) {
+                productAutocompleteIndex.remove(productId);
+            } else {
+                productAutocompleteIndex.upsert(row.getId(), row.getText(), row.getWeight());
+            }
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("商品标题补全索引刷新异常，商品ID：{}", productId, e);
+            throw new BusinessException(SystemErrorCode.FAILURE);
+        }
+    }
+
+    /**
+     * 批量刷新补全索引（在售则写入，不存在或非在售则移除）
+     */
+    @Override
+    public void refreshAutocompleteIndexBatch(List<Long> productIds) {
+        try {
+            if (CollectionUtils.isEmpty(productIds)) {
+                return;
+            }
+            Map<Long, SuggestionDTO> rowMap = productMapper.selectOnSaleSuggestionByIds(productIds).stream()
+                    .collect(Collectors.toMap(SuggestionDTO::getId, Function.identity()));
+            for (Long productId : productIds) {
+                SuggestionDTO row = rowMap.get(productId);
+                if (row == null) {
+                    productAutocompleteIndex.remove(productId);
+                } else {
+                    productAutocompleteIndex.upsert(row.getId(), row.getText(), row.getWeight());
+                }
+            }
+        } catch (Exception e) {
+            log.error("商品标题补全索引批量刷新异常，商品数：{}", productIds.size(), e);
+            throw new BusinessException(SystemErrorCode.FAILURE);
+        }
+    }
+
+    /**
+     * 补充商品首图
+     * 核心逻辑：首图为空时写入→查询最新商品→事务提交后发送商品更新事件
+     */
+    @Override
+    public boolean fillMainImage(Long productId, String mainImage) {
+        try {
+            // 1. 参数校验
+            if (productId == null || !StringUtils.hasText(mainImage)) {
+                throw new BusinessException(SystemErrorCode.PARAM_NULL);
+            }
+
+            // 2. 仅在首图为空时写入（卖家已设置的首图不覆盖，重复消费不重复写入）
+            if (productMapper.updateMainImageIfAbsent(productId, mainImage) <= 0) {
+                return false;
+            }
+
+            // 3. 发送商品更新事件（订单读模型同步缩略图）
+            Product product = productMapper.selectById(productId);
+            sendProductEvent(product, "UPDATE");
+            log.info("商品首图补充成功，商品ID：{}，首图：{}", productId, mainImage);
+            return true;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("商品首图补充异常，商品ID：{}", productId, e);
+            throw new BusinessException(SystemErrorCode.FAILURE);
+        }
+    }
+
+    /**
+     * 流式导出商品CSV
+     * 核心逻辑：设置下载响应头→事务内打开数据库游标→逐行写出（按分块flush）
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportProducts(Long sellerId, ProductStatusEnum status, HttpServletResponse response) {
+        // 1. 设置下载响应头（此后开始写出数据，异常无法再以JSON返回）
+        CsvStreamWriter.prepareResponse(response, "商品导出_" + LocalDateTime.now().format(EXPORT_FILE_TIME_FORMATTER));
+
+        // 2. 逐行读取游标并写出
+        long rows = 0;
+        try (Cursor<Product> cursor = productMapper.streamForExport(sellerId, status)) {
+            CsvStreamWriter<Product> writer = new CsvStreamWriter<>(response.getOutputStream(), PRODUCT_EXPORT_COLUMNS);
+            rows = writer.writeAll(cursor);
+            log.info("商品导出完成，卖家ID：{}，状态：{}，行数：{}", sellerId, status, rows);
+        } catch (IOException e) {
+            // 客户端中断下载或连接断开（响应已提交，仅记录日志）
+            log.warn("商品导出中断，卖家ID：{}，原因：{}", sellerId, e.getMessage());
+        }
+        return rows;
+    }
+
     // ---------------------- 私有辅助方法 ----------------------
 
     /**
-     * 验证发布商品参数
+     * 验证发布商品参数（批量导入逐行复用，故为包内静态方法）
      */
-    private void validatePublishParam(ProductPublishDTO publishDTO) {
+    static void validatePublishParam(ProductPublishDTO publishDTO) {
         if (publishDTO == null) {
             throw new BusinessException(SystemErrorCode.PARAM_NULL);
         }
@@ -611,4 +1028,81 @@ public class ProductServiceImpl extends BaseServiceImpl<ProductMapper, Product>
         return cacheKey.toString();
     }
 
+    /**
+     * 按主键批量加载商品，并保持传入ID的顺序（跳过已不存在的商品）
+     */
+    private List<Product> selectProductsInOrder(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Product> productMap = productMapper.selectBatchIds(productIds).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+        return productIds.stream()
+                .map(productMap::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 数据库分面计数（关键词搜索或索引未就绪时使用），各维度忽略自身条件分组计数
+     */
+    private ProductFilterIndex.FacetCounts countFacetsFromDb(ProductQueryDTO queryDTO) {
+        Map<String, Long> categories = new LinkedHashMap<>();
+        productMapper.countGroupByCategory(queryDTO).stream()
+                .filter(facet -> StringUtils.hasText(facet.getValue()) && facet.getCount() > 0)
+                .sorted((a, b) -> Long.compare(b.getCount(), a.getCount()))
+                .forEach(facet -> categories.put(facet.getValue(), facet.getCount()));
+
+        Map<ProductConditionEnum, Long> conditions = new EnumMap<>(ProductConditionEnum.class);
+        Arrays.stream(ProductConditionEnum.values()).forEach(condition -> conditions.put(condition, 0L));
+        productMapper.countGroupByCondition(queryDTO).forEach(facet -> {
+            ProductConditionEnum condition = ProductConditionEnum.getByCode(facet.getValue());
+            if (condition != null) {
+                conditions.put(condition, facet.getCount());
+            }
+        });
+
+        Map<ProductPriceRangeEnum, Long> priceRanges = new EnumMap<>(ProductPriceRangeEnum.class);
+        Arrays.stream(ProductPriceRangeEnum.values()).forEach(priceRange -> priceRanges.put(priceRange, 0L));
+        productMapper.countGroupByPriceRange(queryDTO, ProductPriceRangeEnum.values()).forEach(facet -> {
+            ProductPriceRangeEnum priceRange = ProductPriceRangeEnum.getByCode(facet.getValue());
+            if (priceRange != null) {
+                priceRanges.put(priceRange, facet.getCount());
+            }
+        });
+        return new ProductFilterIndex.FacetCounts(categories, conditions, priceRanges);
+    }
+
+    private ProductFacetCountDTO buildFacetCount(String value, String label, Long count) {
+        ProductFacetCountDTO facetCountDTO = new ProductFacetCountDTO();
+        facetCountDTO.setValue(value);
+        facetCountDTO.setLabel(label);
+        facetCountDTO.setCount(count);
+        return facetCountDTO;
+    }
+
+    /**
+     * 价格区间分面（区间上限不含，回传给前端的maxPrice取上限减一分，与搜索条件的闭区间一致）
+     */
+    private ProductFacetCountDTO buildPriceRangeFacetCount(ProductPriceRangeEnum priceRange, Long count) {
+        ProductFacetCountDTO facetCountDTO = buildFacetCount(priceRange.getCode(), priceRange.getDesc(), count);
+        facetCountDTO.setMinPrice(priceRange.getLowerBound().setScale(2));
+        if (priceRange.getUpperBound() != null) {
+            facetCountDTO.setMaxPrice(priceRange.getUpperBound().subtract(new BigDecimal("0.01")));
+        }
+        return facetCountDTO;
+    }
+
+    /**
+     * 发送商品变更事件（事务提交后发送，避免消费者读到未提交数据）
+     */
+    private void sendProductEvent(Product product, String action) {
+        ProductEventDTO event = new ProductEventDTO(product.getProductId(), product.getSellerId(),
+                product.getTitle(), action);
+
+        // 发送到 product.topic 交换机，路由键为 product.{action}
+        TransactionUtil.afterCommit(() ->
+                rabbitTemplate.convertAndSend("product.topic", "product." + action.toLowerCase(), event));
+    }
+
 }
@@ -0,0 +1,160 @@
+package xyz.graygoo401.trade.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.common.exception.error.SystemErrorCode;
+import xyz.graygoo401.trade.counter.ProductViewBuffer;
+import xyz.graygoo401.trade.dao.entity.Product;
+import xyz.graygoo401.trade.dao.mapper.ProductMapper;
+import xyz.graygoo401.trade.exception.error.ProductErrorCode;
+import xyz.graygoo401.trade.service.base.ProductViewService;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * 商品浏览统计服务实现类
+ * 记录：浏览量与访客写入分条带内存缓冲（详情请求不访问数据库与Redis）
+ * 落库：取出浏览增量按商品分批执行view_count = view_count + ?，失败的批次回填缓冲下次重试；访客按日Pipeline写入HyperLogLog
+ */
+@Slf4j
+@Service
+public class ProductViewServiceImpl implements ProductViewService {
+
+    // 浏览统计相关常量
+    private static final String CACHE_KEY_UV = "product:uv:"; // 独立访客HyperLogLog Key前缀（product:uv:{yyyyMMdd}:{商品ID}）
+    private static final Duration CACHE_TTL_UV = Duration.ofDays(7); // 独立访客统计保留时长
+    private static final DateTimeFormatter UV_DATE_FORMATTER = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final int FLUSH_BATCH_SIZE = 500; // 每条批量更新语句包含的商品数
+    private static final int REDIS_WRITE_BATCH_SIZE = 500; // 每次Pipeline写入的Key数
+
+    @Autowired
+    private ProductViewBuffer productViewBuffer;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * 记录一次商品浏览（仅写内存）
+     */
+    @Override
+    public void recordView(Long productId, String visitorId) {
+        if (productId == null) {
+            return;
+        }
+        try {
+            productViewBuffer.recordView(productId);
+            if (StringUtils.hasText(visitorId)) {
+                productViewBuffer.recordVisitor(buildUvKey(productId, LocalDate.now()), visitorId);
+            }
+        } catch (Exception e) {
+            log.warn("商品浏览记录异常，商品ID：{}", productId, e);
+        }
+    }
+
+    /**
+     * 落库浏览增量并写入独立访客
+     * 核心逻辑：取出浏览增量→按商品分批累加（失败批次回填）→取出访客→分批Pipeline写入HyperLogLog
+     */
+    @Override
+    public long flushViews() {
+        // 1. 取出浏览增量，按商品ID分批累加
+        Map<Long, Long> deltas = productViewBuffer.drainViews();
+        List<Long> productIds = new ArrayList<>(deltas.keySet());
+        long flushed = 0;
+        for (int from = 0; from < productIds.size(); from += FLUSH_BATCH_SIZE) {
+            Map<Long, Long> batch = new LinkedHashMap<>();
+            productIds.subList(from, Math.min(from + FLUSH_BATCH_SIZE, productIds.size()))
+                    .forEach(productId -> batch.put(productId, deltas.get(productId)));
+            try {
+                productMapper.incrementViewCountBatch(batch);
+                flushed += batch.values().stream().mapToLong(Long::longValue).sum();
+            } catch (Exception e) {
+                productViewBuffer.restoreViews(batch);
+                log.error("商品浏览量落库失败，已回填缓冲等待重试，商品数：{}", batch.size(), e);
+            }
+        }
+
+        // 2. 取出访客，分批写入HyperLogLog（失败时丢弃，独立访客数为近似统计）
+        List<Map.Entry<String, Set<String>>> visitors = new ArrayList<>(productViewBuffer.drainVisitors().entrySet());
+        for (int from = 0; from < visitors.size(); from += REDIS_WRITE_BATCH_SIZE) {
+            List<Map.Entry<String, Set<String>>> batch = visitors.subList(from, Math.min(from + REDIS_WRITE_BATCH_SIZE, visitors.size()));
+            try {
+                writeVisitorBatch(batch);
+            } catch (Exception e) {
+                log.warn("商品独立访客写入失败，已丢弃本批，Key数：{}", batch.size(), e);
+            }
+        }
+
+        if (flushed > 0) {
+            log.debug("商品浏览量落库完成，商品数：{}，浏览次数：{}，访客Key数：{}", deltas.size(), flushed, visitors.size());
+        }
+        return flushed;
+    }
+
+    /**
+     * 查询商品某日独立访客数
+     */
+    @Override
+    public long countUniqueVisitors(Long sellerId, Long productId, LocalDate date) {
+        try {
+            // 1. 参数校验
+            if (sellerId == null || productId == null) {
+                throw new BusinessException(SystemErrorCode.PARAM_NULL);
+            }
+
+            // 2. 验证商品存在且属于当前卖家
+            Product product = productMapper.selectById(productId);
+            if (product == null) {
+                throw new BusinessException(ProductErrorCode.PRODUCT_NOT_EXISTS);
+            }
+            if (!Objects.equals(product.getSellerId(), sellerId)) {
+                throw new BusinessException(SystemErrorCode.PERMISSION_DENIED);
+            }
+
+            // 3. 读取HyperLogLog基数
+            Long count = redisTemplate.opsForHyperLogLog().size(buildUvKey(productId, date == null ? LocalDate.now() : date));
+            return count == null ? 0L : count;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("商品独立访客查询异常，商品ID：{}", productId, e);
+            throw new BusinessException(SystemErrorCode.DATA_QUERY_FAILED);
+        }
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    private String buildUvKey(Long productId, LocalDate date) {
+        return CACHE_KEY_UV + date.format(UV_DATE_FORMATTER) + ":" + productId;
+    }
+
+    /**
+     * Pipeline批量写入一批统计Key的访客并刷新有效期
+     */
+    private void writeVisitorBatch(List<Map.Entry<String, Set<String>>> batch) {
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (Map.Entry<String, Set<String>> entry : batch) {
+                    operations.opsForHyperLogLog().add(entry.getKey(), entry.getValue().toArray());
+                    operations.expire(entry.getKey(), CACHE_TTL_UV);
+                }
+                return null;
+            }
+        });
+    }
+}
@@ -0,0 +1,273 @@
+package xyz.graygoo401.trade.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import xyz.graygoo401.api.trade.enums.RatingTargetTypeEnum;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.common.exception.error.SystemErrorCode;
+import xyz.graygoo401.common.service.BaseServiceImpl;
+import xyz.graygoo401.common.util.TransactionUtil;
+import xyz.graygoo401.trade.dao.entity.RatingSummary;
+import xyz.graygoo401.trade.dao.mapper.EvaluationMapper;
+import xyz.graygoo401.trade.dao.mapper.RatingSummaryMapper;
+import xyz.graygoo401.trade.service.base.RatingSummaryService;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 评分汇总服务实现类
+ * 写侧：评价增删改时以单条SQL原子增减汇总表，事务提交后清除Redis Hash；
+ * 读侧：HGETALL一次命中，未命中时按唯一索引查询一行并回填，不再实时聚合evaluation表
+ */
+@Slf4j
+@Service
+public class RatingSummaryServiceImpl extends BaseServiceImpl<RatingSummaryMapper, RatingSummary> implements RatingSummaryService {
+
+    // 缓存相关常量
+    private static final String CACHE_KEY_RATING_SUMMARY = "rating:summary:"; // 评分汇总Key前缀（rating:summary:{type}:{id}）
+    private static final Duration CACHE_TTL_RATING_SUMMARY = Duration.ofHours(12); // 评分汇总缓存有效期
+    private static final String FIELD_COUNT = "count"; // 评价数
+    private static final String FIELD_SUM = "sum"; // 评分总和
+    private static final String FIELD_STAR_PREFIX = "star"; // 星级数（star1-star5）
+
+    // 对账相关常量
+    private static final int RECONCILE_BATCH_SIZE = 500; // 对账每批对象数
+
+    @Autowired
+    private RatingSummaryMapper ratingSummaryMapper;
+
+    @Autowired
+    private EvaluationMapper evaluationMapper;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * 计入一条评价
+     * 核心逻辑：参数校验→卖家汇总原子+1→商品汇总原子+1→事务提交后清除缓存
+     */
+    @Override
+    public void addRating(Long sellerId, Long productId, Integer score) {
+        validateRatingParam(sellerId, productId, score);
+
+        ratingSummaryMapper.increaseRating(RatingTargetTypeEnum.SELLER, sellerId, score);
+        ratingSummaryMapper.increaseRating(RatingTargetTypeEnum.PRODUCT, productId, score);
+        evictAfterCommit(sellerId, productId);
+    }
+
+    /**
+     * 移除一条评价
+     * 核心逻辑：参数校验→卖家汇总原子-1→商品汇总原子-1→事务提交后清除缓存
+     */
+    @Override
+    public void removeRating(Long sellerId, Long productId, Integer score) {
+        validateRatingParam(sellerId, productId, score);
+
+        int sellerRows = ratingSummaryMapper.decreaseRating(RatingTargetTypeEnum.SELLER, sellerId, score);
+        int productRows = ratingSummaryMapper.decreaseRating(RatingTargetTypeEnum.PRODUCT, productId, score);
+        if (sellerRows == 0 || productRows == 0) {
+            // 汇总缺失说明数据已偏离，等待对账任务校正，不影响评价删除
+            log.warn("评分汇总不存在，跳过扣减，卖家ID：{}，商品ID：{}，评分：{}", sellerId, productId, score);
+        }
+        evictAfterCommit(sellerId, productId);
+    }
+
+    /**
+     * 查询评分汇总
+     * 核心逻辑：读Redis Hash→未命中查汇总表（唯一索引单行）→回填Hash
+     */
+    @Override
+    public RatingSummary getSummary(RatingTargetTypeEnum targetType, Long targetId) {
+        try {
+            // 1. 参数校验
+            if (targetType == null || targetId == null) {
+                throw new BusinessException(SystemErrorCode.PARAM_NULL, "汇总对象不能为空");
+            }
+
+            // 2. 查询缓存
+            String cacheKey = buildCacheKey(targetType, targetId);
+            Map<Object, Object> cached = redisTemplate.opsForHash().entries(cacheKey);
+            if (!cached.isEmpty()) {
+                return fromHash(targetType, targetId, cached);
+            }
+
+            // 3. 缓存未命中，查询汇总表（无记录视为暂无评价）
+            RatingSummary summary = ratingSummaryMapper.selectByTarget(targetType, targetId);
+            if (summary == null) {
+                summary = RatingSummary.empty(targetType, targetId);
+            }
+
+            // 4. 回填缓存
+            redisTemplate.opsForHash().putAll(cacheKey, toHash(summary));
+            redisTemplate.expire(cacheKey, CACHE_TTL_RATING_SUMMARY);
+            return summary;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("查询评分汇总异常，类型：{}，对象ID：{}", targetType, targetId, e);
+            throw new BusinessException(SystemErrorCode.DATA_QUERY_FAILED);
+        }
+    }
+
+    /**
+     * 对账
+     * 核心逻辑：
+     * 1. 按对象ID游标遍历实时聚合结果，与已存储汇总比对，缺失或不一致的覆盖写入；
+     * 2. 按对象ID游标遍历已存储汇总，评价已全部失效但汇总仍有计数的清零。
+     * 商品维度按评价冗余的商品ID聚合：历史评价商品ID尚未回填完成时跳过，避免把历史评价计数误校正为0
+     */
+    @Override
+    public int reconcile(RatingTargetTypeEnum targetType) {
+        try {
+            if (targetType == null) {
+                throw new BusinessException(SystemErrorCode.PARAM_NULL, "汇总对象类型不能为空");
+            }
+            if (RatingTargetTypeEnum.PRODUCT.equals(targetType) && !evaluationMapper.selectIdsMissingProductId(null, 1).isEmpty()) {
+                log.warn("历史评价商品ID尚未回填完成，跳过商品评分汇总对账，请先调用评价商品ID回填接口");
+                return 0;
+            }
+            int fixed = 0;
+
+            // 1. 以实时聚合结果为准，校正缺失或不一致的汇总
+            Long lastTargetId = null;
+            while (true) {
+                List<RatingSummary> actualList = ratingSummaryMapper.selectActualSummaries(
+                        targetType, null, lastTargetId, RECONCILE_BATCH_SIZE);
+                if (actualList.isEmpty()) {
+                    break;
+                }
+                List<Long> targetIds = actualList.stream().map(RatingSummary::getTargetId).collect(Collectors.toList());
+                Map<Long, RatingSummary> storedMap = ratingSummaryMapper
+                        .selectStoredSummaries(targetType, targetIds, null, targetIds.size()).stream()
+                        .collect(Collectors.toMap(RatingSummary::getTargetId, Function.identity()));
+                for (RatingSummary actual : actualList) {
+                    actual.setTargetType(targetType);
+                    if (!sameCounts(actual, storedMap.get(actual.getTargetId()))) {
+                        overwriteSummary(actual, storedMap.get(actual.getTargetId()));
+                        fixed++;
+                    }
+                }
+                lastTargetId = targetIds.get(targetIds.size() - 1);
+            }
+
+            // 2. 清零已无有效评价的汇总
+            lastTargetId = null;
+            while (true) {
+                List<RatingSummary> storedList = ratingSummaryMapper.selectStoredSummaries(
+                        targetType, null, lastTargetId, RECONCILE_BATCH_SIZE);
+                if (storedList.isEmpty()) {
+                    break;
+                }
+                List<Long> nonEmptyIds = storedList.stream()
+                        .filter(stored -> stored.getRatingCount() != null && stored.getRatingCount() > 0)
+                        .map(RatingSummary::getTargetId)
+                        .collect(Collectors.toList());
+                if (!nonEmptyIds.isEmpty()) {
+                    Set<Long> actualIds = ratingSummaryMapper
+                            .selectActualSummaries(targetType, nonEmptyIds, null, nonEmptyIds.size()).stream()
+                            .map(RatingSummary::getTargetId)
+                            .collect(Collectors.toSet());
+                    for (RatingSummary stored : storedList) {
+                        if (nonEmptyIds.contains(stored.getTargetId()) && !actualIds.contains(stored.getTargetId())) {
+                            overwriteSummary(RatingSummary.empty(targetType, stored.getTargetId()), stored);
+                            fixed++;
+                        }
+                    }
+                }
+                lastTargetId = storedList.get(storedList.size() - 1).getTargetId();
+            }
+
+            log.info("评分汇总对账完成，类型：{}，校正记录数：{}", targetType, fixed);
+            return fixed;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("评分汇总对账异常，类型：{}", targetType, e);
+            throw new BusinessException(SystemErrorCode.FAILURE);
+        }
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    private void validateRatingParam(Long sellerId, Long productId, Integer score) {
+        if (sellerId == null || productId == null || score == null) {
+            throw new BusinessException(SystemErrorCode.PARAM_NULL, "评分汇总参数不能为空");
+        }
+        if (score < 1 || score > 5) {
+            throw new BusinessException(SystemErrorCode.PARAM_ERROR, "评分必须在1-5之间");
+        }
+    }
+
+    /**
+     * 事务提交后清除卖家与商品的评分汇总缓存（下次查询从汇总表回填）
+     */
+    private void evictAfterCommit(Long sellerId, Long productId) {
+        List<String> cacheKeys = Arrays.asList(
+                buildCacheKey(RatingTargetTypeEnum.SELLER, sellerId),
+                buildCacheKey(RatingTargetTypeEnum.PRODUCT, productId));
+        TransactionUtil.afterCommit(() -> redisTemplate.delete(cacheKeys));
+    }
+
+    /**
+     * 覆盖写入对账结果并清除缓存
+     */
+    private void overwriteSummary(RatingSummary actual, RatingSummary stored) {
+        log.warn("评分汇总不一致，已校正，类型：{}，对象ID：{}，存储评价数：{}，实际评价数：{}",
+                actual.getTargetType(), actual.getTargetId(),
+                stored != null ? stored.getRatingCount() : null, actual.getRatingCount());
+        ratingSummaryMapper.overwrite(actual);
+        redisTemplate.delete(buildCacheKey(actual.getTargetType(), actual.getTargetId()));
+    }
+
+    private boolean sameCounts(RatingSummary actual, RatingSummary stored) {
+        return stored != null
+                && Objects.equals(actual.getRatingCount(), stored.getRatingCount())
+                && Objects.equals(actual.getRatingSum(), stored.getRatingSum())
+                && Objects.equals(actual.getStar1Count(), stored.getStar1Count())
+                && Objects.equals(actual.getStar2Count(), stored.getStar2Count())
+                && Objects.equals(actual.getStar3Count(), stored.getStar3Count())
+                && Objects.equals(actual.getStar4Count(), stored.getStar4Count())
+                && Objects.equals(actual.getStar5Count(), stored.getStar5Count());
+    }
+
+    private String buildCacheKey(RatingTargetTypeEnum targetType, Long targetId) {
+        return CACHE_KEY_RATING_SUMMARY + targetType.getCode() + ":" + targetId;
+    }
+
+    private Map<String, Object> toHash(RatingSummary summary) {
+        Map<String, Object> hash = new HashMap<>();
+        hash.put(FIELD_COUNT, summary.getRatingCount());
+        hash.put(FIELD_SUM, summary.getRatingSum());
+        hash.put(FIELD_STAR_PREFIX + 1, summary.getStar1Count());
+        hash.put(FIELD_STAR_PREFIX + 2, summary.getStar2Count());
+        hash.put(FIELD_STAR_PREFIX + 3, summary.getStar3Count());
+        hash.put(FIELD_STAR_PREFIX + 4, summary.getStar4Count());
+        hash.put(FIELD_STAR_PREFIX + 5, summary.getStar5Count());
+        return hash;
+    }
+
+    private RatingSummary fromHash(RatingTargetTypeEnum targetType, Long targetId, Map<Object, Object> hash) {
+        RatingSummary summary = RatingSummary.empty(targetType, targetId);
+        summary.setRatingCount(toInt(hash.get(FIELD_COUNT)));
+        summary.setRatingSum(toLong(hash.get(FIELD_SUM)));
+        summary.setStar1Count(toInt(hash.get(FIELD_STAR_PREFIX + 1)));
+        summary.setStar2Count(toInt(hash.get(FIELD_STAR_PREFIX + 2)));
+        summary.setStar3Count(toInt(hash.get(FIELD_STAR_PREFIX + 3)));
+        summary.setStar4Count(toInt(hash.get(FIELD_STAR_PREFIX + 4)));
+        summary.setStar5Count(toInt(hash.get(FIELD_STAR_PREFIX + 5)));
+        return summary;
+    }
+
+    private int toInt(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : 0;
+    }
+
+    private long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+}
@@ -0,0 +1,343 @@
+package xyz.graygoo401.trade.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import xyz.graygoo401.api.trade.dto.order.SellerDailyStatsDTO;
+import xyz.graygoo401.api.trade.dto.order.SellerSalesSummaryDTO;
+import xyz.graygoo401.api.trade.enums.OrderStatusEnum;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.common.exception.error.SystemErrorCode;
+import xyz.graygoo401.trade.dao.entity.Order;
+import xyz.graygoo401.trade.dao.entity.SellerDailyStats;
+import xyz.graygoo401.trade.dao.mapper.SellerDailyStatsMapper;
+import xyz.graygoo401.trade.service.base.SellerDailyStatsService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 卖家销售日统计服务实现类
+ * 写侧：订单支付/退款流转与评价增删改时，以单条SQL原子累加当日统计（与业务更新同一事务，流转条件更新保证每次流转只计一次）；
+ * 读侧：按(seller_id, stat_date)唯一索引范围读取，缺失日期补0，汇总在内存中累加，不访问order表；
+ * 回填：逐日按order、evaluation表实时聚合结果覆盖不一致的统计（幂等），修复漏计并补齐历史数据
+ */
+@Slf4j
+@Service
+public class SellerDailyStatsServiceImpl implements SellerDailyStatsService {
+
+    // 查询相关常量
+    private static final int MAX_QUERY_DAYS = 366; // 单次范围查询最多天数
+
+    // 回填相关常量
+    private static final int BACKFILL_BATCH_SIZE = 500; // 回填每批卖家数
+
+    // 计入退款的订单状态
+    private static final Set<OrderStatusEnum> REFUND_STATUSES = EnumSet.of(OrderStatusEnum.REFUNDED, OrderStatusEnum.RETURNED);
+
+    @Autowired
+    private SellerDailyStatsMapper sellerDailyStatsMapper;
+
+    /**
+     * 计入一次订单状态流转
+     * 核心逻辑：识别流转类型（支付/退款）→按支付日期构造增量→原子累加
+     */
+    @Override
+    public void applyOrderTransition(Order order, OrderStatusEnum fromStatus, OrderStatusEnum toStatus) {
+        // 1. 识别流转类型（只有支付与首次进入退款状态影响统计）
+        boolean paid = fromStatus == OrderStatusEnum.PENDING_PAYMENT && toStatus == OrderStatusEnum.PENDING_SHIPMENT;
+        boolean refunded = REFUND_STATUSES.contains(toStatus) && !REFUND_STATUSES.contains(fromStatus);
+        if (!paid && !refunded) {
+            return;
+        }
+
+        // 2. 订单与退款都归属支付日期（缺少支付时间说明数据异常，等待回填任务校正，不影响流转）
+        if (order == null || order.getSellerId() == null || order.getTotalAmount() == null || order.getPayTime() == null) {
+            log.warn("订单缺少卖家、金额或支付时间，跳过销售统计，订单ID：{}，流转：{}→{}",
+                    order == null ? null : order.getOrderId(), fromStatus, toStatus);
+            return;
+        }
+        SellerDailyStats delta = SellerDailyStats.empty(order.getSellerId(), order.getPayTime().toLocalDate());
+        if (paid) {
+            delta.setOrderCount(1);
+            delta.setGmv(order.getTotalAmount());
+        } else {
+            delta.setRefundCount(1);
+            delta.setRefundAmount(order.getTotalAmount());
+        }
+
+        // 3. 原子累加
+        sellerDailyStatsMapper.increase(delta);
+    }
+
+    /**
+     * 计入一条评价
+     * 核心逻辑：参数校验→按评价日期原子累加评价数与评分总和
+     */
+    @Override
+    public void addRating(Long sellerId, LocalDateTime ratedTime, Integer score) {
+        validateRatingParam(sellerId, score);
+
+        SellerDailyStats delta = SellerDailyStats.empty(sellerId, toStatDate(ratedTime));
+        delta.setRatingCount(1);
+        delta.setRatingSum(score.longValue());
+        sellerDailyStatsMapper.increase(delta);
+    }
+
+    /**
+     * 移除一条评价
+     * 核心逻辑：参数校验→按评价日期原子扣减（统计不存在时仅记录告警）
+     */
+    @Override
+    public void removeRating(Long sellerId, LocalDateTime ratedTime, Integer score) {
+        validateRatingParam(sellerId, score);
+
+        LocalDate statDate = toStatDate(ratedTime);
+        if (sellerDailyStatsMapper.decreaseRating(sellerId, statDate, score) == 0) {
+            // 统计缺失说明数据已偏离，等待回填任务校正，不影响评价删除
+            log.warn("卖家销售日统计不存在，跳过评价扣减，卖家ID：{}，日期：{}，评分：{}", sellerId, statDate, score);
+        }
+    }
+
+    /**
+     * 查询卖家逐日统计
+     * 核心逻辑：参数校验→唯一索引范围读取→缺失日期补0
+     */
+    @Override
+    public List<SellerDailyStatsDTO> listDailyStats(Long sellerId, LocalDate startDate, LocalDate endDate) {
+        try {
+            // 1. 参数校验
+            validateRangeParam(sellerId, startDate, endDate);
+
+            // 2. 范围读取
+            Map<LocalDate, SellerDailyStats> statsMap = sellerDailyStatsMapper
+                    .selectBySellerAndDateRange(sellerId, startDate, endDate).stream()
+                    .collect(Collectors.toMap(SellerDailyStats::getStatDate, Function.identity()));
+
+            // 3. 逐日输出（无数据的日期各项为0，便于看板直接绘制）
+            List<SellerDailyStatsDTO> result = new ArrayList<>();
+            for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+                SellerDailyStats stats = statsMap.getOrDefault(date, SellerDailyStats.empty(sellerId, date));
+                result.add(toDailyDTO(stats));
+            }
+            return result;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("查询卖家销售日统计异常，卖家ID：{}，日期范围：{}~{}", sellerId, startDate, endDate, e);
+            throw new BusinessException(SystemErrorCode.DATA_QUERY_FAILED);
+        }
+    }
+
+    /**
+     * 查询卖家销售汇总
+     * 核心逻辑：参数校验→唯一索引范围读取→内存累加（平均分按评分总和/评价数计算，而非日均分的平均）
+     */
+    @Override
+    public SellerSalesSummaryDTO getSalesSummary(Long sellerId, LocalDate startDate, LocalDate endDate) {
+        try {
+            // 1. 参数校验
+            validateRangeParam(sellerId, startDate, endDate);
+
+            // 2. 范围读取并累加
+            SellerDailyStats total = SellerDailyStats.empty(sellerId, null);
+            for (SellerDailyStats stats : sellerDailyStatsMapper.selectBySellerAndDateRange(sellerId, startDate, endDate)) {
+                total.setOrderCount(total.getOrderCount() + stats.getOrderCount());
+                total.setGmv(total.getGmv().add(stats.getGmv()));
+                total.setRefundCount(total.getRefundCount() + stats.getRefundCount());
+                total.setRefundAmount(total.getRefundAmount().add(stats.getRefundAmount()));
+                total.setRatingCount(total.getRatingCount() + stats.getRatingCount());
+                total.setRatingSum(total.getRatingSum() + stats.getRatingSum());
+            }
+
+            // 3. 封装结果
+            SellerSalesSummaryDTO summaryDTO = new SellerSalesSummaryDTO();
+            summaryDTO.setSellerId(sellerId);
+            summaryDTO.setStartDate(startDate);
+            summaryDTO.setEndDate(endDate);
+            summaryDTO.setOrderCount(total.getOrderCount());
+            summaryDTO.setGmv(total.getGmv());
+            summaryDTO.setRefundCount(total.getRefundCount());
+            summaryDTO.setRefundAmount(total.getRefundAmount());
+            summaryDTO.setRatingCount(total.getRatingCount());
+            summaryDTO.setAverageRating(averageRating(total));
+            return summaryDTO;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("查询卖家销售汇总异常，卖家ID：{}，日期范围：{}~{}", sellerId, startDate, endDate, e);
+            throw new BusinessException(SystemErrorCode.DATA_QUERY_FAILED);
+        }
+    }
+
+    /**
+     * 回填
+     * 核心逻辑：逐日执行——
+     * 1. 按卖家ID游标遍历当日实时聚合结果，与已存储统计比对，缺失或不一致的覆盖写入；
+     * 2. 按卖家ID游标遍历当日已存储统计，源数据已不存在但统计非0的清零。
+     * 覆盖写入的都是绝对值，重复执行结果不变
+     */
+    @Override
+    public int backfill(LocalDate startDate, LocalDate endDate) {
+        try {
+            if (startDate == null || endDate == null) {
+                throw new BusinessException(SystemErrorCode.PARAM_NULL, "回填日期范围不能为空");
+            }
+            if (startDate.isAfter(endDate)) {
+                throw new BusinessException(SystemErrorCode.PARAM_ERROR, "开始日期不能晚于结束日期");
+            }
+            int fixed = 0;
+            for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+                fixed += backfillDay(date);
+            }
+            log.info("卖家销售日统计回填完成，日期范围：{}~{}，校正记录数：{}", startDate, endDate, fixed);
+            return fixed;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("卖家销售日统计回填异常，日期范围：{}~{}", startDate, endDate, e);
+            throw new BusinessException(SystemErrorCode.FAILURE);
+        }
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 回填一日的统计
+     * @return 被校正的记录数
+     */
+    private int backfillDay(LocalDate statDate) {
+        LocalDateTime dayStart = statDate.atStartOfDay();
+        LocalDateTime dayEnd = dayStart.plusDays(1);
+        int fixed = 0;
+
+        // 1. 以实时聚合结果为准，校正缺失或不一致的统计
+        Long lastSellerId = null;
+        while (true) {
+            List<SellerDailyStats> actualList = sellerDailyStatsMapper.selectActualDailyStats(
+                    dayStart, dayEnd, null, lastSellerId, BACKFILL_BATCH_SIZE);
+            if (actualList.isEmpty()) {
+                break;
+            }
+            List<Long> sellerIds = actualList.stream().map(SellerDailyStats::getSellerId).collect(Collectors.toList());
+            Map<Long, SellerDailyStats> storedMap = sellerDailyStatsMapper
+                    .selectStoredDailyStats(statDate, sellerIds, null, sellerIds.size()).stream()
+                    .collect(Collectors.toMap(SellerDailyStats::getSellerId, Function.identity()));
+            for (SellerDailyStats actual : actualList) {
+                actual.setStatDate(statDate);
+                if (!sameStats(actual, storedMap.get(actual.getSellerId()))) {
+                    overwriteStats(actual, storedMap.get(actual.getSellerId()));
+                    fixed++;
+                }
+            }
+            lastSellerId = sellerIds.get(sellerIds.size() - 1);
+        }
+
+        // 2. 清零源数据已不存在的统计
+        lastSellerId = null;
+        while (true) {
+            List<SellerDailyStats> storedList = sellerDailyStatsMapper.selectStoredDailyStats(
+                    statDate, null, lastSellerId, BACKFILL_BATCH_SIZE);
+            if (storedList.isEmpty()) {
+                break;
+            }
+            List<Long> nonEmptyIds = storedList.stream()
+                    .filter(stored -> !sameStats(SellerDailyStats.empty(stored.getSellerId(), statDate), stored))
+                    .map(SellerDailyStats::getSellerId)
+                    .collect(Collectors.toList());
+            if (!nonEmptyIds.isEmpty()) {
+                Set<Long> actualIds = sellerDailyStatsMapper
+                        .selectActualDailyStats(dayStart, dayEnd, nonEmptyIds, null, nonEmptyIds.size()).stream()
+                        .map(SellerDailyStats::getSellerId)
+                        .collect(Collectors.toSet());
+                for (SellerDailyStats stored : storedList) {
+                    if (nonEmptyIds.contains(stored.getSellerId()) && !actualIds.contains(stored.getSellerId())) {
+                        overwriteStats(SellerDailyStats.empty(stored.getSellerId(), statDate), stored);
+                        fixed++;
+                    }
+                }
+            }
+            lastSellerId = storedList.get(storedList.size() - 1).getSellerId();
+        }
+        return fixed;
+    }
+
+    private void overwriteStats(SellerDailyStats actual, SellerDailyStats stored) {
+        log.warn("卖家销售日统计不一致，已校正，卖家ID：{}，日期：{}，存储订单数：{}，实际订单数：{}",
+                actual.getSellerId(), actual.getStatDate(),
+                stored != null ? stored.getOrderCount() : null, actual.getOrderCount());
+        sellerDailyStatsMapper.overwrite(actual);
+    }
+
+    /**
+     * 统计是否一致（金额按数值比较，忽略小数位数差异）
+     */
+    private boolean sameStats(SellerDailyStats actual, SellerDailyStats stored) {
+        return stored != null
+                && Objects.equals(actual.getOrderCount(), stored.getOrderCount())
+                && amountEquals(actual.getGmv(), stored.getGmv())
+                && Objects.equals(actual.getRefundCount(), stored.getRefundCount())
+                && amountEquals(actual.getRefundAmount(), stored.getRefundAmount())
+                && Objects.equals(actual.getRatingCount(), stored.getRatingCount())
+                && Objects.equals(actual.getRatingSum(), stored.getRatingSum());
+    }
+
+    private boolean amountEquals(BigDecimal a, BigDecimal b) {
+        return a == null || b == null ? a == b : a.compareTo(b) == 0;
+    }
+
+    private void validateRatingParam(Long sellerId, Integer score) {
+        if (sellerId == null || score == null) {
+            throw new BusinessException(SystemErrorCode.PARAM_NULL, "销售统计评分参数不能为空");
+        }
+        if (score < 1 || score > 5) {
+            throw new BusinessException(SystemErrorCode.PARAM_ERROR, "评分必须在1-5之间");
+        }
+    }
+
+    private void validateRangeParam(Long sellerId, LocalDate startDate, LocalDate endDate) {
+        if (sellerId == null || startDate == null || endDate == null) {
+            throw new BusinessException(SystemErrorCode.PARAM_NULL, "卖家与日期范围不能为空");
+        }
+        if (startDate.isAfter(endDate)) {
+            throw new BusinessException(SystemErrorCode.PARAM_ERROR, "开始日期不能晚于结束日期");
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_QUERY_DAYS) {
+            throw new BusinessException(SystemErrorCode.PARAM_ERROR, "日期范围不能超过" + MAX_QUERY_DAYS + "天");
+        }
+    }
+
+    /**
+     * 评价归属日期（评价时间缺失时按当天计）
+     */
+    private LocalDate toStatDate(LocalDateTime ratedTime) {
+        return ratedTime == null ? LocalDate.now() : ratedTime.toLocalDate();
+    }
+
+    private SellerDailyStatsDTO toDailyDTO(SellerDailyStats stats) {
+        SellerDailyStatsDTO dailyDTO = new SellerDailyStatsDTO();
+        dailyDTO.setStatDate(stats.getStatDate());
+        dailyDTO.setOrderCount(stats.getOrderCount());
+        dailyDTO.setGmv(stats.getGmv());
+        dailyDTO.setRefundCount(stats.getRefundCount());
+        dailyDTO.setRefundAmount(stats.getRefundAmount());
+        dailyDTO.setRatingCount(stats.getRatingCount());
+        dailyDTO.setAverageRating(averageRating(stats));
+        return dailyDTO;
+    }
+
+    /**
+     * 平均评分（保留1位小数，与评分统计口径一致）
+     */
+    private double averageRating(SellerDailyStats stats) {
+        if (stats.getRatingCount() <= 0) {
+            return 0.0;
+        }
+        return Math.round(stats.getRatingSum() * 10.0 / stats.getRatingCount()) / 10.0;
+    }
+}
@@ -0,0 +1,215 @@
+package xyz.graygoo401.trade.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import xyz.graygoo401.api.trade.dto.product.ProductQueryDTO;
+import xyz.graygoo401.api.trade.dto.product.SimilarProductDTO;
+import xyz.graygoo401.api.trade.enums.ProductStatusEnum;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.common.exception.error.SystemErrorCode;
+import xyz.graygoo401.trade.convert.ProductConvert;
+import xyz.graygoo401.trade.dao.entity.Order;
+import xyz.graygoo401.trade.dao.entity.Product;
+import xyz.graygoo401.trade.dao.mapper.OrderMapper;
+import xyz.graygoo401.trade.dao.mapper.ProductMapper;
+import xyz.graygoo401.trade.index.ProductFilterIndex;
+import xyz.graygoo401.trade.recommend.SimilarProductCalculator;
+import xyz.graygoo401.trade.service.base.SimilarProductService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 相似商品服务实现类
+ * 离线：游标分批加载在售商品与近一年已支付订单→内存计算各商品TopK相似商品→Pipeline批量写入Redis（商品ID逗号拼接）
+ * 在线：Redis读取ID列表→主键批量加载在售商品，整体限时，超时或异常返回空列表；无预计算列表时按同类别最新在售商品兜底
+ */
+@Slf4j
+@Service
+public class SimilarProductServiceImpl implements SimilarProductService {
+
+    // 相似商品相关常量
+    private static final String CACHE_KEY_SIMILAR = "product:similar:"; // 相似商品Key前缀（值为逗号分隔的商品ID）
+    private static final Duration CACHE_TTL_SIMILAR = Duration.ofDays(3); // 有效期（覆盖每日重建，重建失败时仍可读旧结果）
+    private static final int SIMILAR_TOP_K = 10; // 每个商品的相似商品数
+    private static final int PURCHASE_LOOKBACK_DAYS = 365; // 共同购买统计的订单时间范围
+    private static final int LOAD_BATCH_SIZE = 1000; // 离线计算每批加载条数
+    private static final int REDIS_WRITE_BATCH_SIZE = 500; // 每次Pipeline写入的Key数
+    private static final long QUERY_TIMEOUT_MILLIS = 50; // 详情页查询相似商品的耗时上限
+
+    // 相似商品查询线程池（调用方线程只等待限定时间，超时后放弃结果，避免Redis/数据库抖动拖慢商品详情）
+    private static final ExecutorService SIMILAR_QUERY_EXECUTOR = Executors.newFixedThreadPool(8);
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private ProductConvert productConvert;
+
+    @Autowired
+    private ProductFilterIndex productFilterIndex;
+
+    /**
+     * 全量重建相似商品列表
+     * 核心逻辑：加载在售商品→加载近期已支付订单→计算相似商品→分批Pipeline写入Redis
+     */
+    @Override
+    public int rebuildSimilarProducts() {
+        try {
+            long start = System.currentTimeMillis();
+            SimilarProductCalculator calculator = new SimilarProductCalculator(SIMILAR_TOP_K);
+
+            // 1. 按商品ID游标分批加载在售商品（类别、价格用于补齐）
+            Long lastProductId = null;
+            while (true) {
+                List<Product> batch = productMapper.selectOnSaleForIndex(lastProductId, LOAD_BATCH_SIZE);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                batch.forEach(product -> calculator.addProduct(product.getProductId(), product.getCategory(), product.getPrice()));
+                lastProductId = batch.get(batch.size() - 1).getProductId();
+            }
+
+            // 2. 按订单ID游标分批加载近期已支付订单（订单ID自增，即按下单先后登记）
+            LocalDateTime since = LocalDateTime.now().minusDays(PURCHASE_LOOKBACK_DAYS);
+            int purchaseCount = 0;
+            Long lastOrderId = null;
+            while (true) {
+                List<Order> batch = orderMapper.selectPurchasesForRecommend(lastOrderId, since, LOAD_BATCH_SIZE);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                batch.forEach(order -> calculator.addPurchase(order.getBuyerId(), order.getProductId()));
+                purchaseCount += batch.size();
+                lastOrderId = batch.get(batch.size() - 1).getOrderId();
+            }
+
+            // 3. 计算并分批写入Redis
+            Map<Long, List<Long>> similarMap = calculator.build();
+            List<Map.Entry<Long, List<Long>>> entries = new ArrayList<>(similarMap.entrySet());
+            for (int from = 0; from < entries.size(); from += REDIS_WRITE_BATCH_SIZE) {
+                writeBatch(entries.subList(from, Math.min(from + REDIS_WRITE_BATCH_SIZE, entries.size())));
+            }
+
+            log.info("相似商品重建完成，订单数：{}，写入商品数：{}，耗时：{}ms",
+                    purchaseCount, similarMap.size(), System.currentTimeMillis() - start);
+            return similarMap.size();
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("相似商品重建异常", e);
+            throw new BusinessException(SystemErrorCode.FAILURE);
+        }
+    }
+
+    /**
+     * 查询相似商品（限时，超时或异常返回空列表）
+     */
+    @Override
+    public List<SimilarProductDTO> getSimilarProducts(Long productId, String category) {
+        if (productId == null) {
+            return Collections.emptyList();
+        }
+        Future<List<SimilarProductDTO>> future = SIMILAR_QUERY_EXECUTOR.submit(() -> loadSimilarProducts(productId, category));
+        try {
+            return future.get(QUERY_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("相似商品查询超时，商品ID：{}，上限：{}ms", productId, QUERY_TIMEOUT_MILLIS);
+            return Collections.emptyList();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return Collections.emptyList();
+        } catch (Exception e) {
+            log.warn("相似商品查询异常，商品ID：{}", productId, e);
+            return Collections.emptyList();
+        }
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 读取预计算的相似商品ID并加载在售商品（保持相似度顺序）
+     */
+    private List<SimilarProductDTO> loadSimilarProducts(Long productId, String category) {
+        // 1. 读取预计算列表，缺失时按同类别最新在售商品兜底
+        Object cached = redisTemplate.opsForValue().get(CACHE_KEY_SIMILAR + productId);
+        List<Long> similarIds = cached != null
+                ? parseIds(cached.toString())
+                : fallbackByCategory(productId, category);
+        if (similarIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // 2. 主键批量加载，过滤已下架/售出的商品
+        Map<Long, Product> productMap = productMapper.selectBatchIds(similarIds).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+        return similarIds.stream()
+                .map(productMap::get)
+                .filter(product -> product != null && ProductStatusEnum.ON_SALE.equals(product.getStatus()))
+                .map(productConvert::productToSimilarProductDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 兜底：由内存筛选索引取同类别最新发布的在售商品（索引未就绪或无类别时返回空列表）
+     */
+    private List<Long> fallbackByCategory(Long productId, String category) {
+        if (!StringUtils.hasText(category)) {
+            return Collections.emptyList();
+        }
+        ProductQueryDTO queryDTO = new ProductQueryDTO();
+        queryDTO.setCategory(category);
+        queryDTO.setStatus(ProductStatusEnum.ON_SALE);
+        if (!productFilterIndex.supports(queryDTO)) {
+            return Collections.emptyList();
+        }
+        return productFilterIndex.query(queryDTO, 0, SIMILAR_TOP_K + 1).getProductIds().stream()
+                .filter(id -> !id.equals(productId))
+                .limit(SIMILAR_TOP_K)
+                .collect(Collectors.toList());
+    }
+
+    private List<Long> parseIds(String value) {
+        if (!StringUtils.hasText(value)) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(value.split(","))
+                .map(Long::valueOf)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Pipeline批量写入一批商品的相似商品列表
+     */
+    private void writeBatch(List<Map.Entry<Long, List<Long>>> batch) {
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (Map.Entry<Long, List<Long>> entry : batch) {
+                    String value = entry.getValue().stream().map(String::valueOf).collect(Collectors.joining(","));
+                    operations.opsForValue().set(CACHE_KEY_SIMILAR + entry.getKey(), value, CACHE_TTL_SIMILAR);
+                }
+                return null;
+            }
+        });
+    }
+}
@@ -0,0 +1,26 @@
+package xyz.graygoo401.trade.statemachine;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 订单状态流转操作方角色枚举（状态机守卫按角色校验操作人）
+ */
+@AllArgsConstructor
+@Getter
+public enum OrderOperatorRoleEnum {
+
+    /** 订单所属买家 */
+    BUYER("买家"),
+
+    /** 订单所属卖家 */
+    SELLER("卖家"),
+
+    /** 平台管理员 */
+    ADMIN("管理员"),
+
+    /** 系统（支付回调、定时任务等无登录用户的场景） */
+    SYSTEM("系统");
+
+    private final String desc;
+}
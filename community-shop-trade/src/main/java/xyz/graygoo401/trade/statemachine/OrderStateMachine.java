@@ -0,0 +1,161 @@
+package xyz.graygoo401.trade.statemachine;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import xyz.graygoo401.api.common.dto.mq.OrderEventDTO;
+import xyz.graygoo401.api.common.dto.mq.ProductEventDTO;
+import xyz.graygoo401.api.common.enums.MqEventTypeEnum;
+import xyz.graygoo401.api.trade.enums.OrderStatusEnum;
+import xyz.graygoo401.api.trade.enums.ProductStatusEnum;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.common.exception.error.SystemErrorCode;
+import xyz.graygoo401.common.util.TransactionUtil;
+import xyz.graygoo401.trade.dao.entity.Order;
+import xyz.graygoo401.trade.dao.entity.Product;
+import xyz.graygoo401.trade.dao.mapper.OrderMapper;
+import xyz.graygoo401.trade.dao.mapper.ProductMapper;
+import xyz.graygoo401.trade.exception.error.OrderErrorCode;
+import xyz.graygoo401.trade.service.base.SellerDailyStatsService;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * 订单状态机
+ * 按OrderTransitionEnum流转表执行：源状态校验→守卫校验→条件更新（UPDATE ... WHERE order_id=? AND status=?）→副作用→流转事件
+ * 条件更新以订单当前状态为期望值（CAS），并发的冲突流转只有一个能更新成功，其余按影响行数为0拒绝，不会重复执行副作用
+ * 不单独开启事务：由调用方事务保证状态更新、库存恢复与卖家销售统计同时提交或回滚，流转事件在事务提交后发送
+ * 调用方未开启事务时直接拒绝流转，避免各条更新自动提交后部分生效
+ */
+@Slf4j
+@Component
+public class OrderStateMachine {
+
+    private static final String CACHE_KEY_PRODUCT = "product:info:"; // 商品详情缓存Key前缀（恢复库存后失效）
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private SellerDailyStatsService sellerDailyStatsService;
+
+    /**
+     * 执行订单状态流转
+     * @param order 流转前的订单（以其当前状态作为条件更新的期望值，成功后原地更新状态与时间）
+     * @param transition 流转
+     * @param operatorId 操作人ID（系统操作传null）
+     * @param admin 操作人是否为管理员
+     * @return 流转事件
+     * @throws BusinessException 源状态不允许（ORDER_STATUS_INVALID）、守卫拒绝（PERMISSION_DENIED）、并发冲突（ORDER_STATUS_CONFLICT）
+     * @throws IllegalStateException 调用方未开启事务
+     */
+    public OrderTransitionEvent fire(Order order, OrderTransitionEnum transition, Long operatorId, boolean admin) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("订单状态流转需在调用方事务内执行：" + transition);
+        }
+
+        // 1. 源状态校验
+        OrderStatusEnum fromStatus = order.getStatus();
+        if (!transition.getFromStatuses().contains(fromStatus)) {
+            throw new BusinessException(OrderErrorCode.ORDER_STATUS_INVALID,
+                    "订单状态为【" + (fromStatus == null ? "未知" : fromStatus.getDesc()) + "】，不允许" + transition.getDesc());
+        }
+
+        // 2. 守卫校验（操作人需具备流转允许的角色之一）
+        OrderOperatorRoleEnum role = resolveRole(order, transition, operatorId, admin);
+        if (role == null) {
+            throw new BusinessException(SystemErrorCode.PERMISSION_DENIED, "无权限" + transition.getDesc() + "此订单");
+        }
+
+        // 3. 条件更新（期望状态不符说明已被并发流转修改）
+        LocalDateTime eventTime = LocalDateTime.now();
+        int updateCount = orderMapper.compareAndSetStatus(order.getOrderId(), fromStatus, transition.getToStatus(),
+                transition.getTimeColumn(), eventTime);
+        if (updateCount != 1) {
+            log.warn("订单状态流转冲突，订单ID：{}，流转：{}，期望状态：{}", order.getOrderId(), transition, fromStatus);
+            throw new BusinessException(OrderErrorCode.ORDER_STATUS_CONFLICT);
+        }
+        order.setStatus(transition.getToStatus());
+        if (transition.getTimeSetter() != null) {
+            transition.getTimeSetter().accept(order, eventTime);
+        }
+
+        // 4. 副作用（仅条件更新成功的一方执行）
+        if (transition.isRestoreStock()) {
+            restoreStock(order);
+        }
+        sellerDailyStatsService.applyOrderTransition(order, fromStatus, transition.getToStatus());
+
+        // 5. 流转事件（事务提交后发送）
+        OrderTransitionEvent event = new OrderTransitionEvent(order.getOrderId(), order.getOrderNo(), order.getBuyerId(),
+                order.getSellerId(), transition, fromStatus, transition.getToStatus(), operatorId, eventTime);
+        publish(event);
+
+        log.info("订单状态流转成功，订单ID：{}，流转：{}，{}→{}，操作人：{}（{}）", order.getOrderId(), transition.getDesc(),
+                fromStatus, transition.getToStatus(), operatorId, role.getDesc());
+        return event;
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 按流转允许的角色依次匹配操作人（系统操作无操作人ID）
+     * @return 匹配的角色，均不匹配时返回null
+     */
+    private OrderOperatorRoleEnum resolveRole(Order order, OrderTransitionEnum transition, Long operatorId, boolean admin) {
+        for (OrderOperatorRoleEnum role : transition.getAllowedRoles()) {
+            boolean matched = switch (role) {
+                case BUYER -> operatorId != null && Objects.equals(order.getBuyerId(), operatorId);
+                case SELLER -> operatorId != null && Objects.equals(order.getSellerId(), operatorId);
+                case ADMIN -> operatorId != null && admin;
+                case SYSTEM -> operatorId == null;
+            };
+            if (matched) {
+                return role;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 恢复订单占用的商品库存（相对增量更新，已售罄商品恢复为在售），提交后失效商品详情缓存
+     * 商品由已售罄恢复为在售时发送商品状态事件（与批量预占库存售罄时的状态事件对应）
+     */
+    private void restoreStock(Order order) {
+        Product product = productMapper.selectById(order.getProductId());
+        int updateCount = productMapper.increaseStock(order.getProductId(), order.getQuantity());
+        if (updateCount != 1) {
+            log.warn("订单商品不存在，无法恢复库存，订单ID：{}，商品ID：{}", order.getOrderId(), order.getProductId());
+            return;
+        }
+        TransactionUtil.afterCommit(() -> redisTemplate.delete(CACHE_KEY_PRODUCT + order.getProductId()));
+        if (product != null && ProductStatusEnum.SOLD_OUT.equals(product.getStatus())) {
+            ProductEventDTO event = new ProductEventDTO(product.getProductId(), product.getSellerId(), product.getTitle(), "STATUS");
+            TransactionUtil.afterCommit(() -> rabbitTemplate.convertAndSend("product.topic", "product.status", event));
+        }
+    }
+
+    /**
+     * 事务提交后按流转事件的交换机与路由键发送订单事件（消息类型为目标状态编码）
+     */
+    private void publish(OrderTransitionEvent event) {
+        OrderEventDTO message = new OrderEventDTO(event.getOrderId(), event.getBuyerId(), event.getSellerId(),
+                event.getOrderNo(), event.getToStatus().getCode());
+        MqEventTypeEnum eventType = event.getTransition().getEvent();
+        TransactionUtil.afterCommit(() ->
+                rabbitTemplate.convertAndSend(eventType.getExchange(), eventType.getRoutingKey(), message));
+    }
+}
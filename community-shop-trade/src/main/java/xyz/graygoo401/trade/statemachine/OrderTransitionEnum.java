@@ -0,0 +1,87 @@
+package xyz.graygoo401.trade.statemachine;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import xyz.graygoo401.api.common.enums.MqEventTypeEnum;
+import xyz.graygoo401.api.trade.enums.OrderStatusEnum;
+import xyz.graygoo401.trade.dao.entity.Order;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import static xyz.graygoo401.api.trade.enums.OrderStatusEnum.*;
+import static xyz.graygoo401.trade.statemachine.OrderOperatorRoleEnum.*;
+
+/**
+ * 订单状态流转表（每个枚举值即一条允许的流转）
+ * 列：允许的源状态、目标状态、守卫（允许的操作方角色）、记录时间的字段、副作用（是否恢复库存）、流转事件
+ * 未在表中声明的流转一律拒绝；终态（已完成、已取消、已退货）不出现在任何源状态中
+ */
+@AllArgsConstructor
+@Getter
+public enum OrderTransitionEnum {
+
+    /** 支付：待支付→待发货 */
+    PAY("支付", EnumSet.of(PENDING_PAYMENT), PENDING_SHIPMENT,
+            EnumSet.of(BUYER, SYSTEM), "pay_time", Order::setPayTime, false, MqEventTypeEnum.ORDER_PAID),
+
+    /** 取消：待支付→已取消（买家或管理员发起，恢复库存） */
+    CANCEL("取消", EnumSet.of(PENDING_PAYMENT), CANCELLED,
+            EnumSet.of(BUYER, ADMIN), "cancel_time", Order::setCancelTime, true, MqEventTypeEnum.ORDER_CANCELLED),
+
+    /** 超时关闭：待支付→已取消（定时任务发起，恢复库存） */
+    TIMEOUT_CLOSE("超时关闭", EnumSet.of(PENDING_PAYMENT), CANCELLED,
+            EnumSet.of(SYSTEM), "cancel_time", Order::setCancelTime, true, MqEventTypeEnum.ORDER_CANCELLED),
+
+    /** 发货：待发货→已发货 */
+    SHIP("发货", EnumSet.of(PENDING_SHIPMENT), SHIPPED,
+            EnumSet.of(SELLER), "ship_time", Order::setShipTime, false, MqEventTypeEnum.ORDER_SHIPPED),
+
+    /** 确认收货：已发货/待收货→已完成 */
+    CONFIRM_RECEIVE("确认收货", EnumSet.of(SHIPPED, PENDING_RECEIVE), COMPLETED,
+            EnumSet.of(BUYER), "receive_time", Order::setReceiveTime, false, MqEventTypeEnum.ORDER_COMPLETED),
+
+    /** 退货：已发货→已退货 */
+    RETURN("退货", EnumSet.of(SHIPPED), RETURNED,
+            EnumSet.of(BUYER), null, null, false, MqEventTypeEnum.ORDER_RETURNED);
+
+    /** 流转名称（用于日志与错误提示） */
+    private final String desc;
+
+    /** 允许的源状态 */
+    private final Set<OrderStatusEnum> fromStatuses;
+
+    /** 目标状态 */
+    private final OrderStatusEnum toStatus;
+
+    /** 守卫：允许发起该流转的操作方角色 */
+    private final Set<OrderOperatorRoleEnum> allowedRoles;
+
+    /** 流转时记录时间的数据库字段（为空表示不记录） */
+    private final String timeColumn;
+
+    /** 流转时记录时间的实体属性（与timeColumn对应） */
+    private final BiConsumer<Order, LocalDateTime> timeSetter;
+
+    /** 副作用：流转成功后恢复商品库存 */
+    private final boolean restoreStock;
+
+    /** 流转事件（决定交换机与路由键） */
+    private final MqEventTypeEnum event;
+
+    /**
+     * 按源状态与目标状态查找流转（仅匹配非系统专属流转，用于通用的状态更新接口）
+     * @return 匹配的流转，不存在时返回null
+     */
+    public static OrderTransitionEnum resolve(OrderStatusEnum fromStatus, OrderStatusEnum toStatus) {
+        for (OrderTransitionEnum transition : values()) {
+            if (transition.fromStatuses.contains(fromStatus) && transition.toStatus.equals(toStatus)
+                    && !EnumSet.of(SYSTEM).equals(transition.allowedRoles)) {
+                return transition;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,26 @@
+package xyz.graygoo401.trade.statemachine;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import xyz.graygoo401.api.trade.enums.OrderStatusEnum;
+
+import java.time.LocalDateTime;
+
+/**
+ * 订单状态流转事件（每次流转成功生成一条，事务提交后按流转路由键发送）
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderTransitionEvent {
+    private Long orderId;
+    private String orderNo;
+    private Long buyerId;
+    private Long sellerId;
+    private OrderTransitionEnum transition;
+    private OrderStatusEnum fromStatus;
+    private OrderStatusEnum toStatus;
+    private Long operatorId; // 操作人ID（系统操作为null）
+    private LocalDateTime eventTime;
+}
@@ -0,0 +1,226 @@
+package xyz.graygoo401.trade.aop;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import xyz.graygoo401.api.trade.dto.order.OrderCreateDTO;
+import xyz.graygoo401.api.trade.dto.order.OrderDetailDTO;
+import xyz.graygoo401.api.trade.enums.PayTypeEnum;
+import xyz.graygoo401.common.aop.IdempotentAspect;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.common.exception.error.SystemErrorCode;
+import xyz.graygoo401.common.util.RequestParseUtil;
+import xyz.graygoo401.common.vo.ResultVO;
+import xyz.graygoo401.trade.controller.OrderController;
+import xyz.graygoo401.trade.exception.error.ProductErrorCode;
+import xyz.graygoo401.trade.service.base.OrderService;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * IdempotentAspect单元测试
+ * 以AspectJ代理包装真实OrderController（订单服务为模拟对象，创建订单耗时200ms），Redis以ConcurrentHashMap模拟原子SETNX
+ * 覆盖：50个重复下单并发提交只创建一次订单且全部拿到同一响应、已完成请求重放不进入服务、首个请求失败后可用同一个键重试、
+ * 同一个键携带不同参数被拒绝、不同用户或未携带请求头时互不影响
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class IdempotentAspectTest {
+
+    private static final int DUPLICATE_SUBMISSIONS = 50; // 并发重复提交数
+    private static final long CREATE_ORDER_MILLIS = 200; // 模拟下单耗时（保证重复请求在首个请求处理中到达）
+
+    @Mock
+    private OrderService orderService;
+    @Mock
+    private RequestParseUtil requestParseUtil;
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    private final Map<String, Object> fakeRedis = new ConcurrentHashMap<>();
+    private final AtomicInteger createCount = new AtomicInteger();
+    private final AtomicLong orderIdSequence = new AtomicLong(1000);
+    private final ThreadLocal<Long> currentUserId = ThreadLocal.withInitial(() -> 1L);
+    private OrderController orderController;
+
+    @BeforeEach
+    void setUp() {
+        // 1. 模拟Redis（SETNX/GET/SET/DEL原子执行）
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), any(), anyLong(), any(TimeUnit.class))).thenAnswer(invocation ->
+                fakeRedis.putIfAbsent(invocation.getArgument(0), invocation.getArgument(1)) == null);
+        when(valueOperations.get(anyString())).thenAnswer(invocation -> fakeRedis.get(invocation.<String>getArgument(0)));
+        doAnswer(invocation -> fakeRedis.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(valueOperations).set(anyString(), any(), anyLong(), any(TimeUnit.class));
+        when(redisTemplate.delete(anyString())).thenAnswer(invocation -> fakeRedis.remove(invocation.<String>getArgument(0)) != null);
+
+        // 2. 模拟下单：每次调用生成新订单
+        when(requestParseUtil.parseUserIdFromRequest()).thenAnswer(invocation -> currentUserId.get());
+        when(orderService.createOrder(anyLong(), any(OrderCreateDTO.class))).thenAnswer(invocation -> {
+            createCount.incrementAndGet();
+            Thread.sleep(CREATE_ORDER_MILLIS);
+            OrderDetailDTO detailDTO = new OrderDetailDTO();
+            detailDTO.setOrderId(orderIdSequence.incrementAndGet());
+            detailDTO.setOrderNo("ORD" + detailDTO.getOrderId());
+            return detailDTO;
+        });
+
+        // 3. 以切面代理真实Controller
+        OrderController target = new OrderController();
+        ReflectionTestUtils.setField(target, "orderService", orderService);
+        ReflectionTestUtils.setField(target, "requestParseUtil", requestParseUtil);
+        IdempotentAspect aspect = new IdempotentAspect();
+        ReflectionTestUtils.setField(aspect, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(aspect, "requestParseUtil", requestParseUtil);
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(aspect);
+        orderController = proxyFactory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    /**
+     * 并发测试：50个携带相同Idempotency-Key的下单请求同时提交
+     * 只执行一次下单，其余请求等待首个请求完成后拿到同一订单
+     */
+    @Test
+    void createOrder_concurrentDuplicates_executedOnce() throws Exception {
+        // 1. 并发提交（统一起跑）
+        ExecutorService executor = Executors.newFixedThreadPool(DUPLICATE_SUBMISSIONS);
+        CyclicBarrier barrier = new CyclicBarrier(DUPLICATE_SUBMISSIONS);
+        List<Future<ResultVO<OrderDetailDTO>>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < DUPLICATE_SUBMISSIONS; i++) {
+                futures.add(executor.submit(() -> {
+                    bindRequest("create-order-key-1");
+                    barrier.await();
+                    return orderController.createOrder(buildCreateDTO(new BigDecimal("4599.00")));
+                }));
+            }
+
+            // 2. 验证结果：全部成功且为同一订单
+            Long orderId = null;
+            for (Future<ResultVO<OrderDetailDTO>> future : futures) {
+                ResultVO<OrderDetailDTO> result = future.get(30, TimeUnit.SECONDS);
+                assertEquals("200", result.getCode());
+                if (orderId == null) {
+                    orderId = result.getData().getOrderId();
+                }
+                assertEquals(orderId, result.getData().getOrderId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, createCount.get());
+        verify(orderService, times(1)).createOrder(anyLong(), any(OrderCreateDTO.class));
+    }
+
+    /**
+     * 已完成请求重放：相同键直接返回缓存响应不进入服务，不同键、不同用户各自执行
+     */
+    @Test
+    void createOrder_completedDuplicate_replayedWithoutService() {
+        OrderCreateDTO createDTO = buildCreateDTO(new BigDecimal("4599.00"));
+        bindRequest("key-a");
+        Long firstOrderId = orderController.createOrder(createDTO).getData().getOrderId();
+        assertEquals(firstOrderId, orderController.createOrder(createDTO).getData().getOrderId());
+        assertEquals(1, createCount.get());
+
+        // 不同键重新执行
+        bindRequest("key-b");
+        assertNotEquals(firstOrderId, orderController.createOrder(createDTO).getData().getOrderId());
+        assertEquals(2, createCount.get());
+
+        // 不同用户使用相同键互不影响
+        currentUserId.set(2L);
+        bindRequest("key-a");
+        assertNotEquals(firstOrderId, orderController.createOrder(createDTO).getData().getOrderId());
+        assertEquals(3, createCount.get());
+    }
+
+    /**
+     * 首个请求失败：释放键，客户端用同一个键重试时重新执行
+     */
+    @Test
+    void createOrder_firstAttemptFails_retryExecutes() {
+        when(orderService.createOrder(anyLong(), any(OrderCreateDTO.class)))
+                .thenThrow(new BusinessException(ProductErrorCode.PRODUCT_STOCK_INSUFFICIENT))
+                .thenAnswer(invocation -> {
+                    OrderDetailDTO detailDTO = new OrderDetailDTO();
+                    detailDTO.setOrderId(2000L);
+                    return detailDTO;
+                });
+        bindRequest("key-retry");
+
+        assertThrows(BusinessException.class, () -> orderController.createOrder(buildCreateDTO(new BigDecimal("4599.00"))));
+        assertTrue(fakeRedis.isEmpty());
+        assertEquals(2000L, orderController.createOrder(buildCreateDTO(new BigDecimal("4599.00"))).getData().getOrderId());
+        verify(orderService, times(2)).createOrder(anyLong(), any(OrderCreateDTO.class));
+    }
+
+    /**
+     * 同一个键携带不同请求参数：拒绝且不执行；未携带请求头：每次均执行
+     */
+    @Test
+    void createOrder_keyReusedOrMissing() {
+        bindRequest("key-c");
+        orderController.createOrder(buildCreateDTO(new BigDecimal("4599.00")));
+        BusinessException reused = assertThrows(BusinessException.class, () ->
+                orderController.createOrder(buildCreateDTO(new BigDecimal("1.00"))));
+        assertEquals(SystemErrorCode.IDEMPOTENT_KEY_REUSED, reused.getErrorCode());
+        assertEquals(1, createCount.get());
+
+        bindRequest(null);
+        orderController.createOrder(buildCreateDTO(new BigDecimal("4599.00")));
+        orderController.createOrder(buildCreateDTO(new BigDecimal("4599.00")));
+        assertEquals(3, createCount.get());
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    private void bindRequest(String idempotencyKey) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/orders/create");
+        if (idempotencyKey != null) {
+            request.addHeader(IdempotentAspect.HEADER_IDEMPOTENCY_KEY, idempotencyKey);
+        }
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private OrderCreateDTO buildCreateDTO(BigDecimal totalAmount) {
+        OrderCreateDTO createDTO = new OrderCreateDTO();
+        createDTO.setProductId(1L);
+        createDTO.setQuantity(1);
+        createDTO.setTotalAmount(totalAmount);
+        createDTO.setAddress("北京市朝阳区");
+        createDTO.setPayType(PayTypeEnum.ALIPAY);
+        return createDTO;
+    }
+}
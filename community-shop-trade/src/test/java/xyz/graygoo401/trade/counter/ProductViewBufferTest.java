@@ -0,0 +1,161 @@
+package xyz.graygoo401.trade.counter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ProductViewBuffer单元测试
+ * 覆盖访客去重与上限、失败回填，以及并发记录与并发取出同时进行时浏览量不丢失、不重复（压测变体属于benchmark分组）
+ */
+@Slf4j
+public class ProductViewBufferTest {
+
+    private static final int THREAD_COUNT = 8; // 模拟并发请求线程数
+    private static final int VIEWS_PER_THREAD = 20_000; // 每个线程记录的浏览次数
+    private static final int BENCHMARK_VIEWS_PER_THREAD = 500_000; // 压测时每个线程记录的浏览次数
+    private static final int PRODUCT_COUNT = 1_000; // 商品数（长尾分布，少数热门商品承担大部分浏览）
+
+    /**
+     * 测试访客记录：同一统计Key下重复访客只保留一份，取出后清空
+     */
+    @Test
+    void recordVisitor_duplicateVisitors_deduplicatedPerKey() {
+        ProductViewBuffer buffer = new ProductViewBuffer();
+        buffer.recordVisitor("product:uv:20240107:1", "user:1");
+        buffer.recordVisitor("product:uv:20240107:1", "user:1");
+        buffer.recordVisitor("product:uv:20240107:1", "ip:10.0.0.1");
+        buffer.recordVisitor("product:uv:20240108:1", "user:1");
+
+        Map<String, Set<String>> visitors = buffer.drainVisitors();
+
+        assertEquals(Set.of("user:1", "ip:10.0.0.1"), visitors.get("product:uv:20240107:1"));
+        assertEquals(Set.of("user:1"), visitors.get("product:uv:20240108:1"));
+        assertTrue(buffer.drainVisitors().isEmpty());
+    }
+
+    /**
+     * 测试访客上限：暂存访客达到上限后丢弃新访客，取出后恢复记录
+     */
+    @Test
+    void recordVisitor_overLimit_dropsUntilDrained() {
+        ProductViewBuffer buffer = new ProductViewBuffer();
+        for (int i = 0; i < ProductViewBuffer.MAX_PENDING_VISITORS + 10; i++) {
+            buffer.recordVisitor("product:uv:20240107:1", "user:" + i);
+        }
+        assertEquals(ProductViewBuffer.MAX_PENDING_VISITORS, buffer.drainVisitors().get("product:uv:20240107:1").size());
+
+        buffer.recordVisitor("product:uv:20240107:1", "user:new");
+        assertEquals(Set.of("user:new"), buffer.drainVisitors().get("product:uv:20240107:1"));
+    }
+
+    /**
+     * 测试回填：落库失败回填的增量与新增浏览合并
+     */
+    @Test
+    void restoreViews_mergedWithNewViews() {
+        ProductViewBuffer buffer = new ProductViewBuffer();
+        buffer.recordView(1L);
+        Map<Long, Long> drained = buffer.drainViews();
+        buffer.restoreViews(drained);
+        buffer.recordView(1L);
+        buffer.recordView(2L);
+
+        assertEquals(Map.of(1L, 2L, 2L, 1L), buffer.drainViews());
+        assertTrue(buffer.drainViews().isEmpty());
+    }
+
+    /**
+     * 多线程测试：8个线程持续记录浏览与访客，另一线程每毫秒取出一次（模拟定时落库）
+     * 校验所有取出的增量之和等于记录次数
+     */
+    @Test
+    void concurrentRecordAndDrain_noLostViews() throws Exception {
+        recordAndDrainConcurrently(VIEWS_PER_THREAD);
+    }
+
+    /**
+     * 多线程压测：每线程50万次记录，校验不丢失并输出单次记录耗时（与毫秒级的详情查询相比可忽略，默认构建不执行）
+     */
+    @Test
+    @Tag("benchmark")
+    void concurrentRecordAndDrain_throughput() throws Exception {
+        long maxNanos = recordAndDrainConcurrently(BENCHMARK_VIEWS_PER_THREAD);
+        long totalOps = (long) THREAD_COUNT * BENCHMARK_VIEWS_PER_THREAD;
+        log.info("商品浏览缓冲压测完成，线程数：{}，浏览+访客记录次数：{}，总吞吐：{}万次/秒，单次记录平均耗时：{}ns",
+                THREAD_COUNT, totalOps, String.format("%.1f", totalOps / (maxNanos / 1e9) / 10_000),
+                String.format("%.0f", (double) maxNanos * THREAD_COUNT / totalOps));
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 并发记录与并发取出，校验逐商品计数与记录次数一致
+     * @return 记录线程中最长的耗时（纳秒）
+     */
+    private long recordAndDrainConcurrently(int viewsPerThread) throws Exception {
+        // 1. 准备数据（各线程预生成商品序列，避免随机数生成计入耗时）
+        ProductViewBuffer buffer = new ProductViewBuffer();
+        long[][] productIds = new long[THREAD_COUNT][viewsPerThread];
+        Random random = new Random(7);
+        for (long[] ids : productIds) {
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = 1 + (long) (PRODUCT_COUNT * Math.pow(random.nextDouble(), 3));
+            }
+        }
+
+        // 2. 启动取出线程与记录线程
+        Map<Long, Long> totals = new HashMap<>();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread drainer = new Thread(() -> {
+            while (running.get()) {
+                buffer.drainViews().forEach((productId, delta) -> totals.merge(productId, delta, Long::sum));
+                buffer.drainVisitors();
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        });
+        drainer.start();
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int t = 0; t < THREAD_COUNT; t++) {
+            long[] ids = productIds[t];
+            String visitorPrefix = "user:" + t + ":";
+            futures.add(executor.submit(() -> {
+                startLatch.await();
+                long start = System.nanoTime();
+                for (int i = 0; i < ids.length; i++) {
+                    buffer.recordView(ids[i]);
+                    buffer.recordVisitor("product:uv:20240107:" + ids[i], visitorPrefix + (i & 1023));
+                }
+                return System.nanoTime() - start;
+            }));
+        }
+        startLatch.countDown();
+        long maxNanos = 0;
+        for (Future<Long> future : futures) {
+            maxNanos = Math.max(maxNanos, future.get());
+        }
+        executor.shutdown();
+        running.set(false);
+        drainer.join();
+        buffer.drainViews().forEach((productId, delta) -> totals.merge(productId, delta, Long::sum));
+
+        // 3. 验证结果（逐商品计数与记录次数一致）
+        Map<Long, Long> expected = new HashMap<>();
+        for (long[] ids : productIds) {
+            for (long id : ids) {
+                expected.merge(id, 1L, Long::sum);
+            }
+        }
+        assertEquals(expected, totals);
+        return maxNanos;
+    }
+}
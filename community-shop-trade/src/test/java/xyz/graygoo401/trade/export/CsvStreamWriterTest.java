@@ -0,0 +1,290 @@
+package xyz.graygoo401.trade.export;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import xyz.graygoo401.api.trade.enums.OrderStatusEnum;
+import xyz.graygoo401.common.export.CsvStreamWriter;
+import xyz.graygoo401.common.export.ExportColumn;
+import xyz.graygoo401.trade.dao.entity.Order;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CsvStreamWriter单元测试
+ * 覆盖转义与公式前缀防护、按行数分块flush、多块连续写出，以及100万行订单在128MB堆上限下的流式导出（benchmark分组）：
+ * 父进程准备H2文件库，子进程以-Xmx128m启动，分别按流式（JDBC fetchSize逐行读写）与整表载入List两种方式导出
+ * 流式导出需成功完成，载入List作为对照预期内存溢出；耗时与峰值堆占用以日志输出供参考，不对耗时做断言
+ */
+@Slf4j
+public class CsvStreamWriterTest {
+
+    private static final int EXPORT_ROWS = 1_000_000; // 导出行数
+    private static final int INSERT_BATCH_ROWS = 100_000; // 准备数据时每条INSERT ... SELECT写入行数
+    private static final int FETCH_SIZE = 1000; // 流式读取每次拉取行数（与Mapper中fetchSize一致）
+    private static final String HEAP_LIMIT = "-Xmx128m"; // 子进程堆上限
+
+    private static final List<ExportColumn<Order>> COLUMNS = List.of(
+            ExportColumn.of("订单ID", Order::getOrderId),
+            ExportColumn.of("订单编号", Order::getOrderNo),
+            ExportColumn.of("商品ID", Order::getProductId),
+            ExportColumn.of("买家ID", Order::getBuyerId),
+            ExportColumn.of("卖家ID", Order::getSellerId),
+            ExportColumn.of("数量", Order::getQuantity),
+            ExportColumn.of("订单金额", Order::getTotalAmount),
+            ExportColumn.of("订单状态", order -> order.getStatus().getDesc()),
+            ExportColumn.of("收货人", Order::getReceiverName),
+            ExportColumn.of("下单时间", Order::getCreateTime)
+    );
+
+    /**
+     * 测试转义：含逗号、双引号、换行的文本加引号并转义，公式前缀加单引号，null输出空单元格
+     */
+    @Test
+    void write_escapesTextAndGuardsFormula() throws IOException {
+        List<ExportColumn<String[]>> columns = List.of(
+                ExportColumn.of("A", row -> row[0]),
+                ExportColumn.of("B", row -> row[1]));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (CsvStreamWriter<String[]> writer = new CsvStreamWriter<>(out, columns)) {
+            writer.write(new String[]{"a,b", "say \"hi\""});
+            writer.write(new String[]{"line1\nline2", null});
+            writer.write(new String[]{"=SUM(A1)", "-1"});
+        }
+
+        assertEquals("\uFEFFA,B\r\n\"a,b\",\"say \"\"hi\"\"\"\r\n\"line1\nline2\",\r\n'=SUM(A1),'-1\r\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 测试分块：未满FLUSH_ROWS行时数据留在缓冲区，满FLUSH_ROWS行后写入底层输出流
+     */
+    @Test
+    void write_flushesEveryFlushRows() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CsvStreamWriter<Order> writer = new CsvStreamWriter<>(out, COLUMNS);
+
+        for (int i = 1; i < CsvStreamWriter.FLUSH_ROWS; i++) {
+            writer.write(buildOrder(i));
+        }
+        assertEquals(0, out.size(), "未满分块行数时不应写出");
+
+        writer.write(buildOrder(CsvStreamWriter.FLUSH_ROWS));
+        assertTrue(out.size() > 0, "满分块行数后应写出");
+        assertEquals(CsvStreamWriter.FLUSH_ROWS, writer.getRowCount());
+    }
+
+    /**
+     * 测试批量写出：跨多个分块写出全部行，表头后每行一条记录且行数与返回值一致
+     */
+    @Test
+    void writeAll_multipleChunks_writesEveryRow() throws IOException {
+        int rowCount = CsvStreamWriter.FLUSH_ROWS * 3 + 5;
+        List<Order> orders = new ArrayList<>();
+        for (int i = 1; i <= rowCount; i++) {
+            orders.add(buildOrder(i));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (CsvStreamWriter<Order> writer = new CsvStreamWriter<>(out, COLUMNS)) {
+            assertEquals(rowCount, writer.writeAll(orders));
+        }
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(rowCount + 1, lines.size());
+        assertTrue(lines.get(rowCount).startsWith(rowCount + ",ORD" + rowCount + ","));
+    }
+
+    /**
+     * 压测：100万行订单在128MB堆上限下流式导出成功，整表载入List对照组内存溢出（默认构建不执行）
+     */
+    @Test
+    @Tag("benchmark")
+    void exportMillionRows_streamingFitsIn128MbHeap(@TempDir Path tempDir) throws Exception {
+        // 1. 父进程准备H2文件库（100万行订单）
+        String url = "jdbc:h2:file:" + tempDir.resolve("export").toAbsolutePath() + ";MODE=MySQL";
+        long prepareStart = System.nanoTime();
+        prepareDatabase(url);
+        long prepareMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - prepareStart);
+
+        // 2. 子进程流式导出
+        ChildResult streaming = runChild(url, "stream");
+        assertEquals(0, streaming.exitCode, "流式导出应在128MB堆内完成：\n" + streaming.output);
+        assertTrue(streaming.output.contains("ROWS=" + EXPORT_ROWS), streaming.output);
+
+        // 3. 子进程整表载入List（对照组）
+        ChildResult loadAll = runChild(url, "list");
+        assertNotEquals(0, loadAll.exitCode, "整表载入预期超出128MB堆：\n" + loadAll.output);
+        assertTrue(loadAll.output.contains("OutOfMemoryError"), loadAll.output);
+
+        log.info("订单流式导出压测完成，导出行数：{}，子进程堆上限：{}，准备数据耗时：{}ms，流式导出：{}，整表载入List：OutOfMemoryError",
+                EXPORT_ROWS, HEAP_LIMIT, prepareMillis,
+                streaming.output.lines().filter(line -> line.startsWith("ROWS=")).findFirst().orElse(""));
+    }
+
+    /**
+     * 子进程入口：按模式从H2文件库导出订单到丢弃输出流，结果行写到标准输出供父进程解析
+     * @param args [0] JDBC URL，[1] 模式（stream：逐行流式；list：先载入List再写出）
+     */
+    public static void main(String[] args) throws Exception {
+        String url = args[0];
+        boolean streaming = "stream".equals(args[1]);
+        long start = System.nanoTime();
+        CountingOutputStream out = new CountingOutputStream();
+        long rows;
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(FETCH_SIZE);
+                try (ResultSet resultSet = statement.executeQuery("SELECT * FROM export_order ORDER BY order_id")) {
+                    Iterable<Order> rowSource = new ResultSetIterable(resultSet);
+                    if (!streaming) {
+                        List<Order> all = new ArrayList<>();
+                        rowSource.forEach(all::add);
+                        rowSource = all;
+                    }
+                    CsvStreamWriter<Order> writer = new CsvStreamWriter<>(out, COLUMNS);
+                    rows = writer.writeAll(rowSource);
+                }
+            }
+        }
+        long peakHeapBytes = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peakHeapBytes += pool.getPeakUsage().getUsed();
+            }
+        }
+        System.out.printf("ROWS=%d BYTES=%d ELAPSED_MS=%d PEAK_HEAP_MB=%d%n", rows, out.count,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), peakHeapBytes / 1024 / 1024);
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    private static void prepareDatabase(String url) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE export_order (order_id BIGINT PRIMARY KEY, order_no VARCHAR(50), "
+                    + "product_id BIGINT, buyer_id BIGINT, seller_id BIGINT, quantity INT, total_amount DECIMAL(10,2), "
+                    + "status VARCHAR(20), receiver_name VARCHAR(50), create_time TIMESTAMP)");
+            for (int from = 1; from <= EXPORT_ROWS; from += INSERT_BATCH_ROWS) {
+                statement.execute("INSERT INTO export_order SELECT X, CONCAT('ORD', LPAD(CAST(X AS VARCHAR), 12, '0')), "
+                        + "MOD(X, 5000) + 1, MOD(X, 20000) + 1, MOD(X, 800) + 1, MOD(X, 3) + 1, MOD(X, 100000) / 100.0 + 1, "
+                        + "'COMPLETED', CONCAT('收货人', MOD(X, 1000)), DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00') "
+                        + "FROM SYSTEM_RANGE(" + from + ", " + (from + INSERT_BATCH_ROWS - 1) + ")");
+            }
+            statement.execute("SHUTDOWN");
+        }
+    }
+
+    private static ChildResult runChild(String url, String mode) throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, HEAP_LIMIT, "-cp", System.getProperty("java.class.path"),
+                CsvStreamWriterTest.class.getName(), url, mode)
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertTrue(process.waitFor(5, TimeUnit.MINUTES), "子进程超时");
+        return new ChildResult(process.exitValue(), output);
+    }
+
+    private static Order buildOrder(long id) {
+        Order order = new Order();
+        order.setOrderId(id);
+        order.setOrderNo("ORD" + id);
+        order.setProductId(1L);
+        order.setBuyerId(1L);
+        order.setSellerId(2L);
+        order.setQuantity(1);
+        order.setTotalAmount(BigDecimal.TEN);
+        order.setStatus(OrderStatusEnum.COMPLETED);
+        order.setReceiverName("test_buyer");
+        order.setCreateTime(LocalDateTime.of(2024, 1, 1, 0, 0));
+        return order;
+    }
+
+    private record ChildResult(int exitCode, String output) {
+    }
+
+    /**
+     * 将结果集包装为只能遍历一次的Iterable（逐行映射为Order，不缓存已读行）
+     */
+    private record ResultSetIterable(ResultSet resultSet) implements Iterable<Order> {
+
+        @Override
+        public Iterator<Order> iterator() {
+            return new Iterator<>() {
+                private Boolean hasNext;
+
+                @Override
+                public boolean hasNext() {
+                    if (hasNext == null) {
+                        try {
+                            hasNext = resultSet.next();
+                        } catch (SQLException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                    return hasNext;
+                }
+
+                @Override
+                public Order next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    hasNext = null;
+                    try {
+                        Order order = new Order();
+                        order.setOrderId(resultSet.getLong("order_id"));
+                        order.setOrderNo(resultSet.getString("order_no"));
+                        order.setProductId(resultSet.getLong("product_id"));
+                        order.setBuyerId(resultSet.getLong("buyer_id"));
+                        order.setSellerId(resultSet.getLong("seller_id"));
+                        order.setQuantity(resultSet.getInt("quantity"));
+                        order.setTotalAmount(resultSet.getBigDecimal("total_amount"));
+                        order.setStatus(OrderStatusEnum.valueOf(resultSet.getString("status")));
+                        order.setReceiverName(resultSet.getString("receiver_name"));
+                        order.setCreateTime(resultSet.getObject("create_time", LocalDateTime.class));
+                        return order;
+                    } catch (SQLException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            };
+        }
+    }
+
+    /**
+     * 丢弃写入内容、仅统计字节数的输出流（模拟客户端持续读取）
+     */
+    private static class CountingOutputStream extends OutputStream {
+        private long count = 0;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
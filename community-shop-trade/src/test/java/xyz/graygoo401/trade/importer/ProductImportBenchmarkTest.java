@@ -0,0 +1,165 @@
+package xyz.graygoo401.trade.importer;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.test.autoconfigure.MybatisPlusTest;
+import jakarta.validation.Validation;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import xyz.graygoo401.api.trade.dto.product.ProductImportJobDTO;
+import xyz.graygoo401.api.trade.enums.ProductImportFormatEnum;
+import xyz.graygoo401.api.trade.enums.ProductImportStatusEnum;
+import xyz.graygoo401.trade.dao.entity.Product;
+import xyz.graygoo401.trade.dao.mapper.ProductMapper;
+import xyz.graygoo401.trade.service.impl.ProductImportServiceImpl;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * 商品批量导入基准测试（H2内存库）
+ * 使用独立的H2库并关闭SQL日志，按真实流程（流式解析→并行校验→多行INSERT）导入10万行CSV并输出处理速度
+ * 同时对比不同批大小导入1万行的速度，批大小为1时等价于逐条插入
+ * 耗时以日志输出供参考，不对耗时做断言，避免不同机器上结果波动导致测试失败；默认构建不执行（benchmark分组）
+ */
+@Slf4j
+@Tag("benchmark")
+@MybatisPlusTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:product_import_bench;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "mybatis-plus.configuration.log-impl=org.apache.ibatis.logging.nologging.NoLoggingImpl"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)  // 禁用默认数据库替换，使用H2配置
+@ActiveProfiles("test")  // 启用test环境配置
+@Transactional(propagation = Propagation.NOT_SUPPORTED)  // 关闭测试事务，与导入线程一样每批自动提交
+public class ProductImportBenchmarkTest {
+
+    private static final int ROW_COUNT = 100_000; // 导入行数
+    private static final int INVALID_EVERY = 100; // 每100行放入1行非法价格
+    private static final int IMAGE_EVERY = 10; // 每10行带图片
+    private static final long SELLER_ID = 2L; // data-common.sql中的卖家
+    private static final int[] BATCH_SIZES = {1, 100, 500, 1000}; // 对比的批大小
+    private static final int COMPARE_ROW_COUNT = 10_000; // 批大小对比的导入行数
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @TempDir
+    Path tempDir;
+
+    private ProductImportServiceImpl productImportService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        // 真实Mapper与校验器，Redis与MQ使用只桩不记录调用的模拟对象（避免记录数十万次调用占用内存）
+        RedisTemplate<String, Object> redisTemplate = Mockito.mock(RedisTemplate.class, withSettings().stubOnly());
+        Mockito.when(redisTemplate.opsForValue()).thenReturn(Mockito.mock(ValueOperations.class, withSettings().stubOnly()));
+        productImportService = new ProductImportServiceImpl();
+        ReflectionTestUtils.setField(productImportService, "productMapper", productMapper);
+        ReflectionTestUtils.setField(productImportService, "validator",
+                Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(productImportService, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(productImportService, "rabbitTemplate",
+                Mockito.mock(RabbitTemplate.class, withSettings().stubOnly()));
+    }
+
+    /**
+     * 导入10万行CSV（1%非法行），校验写入行数与错误报告，输出处理速度
+     */
+    @Test
+    void import100kProducts_reportsRowsPerSecond() throws IOException {
+        // 1. 生成导入文件
+        Path file = writeCsv(tempDir.resolve("products-100k.csv"), ROW_COUNT);
+        long fileBytes = Files.size(file);
+        long before = countSellerProducts();
+
+        // 2. 执行导入
+        ReflectionTestUtils.setField(productImportService, "batchSize", 500);
+        ProductImportJobDTO job = buildJob();
+        long start = System.nanoTime();
+        productImportService.runImport(job, file);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // 3. 校验结果
+        int invalidRows = ROW_COUNT / INVALID_EVERY;
+        assertEquals(ProductImportStatusEnum.COMPLETED, job.getStatus(), job.getFailReason());
+        assertEquals(ROW_COUNT, job.getProcessedRows());
+        assertEquals(ROW_COUNT - invalidRows, job.getSuccessRows());
+        assertEquals(invalidRows, job.getFailedRows());
+        assertEquals(1000, job.getErrors().size(), "错误报告最多保留1000条");
+        assertEquals(ROW_COUNT - invalidRows, countSellerProducts() - before);
+
+        log.info("商品批量导入完成（H2，CSV，批大小500），文件大小：{}KB，导入行数：{}，成功：{}，失败：{}，耗时：{}ms，处理速度：{}行/秒",
+                fileBytes / 1024, ROW_COUNT, job.getSuccessRows(), job.getFailedRows(), elapsedMillis, job.getRowsPerSecond());
+    }
+
+    /**
+     * 对比不同批大小导入1万行的速度（批大小1即逐条INSERT）
+     */
+    @Test
+    void compareBatchSizes_10kProducts() throws IOException {
+        Path file = tempDir.resolve("products-10k.csv");
+        for (int batchSize : BATCH_SIZES) {
+            // 导入结束会删除文件，每轮重新生成
+            writeCsv(file, COMPARE_ROW_COUNT);
+            ReflectionTestUtils.setField(productImportService, "batchSize", batchSize);
+            ProductImportJobDTO job = buildJob();
+            long start = System.nanoTime();
+            productImportService.runImport(job, file);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            assertEquals(ProductImportStatusEnum.COMPLETED, job.getStatus(), job.getFailReason());
+            assertEquals(COMPARE_ROW_COUNT, job.getProcessedRows());
+            log.info("批大小对比（H2，导入{}行），批大小：{}，耗时：{}ms，处理速度：{}行/秒",
+                    COMPARE_ROW_COUNT, batchSize, elapsedMillis, job.getRowsPerSecond());
+        }
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    private Path writeCsv(Path file, int rowCount) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("title,category,price,stock,description,condition,imageUrls\n");
+            for (int i = 1; i <= rowCount; i++) {
+                String price = i % INVALID_EVERY == 0 ? "-1" : (i % 1000) + ".99";
+                String images = i % IMAGE_EVERY == 0 ? "https://img.example.com/" + i + ".jpg" : "";
+                writer.write("导入商品" + i + ",数码产品," + price + "," + (i % 50 + 1)
+                        + ",\"批量导入测试商品，编号" + i + "\",NINETY_PERCENT_NEW," + images + "\n");
+            }
+        }
+        return file;
+    }
+
+    private long countSellerProducts() {
+        return productMapper.selectCount(new QueryWrapper<Product>().eq("seller_id", SELLER_ID));
+    }
+
+    private ProductImportJobDTO buildJob() {
+        ProductImportJobDTO job = new ProductImportJobDTO();
+        job.setJobId("bench-" + System.nanoTime());
+        job.setSellerId(SELLER_ID);
+        job.setFormat(ProductImportFormatEnum.CSV);
+        job.setStatus(ProductImportStatusEnum.PENDING);
+        job.setSubmitTime(LocalDateTime.now());
+        return job;
+    }
+}
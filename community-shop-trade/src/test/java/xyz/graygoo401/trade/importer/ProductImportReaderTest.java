@@ -0,0 +1,135 @@
+package xyz.graygoo401.trade.importer;
+
+import org.junit.jupiter.api.Test;
+import xyz.graygoo401.api.trade.enums.ProductConditionEnum;
+import xyz.graygoo401.api.trade.enums.ProductImportFormatEnum;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 商品导入读取器单元测试
+ * 覆盖CSV（BOM、引号转义、字段内换行、列顺序、单行格式错误）与JSON（流式读取数组、单元素字段错误、结构错误）
+ */
+public class ProductImportReaderTest {
+
+    /**
+     * CSV：按表头列名取值，支持BOM、引号内逗号/换行/双引号转义，图片以“|”分隔，空行跳过
+     */
+    @Test
+    void csv_quotedFieldsAndBom_parsedByHeaderName() throws IOException {
+        String csv = "\uFEFFprice,Title,category,stock,description,condition,imageUrls\r\n"
+                + "4999.99,\"iPhone 13, 128G\",二手手机,5,\"第一行\n第二行，含\"\"引号\"\"\",NINETY_PERCENT_NEW,"
+                + "https://img.example.com/1.jpg | https://img.example.com/2.jpg\r\n"
+                + "\r\n"
+                + "59.00,台灯,家居用品,1,,,\r\n";
+
+        List<ProductImportRow> rows = readAll(csv, ProductImportFormatEnum.CSV);
+
+        assertEquals(2, rows.size());
+        ProductImportRow first = rows.get(0);
+        assertNull(first.getError());
+        assertEquals(1, first.getRowNumber());
+        assertEquals("iPhone 13, 128G", first.getPublishDTO().getTitle());
+        assertEquals(new BigDecimal("4999.99"), first.getPublishDTO().getPrice());
+        assertEquals(5, first.getPublishDTO().getStock());
+        assertEquals("第一行\n第二行，含\"引号\"", first.getPublishDTO().getDescription());
+        assertEquals(ProductConditionEnum.NINETY_PERCENT_NEW, first.getPublishDTO().getCondition());
+        assertEquals(List.of("https://img.example.com/1.jpg", "https://img.example.com/2.jpg"),
+                first.getPublishDTO().getImageUrls());
+
+        ProductImportRow second = rows.get(1);
+        assertEquals(2, second.getRowNumber());
+        assertEquals("台灯", second.getPublishDTO().getTitle());
+        assertNull(second.getPublishDTO().getDescription());
+        assertNull(second.getPublishDTO().getImageUrls());
+    }
+
+    /**
+     * CSV：价格/库存/成色格式错误与列数不一致只影响当前行
+     */
+    @Test
+    void csv_invalidFields_failOnlyThatRow() throws IOException {
+        String csv = "title,category,price,stock,condition\n"
+                + "商品A,数码,abc,1,NEW\n"
+                + "商品B,数码,10,1.5,NEW\n"
+                + "商品C,数码,10,1,BROKEN\n"
+                + "商品D,数码,10\n"
+                + "商品E,数码,10,1,NEW\n";
+
+        List<ProductImportRow> rows = readAll(csv, ProductImportFormatEnum.CSV);
+
+        assertEquals(5, rows.size());
+        assertTrue(rows.get(0).getError().contains("价格格式错误"));
+        assertTrue(rows.get(1).getError().contains("库存格式错误"));
+        assertTrue(rows.get(2).getError().contains("商品成色不存在"));
+        assertTrue(rows.get(3).getError().contains("列数"));
+        assertNull(rows.get(4).getError());
+        assertEquals(5, rows.get(4).getRowNumber());
+    }
+
+    /**
+     * CSV：缺少必需列或引号未闭合时抛出IOException（文件结构错误，无法继续解析）
+     */
+    @Test
+    void csv_brokenStructure_throwsIOException() {
+        IOException missingColumn = assertThrows(IOException.class,
+                () -> readAll("title,category,stock\n商品A,数码,1\n", ProductImportFormatEnum.CSV));
+        assertTrue(missingColumn.getMessage().contains("price"));
+
+        assertThrows(IOException.class,
+                () -> readAll("title,category,price,stock\n\"商品A,数码,1,1\n", ProductImportFormatEnum.CSV));
+    }
+
+    /**
+     * JSON：逐个读取数组元素，字段类型错误或非对象元素只影响当前行，未知字段忽略
+     */
+    @Test
+    void json_arrayElements_parsedOneByOne() throws IOException {
+        String json = "[{\"title\":\"iPhone 13\",\"category\":\"二手手机\",\"price\":4999.99,\"stock\":5,"
+                + "\"condition\":\"NEW\",\"imageUrls\":[\"https://img.example.com/1.jpg\"],\"extra\":1},"
+                + "{\"title\":\"台灯\",\"price\":\"便宜\"},"
+                + "42,"
+                + "{\"title\":\"耳机\",\"category\":\"数码\",\"price\":99,\"stock\":1}]";
+
+        List<ProductImportRow> rows = readAll(json, ProductImportFormatEnum.JSON);
+
+        assertEquals(4, rows.size());
+        assertNull(rows.get(0).getError());
+        assertEquals(ProductConditionEnum.NEW, rows.get(0).getPublishDTO().getCondition());
+        assertEquals(List.of("https://img.example.com/1.jpg"), rows.get(0).getPublishDTO().getImageUrls());
+        assertEquals("字段格式错误：price", rows.get(1).getError());
+        assertEquals("数组元素必须为对象", rows.get(2).getError());
+        assertEquals(4, rows.get(3).getRowNumber());
+        assertEquals("耳机", rows.get(3).getPublishDTO().getTitle());
+    }
+
+    /**
+     * JSON：顶层不是数组或语法错误时抛出IOException
+     */
+    @Test
+    void json_brokenStructure_throwsIOException() {
+        assertThrows(IOException.class, () -> readAll("{\"title\":\"商品\"}", ProductImportFormatEnum.JSON));
+        assertThrows(IOException.class, () -> readAll("[{\"title\":\"商品\"},{\"title\":", ProductImportFormatEnum.JSON));
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    private List<ProductImportRow> readAll(String content, ProductImportFormatEnum format) throws IOException {
+        List<ProductImportRow> rows = new ArrayList<>();
+        try (ProductImportReader reader = ProductImportReader.open(
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), format)) {
+            ProductImportRow row;
+            while ((row = reader.next()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,99 @@
+package xyz.graygoo401.trade.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import xyz.graygoo401.common.index.AutocompleteIndex;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 前缀补全索引基准测试（100万条商品标题）
+ * 以真实标题的1~8字符前缀模拟逐键输入，统计单次补全与增量写入耗时的P50/P99
+ * 耗时以日志输出供参考，不对耗时做断言，避免不同机器上结果波动导致测试失败；默认构建不执行（benchmark分组）
+ */
+@Slf4j
+@Tag("benchmark")
+public class AutocompleteIndexBenchmarkTest {
+
+    private static final int ENTRY_COUNT = 1_000_000; // 标题条数
+    private static final String[] BRANDS = {"iPhone", "华为", "小米", "Redmi", "OPPO", "vivo", "iPad", "MacBook", "ThinkPad",
+            "索尼", "佳能", "尼康", "大疆", "任天堂Switch", "PS5", "戴森", "九号", "捷安特", "迪卡侬", "耐克", "阿迪达斯", "优衣库"};
+    private static final String[] MODELS = {"Pro", "Max", "Air", "mini", "Plus", "Ultra", "Lite", "SE", "X", "S"};
+    private static final String[] SUFFIXES = {"95新", "9成新", "全新未拆", "国行", "港版", "自用", "急出", "可小刀", "带发票", "配件齐全"};
+    private static final int ROUNDS = 100_000; // 补全测量次数
+    private static final int WARMUP_ROUNDS = 100_000; // 预热次数
+    private static final int UPSERT_ROUNDS = 20_000; // 增量写入测量次数
+
+    /**
+     * 构建100万条标题索引，测量逐键补全与增量写入耗时分布
+     */
+    @Test
+    void suggestLatency_1M_entries() {
+        // 1. 构建索引
+        Random random = new Random(7);
+        String[] titles = new String[ENTRY_COUNT];
+        long buildStart = System.nanoTime();
+        AutocompleteIndex autocompleteIndex = new AutocompleteIndex();
+        AutocompleteIndex.Builder builder = autocompleteIndex.newBuilder();
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            titles[i] = randomTitle(random);
+            builder.add(i + 1, titles[i], random.nextInt(10_000));
+        }
+        autocompleteIndex.replace(builder);
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+        assertEquals(ENTRY_COUNT, autocompleteIndex.size());
+
+        // 2. 预热并测量补全（前缀取自真实标题，长度1~8）
+        String[] prefixes = new String[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            String title = titles[random.nextInt(ENTRY_COUNT)];
+            prefixes[i] = title.substring(0, Math.min(title.length(), 1 + random.nextInt(8)));
+        }
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            autocompleteIndex.suggest(prefixes[i % ROUNDS], 10);
+        }
+        long[] suggestNanos = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            int size = autocompleteIndex.suggest(prefixes[i], 10).size();
+            suggestNanos[i] = System.nanoTime() - start;
+            assertTrue(size > 0, "前缀应有命中：" + prefixes[i]);
+        }
+
+        // 3. 测量增量写入（随机条目改名并调整权重）
+        long[] upsertNanos = new long[UPSERT_ROUNDS];
+        for (int i = 0; i < UPSERT_ROUNDS; i++) {
+            long id = 1 + random.nextInt(ENTRY_COUNT);
+            String title = randomTitle(random);
+            long weight = random.nextInt(10_000);
+            long start = System.nanoTime();
+            autocompleteIndex.upsert(id, title, weight);
+            upsertNanos[i] = System.nanoTime() - start;
+        }
+
+        log.info("前缀补全索引构建完成，标题条数：{}，构建耗时：{}ms", ENTRY_COUNT, buildMillis);
+        logPercentiles("补全", suggestNanos);
+        logPercentiles("增量写入", upsertNanos);
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    private String randomTitle(Random random) {
+        return BRANDS[random.nextInt(BRANDS.length)] + " " + (random.nextInt(15) + 1) + " "
+                + MODELS[random.nextInt(MODELS.length)] + " " + (random.nextInt(4) + 1) * 128 + "G "
+                + SUFFIXES[random.nextInt(SUFFIXES.length)] + " " + random.nextInt(100_000);
+    }
+
+    private void logPercentiles(String name, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        log.info("{}耗时，P50：{}µs，P99：{}µs，P99.9：{}µs", name,
+                String.format("%.1f", sorted[sorted.length / 2] / 1000.0),
+                String.format("%.1f", sorted[(int) (sorted.length * 0.99)] / 1000.0),
+                String.format("%.1f", sorted[(int) (sorted.length * 0.999)] / 1000.0));
+    }
+}
@@ -0,0 +1,169 @@
+package xyz.graygoo401.trade.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import xyz.graygoo401.common.index.AutocompleteIndex;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AutocompleteIndex单元测试
+ * 以小字母表随机文本（大量公共前缀，频繁拆分与合并节点）与随机增删改，对比补全结果与逐条前缀匹配排序的参考实现
+ */
+public class AutocompleteIndexTest {
+
+    private static final int TOP_K = 4; // 取较小的K值，使大部分节点走缓存TopK分支
+    private static final char[] ALPHABET = {'a', 'b', 'c', '手', '机'};
+
+    private AutocompleteIndex autocompleteIndex;
+    private Map<Long, String[]> entries; // 参考数据：ID -> {文本, 权重}
+    private Random random;
+
+    @BeforeEach
+    void setUp() {
+        random = new Random(42);
+        entries = new LinkedHashMap<>();
+        autocompleteIndex = new AutocompleteIndex(TOP_K);
+        AutocompleteIndex.Builder builder = autocompleteIndex.newBuilder();
+        for (long id = 1; id <= 2000; id++) {
+            String text = randomText();
+            long weight = random.nextInt(50);
+            entries.put(id, new String[]{text, String.valueOf(weight)});
+            builder.add(id, text, weight);
+        }
+        autocompleteIndex.replace(builder);
+    }
+
+    /**
+     * 测试suggest：全量构建后，所有长度1~3的前缀补全结果与参考实现一致
+     */
+    @Test
+    void suggest_afterBuild_matchesBruteForce() {
+        assertTrue(autocompleteIndex.isReady());
+        assertEquals(2000, autocompleteIndex.size());
+        assertAllPrefixesMatch();
+    }
+
+    /**
+     * 测试upsert/remove：随机新增、改名、调整权重（升降）与删除后，补全结果与参考实现一致
+     */
+    @Test
+    void upsertAndRemove_incrementalChanges_matchesBruteForce() {
+        for (int i = 0; i < 3000; i++) {
+            long id = 1 + random.nextInt(2500);
+            int action = random.nextInt(4);
+            if (action == 0) {
+                autocompleteIndex.remove(id);
+                entries.remove(id);
+            } else {
+                String[] existing = entries.get(id);
+                String text = existing != null && action == 1 ? existing[0] : randomText();
+                long weight = random.nextInt(50);
+                autocompleteIndex.upsert(id, text, weight);
+                entries.put(id, new String[]{text, String.valueOf(weight)});
+            }
+            if (i % 500 == 0) {
+                assertAllPrefixesMatch();
+            }
+        }
+        assertEquals(entries.size(), autocompleteIndex.size());
+        assertAllPrefixesMatch();
+    }
+
+    /**
+     * 测试删除全部条目后索引为空，再次写入可正常补全（验证空节点清理与单子节点合并）
+     */
+    @Test
+    void remove_allEntries_thenReinsert() {
+        entries.keySet().forEach(autocompleteIndex::remove);
+        assertEquals(0, autocompleteIndex.size());
+        assertTrue(autocompleteIndex.suggest("a", TOP_K).isEmpty());
+
+        autocompleteIndex.upsert(1L, "abc", 1);
+        autocompleteIndex.upsert(2L, "abd", 2);
+        autocompleteIndex.remove(2L);
+        List<AutocompleteIndex.Suggestion> suggestions = autocompleteIndex.suggest("ab", TOP_K);
+        assertEquals(1, suggestions.size());
+        assertEquals(1L, suggestions.get(0).getId());
+        assertTrue(autocompleteIndex.suggest("abd", TOP_K).isEmpty());
+    }
+
+    /**
+     * 测试键规范化：忽略首尾空白与大小写，返回原始展示文本；空白前缀返回空列表
+     */
+    @Test
+    void suggest_normalizesCaseAndWhitespace() {
+        AutocompleteIndex index = new AutocompleteIndex();
+        index.upsert(1L, "  iPhone 13 ", 5);
+        index.upsert(2L, "IPAD Air", 9);
+        index.upsert(3L, "   ", 100);
+
+        List<AutocompleteIndex.Suggestion> suggestions = index.suggest(" IP", 10);
+        assertEquals(Arrays.asList(2L, 1L), suggestions.stream().map(AutocompleteIndex.Suggestion::getId).collect(Collectors.toList()));
+        assertEquals("  iPhone 13 ", suggestions.get(1).getText());
+        assertEquals(1, index.suggest("iphone 1", 10).size());
+        assertTrue(index.suggest("iphone 14", 10).isEmpty());
+        assertTrue(index.suggest("  ", 10).isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    /**
+     * 测试replace：重建期间的增量变更ID被返回，供调用方重放
+     */
+    @Test
+    void replace_changesDuringRebuild_returnedForReplay() {
+        autocompleteIndex.beginRebuild();
+        AutocompleteIndex.Builder builder = autocompleteIndex.newBuilder();
+        builder.add(1L, "abc", 1);
+        autocompleteIndex.upsert(5L, "bca", 3);
+        autocompleteIndex.remove(6L);
+
+        Set<Long> changedIds = autocompleteIndex.replace(builder);
+
+        assertEquals(Set.of(5L, 6L), changedIds);
+        assertEquals(1, autocompleteIndex.size());
+        assertTrue(autocompleteIndex.replace(autocompleteIndex.newBuilder()).isEmpty());
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    private void assertAllPrefixesMatch() {
+        List<String> prefixes = new ArrayList<>();
+        for (char a : ALPHABET) {
+            prefixes.add(String.valueOf(a));
+            for (char b : ALPHABET) {
+                prefixes.add("" + a + b);
+                for (char c : ALPHABET) {
+                    prefixes.add("" + a + b + c);
+                }
+            }
+        }
+        for (String prefix : prefixes) {
+            for (int limit : new int[]{1, TOP_K}) {
+                List<Long> expected = entries.entrySet().stream()
+                        .filter(entry -> entry.getValue()[0].startsWith(prefix))
+                        .sorted(Comparator.<Map.Entry<Long, String[]>>comparingLong(entry -> -Long.parseLong(entry.getValue()[1]))
+                                .thenComparingLong(Map.Entry::getKey))
+                        .limit(limit)
+                        .map(Map.Entry::getKey)
+                        .collect(Collectors.toList());
+                List<Long> actual = autocompleteIndex.suggest(prefix, limit).stream()
+                        .map(AutocompleteIndex.Suggestion::getId)
+                        .collect(Collectors.toList());
+                assertEquals(expected, actual, "前缀：" + prefix);
+            }
+        }
+    }
+
+    private String randomText() {
+        int length = 1 + random.nextInt(6);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+        }
+        return text.toString();
+    }
+}
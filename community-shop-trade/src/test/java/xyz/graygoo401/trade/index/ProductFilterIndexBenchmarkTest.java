@@ -0,0 +1,151 @@
+package xyz.graygoo401.trade.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import xyz.graygoo401.api.trade.dto.product.ProductQueryDTO;
+import xyz.graygoo401.api.trade.enums.ProductConditionEnum;
+import xyz.graygoo401.api.trade.enums.ProductSortFieldEnum;
+import xyz.graygoo401.api.trade.enums.ProductStatusEnum;
+import xyz.graygoo401.common.enums.SortDirectionEnum;
+import xyz.graygoo401.trade.dao.entity.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 商品筛选索引基准测试（100万在售商品）
+ * 覆盖浏览页常见查询形态：全量按时间、类别+成色、价格区间按价格、类别+价格区间按时间、指定卖家、深分页，以及同条件下的分面计数
+ * 耗时以日志输出供参考，不对耗时做断言，避免不同机器上结果波动导致测试失败；默认构建不执行（benchmark分组）
+ */
+@Slf4j
+@Tag("benchmark")
+public class ProductFilterIndexBenchmarkTest {
+
+    private static final int PRODUCT_COUNT = 1_000_000; // 在售商品数
+    private static final int SELLER_COUNT = 50_000; // 卖家数
+    private static final String[] CATEGORIES = {"二手手机", "数码产品", "图书", "服饰", "家居", "运动户外", "美妆", "母婴"};
+    private static final int ROUNDS = 200; // 每种查询的测量次数
+    private static final int WARMUP_ROUNDS = 200; // 预热次数
+
+    /**
+     * 构建100万商品索引并测量各查询形态的单次耗时
+     */
+    @Test
+    void queryLatency_1M_products() {
+        // 1. 构建索引
+        long buildStart = System.nanoTime();
+        ProductFilterIndex productFilterIndex = buildIndex();
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+        assertEquals(PRODUCT_COUNT, productFilterIndex.size());
+
+        // 2. 逐形态测量（第1页与第50页）
+        log.info("商品筛选索引构建完成，在售商品数：{}，构建耗时：{}ms", PRODUCT_COUNT, buildMillis);
+        for (Map.Entry<String, Supplier<ProductQueryDTO>> entry : queryShapes().entrySet()) {
+            ProductQueryDTO queryDTO = entry.getValue().get();
+            long total = productFilterIndex.query(queryDTO, 0, 10).getTotal();
+            assertTrue(total > 0, entry.getKey() + "应有命中");
+            log.info("筛选查询耗时，查询形态：{}，命中数：{}，第1页：{}µs，第50页：{}µs", entry.getKey(), total,
+                    measureMicros(() -> productFilterIndex.query(queryDTO, 0, 10)),
+                    measureMicros(() -> productFilterIndex.query(queryDTO, 490, 10)));
+        }
+    }
+
+    /**
+     * 测量各查询形态下类别/成色/价格区间分面计数的单次耗时
+     */
+    @Test
+    void facetLatency_1M_products() {
+        // 1. 构建索引
+        ProductFilterIndex productFilterIndex = buildIndex();
+
+        // 2. 逐形态测量
+        for (Map.Entry<String, Supplier<ProductQueryDTO>> entry : queryShapes().entrySet()) {
+            ProductQueryDTO queryDTO = entry.getValue().get();
+            ProductFilterIndex.FacetCounts facetCounts = productFilterIndex.facets(queryDTO);
+            long conditionTotal = facetCounts.getConditions().values().stream().mapToLong(Long::longValue).sum();
+            assertTrue(conditionTotal > 0, entry.getKey() + "应有命中");
+            log.info("分面计数耗时，查询形态：{}，类别数：{}，耗时：{}µs", entry.getKey(), facetCounts.getCategories().size(),
+                    measureMicros(() -> productFilterIndex.facets(queryDTO)));
+        }
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    private ProductFilterIndex buildIndex() {
+        Random random = new Random(7);
+        LocalDateTime baseTime = LocalDateTime.of(2024, 1, 1, 0, 0);
+        ProductFilterIndex.Builder builder = ProductFilterIndex.newBuilder();
+        for (long productId = 1; productId <= PRODUCT_COUNT; productId++) {
+            Product product = new Product();
+            product.setProductId(productId);
+            product.setSellerId((long) random.nextInt(SELLER_COUNT));
+            product.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            product.setCondition(ProductConditionEnum.values()[random.nextInt(ProductConditionEnum.values().length)]);
+            product.setPrice(new BigDecimal(random.nextInt(1_000_000)).movePointLeft(2));
+            product.setCreateTime(baseTime.plusSeconds(random.nextInt(365 * 24 * 3600)));
+            product.setStatus(ProductStatusEnum.ON_SALE);
+            builder.add(product);
+        }
+        ProductFilterIndex productFilterIndex = new ProductFilterIndex();
+        productFilterIndex.replace(builder);
+        return productFilterIndex;
+    }
+
+    private Map<String, Supplier<ProductQueryDTO>> queryShapes() {
+        Map<String, Supplier<ProductQueryDTO>> queries = new LinkedHashMap<>();
+        queries.put("全量按时间倒序", ProductQueryDTO::new);
+        queries.put("类别+成色", () -> {
+            ProductQueryDTO queryDTO = new ProductQueryDTO();
+            queryDTO.setCategory("数码产品");
+            queryDTO.setCondition(ProductConditionEnum.NEW);
+            return queryDTO;
+        });
+        queries.put("价格区间按价格升序", () -> {
+            ProductQueryDTO queryDTO = new ProductQueryDTO();
+            queryDTO.setMinPrice(new BigDecimal("1000"));
+            queryDTO.setMaxPrice(new BigDecimal("2000"));
+            queryDTO.setSortField(ProductSortFieldEnum.PRICE);
+            queryDTO.setSortDir(SortDirectionEnum.ASC);
+            return queryDTO;
+        });
+        queries.put("类别+价格区间按时间", () -> {
+            ProductQueryDTO queryDTO = new ProductQueryDTO();
+            queryDTO.setCategory("图书");
+            queryDTO.setMinPrice(new BigDecimal("100"));
+            queryDTO.setMaxPrice(new BigDecimal("500"));
+            return queryDTO;
+        });
+        queries.put("类别+成色+窄价格区间", () -> {
+            ProductQueryDTO queryDTO = new ProductQueryDTO();
+            queryDTO.setCategory("服饰");
+            queryDTO.setCondition(ProductConditionEnum.USED);
+            queryDTO.setMinPrice(new BigDecimal("100"));
+            queryDTO.setMaxPrice(new BigDecimal("110"));
+            return queryDTO;
+        });
+        queries.put("指定卖家", () -> {
+            ProductQueryDTO queryDTO = new ProductQueryDTO();
+            queryDTO.setSellerId(12345L);
+            return queryDTO;
+        });
+        return queries;
+    }
+
+    private String measureMicros(Runnable action) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            action.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            action.run();
+        }
+        return String.format("%.1f", (System.nanoTime() - start) / 1000.0 / ROUNDS);
+    }
+}
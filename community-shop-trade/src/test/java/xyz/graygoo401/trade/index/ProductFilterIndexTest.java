@@ -0,0 +1,269 @@
+package xyz.graygoo401.trade.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import xyz.graygoo401.api.trade.dto.product.ProductQueryDTO;
+import xyz.graygoo401.api.trade.enums.ProductConditionEnum;
+import xyz.graygoo401.api.trade.enums.ProductPriceRangeEnum;
+import xyz.graygoo401.api.trade.enums.ProductSortFieldEnum;
+import xyz.graygoo401.api.trade.enums.ProductStatusEnum;
+import xyz.graygoo401.common.enums.SortDirectionEnum;
+import xyz.graygoo401.trade.dao.entity.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ProductFilterIndex单元测试
+ * 以随机商品与随机查询条件，对比索引结果与逐条筛选排序的参考实现
+ */
+public class ProductFilterIndexTest {
+
+    private static final String[] CATEGORIES = {"二手手机", "数码产品", "图书", "服饰"};
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private ProductFilterIndex productFilterIndex;
+    private Map<Long, Product> onSaleProducts; // 参考数据（当前在售商品）
+    private Random random;
+
+    @BeforeEach
+    void setUp() {
+        random = new Random(42);
+        onSaleProducts = new LinkedHashMap<>();
+        ProductFilterIndex.Builder builder = ProductFilterIndex.newBuilder();
+        for (long productId = 1; productId <= 2000; productId++) {
+            Product product = randomProduct(productId);
+            onSaleProducts.put(productId, product);
+            builder.add(product);
+        }
+        productFilterIndex = new ProductFilterIndex();
+        productFilterIndex.replace(builder);
+    }
+
+    /**
+     * 测试query：随机组合类别、成色、卖家、价格区间、排序与分页，结果与参考实现一致
+     */
+    @Test
+    void query_randomConditions_matchesBruteForce() {
+        for (int i = 0; i < 500; i++) {
+            ProductQueryDTO queryDTO = randomQuery();
+            int offset = random.nextInt(3) * 10;
+            assertQueryMatches(queryDTO, offset, 10);
+        }
+    }
+
+    /**
+     * 测试upsert/remove：增量修改价格、类别及下架后，查询结果与参考实现一致
+     */
+    @Test
+    void upsertAndRemove_incrementalChanges_matchesBruteForce() {
+        // 1. 修改部分商品、下架部分商品、新发布部分商品
+        for (long productId = 1; productId <= 200; productId++) {
+            Product changed = randomProduct(productId);
+            onSaleProducts.put(productId, changed);
+            productFilterIndex.upsert(changed);
+        }
+        for (long productId = 201; productId <= 300; productId++) {
+            onSaleProducts.remove(productId);
+            productFilterIndex.remove(productId);
+        }
+        for (long productId = 2001; productId <= 2100; productId++) {
+            Product created = randomProduct(productId);
+            onSaleProducts.put(productId, created);
+            productFilterIndex.upsert(created);
+        }
+
+        // 2. 验证结果
+        assertEquals(onSaleProducts.size(), productFilterIndex.size());
+        for (int i = 0; i < 300; i++) {
+            assertQueryMatches(randomQuery(), random.nextInt(3) * 10, 10);
+        }
+    }
+
+    /**
+     * 测试facets：随机组合条件及增量变更后，各维度计数与参考实现（忽略本维度条件逐条统计）一致
+     */
+    @Test
+    void facets_randomConditions_matchesBruteForce() {
+        // 1. 增量修改半数商品（价格分布到各价格区间），并下架部分商品
+        for (long productId = 1; productId <= 1000; productId++) {
+            Product changed = randomProduct(productId);
+            changed.setPrice(new BigDecimal(random.nextInt(1_000_000)).movePointLeft(2));
+            onSaleProducts.put(productId, changed);
+            productFilterIndex.upsert(changed);
+        }
+        for (long productId = 1001; productId <= 1100; productId++) {
+            onSaleProducts.remove(productId);
+            productFilterIndex.remove(productId);
+        }
+
+        // 2. 随机条件逐一校验
+        for (int i = 0; i < 300; i++) {
+            ProductQueryDTO queryDTO = randomQuery();
+            if (random.nextBoolean() && queryDTO.getMaxPrice() != null) {
+                queryDTO.setMaxPrice(queryDTO.getMaxPrice().multiply(BigDecimal.valueOf(100)));
+            }
+            ProductFilterIndex.FacetCounts facetCounts = productFilterIndex.facets(queryDTO);
+
+            // 类别：忽略类别条件
+            ProductQueryDTO withoutCategory = copyQuery(queryDTO);
+            withoutCategory.setCategory(null);
+            Map<String, Long> expectedCategories = bruteForce(withoutCategory).stream()
+                    .collect(Collectors.groupingBy(Product::getCategory, Collectors.counting()));
+            assertEquals(expectedCategories, facetCounts.getCategories(), "类别分面不一致：" + queryDTO);
+            List<Long> categoryCounts = new ArrayList<>(facetCounts.getCategories().values());
+            for (int j = 1; j < categoryCounts.size(); j++) {
+                assertTrue(categoryCounts.get(j - 1) >= categoryCounts.get(j), "类别分面应按命中数降序");
+            }
+
+            // 成色：忽略成色条件
+            ProductQueryDTO withoutCondition = copyQuery(queryDTO);
+            withoutCondition.setCondition(null);
+            List<Product> conditionMatched = bruteForce(withoutCondition);
+            for (ProductConditionEnum condition : ProductConditionEnum.values()) {
+                long expected = conditionMatched.stream().filter(p -> condition.equals(p.getCondition())).count();
+                assertEquals(expected, facetCounts.getConditions().get(condition), "成色分面不一致：" + queryDTO);
+            }
+
+            // 价格区间：忽略价格条件
+            ProductQueryDTO withoutPrice = copyQuery(queryDTO);
+            withoutPrice.setMinPrice(null);
+            withoutPrice.setMaxPrice(null);
+            List<Product> priceMatched = bruteForce(withoutPrice);
+            for (ProductPriceRangeEnum priceRange : ProductPriceRangeEnum.values()) {
+                long expected = priceMatched.stream()
+                        .filter(p -> priceRange.equals(ProductPriceRangeEnum.getByPrice(p.getPrice())))
+                        .count();
+                assertEquals(expected, facetCounts.getPriceRanges().get(priceRange), "价格分面不一致：" + queryDTO);
+            }
+        }
+    }
+
+    /**
+     * 测试supports：仅在售、无关键词、按发布时间/价格排序的查询由索引应答
+     */
+    @Test
+    void supports_browseQueryOnly() {
+        ProductQueryDTO queryDTO = new ProductQueryDTO();
+        assertTrue(productFilterIndex.supports(queryDTO));
+
+        queryDTO.setKeyword("iPhone");
+        assertFalse(productFilterIndex.supports(queryDTO));
+
+        queryDTO.setKeyword(null);
+        queryDTO.setSortField(ProductSortFieldEnum.VIEW_COUNT);
+        assertFalse(productFilterIndex.supports(queryDTO));
+
+        queryDTO.setSortField(ProductSortFieldEnum.PRICE);
+        queryDTO.setStatus(ProductStatusEnum.OFF_SHELF);
+        assertFalse(productFilterIndex.supports(queryDTO));
+
+        assertFalse(new ProductFilterIndex().supports(new ProductQueryDTO()), "未完成首次构建时不应答");
+    }
+
+    /**
+     * 测试replace：重建期间的增量变更被记录并返回，供重放
+     */
+    @Test
+    void replace_changesDuringRebuild_returnedForReplay() {
+        // 1. 开始重建，期间发生变更
+        productFilterIndex.beginRebuild();
+        productFilterIndex.remove(1L);
+        productFilterIndex.upsert(randomProduct(2L));
+
+        // 2. 以（不含上述变更的）构建结果替换
+        Set<Long> changedIds = productFilterIndex.replace(ProductFilterIndex.newBuilder().add(randomProduct(1L)));
+
+        // 3. 验证结果
+        assertEquals(Set.of(1L, 2L), changedIds);
+        assertEquals(1, productFilterIndex.size());
+        assertTrue(productFilterIndex.replace(ProductFilterIndex.newBuilder()).isEmpty(), "未标记重建时不记录变更");
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    private void assertQueryMatches(ProductQueryDTO queryDTO, int offset, int limit) {
+        List<Product> expected = bruteForce(queryDTO);
+        ProductFilterIndex.IndexPage page = productFilterIndex.query(queryDTO, offset, limit);
+
+        assertEquals(expected.size(), page.getTotal(), "总数不一致：" + queryDTO);
+        List<Long> expectedIds = expected.stream()
+                .skip(offset)
+                .limit(limit)
+                .map(Product::getProductId)
+                .collect(Collectors.toList());
+        assertEquals(expectedIds, page.getProductIds(), "分页结果不一致：" + queryDTO + "，offset=" + offset);
+    }
+
+    /**
+     * 参考实现：逐条筛选后按排序键+商品ID排序
+     */
+    private List<Product> bruteForce(ProductQueryDTO queryDTO) {
+        Comparator<Product> comparator = ProductSortFieldEnum.PRICE.equals(queryDTO.getSortField())
+                ? Comparator.comparing(Product::getPrice)
+                : Comparator.comparing(Product::getCreateTime);
+        comparator = comparator.thenComparing(Product::getProductId);
+        if (!SortDirectionEnum.ASC.equals(queryDTO.getSortDir())) {
+            comparator = comparator.reversed();
+        }
+        return onSaleProducts.values().stream()
+                .filter(p -> queryDTO.getSellerId() == null || queryDTO.getSellerId().equals(p.getSellerId()))
+                .filter(p -> queryDTO.getCategory() == null || queryDTO.getCategory().equals(p.getCategory()))
+                .filter(p -> queryDTO.getCondition() == null || queryDTO.getCondition().equals(p.getCondition()))
+                .filter(p -> queryDTO.getMinPrice() == null || p.getPrice().compareTo(queryDTO.getMinPrice()) >= 0)
+                .filter(p -> queryDTO.getMaxPrice() == null || p.getPrice().compareTo(queryDTO.getMaxPrice()) <= 0)
+                .sorted(comparator)
+                .collect(Collectors.toList());
+    }
+
+    private ProductQueryDTO copyQuery(ProductQueryDTO queryDTO) {
+        ProductQueryDTO copy = new ProductQueryDTO();
+        copy.setSellerId(queryDTO.getSellerId());
+        copy.setCategory(queryDTO.getCategory());
+        copy.setCondition(queryDTO.getCondition());
+        copy.setMinPrice(queryDTO.getMinPrice());
+        copy.setMaxPrice(queryDTO.getMaxPrice());
+        return copy;
+    }
+
+    private ProductQueryDTO randomQuery() {
+        ProductQueryDTO queryDTO = new ProductQueryDTO();
+        if (random.nextInt(4) == 0) {
+            queryDTO.setSellerId((long) random.nextInt(25));
+        }
+        if (random.nextBoolean()) {
+            queryDTO.setCategory(random.nextInt(10) == 0 ? "不存在的类别" : CATEGORIES[random.nextInt(CATEGORIES.length)]);
+        }
+        if (random.nextInt(3) == 0) {
+            queryDTO.setCondition(ProductConditionEnum.values()[random.nextInt(ProductConditionEnum.values().length)]);
+        }
+        if (random.nextBoolean()) {
+            queryDTO.setMinPrice(new BigDecimal(random.nextInt(500)).movePointLeft(1));
+        }
+        if (random.nextBoolean()) {
+            queryDTO.setMaxPrice(new BigDecimal(random.nextInt(1000)).movePointLeft(1));
+        }
+        queryDTO.setSortField(random.nextBoolean() ? ProductSortFieldEnum.PRICE : ProductSortFieldEnum.CREATE_TIME);
+        queryDTO.setSortDir(random.nextBoolean() ? SortDirectionEnum.ASC : SortDirectionEnum.DESC);
+        return queryDTO;
+    }
+
+    /**
+     * 随机商品（价格与发布时间取值范围较小，覆盖排序键相同的情况）
+     */
+    private Product randomProduct(long productId) {
+        Product product = new Product();
+        product.setProductId(productId);
+        product.setSellerId((long) random.nextInt(20));
+        product.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+        product.setCondition(ProductConditionEnum.values()[random.nextInt(ProductConditionEnum.values().length)]);
+        product.setPrice(new BigDecimal(random.nextInt(10000)).movePointLeft(2));
+        product.setCreateTime(BASE_TIME.plusMinutes(random.nextInt(500)));
+        product.setStatus(ProductStatusEnum.ON_SALE);
+        return product;
+    }
+}
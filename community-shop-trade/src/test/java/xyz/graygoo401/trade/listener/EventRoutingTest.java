@@ -0,0 +1,160 @@
+package xyz.graygoo401.trade.listener;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import xyz.graygoo401.api.common.enums.MqEventTypeEnum;
+import xyz.graygoo401.trade.statemachine.OrderTransitionEnum;
+
+import java.lang.reflect.Method;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 事件路由测试
+ * 读取OrderViewListener上的@QueueBinding声明，按RabbitMQ Topic交换机规则（*匹配一个单词，#匹配零个或多个单词）路由消息，
+ * 统计每个队列收到的消息数
+ * 覆盖：事件目录路由键唯一且带版本号、一个完整的订单生命周期中各队列只收到自己绑定的事件、绑定事件的消息体类型与监听方法参数一致
+ */
+public class EventRoutingTest {
+
+    private static final String PRODUCT_EXCHANGE = "product.topic"; // 商品事件交换机（不在本次事件目录内）
+
+    private List<Binding> bindings;
+    private Map<String, Integer> deliveredCount;
+
+    @BeforeEach
+    void setUp() {
+        bindings = new ArrayList<>();
+        deliveredCount = new TreeMap<>();
+        for (Method method : OrderViewListener.class.getDeclaredMethods()) {
+            RabbitListener listener = method.getAnnotation(RabbitListener.class);
+            if (listener == null) {
+                continue;
+            }
+            for (QueueBinding queueBinding : listener.bindings()) {
+                for (String key : queueBinding.key()) {
+                    bindings.add(new Binding(queueBinding.value().name(), queueBinding.exchange().name(), key, method));
+                }
+                deliveredCount.put(queueBinding.value().name(), 0);
+            }
+        }
+    }
+
+    /**
+     * 事件目录：路由键唯一、以版本号结尾，消费者绑定不使用通配符
+     */
+    @Test
+    void catalog_routingKeysUniqueAndVersioned() {
+        Set<String> routingKeys = new HashSet<>();
+        for (MqEventTypeEnum eventType : MqEventTypeEnum.values()) {
+            assertTrue(routingKeys.add(eventType.getRoutingKey()), "路由键重复：" + eventType.getRoutingKey());
+            assertTrue(eventType.getRoutingKey().endsWith(".v" + eventType.getVersion()), eventType.name());
+        }
+        for (Binding binding : bindings) {
+            if (binding.exchange.equals(PRODUCT_EXCHANGE)) {
+                continue;
+            }
+            assertFalse(binding.key.contains("#") || binding.key.contains("*"), "订单事件绑定使用了通配符：" + binding.key);
+        }
+    }
+
+    /**
+     * 订单生命周期：下单、结算、全部状态流转各发送一次，另发送帖子点赞与商品事件
+     * 订单读模型队列只收到订单事件，结算队列只收到结算事件，社区事件不投递到交易服务
+     */
+    @Test
+    void orderLifecycle_eachQueueReceivesOnlyBoundEvents() {
+        // 1. 发送事件（状态流转按流转表中的事件类型发送）
+        publish(MqEventTypeEnum.ORDER_CREATED);
+        publish(MqEventTypeEnum.CHECKOUT_CREATED);
+        for (OrderTransitionEnum transition : OrderTransitionEnum.values()) {
+            publish(transition.getEvent());
+        }
+        publish(MqEventTypeEnum.POST_LIKED);
+        assertEquals(1, route(PRODUCT_EXCHANGE, "product.update").size());
+        assertTrue(route(PRODUCT_EXCHANGE, "product.create").isEmpty(), "新发布商品没有订单，不投递到读模型队列");
+
+        // 2. 验证每个队列的投递数
+        int transitionCount = OrderTransitionEnum.values().length;
+        assertEquals(1 + transitionCount, deliveredCount.get("trade.order.view"));
+        assertEquals(1, deliveredCount.get("trade.order.view.checkout"));
+        assertEquals(1, deliveredCount.get("trade.order.view.product"));
+    }
+
+    /**
+     * 类型化绑定：每个绑定的事件，其消息体类型与监听方法参数类型一致，状态流转事件均为单订单事件
+     */
+    @Test
+    void bindings_payloadTypeMatchesListenerParameter() {
+        for (MqEventTypeEnum eventType : MqEventTypeEnum.values()) {
+            for (Binding binding : bindings) {
+                if (binding.exchange.equals(eventType.getExchange()) && binding.key.equals(eventType.getRoutingKey())) {
+                    assertEquals(eventType.getPayloadType(), binding.method.getParameterTypes()[0],
+                            eventType.name() + " -> " + binding.queue);
+                }
+            }
+        }
+        for (OrderTransitionEnum transition : OrderTransitionEnum.values()) {
+            assertEquals(MqEventTypeEnum.ORDER_CREATED.getPayloadType(), transition.getEvent().getPayloadType());
+        }
+    }
+
+    /**
+     * 旧版通配符绑定不匹配任何新路由键（代理上残留的旧绑定不会造成重复投递）
+     */
+    @Test
+    void legacyWildcardBindings_matchNoVersionedKey() {
+        for (MqEventTypeEnum eventType : MqEventTypeEnum.values()) {
+            assertFalse(topicMatches("order.pay.#", eventType.getRoutingKey()), eventType.name());
+        }
+        assertTrue(topicMatches("order.#", MqEventTypeEnum.ORDER_PAID.getRoutingKey()));
+        assertFalse(topicMatches("order.#", MqEventTypeEnum.CHECKOUT_CREATED.getRoutingKey()));
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    private void publish(MqEventTypeEnum eventType) {
+        route(eventType.getExchange(), eventType.getRoutingKey());
+    }
+
+    /**
+     * 按Topic规则投递：同一队列的多个绑定同时匹配时只投递一次
+     */
+    private Set<String> route(String exchange, String routingKey) {
+        Set<String> queues = new LinkedHashSet<>();
+        for (Binding binding : bindings) {
+            if (binding.exchange.equals(exchange) && topicMatches(binding.key, routingKey)) {
+                queues.add(binding.queue);
+            }
+        }
+        queues.forEach(queue -> deliveredCount.merge(queue, 1, Integer::sum));
+        return queues;
+    }
+
+    private boolean topicMatches(String pattern, String routingKey) {
+        return matchWords(pattern.split("\\."), 0, routingKey.split("\\."), 0);
+    }
+
+    private boolean matchWords(String[] pattern, int p, String[] words, int w) {
+        if (p == pattern.length) {
+            return w == words.length;
+        }
+        if (pattern[p].equals("#")) {
+            for (int skip = w; skip <= words.length; skip++) {
+                if (matchWords(pattern, p + 1, words, skip)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (w == words.length) {
+            return false;
+        }
+        return (pattern[p].equals("*") || pattern[p].equals(words[w])) && matchWords(pattern, p + 1, words, w + 1);
+    }
+
+    private record Binding(String queue, String exchange, String key, Method method) {}
+}
@@ -1,6 +1,11 @@
 package xyz.graygoo401.trade.mapper;
 
 import com.baomidou.mybatisplus.test.autoconfigure.MybatisPlusTest;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,9 +16,16 @@ import xyz.graygoo401.api.trade.enums.EvaluationStatusEnum;
 import xyz.graygoo401.trade.dao.entity.Evaluation;
 import xyz.graygoo401.trade.dao.mapper.EvaluationMapper;
 
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 import java.util.Arrays;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -33,6 +45,12 @@ public class EvaluationMapperTest {
     @Autowired
     private EvaluationMapper evaluationMapper;  // 注入待测试的EvaluationMapper
 
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;  // 获取Mapper语句生成的实际SQL
+
+    @Autowired
+    private DataSource dataSource;  // 执行EXPLAIN查看执行计划
+
     // 测试复用的基础数据（从ORDER模块data初始化脚本中获取）
     private Evaluation normalEvaluation;    // 正常评价（evalId=1，orderId=3，status=NORMAL）
     private Evaluation hiddenEvaluation;     // 隐藏评价（evalId=2，orderId=4，status=HIDDEN）
@@ -214,4 +232,117 @@ public class EvaluationMapperTest {
         // 3. 断言统计结果（orderId=3和orderId=4有评价，总数应为2）
         assertEquals(2, evalCount, "指定订单列表中的评价总数应为2");
     }
-}
\ No newline at end of file
+
+    /**
+     * 测试selectByQuery：按商品查询评价列表，使用冗余product_id过滤并按评价时间倒序
+     */
+    @Test
+    void selectByQuery_productId_returnsProductEvaluationsByTimeDesc() {
+        // 1. 构建查询DTO（商品1对应订单1、2，均为正常评价）
+        EvaluationQueryDTO queryDTO = new EvaluationQueryDTO();
+        queryDTO.setProductId(1L);
+        queryDTO.setOffset();
+
+        // 2. 执行查询方法
+        List<Evaluation> evalList = evaluationMapper.selectByQuery(queryDTO);
+
+        // 3. 断言查询结果（订单2的评价时间晚于订单1）
+        assertEquals(2, evalList.size());
+        assertEquals(2L, evalList.get(0).getOrderId());
+        assertEquals(1L, evalList.get(1).getOrderId());
+        assertTrue(evalList.stream().allMatch(e -> Long.valueOf(1L).equals(e.getProductId())));
+        assertEquals(2, evaluationMapper.countByQuery(queryDTO));
+    }
+
+    /**
+     * 测试backfillProductId：按关联订单回填历史评价的商品ID，已回填记录不再被游标查出
+     */
+    @Test
+    void backfillProductId_missingProductId_filledFromOrder() {
+        // 1. 准备数据（订单5的历史评价，未写入product_id）
+        Evaluation legacyEvaluation = new Evaluation();
+        legacyEvaluation.setOrderId(5L);
+        legacyEvaluation.setUserId(1L);
+        legacyEvaluation.setEvaluateeId(2L);
+        legacyEvaluation.setScore(4);
+        legacyEvaluation.setStatus(EvaluationStatusEnum.NORMAL);
+        legacyEvaluation.setCreateTime(LocalDateTime.now());
+        evaluationMapper.insert(legacyEvaluation);
+
+        // 2. 游标查询待回填评价（初始化数据已回填，仅新插入的一条）
+        List<Long> evalIds = evaluationMapper.selectIdsMissingProductId(null, 10);
+        assertEquals(Collections.singletonList(legacyEvaluation.getEvalId()), evalIds);
+
+        // 3. 执行回填（重复执行不再更新）
+        assertEquals(1, evaluationMapper.backfillProductId(evalIds));
+        assertEquals(0, evaluationMapper.backfillProductId(evalIds));
+
+        // 4. 断言回填结果（订单5对应商品3）
+        assertEquals(3L, evaluationMapper.selectById(legacyEvaluation.getEvalId()).getProductId());
+        assertTrue(evaluationMapper.selectIdsMissingProductId(null, 10).isEmpty());
+    }
+
+    /**
+     * 测试商品评价列表执行计划：列表与计数查询均命中(product_id, create_time)索引，不再关联order表
+     */
+    @Test
+    void selectByQuery_productFeed_usesProductTimeIndex() throws SQLException {
+        // 1. 构建查询DTO
+        EvaluationQueryDTO queryDTO = new EvaluationQueryDTO();
+        queryDTO.setProductId(1L);
+        queryDTO.setOffset();
+
+        // 2. 获取执行计划
+        String selectPlan = explain("selectByQuery", queryDTO);
+        String countPlan = explain("countByQuery", queryDTO);
+
+        // 3. 断言索引使用
+        assertTrue(selectPlan.contains("IDX_EVAL_PRODUCT_TIME"), selectPlan);
+        assertFalse(selectPlan.contains("\"ORDER\""), selectPlan);
+        assertTrue(countPlan.contains("IDX_EVAL_PRODUCT_TIME"), countPlan);
+    }
+
+    /**
+     * 测试卖家评价列表执行计划：按evaluatee_id走索引而非全表扫描
+     * MySQL会复用(evaluatee_id, create_time)作为外键索引；H2为外键单独建立单列索引且非覆盖时优先选择列数更少的索引，故仅断言索引前缀命中
+     */
+    @Test
+    void selectByQuery_sellerFeed_usesSellerTimeIndex() throws SQLException {
+        // 1. 构建查询DTO
+        EvaluationQueryDTO queryDTO = new EvaluationQueryDTO();
+        queryDTO.setEvaluateeId(2L);
+        queryDTO.setOffset();
+
+        // 2. 获取执行计划
+        String selectPlan = explain("selectByQuery", queryDTO);
+
+        // 3. 断言索引使用
+        assertTrue(selectPlan.matches("(?s).*/\\* PUBLIC\\.[A-Z0-9_]+: EVALUATEE_ID = \\?1 \\*/.*"), selectPlan);
+        assertFalse(selectPlan.contains("TABLESCAN"), selectPlan);
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 以Mapper语句实际生成的SQL与参数执行EXPLAIN，返回H2执行计划
+     */
+    private String explain(String statementId, EvaluationQueryDTO queryDTO) throws SQLException {
+        Configuration configuration = sqlSessionFactory.getConfiguration();
+        Map<String, Object> param = Map.of("query", queryDTO);
+        BoundSql boundSql = configuration
+                .getMappedStatement(EvaluationMapper.class.getName() + "." + statementId)
+                .getBoundSql(param);
+        MetaObject metaParam = configuration.newMetaObject(param);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + boundSql.getSql())) {
+            List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+            for (int i = 0; i < parameterMappings.size(); i++) {
+                statement.setObject(i + 1, metaParam.getValue(parameterMappings.get(i).getProperty()));
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                assertTrue(resultSet.next());
+                return resultSet.getString(1).toUpperCase();
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package xyz.graygoo401.trade.mapper;
+
+import com.baomidou.mybatisplus.test.autoconfigure.MybatisPlusTest;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.test.context.ActiveProfiles;
+import xyz.graygoo401.api.trade.dto.cart.CartItemAddDTO;
+import xyz.graygoo401.api.trade.enums.OrderStatusEnum;
+import xyz.graygoo401.api.trade.enums.PayTypeEnum;
+import xyz.graygoo401.api.trade.enums.ProductConditionEnum;
+import xyz.graygoo401.api.trade.enums.ProductStatusEnum;
+import xyz.graygoo401.trade.dao.entity.Order;
+import xyz.graygoo401.trade.dao.entity.Product;
+import xyz.graygoo401.trade.dao.mapper.OrderMapper;
+import xyz.graygoo401.trade.dao.mapper.ProductMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 购物车结算数据库访问基准测试（H2内存库）
+ * 对比1、10、50件商品下，逐件下单（每件查询商品 + 插入订单 + 更新库存）与批量结算（一条库存UPDATE + 多行INSERT）的耗时
+ * 耗时以日志输出供参考，不对耗时做断言，避免不同机器上结果波动导致测试失败；默认构建不执行（benchmark分组）
+ */
+@Slf4j
+@Tag("benchmark")
+@MybatisPlusTest  // 仅加载MyBatis相关Bean，轻量化测试
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)  // 禁用默认数据库替换，使用H2配置
+@ActiveProfiles("test")  // 启用test环境配置
+public class OrderCheckoutBenchmarkTest {
+
+    private static final int[] ITEM_COUNTS = {1, 10, 50}; // 结算商品种类数
+    private static final int ROUNDS = 20; // 每种规模的测量轮数
+    private static final int WARMUP_ROUNDS = 5; // 预热轮数
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    private long orderSeq = 0; // 订单编号序号（保证order_no唯一）
+
+    /**
+     * 对比逐件下单与批量结算的耗时，同时校验两种方式扣减库存结果一致
+     */
+    @Test
+    void compareCheckoutLatency_1_10_50_items() {
+        // 1. 准备商品（库存充足，足够全部轮次扣减）
+        List<Long> productIds = new ArrayList<>();
+        for (int i = 0; i < ITEM_COUNTS[ITEM_COUNTS.length - 1]; i++) {
+            productIds.add(insertProduct(i));
+        }
+
+        // 2. 预热（JIT与连接池）
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            checkoutPerItem(buildItems(productIds, 10));
+            checkoutBatch(buildItems(productIds, 10));
+        }
+
+        // 3. 逐规模测量
+        for (int itemCount : ITEM_COUNTS) {
+            List<CartItemAddDTO> items = buildItems(productIds, itemCount);
+
+            long perItemNanos = 0;
+            long batchNanos = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                checkoutPerItem(items);
+                perItemNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                checkoutBatch(items);
+                batchNanos += System.nanoTime() - start;
+            }
+
+            long perItemMicros = perItemNanos / ROUNDS / 1000;
+            long batchMicros = batchNanos / ROUNDS / 1000;
+            log.info("结算耗时（H2，微秒/次），商品数：{}，逐件下单：{}，批量结算：{}，加速比：{}x", itemCount, perItemMicros,
+                    batchMicros, batchMicros == 0 ? "-" : String.format("%.1f", (double) perItemMicros / batchMicros));
+        }
+
+        // 4. 校验结果：第一个商品被所有轮次扣减（每次1件），两种方式扣减量一致
+        int totalRounds = WARMUP_ROUNDS + ROUNDS * ITEM_COUNTS.length;
+        assertEquals(10000 - totalRounds * 2, productMapper.selectById(productIds.get(0)).getStock(),
+                "逐件下单与批量结算应各扣减1件库存");
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 逐件下单（等价于对每件商品调用一次createOrder的数据库访问）
+     */
+    private void checkoutPerItem(List<CartItemAddDTO> items) {
+        for (CartItemAddDTO item : items) {
+            Product product = productMapper.selectById(item.getProductId());
+            assertTrue(product.getStock() >= item.getQuantity());
+            orderMapper.insert(buildOrder(product, item.getQuantity()));
+            productMapper.updateStock(product.getProductId(), product.getStock() - item.getQuantity());
+        }
+    }
+
+    /**
+     * 批量结算（一次批量查询 + 一条库存UPDATE + 一条多行INSERT）
+     */
+    private void checkoutBatch(List<CartItemAddDTO> items) {
+        List<Product> products = productMapper.selectBatchIds(
+                items.stream().map(CartItemAddDTO::getProductId).collect(Collectors.toList()));
+        assertEquals(items.size(), productMapper.reserveStockBatch(items));
+        List<Order> orders = products.stream().map(product -> buildOrder(product, 1)).collect(Collectors.toList());
+        assertEquals(orders.size(), orderMapper.insertBatch(orders));
+    }
+
+    private List<CartItemAddDTO> buildItems(List<Long> productIds, int itemCount) {
+        return productIds.subList(0, itemCount).stream()
+                .map(productId -> new CartItemAddDTO(productId, 1))
+                .collect(Collectors.toList());
+    }
+
+    private Long insertProduct(int index) {
+        Product product = new Product();
+        product.setSellerId(2L);
+        product.setTitle("基准测试商品" + index);
+        product.setCategory("数码产品");
+        product.setPrice(new BigDecimal("10.00"));
+        product.setStock(10000);
+        product.setStatus(ProductStatusEnum.ON_SALE);
+        product.setCondition(ProductConditionEnum.NEW);
+        product.setViewCount(0);
+        product.setCreateTime(LocalDateTime.now());
+        productMapper.insert(product);
+        return product.getProductId();
+    }
+
+    private Order buildOrder(Product product, int quantity) {
+        LocalDateTime now = LocalDateTime.now();
+        Order order = new Order();
+        order.setProductId(product.getProductId());
+        order.setBuyerId(1L);
+        order.setSellerId(product.getSellerId());
+        order.setOrderNo("BENCH" + (++orderSeq));
+        order.setTotalAmount(product.getPrice().multiply(BigDecimal.valueOf(quantity)));
+        order.setQuantity(quantity);
+        order.setReceiverName("test_buyer");
+        order.setAddress("北京市朝阳区");
+        order.setPhoneNumber("13800138000");
+        order.setStatus(OrderStatusEnum.PENDING_PAYMENT);
+        order.setPayType(PayTypeEnum.ALIPAY);
+        order.setCreateTime(now);
+        order.setPayExpireTime(now.plusMinutes(30));
+        return order;
+    }
+}
@@ -1,6 +1,7 @@
 package xyz.graygoo401.trade.mapper;
 
 import com.baomidou.mybatisplus.test.autoconfigure.MybatisPlusTest;
+import org.apache.ibatis.cursor.Cursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,7 +15,9 @@ import xyz.graygoo401.trade.dao.mapper.OrderMapper;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -186,6 +189,59 @@ public class OrderMapperTest {
         assertEquals(newStatus, updatedOrder.getStatus(), "订单状态未更新为CANCELLED");
     }
 
+    /**
+     * 测试compareAndSetStatus：期望状态一致时更新状态并记录流转时间
+     */
+    @Test
+    void compareAndSetStatus_expectMatched_updatesStatusAndTime() {
+        // 1. 执行条件更新（待支付订单orderId=1：待支付→已取消）
+        LocalDateTime cancelTime = LocalDateTime.of(2024, 1, 7, 12, 0);
+        int affectedRows = orderMapper.compareAndSetStatus(1L, OrderStatusEnum.PENDING_PAYMENT,
+                OrderStatusEnum.CANCELLED, "cancel_time", cancelTime);
+
+        // 2. 验证结果
+        assertEquals(1, affectedRows);
+        Order updatedOrder = orderMapper.selectById(1L);
+        assertEquals(OrderStatusEnum.CANCELLED, updatedOrder.getStatus());
+        assertEquals(cancelTime, updatedOrder.getCancelTime());
+    }
+
+    /**
+     * 测试compareAndSetStatus：期望状态不一致（已被其他流转修改）时不更新
+     */
+    @Test
+    void compareAndSetStatus_expectMismatched_returnsAffectedRows0() {
+        // 1. 对已支付订单orderId=2按待支付期望执行取消
+        int affectedRows = orderMapper.compareAndSetStatus(2L, OrderStatusEnum.PENDING_PAYMENT,
+                OrderStatusEnum.CANCELLED, "cancel_time", LocalDateTime.now());
+
+        // 2. 验证结果（状态保持不变）
+        assertEquals(0, affectedRows);
+        Order unchangedOrder = orderMapper.selectById(2L);
+        assertEquals(paidUnshippedOrder.getStatus(), unchangedOrder.getStatus());
+        assertNull(unchangedOrder.getCancelTime());
+    }
+
+    /**
+     * 测试streamByCreateTimeRange：按卖家流式读取订单，按订单ID升序逐行返回
+     */
+    @Test
+    void streamByCreateTimeRange_seller_streamsAscending() throws Exception {
+        // 1. 执行流式查询（测试方法在事务内，游标可直接遍历）
+        List<Long> orderIds = new ArrayList<>();
+        try (Cursor<Order> cursor = orderMapper.streamByCreateTimeRange(completedOrder.getSellerId(), "SELLER", null, null)) {
+            for (Order order : cursor) {
+                assertEquals(completedOrder.getSellerId(), order.getSellerId(), "导出订单应属于指定卖家");
+                orderIds.add(order.getOrderId());
+            }
+        }
+
+        // 2. 验证结果（与分页查询条数一致，且按ID升序）
+        List<Order> pageOrders = orderMapper.selectByCreateTimeRange(completedOrder.getSellerId(), "SELLER", null, null, 0, 1000);
+        assertEquals(pageOrders.size(), orderIds.size());
+        assertEquals(orderIds.stream().sorted().toList(), orderIds, "导出订单应按ID升序");
+    }
+
     /**
      * 测试updatePayInfo：更新订单支付信息（正常场景）
      * 适配《代码文档1》2.5.2节 状态与时间更新 - updatePayInfo方法
@@ -322,4 +378,99 @@ public class OrderMapperTest {
         // 2. 断言结果（data-order.sql中卖家仅orderId=1为待支付订单，总数应为1）
         assertEquals(1, count, "卖家待支付订单总数应为1");
     }
+
+    /**
+     * 测试insertBatch：多行批量插入订单并回填自增ID
+     */
+    @Test
+    void insertBatch_multiOrders_returnsAffectedRowsAndFillsIds() {
+        // 1. 准备数据（同一结算单下的两笔订单）
+        LocalDateTime now = LocalDateTime.of(2024, 5, 20, 10, 0, 0);
+        List<Order> orders = List.of(
+                buildCheckoutOrder("BATCH001", 1L, now),
+                buildCheckoutOrder("BATCH002", 1L, now)
+        );
+
+        // 2. 执行批量插入
+        int affectedRows = orderMapper.insertBatch(orders);
+
+        // 3. 断言结果（影响行数正确且ID已回填）
+        assertEquals(2, affectedRows, "批量插入应影响2行数据");
+        for (Order order : orders) {
+            assertNotNull(order.getOrderId(), "批量插入后应回填订单ID");
+            Order saved = orderMapper.selectById(order.getOrderId());
+            assertEquals(order.getOrderNo(), saved.getOrderNo());
+            assertEquals("CKTEST001", saved.getCheckoutNo(), "结算单号应正确写入");
+            assertEquals(OrderStatusEnum.PENDING_PAYMENT, saved.getStatus());
+            assertEquals(PayTypeEnum.ALIPAY, saved.getPayType());
+        }
+    }
+
+    /**
+     * 测试selectPurchasesForRecommend：仅返回已支付且未取消的订单，按订单ID游标分批并受时间下限约束
+     */
+    @Test
+    void selectPurchasesForRecommend_paidOrders_keysetPaged() {
+        // 1. 执行测试方法（data-order.sql中已支付订单：2=待发货、3=已完成、5=待收货）
+        LocalDateTime since = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Order> firstBatch = orderMapper.selectPurchasesForRecommend(null, since, 2);
+        List<Order> nextBatch = orderMapper.selectPurchasesForRecommend(firstBatch.get(1).getOrderId(), since, 2);
+        List<Order> recentOnly = orderMapper.selectPurchasesForRecommend(null, LocalDateTime.of(2024, 1, 7, 0, 0), 10);
+
+        // 2. 验证结果
+        assertEquals(List.of(2L, 3L), firstBatch.stream().map(Order::getOrderId).collect(Collectors.toList()));
+        assertEquals(paidUnshippedOrder.getBuyerId(), firstBatch.get(0).getBuyerId());
+        assertEquals(paidUnshippedOrder.getProductId(), firstBatch.get(0).getProductId());
+        assertEquals(List.of(5L), nextBatch.stream().map(Order::getOrderId).collect(Collectors.toList()));
+        assertEquals(List.of(2L, 5L), recentOnly.stream().map(Order::getOrderId).collect(Collectors.toList()));
+    }
+
+    /**
+     * 测试streamForReconcile：只返回指定支付方式、支付时间或创建时间落在窗口内的订单，按订单编号升序
+     */
+    @Test
+    void streamForReconcile_windowAndPayType_orderedByOrderNo() throws Exception {
+        // 1. 准备数据（窗口为2030-01-01全天）
+        LocalDateTime windowStart = LocalDateTime.of(2030, 1, 1, 0, 0);
+        Order createdInWindow = buildCheckoutOrder("REC003", 1L, windowStart.plusHours(10));
+        Order paidInWindow = buildCheckoutOrder("REC001", 1L, windowStart.minusMinutes(5));
+        paidInWindow.setStatus(OrderStatusEnum.PENDING_SHIPMENT);
+        paidInWindow.setPayTime(windowStart.plusMinutes(1));
+        Order outsideWindow = buildCheckoutOrder("REC002", 1L, windowStart.plusDays(1));
+        Order wechatOrder = buildCheckoutOrder("REC004", 1L, windowStart.plusHours(11));
+        wechatOrder.setPayType(PayTypeEnum.WECHAT_PAY);
+        List.of(createdInWindow, paidInWindow, outsideWindow, wechatOrder).forEach(orderMapper::insert);
+
+        // 2. 执行流式查询（测试方法在事务内，游标可直接遍历）
+        List<Order> orders = new ArrayList<>();
+        try (Cursor<Order> cursor = orderMapper.streamForReconcile(PayTypeEnum.ALIPAY, windowStart, windowStart.plusDays(1))) {
+            cursor.forEach(orders::add);
+        }
+
+        // 3. 验证结果
+        assertEquals(List.of("REC001", "REC003"), orders.stream().map(Order::getOrderNo).collect(Collectors.toList()));
+        assertEquals(OrderStatusEnum.PENDING_SHIPMENT, orders.get(0).getStatus());
+        assertEquals(0, new BigDecimal("4599.00").compareTo(orders.get(0).getTotalAmount()));
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    private Order buildCheckoutOrder(String orderNo, Long productId, LocalDateTime createTime) {
+        Order order = new Order();
+        order.setProductId(productId);
+        order.setBuyerId(1L);
+        order.setSellerId(2L);
+        order.setOrderNo(orderNo);
+        order.setCheckoutNo("CKTEST001");
+        order.setTotalAmount(new BigDecimal("4599.00"));
+        order.setQuantity(1);
+        order.setReceiverName("test_buyer");
+        order.setAddress("北京市朝阳区");
+        order.setPhoneNumber("13800138000");
+        order.setStatus(OrderStatusEnum.PENDING_PAYMENT);
+        order.setPayType(PayTypeEnum.ALIPAY);
+        order.setCreateTime(createTime);
+        order.setPayExpireTime(createTime.plusMinutes(30));
+        return order;
+    }
 }
\ No newline at end of file
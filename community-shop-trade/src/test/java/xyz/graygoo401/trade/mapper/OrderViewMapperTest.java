@@ -0,0 +1,150 @@
+package xyz.graygoo401.trade.mapper;
+
+import com.baomidou.mybatisplus.test.autoconfigure.MybatisPlusTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.test.context.ActiveProfiles;
+import xyz.graygoo401.api.trade.enums.OrderStatusEnum;
+import xyz.graygoo401.trade.dao.entity.OrderView;
+import xyz.graygoo401.trade.dao.mapper.OrderViewMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OrderViewMapper单元测试
+ * 覆盖读模型upsert、商品冗余信息同步与(create_time, order_id)游标分页
+ */
+@MybatisPlusTest  // 仅加载MyBatis相关Bean，轻量化测试
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)  // 禁用默认数据库替换，使用H2配置
+@ActiveProfiles("test")  // 启用test环境配置
+public class OrderViewMapperTest {
+
+    @Autowired
+    private OrderViewMapper orderViewMapper;
+
+    // 测试基准时间（订单101、102下单时间相同，用于验证order_id决胜）
+    private final LocalDateTime baseTime = LocalDateTime.of(2024, 5, 20, 10, 0, 0);
+
+    /**
+     * 测试前初始化：买家1001在卖家2001处下单5笔，买家1002下单1笔
+     */
+    @BeforeEach
+    void setUp() {
+        orderViewMapper.upsert(buildView(101L, 1001L, 2001L, baseTime, OrderStatusEnum.COMPLETED));
+        orderViewMapper.upsert(buildView(102L, 1001L, 2001L, baseTime, OrderStatusEnum.PENDING_PAYMENT));
+        orderViewMapper.upsert(buildView(103L, 1001L, 2001L, baseTime.plusMinutes(1), OrderStatusEnum.PENDING_PAYMENT));
+        orderViewMapper.upsert(buildView(104L, 1001L, 2001L, baseTime.plusMinutes(2), OrderStatusEnum.SHIPPED));
+        orderViewMapper.upsert(buildView(105L, 1001L, 2001L, baseTime.plusMinutes(3), OrderStatusEnum.CANCELLED));
+        orderViewMapper.upsert(buildView(106L, 1002L, 2001L, baseTime.plusMinutes(4), OrderStatusEnum.COMPLETED));
+    }
+
+    /**
+     * 测试upsert：重复写入同一订单时覆盖状态，冗余字段为null时保留旧值
+     */
+    @Test
+    void upsert_existOrder_updatesStatusAndKeepsNickname() {
+        // 1. 准备数据（用户服务不可用，昵称为null）
+        OrderView update = buildView(102L, 1001L, 2001L, baseTime, OrderStatusEnum.PENDING_SHIPMENT);
+        update.setBuyerNickname(null);
+        update.setSellerNickname(null);
+        update.setPayTime(baseTime.plusMinutes(5));
+
+        // 2. 执行测试方法
+        orderViewMapper.upsert(update);
+
+        // 3. 断言结果
+        OrderView result = orderViewMapper.selectById(102L);
+        assertEquals(OrderStatusEnum.PENDING_SHIPMENT, result.getStatus(), "订单状态应被覆盖");
+        assertEquals(baseTime.plusMinutes(5), result.getPayTime(), "支付时间应被覆盖");
+        assertEquals("buyer_1001", result.getBuyerNickname(), "昵称为null时应保留旧值");
+        assertEquals("seller_2001", result.getSellerNickname(), "昵称为null时应保留旧值");
+    }
+
+    /**
+     * 测试selectByBuyerCursor：逐页拉取，结果按(create_time, order_id)倒序且无重复、无遗漏
+     */
+    @Test
+    void selectByBuyerCursor_pageByPage_returnsAllInOrder() {
+        // 1. 按每页2条逐页查询
+        List<Long> orderIds = new ArrayList<>();
+        LocalDateTime lastTime = null;
+        Long lastId = null;
+        while (true) {
+            List<OrderView> page = orderViewMapper.selectByBuyerCursor(1001L, null, lastTime, lastId, 2);
+            if (page.isEmpty()) {
+                break;
+            }
+            page.forEach(view -> orderIds.add(view.getOrderId()));
+            OrderView last = page.get(page.size() - 1);
+            lastTime = last.getCreateTime();
+            lastId = last.getOrderId();
+        }
+
+        // 2. 断言结果（101、102下单时间相同，按order_id倒序）
+        assertEquals(List.of(105L, 104L, 103L, 102L, 101L), orderIds);
+    }
+
+    /**
+     * 测试selectByBuyerCursor：按状态筛选
+     */
+    @Test
+    void selectByBuyerCursor_filterByStatus_returnsMatchedList() {
+        List<OrderView> result = orderViewMapper.selectByBuyerCursor(1001L, OrderStatusEnum.PENDING_PAYMENT, null, null, 10);
+
+        assertEquals(2, result.size());
+        assertEquals(103L, result.get(0).getOrderId());
+        assertEquals(102L, result.get(1).getOrderId());
+    }
+
+    /**
+     * 测试selectBySellerCursor：卖家维度查询包含所有买家的订单
+     */
+    @Test
+    void selectBySellerCursor_existSellerId_returnsAllBuyersOrders() {
+        List<OrderView> result = orderViewMapper.selectBySellerCursor(2001L, null, null, null, 10);
+
+        assertEquals(6, result.size());
+        assertEquals(106L, result.get(0).getOrderId(), "最新订单应排在最前");
+    }
+
+    /**
+     * 测试updateProductInfo：同步商品标题到该商品关联的所有读模型记录
+     */
+    @Test
+    void updateProductInfo_existProduct_updatesAllRelatedViews() {
+        int rows = orderViewMapper.updateProductInfo(1L, "二手iPhone 13（降价）", null);
+
+        assertEquals(6, rows);
+        OrderView result = orderViewMapper.selectById(101L);
+        assertEquals("二手iPhone 13（降价）", result.getProductTitle());
+        assertEquals("https://example.com/iphone13.jpg", result.getProductImage(), "缩略图传null时不更新");
+        assertEquals(0, orderViewMapper.updateProductInfo(1L, "二手iPhone 13（降价）", null), "标题未变化时不写入");
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    private OrderView buildView(Long orderId, Long buyerId, Long sellerId, LocalDateTime createTime, OrderStatusEnum status) {
+        OrderView view = new OrderView();
+        view.setOrderId(orderId);
+        view.setOrderNo("VIEW" + orderId);
+        view.setBuyerId(buyerId);
+        view.setSellerId(sellerId);
+        view.setProductId(1L);
+        view.setProductTitle("二手iPhone 13");
+        view.setProductImage("https://example.com/iphone13.jpg");
+        view.setBuyerNickname("buyer_" + buyerId);
+        view.setSellerNickname("seller_" + sellerId);
+        view.setTotalAmount(new BigDecimal("4599.00"));
+        view.setQuantity(1);
+        view.setStatus(status);
+        view.setCreateTime(createTime);
+        return view;
+    }
+}
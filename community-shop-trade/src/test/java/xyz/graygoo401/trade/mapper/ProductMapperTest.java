@@ -1,20 +1,29 @@
 package xyz.graygoo401.trade.mapper;
 
 import com.baomidou.mybatisplus.test.autoconfigure.MybatisPlusTest;
+import org.apache.ibatis.cursor.Cursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.test.context.ActiveProfiles;
+import xyz.graygoo401.api.trade.dto.cart.CartItemAddDTO;
+import xyz.graygoo401.api.trade.dto.product.ProductFacetCountDTO;
 import xyz.graygoo401.api.trade.dto.product.ProductQueryDTO;
 import xyz.graygoo401.api.trade.dto.product.SellerProductQueryDTO;
 import xyz.graygoo401.api.trade.enums.ProductConditionEnum;
+import xyz.graygoo401.api.trade.enums.ProductPriceRangeEnum;
 import xyz.graygoo401.api.trade.enums.ProductStatusEnum;
+import xyz.graygoo401.common.dto.SuggestionDTO;
 import xyz.graygoo401.trade.dao.entity.Product;
 import xyz.graygoo401.trade.dao.mapper.ProductMapper;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -116,6 +125,44 @@ public class ProductMapperTest {
         assertTrue(emptyList.isEmpty(), "无匹配关键词时应返回空列表");
     }
 
+    /**
+     * 测试insertBatch：多行INSERT批量插入商品，回填自增ID且枚举按code写入
+     */
+    @Test
+    void insertBatch_multipleProducts_backfillsIds() {
+        // 1. 准备3个商品（其中一个无成色）
+        LocalDateTime now = LocalDateTime.now();
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Product product = new Product();
+            product.setSellerId(2L);
+            product.setTitle("批量导入商品" + i);
+            product.setCategory("数码产品");
+            product.setDescription("批量导入测试");
+            product.setPrice(new BigDecimal("99.00"));
+            product.setStock(10 + i);
+            product.setViewCount(0);
+            product.setStatus(ProductStatusEnum.ON_SALE);
+            product.setCondition(i == 2 ? null : ProductConditionEnum.NEW);
+            product.setCreateTime(now);
+            product.setUpdateTime(now);
+            products.add(product);
+        }
+
+        // 2. 执行批量插入
+        assertEquals(3, productMapper.insertBatch(products));
+
+        // 3. 验证ID回填且数据一致
+        for (Product product : products) {
+            assertNotNull(product.getProductId(), "批量插入后应回填商品ID");
+            Product saved = productMapper.selectById(product.getProductId());
+            assertEquals(product.getTitle(), saved.getTitle());
+            assertEquals(product.getStock(), saved.getStock());
+            assertEquals(ProductStatusEnum.ON_SALE, saved.getStatus());
+            assertEquals(product.getCondition(), saved.getCondition());
+        }
+    }
+
     /**
      * 测试updateStatus：更新商品状态为下架（枚举参数，正常场景）
      * 适配《代码文档1》2.4.2节 基础操作与状态管理 - updateStatus方法
@@ -159,6 +206,70 @@ public class ProductMapperTest {
         assertEquals(newStock, updatedProduct.getStock(), "商品库存未更新为3");
     }
 
+    /**
+     * 测试reserveStockBatch：多商品库存均充足时单条SQL全部扣减
+     */
+    @Test
+    void reserveStockBatch_allSufficient_returnsAffectedRowsEqualsItemCount() {
+        // 1. 准备数据（新增一件在售商品，库存10）
+        Product another = new Product();
+        another.setSellerId(2L);
+        another.setTitle("二手机械键盘");
+        another.setCategory("电脑设备");
+        another.setPrice(new BigDecimal("199.00"));
+        another.setStock(10);
+        another.setStatus(ProductStatusEnum.ON_SALE);
+        another.setCondition(ProductConditionEnum.NINETY_FIVE_PERCENT_NEW);
+        another.setViewCount(0);
+        another.setCreateTime(LocalDateTime.now());
+        productMapper.insert(another);
+
+        // 2. 执行批量预占（商品1扣2件，新商品扣4件）
+        int affectedRows = productMapper.reserveStockBatch(List.of(
+                new CartItemAddDTO(1L, 2),
+                new CartItemAddDTO(another.getProductId(), 4)
+        ));
+
+        // 3. 断言结果
+        assertEquals(2, affectedRows, "两件商品均应扣减成功");
+        assertEquals(3, productMapper.selectById(1L).getStock());
+        assertEquals(6, productMapper.selectById(another.getProductId()).getStock());
+    }
+
+    /**
+     * 测试reserveStockBatch：库存不足或非在售的商品不被扣减（影响行数小于商品种类数）
+     */
+    @Test
+    void reserveStockBatch_partialInsufficient_skipsInvalidRows() {
+        // 1. 执行批量预占（商品1库存5扣6件，商品2已售罄）
+        int affectedRows = productMapper.reserveStockBatch(List.of(
+                new CartItemAddDTO(1L, 6),
+                new CartItemAddDTO(2L, 1)
+        ));
+
+        // 2. 断言结果（均未扣减，库存保持不变）
+        assertEquals(0, affectedRows, "库存不足与已售罄商品均不应被扣减");
+        assertEquals(5, productMapper.selectById(1L).getStock());
+        assertEquals(0, productMapper.selectById(2L).getStock());
+    }
+
+    /**
+     * 测试markSoldOutByIds：仅将库存扣减至0的在售商品切换为已售罄
+     */
+    @Test
+    void markSoldOutByIds_onlyZeroStockOnSale_switchedToSoldOut() {
+        // 1. 准备数据（商品1库存5全部预占，商品3为下架商品）
+        productMapper.reserveStockBatch(List.of(new CartItemAddDTO(1L, 5)));
+
+        // 2. 执行批量标记售罄
+        int affectedRows = productMapper.markSoldOutByIds(List.of(1L, 2L, 3L));
+
+        // 3. 断言结果（已售罄商品2与下架商品3不受影响）
+        assertEquals(1, affectedRows, "仅库存归零的在售商品应被标记为已售罄");
+        assertEquals(ProductStatusEnum.SOLD_OUT, productMapper.selectById(1L).getStatus());
+        assertEquals(ProductStatusEnum.OFF_SHELF, productMapper.selectById(3L).getStatus());
+    }
+
     /**
      * 测试updateViewCount：自增商品浏览量（正常场景）
      * 适配《代码文档1》2.4.2节 卖家专属查询与库存管理 - updateViewCount方法
@@ -180,6 +291,87 @@ public class ProductMapperTest {
         assertEquals(oldViewCount + 1, updatedProduct.getViewCount(), "商品浏览量未自增1");
     }
 
+    /**
+     * 测试increaseStock：按增量恢复库存（不覆盖并发扣减后的库存）
+     */
+    @Test
+    void increaseStock_existProduct_addsQuantity() {
+        // 1. 记录恢复前库存
+        int oldStock = productMapper.selectById(1L).getStock();
+
+        // 2. 执行恢复（商品999不存在）
+        int affectedRows = productMapper.increaseStock(1L, 3);
+
+        // 3. 验证结果
+        assertEquals(1, affectedRows);
+        assertEquals(oldStock + 3, productMapper.selectById(1L).getStock());
+        assertEquals(0, productMapper.increaseStock(999L, 3));
+    }
+
+    /**
+     * 测试increaseStock：已售罄商品恢复库存后重新在售，下架商品只恢复库存不改变状态
+     */
+    @Test
+    void increaseStock_soldOutProduct_backOnSale() {
+        // 1. 执行恢复（商品2已售罄、商品3已下架）
+        assertEquals(1, productMapper.increaseStock(2L, 1));
+        assertEquals(1, productMapper.increaseStock(3L, 1));
+
+        // 2. 验证结果
+        assertEquals(ProductStatusEnum.ON_SALE, productMapper.selectById(2L).getStatus());
+        assertEquals(ProductStatusEnum.OFF_SHELF, productMapper.selectById(3L).getStatus());
+    }
+
+    /**
+     * 测试streamForExport：按状态流式读取商品，按商品ID升序逐行返回
+     */
+    @Test
+    void streamForExport_onSale_streamsOnlyOnSaleAscending() throws Exception {
+        List<Long> productIds = new ArrayList<>();
+        try (Cursor<Product> cursor = productMapper.streamForExport(null, ProductStatusEnum.ON_SALE)) {
+            for (Product product : cursor) {
+                assertEquals(ProductStatusEnum.ON_SALE, product.getStatus(), "导出商品状态应为在售");
+                productIds.add(product.getProductId());
+            }
+        }
+
+        assertTrue(productIds.contains(1L), "导出应包含在售商品productId=1");
+        assertFalse(productIds.contains(3L), "导出不应包含下架商品productId=3");
+        assertEquals(productIds.stream().sorted().toList(), productIds, "导出商品应按ID升序");
+    }
+
+    /**
+     * 测试incrementViewCountBatch：单条SQL按商品累加不同的浏览增量，不存在的商品忽略
+     */
+    @Test
+    void incrementViewCountBatch_multipleProducts_addsEachDelta() {
+        // 1. 记录更新前浏览量
+        int oldViewCount1 = productMapper.selectById(1L).getViewCount();
+        int oldViewCount2 = productMapper.selectById(2L).getViewCount();
+        LocalDateTime oldUpdateTime = productMapper.selectById(1L).getUpdateTime();
+
+        // 2. 执行批量累加（商品999不存在）
+        int affectedRows = productMapper.incrementViewCountBatch(Map.of(1L, 5L, 2L, 12L, 999L, 3L));
+
+        // 3. 验证结果（浏览不刷新更新时间）
+        assertEquals(2, affectedRows);
+        assertEquals(oldViewCount1 + 5, productMapper.selectById(1L).getViewCount());
+        assertEquals(oldViewCount2 + 12, productMapper.selectById(2L).getViewCount());
+        assertEquals(oldUpdateTime, productMapper.selectById(1L).getUpdateTime());
+    }
+
+    /**
+     * 测试updateMainImageIfAbsent：首图为空时写入，已有首图时不覆盖
+     */
+    @Test
+    void updateMainImageIfAbsent_onlyFillsEmptyMainImage() {
+        assertEquals(1, productMapper.updateMainImageIfAbsent(1L, "picture/product/1/1.jpg"));
+        assertEquals("picture/product/1/1.jpg", productMapper.selectById(1L).getMainImage());
+
+        assertEquals(0, productMapper.updateMainImageIfAbsent(1L, "picture/product/1/2.jpg"));
+        assertEquals("picture/product/1/1.jpg", productMapper.selectById(1L).getMainImage());
+    }
+
     /**
      * 测试selectBySellerId：分页查询卖家商品（正常场景）
      * 适配《代码文档1》2.4.2节 卖家专属查询与库存管理 - selectBySellerId方法
@@ -278,4 +470,123 @@ public class ProductMapperTest {
         int count = productMapper.verifySellerExists(1L);
         assertEquals(0, count, "无已发布商品的卖家应返回0");
     }
-}
\ No newline at end of file
+
+    /**
+     * 测试selectOnSaleForIndex：仅加载在售商品的索引列，按商品ID游标分批
+     */
+    @Test
+    void selectOnSaleForIndex_mixedStatus_returnsOnSaleOnly() {
+        // 1. 执行测试方法
+        List<Product> firstBatch = productMapper.selectOnSaleForIndex(null, 10);
+        List<Product> nextBatch = productMapper.selectOnSaleForIndex(onSaleProduct.getProductId(), 10);
+
+        // 2. 验证结果（data-product.sql中仅productId=1在售，且不加载标题等非索引列）
+        assertEquals(1, firstBatch.size());
+        Product indexed = firstBatch.get(0);
+        assertEquals(onSaleProduct.getProductId(), indexed.getProductId());
+        assertNotNull(indexed.getPrice());
+        assertNotNull(indexed.getCreateTime());
+        assertNotNull(indexed.getCondition());
+        assertNull(indexed.getTitle());
+        assertTrue(nextBatch.isEmpty());
+    }
+
+    /**
+     * 测试selectOnSaleForAutocomplete：仅加载在售商品的标题与热度，按商品ID游标分批
+     */
+    @Test
+    void selectOnSaleForAutocomplete_mixedStatus_returnsOnSaleOnly() {
+        // 1. 准备测试数据（在售商品浏览量设为7，无已完成订单）
+        onSaleProduct.setViewCount(7);
+        productMapper.updateById(onSaleProduct);
+
+        // 2. 执行测试方法
+        List<SuggestionDTO> firstBatch = productMapper.selectOnSaleForAutocomplete(null, 10);
+        List<SuggestionDTO> nextBatch = productMapper.selectOnSaleForAutocomplete(onSaleProduct.getProductId(), 10);
+
+        // 3. 验证结果（data-product.sql中仅productId=1在售）
+        assertEquals(1, firstBatch.size());
+        assertEquals(onSaleProduct.getProductId(), firstBatch.get(0).getId());
+        assertEquals(onSaleProduct.getTitle(), firstBatch.get(0).getText());
+        assertEquals(7L, firstBatch.get(0).getWeight());
+        assertTrue(nextBatch.isEmpty());
+    }
+
+    /**
+     * 测试selectOnSaleSuggestionById：权重计入已完成订单销量，非在售商品返回null
+     */
+    @Test
+    void selectOnSaleSuggestionById_completedOrders_weightIncludesSales() {
+        // 1. 非在售商品（productId=2已售罄）返回null
+        assertNull(productMapper.selectOnSaleSuggestionById(outOfStockProduct.getProductId()));
+
+        // 2. 重新上架后，权重 = 已完成订单销量(1) × 10 + 浏览量(0)
+        outOfStockProduct.setStatus(ProductStatusEnum.ON_SALE);
+        productMapper.updateById(outOfStockProduct);
+        SuggestionDTO suggestion = productMapper.selectOnSaleSuggestionById(outOfStockProduct.getProductId());
+
+        // 3. 验证结果
+        assertNotNull(suggestion);
+        assertEquals(outOfStockProduct.getTitle(), suggestion.getText());
+        assertEquals(10L, suggestion.getWeight());
+    }
+
+    /**
+     * 测试countGroupByCategory：分组计数忽略类别条件，保留成色等其余条件
+     */
+    @Test
+    void countGroupByCategory_categoryAndCondition_ignoresCategory() {
+        // 1. 构建查询DTO（类别=数码产品，成色=全新；全新商品仅productId=2）
+        ProductQueryDTO queryDTO = new ProductQueryDTO();
+        queryDTO.setCategory("数码产品");
+        queryDTO.setCondition(ProductConditionEnum.NEW);
+
+        // 2. 执行测试方法
+        List<ProductFacetCountDTO> facetList = productMapper.countGroupByCategory(queryDTO);
+
+        // 3. 断言结果
+        assertEquals(1, facetList.size());
+        assertEquals(outOfStockProduct.getCategory(), facetList.get(0).getValue());
+        assertEquals(1L, facetList.get(0).getCount());
+    }
+
+    /**
+     * 测试countGroupByCondition：分组计数忽略成色条件，保留类别条件
+     */
+    @Test
+    void countGroupByCondition_categoryAndCondition_ignoresCondition() {
+        // 1. 构建查询DTO（类别=数码产品，成色=全新）
+        ProductQueryDTO queryDTO = new ProductQueryDTO();
+        queryDTO.setCategory("数码产品");
+        queryDTO.setCondition(ProductConditionEnum.NEW);
+
+        // 2. 执行测试方法
+        List<ProductFacetCountDTO> facetList = productMapper.countGroupByCondition(queryDTO);
+
+        // 3. 断言结果（数码产品仅productId=1，成色为95成新）
+        assertEquals(1, facetList.size());
+        assertEquals(ProductConditionEnum.NINETY_FIVE_PERCENT_NEW.getCode(), facetList.get(0).getValue());
+        assertEquals(1L, facetList.get(0).getCount());
+    }
+
+    /**
+     * 测试countGroupByPriceRange：按价格区间分组计数，忽略价格条件
+     */
+    @Test
+    void countGroupByPriceRange_priceCondition_ignoresPrice() {
+        // 1. 构建查询DTO（价格下限4000，不影响价格分面）
+        ProductQueryDTO queryDTO = new ProductQueryDTO();
+        queryDTO.setSellerId(2L);
+        queryDTO.setMinPrice(new BigDecimal("4000"));
+
+        // 2. 执行测试方法
+        Map<String, Long> facetMap = productMapper.countGroupByPriceRange(queryDTO, ProductPriceRangeEnum.values()).stream()
+                .collect(Collectors.toMap(ProductFacetCountDTO::getValue, ProductFacetCountDTO::getCount));
+
+        // 3. 断言结果（299元、2800元、4599元各一件）
+        assertEquals(3, facetMap.size());
+        assertEquals(1L, facetMap.get(ProductPriceRangeEnum.FROM_100_TO_500.getCode()));
+        assertEquals(1L, facetMap.get(ProductPriceRangeEnum.FROM_1000_TO_3000.getCode()));
+        assertEquals(1L, facetMap.get(ProductPriceRangeEnum.FROM_3000_TO_5000.getCode()));
+    }
+}
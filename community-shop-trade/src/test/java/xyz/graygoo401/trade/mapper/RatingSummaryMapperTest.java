@@ -0,0 +1,136 @@
+package xyz.graygoo401.trade.mapper;
+
+import com.baomidou.mybatisplus.test.autoconfigure.MybatisPlusTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.test.context.ActiveProfiles;
+import xyz.graygoo401.api.trade.enums.RatingTargetTypeEnum;
+import xyz.graygoo401.trade.dao.entity.RatingSummary;
+import xyz.graygoo401.trade.dao.mapper.RatingSummaryMapper;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RatingSummaryMapper单元测试
+ * 初始化数据中卖家2的正常评价为3/4/5星各一条（订单4的3星评价为隐藏状态，不计入）
+ */
+@MybatisPlusTest  // 仅加载MyBatis相关Bean，轻量化测试
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)  // 禁用默认数据库替换，使用H2配置
+@ActiveProfiles("test")  // 启用test环境配置
+public class RatingSummaryMapperTest {
+
+    @Autowired
+    private RatingSummaryMapper ratingSummaryMapper;
+
+    /**
+     * 测试increaseRating：首次计入插入汇总，再次计入原子累加
+     */
+    @Test
+    void increaseRating_newTarget_insertsThenAccumulates() {
+        // 1. 执行测试方法（5星 + 3星）
+        ratingSummaryMapper.increaseRating(RatingTargetTypeEnum.SELLER, 99L, 5);
+        ratingSummaryMapper.increaseRating(RatingTargetTypeEnum.SELLER, 99L, 3);
+
+        // 2. 验证结果
+        RatingSummary summary = ratingSummaryMapper.selectByTarget(RatingTargetTypeEnum.SELLER, 99L);
+        assertNotNull(summary);
+        assertEquals(RatingTargetTypeEnum.SELLER, summary.getTargetType());
+        assertEquals(2, summary.getRatingCount());
+        assertEquals(8L, summary.getRatingSum());
+        assertEquals(1, summary.getStar5Count());
+        assertEquals(1, summary.getStar3Count());
+        assertEquals(0, summary.getStar1Count());
+
+        // 3. 同一对象不同类型互不影响
+        assertNull(ratingSummaryMapper.selectByTarget(RatingTargetTypeEnum.PRODUCT, 99L));
+    }
+
+    /**
+     * 测试decreaseRating：扣减对应星级，最低为0；汇总不存在时影响行数为0
+     */
+    @Test
+    void decreaseRating_existingTarget_floorsAtZero() {
+        // 1. 准备数据（一条4星）
+        ratingSummaryMapper.increaseRating(RatingTargetTypeEnum.PRODUCT, 99L, 4);
+
+        // 2. 执行测试方法（扣减两次）
+        assertEquals(1, ratingSummaryMapper.decreaseRating(RatingTargetTypeEnum.PRODUCT, 99L, 4));
+        assertEquals(1, ratingSummaryMapper.decreaseRating(RatingTargetTypeEnum.PRODUCT, 99L, 4));
+
+        // 3. 验证结果
+        RatingSummary summary = ratingSummaryMapper.selectByTarget(RatingTargetTypeEnum.PRODUCT, 99L);
+        assertEquals(0, summary.getRatingCount());
+        assertEquals(0L, summary.getRatingSum());
+        assertEquals(0, summary.getStar4Count());
+        assertEquals(0, ratingSummaryMapper.decreaseRating(RatingTargetTypeEnum.PRODUCT, 100L, 4));
+    }
+
+    /**
+     * 测试selectActualSummaries：卖家维度仅统计正常状态评价
+     */
+    @Test
+    void selectActualSummaries_seller_excludesHiddenEvaluations() {
+        // 1. 执行测试方法
+        List<RatingSummary> actualList = ratingSummaryMapper.selectActualSummaries(
+                RatingTargetTypeEnum.SELLER, Collections.singletonList(2L), null, 10);
+
+        // 2. 验证结果（3/4/5星各一条）
+        assertEquals(1, actualList.size());
+        RatingSummary actual = actualList.get(0);
+        assertEquals(2L, actual.getTargetId());
+        assertEquals(3, actual.getRatingCount());
+        assertEquals(12L, actual.getRatingSum());
+        assertEquals(1, actual.getStar3Count());
+        assertEquals(1, actual.getStar4Count());
+        assertEquals(1, actual.getStar5Count());
+    }
+
+    /**
+     * 测试selectActualSummaries：商品维度直接读取评价冗余的商品ID，按商品ID游标分批
+     */
+    @Test
+    void selectActualSummaries_product_pagesByTargetId() {
+        // 1. 执行测试方法（每批1条）
+        List<RatingSummary> firstBatch = ratingSummaryMapper.selectActualSummaries(
+                RatingTargetTypeEnum.PRODUCT, null, null, 1);
+        List<RatingSummary> secondBatch = ratingSummaryMapper.selectActualSummaries(
+                RatingTargetTypeEnum.PRODUCT, null, firstBatch.get(0).getTargetId(), 1);
+
+        // 2. 验证结果（游标严格递增，且各商品评价数之和等于卖家评价数）
+        assertEquals(1, firstBatch.size());
+        assertEquals(1, secondBatch.size());
+        assertTrue(secondBatch.get(0).getTargetId() > firstBatch.get(0).getTargetId());
+        List<RatingSummary> all = ratingSummaryMapper.selectActualSummaries(
+                RatingTargetTypeEnum.PRODUCT, null, null, 10);
+        assertEquals(3, all.stream().mapToInt(RatingSummary::getRatingCount).sum());
+        assertEquals(12L, all.stream().mapToLong(RatingSummary::getRatingSum).sum());
+    }
+
+    /**
+     * 测试overwrite：以对账结果覆盖已有汇总
+     */
+    @Test
+    void overwrite_existingTarget_replacesCounts() {
+        // 1. 准备数据（错误的汇总：两条1星）
+        ratingSummaryMapper.increaseRating(RatingTargetTypeEnum.SELLER, 2L, 1);
+        ratingSummaryMapper.increaseRating(RatingTargetTypeEnum.SELLER, 2L, 1);
+
+        // 2. 执行测试方法（覆盖为实时聚合结果）
+        RatingSummary actual = ratingSummaryMapper.selectActualSummaries(
+                RatingTargetTypeEnum.SELLER, Collections.singletonList(2L), null, 10).get(0);
+        actual.setTargetType(RatingTargetTypeEnum.SELLER);
+        ratingSummaryMapper.overwrite(actual);
+
+        // 3. 验证结果
+        RatingSummary stored = ratingSummaryMapper.selectStoredSummaries(
+                RatingTargetTypeEnum.SELLER, Collections.singletonList(2L), null, 10).get(0);
+        assertEquals(3, stored.getRatingCount());
+        assertEquals(12L, stored.getRatingSum());
+        assertEquals(0, stored.getStar1Count());
+        assertEquals(1, stored.getStar5Count());
+    }
+}
@@ -0,0 +1,139 @@
+package xyz.graygoo401.trade.mapper;
+
+import com.baomidou.mybatisplus.test.autoconfigure.MybatisPlusTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.test.context.ActiveProfiles;
+import xyz.graygoo401.trade.dao.entity.SellerDailyStats;
+import xyz.graygoo401.trade.dao.mapper.SellerDailyStatsMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SellerDailyStatsMapper单元测试
+ * 初始化数据中2024-01-07当日支付的订单只有卖家2的一笔（4599.00元）
+ */
+@MybatisPlusTest  // 仅加载MyBatis相关Bean，轻量化测试
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)  // 禁用默认数据库替换，使用H2配置
+@ActiveProfiles("test")  // 启用test环境配置
+public class SellerDailyStatsMapperTest {
+
+    private static final LocalDate STAT_DATE = LocalDate.of(2030, 6, 1); // 与初始化数据不重叠的日期
+
+    @Autowired
+    private SellerDailyStatsMapper sellerDailyStatsMapper;
+
+    /**
+     * 测试increase：首次累加插入统计，再次累加各指标原子相加
+     */
+    @Test
+    void increase_newDay_insertsThenAccumulates() {
+        // 1. 执行测试方法（一笔支付 + 一笔退款 + 一条4星评价）
+        SellerDailyStats paid = SellerDailyStats.empty(2L, STAT_DATE);
+        paid.setOrderCount(1);
+        paid.setGmv(new BigDecimal("100.50"));
+        sellerDailyStatsMapper.increase(paid);
+        SellerDailyStats refund = SellerDailyStats.empty(2L, STAT_DATE);
+        refund.setRefundCount(1);
+        refund.setRefundAmount(new BigDecimal("100.50"));
+        sellerDailyStatsMapper.increase(refund);
+        SellerDailyStats rating = SellerDailyStats.empty(2L, STAT_DATE);
+        rating.setRatingCount(1);
+        rating.setRatingSum(4L);
+        sellerDailyStatsMapper.increase(rating);
+
+        // 2. 验证结果
+        List<SellerDailyStats> statsList = sellerDailyStatsMapper.selectBySellerAndDateRange(2L, STAT_DATE, STAT_DATE);
+        assertEquals(1, statsList.size());
+        SellerDailyStats stats = statsList.get(0);
+        assertEquals(STAT_DATE, stats.getStatDate());
+        assertEquals(1, stats.getOrderCount());
+        assertEquals(0, new BigDecimal("100.50").compareTo(stats.getGmv()));
+        assertEquals(1, stats.getRefundCount());
+        assertEquals(0, new BigDecimal("100.50").compareTo(stats.getRefundAmount()));
+        assertEquals(1, stats.getRatingCount());
+        assertEquals(4L, stats.getRatingSum());
+
+        // 3. 其他卖家、其他日期互不影响
+        assertTrue(sellerDailyStatsMapper.selectBySellerAndDateRange(3L, STAT_DATE, STAT_DATE).isEmpty());
+        assertTrue(sellerDailyStatsMapper.selectBySellerAndDateRange(2L, STAT_DATE.plusDays(1), STAT_DATE.plusDays(7)).isEmpty());
+    }
+
+    /**
+     * 测试decreaseRating：扣减评价数与评分总和，最低为0；统计不存在时影响行数为0
+     */
+    @Test
+    void decreaseRating_existingDay_floorsAtZero() {
+        // 1. 准备数据（一条3星）
+        SellerDailyStats rating = SellerDailyStats.empty(2L, STAT_DATE);
+        rating.setRatingCount(1);
+        rating.setRatingSum(3L);
+        sellerDailyStatsMapper.increase(rating);
+
+        // 2. 执行测试方法（扣减两次）
+        assertEquals(1, sellerDailyStatsMapper.decreaseRating(2L, STAT_DATE, 3));
+        assertEquals(1, sellerDailyStatsMapper.decreaseRating(2L, STAT_DATE, 3));
+
+        // 3. 验证结果
+        SellerDailyStats stats = sellerDailyStatsMapper.selectBySellerAndDateRange(2L, STAT_DATE, STAT_DATE).get(0);
+        assertEquals(0, stats.getRatingCount());
+        assertEquals(0L, stats.getRatingSum());
+        assertEquals(0, sellerDailyStatsMapper.decreaseRating(2L, STAT_DATE.plusDays(1), 3));
+    }
+
+    /**
+     * 测试selectActualDailyStats：按支付日期聚合初始化订单，未支付订单与其他日期不计入
+     */
+    @Test
+    void selectActualDailyStats_seedOrders_aggregatesByPayDate() {
+        // 1. 执行测试方法（初始化数据中2024-01-07当日支付的订单）
+        LocalDate day = LocalDate.of(2024, 1, 7);
+        List<SellerDailyStats> actualList = sellerDailyStatsMapper.selectActualDailyStats(
+                day.atStartOfDay(), day.plusDays(1).atStartOfDay(), null, null, 100);
+
+        // 2. 验证结果
+        assertEquals(1, actualList.size());
+        SellerDailyStats actual = actualList.get(0);
+        assertEquals(2L, actual.getSellerId());
+        assertEquals(1, actual.getOrderCount());
+        assertEquals(0, new BigDecimal("4599.00").compareTo(actual.getGmv()));
+        assertEquals(0, actual.getRefundCount());
+
+        // 3. 游标越过最后一个卖家、或限定的卖家无数据时返回空
+        assertTrue(sellerDailyStatsMapper.selectActualDailyStats(
+                day.atStartOfDay(), day.plusDays(1).atStartOfDay(), null, 2L, 100).isEmpty());
+        assertTrue(sellerDailyStatsMapper.selectActualDailyStats(
+                day.atStartOfDay(), day.plusDays(1).atStartOfDay(), List.of(3L), null, 100).isEmpty());
+    }
+
+    /**
+     * 测试overwrite：以绝对值覆盖已有统计，不存在时插入
+     */
+    @Test
+    void overwrite_existingAndNewDay_setsAbsoluteValues() {
+        // 1. 准备数据
+        SellerDailyStats paid = SellerDailyStats.empty(2L, STAT_DATE);
+        paid.setOrderCount(5);
+        paid.setGmv(new BigDecimal("500.00"));
+        sellerDailyStatsMapper.increase(paid);
+
+        // 2. 执行测试方法
+        SellerDailyStats stats = SellerDailyStats.empty(2L, STAT_DATE);
+        stats.setOrderCount(2);
+        stats.setGmv(new BigDecimal("30.00"));
+        sellerDailyStatsMapper.overwrite(stats);
+        sellerDailyStatsMapper.overwrite(SellerDailyStats.empty(2L, STAT_DATE.plusDays(1)));
+
+        // 3. 验证结果
+        List<SellerDailyStats> statsList = sellerDailyStatsMapper.selectStoredDailyStats(STAT_DATE, List.of(2L), null, 10);
+        assertEquals(1, statsList.size());
+        assertEquals(2, statsList.get(0).getOrderCount());
+        assertEquals(0, new BigDecimal("30.00").compareTo(statsList.get(0).getGmv()));
+        assertEquals(2, sellerDailyStatsMapper.selectBySellerAndDateRange(2L, STAT_DATE, STAT_DATE.plusDays(1)).size());
+    }
+}
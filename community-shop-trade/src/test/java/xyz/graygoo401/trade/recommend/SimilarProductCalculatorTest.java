@@ -0,0 +1,145 @@
+package xyz.graygoo401.trade.recommend;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SimilarProductCalculator单元测试
+ * 覆盖共同购买排序、非在售商品过滤、类别价格补齐、合成数据下的结果规模，以及10万订单下的离线计算耗时（benchmark分组）
+ */
+@Slf4j
+public class SimilarProductCalculatorTest {
+
+    private static final String[] CATEGORIES = {"二手手机", "数码产品", "图书", "服饰", "家居", "运动户外", "美妆", "母婴"};
+
+    /**
+     * 测试共同购买：共现买家越多、对方越冷门，相似度越高；非在售商品不参与
+     */
+    @Test
+    void build_coPurchase_rankedByCosineSimilarity() {
+        // 1. 准备数据：商品1与2被3个买家共同购买，1与3被1个买家共同购买，4已下架（未登记为在售）
+        SimilarProductCalculator calculator = new SimilarProductCalculator(3);
+        calculator.addProduct(1L, "数码产品", new BigDecimal("100"));
+        calculator.addProduct(2L, "图书", new BigDecimal("20"));
+        calculator.addProduct(3L, "服饰", new BigDecimal("50"));
+        for (long buyerId = 1; buyerId <= 3; buyerId++) {
+            calculator.addPurchase(buyerId, 1L);
+            calculator.addPurchase(buyerId, 2L);
+            calculator.addPurchase(buyerId, 4L);
+        }
+        calculator.addPurchase(4L, 1L);
+        calculator.addPurchase(4L, 3L);
+
+        // 2. 执行测试方法
+        Map<Long, List<Long>> result = calculator.build();
+
+        // 3. 验证结果（不同类别无补齐，下架商品4不出现）
+        assertEquals(List.of(2L, 3L), result.get(1L));
+        assertEquals(List.of(1L), result.get(2L));
+        assertEquals(List.of(1L), result.get(3L));
+        assertFalse(result.containsKey(4L));
+    }
+
+    /**
+     * 测试类别价格补齐：共同购买不足K个时，按同类别价格差由近到远补齐，不重复、不含自身
+     */
+    @Test
+    void build_fewCoPurchases_filledByNearestPriceInCategory() {
+        // 1. 准备数据：同类别5件商品，商品1与5有一次共同购买
+        SimilarProductCalculator calculator = new SimilarProductCalculator(3);
+        calculator.addProduct(1L, "二手手机", new BigDecimal("1000"));
+        calculator.addProduct(2L, "二手手机", new BigDecimal("1100"));
+        calculator.addProduct(3L, "二手手机", new BigDecimal("850"));
+        calculator.addProduct(4L, "二手手机", new BigDecimal("3000"));
+        calculator.addProduct(5L, "二手手机", new BigDecimal("5000"));
+        calculator.addProduct(6L, "图书", new BigDecimal("1000"));
+        calculator.addPurchase(1L, 1L);
+        calculator.addPurchase(1L, 5L);
+
+        // 2. 执行测试方法
+        Map<Long, List<Long>> result = calculator.build();
+
+        // 3. 验证结果（商品1：共同购买5在前，再补价格最近的2（差100）、3（差150））
+        assertEquals(List.of(5L, 2L, 3L), result.get(1L));
+        assertEquals(List.of(1L, 3L, 4L), result.get(2L));
+        assertEquals(List.of(1L, 4L, 2L), result.get(5L));
+        assertFalse(result.containsKey(6L), "类别内仅一件商品时无相似商品");
+    }
+
+    /**
+     * 测试单买家商品上限：仅最近购买的MAX_ITEMS_PER_BUYER件参与共现
+     */
+    @Test
+    void addPurchase_overLimit_evictsEarliest() {
+        SimilarProductCalculator calculator = new SimilarProductCalculator(1);
+        for (long productId = 1; productId <= SimilarProductCalculator.MAX_ITEMS_PER_BUYER + 1; productId++) {
+            calculator.addProduct(productId, "类别" + productId, BigDecimal.TEN);
+            calculator.addPurchase(1L, productId);
+        }
+
+        Map<Long, List<Long>> result = calculator.build();
+
+        assertFalse(result.containsKey(1L), "最早购买的商品应被淘汰");
+        assertEquals(1, result.get(2L).size());
+    }
+
+    /**
+     * 合成数据：2千在售商品、2千买家、1万订单（买家与商品均为长尾分布），校验结果规模
+     */
+    @Test
+    void build_syntheticOrders_everyProductFilled() {
+        Map<Long, List<Long>> result = buildSynthetic(2_000, 2_000, 10_000);
+        assertSimilarFilled(2_000, result);
+    }
+
+    /**
+     * 基准：2万在售商品、2万买家、10万订单，校验离线计算耗时与结果规模（默认构建不执行）
+     * 耗时上限取宽松值（远高于实测），仅用于发现数量级退化
+     */
+    @Test
+    @Tag("benchmark")
+    void build_100k_orders_withinTimeBudget() {
+        long start = System.nanoTime();
+        Map<Long, List<Long>> result = buildSynthetic(20_000, 20_000, 100_000);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("相似商品离线计算完成，订单数：{}，在售商品数：{}，耗时：{}ms", 100_000, 20_000, elapsedMillis);
+
+        assertSimilarFilled(20_000, result);
+        assertTrue(elapsedMillis < 30_000, "10万订单离线计算耗时异常：" + elapsedMillis + "ms");
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 生成长尾分布的合成商品与订单并执行离线计算（每个商品取10个相似商品）
+     */
+    private Map<Long, List<Long>> buildSynthetic(int productCount, int buyerCount, int orderCount) {
+        Random random = new Random(7);
+        SimilarProductCalculator calculator = new SimilarProductCalculator(10);
+        for (long productId = 1; productId <= productCount; productId++) {
+            calculator.addProduct(productId, CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    new BigDecimal(random.nextInt(1_000_000)).movePointLeft(2));
+        }
+        for (int i = 0; i < orderCount; i++) {
+            long buyerId = 1 + (long) (buyerCount * Math.pow(random.nextDouble(), 2));
+            long productId = 1 + (long) (productCount * Math.pow(random.nextDouble(), 3));
+            calculator.addPurchase(buyerId, productId);
+        }
+        return calculator.build();
+    }
+
+    private void assertSimilarFilled(int productCount, Map<Long, List<Long>> result) {
+        assertEquals(productCount, result.size(), "每个在售商品都应有相似商品");
+        result.forEach((productId, similar) -> {
+            assertEquals(10, similar.size());
+            assertFalse(similar.contains(productId));
+            assertEquals(similar.size(), new HashSet<>(similar).size());
+        });
+    }
+}
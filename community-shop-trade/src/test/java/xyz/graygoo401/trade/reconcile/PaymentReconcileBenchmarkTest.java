@@ -0,0 +1,183 @@
+package xyz.graygoo401.trade.reconcile;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import xyz.graygoo401.api.trade.dto.payment.PaymentReconcileResultDTO;
+import xyz.graygoo401.api.trade.enums.OrderStatusEnum;
+import xyz.graygoo401.common.export.CsvStreamWriter;
+import xyz.graygoo401.common.export.ExportColumn;
+import xyz.graygoo401.trade.dao.entity.Order;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 支付对账基准测试（500万行合成数据）
+ * 1. 对账单：500万行按置换打乱顺序写入CSV（约300MB），走外部排序（每顺串20万行）后归并连接
+ * 2. 本地订单：按订单号升序惰性生成（代替数据库游标，避免在内存库中构造500万行订单），逐条交给归并连接
+ * 3. 每千个订单号注入一次各类差异，校验差异计数精确；归并过程中每100万个订单记录一次GC后的堆占用，观察内存不随行数增长
+ * 耗时与内存以日志输出供参考，不对耗时做断言，避免不同机器上结果波动导致测试失败；默认构建不执行（benchmark分组）
+ */
+@Slf4j
+@Tag("benchmark")
+public class PaymentReconcileBenchmarkTest {
+
+    private static final int ROW_COUNT = 5_000_000; // 订单号数量
+    private static final int RUN_SIZE = 200_000; // 外部排序顺串行数
+    private static final long SHUFFLE_STRIDE = 1_000_003L; // 打乱顺序用的步长（与ROW_COUNT互质，i -> i * stride mod N为置换）
+    private static final int HEAP_SAMPLE_EVERY = 1_000_000; // 每多少个订单记录一次堆占用
+    private static final int PER_MILLE = 1000; // 差异注入周期
+
+    // 按 订单号序号 % 1000 注入的场景
+    private static final int MISSING_PLATFORM = 1; // 本地已支付，对账单无记录
+    private static final int MISSING_LOCAL = 2; // 对账单有，本地无订单
+    private static final int AMOUNT_DIFF = 3; // 对账单金额多1元
+    private static final int STATUS_DIFF = 4; // 本地已取消，平台已收款
+    private static final int DUPLICATE = 5; // 对账单重复一行
+    private static final int UNPAID = 6; // 本地待支付且对账单无记录（正常，不计差异）
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void reconcile_fiveMillionRows() throws IOException {
+        // 1. 生成无序对账单
+        Path bill = tempDir.resolve("alipay-bench.csv");
+        long start = System.nanoTime();
+        writeShuffledBill(bill);
+        long generateMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // 2. 外部排序
+        start = System.nanoTime();
+        Path sorted = SettlementFileSorter.sortIfNeeded(bill, tempDir.resolve("work"), RUN_SIZE);
+        long sortMillis = (System.nanoTime() - start) / 1_000_000;
+        assertNotEquals(bill, sorted);
+        Files.delete(bill);
+
+        // 3. 归并连接，差异写入报告
+        List<Long> heapSamples = new ArrayList<>();
+        Path report = tempDir.resolve("report.csv");
+        List<ExportColumn<ReconcileMismatch>> columns = List.of(
+                ExportColumn.of("差异类型", mismatch -> mismatch.getType().getDesc()),
+                ExportColumn.of("订单编号", ReconcileMismatch::getOrderNo));
+        PaymentReconcileResultDTO result;
+        start = System.nanoTime();
+        try (SettlementFileReader reader = new SettlementFileReader(Files.newInputStream(sorted));
+             CsvStreamWriter<ReconcileMismatch> writer = new CsvStreamWriter<>(Files.newOutputStream(report), columns)) {
+            result = new PaymentReconciler(writer::write).reconcile(reader, new SyntheticOrderIterator(heapSamples));
+        }
+        long joinMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // 4. 校验差异计数
+        long perKind = ROW_COUNT / PER_MILLE;
+        assertEquals(ROW_COUNT - perKind, result.getBillRows());
+        assertEquals(ROW_COUNT - perKind, result.getOrderRows());
+        assertEquals(ROW_COUNT - 5 * perKind, result.getMatchedCount());
+        assertEquals(perKind, result.getMissingPlatformCount());
+        assertEquals(perKind, result.getMissingLocalCount());
+        assertEquals(perKind, result.getAmountDiffCount());
+        assertEquals(perKind, result.getStatusDiffCount());
+        assertEquals(perKind, result.getDuplicateCount());
+
+        log.info("支付对账完成（{}行，顺串{}行），生成无序对账单：{}ms，外部排序：{}ms，归并连接：{}ms，处理速度：{}行/秒",
+                ROW_COUNT, RUN_SIZE, generateMillis, sortMillis, joinMillis,
+                result.getBillRows() * 1000 / Math.max(joinMillis, 1));
+        log.info("差异条数：{}，报告大小：{}KB，归并过程中每{}个订单GC后的堆占用（MB）：{}",
+                5 * perKind, Files.size(report) / 1024, HEAP_SAMPLE_EVERY,
+                heapSamples.stream().map(bytes -> String.valueOf(bytes / 1024 / 1024)).toList());
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 按置换顺序写出对账单（不在内存中保存全部行）
+     */
+    private void writeShuffledBill(Path bill) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(bill, StandardCharsets.UTF_8)) {
+            writer.write("#支付宝交易明细查询\n#账号：[20880000000000000156]\n");
+            writer.write("out_trade_no,trade_no,total_amount,trade_status\n");
+            for (long j = 0; j < ROW_COUNT; j++) {
+                int i = (int) (j * SHUFFLE_STRIDE % ROW_COUNT);
+                int kind = i % PER_MILLE;
+                if (kind == MISSING_PLATFORM || kind == UNPAID) {
+                    continue;
+                }
+                BigDecimal amount = kind == AMOUNT_DIFF ? amountOf(i).add(BigDecimal.ONE) : amountOf(i);
+                String line = orderNoOf(i) + ",\t2030010122001" + i + ",\t" + amount.toPlainString() + ",TRADE_SUCCESS\n";
+                writer.write(line);
+                if (kind == DUPLICATE) {
+                    writer.write(line);
+                }
+            }
+        }
+    }
+
+    private static String orderNoOf(int i) {
+        return String.format("ORD%010d", i);
+    }
+
+    private static BigDecimal amountOf(int i) {
+        return BigDecimal.valueOf(100 + i % 99_900, 2);
+    }
+
+    /**
+     * 按订单号升序惰性生成本地订单（模拟数据库游标逐行返回）
+     */
+    private static class SyntheticOrderIterator implements Iterator<Order> {
+
+        private final List<Long> heapSamples;
+        private final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+        private int next = 0;
+        private int returned = 0;
+
+        private SyntheticOrderIterator(List<Long> heapSamples) {
+            this.heapSamples = heapSamples;
+            skipMissing();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < ROW_COUNT;
+        }
+
+        @Override
+        public Order next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int i = next++;
+            skipMissing();
+            int kind = i % PER_MILLE;
+            Order order = new Order();
+            order.setOrderNo(orderNoOf(i));
+            order.setTotalAmount(amountOf(i));
+            order.setStatus(kind == STATUS_DIFF ? OrderStatusEnum.CANCELLED
+                    : kind == UNPAID ? OrderStatusEnum.PENDING_PAYMENT : OrderStatusEnum.COMPLETED);
+            if (++returned % HEAP_SAMPLE_EVERY == 0) {
+                System.gc();
+                heapSamples.add(memoryBean.getHeapMemoryUsage().getUsed());
+            }
+            return order;
+        }
+
+        private void skipMissing() {
+            while (next < ROW_COUNT && next % PER_MILLE == MISSING_LOCAL) {
+                next++;
+            }
+        }
+    }
+}
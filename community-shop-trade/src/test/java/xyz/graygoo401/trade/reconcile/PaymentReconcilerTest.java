@@ -0,0 +1,175 @@
+package xyz.graygoo401.trade.reconcile;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import xyz.graygoo401.api.trade.dto.payment.PaymentReconcileResultDTO;
+import xyz.graygoo401.api.trade.enums.OrderStatusEnum;
+import xyz.graygoo401.trade.dao.entity.Order;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 支付对账单元测试
+ * 覆盖归并连接（单边、金额/状态差异、重复、未支付订单不计差异、倒序失败）、对账单读取与外部排序（多顺串归并、稳定性、已有序直接返回）
+ */
+public class PaymentReconcilerTest {
+
+    private static final String HEADER = "out_trade_no,trade_no,total_amount,trade_status";
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * 归并连接：每类差异各命中一次，一致订单与未支付且无账单记录的订单不输出差异
+     */
+    @Test
+    void reconcile_allMismatchTypes_emittedOnce() throws IOException {
+        String bill = HEADER + "\n"
+                + "ORD001,T001,100.00,TRADE_SUCCESS\n"     // 一致（金额小数位不同也视为相等）
+                + "ORD002,T002,50.00,TRADE_SUCCESS\n"      // 本地缺失
+                + "ORD003,T003,99.00,TRADE_SUCCESS\n"      // 金额不一致
+                + "ORD004,T004,30.00,TRADE_SUCCESS\n"      // 状态不一致：本地已取消
+                + "ORD005,T005,20.00,TRADE_CLOSED\n"       // 一致：本地已退款
+                + "ORD005,T005,20.00,TRADE_CLOSED\n";      // 重复
+        List<Order> orders = List.of(
+                buildOrder("ORD001", "100", OrderStatusEnum.COMPLETED),
+                buildOrder("ORD003", "100.00", OrderStatusEnum.SHIPPED),
+                buildOrder("ORD004", "30.00", OrderStatusEnum.CANCELLED),
+                buildOrder("ORD005", "20.00", OrderStatusEnum.REFUNDED),
+                buildOrder("ORD006", "10.00", OrderStatusEnum.PENDING_SHIPMENT),  // 平台缺失
+                buildOrder("ORD007", "10.00", OrderStatusEnum.PENDING_PAYMENT));  // 未支付，无账单记录属正常
+
+        List<ReconcileMismatch> mismatches = new ArrayList<>();
+        PaymentReconcileResultDTO result = new PaymentReconciler(mismatches::add)
+                .reconcile(reader(bill), orders.iterator());
+
+        assertEquals(6, result.getBillRows());
+        assertEquals(6, result.getOrderRows());
+        assertEquals(2, result.getMatchedCount());
+        assertEquals(1, result.getMissingLocalCount());
+        assertEquals(1, result.getMissingPlatformCount());
+        assertEquals(1, result.getAmountDiffCount());
+        assertEquals(1, result.getStatusDiffCount());
+        assertEquals(1, result.getDuplicateCount());
+        assertEquals(List.of("ORD002", "ORD003", "ORD004", "ORD005", "ORD006"),
+                mismatches.stream().map(ReconcileMismatch::getOrderNo).toList());
+
+        ReconcileMismatch amountDiff = mismatches.get(1);
+        assertEquals(ReconcileMismatchTypeEnum.AMOUNT_DIFF, amountDiff.getType());
+        assertEquals("T003", amountDiff.getTradeNo());
+        assertEquals(new BigDecimal("100.00"), amountDiff.getLocalAmount());
+        assertEquals(new BigDecimal("99.00"), amountDiff.getPlatformAmount());
+        ReconcileMismatch missingPlatform = mismatches.get(4);
+        assertEquals(ReconcileMismatchTypeEnum.MISSING_PLATFORM, missingPlatform.getType());
+        assertNull(missingPlatform.getPlatformAmount());
+        assertEquals(OrderStatusEnum.PENDING_SHIPMENT, missingPlatform.getLocalStatus());
+    }
+
+    /**
+     * 状态映射：平台已收款对应本地已支付类状态，关闭对应已取消/已退款，等待付款对应待支付/已取消
+     */
+    @Test
+    void statusConsistent_mapsPlatformToLocal() {
+        assertTrue(PaymentReconciler.statusConsistent(OrderStatusEnum.REFUNDING, "TRADE_FINISHED"));
+        assertFalse(PaymentReconciler.statusConsistent(OrderStatusEnum.REFUNDED, "TRADE_SUCCESS"));
+        assertTrue(PaymentReconciler.statusConsistent(OrderStatusEnum.CANCELLED, "TRADE_CLOSED"));
+        assertFalse(PaymentReconciler.statusConsistent(OrderStatusEnum.COMPLETED, "TRADE_CLOSED"));
+        assertTrue(PaymentReconciler.statusConsistent(OrderStatusEnum.PENDING_PAYMENT, "WAIT_BUYER_PAY"));
+        assertFalse(PaymentReconciler.statusConsistent(OrderStatusEnum.COMPLETED, "UNKNOWN"));
+    }
+
+    /**
+     * 倒序输入：对账单或本地订单未按订单号升序时立即失败
+     */
+    @Test
+    void reconcile_unsortedInput_fails() {
+        String unsortedBill = HEADER + "\nORD002,,1.00,TRADE_SUCCESS\nORD001,,1.00,TRADE_SUCCESS\n";
+        assertThrows(IllegalStateException.class, () ->
+                new PaymentReconciler(mismatch -> { }).reconcile(reader(unsortedBill), List.<Order>of().iterator()));
+
+        List<Order> unsortedOrders = List.of(buildOrder("ORD002", "1", OrderStatusEnum.COMPLETED),
+                buildOrder("ORD001", "1", OrderStatusEnum.COMPLETED));
+        assertThrows(IllegalStateException.class, () ->
+                new PaymentReconciler(mismatch -> { }).reconcile(reader(HEADER + "\n"), unsortedOrders.iterator()));
+    }
+
+    /**
+     * 读取器：跳过BOM与说明行，按列名定位并去除制表符；缺少必需列或金额错误时报告行号
+     */
+    @Test
+    void reader_commentsAndTabs_parsedByHeaderName() throws IOException {
+        String bill = "\uFEFF#支付宝交易明细\n#账号：[20880000000000000156]\n"
+                + "trade_status,total_amount,out_trade_no,trade_no\n"
+                + "TRADE_SUCCESS,\t12.50,ORD001 ,\t2024010722001\n"
+                + "\n"
+                + "TRADE_SUCCESS,abc,ORD002,\n";
+
+        try (SettlementFileReader reader = reader(bill)) {
+            SettlementRecord first = reader.next();
+            assertEquals(1, first.getRowNumber());
+            assertEquals("ORD001", first.getOrderNo());
+            assertEquals("2024010722001", first.getTradeNo());
+            assertEquals(new BigDecimal("12.50"), first.getAmount());
+            IOException exception = assertThrows(IOException.class, reader::next);
+            assertTrue(exception.getMessage().contains("第2行"));
+        }
+        IOException missingColumn = assertThrows(IOException.class, () -> reader("out_trade_no,trade_status\n"));
+        assertTrue(missingColumn.getMessage().contains("total_amount"));
+    }
+
+    /**
+     * 外部排序：多个顺串归并后整体有序，相同订单号保持原有先后，说明行不保留；已有序文件直接返回原路径
+     */
+    @Test
+    void sorter_multipleRuns_mergedStably() throws IOException {
+        Path input = tempDir.resolve("bill.csv");
+        Files.writeString(input, "#说明行\n" + HEADER + "\n"
+                + "ORD005,A,5,TRADE_SUCCESS\n"
+                + "ORD003,,3,TRADE_SUCCESS\n"
+                + "ORD001,,1,TRADE_SUCCESS\n"
+                + "ORD005,B,5,TRADE_SUCCESS\n"
+                + "ORD004,,4,TRADE_SUCCESS\n"
+                + "ORD002,,2,TRADE_SUCCESS\n"
+                + "ORD005,C,5,TRADE_SUCCESS\n", StandardCharsets.UTF_8);
+        assertFalse(SettlementFileSorter.isSorted(input));
+
+        Path sorted = SettlementFileSorter.sortIfNeeded(input, tempDir.resolve("work"), 2);
+
+        assertNotEquals(input, sorted);
+        assertEquals(List.of(HEADER,
+                "ORD001,,1,TRADE_SUCCESS",
+                "ORD002,,2,TRADE_SUCCESS",
+                "ORD003,,3,TRADE_SUCCESS",
+                "ORD004,,4,TRADE_SUCCESS",
+                "ORD005,A,5,TRADE_SUCCESS",
+                "ORD005,B,5,TRADE_SUCCESS",
+                "ORD005,C,5,TRADE_SUCCESS"), Files.readAllLines(sorted, StandardCharsets.UTF_8));
+        try (var files = Files.list(tempDir.resolve("work"))) {
+            assertEquals(List.of(sorted), files.toList(), "顺串临时文件应在归并后删除");
+        }
+        assertEquals(sorted, SettlementFileSorter.sortIfNeeded(sorted, tempDir.resolve("work"), 2));
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    private SettlementFileReader reader(String content) throws IOException {
+        return new SettlementFileReader(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Order buildOrder(String orderNo, String amount, OrderStatusEnum status) {
+        Order order = new Order();
+        order.setOrderNo(orderNo);
+        order.setTotalAmount(new BigDecimal(amount));
+        order.setStatus(status);
+        return order;
+    }
+}
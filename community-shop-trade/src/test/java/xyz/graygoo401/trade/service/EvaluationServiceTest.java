@@ -16,6 +16,7 @@ import xyz.graygoo401.api.trade.dto.evaluation.*;
 import xyz.graygoo401.api.trade.enums.EvaluationSortFieldEnum;
 import xyz.graygoo401.api.trade.enums.EvaluationStatusEnum;
 import xyz.graygoo401.api.trade.enums.OrderStatusEnum;
+import xyz.graygoo401.api.trade.enums.RatingTargetTypeEnum;
 import xyz.graygoo401.api.user.dto.user.UserDTO;
 import xyz.graygoo401.api.user.util.UserUtil;
 import xyz.graygoo401.common.dto.PageResult;
@@ -27,11 +28,14 @@ import xyz.graygoo401.trade.convert.EvaluationConvert;
 import xyz.graygoo401.trade.dao.entity.Evaluation;
 import xyz.graygoo401.trade.dao.entity.Order;
 import xyz.graygoo401.trade.dao.entity.Product;
+import xyz.graygoo401.trade.dao.entity.RatingSummary;
 import xyz.graygoo401.trade.dao.mapper.EvaluationMapper;
 import xyz.graygoo401.trade.exception.error.EvaluationErrorCode;
 import xyz.graygoo401.trade.exception.error.OrderErrorCode;
 import xyz.graygoo401.trade.service.base.OrderService;
 import xyz.graygoo401.trade.service.base.ProductService;
+import xyz.graygoo401.trade.service.base.RatingSummaryService;
+import xyz.graygoo401.trade.service.base.SellerDailyStatsService;
 import xyz.graygoo401.trade.service.impl.EvaluationServiceImpl;
 
 import java.lang.reflect.Field;
@@ -64,6 +68,10 @@ public class EvaluationServiceTest {
     private EvaluationConvert evaluationConvert;
     @Mock
     private ValueOperations<String, Object> valueOperations;
+    @Mock
+    private RatingSummaryService ratingSummaryService;
+    @Mock
+    private SellerDailyStatsService sellerDailyStatsService;
 
     // 注入测试目标服务
     @InjectMocks
@@ -306,6 +314,8 @@ public class EvaluationServiceTest {
         assertEquals(testCreateDTO.getContent(), result.getContent());
         assertEquals(EvaluationStatusEnum.NORMAL, result.getStatus());
         assertEquals("testBuyer", result.getEvaluator().getUsername());
+        assertEquals(2L, evaluationCaptor.getValue().getEvaluateeId()); // 卖家ID冗余自订单
+        assertEquals(2001L, evaluationCaptor.getValue().getProductId()); // 商品ID冗余自订单
 
         // 4. 验证依赖调用
         verify(userService, times(1)).getUserById(1L); // 校验买家存在
@@ -313,7 +323,7 @@ public class EvaluationServiceTest {
         verify(evaluationMapper, times(1)).selectByOrderId(1001L); // 校验未重复评价
         verify(evaluationMapper, times(1)).insert(any(Evaluation.class)); // 插入评价
         verify(evaluationMapper, times(0)).selectById(3001L); // 查询插入后的评价
-        verify(redisTemplate, times(1)).delete(anyString()); // 清除卖家评分缓存+商品评分缓存
+        verify(ratingSummaryService, times(1)).addRating(2L, 2001L, 5); // 计入卖家与商品评分汇总
     }
 
     /**
@@ -400,7 +410,31 @@ public class EvaluationServiceTest {
         // 5. 验证依赖调用
         verify(evaluationMapper, times(1)).selectById(3001L); // 两次查询（原评价+更新后评价）
         verify(evaluationMapper, times(1)).updateById(any(Evaluation.class)); // 执行更新
-        verify(redisTemplate, times(0)).delete(anyString()); // 清除卖家评分缓存+商品评分缓存
+        verify(redisTemplate, times(0)).delete(anyString()); // 缓存由评分汇总服务在事务提交后清除
+        verify(ratingSummaryService, never()).removeRating(anyLong(), anyLong(), anyInt()); // 评分未变化，不调整汇总
+    }
+
+    /**
+     * 测试4-1：更新评价 - 评分变更场景（5星→4星）
+     * 校验点：评分汇总移除旧评分、计入新评分
+     */
+    @Test
+    void testUpdateEvaluationContent_ScoreChanged_AdjustsSummary() {
+        // 1. 模拟依赖行为（原评价5星，更新为4星）
+        when(evaluationMapper.selectById(3001L)).thenReturn(testEvaluation);
+        when(evaluationMapper.updateById(any(Evaluation.class))).thenReturn(1);
+        when(orderService.getById(1001L)).thenReturn(testOrder); // 获取关联商品
+
+        // 2. 执行测试方法
+        Boolean result = evaluationService.updateEvaluationContent(1L, testUpdateDTO);
+
+        // 3. 验证结果
+        assertTrue(result);
+        assertEquals(4, testEvaluation.getScore());
+
+        // 4. 验证依赖调用
+        verify(ratingSummaryService, times(1)).removeRating(2L, 2001L, 5); // 移除旧评分
+        verify(ratingSummaryService, times(1)).addRating(2L, 2001L, 4); // 计入新评分
     }
 
     /**
@@ -435,6 +469,7 @@ public class EvaluationServiceTest {
         when(evaluationMapper.selectById(3001L)).thenReturn(testEvaluation); // 评价存在
         when(userService.getUserById(999L)).thenReturn(testAdmin); // 管理员用户
         when(evaluationMapper.deleteById(3001L)).thenReturn(1); // 删除成功
+        when(orderService.getById(1001L)).thenReturn(testOrder); // 获取关联商品
 
         // 2. 执行测试方法（管理员ID=999，评价ID=3001）
         Boolean result = evaluationService.deleteEvaluationById(3001L, 999L);
@@ -446,7 +481,8 @@ public class EvaluationServiceTest {
         verify(evaluationMapper, times(1)).selectById(3001L); // 查询评价
         verify(userService, times(1)).getUserById(999L); // 校验管理员身份
         verify(evaluationMapper, times(1)).deleteById(3001L); // 执行删除
-        verify(redisTemplate, times(0)).delete(anyString()); // 清除卖家评分缓存+商品评分缓存
+        verify(redisTemplate, times(0)).delete(anyString()); // 缓存由评分汇总服务在事务提交后清除
+        verify(ratingSummaryService, times(1)).removeRating(2L, 2001L, 5); // 从评分汇总中移除
     }
 
     /**
@@ -496,29 +532,27 @@ public class EvaluationServiceTest {
      */
     @Test
     void testCalculateSellerScore_Success() {
-        // 1. 模拟依赖行为（卖家2的评分统计）
-        when(evaluationMapper.selectSellerAverageScore(2L)).thenReturn(4.5); // 平均评分4.5
-        when(evaluationMapper.countSellerScoreLevel(2L, 5, 5)).thenReturn(10); // 五星10条
-        when(evaluationMapper.countSellerScoreLevel(2L, 4, 4)).thenReturn(5);  // 四星5条
-        when(evaluationMapper.countSellerScoreLevel(2L, 3, 3)).thenReturn(3);  // 三星3条
-        when(evaluationMapper.countSellerScoreLevel(2L, 2, 2)).thenReturn(1);  // 二星1条
-        when(evaluationMapper.countSellerScoreLevel(2L, 1, 1)).thenReturn(1);  // 一星1条
+        // 1. 模拟依赖行为（卖家2的评分汇总：五星10、四星5、三星3、二星1、一星1）
+        when(ratingSummaryService.getSummary(RatingTargetTypeEnum.SELLER, 2L))
+                .thenReturn(buildSummary(RatingTargetTypeEnum.SELLER, 2L, 1, 1, 3, 5, 10));
 
         // 2. 执行测试方法（卖家ID=2）
         SellerScoreDTO result = evaluationService.calculateSellerScore(2L);
 
-        // 3. 验证结果（总评价数=10+5+3+1+1=20；好评率=(10+5)/20=75%）
+        // 3. 验证结果（总评价数=10+5+3+1+1=20；平均评分=82/20=4.1；好评率=(10+5)/20=75%）
         assertNotNull(result);
         assertEquals(2L, result.getSellerId());
-        assertEquals(4.5, result.getAverageScore());
+        assertEquals(4.1, result.getAverageScore());
         assertEquals(20, result.getTotalCount());
         assertEquals(75.0, result.getPositiveRate()); // 好评率75%
+        assertEquals(10.0, result.getNegativeRate()); // 差评率10%
         assertEquals(10, result.getFiveStarCount());
         assertEquals(1, result.getOneStarCount());
 
-        // 4. 验证依赖调用
-        verify(evaluationMapper, times(1)).selectSellerAverageScore(2L); // 平均评分
-        verify(evaluationMapper, times(5)).countSellerScoreLevel(anyLong(), anyInt(), anyInt()); // 各星级数量
+        // 4. 验证依赖调用（只读汇总，不再实时聚合evaluation表）
+        verify(ratingSummaryService, times(1)).getSummary(RatingTargetTypeEnum.SELLER, 2L);
+        verify(evaluationMapper, never()).selectSellerAverageScore(anyLong());
+        verify(evaluationMapper, never()).countSellerScoreLevel(anyLong(), anyInt(), anyInt());
     }
 
     /**
@@ -527,29 +561,41 @@ public class EvaluationServiceTest {
      */
     @Test
     void testCalculateProductScore_Success() {
-        // 1. 模拟依赖行为（商品2001的评分统计）
-        when(evaluationMapper.selectProductAverageScore(2001L)).thenReturn(4.5); // 平均评分4.5
-        when(evaluationMapper.countProductScoreLevel(2001L, 5, 5)).thenReturn(9);  // 五星9条
-        when(evaluationMapper.countProductScoreLevel(2001L, 4, 4)).thenReturn(6);  // 四星6条
-        when(evaluationMapper.countProductScoreLevel(2001L, 3, 3)).thenReturn(3);  // 三星3条
-        when(evaluationMapper.countProductScoreLevel(2001L, 2, 2)).thenReturn(1);  // 二星1条
-        when(evaluationMapper.countProductScoreLevel(2001L, 1, 1)).thenReturn(1);  // 一星1条
+        // 1. 模拟依赖行为（商品2001的评分汇总：五星9、四星6、三星3、二星1、一星1）
+        when(ratingSummaryService.getSummary(RatingTargetTypeEnum.PRODUCT, 2001L))
+                .thenReturn(buildSummary(RatingTargetTypeEnum.PRODUCT, 2001L, 1, 1, 3, 6, 9));
 
         // 2. 执行测试方法（商品ID=2001）
         ProductScoreDTO result = evaluationService.calculateProductScore(2001L);
 
-        // 3. 验证结果（总评价数=8+6+2+1+1=18；好评率=(8+6)/18≈77.8%）
+        // 3. 验证结果（总评价数=9+6+3+1+1=20；平均评分=81/20≈4.1；好评率=(9+6)/20=75%）
         assertNotNull(result);
         assertEquals(2001L, result.getProductId());
-        assertEquals(4.5, result.getAverageScore(), 0.1);
+        assertEquals(4.1, result.getAverageScore(), 0.01);
         assertEquals(20, result.getTotalCount());
         assertEquals(75, result.getPositiveRate(), 0.1); // 好评率≈75.0%
         assertEquals(9, result.getFiveStarCount());
         assertEquals(1, result.getOneStarCount());
 
-        // 4. 验证依赖调用
-        verify(evaluationMapper, times(1)).selectProductAverageScore(2001L); // 平均评分
-        verify(evaluationMapper, times(5)).countProductScoreLevel(anyLong(), anyInt(), anyInt()); // 各星级数量
+        // 4. 验证依赖调用（只读汇总，不再关联order表聚合）
+        verify(ratingSummaryService, times(1)).getSummary(RatingTargetTypeEnum.PRODUCT, 2001L);
+        verify(evaluationMapper, never()).selectProductAverageScore(anyLong());
+        verify(evaluationMapper, never()).countProductScoreLevel(anyLong(), anyInt(), anyInt());
+    }
 
+    /**
+     * 构建评分汇总（按1-5星数量计算评价数与评分总和）
+     */
+    private RatingSummary buildSummary(RatingTargetTypeEnum targetType, Long targetId,
+                                       int star1, int star2, int star3, int star4, int star5) {
+        RatingSummary summary = RatingSummary.empty(targetType, targetId);
+        summary.setStar1Count(star1);
+        summary.setStar2Count(star2);
+        summary.setStar3Count(star3);
+        summary.setStar4Count(star4);
+        summary.setStar5Count(star5);
+        summary.setRatingCount(star1 + star2 + star3 + star4 + star5);
+        summary.setRatingSum((long) (star1 + star2 * 2 + star3 * 3 + star4 * 4 + star5 * 5));
+        return summary;
     }
 }
\ No newline at end of file
@@ -1,48 +1,68 @@
 package xyz.graygoo401.trade.service;
 
+import org.apache.ibatis.cursor.Cursor;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import xyz.graygoo401.api.common.dto.mq.OrderCheckoutEventDTO;
+import xyz.graygoo401.api.trade.dto.cart.CartItemAddDTO;
 import xyz.graygoo401.api.trade.dto.order.*;
-import xyz.graygoo401.api.trade.dto.product.ProductStockUpdateDTO;
 import xyz.graygoo401.api.trade.enums.OrderStatusEnum;
 import xyz.graygoo401.api.trade.enums.PayTypeEnum;
 import xyz.graygoo401.api.trade.enums.ProductStatusEnum;
 import xyz.graygoo401.api.user.dto.user.UserDTO;
 import xyz.graygoo401.api.user.util.UserUtil;
-import xyz.graygoo401.common.dto.PageResult;
+import xyz.graygoo401.common.dto.CursorPageResult;
 import xyz.graygoo401.common.enums.UserRoleEnum;
 import xyz.graygoo401.common.exception.BusinessException;
 import xyz.graygoo401.common.exception.error.SystemErrorCode;
+import xyz.graygoo401.common.util.CursorUtil;
 import xyz.graygoo401.common.util.SignUtil;
 import xyz.graygoo401.trade.convert.OrderConvert;
 import xyz.graygoo401.trade.convert.ProductConvert;
 import xyz.graygoo401.trade.dao.entity.Order;
+import xyz.graygoo401.trade.dao.entity.OrderView;
 import xyz.graygoo401.trade.dao.entity.Product;
 import xyz.graygoo401.trade.dao.mapper.OrderMapper;
+import xyz.graygoo401.trade.dao.mapper.OrderViewMapper;
+import xyz.graygoo401.trade.dao.mapper.ProductMapper;
 import xyz.graygoo401.trade.exception.error.OrderErrorCode;
+import xyz.graygoo401.trade.exception.error.PaymentErrorCode;
 import xyz.graygoo401.trade.exception.error.ProductErrorCode;
+import xyz.graygoo401.trade.service.base.CartService;
 import xyz.graygoo401.trade.service.base.OrderService;
+import xyz.graygoo401.trade.service.base.PayCallbackService;
 import xyz.graygoo401.trade.service.base.ProductService;
+import xyz.graygoo401.trade.service.base.SellerDailyStatsService;
 import xyz.graygoo401.trade.service.impl.OrderServiceImpl;
+import xyz.graygoo401.trade.statemachine.OrderStateMachine;
 
 import java.lang.reflect.Field;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -56,6 +76,8 @@ public class OrderServiceTest {
     @Mock
     private OrderMapper orderMapper;
     @Mock
+    private OrderViewMapper orderViewMapper;
+    @Mock
     private UserUtil userUtil;
     @Mock
     private ProductService productService;
@@ -69,6 +91,19 @@ public class OrderServiceTest {
     private ValueOperations<String, Object> valueOperations;
     @Mock
     private SignUtil signUtil;
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+    @Mock
+    private CartService cartService;
+    @Mock
+    private PayCallbackService payCallbackService;
+    @Mock
+    private ProductMapper productMapper;
+    @Mock
+    private SellerDailyStatsService sellerDailyStatsService;
+    // 使用真实状态机（依赖注入为上方的模拟组件），校验流转表与条件更新
+    @Spy
+    private OrderStateMachine orderStateMachine = new OrderStateMachine();
 
     // 注入测试目标服务
     @InjectMocks
@@ -92,6 +127,8 @@ public class OrderServiceTest {
 
     @BeforeEach
     void setUp() {
+        // 模拟@Transactional方法内执行（状态机要求调用方事务；未初始化事务同步，提交后任务立即执行）
+        TransactionSynchronizationManager.setActualTransactionActive(true);
         // 初始化测试用户数据
         initTestUsers();
         // 初始化测试商品数据
@@ -102,12 +139,19 @@ public class OrderServiceTest {
         initTestDTOs();
         // 注入MyBatis-Plus父类baseMapper
         injectBaseMapper();
+        // 注入状态机依赖
+        injectStateMachine();
         // 模拟Redis依赖行为
         mockRedisBehavior();
         // 模拟convert依赖行为
         mockConvertBehavior();
     }
 
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
     /**
      * 初始化测试用户数据
      */
@@ -230,6 +274,17 @@ public class OrderServiceTest {
         }
     }
 
+    /**
+     * 注入OrderStateMachine依赖（与OrderService共用模拟的Mapper、Redis与MQ）
+     */
+    private void injectStateMachine() {
+        ReflectionTestUtils.setField(orderStateMachine, "orderMapper", orderMapper);
+        ReflectionTestUtils.setField(orderStateMachine, "productMapper", productMapper);
+        ReflectionTestUtils.setField(orderStateMachine, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(orderStateMachine, "rabbitTemplate", rabbitTemplate);
+        ReflectionTestUtils.setField(orderStateMachine, "sellerDailyStatsService", sellerDailyStatsService);
+    }
+
     /**
      * 模拟Redis相关行为
      */
@@ -301,7 +356,7 @@ public class OrderServiceTest {
 
         // 金额一致性校验（实际金额=商品单价×数量）
         BigDecimal actualAmount = testProduct.getPrice().multiply(BigDecimal.valueOf(testCreateDTO.getQuantity()));
-        when(productService.updateStock(eq(3L), any(ProductStockUpdateDTO.class))).thenReturn(1);
+        when(productService.reserveStockBatch(anyList())).thenReturn(1);
         when(orderMapper.insert(any(Order.class))).thenReturn(1);
 
         // 订单详情DTO转换与缓存
@@ -323,7 +378,7 @@ public class OrderServiceTest {
         // 4. 验证依赖调用
         verify(userUtil, times(2)).getUserById(2L);
         verify(productService, times(2)).getById(1001L);
-        verify(productService, times(1)).updateStock(eq(3L), any(ProductStockUpdateDTO.class));
+        verify(productService, times(1)).reserveStockBatch(List.of(new CartItemAddDTO(1001L, testCreateDTO.getQuantity())));
         verify(orderMapper, times(1)).insert(any(Order.class));
         verify(redisTemplate, times(1)).opsForValue();
         verify(valueOperations, times(1)).set(anyString(), any(), anyLong(), any(TimeUnit.class));
@@ -347,7 +402,7 @@ public class OrderServiceTest {
         // 3. 验证结果
         assertEquals(SystemErrorCode.PERMISSION_DENIED, exception.getErrorCode());
         verify(orderMapper, never()).insert(any(Order.class));
-        verify(productService, never()).updateStock(anyLong(), any(ProductStockUpdateDTO.class));
+        verify(productService, never()).reserveStockBatch(anyList());
     }
 
     /**
@@ -374,6 +429,91 @@ public class OrderServiceTest {
         verify(orderMapper, never()).insert(any(Order.class));
     }
 
+    /**
+     * 测试购物车结算功能 - 成功场景（重复商品合并、按卖家拆分子订单、一次预占库存、一条聚合事件）
+     */
+    @Test
+    void testCheckout_Success_SplitBySeller() {
+        // 1. 准备数据（商品1001属于卖家3，商品1002属于卖家5；商品1001重复提交）
+        Product anotherProduct = new Product();
+        BeanUtils.copyProperties(testProduct, anotherProduct);
+        anotherProduct.setProductId(1002L);
+        anotherProduct.setSellerId(5L);
+        anotherProduct.setPrice(BigDecimal.valueOf(50.0));
+
+        OrderCheckoutDTO checkoutDTO = new OrderCheckoutDTO();
+        checkoutDTO.setItems(List.of(
+                new CartItemAddDTO(1001L, 1),
+                new CartItemAddDTO(1002L, 2),
+                new CartItemAddDTO(1001L, 1)
+        ));
+        checkoutDTO.setTotalAmount(new BigDecimal("4098.00")); // 1999×2 + 50×2
+        checkoutDTO.setAddress("北京市海淀区");
+        checkoutDTO.setPayType(PayTypeEnum.ALIPAY);
+
+        // 2. 模拟依赖行为
+        when(userUtil.getUserById(2L)).thenReturn(testBuyerUser);
+        when(productService.getByIds(anyList())).thenReturn(List.of(testProduct, anotherProduct));
+        when(productService.reserveStockBatch(anyList())).thenReturn(2);
+        AtomicLong idGenerator = new AtomicLong(3000L);
+        when(orderMapper.insertBatch(anyList())).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            orders.forEach(order -> order.setOrderId(idGenerator.incrementAndGet()));
+            return orders.size();
+        });
+
+        // 3. 执行测试方法
+        OrderCheckoutResultDTO result = orderService.checkout(2L, checkoutDTO);
+
+        // 4. 验证结果
+        assertTrue(result.getCheckoutNo().startsWith("CK"));
+        assertEquals(0, new BigDecimal("4098.00").compareTo(result.getTotalAmount()));
+        assertEquals(2, result.getSubOrders().size(), "应按卖家拆分为2个子订单");
+        assertEquals(3L, result.getSubOrders().get(0).getSellerId());
+        assertEquals(List.of(3001L), result.getSubOrders().get(0).getOrderIds());
+        assertEquals(5L, result.getSubOrders().get(1).getSellerId());
+
+        // 5. 验证依赖调用（库存预占、批量插入、事件发送均只执行一次）
+        ArgumentCaptor<List<CartItemAddDTO>> itemsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(productService, times(1)).reserveStockBatch(itemsCaptor.capture());
+        assertEquals(2, itemsCaptor.getValue().size(), "重复商品应合并");
+        assertEquals(2, itemsCaptor.getValue().get(0).getQuantity(), "重复商品数量应累加");
+        verify(orderMapper, times(1)).insertBatch(anyList());
+        verify(orderMapper, never()).insert(any(Order.class));
+        verify(rabbitTemplate, times(1)).convertAndSend(eq("order.topic"), eq("checkout.created.v1"), any(OrderCheckoutEventDTO.class));
+        verify(cartService, times(1)).removeItems(2L, List.of(1001L, 1002L));
+    }
+
+    /**
+     * 测试购物车结算功能 - 失败场景（批量预占库存失败，不插入订单、不发送事件）
+     */
+    @Test
+    void testCheckout_StockInsufficient() {
+        // 1. 准备数据
+        OrderCheckoutDTO checkoutDTO = new OrderCheckoutDTO();
+        checkoutDTO.setItems(List.of(new CartItemAddDTO(1001L, 2)));
+        checkoutDTO.setTotalAmount(new BigDecimal("3998.00"));
+        checkoutDTO.setAddress("北京市海淀区");
+        checkoutDTO.setPayType(PayTypeEnum.ALIPAY);
+
+        // 2. 模拟依赖行为
+        when(userUtil.getUserById(2L)).thenReturn(testBuyerUser);
+        when(productService.getByIds(anyList())).thenReturn(List.of(testProduct));
+        when(productService.reserveStockBatch(anyList()))
+                .thenThrow(new BusinessException(ProductErrorCode.PRODUCT_STOCK_INSUFFICIENT));
+
+        // 3. 执行测试并验证异常
+        BusinessException exception = assertThrows(BusinessException.class, () -> {
+            orderService.checkout(2L, checkoutDTO);
+        });
+
+        // 4. 验证结果
+        assertEquals(ProductErrorCode.PRODUCT_STOCK_INSUFFICIENT, exception.getErrorCode());
+        verify(orderMapper, never()).insertBatch(anyList());
+        verify(rabbitTemplate, never()).convertAndSend(anyString(), anyString(), any(Object.class));
+        verify(cartService, never()).removeItems(anyLong(), anyList());
+    }
+
     /**
      * 测试取消订单功能 - 成功场景（买家取消待支付订单）
      */
@@ -384,16 +524,10 @@ public class OrderServiceTest {
         when(orderMapper.selectById(2001L)).thenReturn(testOrder);
         when(userUtil.getUserById(2L)).thenReturn(testBuyerUser);
 
-        // 恢复库存
-        when(productService.getById(1001L)).thenReturn(testProduct);
-        when(productService.updateStock(eq(3L), any(ProductStockUpdateDTO.class))).thenReturn(1);
-
-        // 更新订单状态
-        Order cancelledOrder = new Order();
-        BeanUtils.copyProperties(testOrder, cancelledOrder);
-        cancelledOrder.setStatus(OrderStatusEnum.CANCELLED);
-        cancelledOrder.setCancelTime(LocalDateTime.now());
-        when(orderMapper.updateById(any(Order.class))).thenReturn(1);
+        // 条件更新订单状态与恢复库存
+        when(orderMapper.compareAndSetStatus(eq(2001L), eq(OrderStatusEnum.PENDING_PAYMENT), eq(OrderStatusEnum.CANCELLED),
+                eq("cancel_time"), any(LocalDateTime.class))).thenReturn(1);
+        when(productMapper.increaseStock(1001L, testOrder.getQuantity())).thenReturn(1);
 
         // 2. 执行测试方法
         Boolean result = orderService.cancelOrder(2L, 2001L);
@@ -404,10 +538,12 @@ public class OrderServiceTest {
         // 4. 验证依赖调用
         verify(orderMapper, times(1)).selectById(2001L);
         verify(userUtil, times(1)).getUserById(2L);
-        verify(productService, times(1)).getById(1001L);
-        verify(productService, times(1)).updateStock(eq(3L), any(ProductStockUpdateDTO.class));
-        verify(orderMapper, times(1)).updateById(any(Order.class));
-        verify(redisTemplate, times(3)).delete(anyString()); // 清除订单详情+买家+卖家列表缓存
+        verify(orderMapper, times(1)).compareAndSetStatus(eq(2001L), eq(OrderStatusEnum.PENDING_PAYMENT),
+                eq(OrderStatusEnum.CANCELLED), eq("cancel_time"), any(LocalDateTime.class));
+        verify(productMapper, times(1)).increaseStock(1001L, testOrder.getQuantity());
+        verify(orderMapper, never()).updateById(any(Order.class));
+        verify(redisTemplate, times(4)).delete(anyString()); // 清除订单详情+买家+卖家列表缓存+商品详情缓存
+        verify(rabbitTemplate, times(1)).convertAndSend(eq("order.topic"), eq("order.cancelled.v1"), any(Object.class));
 //        verify(messageService, times(1)).sendMessage(eq(0L), any(MessageSendDTO.class));
     }
 
@@ -428,8 +564,8 @@ public class OrderServiceTest {
 
         // 3. 验证结果
         assertEquals(SystemErrorCode.PERMISSION_DENIED, exception.getErrorCode());
-        verify(orderMapper, never()).updateById(any(Order.class));
-        verify(productService, never()).updateStock(anyLong(), any(ProductStockUpdateDTO.class));
+        verify(orderMapper, never()).compareAndSetStatus(anyLong(), any(), any(), any(), any());
+        verify(productMapper, never()).increaseStock(anyLong(), anyInt());
     }
 
     /**
@@ -454,7 +590,30 @@ public class OrderServiceTest {
 
         // 4. 验证结果
         assertEquals(OrderErrorCode.ORDER_STATUS_INVALID, exception.getErrorCode());
-        verify(orderMapper, never()).updateById(any(Order.class));
+        verify(orderMapper, never()).compareAndSetStatus(anyLong(), any(), any(), any(), any());
+    }
+
+    /**
+     * 测试取消订单功能 - 失败场景（条件更新未命中：订单已被并发支付，不恢复库存、不发送事件）
+     */
+    @Test
+    void testCancelOrder_ConcurrentlyPaid() {
+        // 1. 模拟依赖行为（读取时待支付，条件更新时状态已变更）
+        when(redisTemplate.opsForValue().get(anyString())).thenReturn(null);
+        when(orderMapper.selectById(2001L)).thenReturn(testOrder);
+        when(userUtil.getUserById(2L)).thenReturn(testBuyerUser);
+        when(orderMapper.compareAndSetStatus(anyLong(), any(), any(), any(), any())).thenReturn(0);
+
+        // 2. 执行测试并验证异常
+        BusinessException exception = assertThrows(BusinessException.class, () -> {
+            orderService.cancelOrder(2L, 2001L);
+        });
+
+        // 3. 验证结果
+        assertEquals(OrderErrorCode.ORDER_STATUS_CONFLICT, exception.getErrorCode());
+        verify(productMapper, never()).increaseStock(anyLong(), anyInt());
+        verify(rabbitTemplate, never()).convertAndSend(anyString(), anyString(), any(Object.class));
+        verify(redisTemplate, never()).delete(anyString());
     }
 
     /**
@@ -468,14 +627,8 @@ public class OrderServiceTest {
             signUtilMock.when(() -> SignUtil.verifySign(any(PayCallbackDTO.class), eq(ORDER_PAY_CALLBACK_SECRET)))
                     .thenReturn(true);
 
-            // 订单查询与状态校验
-            Order pendingOrder = new Order();
-            BeanUtils.copyProperties(testOrder, pendingOrder);
-            pendingOrder.setStatus(OrderStatusEnum.PENDING_PAYMENT);
-            when(orderMapper.selectByOrderNo("2025102412345678")).thenReturn(pendingOrder);
-
-            // 金额校验（订单金额与支付金额一致）
-            when(orderMapper.updateById(any(Order.class))).thenReturn(1);
+            // 幂等处理交由PayCallbackService
+            when(payCallbackService.processPaySuccess(eq(testPayCallbackDTO), anyString())).thenReturn(true);
 
             // 2. 执行测试方法
             String result = orderService.handlePayCallback(testPayCallbackDTO);
@@ -483,11 +636,26 @@ public class OrderServiceTest {
             // 3. 验证结果
             assertEquals("success", result);
 
-            // 4. 验证依赖调用
-            verify(orderMapper, times(1)).selectByOrderNo("2025102412345678");
-            verify(orderMapper, times(1)).updateById(any(Order.class));
-            verify(redisTemplate, times(3)).delete(anyString());
-//            verify(messageService, times(2)).sendMessage(eq(0L), any(MessageSendDTO.class));
+            // 4. 验证依赖调用（订单更新、缓存清理与通知均由PayCallbackService完成）
+            verify(payCallbackService, times(1)).processPaySuccess(eq(testPayCallbackDTO), anyString());
+            verify(orderMapper, never()).updateById(any(Order.class));
+        }
+    }
+
+    /**
+     * 测试支付回调处理功能 - 失败场景（金额不匹配，返回fail供支付平台重试）
+     */
+    @Test
+    void testHandlePayCallback_ProcessFailed() {
+        try (MockedStatic<SignUtil> signUtilMock = Mockito.mockStatic(SignUtil.class)) {
+            signUtilMock.when(() -> SignUtil.verifySign(any(PayCallbackDTO.class), eq(ORDER_PAY_CALLBACK_SECRET)))
+                    .thenReturn(true);
+            when(payCallbackService.processPaySuccess(eq(testPayCallbackDTO), anyString()))
+                    .thenThrow(new BusinessException(PaymentErrorCode.PAYMENT_CALLBACK_VALIDATE_FAILS, "支付金额与订单金额不一致"));
+
+            String result = orderService.handlePayCallback(testPayCallbackDTO);
+
+            assertEquals("fail:支付金额与订单金额不一致", result);
         }
     }
 
@@ -507,7 +675,7 @@ public class OrderServiceTest {
 
             // 3. 验证结果
             assertEquals("fail:签名验证失败", result);
-            verify(orderMapper, never()).selectByOrderNo(anyString());
+            verify(payCallbackService, never()).processPaySuccess(any(PayCallbackDTO.class), anyString());
             verify(orderMapper, never()).updateById(any(Order.class));
         }
     }
@@ -532,7 +700,8 @@ public class OrderServiceTest {
         BeanUtils.copyProperties(paidOrder, shippedOrder);
         shippedOrder.setStatus(OrderStatusEnum.SHIPPED);
         shippedOrder.setShipTime(LocalDateTime.now());
-        when(orderMapper.updateById(any(Order.class))).thenReturn(1);
+        when(orderMapper.compareAndSetStatus(eq(2001L), eq(OrderStatusEnum.PENDING_SHIPMENT), eq(OrderStatusEnum.SHIPPED),
+                eq("ship_time"), any(LocalDateTime.class))).thenReturn(1);
 
         OrderDetailDTO detailDTO = new OrderDetailDTO();
         detailDTO.initDefaultValue();
@@ -553,7 +722,9 @@ public class OrderServiceTest {
 
         // 5. 验证依赖调用
         verify(orderMapper, times(1)).selectById(2001L);
-        verify(orderMapper, times(1)).updateById(any(Order.class));
+        verify(orderMapper, times(1)).compareAndSetStatus(eq(2001L), eq(OrderStatusEnum.PENDING_SHIPMENT),
+                eq(OrderStatusEnum.SHIPPED), eq("ship_time"), any(LocalDateTime.class));
+        verify(rabbitTemplate, times(1)).convertAndSend(eq("order.topic"), eq("order.shipped.v1"), any(Object.class));
         verify(redisTemplate, times(2)).delete(anyString()); // 清除订单详情+买家+卖家列表缓存
         verify(redisTemplate, times(3)).opsForValue();
         verify(valueOperations, times(1)).set(anyString(), any(), anyLong(), any(TimeUnit.class));
@@ -581,7 +752,8 @@ public class OrderServiceTest {
         BeanUtils.copyProperties(shippedOrder, completedOrder);
         completedOrder.setStatus(OrderStatusEnum.COMPLETED);
         completedOrder.setReceiveTime(LocalDateTime.now());
-        when(orderMapper.updateById(any(Order.class))).thenReturn(1);
+        when(orderMapper.compareAndSetStatus(eq(2001L), eq(OrderStatusEnum.SHIPPED), eq(OrderStatusEnum.COMPLETED),
+                eq("receive_time"), any(LocalDateTime.class))).thenReturn(1);
 
         OrderDetailDTO detailDTO = new OrderDetailDTO();
         detailDTO.initDefaultValue();
@@ -600,7 +772,9 @@ public class OrderServiceTest {
         // 5. 验证依赖调用
         verify(orderMapper, times(1)).selectById(2001L);
         verify(userUtil, times(1)).getUserById(2L);
-        verify(orderMapper, times(1)).updateById(any(Order.class));
+        verify(orderMapper, times(1)).compareAndSetStatus(eq(2001L), eq(OrderStatusEnum.SHIPPED),
+                eq(OrderStatusEnum.COMPLETED), eq("receive_time"), any(LocalDateTime.class));
+        verify(rabbitTemplate, times(1)).convertAndSend(eq("order.topic"), eq("order.completed.v1"), any(Object.class));
         verify(redisTemplate, times(2)).delete(anyString()); // 清除订单详情+买家+卖家列表缓存
         verify(redisTemplate, times(3)).opsForValue();
         verify(valueOperations, times(1)).set(anyString(), any(), anyLong(), any(TimeUnit.class));
@@ -643,43 +817,86 @@ public class OrderServiceTest {
     }
 
     /**
-     * 测试买家查询订单列表功能 - 成功场景（从数据库查询）
+     * 测试买家查询订单列表功能 - 成功场景（单表查询order_view读模型，游标分页）
      */
     @Test
-    void testGetBuyerOrders_Success_FromDb() {
-        // 1. 准备测试数据
-        List<Order> orderList = Arrays.asList(testOrder);
+    void testGetBuyerOrders_Success_FromOrderView() {
+        // 1. 准备测试数据（pageSize=1，读模型返回2条，说明存在下一页）
+        OrderView firstView = buildOrderView(testOrder.getOrderId(), testOrder.getCreateTime());
+        OrderView secondView = buildOrderView(2000L, testOrder.getCreateTime().minusMinutes(5));
         OrderListItemDTO listItemDTO = new OrderListItemDTO();
-        BeanUtils.copyProperties(testOrder, listItemDTO);
-        listItemDTO.setProductSummary(testProduct.getTitle());
-        listItemDTO.setProductImage("https://test-product.jpg");
-        long total = 1;
-        long totalPages = 1;
+        listItemDTO.setOrderId(firstView.getOrderId());
+        listItemDTO.setOrderNo(firstView.getOrderNo());
+        listItemDTO.setProductSummary(firstView.getProductTitle());
+        testQueryDTO.setPageSize(1);
 
-        // 2. 模拟依赖行为（缓存未命中）
-        when(valueOperations.get(anyString())).thenReturn(null);
-        when(orderMapper.selectByBuyerId(eq(2L), eq(OrderStatusEnum.PENDING_PAYMENT), anyInt(), anyInt())).thenReturn(orderList);
-        when(orderMapper.countByBuyerId(eq(2L), eq(OrderStatusEnum.PENDING_PAYMENT))).thenReturn((int) total);
-        when(productService.getById(1001L)).thenReturn(testProduct);
-        when(orderConvert.orderToOrderListItemDTO(any(Order.class))).thenReturn(listItemDTO);
+        // 2. 模拟依赖行为
+        when(orderViewMapper.selectByBuyerCursor(eq(2L), eq(OrderStatusEnum.PENDING_PAYMENT), isNull(), isNull(), eq(2)))
+                .thenReturn(Arrays.asList(firstView, secondView));
+        when(orderConvert.orderViewToOrderListItemDTO(any(OrderView.class))).thenReturn(listItemDTO);
 
         // 3. 执行测试方法
-        PageResult<OrderListItemDTO> result = orderService.getBuyerOrders(2L, testQueryDTO);
+        CursorPageResult<OrderListItemDTO> result = orderService.getBuyerOrders(2L, testQueryDTO);
 
-        // 4. 验证结果
+        // 4. 验证结果（买家视角展示卖家昵称，游标指向本页最后一条）
         assertNotNull(result);
-        assertEquals(total, result.getTotal());
-        assertEquals(totalPages, result.getTotalPages());
+        assertTrue(result.getHasMore());
         assertEquals(1, result.getList().size());
         assertEquals(testOrder.getOrderNo(), result.getList().get(0).getOrderNo());
         assertEquals(testProduct.getTitle(), result.getList().get(0).getProductSummary());
+        assertEquals("testSeller", result.getList().get(0).getCounterpartNickname());
+        assertEquals(CursorUtil.encode(firstView.getCreateTime(), firstView.getOrderId()), result.getNextCursor());
+
+        // 5. 验证依赖调用（仅一次读模型查询，不查询商品、不调用用户服务）
+        verify(orderViewMapper, times(1)).selectByBuyerCursor(eq(2L), eq(OrderStatusEnum.PENDING_PAYMENT), isNull(), isNull(), eq(2));
+        verify(productService, never()).getById(any());
+        verify(userUtil, never()).getUserById(any());
+        verify(orderMapper, never()).selectByBuyerId(any(), any(), anyInt(), anyInt());
+    }
 
-        // 5. 验证依赖调用
-        verify(redisTemplate, times(2)).opsForValue();
-        verify(valueOperations, times(1)).get(anyString());
-        verify(orderMapper, times(1)).selectByBuyerId(eq(2L), eq(OrderStatusEnum.PENDING_PAYMENT), anyInt(), anyInt());
-        verify(orderMapper, times(1)).countByBuyerId(eq(2L), eq(OrderStatusEnum.PENDING_PAYMENT));
-        verify(valueOperations, times(1)).set(anyString(), any(), anyLong(), any(TimeUnit.class));
+    /**
+     * 测试卖家查询订单列表功能 - 成功场景（携带游标查询最后一页）
+     */
+    @Test
+    void testGetSellerOrders_Success_WithCursor() {
+        // 1. 准备测试数据
+        OrderView view = buildOrderView(testOrder.getOrderId(), testOrder.getCreateTime());
+        OrderListItemDTO listItemDTO = new OrderListItemDTO();
+        listItemDTO.setOrderId(view.getOrderId());
+        String cursor = CursorUtil.encode(testOrder.getCreateTime().plusMinutes(1), 9999L);
+        testQueryDTO.setCursor(cursor);
+
+        // 2. 模拟依赖行为
+        when(orderViewMapper.selectBySellerCursor(eq(3L), eq(OrderStatusEnum.PENDING_PAYMENT),
+                eq(CursorUtil.decodeTime(cursor)), eq(9999L), anyInt())).thenReturn(List.of(view));
+        when(orderConvert.orderViewToOrderListItemDTO(any(OrderView.class))).thenReturn(listItemDTO);
+
+        // 3. 执行测试方法
+        CursorPageResult<OrderListItemDTO> result = orderService.getSellerOrders(3L, testQueryDTO);
+
+        // 4. 验证结果（卖家视角展示买家昵称，无下一页）
+        assertFalse(result.getHasMore());
+        assertNull(result.getNextCursor());
+        assertEquals("testBuyer", result.getList().get(0).getCounterpartNickname());
+    }
+
+    /**
+     * 构建订单读模型测试数据
+     */
+    private OrderView buildOrderView(Long orderId, LocalDateTime createTime) {
+        OrderView view = new OrderView();
+        view.setOrderId(orderId);
+        view.setOrderNo(testOrder.getOrderNo());
+        view.setBuyerId(2L);
+        view.setSellerId(3L);
+        view.setProductId(testProduct.getProductId());
+        view.setProductTitle(testProduct.getTitle());
+        view.setBuyerNickname("testBuyer");
+        view.setSellerNickname("testSeller");
+        view.setTotalAmount(testOrder.getTotalAmount());
+        view.setStatus(OrderStatusEnum.PENDING_PAYMENT);
+        view.setCreateTime(createTime);
+        return view;
     }
 
     /**
@@ -697,9 +914,9 @@ public class OrderServiceTest {
 
         // 2. 模拟依赖行为
         when(orderMapper.selectTimeoutPendingOrders(any(LocalDateTime.class))).thenReturn(timeoutOrders);
-        when(productService.getById(1001L)).thenReturn(testProduct);
-        when(productService.updateStock(eq(3L), any(ProductStockUpdateDTO.class))).thenReturn(1);
-        when(orderMapper.updateById(any(Order.class))).thenReturn(1);
+        when(orderMapper.compareAndSetStatus(eq(2002L), eq(OrderStatusEnum.PENDING_PAYMENT), eq(OrderStatusEnum.CANCELLED),
+                eq("cancel_time"), any(LocalDateTime.class))).thenReturn(1);
+        when(productMapper.increaseStock(1001L, timeoutOrder.getQuantity())).thenReturn(1);
 
         // 3. 执行测试方法
         int result = orderService.autoCloseTimeoutOrders(30);
@@ -709,10 +926,72 @@ public class OrderServiceTest {
 
         // 5. 验证依赖调用
         verify(orderMapper, times(1)).selectTimeoutPendingOrders(any(LocalDateTime.class));
-        verify(orderMapper, times(1)).updateById(any(Order.class));
-        verify(productService, times(1)).getById(1001L);
-        verify(productService, times(1)).updateStock(eq(1001L), any(ProductStockUpdateDTO.class));
-        verify(redisTemplate, times(3)).delete(anyString()); // 清除订单详情+买家+卖家列表缓存
+        verify(orderMapper, times(1)).compareAndSetStatus(eq(2002L), eq(OrderStatusEnum.PENDING_PAYMENT),
+                eq(OrderStatusEnum.CANCELLED), eq("cancel_time"), any(LocalDateTime.class));
+        verify(productMapper, times(1)).increaseStock(1001L, timeoutOrder.getQuantity());
+        verify(redisTemplate, times(4)).delete(anyString()); // 清除订单详情+买家+卖家列表缓存+商品详情缓存
+        verify(rabbitTemplate, times(1)).convertAndSend(eq("order.topic"), eq("order.cancelled.v1"), any(Object.class));
+    }
+
+    /**
+     * 测试自动关闭超时订单功能 - 跳过场景（查询后订单已被支付，条件更新未命中，不恢复库存）
+     */
+    @Test
+    void testAutoCloseTimeoutOrders_SkipConcurrentlyPaid() {
+        // 1. 准备测试数据
+        Order timeoutOrder = new Order();
+        BeanUtils.copyProperties(testOrder, timeoutOrder);
+        timeoutOrder.setOrderId(2002L);
+        when(orderMapper.selectTimeoutPendingOrders(any(LocalDateTime.class))).thenReturn(List.of(timeoutOrder));
+        when(orderMapper.compareAndSetStatus(anyLong(), any(), any(), any(), any())).thenReturn(0);
+
+        // 2. 执行测试方法
+        int result = orderService.autoCloseTimeoutOrders(30);
+
+        // 3. 验证结果
+        assertEquals(0, result);
+        verify(productMapper, never()).increaseStock(anyLong(), anyInt());
+        verify(redisTemplate, never()).delete(anyString());
 //        verify(messageService, times(1)).sendMessage(eq(0L), any(MessageSendDTO.class));
     }
-}
\ No newline at end of file
+
+    /**
+     * 测试订单导出功能 - 成功场景（按卖家流式写出CSV，不含收货人手机号）
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExportOrders_Success_Seller() throws Exception {
+        // 1. 模拟游标数据
+        testOrder.setPhoneNumber("13800138000");
+        Cursor<Order> cursor = mock(Cursor.class);
+        when(cursor.iterator()).thenReturn(List.of(testOrder).iterator());
+        when(orderMapper.streamByCreateTimeRange(eq(3L), eq("SELLER"), isNull(), isNull())).thenReturn(cursor);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // 2. 执行测试方法
+        long rows = orderService.exportOrders(3L, null, null, response);
+
+        // 3. 验证结果
+        assertEquals(1, rows);
+        assertEquals("text/csv;charset=UTF-8", response.getContentType());
+        String content = response.getContentAsString(StandardCharsets.UTF_8);
+        assertEquals(2, content.split("\r\n").length);
+        assertTrue(content.contains(testOrder.getOrderNo()));
+        assertFalse(content.contains(testOrder.getPhoneNumber()));
+        verify(cursor, times(1)).close();
+    }
+
+    /**
+     * 测试订单导出功能 - 失败场景（开始时间晚于结束时间，不打开游标）
+     */
+    @Test
+    void testExportOrders_InvalidTimeRange() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        BusinessException exception = assertThrows(BusinessException.class, () ->
+                orderService.exportOrders(null, LocalDateTime.now(), LocalDateTime.now().minusDays(1), response));
+
+        assertEquals(SystemErrorCode.PARAM_ERROR, exception.getErrorCode());
+        verify(orderMapper, never()).streamByCreateTimeRange(any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,300 @@
+package xyz.graygoo401.trade.service;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import xyz.graygoo401.api.common.dto.mq.OrderEventDTO;
+import xyz.graygoo401.api.trade.dto.order.PayCallbackDTO;
+import xyz.graygoo401.api.trade.enums.OrderStatusEnum;
+import xyz.graygoo401.api.trade.enums.PayTypeEnum;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.trade.dao.entity.Order;
+import xyz.graygoo401.trade.dao.entity.PayCallbackRecord;
+import xyz.graygoo401.trade.dao.entity.Payment;
+import xyz.graygoo401.trade.dao.mapper.OrderMapper;
+import xyz.graygoo401.trade.dao.mapper.PayCallbackRecordMapper;
+import xyz.graygoo401.trade.dao.mapper.PaymentMapper;
+import xyz.graygoo401.trade.exception.error.PaymentErrorCode;
+import xyz.graygoo401.trade.service.base.SellerDailyStatsService;
+import xyz.graygoo401.trade.service.impl.PayCallbackServiceImpl;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 支付回调幂等处理测试
+ * Redis、回调处理记录表与订单条件更新均以线程安全的内存实现模拟，重放并发重复回调
+ * 未开启事务同步时提交后任务立即执行；回滚场景手动开启事务同步并只触发完成回调
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class PayCallbackServiceTest {
+
+    private static final int DUPLICATE_CALLBACKS = 100; // 并发重放的重复回调数
+
+    @Mock
+    private PayCallbackRecordMapper payCallbackRecordMapper;
+    @Mock
+    private OrderMapper orderMapper;
+    @Mock
+    private PaymentMapper paymentMapper;
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+    @Mock
+    private SellerDailyStatsService sellerDailyStatsService;
+
+    @InjectMocks
+    private PayCallbackServiceImpl payCallbackService;
+
+    private Map<String, Object> fakeRedis; // 模拟Redis（SETNX语义）
+    private Set<String> processedRecords; // 模拟回调处理记录表唯一索引
+    private AtomicBoolean orderPaid; // 模拟订单状态（false=待支付）
+    private AtomicInteger orderUpdateCount; // 订单实际更新次数
+    private Order pendingOrder; // 模拟订单
+    private PayCallbackDTO testPayCallbackDTO;
+
+    @BeforeAll
+    static void initTableInfo() {
+        // 单元测试未加载MyBatis-Plus，手动初始化Payment表信息以支持Lambda条件构造
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), Payment.class);
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), PayCallbackRecord.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        fakeRedis = new ConcurrentHashMap<>();
+        processedRecords = ConcurrentHashMap.newKeySet();
+        orderPaid = new AtomicBoolean(false);
+        orderUpdateCount = new AtomicInteger(0);
+
+        // Redis EXISTS / SET / DEL
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.hasKey(anyString())).thenAnswer(invocation -> fakeRedis.containsKey((String) invocation.getArgument(0)));
+        doAnswer(invocation -> fakeRedis.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(valueOperations).set(anyString(), any(), anyLong(), any(TimeUnit.class));
+        when(redisTemplate.delete(anyString()))
+                .thenAnswer(invocation -> fakeRedis.remove((String) invocation.getArgument(0)) != null);
+
+        // 回调处理记录（唯一索引冲突抛出DuplicateKeyException）
+        when(payCallbackRecordMapper.insert(any(PayCallbackRecord.class))).thenAnswer(invocation -> {
+            PayCallbackRecord record = invocation.getArgument(0);
+            if (!processedRecords.add(record.getTradeNo() + ":" + record.getTradeStatus())) {
+                throw new DuplicateKeyException("uk_trade_no_status");
+            }
+            return 1;
+        });
+
+        // 订单查询与条件更新（WHERE status = 'PENDING_PAYMENT'）
+        pendingOrder = new Order();
+        pendingOrder.setOrderId(1L);
+        pendingOrder.setOrderNo("2025102412345678");
+        pendingOrder.setBuyerId(1L);
+        pendingOrder.setSellerId(2L);
+        pendingOrder.setTotalAmount(new BigDecimal("3998.00"));
+        pendingOrder.setPayType(PayTypeEnum.ALIPAY);
+        pendingOrder.setStatus(OrderStatusEnum.PENDING_PAYMENT);
+        when(orderMapper.selectByOrderNo("2025102412345678")).thenReturn(pendingOrder);
+        when(orderMapper.updatePayInfo(eq(1L), any(LocalDateTime.class), any(PayTypeEnum.class))).thenAnswer(invocation -> {
+            if (orderPaid.compareAndSet(false, true)) {
+                orderUpdateCount.incrementAndGet();
+                return 1;
+            }
+            return 0;
+        });
+        when(paymentMapper.update(isNull(), any())).thenReturn(1);
+
+        testPayCallbackDTO = new PayCallbackDTO();
+        testPayCallbackDTO.setOrderNo("2025102412345678");
+        testPayCallbackDTO.setPayAmount(new BigDecimal("3998.00"));
+        testPayCallbackDTO.setPayType(PayTypeEnum.ALIPAY);
+        testPayCallbackDTO.setPayNo("2025102422001476540000001234");
+        testPayCallbackDTO.setPayStatus("TRADE_SUCCESS");
+        testPayCallbackDTO.setPayTime("2025-10-24 13:00:00");
+    }
+
+    /**
+     * 测试并发重放100次相同回调 - 订单仅更新一次、支付成功事件仅发布一次，所有回调均应答成功
+     */
+    @Test
+    void testProcessPaySuccess_ConcurrentDuplicates_ProcessedOnce() throws Exception {
+        // 1. 并发重放重复回调（统一起跑）
+        List<Future<Boolean>> results = replayConcurrently(DUPLICATE_CALLBACKS);
+
+        // 2. 验证结果：全部应答成功（支付平台停止重试）
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get());
+        }
+        assertEquals(1, orderUpdateCount.get());
+        assertEquals(1, processedRecords.size());
+        assertTrue(fakeRedis.containsKey("pay:callback:2025102422001476540000001234:TRADE_SUCCESS"));
+        verify(orderMapper, times(1)).updatePayInfo(eq(1L), any(LocalDateTime.class), eq(PayTypeEnum.ALIPAY));
+        verify(paymentMapper, times(1)).update(isNull(), any());
+        verify(sellerDailyStatsService, times(1)).applyOrderTransition(any(Order.class),
+                eq(OrderStatusEnum.PENDING_PAYMENT), eq(OrderStatusEnum.PENDING_SHIPMENT));
+
+        // 3. 验证后续处理（异步执行）：支付成功事件仅发布一次
+        verify(rabbitTemplate, timeout(2000).times(1))
+                .convertAndSend(eq("order.topic"), eq("order.paid.v1"), any(OrderEventDTO.class));
+        verify(redisTemplate, timeout(2000).times(1)).delete("order:info:1");
+    }
+
+    /**
+     * 测试Redis去重Key丢失 - 处理记录唯一索引与订单条件更新兜底，订单仍只更新一次
+     */
+    @Test
+    void testProcessPaySuccess_RedisKeyLost_FallbackToRecordAndConditionalUpdate() throws Exception {
+        // 1. 模拟Redis不可用于去重（去重Key始终不存在）
+        when(redisTemplate.hasKey(anyString())).thenReturn(false);
+
+        // 2. 并发重放重复回调
+        List<Future<Boolean>> results = replayConcurrently(DUPLICATE_CALLBACKS);
+
+        // 3. 验证结果
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get());
+        }
+        assertEquals(1, orderUpdateCount.get());
+        verify(payCallbackRecordMapper, times(DUPLICATE_CALLBACKS)).insert(any(PayCallbackRecord.class));
+        verify(rabbitTemplate, timeout(2000).times(1))
+                .convertAndSend(eq("order.topic"), eq("order.paid.v1"), any(OrderEventDTO.class));
+    }
+
+    /**
+     * 测试支付金额不匹配 - 抛出异常且不写入去重Key，允许支付平台重试
+     */
+    @Test
+    void testProcessPaySuccess_AmountMismatch_ReleaseDedupeKey() {
+        // 1. 准备测试数据（支付金额与订单金额不一致）
+        testPayCallbackDTO.setPayAmount(new BigDecimal("1.00"));
+
+        // 2. 执行测试方法并验证异常
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> payCallbackService.processPaySuccess(testPayCallbackDTO, "{}"));
+
+        // 3. 验证结果
+        assertEquals(PaymentErrorCode.PAYMENT_CALLBACK_VALIDATE_FAILS, exception.getErrorCode());
+        assertTrue(fakeRedis.isEmpty());
+        verify(orderMapper, never()).updatePayInfo(anyLong(), any(), any());
+        verify(rabbitTemplate, never()).convertAndSend(anyString(), anyString(), any(Object.class));
+    }
+
+    /**
+     * 测试事务提交失败 - 回滚后不写入去重Key，支付平台重试时重新处理
+     */
+    @Test
+    void testProcessPaySuccess_CommitFails_RetryProcessedAgain() {
+        // 1. 开启事务同步，处理成功后模拟提交失败（只触发回滚完成回调）
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertTrue(payCallbackService.processPaySuccess(testPayCallbackDTO, "{}"));
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertTrue(fakeRedis.isEmpty());
+        verify(rabbitTemplate, never()).convertAndSend(anyString(), anyString(), any(Object.class));
+
+        // 2. 模拟回滚：处理记录与订单状态恢复
+        processedRecords.clear();
+        orderPaid.set(false);
+
+        // 3. 支付平台重试：重新处理并在提交后写入去重Key
+        assertTrue(payCallbackService.processPaySuccess(testPayCallbackDTO, "{}"));
+        assertEquals(2, orderUpdateCount.get());
+        assertTrue(fakeRedis.containsKey("pay:callback:2025102422001476540000001234:TRADE_SUCCESS"));
+    }
+
+    /**
+     * 测试订单已取消 - 不应答成功，抛出不可支付异常且不写入去重Key
+     */
+    @Test
+    void testProcessPaySuccess_OrderCancelled_Fail() {
+        // 1. 准备测试数据（订单已超时取消，条件更新影响0行，无本笔交易的其他处理记录）
+        orderPaid.set(true);
+        pendingOrder.setStatus(OrderStatusEnum.CANCELLED);
+        when(payCallbackRecordMapper.selectCount(any())).thenReturn(0L);
+
+        // 2. 执行测试方法并验证异常
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> payCallbackService.processPaySuccess(testPayCallbackDTO, "{}"));
+
+        // 3. 验证结果
+        assertEquals(PaymentErrorCode.PAYMENT_ORDER_NOT_PAYABLE, exception.getErrorCode());
+        assertTrue(fakeRedis.isEmpty());
+        verify(sellerDailyStatsService, never()).applyOrderTransition(any(), any(), any());
+        verify(paymentMapper, never()).update(any(), any());
+    }
+
+    /**
+     * 测试本笔交易的其他状态回调 - 订单已由本笔交易支付，应答成功且不重复处理
+     */
+    @Test
+    void testProcessPaySuccess_PaidBySameTrade_Ack() {
+        // 1. 准备测试数据（TRADE_SUCCESS已处理，随后收到TRADE_FINISHED）
+        orderPaid.set(true);
+        pendingOrder.setStatus(OrderStatusEnum.PENDING_SHIPMENT);
+        when(payCallbackRecordMapper.selectCount(any())).thenReturn(1L);
+        testPayCallbackDTO.setPayStatus("TRADE_FINISHED");
+
+        // 2. 执行测试方法并验证结果
+        assertTrue(payCallbackService.processPaySuccess(testPayCallbackDTO, "{}"));
+        assertTrue(fakeRedis.containsKey("pay:callback:2025102422001476540000001234:TRADE_FINISHED"));
+        verify(sellerDailyStatsService, never()).applyOrderTransition(any(), any(), any());
+        verify(rabbitTemplate, never()).convertAndSend(anyString(), anyString(), any(Object.class));
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 并发重放相同回调（所有线程就绪后同时开始）
+     */
+    private List<Future<Boolean>> replayConcurrently(int callbackCount) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < callbackCount; i++) {
+                results.add(executor.submit(() -> {
+                    startLatch.await();
+                    return payCallbackService.processPaySuccess(testPayCallbackDTO, "{}");
+                }));
+            }
+            startLatch.countDown();
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+}
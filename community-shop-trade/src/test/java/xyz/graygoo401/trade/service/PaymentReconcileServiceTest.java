@@ -0,0 +1,144 @@
+package xyz.graygoo401.trade.service;
+
+import com.baomidou.mybatisplus.test.autoconfigure.MybatisPlusTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import xyz.graygoo401.api.trade.dto.payment.PaymentReconcileResultDTO;
+import xyz.graygoo401.api.trade.enums.OrderStatusEnum;
+import xyz.graygoo401.api.trade.enums.PayTypeEnum;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.trade.dao.entity.Order;
+import xyz.graygoo401.trade.dao.mapper.OrderMapper;
+import xyz.graygoo401.trade.exception.error.PaymentErrorCode;
+import xyz.graygoo401.trade.service.impl.PaymentReconcileServiceImpl;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PaymentReconcileService测试（H2内存库）
+ * 使用真实OrderMapper游标与无序对账单走完整流程：外部排序→归并连接→写出差异报告，并校验排序临时文件被清理
+ * 测试方法在测试事务内执行（游标需在事务内遍历），插入的订单随事务回滚
+ */
+@MybatisPlusTest  // 仅加载MyBatis相关Bean，轻量化测试
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)  // 禁用默认数据库替换，使用H2配置
+@ActiveProfiles("test")  // 启用test环境配置
+public class PaymentReconcileServiceTest {
+
+    private static final LocalDate BILL_DATE = LocalDate.of(2030, 1, 1); // 与data-order.sql数据不重叠的账单日
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    @TempDir
+    Path tempDir;
+
+    private PaymentReconcileServiceImpl paymentReconcileService;
+
+    @BeforeEach
+    void setUp() {
+        paymentReconcileService = new PaymentReconcileServiceImpl();
+        ReflectionTestUtils.setField(paymentReconcileService, "orderMapper", orderMapper);
+        ReflectionTestUtils.setField(paymentReconcileService, "reportDir", tempDir.resolve("reconcile").toString());
+        ReflectionTestUtils.setField(paymentReconcileService, "sortRunSize", 2);  // 小顺串，强制多路归并
+    }
+
+    /**
+     * 无序对账单：排序后与本地订单归并，差异写入报告，排序临时文件删除
+     */
+    @Test
+    void reconcile_unsortedBill_writesMismatchReport() throws IOException {
+        // 1. 准备本地订单
+        LocalDateTime payTime = BILL_DATE.atTime(12, 0);
+        orderMapper.insert(buildOrder("RCN001", "100.00", OrderStatusEnum.COMPLETED, payTime));
+        orderMapper.insert(buildOrder("RCN002", "88.00", OrderStatusEnum.PENDING_SHIPMENT, payTime));
+        orderMapper.insert(buildOrder("RCN003", "50.00", OrderStatusEnum.CANCELLED, null));
+        orderMapper.insert(buildOrder("RCN004", "20.00", OrderStatusEnum.SHIPPED, payTime));
+
+        // 2. 准备无序对账单（RCN002金额不一致、RCN003本地已取消但平台已收款、RCN004平台缺失、RCN009本地缺失）
+        Path bill = tempDir.resolve("alipay-20300101.csv");
+        Files.writeString(bill, "#支付宝交易明细\nout_trade_no,trade_no,total_amount,trade_status\n"
+                + "RCN009,T009,9.90,TRADE_SUCCESS\n"
+                + "RCN003,T003,50.00,TRADE_SUCCESS\n"
+                + "RCN001,T001,100.00,TRADE_FINISHED\n"
+                + "RCN002,T002,80.00,TRADE_SUCCESS\n", StandardCharsets.UTF_8);
+
+        // 3. 执行对账
+        PaymentReconcileResultDTO result = paymentReconcileService.reconcile(BILL_DATE, bill);
+
+        // 4. 验证计数
+        assertEquals(BILL_DATE, result.getBillDate());
+        assertEquals(4, result.getBillRows());
+        assertEquals(4, result.getOrderRows());
+        assertEquals(1, result.getMatchedCount());
+        assertEquals(1, result.getMissingLocalCount());
+        assertEquals(1, result.getMissingPlatformCount());
+        assertEquals(1, result.getAmountDiffCount());
+        assertEquals(1, result.getStatusDiffCount());
+        assertEquals(0, result.getDuplicateCount());
+
+        // 5. 验证报告内容（按订单号顺序）与临时文件清理
+        Path report = Path.of(result.getReportFile());
+        List<String> lines = Files.readAllLines(report, StandardCharsets.UTF_8);
+        assertEquals(5, lines.size());
+        assertEquals("金额不一致,RCN002,T002,88.00,80.00,待发货,TRADE_SUCCESS", lines.get(1));
+        assertEquals("状态不一致,RCN003,T003,50.00,50.00,已取消,TRADE_SUCCESS", lines.get(2));
+        assertEquals("平台缺失,RCN004,,20.00,,已发货,", lines.get(3));
+        assertEquals("本地缺失,RCN009,T009,,9.90,,TRADE_SUCCESS", lines.get(4));
+        try (var files = Files.list(report.getParent())) {
+            assertEquals(List.of(report), files.toList(), "排序临时文件应在对账后删除");
+        }
+        assertTrue(Files.exists(bill), "原始对账单不应被删除");
+    }
+
+    /**
+     * 对账单不存在或格式错误：抛出对应业务异常
+     */
+    @Test
+    void reconcile_missingOrInvalidFile_throwsBusinessException() throws IOException {
+        BusinessException notExists = assertThrows(BusinessException.class, () ->
+                paymentReconcileService.reconcile(BILL_DATE, tempDir.resolve("none.csv")));
+        assertEquals(PaymentErrorCode.PAYMENT_RECONCILE_FILE_NOT_EXISTS, notExists.getErrorCode());
+
+        Path bill = tempDir.resolve("invalid.csv");
+        Files.writeString(bill, "out_trade_no,trade_status\nRCN001,TRADE_SUCCESS\n", StandardCharsets.UTF_8);
+        BusinessException invalid = assertThrows(BusinessException.class, () ->
+                paymentReconcileService.reconcile(BILL_DATE, bill));
+        assertEquals(PaymentErrorCode.PAYMENT_RECONCILE_FILE_INVALID, invalid.getErrorCode());
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    private Order buildOrder(String orderNo, String amount, OrderStatusEnum status, LocalDateTime payTime) {
+        LocalDateTime createTime = BILL_DATE.atTime(11, 30);
+        Order order = new Order();
+        order.setProductId(1L);
+        order.setBuyerId(1L);
+        order.setSellerId(2L);
+        order.setOrderNo(orderNo);
+        order.setTotalAmount(new BigDecimal(amount));
+        order.setQuantity(1);
+        order.setReceiverName("test_buyer");
+        order.setAddress("北京市朝阳区");
+        order.setPhoneNumber("13800138000");
+        order.setStatus(status);
+        order.setPayType(PayTypeEnum.ALIPAY);
+        order.setCreateTime(createTime);
+        order.setPayTime(payTime);
+        order.setPayExpireTime(createTime.plusMinutes(30));
+        return order;
+    }
+}
@@ -0,0 +1,228 @@
+package xyz.graygoo401.trade.service;
+
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import xyz.graygoo401.api.common.dto.mq.ProductBatchEventDTO;
+import xyz.graygoo401.api.common.dto.mq.ProductImageIngestEventDTO;
+import xyz.graygoo401.api.trade.dto.product.ProductImportJobDTO;
+import xyz.graygoo401.api.trade.enums.ProductImportFormatEnum;
+import xyz.graygoo401.api.trade.enums.ProductImportStatusEnum;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.common.exception.error.SystemErrorCode;
+import xyz.graygoo401.trade.dao.entity.Product;
+import xyz.graygoo401.trade.dao.mapper.ProductMapper;
+import xyz.graygoo401.trade.exception.error.ProductErrorCode;
+import xyz.graygoo401.trade.service.impl.ProductImportServiceImpl;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ProductImportService单元测试
+ * 覆盖提交校验（格式、卖家）、导入执行（分批写入、单行错误报告、事件发送、结构错误中断）与任务查询权限
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class ProductImportServiceTest {
+
+    @Mock
+    private ProductMapper productMapper;
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @InjectMocks
+    private ProductImportServiceImpl productImportService;
+
+    @TempDir
+    Path tempDir;
+
+    private final List<List<Product>> insertedBatches = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(productImportService, "batchSize", 2);
+        ReflectionTestUtils.setField(productImportService, "validator",
+                Validation.buildDefaultValidatorFactory().getValidator());
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(productMapper.verifySellerExists(2L)).thenReturn(1);
+
+        // 模拟多行INSERT回填自增ID
+        AtomicLong idSequence = new AtomicLong(1000);
+        when(productMapper.insertBatch(anyList())).thenAnswer(invocation -> {
+            List<Product> products = invocation.getArgument(0);
+            products.forEach(product -> product.setProductId(idSequence.incrementAndGet()));
+            insertedBatches.add(new ArrayList<>(products));
+            return products.size();
+        });
+    }
+
+    /**
+     * 测试导入执行：合法行按批写入，非法行记入错误报告，带图片的商品额外发送转存事件
+     */
+    @Test
+    void testRunImport_MixedRows_BatchesAndReportsErrors() throws Exception {
+        Path file = tempDir.resolve("products.csv");
+        Files.writeString(file, "title,category,price,stock,description,condition,imageUrls\n"
+                + "商品1,数码,10.00,1,描述1,NEW,https://img.example.com/1.jpg|https://img.example.com/2.jpg\n"
+                + "商品2,数码,-5,1,描述2,NEW,\n"
+                + "商品3,数码,20.00,2,描述3,NINETY_PERCENT_NEW,\n"
+                + "商品4,数码,30.00,3,,NEW,\n"
+                + "商品5,数码,40.00,4,描述5,USED,ftp://img.example.com/5.jpg\n"
+                + "商品6,数码,50.00,5,描述6,NEW,\n", StandardCharsets.UTF_8);
+        ProductImportJobDTO job = buildJob(ProductImportFormatEnum.CSV);
+
+        productImportService.runImport(job, file);
+
+        // 1. 任务结果
+        assertEquals(ProductImportStatusEnum.COMPLETED, job.getStatus());
+        assertEquals(6, job.getProcessedRows());
+        assertEquals(3, job.getSuccessRows());
+        assertEquals(3, job.getFailedRows());
+        assertEquals(List.of(2L, 4L, 5L), job.getErrors().stream().map(e -> e.getRowNumber()).toList());
+        assertEquals(ProductErrorCode.PRODUCT_IMAGE_URL_INVALID.getMessage(), job.getErrors().get(2).getMessage());
+        assertNotNull(job.getFinishTime());
+        assertFalse(Files.exists(file), "导入结束后应删除临时文件");
+
+        // 2. 每批（2行）一条多行INSERT，只写入合法行，卖家与默认值由任务设置
+        assertEquals(3, insertedBatches.size());
+        assertEquals(List.of("商品1"), insertedBatches.get(0).stream().map(Product::getTitle).toList());
+        assertEquals(List.of("商品3"), insertedBatches.get(1).stream().map(Product::getTitle).toList());
+        assertEquals(List.of("商品6"), insertedBatches.get(2).stream().map(Product::getTitle).toList());
+        insertedBatches.stream().flatMap(List::stream).forEach(product -> {
+            assertEquals(2L, product.getSellerId());
+            assertEquals(0, product.getViewCount());
+        });
+
+        // 3. 每批一条批量创建事件（不逐个商品发送创建事件），仅商品1发送图片转存事件
+        verify(rabbitTemplate, times(3)).convertAndSend(eq("product.topic"), eq("product.batch.create"), any(ProductBatchEventDTO.class));
+        verify(rabbitTemplate).convertAndSend(eq("product.topic"), eq("product.batch.create"), argThat((Object event) ->
+                event instanceof ProductBatchEventDTO batchEvent && batchEvent.getProductIds().equals(List.of(1001L))));
+        verify(rabbitTemplate, never()).convertAndSend(eq("product.topic"), eq("product.create"), any(Object.class));
+        verify(rabbitTemplate).convertAndSend(eq("product.topic"), eq("image.ingest"), argThat((Object event) ->
+                event instanceof ProductImageIngestEventDTO ingest && ingest.getProductId() == 1001L
+                        && ingest.getImageUrls().size() == 2));
+
+        // 4. 进度快照按批写入Redis（开始 + 3批 + 结束）
+        verify(valueOperations, times(5)).set(eq("product:import:job:job-1"), same(job), any());
+    }
+
+    /**
+     * 测试导入执行：文件结构错误时任务中断，已写入的批次保留
+     */
+    @Test
+    void testRunImport_BrokenJson_FailsKeepingWrittenBatches() throws Exception {
+        Path file = tempDir.resolve("products.json");
+        Files.writeString(file, "[{\"title\":\"商品1\",\"category\":\"数码\",\"price\":10,\"stock\":1,\"description\":\"描述\",\"condition\":\"NEW\"},"
+                + "{\"title\":\"商品2\",\"category\":\"数码\",\"price\":10,\"stock\":1,\"description\":\"描述\",\"condition\":\"NEW\"},"
+                + "{\"title\":\"商品3\",", StandardCharsets.UTF_8);
+        ProductImportJobDTO job = buildJob(ProductImportFormatEnum.JSON);
+
+        productImportService.runImport(job, file);
+
+        assertEquals(ProductImportStatusEnum.FAILED, job.getStatus());
+        assertTrue(job.getFailReason().startsWith("文件解析失败"));
+        assertEquals(2, job.getSuccessRows());
+        assertEquals(1, insertedBatches.size());
+    }
+
+    /**
+     * 测试提交：不支持的文件格式
+     */
+    @Test
+    void testSubmitImport_UnsupportedFormat() {
+        MockMultipartFile file = new MockMultipartFile("file", "products.xlsx", null, new byte[]{1});
+
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> productImportService.submitImport(2L, file));
+
+        assertEquals(ProductErrorCode.PRODUCT_IMPORT_FORMAT_INVALID, exception.getErrorCode());
+        verify(productMapper, never()).verifySellerExists(anyLong());
+    }
+
+    /**
+     * 测试提交：卖家不存在时无权限，且不创建任务
+     */
+    @Test
+    void testSubmitImport_SellerNotExists() {
+        MockMultipartFile file = new MockMultipartFile("file", "products.csv", "text/csv",
+                "title,category,price,stock\n".getBytes(StandardCharsets.UTF_8));
+
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> productImportService.submitImport(99L, file));
+
+        assertEquals(SystemErrorCode.PERMISSION_DENIED, exception.getErrorCode());
+        verify(valueOperations, never()).set(anyString(), any(), any());
+    }
+
+    /**
+     * 测试提交：返回PENDING任务并保存快照
+     */
+    @Test
+    void testSubmitImport_Success_ReturnsPendingJob() {
+        MockMultipartFile file = new MockMultipartFile("file", "products.csv", "text/csv",
+                "title,category,price,stock\n".getBytes(StandardCharsets.UTF_8));
+
+        ProductImportJobDTO job = productImportService.submitImport(2L, file);
+
+        assertNotNull(job.getJobId());
+        assertEquals(2L, job.getSellerId());
+        assertEquals(ProductImportFormatEnum.CSV, job.getFormat());
+        assertEquals(ProductImportStatusEnum.PENDING, job.getStatus());
+        verify(valueOperations).set(eq("product:import:job:" + job.getJobId()), same(job), any());
+    }
+
+    /**
+     * 测试查询：任务不存在与非所属卖家
+     */
+    @Test
+    void testGetImportJob_NotExistsAndOtherSeller() {
+        when(valueOperations.get("product:import:job:missing")).thenReturn(null);
+        BusinessException notExists = assertThrows(BusinessException.class,
+                () -> productImportService.getImportJob(2L, "missing"));
+        assertEquals(ProductErrorCode.PRODUCT_IMPORT_JOB_NOT_EXISTS, notExists.getErrorCode());
+
+        when(valueOperations.get("product:import:job:job-1")).thenReturn(buildJob(ProductImportFormatEnum.CSV));
+        BusinessException otherSeller = assertThrows(BusinessException.class,
+                () -> productImportService.getImportJob(3L, "job-1"));
+        assertEquals(SystemErrorCode.PERMISSION_DENIED, otherSeller.getErrorCode());
+        assertEquals("job-1", productImportService.getImportJob(2L, "job-1").getJobId());
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    private ProductImportJobDTO buildJob(ProductImportFormatEnum format) {
+        ProductImportJobDTO job = new ProductImportJobDTO();
+        job.setJobId("job-1");
+        job.setSellerId(2L);
+        job.setFormat(format);
+        job.setStatus(ProductImportStatusEnum.PENDING);
+        job.setSubmitTime(LocalDateTime.now());
+        return job;
+    }
+}
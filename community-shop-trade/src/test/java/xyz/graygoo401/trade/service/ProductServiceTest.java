@@ -1,5 +1,6 @@
 package xyz.graygoo401.trade.service;
 
+import org.apache.ibatis.cursor.Cursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,29 +11,44 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.beans.BeanUtils;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.mock.web.MockHttpServletResponse;
+import xyz.graygoo401.api.common.dto.mq.ProductEventDTO;
+import xyz.graygoo401.api.trade.dto.cart.CartItemAddDTO;
 import xyz.graygoo401.api.trade.dto.product.*;
 import xyz.graygoo401.api.trade.enums.ProductConditionEnum;
+import xyz.graygoo401.api.trade.enums.ProductPriceRangeEnum;
 import xyz.graygoo401.api.trade.enums.ProductStatusEnum;
 import xyz.graygoo401.api.user.dto.user.UserDTO;
 import xyz.graygoo401.api.user.util.UserUtil;
 import xyz.graygoo401.common.dto.PageResult;
+import xyz.graygoo401.common.dto.SuggestionDTO;
 import xyz.graygoo401.common.enums.UserRoleEnum;
 import xyz.graygoo401.common.exception.BusinessException;
 import xyz.graygoo401.common.exception.error.SystemErrorCode;
+import xyz.graygoo401.common.index.AutocompleteIndex;
 import xyz.graygoo401.trade.convert.ProductConvert;
 import xyz.graygoo401.trade.dao.entity.Product;
 import xyz.graygoo401.trade.dao.mapper.ProductMapper;
 import xyz.graygoo401.trade.exception.error.ProductErrorCode;
+import xyz.graygoo401.trade.index.ProductFilterIndex;
+import xyz.graygoo401.trade.service.base.ProductViewService;
+import xyz.graygoo401.trade.service.base.SimilarProductService;
 import xyz.graygoo401.trade.service.impl.ProductServiceImpl;
 
 import java.lang.reflect.Field;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -54,6 +70,16 @@ public class ProductServiceTest {
     private ProductConvert productConvert;
     @Mock
     private ValueOperations<String, Object> valueOperations;
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+    @Mock
+    private ProductFilterIndex productFilterIndex;
+    @Mock
+    private AutocompleteIndex productAutocompleteIndex;
+    @Mock
+    private SimilarProductService similarProductService;
+    @Mock
+    private ProductViewService productViewService;
 
     // 注入测试目标服务
     @InjectMocks
@@ -478,6 +504,57 @@ public class ProductServiceTest {
         verify(productMapper, never()).updateStock(1001L, -15);
     }
 
+    /**
+     * 测试批量预占库存 - 成功场景（库存归零的商品切换为已售罄，逐个商品发送事件）
+     */
+    @Test
+    void testReserveStockBatch_Success_SoldOutAndPublishesEvents() {
+        // 1. 模拟依赖行为（商品1001扣减后仍有库存，商品1002库存归零被标记为已售罄）
+        List<CartItemAddDTO> items = List.of(new CartItemAddDTO(1001L, 2), new CartItemAddDTO(1002L, 1));
+        Product soldOutProduct = new Product();
+        soldOutProduct.setProductId(1002L);
+        soldOutProduct.setSellerId(2L);
+        soldOutProduct.setTitle("售罄商品");
+        soldOutProduct.setStock(0);
+        soldOutProduct.setStatus(ProductStatusEnum.SOLD_OUT);
+        when(productMapper.reserveStockBatch(items)).thenReturn(2);
+        when(productMapper.markSoldOutByIds(List.of(1001L, 1002L))).thenReturn(1);
+        when(productMapper.selectBatchIds(List.of(1001L, 1002L))).thenReturn(List.of(testProduct, soldOutProduct));
+
+        // 2. 执行测试方法
+        Integer result = productService.reserveStockBatch(items);
+
+        // 3. 验证结果
+        assertEquals(2, result);
+
+        // 4. 验证依赖调用（缓存一次批量清除，售罄商品发送状态事件，其余发送更新事件）
+        verify(productMapper, times(1)).markSoldOutByIds(List.of(1001L, 1002L));
+        verify(redisTemplate, times(1)).delete(List.of("product:info:1001", "product:info:1002"));
+        verify(rabbitTemplate, times(1)).convertAndSend(eq("product.topic"), eq("product.update"),
+                argThat((ProductEventDTO event) -> event.getProductId().equals(1001L)));
+        verify(rabbitTemplate, times(1)).convertAndSend(eq("product.topic"), eq("product.status"),
+                argThat((ProductEventDTO event) -> event.getProductId().equals(1002L)));
+    }
+
+    /**
+     * 测试批量预占库存 - 失败场景（部分商品库存不足，不标记售罄也不发送事件）
+     */
+    @Test
+    void testReserveStockBatch_Fail_Insufficient() {
+        // 1. 模拟依赖行为（两件商品仅一件扣减成功）
+        List<CartItemAddDTO> items = List.of(new CartItemAddDTO(1001L, 2), new CartItemAddDTO(1002L, 1));
+        when(productMapper.reserveStockBatch(items)).thenReturn(1);
+
+        // 2. 执行测试方法并捕获异常
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> productService.reserveStockBatch(items));
+
+        // 3. 验证结果
+        assertEquals(ProductErrorCode.PRODUCT_STOCK_INSUFFICIENT, exception.getErrorCode());
+        verify(productMapper, never()).markSoldOutByIds(anyCollection());
+        verify(rabbitTemplate, never()).convertAndSend(anyString(), anyString(), any(Object.class));
+    }
+
     /**
      * 测试商品状态更新功能 - 成功场景（管理员下架商品）
      */
@@ -598,6 +675,197 @@ public class ProductServiceTest {
         verify(productMapper, never()).selectByQuery(any(ProductQueryDTO.class));
     }
 
+    /**
+     * 测试商品搜索功能 - 成功场景（浏览查询由筛选索引应答，按主键加载当前页）
+     */
+    @Test
+    void testQueryProducts_Success_FromFilterIndex() {
+        // 1. 准备测试数据（浏览查询：无关键词）
+        testQueryDTO.setKeyword(null);
+        ProductListItemDTO listItemDTO = new ProductListItemDTO();
+        BeanUtils.copyProperties(testProduct, listItemDTO);
+
+        // 2. 模拟依赖行为
+        when(productFilterIndex.supports(testQueryDTO)).thenReturn(true);
+        when(productFilterIndex.query(testQueryDTO, 0, 10))
+                .thenReturn(new ProductFilterIndex.IndexPage(11L, Collections.singletonList(1001L)));
+        when(productMapper.selectBatchIds(Collections.singletonList(1001L))).thenReturn(Arrays.asList(testProduct));
+        when(productConvert.productToProductListItemDTO(testProduct)).thenReturn(listItemDTO);
+
+        // 3. 执行测试方法
+        PageResult<ProductListItemDTO> result = productService.queryProducts(testQueryDTO);
+
+        // 4. 验证结果
+        assertEquals(11L, result.getTotal());
+        assertEquals(2L, result.getTotalPages());
+        assertEquals(1, result.getList().size());
+        assertEquals(testProduct.getTitle(), result.getList().get(0).getTitle());
+
+        // 5. 验证依赖调用（不访问缓存与数据库筛选）
+        verify(valueOperations, never()).get(anyString());
+        verify(productMapper, never()).countByQuery(any(ProductQueryDTO.class));
+        verify(productMapper, never()).selectByQuery(any(ProductQueryDTO.class));
+    }
+
+    /**
+     * 测试分面搜索功能 - 成功场景（浏览查询的分面计数由筛选索引应答）
+     */
+    @Test
+    void testSearchProductsWithFacets_Success_FromFilterIndex() {
+        // 1. 准备测试数据（浏览查询：无关键词）
+        testQueryDTO.setKeyword(null);
+        Map<String, Long> categories = new LinkedHashMap<>();
+        categories.put("二手手机", 8L);
+        categories.put("数码产品", 3L);
+        Map<ProductConditionEnum, Long> conditions = new EnumMap<>(ProductConditionEnum.class);
+        conditions.put(ProductConditionEnum.NEW, 2L);
+        Map<ProductPriceRangeEnum, Long> priceRanges = new EnumMap<>(ProductPriceRangeEnum.class);
+        priceRanges.put(ProductPriceRangeEnum.FROM_100_TO_500, 5L);
+        priceRanges.put(ProductPriceRangeEnum.OVER_5000, 1L);
+
+        // 2. 模拟依赖行为
+        when(productFilterIndex.supports(testQueryDTO)).thenReturn(true);
+        when(productFilterIndex.supportsFacets(testQueryDTO)).thenReturn(true);
+        when(productFilterIndex.query(testQueryDTO, 0, 10))
+                .thenReturn(new ProductFilterIndex.IndexPage(0L, Collections.emptyList()));
+        when(productFilterIndex.facets(testQueryDTO))
+                .thenReturn(new ProductFilterIndex.FacetCounts(categories, conditions, priceRanges));
+
+        // 3. 执行测试方法
+        ProductFacetSearchResultDTO result = productService.searchProductsWithFacets(testQueryDTO);
+
+        // 4. 验证结果
+        assertEquals(0L, result.getPage().getTotal());
+        assertEquals(2, result.getCategoryFacets().size());
+        assertEquals("二手手机", result.getCategoryFacets().get(0).getValue());
+        assertEquals(8L, result.getCategoryFacets().get(0).getCount());
+        assertEquals("全新", result.getConditionFacets().get(0).getLabel());
+        ProductFacetCountDTO priceRangeFacet = result.getPriceRangeFacets().get(0);
+        assertEquals(ProductPriceRangeEnum.FROM_100_TO_500.getCode(), priceRangeFacet.getValue());
+        assertEquals(new BigDecimal("100.00"), priceRangeFacet.getMinPrice());
+        assertEquals(new BigDecimal("499.99"), priceRangeFacet.getMaxPrice());
+        assertNull(result.getPriceRangeFacets().get(1).getMaxPrice(), "末档价格区间无上限");
+
+        // 5. 验证依赖调用（不访问数据库分组计数）
+        verify(productMapper, never()).countGroupByCategory(any(ProductQueryDTO.class));
+        verify(productMapper, never()).countGroupByCondition(any(ProductQueryDTO.class));
+    }
+
+    /**
+     * 测试分面搜索功能 - 关键词搜索时每个维度一次数据库分组计数
+     */
+    @Test
+    void testSearchProductsWithFacets_Success_KeywordFromDb() {
+        // 1. 准备测试数据
+        ProductFacetCountDTO categoryFacet = new ProductFacetCountDTO();
+        categoryFacet.setValue("二手手机");
+        categoryFacet.setCount(4L);
+        ProductFacetCountDTO conditionFacet = new ProductFacetCountDTO();
+        conditionFacet.setValue(ProductConditionEnum.USED.getCode());
+        conditionFacet.setCount(3L);
+        ProductFacetCountDTO priceRangeFacet = new ProductFacetCountDTO();
+        priceRangeFacet.setValue(ProductPriceRangeEnum.FROM_1000_TO_3000.getCode());
+        priceRangeFacet.setCount(2L);
+
+        // 2. 模拟依赖行为（缓存未命中，关键词搜索走数据库）
+        when(productMapper.countByQuery(testQueryDTO)).thenReturn(0);
+        when(productMapper.selectByQuery(testQueryDTO)).thenReturn(Collections.emptyList());
+        when(productMapper.countGroupByCategory(testQueryDTO)).thenReturn(Arrays.asList(categoryFacet));
+        when(productMapper.countGroupByCondition(testQueryDTO)).thenReturn(Arrays.asList(conditionFacet));
+        when(productMapper.countGroupByPriceRange(eq(testQueryDTO), any())).thenReturn(Arrays.asList(priceRangeFacet));
+
+        // 3. 执行测试方法
+        ProductFacetSearchResultDTO result = productService.searchProductsWithFacets(testQueryDTO);
+
+        // 4. 验证结果（成色与价格区间返回全部取值，未命中的计数为0）
+        assertEquals(1, result.getCategoryFacets().size());
+        assertEquals(4L, result.getCategoryFacets().get(0).getCount());
+        assertEquals(ProductConditionEnum.values().length, result.getConditionFacets().size());
+        assertEquals(3L, result.getConditionFacets().stream()
+                .filter(facet -> ProductConditionEnum.USED.getCode().equals(facet.getValue()))
+                .findFirst().orElseThrow().getCount());
+        assertEquals(ProductPriceRangeEnum.values().length, result.getPriceRangeFacets().size());
+        assertEquals(0L, result.getPriceRangeFacets().get(0).getCount());
+
+        // 5. 验证依赖调用
+        verify(productFilterIndex, never()).facets(any(ProductQueryDTO.class));
+        verify(productMapper, times(1)).countGroupByCategory(testQueryDTO);
+    }
+
+    /**
+     * 测试刷新筛选索引 - 商品已下架时从索引移除
+     */
+    @Test
+    void testRefreshFilterIndex_OffShelf_Removed() {
+        // 1. 模拟依赖行为
+        testProduct.setStatus(ProductStatusEnum.OFF_SHELF);
+        when(productMapper.selectById(1001L)).thenReturn(testProduct);
+
+        // 2. 执行测试方法
+        productService.refreshFilterIndex(1001L);
+
+        // 3. 验证依赖调用
+        verify(productFilterIndex, times(1)).remove(1001L);
+        verify(productFilterIndex, never()).upsert(any(Product.class));
+    }
+
+    /**
+     * 测试商品标题补全 - 索引就绪时按上限10条查询补全索引，未就绪时返回空列表
+     */
+    @Test
+    void testSuggestProducts_LimitCappedAndNotReady() {
+        // 1. 索引就绪：请求50条按上限10条查询
+        when(productAutocompleteIndex.isReady()).thenReturn(true);
+        when(productAutocompleteIndex.suggest("iphone", 10)).thenReturn(Collections.emptyList());
+        assertTrue(productService.suggestProducts("iphone", 50).isEmpty());
+        verify(productAutocompleteIndex, times(1)).suggest("iphone", 10);
+
+        // 2. 索引未就绪：不查询索引，直接返回空列表
+        when(productAutocompleteIndex.isReady()).thenReturn(false);
+        assertTrue(productService.suggestProducts("ip", 5).isEmpty());
+        verify(productAutocompleteIndex, never()).suggest(eq("ip"), anyInt());
+    }
+
+    /**
+     * 测试刷新补全索引 - 在售商品按最新标题与热度写入，非在售商品从索引移除
+     */
+    @Test
+    void testRefreshAutocompleteIndex_UpsertAndRemove() {
+        // 1. 模拟依赖行为（商品1001在售，商品1002已下架）
+        when(productMapper.selectOnSaleSuggestionById(1001L)).thenReturn(new SuggestionDTO(1001L, "测试商品", 25L));
+        when(productMapper.selectOnSaleSuggestionById(1002L)).thenReturn(null);
+
+        // 2. 执行测试方法
+        productService.refreshAutocompleteIndex(1001L);
+        productService.refreshAutocompleteIndex(1002L);
+
+        // 3. 验证依赖调用
+        verify(productAutocompleteIndex, times(1)).upsert(1001L, "测试商品", 25L);
+        verify(productAutocompleteIndex, times(1)).remove(1002L);
+    }
+
+    /**
+     * 测试批量刷新索引 - 一次查询整批商品，在售商品写入，查不到的商品从索引移除
+     */
+    @Test
+    void testRefreshIndexBatch_OneQueryPerBatch() {
+        // 1. 模拟依赖行为（商品1001在售，商品1002不存在或非在售）
+        when(productMapper.selectBatchIds(List.of(1001L, 1002L))).thenReturn(List.of(testProduct));
+        when(productMapper.selectOnSaleSuggestionByIds(List.of(1001L, 1002L)))
+                .thenReturn(List.of(new SuggestionDTO(1001L, "测试商品", 0L)));
+
+        // 2. 执行测试方法
+        productService.refreshFilterIndexBatch(List.of(1001L, 1002L));
+        productService.refreshAutocompleteIndexBatch(List.of(1001L, 1002L));
+
+        // 3. 验证依赖调用
+        verify(productFilterIndex, times(1)).upsert(testProduct);
+        verify(productFilterIndex, times(1)).remove(1002L);
+        verify(productAutocompleteIndex, times(1)).upsert(1001L, "测试商品", 0L);
+        verify(productAutocompleteIndex, times(1)).remove(1002L);
+        verify(productMapper, never()).selectById(any());
+    }
+
     /**
      * 测试卖家商品查询功能 - 成功场景
      */
@@ -666,21 +934,46 @@ public class ProductServiceTest {
             BeanUtils.copyProperties(testProduct, dto);
             return dto;
         });
+        SimilarProductDTO similarProductDTO = new SimilarProductDTO();
+        similarProductDTO.setProductId(1002L);
+        when(similarProductService.getSimilarProducts(1001L, testProduct.getCategory())).thenReturn(List.of(similarProductDTO));
 
         // 2. 执行测试方法
-        ProductDetailDTO result = productService.getProductDetail(1001L);
+        ProductDetailDTO result = productService.getProductDetail(1001L, "user:1");
 
-        // 3. 验证结果
+        // 3. 验证结果（相似商品在写入详情缓存后填充）
         assertNotNull(result);
         assertEquals(testProduct.getProductId(), result.getProductId());
         assertEquals(testProduct.getTitle(), result.getTitle());
         assertEquals(ProductStatusEnum.ON_SALE, result.getStatus());
+        assertEquals(1002L, result.getSimilarProducts().get(0).getProductId());
 
         // 4. 验证依赖调用
         verify(redisTemplate, times(2)).opsForValue();
         verify(valueOperations, times(1)).get(anyString());
         verify(productMapper, times(1)).selectById(1001L);
         verify(valueOperations, times(1)).set(anyString(), any(), any(Duration.class));
+        verify(productViewService, times(1)).recordView(1001L, "user:1");
+    }
+
+    /**
+     * 测试商品详情查询功能 - 成功场景（缓存命中仍记录浏览，不查询数据库）
+     */
+    @Test
+    void testGetProductDetail_Success_CacheHit_RecordsView() {
+        // 1. 模拟依赖行为（缓存命中）
+        ProductDetailDTO cachedDTO = new ProductDetailDTO();
+        cachedDTO.setProductId(1001L);
+        cachedDTO.setCategory(testProduct.getCategory());
+        when(valueOperations.get("product:info:1001")).thenReturn(cachedDTO);
+
+        // 2. 执行测试方法
+        ProductDetailDTO result = productService.getProductDetail(1001L, "ip:127.0.0.1");
+
+        // 3. 验证结果
+        assertEquals(1001L, result.getProductId());
+        verify(productViewService, times(1)).recordView(1001L, "ip:127.0.0.1");
+        verify(productMapper, never()).selectById(anyLong());
     }
 
     /**
@@ -699,11 +992,12 @@ public class ProductServiceTest {
 
         // 3. 执行测试并验证异常
         BusinessException exception = assertThrows(BusinessException.class, () -> {
-            productService.getProductDetail(1001L);
+            productService.getProductDetail(1001L, "user:1");
         });
 
-        // 4. 验证结果
+        // 4. 验证结果（不可查看的商品不计浏览）
         assertEquals(ProductErrorCode.PRODUCT_ALREADY_OFF_SALE, exception.getErrorCode());
+        verify(productViewService, never()).recordView(anyLong(), anyString());
         verify(valueOperations, never()).set(anyString(), any(), anyLong(), any(TimeUnit.class));
     }
 
@@ -718,11 +1012,34 @@ public class ProductServiceTest {
 
         // 2. 执行测试并验证异常
         BusinessException exception = assertThrows(BusinessException.class, () -> {
-            productService.getProductDetail(9999L);
+            productService.getProductDetail(9999L, null);
         });
 
         // 3. 验证结果
         assertEquals(ProductErrorCode.PRODUCT_NOT_EXISTS, exception.getErrorCode());
         verify(valueOperations, never()).set(anyString(), any(), anyLong(), any(TimeUnit.class));
     }
-}
\ No newline at end of file
+
+    /**
+     * 测试商品导出功能 - 成功场景（按卖家与状态流式写出CSV）
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExportProducts_Success_StreamsCsv() throws Exception {
+        // 1. 模拟游标数据
+        Cursor<Product> cursor = mock(Cursor.class);
+        when(cursor.iterator()).thenReturn(List.of(testProduct).iterator());
+        when(productMapper.streamForExport(2L, ProductStatusEnum.ON_SALE)).thenReturn(cursor);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // 2. 执行测试方法
+        long rows = productService.exportProducts(2L, ProductStatusEnum.ON_SALE, response);
+
+        // 3. 验证结果（表头 + 1行数据，游标已关闭）
+        assertEquals(1, rows);
+        String[] lines = response.getContentAsString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].startsWith("1001,2,测试商品标题,二手手机,"));
+        verify(cursor, times(1)).close();
+    }
+}
@@ -0,0 +1,126 @@
+package xyz.graygoo401.trade.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.HyperLogLogOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.common.exception.error.SystemErrorCode;
+import xyz.graygoo401.trade.counter.ProductViewBuffer;
+import xyz.graygoo401.trade.dao.entity.Product;
+import xyz.graygoo401.trade.dao.mapper.ProductMapper;
+import xyz.graygoo401.trade.service.impl.ProductViewServiceImpl;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class ProductViewServiceTest {
+
+    // 真实内存缓冲（验证记录与落库的完整流转）
+    @Spy
+    private ProductViewBuffer productViewBuffer = new ProductViewBuffer();
+
+    // 模拟依赖组件
+    @Mock
+    private ProductMapper productMapper;
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+    @Mock
+    private HyperLogLogOperations<String, Object> hyperLogLogOperations;
+
+    // 注入测试目标服务
+    @InjectMocks
+    private ProductViewServiceImpl productViewService;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForHyperLogLog()).thenReturn(hyperLogLogOperations);
+    }
+
+    /**
+     * 测试落库 - 多次浏览合并为一条批量更新，访客按日Pipeline写入，再次落库无增量
+     */
+    @Test
+    void testFlushViews_MergesViewsIntoSingleBatchUpdate() {
+        // 1. 记录浏览（商品1浏览3次、2个访客，商品2浏览1次、无访客标识）
+        productViewService.recordView(1L, "user:1");
+        productViewService.recordView(1L, "user:1");
+        productViewService.recordView(1L, "ip:10.0.0.1");
+        productViewService.recordView(2L, null);
+
+        // 2. 执行落库
+        long flushed = productViewService.flushViews();
+
+        // 3. 验证结果
+        assertEquals(4, flushed);
+        verify(productMapper, times(1)).incrementViewCountBatch(Map.of(1L, 3L, 2L, 1L));
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+        assertEquals(0, productViewService.flushViews());
+        verify(productMapper, times(1)).incrementViewCountBatch(anyMap());
+    }
+
+    /**
+     * 测试落库 - 数据库更新失败时增量回填缓冲，下次落库重试
+     */
+    @Test
+    void testFlushViews_DatabaseFailure_RestoresDeltas() {
+        // 1. 首次落库失败
+        productViewService.recordView(1L, null);
+        productViewService.recordView(1L, null);
+        when(productMapper.incrementViewCountBatch(anyMap())).thenThrow(new RuntimeException("数据库连接失败")).thenReturn(1);
+        assertEquals(0, productViewService.flushViews());
+
+        // 2. 期间新增浏览后再次落库，增量合并重试
+        productViewService.recordView(1L, null);
+        assertEquals(3, productViewService.flushViews());
+        verify(productMapper, times(1)).incrementViewCountBatch(Map.of(1L, 3L));
+    }
+
+    /**
+     * 测试查询独立访客数 - 卖家查询自己的商品，按日期读取HyperLogLog
+     */
+    @Test
+    void testCountUniqueVisitors_Success() {
+        // 1. 模拟依赖行为
+        Product product = new Product();
+        product.setProductId(1L);
+        product.setSellerId(2L);
+        when(productMapper.selectById(1L)).thenReturn(product);
+        when(hyperLogLogOperations.size("product:uv:20240107:1")).thenReturn(42L);
+
+        // 2. 执行测试方法并验证结果
+        assertEquals(42L, productViewService.countUniqueVisitors(2L, 1L, LocalDate.of(2024, 1, 7)));
+    }
+
+    /**
+     * 测试查询独立访客数 - 非商品所属卖家无权查询
+     */
+    @Test
+    void testCountUniqueVisitors_NotOwner_PermissionDenied() {
+        // 1. 模拟依赖行为
+        Product product = new Product();
+        product.setProductId(1L);
+        product.setSellerId(2L);
+        when(productMapper.selectById(1L)).thenReturn(product);
+
+        // 2. 执行测试并验证异常
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> productViewService.countUniqueVisitors(3L, 1L, null));
+        assertEquals(SystemErrorCode.PERMISSION_DENIED, exception.getErrorCode());
+        verify(hyperLogLogOperations, never()).size(any(String[].class));
+    }
+}
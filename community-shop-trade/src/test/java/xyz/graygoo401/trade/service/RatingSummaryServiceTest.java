@@ -0,0 +1,191 @@
+package xyz.graygoo401.trade.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import xyz.graygoo401.api.trade.enums.RatingTargetTypeEnum;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.common.exception.error.SystemErrorCode;
+import xyz.graygoo401.trade.dao.entity.RatingSummary;
+import xyz.graygoo401.trade.dao.mapper.EvaluationMapper;
+import xyz.graygoo401.trade.dao.mapper.RatingSummaryMapper;
+import xyz.graygoo401.trade.service.impl.RatingSummaryServiceImpl;
+
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class RatingSummaryServiceTest {
+
+    // 模拟依赖组件
+    @Mock
+    private RatingSummaryMapper ratingSummaryMapper;
+    @Mock
+    private EvaluationMapper evaluationMapper;
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    // 注入测试目标服务
+    @InjectMocks
+    private RatingSummaryServiceImpl ratingSummaryService;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(anyString())).thenReturn(Collections.emptyMap());
+        when(redisTemplate.delete(anyString())).thenReturn(true);
+    }
+
+    /**
+     * 测试计入评价 - 卖家与商品汇总各原子+1，事务外立即清除缓存
+     */
+    @Test
+    void testAddRating_Success() {
+        // 1. 执行测试方法
+        ratingSummaryService.addRating(2L, 2001L, 5);
+
+        // 2. 验证依赖调用
+        verify(ratingSummaryMapper, times(1)).increaseRating(RatingTargetTypeEnum.SELLER, 2L, 5);
+        verify(ratingSummaryMapper, times(1)).increaseRating(RatingTargetTypeEnum.PRODUCT, 2001L, 5);
+        verify(redisTemplate, times(1)).delete(Arrays.asList("rating:summary:SELLER:2", "rating:summary:PRODUCT:2001"));
+    }
+
+    /**
+     * 测试计入评价 - 评分越界
+     */
+    @Test
+    void testAddRating_ScoreInvalid() {
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> ratingSummaryService.addRating(2L, 2001L, 6));
+
+        assertEquals(SystemErrorCode.PARAM_ERROR, exception.getErrorCode());
+        verify(ratingSummaryMapper, never()).increaseRating(any(), anyLong(), anyInt());
+    }
+
+    /**
+     * 测试查询汇总 - 缓存命中，不访问数据库
+     */
+    @Test
+    void testGetSummary_CacheHit() {
+        // 1. 模拟缓存（Jackson反序列化后数值类型为Integer）
+        Map<Object, Object> cached = new HashMap<>();
+        cached.put("count", 3);
+        cached.put("sum", 12);
+        cached.put("star3", 1);
+        cached.put("star4", 1);
+        cached.put("star5", 1);
+        when(hashOperations.entries("rating:summary:SELLER:2")).thenReturn(cached);
+
+        // 2. 执行测试方法
+        RatingSummary summary = ratingSummaryService.getSummary(RatingTargetTypeEnum.SELLER, 2L);
+
+        // 3. 验证结果
+        assertEquals(3, summary.getRatingCount());
+        assertEquals(12L, summary.getRatingSum());
+        assertEquals(0, summary.getStar1Count());
+        assertEquals(1, summary.getStar5Count());
+        verify(ratingSummaryMapper, never()).selectByTarget(any(), anyLong());
+    }
+
+    /**
+     * 测试查询汇总 - 缓存未命中且无汇总记录，返回空汇总并回填缓存
+     */
+    @Test
+    void testGetSummary_CacheMiss_EmptySummaryCached() {
+        // 1. 模拟汇总表无记录
+        when(ratingSummaryMapper.selectByTarget(RatingTargetTypeEnum.PRODUCT, 2001L)).thenReturn(null);
+
+        // 2. 执行测试方法
+        RatingSummary summary = ratingSummaryService.getSummary(RatingTargetTypeEnum.PRODUCT, 2001L);
+
+        // 3. 验证结果
+        assertEquals(0, summary.getRatingCount());
+        assertEquals(0L, summary.getRatingSum());
+        verify(hashOperations, times(1)).putAll(eq("rating:summary:PRODUCT:2001"), anyMap());
+        verify(redisTemplate, times(1)).expire(eq("rating:summary:PRODUCT:2001"), any(Duration.class));
+    }
+
+    /**
+     * 测试对账 - 校正不一致的汇总，清零已无有效评价的汇总，一致的汇总不写入
+     */
+    @Test
+    void testReconcile_FixesMismatchAndOrphan() {
+        // 1. 模拟实时聚合：卖家2有3条评价、卖家3有1条评价
+        RatingSummary actualSeller2 = buildSummary(null, 2L, 3, 12L);
+        RatingSummary actualSeller3 = buildSummary(null, 3L, 1, 5L);
+        when(ratingSummaryMapper.selectActualSummaries(eq(RatingTargetTypeEnum.SELLER), isNull(), isNull(), anyInt()))
+                .thenReturn(Arrays.asList(actualSeller2, actualSeller3));
+        when(ratingSummaryMapper.selectActualSummaries(eq(RatingTargetTypeEnum.SELLER), isNull(), eq(3L), anyInt()))
+                .thenReturn(Collections.emptyList());
+
+        // 2. 模拟已存储汇总：卖家2计数偏差、卖家3一致、卖家4已无评价但仍有计数
+        RatingSummary storedSeller2 = buildSummary(RatingTargetTypeEnum.SELLER, 2L, 2, 8L);
+        RatingSummary storedSeller3 = buildSummary(RatingTargetTypeEnum.SELLER, 3L, 1, 5L);
+        RatingSummary storedSeller4 = buildSummary(RatingTargetTypeEnum.SELLER, 4L, 1, 4L);
+        when(ratingSummaryMapper.selectStoredSummaries(eq(RatingTargetTypeEnum.SELLER), eq(Arrays.asList(2L, 3L)), isNull(), anyInt()))
+                .thenReturn(Arrays.asList(storedSeller2, storedSeller3));
+        when(ratingSummaryMapper.selectStoredSummaries(eq(RatingTargetTypeEnum.SELLER), isNull(), isNull(), anyInt()))
+                .thenReturn(Arrays.asList(storedSeller2, storedSeller3, storedSeller4));
+        when(ratingSummaryMapper.selectStoredSummaries(eq(RatingTargetTypeEnum.SELLER), isNull(), eq(4L), anyInt()))
+                .thenReturn(Collections.emptyList());
+        when(ratingSummaryMapper.selectActualSummaries(eq(RatingTargetTypeEnum.SELLER), eq(Arrays.asList(2L, 3L, 4L)), isNull(), anyInt()))
+                .thenReturn(Arrays.asList(actualSeller2, actualSeller3));
+
+        // 3. 执行测试方法
+        int fixed = ratingSummaryService.reconcile(RatingTargetTypeEnum.SELLER);
+
+        // 4. 验证结果（卖家2校正、卖家4清零）
+        assertEquals(2, fixed);
+        verify(ratingSummaryMapper, times(1)).overwrite(argThat(summary ->
+                summary.getTargetId().equals(2L) && summary.getRatingCount() == 3));
+        verify(ratingSummaryMapper, times(1)).overwrite(argThat(summary ->
+                summary.getTargetId().equals(4L) && summary.getRatingCount() == 0));
+        verify(ratingSummaryMapper, never()).overwrite(argThat(summary -> summary.getTargetId().equals(3L)));
+        verify(redisTemplate, times(1)).delete("rating:summary:SELLER:2");
+        verify(redisTemplate, times(1)).delete("rating:summary:SELLER:4");
+    }
+
+    /**
+     * 测试对账 - 历史评价商品ID未回填完成时跳过商品维度对账，不读取聚合结果也不写入
+     */
+    @Test
+    void testReconcile_ProductBeforeBackfill_Skipped() {
+        // 1. 模拟仍有未回填商品ID的评价
+        when(evaluationMapper.selectIdsMissingProductId(isNull(), anyInt())).thenReturn(Collections.singletonList(7L));
+
+        // 2. 执行测试方法并验证结果
+        assertEquals(0, ratingSummaryService.reconcile(RatingTargetTypeEnum.PRODUCT));
+        verify(ratingSummaryMapper, never()).selectActualSummaries(any(), any(), any(), anyInt());
+        verify(ratingSummaryMapper, never()).overwrite(any());
+
+        // 3. 卖家维度不依赖商品ID，照常对账
+        ratingSummaryService.reconcile(RatingTargetTypeEnum.SELLER);
+        verify(ratingSummaryMapper, atLeastOnce()).selectActualSummaries(eq(RatingTargetTypeEnum.SELLER), any(), any(), anyInt());
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 构建评分汇总（仅设置评价数与评分总和，足以区分对账比对结果）
+     */
+    private RatingSummary buildSummary(RatingTargetTypeEnum targetType, Long targetId, int count, long sum) {
+        RatingSummary summary = RatingSummary.empty(targetType, targetId);
+        summary.setRatingCount(count);
+        summary.setRatingSum(sum);
+        return summary;
+    }
+}
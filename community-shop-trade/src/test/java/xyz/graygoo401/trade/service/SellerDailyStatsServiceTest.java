@@ -0,0 +1,329 @@
+package xyz.graygoo401.trade.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.test.autoconfigure.MybatisPlusTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import xyz.graygoo401.api.trade.dto.order.SellerDailyStatsDTO;
+import xyz.graygoo401.api.trade.dto.order.SellerSalesSummaryDTO;
+import xyz.graygoo401.api.trade.enums.EvaluationStatusEnum;
+import xyz.graygoo401.api.trade.enums.OrderStatusEnum;
+import xyz.graygoo401.api.trade.enums.PayTypeEnum;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.common.exception.error.SystemErrorCode;
+import xyz.graygoo401.trade.dao.entity.Evaluation;
+import xyz.graygoo401.trade.dao.entity.Order;
+import xyz.graygoo401.trade.dao.entity.SellerDailyStats;
+import xyz.graygoo401.trade.dao.mapper.EvaluationMapper;
+import xyz.graygoo401.trade.dao.mapper.OrderMapper;
+import xyz.graygoo401.trade.dao.mapper.ProductMapper;
+import xyz.graygoo401.trade.dao.mapper.SellerDailyStatsMapper;
+import xyz.graygoo401.trade.service.impl.SellerDailyStatsServiceImpl;
+import xyz.graygoo401.trade.statemachine.OrderStateMachine;
+import xyz.graygoo401.trade.statemachine.OrderTransitionEnum;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SellerDailyStatsService测试（H2内存库）
+ * 随机生成订单与评价，订单经真实状态机流转（支付、取消、发货、收货、退货）增量维护日统计，
+ * 评价按EvaluationServiceImpl的方式在写入后计入/移除，最后与直接扫描order、evaluation表的暴力聚合逐日比对；
+ * 回填在人为损坏统计后应全部校正，且重复执行不再修改任何记录
+ * 测试方法在测试事务内执行，插入的数据随事务回滚
+ */
+@MybatisPlusTest  // 仅加载MyBatis相关Bean，轻量化测试
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)  // 禁用默认数据库替换，使用H2配置
+@ActiveProfiles("test")  // 启用test环境配置
+public class SellerDailyStatsServiceTest {
+
+    private static final long[] SELLER_IDS = {2L, 3L, 4L}; // 卖家（均为data-common.sql中的用户，满足外键）
+    private static final long BUYER_ID = 1L; // 买家
+    private static final long PRODUCT_ID = 1L; // 在售商品
+    private static final int ORDER_COUNT = 300; // 随机订单数
+    private static final int EVAL_DAYS = 4; // 评价时间分布在最近几天
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private EvaluationMapper evaluationMapper;
+
+    @Autowired
+    private SellerDailyStatsMapper sellerDailyStatsMapper;
+
+    private SellerDailyStatsServiceImpl sellerDailyStatsService;
+    private OrderStateMachine orderStateMachine;
+
+    @BeforeEach
+    void setUp() {
+        sellerDailyStatsService = new SellerDailyStatsServiceImpl();
+        ReflectionTestUtils.setField(sellerDailyStatsService, "sellerDailyStatsMapper", sellerDailyStatsMapper);
+
+        // 状态机使用真实Mapper与销售统计服务，缓存与MQ使用模拟对象
+        orderStateMachine = new OrderStateMachine();
+        ReflectionTestUtils.setField(orderStateMachine, "orderMapper", orderMapper);
+        ReflectionTestUtils.setField(orderStateMachine, "productMapper", productMapper);
+        ReflectionTestUtils.setField(orderStateMachine, "redisTemplate", Mockito.mock(RedisTemplate.class));
+        ReflectionTestUtils.setField(orderStateMachine, "rabbitTemplate", Mockito.mock(RabbitTemplate.class));
+        ReflectionTestUtils.setField(orderStateMachine, "sellerDailyStatsService", sellerDailyStatsService);
+    }
+
+    /**
+     * 增量维护与暴力聚合一致；损坏统计后回填校正，重复回填幂等
+     */
+    @Test
+    void incrementalAndBackfill_randomWorkload_matchBruteForce() {
+        Random random = new Random(20240107L);
+        LocalDate today = LocalDate.now();
+        LocalDate startDate = today.minusDays(EVAL_DAYS + 2);
+        LocalDate endDate = today.plusDays(1); // 覆盖执行期间跨越零点
+
+        // 1. 随机订单：经状态机流转，增量维护日统计
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < ORDER_COUNT; i++) {
+            Order order = buildPendingOrder(i, SELLER_IDS[random.nextInt(SELLER_IDS.length)],
+                    BigDecimal.valueOf(1 + random.nextInt(100000), 2));
+            orderMapper.insert(order);
+            orderIds.add(order.getOrderId());
+            runRandomTransitions(order, random);
+        }
+
+        // 2. 随机评价：写入后计入，部分修改评分、删除
+        for (Long orderId : orderIds) {
+            Order order = orderMapper.selectById(orderId);
+            if (order.getPayTime() == null || random.nextInt(3) == 0) {
+                continue;
+            }
+            Evaluation evaluation = new Evaluation();
+            evaluation.setOrderId(orderId);
+            evaluation.setUserId(BUYER_ID);
+            evaluation.setEvaluateeId(order.getSellerId());
+            evaluation.setProductId(order.getProductId());
+            evaluation.setScore(1 + random.nextInt(5));
+            evaluation.setStatus(EvaluationStatusEnum.NORMAL);
+            evaluation.setCreateTime(today.minusDays(random.nextInt(EVAL_DAYS)).atTime(random.nextInt(24), random.nextInt(60)));
+            evaluationMapper.insert(evaluation);
+            sellerDailyStatsService.addRating(evaluation.getEvaluateeId(), evaluation.getCreateTime(), evaluation.getScore());
+
+            int action = random.nextInt(5);
+            if (action == 0) {
+                int oldScore = evaluation.getScore();
+                evaluation.setScore(1 + random.nextInt(5));
+                evaluationMapper.updateById(evaluation);
+                sellerDailyStatsService.removeRating(evaluation.getEvaluateeId(), evaluation.getCreateTime(), oldScore);
+                sellerDailyStatsService.addRating(evaluation.getEvaluateeId(), evaluation.getCreateTime(), evaluation.getScore());
+            } else if (action == 1) {
+                evaluationMapper.deleteById(evaluation.getEvalId());
+                sellerDailyStatsService.removeRating(evaluation.getEvaluateeId(), evaluation.getCreateTime(), evaluation.getScore());
+            }
+        }
+
+        // 3. 增量结果与本测试数据的暴力聚合一致
+        assertStatsMatch(bruteForce(startDate, endDate, new HashSet<>(orderIds)), startDate, endDate);
+
+        // 4. 回填后与全表暴力聚合一致（包含其他测试已提交的数据）
+        sellerDailyStatsService.backfill(startDate, endDate);
+        Map<Long, Map<LocalDate, SellerDailyStats>> expected = bruteForce(startDate, endDate, null);
+        assertStatsMatch(expected, startDate, endDate);
+
+        // 5. 人为损坏：篡改一条统计、写入一条无源数据的统计，回填恰好校正这两条
+        SellerDailyStats corrupted = SellerDailyStats.empty(SELLER_IDS[0], today);
+        corrupted.setOrderCount(9999);
+        corrupted.setGmv(new BigDecimal("1.00"));
+        sellerDailyStatsMapper.overwrite(corrupted);
+        SellerDailyStats orphan = SellerDailyStats.empty(SELLER_IDS[1], startDate);
+        orphan.setRatingCount(3);
+        orphan.setRatingSum(12L);
+        sellerDailyStatsMapper.overwrite(orphan);
+        assertEquals(2, sellerDailyStatsService.backfill(startDate, endDate));
+        assertStatsMatch(expected, startDate, endDate);
+
+        // 6. 重复回填不再修改任何记录
+        assertEquals(0, sellerDailyStatsService.backfill(startDate, endDate));
+        assertStatsMatch(expected, startDate, endDate);
+    }
+
+    /**
+     * 汇总口径：各指标为日统计之和，平均评分为评分总和/评价数（保留1位小数），缺失日期补0
+     */
+    @Test
+    void listAndSummary_sparseDays_fillZerosAndWeightAverage() {
+        LocalDate day1 = LocalDate.of(2030, 3, 1);
+        LocalDate day3 = day1.plusDays(2);
+        SellerDailyStats stats1 = SellerDailyStats.empty(4L, day1);
+        stats1.setOrderCount(2);
+        stats1.setGmv(new BigDecimal("150.00"));
+        stats1.setRatingCount(1);
+        stats1.setRatingSum(5L);
+        sellerDailyStatsMapper.overwrite(stats1);
+        SellerDailyStats stats3 = SellerDailyStats.empty(4L, day3);
+        stats3.setOrderCount(1);
+        stats3.setGmv(new BigDecimal("50.00"));
+        stats3.setRefundCount(1);
+        stats3.setRefundAmount(new BigDecimal("50.00"));
+        stats3.setRatingCount(2);
+        stats3.setRatingSum(4L);
+        sellerDailyStatsMapper.overwrite(stats3);
+
+        // 1. 逐日统计：3天均返回，中间一天为0
+        List<SellerDailyStatsDTO> dailyList = sellerDailyStatsService.listDailyStats(4L, day1, day3);
+        assertEquals(3, dailyList.size());
+        assertEquals(day1.plusDays(1), dailyList.get(1).getStatDate());
+        assertEquals(0, dailyList.get(1).getOrderCount());
+        assertEquals(0.0, dailyList.get(1).getAverageRating());
+        assertEquals(2.0, dailyList.get(2).getAverageRating());
+
+        // 2. 汇总：平均评分按(5+4)/3计算，而非日均分(5.0+2.0)/2
+        SellerSalesSummaryDTO summary = sellerDailyStatsService.getSalesSummary(4L, day1, day3);
+        assertEquals(3, summary.getOrderCount());
+        assertEquals(0, new BigDecimal("200.00").compareTo(summary.getGmv()));
+        assertEquals(1, summary.getRefundCount());
+        assertEquals(0, new BigDecimal("50.00").compareTo(summary.getRefundAmount()));
+        assertEquals(3, summary.getRatingCount());
+        assertEquals(3.0, summary.getAverageRating());
+    }
+
+    /**
+     * 参数校验：日期为空、开始晚于结束、超过366天
+     */
+    @Test
+    void listDailyStats_invalidRange_throws() {
+        LocalDate day = LocalDate.of(2030, 3, 1);
+        BusinessException nullDate = assertThrows(BusinessException.class,
+                () -> sellerDailyStatsService.listDailyStats(2L, null, day));
+        assertEquals(SystemErrorCode.PARAM_NULL, nullDate.getErrorCode());
+        BusinessException reversed = assertThrows(BusinessException.class,
+                () -> sellerDailyStatsService.getSalesSummary(2L, day, day.minusDays(1)));
+        assertEquals(SystemErrorCode.PARAM_ERROR, reversed.getErrorCode());
+        BusinessException tooLong = assertThrows(BusinessException.class,
+                () -> sellerDailyStatsService.listDailyStats(2L, day, day.plusDays(366)));
+        assertEquals(SystemErrorCode.PARAM_ERROR, tooLong.getErrorCode());
+        assertEquals(366, sellerDailyStatsService.listDailyStats(2L, day, day.plusDays(365)).size());
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    /**
+     * 随机推进订单状态：待支付→取消/支付→发货→收货/退货（部分订单停留在中间状态）
+     */
+    private void runRandomTransitions(Order order, Random random) {
+        if (random.nextInt(5) == 0) {
+            orderStateMachine.fire(order, OrderTransitionEnum.CANCEL, BUYER_ID, false);
+            return;
+        }
+        if (random.nextInt(6) == 0) {
+            return;
+        }
+        orderStateMachine.fire(order, OrderTransitionEnum.PAY, null, false);
+        if (random.nextInt(4) == 0) {
+            return;
+        }
+        orderStateMachine.fire(order, OrderTransitionEnum.SHIP, order.getSellerId(), false);
+        if (random.nextInt(3) == 0) {
+            orderStateMachine.fire(order, OrderTransitionEnum.RETURN, BUYER_ID, false);
+        } else if (random.nextBoolean()) {
+            orderStateMachine.fire(order, OrderTransitionEnum.CONFIRM_RECEIVE, BUYER_ID, false);
+        }
+    }
+
+    /**
+     * 暴力聚合：直接扫描order、evaluation表按卖家与日期累加
+     * @param orderIds 限定订单ID（为null时不限定，评价同样按其订单限定）
+     */
+    private Map<Long, Map<LocalDate, SellerDailyStats>> bruteForce(LocalDate startDate, LocalDate endDate, Set<Long> orderIds) {
+        Map<Long, Map<LocalDate, SellerDailyStats>> result = new HashMap<>();
+        LocalDateTime start = startDate.atStartOfDay();
+        LocalDateTime end = endDate.plusDays(1).atStartOfDay();
+
+        for (Order order : orderMapper.selectList(new LambdaQueryWrapper<Order>()
+                .ge(Order::getPayTime, start).lt(Order::getPayTime, end))) {
+            if (orderIds != null && !orderIds.contains(order.getOrderId())) {
+                continue;
+            }
+            SellerDailyStats stats = statsOf(result, order.getSellerId(), order.getPayTime().toLocalDate());
+            stats.setOrderCount(stats.getOrderCount() + 1);
+            stats.setGmv(stats.getGmv().add(order.getTotalAmount()));
+            if (order.getStatus() == OrderStatusEnum.RETURNED || order.getStatus() == OrderStatusEnum.REFUNDED) {
+                stats.setRefundCount(stats.getRefundCount() + 1);
+                stats.setRefundAmount(stats.getRefundAmount().add(order.getTotalAmount()));
+            }
+        }
+        for (Evaluation evaluation : evaluationMapper.selectList(new LambdaQueryWrapper<Evaluation>()
+                .eq(Evaluation::getStatus, EvaluationStatusEnum.NORMAL)
+                .ge(Evaluation::getCreateTime, start).lt(Evaluation::getCreateTime, end))) {
+            if (orderIds != null && !orderIds.contains(evaluation.getOrderId())) {
+                continue;
+            }
+            SellerDailyStats stats = statsOf(result, evaluation.getEvaluateeId(), evaluation.getCreateTime().toLocalDate());
+            stats.setRatingCount(stats.getRatingCount() + 1);
+            stats.setRatingSum(stats.getRatingSum() + evaluation.getScore());
+        }
+        return result;
+    }
+
+    private SellerDailyStats statsOf(Map<Long, Map<LocalDate, SellerDailyStats>> result, Long sellerId, LocalDate date) {
+        return result.computeIfAbsent(sellerId, k -> new HashMap<>())
+                .computeIfAbsent(date, k -> SellerDailyStats.empty(sellerId, date));
+    }
+
+    /**
+     * 逐卖家、逐日比对查询结果与期望值，并校验汇总等于逐日之和
+     */
+    private void assertStatsMatch(Map<Long, Map<LocalDate, SellerDailyStats>> expected, LocalDate startDate, LocalDate endDate) {
+        Set<Long> sellerIds = new TreeSet<>(expected.keySet());
+        Arrays.stream(SELLER_IDS).forEach(sellerIds::add);
+        for (Long sellerId : sellerIds) {
+            Map<LocalDate, SellerDailyStats> expectedDays = expected.getOrDefault(sellerId, Collections.emptyMap());
+            int totalOrders = 0;
+            for (SellerDailyStatsDTO daily : sellerDailyStatsService.listDailyStats(sellerId, startDate, endDate)) {
+                SellerDailyStats want = expectedDays.getOrDefault(daily.getStatDate(),
+                        SellerDailyStats.empty(sellerId, daily.getStatDate()));
+                String key = "卖家" + sellerId + "，日期" + daily.getStatDate();
+                assertEquals(want.getOrderCount(), daily.getOrderCount(), key + "订单数");
+                assertEquals(0, want.getGmv().compareTo(daily.getGmv()), key + "成交额");
+                assertEquals(want.getRefundCount(), daily.getRefundCount(), key + "退款数");
+                assertEquals(0, want.getRefundAmount().compareTo(daily.getRefundAmount()), key + "退款额");
+                assertEquals(want.getRatingCount(), daily.getRatingCount(), key + "评价数");
+                double wantAverage = want.getRatingCount() == 0 ? 0.0
+                        : Math.round(want.getRatingSum() * 10.0 / want.getRatingCount()) / 10.0;
+                assertEquals(wantAverage, daily.getAverageRating(), key + "平均评分");
+                totalOrders += daily.getOrderCount();
+            }
+            assertEquals(totalOrders, sellerDailyStatsService.getSalesSummary(sellerId, startDate, endDate).getOrderCount());
+        }
+    }
+
+    private Order buildPendingOrder(int index, Long sellerId, BigDecimal amount) {
+        LocalDateTime now = LocalDateTime.now();
+        Order order = new Order();
+        order.setProductId(PRODUCT_ID);
+        order.setBuyerId(BUYER_ID);
+        order.setSellerId(sellerId);
+        order.setOrderNo("SDS" + System.nanoTime() + index);
+        order.setTotalAmount(amount);
+        order.setQuantity(1);
+        order.setReceiverName("test_buyer");
+        order.setAddress("北京市朝阳区");
+        order.setPhoneNumber("13800138000");
+        order.setStatus(OrderStatusEnum.PENDING_PAYMENT);
+        order.setPayType(PayTypeEnum.ALIPAY);
+        order.setCreateTime(now);
+        order.setPayExpireTime(now.plusMinutes(30));
+        return order;
+    }
+}
@@ -0,0 +1,164 @@
+package xyz.graygoo401.trade.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import xyz.graygoo401.api.trade.dto.product.ProductQueryDTO;
+import xyz.graygoo401.api.trade.dto.product.SimilarProductDTO;
+import xyz.graygoo401.api.trade.enums.ProductStatusEnum;
+import xyz.graygoo401.trade.convert.ProductConvert;
+import xyz.graygoo401.trade.dao.entity.Order;
+import xyz.graygoo401.trade.dao.entity.Product;
+import xyz.graygoo401.trade.dao.mapper.OrderMapper;
+import xyz.graygoo401.trade.dao.mapper.ProductMapper;
+import xyz.graygoo401.trade.index.ProductFilterIndex;
+import xyz.graygoo401.trade.service.impl.SimilarProductServiceImpl;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class SimilarProductServiceTest {
+
+    // 模拟依赖组件
+    @Mock
+    private ProductMapper productMapper;
+    @Mock
+    private OrderMapper orderMapper;
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+    @Mock
+    private ProductConvert productConvert;
+    @Mock
+    private ProductFilterIndex productFilterIndex;
+
+    // 注入测试目标服务
+    @InjectMocks
+    private SimilarProductServiceImpl similarProductService;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(productConvert.productToSimilarProductDTO(any(Product.class))).thenAnswer(invocation -> {
+            SimilarProductDTO dto = new SimilarProductDTO();
+            dto.setProductId(invocation.<Product>getArgument(0).getProductId());
+            return dto;
+        });
+    }
+
+    /**
+     * 测试查询相似商品 - 按预计算顺序返回，过滤已下架与已删除的商品
+     */
+    @Test
+    void testGetSimilarProducts_Cached_KeepsOrderAndFiltersOffSale() {
+        // 1. 模拟依赖行为（预计算3→2→4，商品2已下架，商品4已不存在）
+        when(valueOperations.get("product:similar:1")).thenReturn("3,2,4");
+        when(productMapper.selectBatchIds(List.of(3L, 2L, 4L))).thenReturn(Arrays.asList(
+                buildProduct(2L, ProductStatusEnum.OFF_SHELF), buildProduct(3L, ProductStatusEnum.ON_SALE)));
+
+        // 2. 执行测试方法
+        List<SimilarProductDTO> result = similarProductService.getSimilarProducts(1L, "数码产品");
+
+        // 3. 验证结果
+        assertEquals(List.of(3L), result.stream().map(SimilarProductDTO::getProductId).collect(Collectors.toList()));
+        verify(productFilterIndex, never()).query(any(), anyInt(), anyInt());
+    }
+
+    /**
+     * 测试查询相似商品 - 无预计算列表时按同类别最新在售商品兜底（排除自身）
+     */
+    @Test
+    void testGetSimilarProducts_NotCached_FallbackByCategory() {
+        // 1. 模拟依赖行为
+        when(valueOperations.get("product:similar:1")).thenReturn(null);
+        when(productFilterIndex.supports(any(ProductQueryDTO.class))).thenReturn(true);
+        when(productFilterIndex.query(any(ProductQueryDTO.class), eq(0), anyInt()))
+                .thenReturn(new ProductFilterIndex.IndexPage(3, List.of(5L, 1L, 6L)));
+        when(productMapper.selectBatchIds(List.of(5L, 6L))).thenReturn(Arrays.asList(
+                buildProduct(5L, ProductStatusEnum.ON_SALE), buildProduct(6L, ProductStatusEnum.ON_SALE)));
+
+        // 2. 执行测试方法
+        List<SimilarProductDTO> result = similarProductService.getSimilarProducts(1L, "数码产品");
+
+        // 3. 验证结果
+        assertEquals(List.of(5L, 6L), result.stream().map(SimilarProductDTO::getProductId).collect(Collectors.toList()));
+        verify(productFilterIndex, times(1)).query(argThat(query -> "数码产品".equals(query.getCategory())), eq(0), anyInt());
+    }
+
+    /**
+     * 测试查询相似商品 - Redis超时或异常时返回空列表，不向上抛出
+     */
+    @Test
+    void testGetSimilarProducts_SlowOrFailingRedis_ReturnsEmpty() {
+        // 1. Redis响应慢于耗时上限
+        when(valueOperations.get("product:similar:1")).thenAnswer(invocation -> {
+            Thread.sleep(500);
+            return "2";
+        });
+        long start = System.currentTimeMillis();
+        assertTrue(similarProductService.getSimilarProducts(1L, "数码产品").isEmpty());
+        assertTrue(System.currentTimeMillis() - start < 400, "超时后应立即返回");
+
+        // 2. Redis异常
+        when(valueOperations.get("product:similar:2")).thenThrow(new RuntimeException("Redis连接失败"));
+        assertTrue(similarProductService.getSimilarProducts(2L, "数码产品").isEmpty());
+    }
+
+    /**
+     * 测试全量重建 - 加载在售商品与已支付订单计算后分批写入Redis
+     */
+    @Test
+    void testRebuildSimilarProducts_Success() {
+        // 1. 模拟依赖行为（3件同类别在售商品，买家1共同购买商品1与3）
+        Product product1 = buildProduct(1L, ProductStatusEnum.ON_SALE);
+        Product product2 = buildProduct(2L, ProductStatusEnum.ON_SALE);
+        Product product3 = buildProduct(3L, ProductStatusEnum.ON_SALE);
+        when(productMapper.selectOnSaleForIndex(isNull(), anyInt())).thenReturn(Arrays.asList(product1, product2, product3));
+        when(productMapper.selectOnSaleForIndex(eq(3L), anyInt())).thenReturn(Collections.emptyList());
+        when(orderMapper.selectPurchasesForRecommend(isNull(), any(), anyInt()))
+                .thenReturn(Arrays.asList(buildOrder(11L, 1L, 1L), buildOrder(12L, 1L, 3L)));
+        when(orderMapper.selectPurchasesForRecommend(eq(12L), any(), anyInt())).thenReturn(Collections.emptyList());
+
+        // 2. 执行测试方法
+        int written = similarProductService.rebuildSimilarProducts();
+
+        // 3. 验证结果
+        assertEquals(3, written);
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    private Product buildProduct(Long productId, ProductStatusEnum status) {
+        Product product = new Product();
+        product.setProductId(productId);
+        product.setCategory("数码产品");
+        product.setPrice(new BigDecimal("100.00"));
+        product.setStatus(status);
+        return product;
+    }
+
+    private Order buildOrder(Long orderId, Long buyerId, Long productId) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setBuyerId(buyerId);
+        order.setProductId(productId);
+        return order;
+    }
+}
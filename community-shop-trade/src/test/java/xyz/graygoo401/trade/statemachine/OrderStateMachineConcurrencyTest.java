@@ -0,0 +1,173 @@
+package xyz.graygoo401.trade.statemachine;
+
+import com.baomidou.mybatisplus.test.autoconfigure.MybatisPlusTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import xyz.graygoo401.api.trade.enums.OrderStatusEnum;
+import xyz.graygoo401.api.trade.enums.PayTypeEnum;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.trade.dao.entity.Order;
+import xyz.graygoo401.trade.dao.mapper.OrderMapper;
+import xyz.graygoo401.trade.dao.mapper.ProductMapper;
+import xyz.graygoo401.trade.exception.error.OrderErrorCode;
+import xyz.graygoo401.trade.service.base.SellerDailyStatsService;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 订单状态机数据库并发测试（H2内存库）
+ * 多个线程各自读取同一待支付订单后同时触发支付与取消，条件更新在数据库行上比较并设置状态
+ * 校验每轮恰好一方成功、订单终态与成功方一致、库存只在取消成功时恢复一次
+ * 测试方法不开启事务（各语句自动提交），使并发线程的更新真正相互竞争，结束后清理插入的订单并还原库存
+ */
+@MybatisPlusTest  // 仅加载MyBatis相关Bean，轻量化测试
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)  // 禁用默认数据库替换，使用H2配置
+@ActiveProfiles("test")  // 启用test环境配置
+@Transactional(propagation = Propagation.NOT_SUPPORTED)  // 关闭测试事务，并发线程需读取已提交数据
+public class OrderStateMachineConcurrencyTest {
+
+    private static final int THREAD_COUNT = 8; // 每轮并发线程数（支付、取消各半）
+    private static final int ROUNDS = 30; // 竞争轮数
+    private static final long PRODUCT_ID = 1L; // data-product.sql中在售商品
+    private static final int QUANTITY = 2; // 每单购买数量
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private OrderStateMachine orderStateMachine;
+    private TransactionTemplate transactionTemplate; // 每次流转各自开启事务（与服务层调用方一致）
+    private int originalStock;
+    private final List<Long> insertedOrderIds = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        // 状态机使用真实Mapper，缓存、MQ与销售统计使用模拟对象（每次流转在各自事务内执行，提交后回调随事务提交执行）
+        orderStateMachine = new OrderStateMachine();
+        ReflectionTestUtils.setField(orderStateMachine, "orderMapper", orderMapper);
+        ReflectionTestUtils.setField(orderStateMachine, "productMapper", productMapper);
+        ReflectionTestUtils.setField(orderStateMachine, "redisTemplate", Mockito.mock(RedisTemplate.class));
+        ReflectionTestUtils.setField(orderStateMachine, "rabbitTemplate", Mockito.mock(RabbitTemplate.class));
+        ReflectionTestUtils.setField(orderStateMachine, "sellerDailyStatsService", Mockito.mock(SellerDailyStatsService.class));
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        originalStock = productMapper.selectById(PRODUCT_ID).getStock();
+    }
+
+    @AfterEach
+    void tearDown() {
+        insertedOrderIds.forEach(orderMapper::deleteById);
+        productMapper.updateStock(PRODUCT_ID, originalStock);
+    }
+
+    /**
+     * 支付与取消并发竞争同一订单：每轮恰好一方成功，失败方均为状态冲突，库存恢复次数等于取消成功次数
+     */
+    @Test
+    void payVersusCancel_concurrently_exactlyOneWinsPerRound() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        int cancelWins = 0;
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                // 1. 插入待支付订单
+                Order order = buildPendingOrder(round);
+                orderMapper.insert(order);
+                insertedOrderIds.add(order.getOrderId());
+                Long orderId = order.getOrderId();
+
+                // 2. 各线程先读取订单（均为待支付），在屏障处同时触发流转
+                CyclicBarrier barrier = new CyclicBarrier(THREAD_COUNT);
+                List<Future<OrderTransitionEnum>> futures = new ArrayList<>();
+                for (int t = 0; t < THREAD_COUNT; t++) {
+                    boolean pay = t % 2 == 0;
+                    futures.add(executor.submit(() -> {
+                        Order snapshot = orderMapper.selectById(orderId);
+                        barrier.await();
+                        try {
+                            if (pay) {
+                                transactionTemplate.executeWithoutResult(status ->
+                                        orderStateMachine.fire(snapshot, OrderTransitionEnum.PAY, null, false));
+                                return OrderTransitionEnum.PAY;
+                            }
+                            transactionTemplate.executeWithoutResult(status ->
+                                    orderStateMachine.fire(snapshot, OrderTransitionEnum.CANCEL, snapshot.getBuyerId(), false));
+                            return OrderTransitionEnum.CANCEL;
+                        } catch (BusinessException e) {
+                            assertEquals(OrderErrorCode.ORDER_STATUS_CONFLICT, e.getErrorCode());
+                            return null;
+                        }
+                    }));
+                }
+
+                // 3. 验证本轮结果
+                List<OrderTransitionEnum> winners = new ArrayList<>();
+                for (Future<OrderTransitionEnum> future : futures) {
+                    OrderTransitionEnum winner = future.get(30, TimeUnit.SECONDS);
+                    if (winner != null) {
+                        winners.add(winner);
+                    }
+                }
+                assertEquals(1, winners.size(), "第" + round + "轮应恰好一个流转成功");
+                Order finalOrder = orderMapper.selectById(orderId);
+                assertEquals(winners.get(0).getToStatus(), finalOrder.getStatus());
+                if (winners.get(0) == OrderTransitionEnum.CANCEL) {
+                    assertNotNull(finalOrder.getCancelTime());
+                    assertNull(finalOrder.getPayTime());
+                    cancelWins++;
+                } else {
+                    assertNotNull(finalOrder.getPayTime());
+                    assertNull(finalOrder.getCancelTime());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // 4. 库存只为取消成功的订单各恢复一次
+        assertEquals(originalStock + cancelWins * QUANTITY, productMapper.selectById(PRODUCT_ID).getStock());
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    private Order buildPendingOrder(int round) {
+        LocalDateTime now = LocalDateTime.now();
+        Order order = new Order();
+        order.setProductId(PRODUCT_ID);
+        order.setBuyerId(1L);
+        order.setSellerId(2L);
+        order.setOrderNo("CAS" + System.nanoTime() + round);
+        order.setTotalAmount(BigDecimal.valueOf(100));
+        order.setQuantity(QUANTITY);
+        order.setReceiverName("test_buyer");
+        order.setAddress("北京市朝阳区");
+        order.setPhoneNumber("13800138000");
+        order.setStatus(OrderStatusEnum.PENDING_PAYMENT);
+        order.setPayType(PayTypeEnum.ALIPAY);
+        order.setCreateTime(now);
+        order.setPayExpireTime(now.plusMinutes(30));
+        return order;
+    }
+}
@@ -0,0 +1,260 @@
+package xyz.graygoo401.trade.statemachine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import xyz.graygoo401.api.common.dto.mq.OrderEventDTO;
+import xyz.graygoo401.api.common.dto.mq.ProductEventDTO;
+import xyz.graygoo401.api.trade.enums.OrderStatusEnum;
+import xyz.graygoo401.api.trade.enums.ProductStatusEnum;
+import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.common.exception.error.SystemErrorCode;
+import xyz.graygoo401.trade.dao.entity.Order;
+import xyz.graygoo401.trade.dao.entity.Product;
+import xyz.graygoo401.trade.dao.mapper.OrderMapper;
+import xyz.graygoo401.trade.dao.mapper.ProductMapper;
+import xyz.graygoo401.trade.exception.error.OrderErrorCode;
+import xyz.graygoo401.trade.service.base.SellerDailyStatsService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * OrderStateMachine单元测试
+ * 覆盖流转表（源状态、守卫、时间字段、路由键）、条件更新冲突，以及同一订单的冲突流转并发执行时只有一方生效
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class OrderStateMachineTest {
+
+    @Mock
+    private OrderMapper orderMapper;
+    @Mock
+    private ProductMapper productMapper;
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+    @Mock
+    private SellerDailyStatsService sellerDailyStatsService;
+
+    @InjectMocks
+    private OrderStateMachine orderStateMachine;
+
+    @BeforeEach
+    void setUp() {
+        // 模拟调用方事务（未初始化事务同步，提交后任务立即执行）
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        when(orderMapper.compareAndSetStatus(anyLong(), any(), any(), any(), any())).thenReturn(1);
+        when(productMapper.increaseStock(anyLong(), anyInt())).thenReturn(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    /**
+     * 测试无事务调用：直接拒绝，不执行条件更新与任何副作用
+     */
+    @Test
+    void fire_withoutTransaction_rejected() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+
+        assertThrows(IllegalStateException.class, () ->
+                orderStateMachine.fire(buildOrder(OrderStatusEnum.PENDING_PAYMENT), OrderTransitionEnum.CANCEL, 2L, false));
+
+        verifyNoInteractions(orderMapper, productMapper, rabbitTemplate, sellerDailyStatsService);
+    }
+
+    /**
+     * 测试取消：条件更新以当前状态为期望值，记录取消时间、恢复库存并按取消路由键发送事件
+     */
+    @Test
+    void fire_cancelByBuyer_updatesRestoresStockAndPublishes() {
+        Order order = buildOrder(OrderStatusEnum.PENDING_PAYMENT);
+
+        OrderTransitionEvent event = orderStateMachine.fire(order, OrderTransitionEnum.CANCEL, 2L, false);
+
+        assertEquals(OrderStatusEnum.PENDING_PAYMENT, event.getFromStatus());
+        assertEquals(OrderStatusEnum.CANCELLED, event.getToStatus());
+        assertEquals(OrderStatusEnum.CANCELLED, order.getStatus());
+        assertEquals(event.getEventTime(), order.getCancelTime());
+        verify(orderMapper).compareAndSetStatus(1L, OrderStatusEnum.PENDING_PAYMENT, OrderStatusEnum.CANCELLED,
+                "cancel_time", event.getEventTime());
+        verify(productMapper).increaseStock(1001L, 2);
+        verify(redisTemplate).delete("product:info:1001");
+        verify(rabbitTemplate).convertAndSend(eq("order.topic"), eq("order.cancelled.v1"), any(OrderEventDTO.class));
+        verify(sellerDailyStatsService).applyOrderTransition(order, OrderStatusEnum.PENDING_PAYMENT, OrderStatusEnum.CANCELLED);
+        verify(rabbitTemplate, never()).convertAndSend(anyString(), anyString(), any(ProductEventDTO.class));
+    }
+
+    /**
+     * 测试取消已售罄商品的订单：恢复库存（SQL同时恢复在售状态）并发送商品状态事件
+     */
+    @Test
+    void fire_cancelSoldOutProduct_publishesProductStatus() {
+        Product product = new Product();
+        product.setProductId(1001L);
+        product.setSellerId(3L);
+        product.setStatus(ProductStatusEnum.SOLD_OUT);
+        when(productMapper.selectById(1001L)).thenReturn(product);
+
+        orderStateMachine.fire(buildOrder(OrderStatusEnum.PENDING_PAYMENT), OrderTransitionEnum.CANCEL, 2L, false);
+
+        verify(productMapper).increaseStock(1001L, 2);
+        verify(rabbitTemplate).convertAndSend(eq("product.topic"), eq("product.status"),
+                argThat((ProductEventDTO event) -> event.getProductId().equals(1001L) && "STATUS".equals(event.getAction())));
+    }
+
+    /**
+     * 测试守卫：卖家不能取消订单，系统不能发货，管理员可以取消他人订单
+     */
+    @Test
+    void fire_guardByRole() {
+        BusinessException sellerCancel = assertThrows(BusinessException.class, () ->
+                orderStateMachine.fire(buildOrder(OrderStatusEnum.PENDING_PAYMENT), OrderTransitionEnum.CANCEL, 3L, false));
+        assertEquals(SystemErrorCode.PERMISSION_DENIED, sellerCancel.getErrorCode());
+
+        BusinessException systemShip = assertThrows(BusinessException.class, () ->
+                orderStateMachine.fire(buildOrder(OrderStatusEnum.PENDING_SHIPMENT), OrderTransitionEnum.SHIP, null, false));
+        assertEquals(SystemErrorCode.PERMISSION_DENIED, systemShip.getErrorCode());
+
+        OrderTransitionEvent adminCancel = orderStateMachine.fire(buildOrder(OrderStatusEnum.PENDING_PAYMENT),
+                OrderTransitionEnum.CANCEL, 9L, true);
+        assertEquals(OrderStatusEnum.CANCELLED, adminCancel.getToStatus());
+        verify(orderMapper, times(1)).compareAndSetStatus(anyLong(), any(), any(), any(), any());
+    }
+
+    /**
+     * 测试源状态：终态订单不允许任何流转，且不执行条件更新
+     */
+    @Test
+    void fire_terminalStatus_rejected() {
+        for (OrderTransitionEnum transition : OrderTransitionEnum.values()) {
+            for (OrderStatusEnum terminal : List.of(OrderStatusEnum.COMPLETED, OrderStatusEnum.CANCELLED, OrderStatusEnum.RETURNED)) {
+                BusinessException exception = assertThrows(BusinessException.class, () ->
+                        orderStateMachine.fire(buildOrder(terminal), transition, 2L, true));
+                assertEquals(OrderErrorCode.ORDER_STATUS_INVALID, exception.getErrorCode());
+            }
+        }
+        verify(orderMapper, never()).compareAndSetStatus(anyLong(), any(), any(), any(), any());
+    }
+
+    /**
+     * 测试条件更新未命中：抛出状态冲突，不修改内存订单、不恢复库存、不发送事件
+     */
+    @Test
+    void fire_casMiss_conflictWithoutSideEffects() {
+        when(orderMapper.compareAndSetStatus(anyLong(), any(), any(), any(), any())).thenReturn(0);
+        Order order = buildOrder(OrderStatusEnum.PENDING_PAYMENT);
+
+        BusinessException exception = assertThrows(BusinessException.class, () ->
+                orderStateMachine.fire(order, OrderTransitionEnum.TIMEOUT_CLOSE, null, false));
+
+        assertEquals(OrderErrorCode.ORDER_STATUS_CONFLICT, exception.getErrorCode());
+        assertEquals(OrderStatusEnum.PENDING_PAYMENT, order.getStatus());
+        verify(productMapper, never()).increaseStock(anyLong(), anyInt());
+        verifyNoInteractions(rabbitTemplate, sellerDailyStatsService);
+    }
+
+    /**
+     * 测试流转查找：通用状态更新只能匹配非系统专属流转，未声明的流转返回null
+     */
+    @Test
+    void resolve_matchesDeclaredTransitions() {
+        assertEquals(OrderTransitionEnum.CANCEL, OrderTransitionEnum.resolve(OrderStatusEnum.PENDING_PAYMENT, OrderStatusEnum.CANCELLED));
+        assertEquals(OrderTransitionEnum.CONFIRM_RECEIVE, OrderTransitionEnum.resolve(OrderStatusEnum.PENDING_RECEIVE, OrderStatusEnum.COMPLETED));
+        assertNull(OrderTransitionEnum.resolve(OrderStatusEnum.PENDING_SHIPMENT, OrderStatusEnum.CANCELLED));
+        assertNull(OrderTransitionEnum.resolve(OrderStatusEnum.COMPLETED, OrderStatusEnum.PENDING_PAYMENT));
+    }
+
+    /**
+     * 并发测试：同一待支付订单上支付、取消、超时关闭同时触发（条件更新按状态原子比较并设置）
+     * 校验每轮恰好一方成功，其余均为状态冲突，库存最多恢复一次、事件只发送一次
+     */
+    @Test
+    void fire_conflictingTransitionsConcurrently_exactlyOneWins() throws Exception {
+        // 1. 以AtomicReference模拟数据库行状态，条件更新即compareAndSet
+        AtomicReference<OrderStatusEnum> rowStatus = new AtomicReference<>();
+        when(orderMapper.compareAndSetStatus(anyLong(), any(), any(), any(), any())).thenAnswer(invocation ->
+                rowStatus.compareAndSet(invocation.getArgument(1), invocation.getArgument(2)) ? 1 : 0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        try {
+            for (int round = 0; round < 200; round++) {
+                rowStatus.set(OrderStatusEnum.PENDING_PAYMENT);
+                clearInvocations(productMapper, rabbitTemplate);
+
+                // 2. 每个线程持有各自读取到的订单副本（均为待支付），同时触发
+                CyclicBarrier barrier = new CyclicBarrier(6);
+                List<Future<Boolean>> futures = new ArrayList<>();
+                for (int t = 0; t < 6; t++) {
+                    OrderTransitionEnum transition = switch (t % 3) {
+                        case 0 -> OrderTransitionEnum.PAY;
+                        case 1 -> OrderTransitionEnum.CANCEL;
+                        default -> OrderTransitionEnum.TIMEOUT_CLOSE;
+                    };
+                    Long operatorId = transition == OrderTransitionEnum.CANCEL ? 2L : null;
+                    futures.add(executor.submit(() -> {
+                        Order order = buildOrder(OrderStatusEnum.PENDING_PAYMENT);
+                        barrier.await();
+                        TransactionSynchronizationManager.setActualTransactionActive(true);
+                        try {
+                            orderStateMachine.fire(order, transition, operatorId, false);
+                            return true;
+                        } catch (BusinessException e) {
+                            assertEquals(OrderErrorCode.ORDER_STATUS_CONFLICT, e.getErrorCode());
+                            return false;
+                        } finally {
+                            TransactionSynchronizationManager.setActualTransactionActive(false);
+                        }
+                    }));
+                }
+
+                // 3. 验证结果
+                int winners = 0;
+                for (Future<Boolean> future : futures) {
+                    winners += future.get(10, TimeUnit.SECONDS) ? 1 : 0;
+                }
+                assertEquals(1, winners, "第" + round + "轮应恰好一个流转成功");
+                int expectedRestores = rowStatus.get() == OrderStatusEnum.CANCELLED ? 1 : 0;
+                verify(productMapper, times(expectedRestores)).increaseStock(anyLong(), anyInt());
+                verify(rabbitTemplate, times(1)).convertAndSend(anyString(), anyString(), any(OrderEventDTO.class));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // ---------------------- 私有辅助方法 ----------------------
+
+    private Order buildOrder(OrderStatusEnum status) {
+        Order order = new Order();
+        order.setOrderId(1L);
+        order.setOrderNo("ORD20240107000001");
+        order.setProductId(1001L);
+        order.setBuyerId(2L);
+        order.setSellerId(3L);
+        order.setQuantity(2);
+        order.setStatus(status);
+        order.setCreateTime(LocalDateTime.now().minusMinutes(40));
+        return order;
+    }
+}
@@ -144,4 +144,8 @@ VALUES
          3,
          'NORMAL',
          '2024-01-07 09:05:00'
-    );
\ No newline at end of file
+    );
+-- 3. 回填评价冗余商品ID（与EvaluationMapper.backfillProductId一致，历史评价经订单补齐product_id）
+UPDATE `evaluation` e
+SET product_id = (SELECT o.product_id FROM `order` o WHERE o.order_id = e.order_id)
+WHERE e.product_id IS NULL;
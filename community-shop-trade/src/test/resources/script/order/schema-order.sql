@@ -6,6 +6,7 @@ CREATE TABLE `order` (
     buyer_id BIGINT NOT NULL COMMENT '买家ID（关联user表user_id）',
     seller_id BIGINT NOT NULL COMMENT '卖家ID（关联user表user_id）',
     order_no VARCHAR(50) NOT NULL UNIQUE COMMENT '订单编号',
+    checkout_no VARCHAR(50) COMMENT '结算单号（购物车结算时同一批订单共享）',
     total_amount DECIMAL(10,2) NOT NULL COMMENT '交易金额',
     quantity INT NOT NULL COMMENT '购买数量',
     receiver_name VARCHAR(50) NOT NULL COMMENT '收货联系人',
@@ -24,6 +25,8 @@ CREATE TABLE `order` (
     FOREIGN KEY (buyer_id) REFERENCES `user`(user_id),
     FOREIGN KEY (seller_id) REFERENCES `user`(user_id)
 ) COMMENT '订单信息表';
+CREATE INDEX idx_checkout_no ON `order` (checkout_no);
+CREATE INDEX idx_pay_time ON `order` (pay_time);  -- 按支付日期回填卖家销售日统计
 
 -- 2. 评价表（Evaluation实体，枚举字段status存储code，对应EvaluationStatusEnum）
 DROP TABLE IF EXISTS `evaluation`;
@@ -31,13 +34,87 @@ CREATE TABLE `evaluation` (
     eval_id BIGINT AUTO_INCREMENT PRIMARY KEY,
     order_id BIGINT NOT NULL UNIQUE COMMENT '关联订单ID（一个订单对应一个评价）',
     user_id BIGINT NOT NULL COMMENT '评价者ID（买家，关联user表user_id）',
-    evaluatee_id BIGINT NOT NULL COMMENT '被评价者ID（关联user表user_id）',
+    evaluatee_id BIGINT NOT NULL COMMENT '被评价者ID（卖家，关联user表user_id）',
+    product_id BIGINT COMMENT '商品ID（冗余自订单，避免商品评价列表关联order表；历史数据由回填任务补齐）',
     content TEXT COMMENT '评价内容',
     score INT NOT NULL CHECK (score BETWEEN 1 AND 5) COMMENT '评分（1-5星）',
     status VARCHAR(20) DEFAULT 'NORMAL' COMMENT '评价状态（枚举EvaluationStatusEnum的code：NORMAL/HIDDEN）',
     create_time DATETIME NOT NULL COMMENT '评价时间',
     update_time DATETIME COMMENT '修改时间',
+    INDEX idx_eval_product_time (product_id, create_time),  -- 商品评价列表
+    INDEX idx_eval_seller_time (evaluatee_id, create_time),  -- 卖家评价列表（MySQL中同时作为evaluatee_id外键索引）
     FOREIGN KEY (order_id) REFERENCES `order`(order_id),
     FOREIGN KEY (user_id) REFERENCES `user`(user_id),
     FOREIGN KEY (evaluatee_id) REFERENCES `user`(user_id)
-) COMMENT '订单评价表';
\ No newline at end of file
+) COMMENT '订单评价表';
+
+-- 3. 订单列表读模型表（OrderView实体，冗余商品标题/缩略图与买卖双方昵称，买家/卖家订单列表单表游标分页查询）
+DROP TABLE IF EXISTS `order_view`;
+CREATE TABLE `order_view` (
+    order_id BIGINT PRIMARY KEY COMMENT '订单ID（与order表主键一致）',
+    order_no VARCHAR(50) NOT NULL COMMENT '订单编号',
+    buyer_id BIGINT NOT NULL COMMENT '买家ID',
+    seller_id BIGINT NOT NULL COMMENT '卖家ID',
+    product_id BIGINT NOT NULL COMMENT '商品ID',
+    product_title VARCHAR(100) COMMENT '商品标题（冗余）',
+    product_image VARCHAR(255) COMMENT '商品缩略图（冗余）',
+    buyer_nickname VARCHAR(50) COMMENT '买家昵称（冗余）',
+    seller_nickname VARCHAR(50) COMMENT '卖家昵称（冗余）',
+    total_amount DECIMAL(10,2) NOT NULL COMMENT '交易金额',
+    quantity INT NOT NULL COMMENT '购买数量',
+    status VARCHAR(20) NOT NULL COMMENT '订单状态（枚举OrderStatusEnum的code）',
+    create_time DATETIME NOT NULL COMMENT '下单时间（游标分页排序键）',
+    pay_time DATETIME COMMENT '支付时间',
+    update_time DATETIME COMMENT '读模型最后同步时间'
+) COMMENT '订单列表读模型表';
+CREATE INDEX idx_buyer_time ON `order_view` (buyer_id, create_time);
+CREATE INDEX idx_seller_time ON `order_view` (seller_id, create_time);
+CREATE INDEX idx_view_product ON `order_view` (product_id);  -- 商品标题变更时按商品批量同步冗余字段
+
+-- 4. 支付回调处理记录表（PayCallbackRecord实体，(trade_no, trade_status)唯一，用于支付回调幂等去重）
+DROP TABLE IF EXISTS `pay_callback_record`;
+CREATE TABLE `pay_callback_record` (
+    record_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    trade_no VARCHAR(64) NOT NULL COMMENT '支付平台交易流水号',
+    trade_status VARCHAR(32) NOT NULL COMMENT '回调交易状态（如TRADE_SUCCESS）',
+    order_no VARCHAR(50) NOT NULL COMMENT '商户订单编号',
+    pay_type VARCHAR(20) COMMENT '支付方式（枚举PayTypeEnum的code）',
+    pay_amount DECIMAL(10,2) COMMENT '回调支付金额',
+    callback_content TEXT COMMENT '回调原始内容',
+    create_time DATETIME NOT NULL COMMENT '首次处理时间',
+    CONSTRAINT uk_trade_no_status UNIQUE (trade_no, trade_status)
+) COMMENT '支付回调处理记录表';
+
+-- 5. 评分汇总表（RatingSummary实体，按卖家/商品维护评价数、评分总和与1-5星分布，评价增删改时原子更新）
+DROP TABLE IF EXISTS `rating_summary`;
+CREATE TABLE `rating_summary` (
+    summary_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    target_type VARCHAR(20) NOT NULL COMMENT '汇总对象类型（枚举RatingTargetTypeEnum的code：SELLER/PRODUCT）',
+    target_id BIGINT NOT NULL COMMENT '汇总对象ID（卖家ID/商品ID）',
+    rating_count INT NOT NULL DEFAULT 0 COMMENT '有效评价数',
+    rating_sum BIGINT NOT NULL DEFAULT 0 COMMENT '评分总和',
+    star1_count INT NOT NULL DEFAULT 0 COMMENT '一星评价数',
+    star2_count INT NOT NULL DEFAULT 0 COMMENT '二星评价数',
+    star3_count INT NOT NULL DEFAULT 0 COMMENT '三星评价数',
+    star4_count INT NOT NULL DEFAULT 0 COMMENT '四星评价数',
+    star5_count INT NOT NULL DEFAULT 0 COMMENT '五星评价数',
+    update_time DATETIME NOT NULL COMMENT '最后更新时间',
+    CONSTRAINT uk_target UNIQUE (target_type, target_id)
+) COMMENT '评分汇总表';
+
+-- 6. 卖家销售日统计表（SellerDailyStats实体，按卖家、日期预聚合，订单流转与评价增删改时原子增量更新，回填任务按日校正）
+DROP TABLE IF EXISTS `seller_daily_stats`;
+CREATE TABLE `seller_daily_stats` (
+    stats_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    seller_id BIGINT NOT NULL COMMENT '卖家ID（关联user表user_id）',
+    stat_date DATE NOT NULL COMMENT '统计日期',
+    order_count INT NOT NULL DEFAULT 0 COMMENT '支付订单数（按支付时间归属日期）',
+    gmv DECIMAL(14,2) NOT NULL DEFAULT 0 COMMENT '成交额',
+    refund_count INT NOT NULL DEFAULT 0 COMMENT '退款订单数（计入原订单支付日期）',
+    refund_amount DECIMAL(14,2) NOT NULL DEFAULT 0 COMMENT '退款金额',
+    rating_count INT NOT NULL DEFAULT 0 COMMENT '有效评价数（按评价时间归属日期）',
+    rating_sum BIGINT NOT NULL DEFAULT 0 COMMENT '评分总和',
+    update_time DATETIME NOT NULL COMMENT '最后更新时间',
+    CONSTRAINT uk_seller_date UNIQUE (seller_id, stat_date)
+) COMMENT '卖家销售日统计表';
+CREATE INDEX idx_stat_date ON `seller_daily_stats` (stat_date);
@@ -12,6 +12,7 @@ CREATE TABLE `product` (
                            create_time DATETIME NOT NULL COMMENT '发布时间',
                            update_time DATETIME COMMENT '修改时间',
                            status VARCHAR(20) NOT NULL DEFAULT 'ON_SALE' COMMENT '商品状态（枚举ProductStatusEnum的code：ON_SALE/OFF_SHELF/OUT_OF_STOCK）',
+                           main_image VARCHAR(255) COMMENT '商品首图（MinIO相对路径，订单列表缩略图取此字段）',
                            `condition` VARCHAR(32) COMMENT '商品成色（枚举ProductConditionEnum的code：NEW/NINETY_FIVE_PERCENT_NEW/NINETY_PERCENT_NEW/EIGHTY_PERCENT_NEW）',
                            FOREIGN KEY (seller_id) REFERENCES `user`(user_id)
 ) COMMENT '商品信息表';
\ No newline at end of file
@@ -3,8 +3,10 @@ package xyz.graygoo401.user;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @EnableFeignClients(basePackages = "xyz.graygoo401.api")    // 扫描 Feign 客户端
+@EnableScheduling   // 启用定时任务（用户名补全索引重建）
 @SpringBootApplication(scanBasePackages = {
         "xyz.graygoo401.common", // 扫描 common 模块的 Bean（如异常处理、拦截器）
         "xyz.graygoo401.user"    // 扫描自己模块的 Bean
@@ -0,0 +1,20 @@
+package xyz.graygoo401.user.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import xyz.graygoo401.common.index.AutocompleteIndex;
+
+/**
+ * 前缀补全配置类（每个实例在内存中维护一份用户名补全索引）
+ */
+@Configuration
+public class AutocompleteConfig {
+
+    /**
+     * 用户名补全索引（每个前缀缓存粉丝数最多的10条候选）
+     */
+    @Bean
+    public AutocompleteIndex userAutocompleteIndex() {
+        return new AutocompleteIndex();
+    }
+}
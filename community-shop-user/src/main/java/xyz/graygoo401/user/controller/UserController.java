@@ -21,11 +21,14 @@ import xyz.graygoo401.api.user.dto.user.*;
 import xyz.graygoo401.common.enums.UserRoleEnum;
 import xyz.graygoo401.common.annotation.LoginRequired;
 import xyz.graygoo401.common.dto.PageResult;
+import xyz.graygoo401.common.dto.SuggestionDTO;
 import xyz.graygoo401.common.util.RequestParseUtil;
 import xyz.graygoo401.common.vo.ResultVO;
 import xyz.graygoo401.user.service.base.UserService;
 import xyz.graygoo401.user.service.base.UserThirdPartyService;
 
+import java.util.List;
+
 /**
  * 用户管理模块Controller，负责用户注册、登录、资料管理及第三方账号绑定等接口实现
  */
@@ -621,6 +624,37 @@ public class UserController {
         return ResultVO.success(queryCount);
     }
 
+    /**
+     * 用户名补全接口
+     * 对应Service层：UserServiceImpl.suggestUsers()，由内存补全索引按前缀返回粉丝数最多的用户
+     */
+    @GetMapping("/suggest")
+    @LoginRequired
+    @Operation(
+            summary = "用户名补全接口",
+            description = "搜索用户、@提及时的输入联想，业务规则：1.按用户名前缀匹配（忽略首尾空白与大小写）；2.仅返回正常状态用户，按粉丝数降序，粉丝数相同按用户ID升序；3.默认且最多返回10条；4.前缀为空或索引尚未构建完成时返回空列表",
+            security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "查询成功，返回补全候选列表",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "401", description = "未登录（对应错误码：SYSTEM_021）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class))),
+            @ApiResponse(responseCode = "500", description = "数据查询失败（对应错误码：SYSTEM_014）",
+                    content = @Content(schema = @Schema(implementation = ResultVO.class)))
+    })
+    public ResultVO<List<SuggestionDTO>> suggestUsers(
+            @RequestParam
+            @Parameter(description = "已输入的用户名前缀", required = true, example = "test")
+            String prefix,
+            @RequestParam(required = false)
+            @Parameter(description = "返回条数（默认且最多10条）", example = "10")
+            Integer limit
+    ) {
+        List<SuggestionDTO> suggestions = userService.suggestUsers(prefix, limit);
+        return ResultVO.success(suggestions);
+    }
+
     /**
      * 工具方法：从请求头令牌中解析用户ID（实际项目需结合JWT工具实现）
      * @return 当前登录用户ID
@@ -6,6 +6,7 @@ import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 import xyz.graygoo401.api.user.dto.user.UserQueryDTO;
+import xyz.graygoo401.common.dto.SuggestionDTO;
 import xyz.graygoo401.common.enums.UserRoleEnum;
 import xyz.graygoo401.common.enums.UserStatusEnum;
 import xyz.graygoo401.user.dao.entity.User;
@@ -139,4 +140,21 @@ public interface UserMapper extends BaseMapper<User> {
      */
     List<User> selectByQuery(UserQueryDTO userQueryDTO);
 
+    // ==================== 前缀补全 ====================
+
+    /**
+     * 游标分批查询正常状态用户的补全数据（构建用户名前缀补全索引，按用户ID升序）
+     * @param lastUserId 上一批最后一个用户ID（null表示从头开始）
+     * @param limit 每批条数
+     * @return 补全数据行（id=用户ID，text=用户名，weight=粉丝数）
+     */
+    List<SuggestionDTO> selectNormalForAutocomplete(@Param("lastUserId") Long lastUserId, @Param("limit") int limit);
+
+    /**
+     * 查询单个正常状态用户的补全数据（增量刷新补全索引）
+     * @param userId 用户ID
+     * @return 补全数据行，用户不存在或非正常状态时返回null
+     */
+    SuggestionDTO selectNormalSuggestionById(@Param("userId") Long userId);
+
 }
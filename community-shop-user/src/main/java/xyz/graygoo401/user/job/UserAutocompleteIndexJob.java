@@ -0,0 +1,31 @@
+package xyz.graygoo401.user.job;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import xyz.graygoo401.user.service.base.UserService;
+
+/**
+ * 用户名补全索引重建任务
+ * 启动后立即全量构建（构建完成前补全返回空列表），此后定期重建，刷新粉丝数权重并同步其他实例上的用户变更
+ */
+@Slf4j
+@Component
+public class UserAutocompleteIndexJob {
+
+    @Autowired
+    private UserService userService;
+
+    /**
+     * 每10分钟重建一次（可通过user.autocomplete.rebuild-interval覆盖，单位毫秒）
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${user.autocomplete.rebuild-interval:600000}")
+    public void rebuild() {
+        try {
+            userService.rebuildAutocompleteIndex();
+        } catch (Exception e) {
+            log.error("用户名补全索引重建任务执行失败", e);
+        }
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import xyz.graygoo401.api.common.dto.mq.OrderEventDTO;
+import xyz.graygoo401.api.common.enums.MqEventTypeEnum;
 import xyz.graygoo401.user.service.base.UserService;
 
 /**
@@ -24,8 +25,8 @@ public class UserCreditListener {
 
     @RabbitListener(bindings = @QueueBinding(
             value = @Queue(name = "user.credit.queue"),
-            exchange = @Exchange(name = "order.topic", type = ExchangeTypes.TOPIC),
-            key = "order.pay.#" // 监听所有以 order.pay 开头的消息
+            exchange = @Exchange(name = MqEventTypeEnum.Exchanges.ORDER, type = ExchangeTypes.TOPIC),
+            key = MqEventTypeEnum.RoutingKeys.ORDER_PAID // 仅绑定订单支付成功事件
     ))
     public void handleOrderPaidForCredit(OrderEventDTO event) {
         log.info("【用户服务】收到支付消息，为用户 {} 增加信用分", event.getBuyerId());
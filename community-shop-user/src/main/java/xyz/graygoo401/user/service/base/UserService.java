@@ -9,8 +9,11 @@ import xyz.graygoo401.common.enums.UserRoleEnum;
 import xyz.graygoo401.common.enums.UserStatusEnum;
 import xyz.graygoo401.common.service.BaseService;
 import xyz.graygoo401.common.dto.PageResult;
+import xyz.graygoo401.common.dto.SuggestionDTO;
 import xyz.graygoo401.user.dao.entity.User;
 
+import java.util.List;
+
 /**
  * 用户管理Service接口，实现《文档》中用户注册、登录、信用管理等核心功能
  * 依据：
@@ -105,6 +108,26 @@ public interface UserService extends BaseService<User> {
      */
     int countUsers(UserQueryDTO userQueryDTO);
 
+    /**
+     * 用户名前缀补全（搜索框输入联想）
+     * @param prefix 用户已输入的前缀（大小写不敏感）
+     * @param limit 返回条数（默认且最多10条）
+     * @return 按粉丝数降序的正常状态用户候选，索引未就绪时返回空列表
+     */
+    List<SuggestionDTO> suggestUsers(String prefix, Integer limit);
+
+    /**
+     * 全量重建用户名补全索引（定时任务调用）
+     * @return 载入的正常状态用户数
+     */
+    int rebuildAutocompleteIndex();
+
+    /**
+     * 按数据库最新状态刷新补全索引中的单个用户
+     * @param userId 用户ID
+     */
+    void refreshAutocompleteIndex(Long userId);
+
     /**
      * 更新用户资料（仅支持昵称、头像等非敏感字段）
      * @param userId 操作用户ID
@@ -19,10 +19,13 @@ import xyz.graygoo401.api.user.enums.ThirdPartyTypeEnum;
 import xyz.graygoo401.common.enums.UserRoleEnum;
 import xyz.graygoo401.common.enums.UserStatusEnum;
 import xyz.graygoo401.common.dto.PageResult;
+import xyz.graygoo401.common.dto.SuggestionDTO;
 import xyz.graygoo401.common.exception.error.SystemErrorCode;
 import xyz.graygoo401.common.service.BaseServiceImpl;
 import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.common.index.AutocompleteIndex;
 import xyz.graygoo401.common.util.TokenUtil;
+import xyz.graygoo401.common.util.TransactionUtil;
 import xyz.graygoo401.user.convert.UserConvert;
 import xyz.graygoo401.user.dao.entity.User;
 import xyz.graygoo401.user.dao.entity.UserThirdParty;
@@ -33,8 +36,10 @@ import xyz.graygoo401.user.service.base.UserService;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -56,6 +61,8 @@ public class UserServiceImpl extends BaseServiceImpl<UserMapper, User> implement
     // 缓存相关常量
     private static final String CACHE_KEY_USER = "user:info:"; // 用户信息缓存Key前缀
     private static final Duration CACHE_TTL_USER = Duration.ofMinutes(60); // 用户信息缓存有效期（分钟）
+    private static final int AUTOCOMPLETE_BATCH_SIZE = 1000; // 补全索引全量构建每批加载条数
+    private static final int MAX_SUGGEST_LIMIT = 10; // 单次补全最大返回条数
 
     @Autowired
     private UserMapper userMapper;
@@ -78,6 +85,9 @@ public class UserServiceImpl extends BaseServiceImpl<UserMapper, User> implement
     @Autowired
     private UserConvert userConvert;
 
+    @Autowired
+    private AutocompleteIndex userAutocompleteIndex;
+
 
     /**
      * 用户注册
@@ -524,6 +534,7 @@ public class UserServiceImpl extends BaseServiceImpl<UserMapper, User> implement
             User updatedUser = userMapper.selectById(userId);
             UserDetailDTO userDetailDTO = userConvert.userToUserDetailDTO(updatedUser);
             redisTemplate.opsForValue().set(CACHE_KEY_USER + userId, userDetailDTO, CACHE_TTL_USER);
+            refreshAutocompleteAfterCommit(userId);
             return userConvert.userToUserDetailDTO(updatedUser);
         } catch (BusinessException e) {
             throw e;
@@ -721,6 +732,7 @@ public class UserServiceImpl extends BaseServiceImpl<UserMapper, User> implement
             log.error("更新用户状态失败，用户ID：{}，状态：{}", userId, status);
             throw new BusinessException(SystemErrorCode.DATA_UPDATE_FAILED);
         }
+        refreshAutocompleteAfterCommit(userId);
         log.info("更新用户状态成功，用户ID：{}，状态：{}", userId, status);
 
         return true;
@@ -757,6 +769,90 @@ public class UserServiceImpl extends BaseServiceImpl<UserMapper, User> implement
     }
 
 
+    /**
+     * 用户名前缀补全
+     * 核心逻辑：索引就绪时由内存补全索引返回粉丝数最多的正常状态用户，未就绪（启动后首次构建完成前）返回空列表，避免逐键击穿到数据库
+     */
+    @Override
+    public List<SuggestionDTO> suggestUsers(String prefix, Integer limit) {
+        try {
+            // 1. 参数处理
+            if (!StringUtils.hasText(prefix) || !userAutocompleteIndex.isReady()) {
+                return Collections.emptyList();
+            }
+            int size = limit == null || limit <= 0 ? MAX_SUGGEST_LIMIT : Math.min(limit, MAX_SUGGEST_LIMIT);
+
+            // 2. 查询补全索引
+            return userAutocompleteIndex.suggest(prefix, size).stream()
+                    .map(suggestion -> new SuggestionDTO(suggestion.getId(), suggestion.getText(), suggestion.getWeight()))
+                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            log.error("用户名补全异常，前缀：{}", prefix, e);
+            throw new BusinessException(SystemErrorCode.DATA_QUERY_FAILED);
+        }
+    }
+
+    /**
+     * 全量重建用户名补全索引
+     * 核心逻辑：标记重建开始→游标分批加载正常状态用户→替换索引→重放重建期间的增量变更
+     */
+    @Override
+    public int rebuildAutocompleteIndex() {
+        try {
+            // 1. 标记重建开始（此后的增量变更在替换后按数据库最新状态重放）
+            userAutocompleteIndex.beginRebuild();
+
+            // 2. 按用户ID游标分批加载正常状态用户
+            AutocompleteIndex.Builder builder = userAutocompleteIndex.newBuilder();
+            int loaded = 0;
+            Long lastUserId = null;
+            while (true) {
+                List<SuggestionDTO> batch = userMapper.selectNormalForAutocomplete(lastUserId, AUTOCOMPLETE_BATCH_SIZE);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                batch.forEach(row -> builder.add(row.getId(), row.getText(), row.getWeight()));
+                loaded += batch.size();
+                lastUserId = batch.get(batch.size() - 1).getId();
+            }
+
+            // 3. 替换索引并重放重建期间的变更
+            Set<Long> changedIds = userAutocompleteIndex.replace(builder);
+            changedIds.forEach(this::refreshAutocompleteIndex);
+
+            log.info("用户名补全索引重建完成，用户数：{}，重放变更数：{}", loaded, changedIds.size());
+            return loaded;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("用户名补全索引重建异常", e);
+            throw new BusinessException(SystemErrorCode.FAILURE);
+        }
+    }
+
+    /**
+     * 按数据库最新状态刷新补全索引中的单个用户（正常状态则写入，否则移除）
+     */
+    @Override
+    public void refreshAutocompleteIndex(Long userId) {
+        try {
+            if (userId == null) {
+                throw new BusinessException(SystemErrorCode.PARAM_NULL);
+            }
+            SuggestionDTO row = userMapper.selectNormalSuggestionById(userId);
+            if (row == null) {
+                userAutocompleteIndex.remove(userId);
+            } else {
+                userAutocompleteIndex.upsert(row.getId(), row.getText(), row.getWeight());
+            }
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("用户名补全索引刷新异常，用户ID：{}", userId, e);
+            throw new BusinessException(SystemErrorCode.FAILURE);
+        }
+    }
+
     // ---------------------- 私有辅助方法（匹配文档转换规则） ----------------------
     private void insertRegisterUserToDb (User user, String password) {
         user.setPassword(passwordEncoder.encode(password)); // 密码加密存储（文档要求）
@@ -780,10 +876,24 @@ public class UserServiceImpl extends BaseServiceImpl<UserMapper, User> implement
                 userDetailDTO,
                 CACHE_TTL_USER
         );
+        refreshAutocompleteAfterCommit(user.getUserId());
 
         log.info("用户注册成功，用户ID：{}", user.getUserId());
     }
 
+    /**
+     * 事务提交后刷新用户名补全索引（刷新失败仅记录日志，由定时重建兜底，不影响已提交的业务操作）
+     */
+    private void refreshAutocompleteAfterCommit(Long userId) {
+        TransactionUtil.afterCommit(() -> {
+            try {
+                refreshAutocompleteIndex(userId);
+            } catch (Exception e) {
+                log.warn("用户名补全索引刷新失败，等待定时重建，用户ID：{}", userId, e);
+            }
+        });
+    }
+
     /**
      * 第三方用户自动注册
      */
@@ -796,6 +906,7 @@ public class UserServiceImpl extends BaseServiceImpl<UserMapper, User> implement
         user.setCreateTime(LocalDateTime.now());
 
         userMapper.insert(user);
+        refreshAutocompleteAfterCommit(user.getUserId());
         return userMapper.selectById(user.getUserId());
     }
 
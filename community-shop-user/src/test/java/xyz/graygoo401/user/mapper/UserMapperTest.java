@@ -8,6 +8,7 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.test.context.ActiveProfiles;
 import xyz.graygoo401.api.user.dto.user.UserQueryDTO;
 import xyz.graygoo401.api.user.enums.GenderEnum;
+import xyz.graygoo401.common.dto.SuggestionDTO;
 import xyz.graygoo401.common.enums.UserRoleEnum;
 import xyz.graygoo401.common.enums.UserStatusEnum;
 import xyz.graygoo401.user.dao.entity.User;
@@ -268,4 +269,23 @@ public class UserMapperTest {
         // 断言结果
         assertEquals(4, total, "系统总用户数统计错误");
     }
-}
\ No newline at end of file
+
+    /**
+     * 测试selectNormalForAutocomplete：仅加载正常状态用户的用户名与粉丝数，按用户ID游标分批
+     */
+    @Test
+    void selectNormalForAutocomplete_mixedStatus_returnsNormalOnly() {
+        // 1. 执行测试方法（每批2条）
+        List<SuggestionDTO> firstBatch = userMapper.selectNormalForAutocomplete(null, 2);
+        List<SuggestionDTO> nextBatch = userMapper.selectNormalForAutocomplete(firstBatch.get(1).getId(), 2);
+
+        // 2. 验证结果（data-common.sql中3个正常用户，封禁用户不加载）
+        assertEquals(2, firstBatch.size());
+        assertEquals(testBuyer.getUserId(), firstBatch.get(0).getId());
+        assertEquals("test_buyer", firstBatch.get(0).getText());
+        assertEquals(0L, firstBatch.get(0).getWeight());
+        assertEquals(1, nextBatch.size());
+        assertEquals(testAdmin.getUserId(), nextBatch.get(0).getId());
+        assertNull(userMapper.selectNormalSuggestionById(testBanned.getUserId()));
+    }
+}
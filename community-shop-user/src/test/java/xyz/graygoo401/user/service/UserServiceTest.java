@@ -18,7 +18,9 @@ import xyz.graygoo401.api.user.dto.user.*;
 import xyz.graygoo401.api.user.enums.LoginTypeEnum;
 import xyz.graygoo401.common.enums.UserRoleEnum;
 import xyz.graygoo401.common.enums.UserStatusEnum;
+import xyz.graygoo401.common.dto.SuggestionDTO;
 import xyz.graygoo401.common.exception.BusinessException;
+import xyz.graygoo401.common.index.AutocompleteIndex;
 import xyz.graygoo401.common.util.TokenUtil;
 import xyz.graygoo401.common.vo.ResultVO;
 import xyz.graygoo401.user.convert.UserConvert;
@@ -63,6 +65,9 @@ public class UserServiceTest {
     @Mock
     private ValueOperations<String, Object> valueOperations;
 
+    @Mock
+    private AutocompleteIndex userAutocompleteIndex;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -149,6 +154,27 @@ public class UserServiceTest {
         );
     }
 
+    /**
+     * 测试注册成功后刷新用户名补全索引（无事务上下文时立即刷新）
+     */
+    @Test
+    void testRegister_Success_RefreshesAutocomplete() {
+        // 模拟依赖行为（插入后回填用户ID）
+        when(userConvert.registerDtoToUser(any(RegisterDTO.class))).thenReturn(new User());
+        doReturn("encodePassword").when(passwordEncoder).encode(anyString());
+        doAnswer(invocation -> {
+            invocation.<User>getArgument(0).setUserId(1001L);
+            return 1;
+        }).when(userMapper).insert(any(User.class));
+        when(userMapper.selectNormalSuggestionById(1001L)).thenReturn(new SuggestionDTO(1001L, "newUser", 0L));
+
+        // 执行测试
+        userService.register(testRegisterDTO);
+
+        // 验证依赖调用
+        verify(userAutocompleteIndex, times(1)).upsert(1001L, "newUser", 0L);
+    }
+
     @Test
     void testRegister_PhoneExists() {
         // 模拟手机号已存在